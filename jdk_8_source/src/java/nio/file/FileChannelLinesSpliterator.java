@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.nio.file;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over the lines of a file, used by {@link Files#lines} when
+ * the file is read in a charset whose encoding of the line terminators
+ * {@code '\n'} and {@code '\r'} is the single byte of the same value, and
+ * no other character contains those bytes.
+ *
+ * <p> Each spliterator covers a range of bytes of the file that starts at
+ * the beginning of a line and ends after a line terminator, or at the end
+ * of the file.  Splitting looks for the first line terminator after the
+ * middle of the range, mapping only the part of the file it scans, so that
+ * the ranges of a parallel stream are found without reading the file.  A
+ * range is decoded only when it is traversed, from windows of the file
+ * mapped one at a time, into a character buffer and a line builder that
+ * are reused for every line of the range.  The memory used is therefore
+ * bounded by the number of ranges traversed at once, whatever the size of
+ * the file.
+ *
+ * <p> Lines are terminated as by {@link java.io.BufferedReader#readLine()},
+ * by a line feed, a carriage return, or a carriage return followed
+ * immediately by a line feed.  The spliterator does not close the channel.
+ *
+ * <p> Each window is mapped only after checking the current size of the
+ * file, so that a file truncated while its lines are read fails with an
+ * {@code UncheckedIOException} when the next window is reached.  A window
+ * already mapped cannot be protected in this way: as for any {@link
+ * java.nio.MappedByteBuffer}, reading the part of it that the truncation
+ * removed causes an unspecified exception, possibly at some later time.
+ */
+final class FileChannelLinesSpliterator implements Spliterator<String> {
+
+    /**
+     * Tells whether lines of the given charset can be split at the bytes
+     * of their line terminators.
+     */
+    static boolean isSupported(Charset cs) {
+        return StandardCharsets.UTF_8.equals(cs)
+            || StandardCharsets.ISO_8859_1.equals(cs)
+            || StandardCharsets.US_ASCII.equals(cs);
+    }
+
+    /** The size of the windows of the file that are mapped at a time */
+    private static final int WINDOW = 1 << 22;
+
+    /** The size of the buffer lines are decoded into */
+    private static final int CHARS = 8192;
+
+    private final FileChannel fc;
+    private final Charset cs;
+    private long index;
+    private final long fence;
+
+    // Set when traversal starts, after which the spliterator is not split
+    private CharsetDecoder decoder;
+    private ByteBuffer window;
+    private long windowPosition;
+    private CharBuffer chars;
+    private StringBuilder line;
+    private boolean skipLF;
+    private boolean eof;
+
+    FileChannelLinesSpliterator(FileChannel fc, Charset cs, long index, long fence) {
+        this.fc = fc;
+        this.cs = cs;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        String s = readLine();
+        if (s == null)
+            return false;
+        action.accept(s);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        String s;
+        while ((s = readLine()) != null)
+            action.accept(s);
+    }
+
+    /**
+     * Returns the next line of the range, or null at its end.
+     */
+    private String readLine() {
+        if (decoder == null) {
+            if (index >= fence)
+                return null;
+            decoder = cs.newDecoder();
+            // A range never decodes to more characters than it has bytes
+            chars = CharBuffer.allocate((int) Math.min(CHARS, fence - index));
+            chars.flip();
+            line = new StringBuilder(80);
+        } else if (chars == null) {
+            return null;
+        }
+        try {
+            line.setLength(0);
+            for (;;) {
+                if (!chars.hasRemaining() && !fill()) {
+                    String s = (line.length() > 0) ? line.toString() : null;
+                    // Drop the buffers of a finished range, as a parallel
+                    // stream may keep the spliterator after traversing it
+                    window = null;
+                    chars = null;
+                    line = null;
+                    return s;
+                }
+                char[] a = chars.array();
+                int start = chars.position(), limit = chars.limit();
+                if (skipLF) {
+                    skipLF = false;
+                    if (a[start] == '\n') {
+                        chars.position(++start);
+                        continue;
+                    }
+                }
+                for (int i = start; i < limit; i++) {
+                    char c = a[i];
+                    if (c == '\n' || c == '\r') {
+                        chars.position(i + 1);
+                        skipLF = (c == '\r');
+                        if (line.length() == 0)
+                            return new String(a, start, i - start);
+                        line.append(a, start, i - start);
+                        return line.toString();
+                    }
+                }
+                line.append(a, start, limit - start);
+                chars.position(limit);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes the next characters of the range into the character buffer,
+     * mapping the next window of the file when the current one has been
+     * decoded.  Returns false at the end of the range.
+     */
+    private boolean fill() throws IOException {
+        chars.clear();
+        while (!eof && chars.position() == 0) {
+            if (window == null) {
+                window = map(index, WINDOW);
+                windowPosition = index;
+            }
+            boolean last = windowPosition + window.limit() == fence;
+            CoderResult cr = decoder.decode(window, chars, last);
+            if (cr.isOverflow())
+                break;
+            if (cr.isError())
+                cr.throwException();
+            if (last) {
+                // None of the supported decoders has anything to flush
+                decoder.flush(chars);
+                eof = true;
+            } else {
+                // Map the next window from the first byte not decoded,
+                // which may begin a character the window ended inside
+                long next = windowPosition + window.position();
+                window = map(next, WINDOW);
+                windowPosition = next;
+            }
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+
+    private ByteBuffer map(long position, int size) throws IOException {
+        long length = Math.min(size, fence - position);
+        if (position + length > fc.size())
+            throw new IOException("File truncated while its lines are read");
+        return fc.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        if (decoder != null)
+            return null;
+        long mid = (index + fence) >>> 1;
+        if (mid <= index)
+            return null;
+        long split;
+        try {
+            split = lineEnd(mid);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (split < 0 || split >= fence)
+            return null;
+        Spliterator<String> prefix
+            = new FileChannelLinesSpliterator(fc, cs, index, split);
+        index = split;
+        return prefix;
+    }
+
+    /**
+     * Returns the position following the first line terminator at or after
+     * the given position, or -1 if there is none before the fence.
+     */
+    private long lineEnd(long from) throws IOException {
+        for (long position = from; position < fence; ) {
+            ByteBuffer b = map(position, WINDOW);
+            int n = b.limit();
+            for (int i = 0; i < n; i++) {
+                byte c = b.get(i);
+                if (c == '\n')
+                    return position + i + 1;
+                if (c == '\r') {
+                    long next = position + i + 1;
+                    if (next < fence) {
+                        byte d = (i + 1 < n) ? b.get(i + 1) : map(next, 1).get(0);
+                        if (d == '\n')
+                            return next + 1;
+                    }
+                    return next;
+                }
+            }
+            position += n;
+        }
+        return -1;
+    }
+
+    @Override
+    public long estimateSize() {
+        // Bytes rather than lines, which is enough to balance the splits
+        return fence - index;
+    }
+
+    @Override
+    public long getExactSizeIfKnown() {
+        return -1;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.ORDERED | Spliterator.NONNULL;
+    }
+}
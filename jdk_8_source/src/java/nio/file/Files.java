@@ -3720,6 +3720,23 @@ public final class Files {
      * {@link Stream#close close} method is invoked after the stream operations
      * are completed.
      *
+     * @implNote
+     * For a file of the default file system read in the {@link
+     * StandardCharsets#UTF_8 UTF-8}, {@link StandardCharsets#ISO_8859_1
+     * ISO-8859-1} or {@link StandardCharsets#US_ASCII US-ASCII} charset, the
+     * stream encapsulates a {@link FileChannel} instead.  Its spliterator is
+     * split at the line terminators nearest the middle of each byte range,
+     * and each range is decoded, from windows of the file mapped into
+     * memory, only as it is traversed.  A parallel stream therefore neither
+     * reads the file to split it nor holds more than a buffer per range
+     * being traversed, whatever the size of the file.  This applies only to
+     * non-empty regular files; other files, such as pipes, are read through
+     * a {@code Reader}.  The size of the file is taken when this method is
+     * invoked.  The file should not be modified while the stream is
+     * traversed.  If it is truncated, an {@code UncheckedIOException} is
+     * thrown when the next window of the file is to be mapped; reading the
+     * removed part of a window already mapped causes an unspecified
+     * exception, as for any {@link java.nio.MappedByteBuffer}.
      *
      * @param   path
      *          the path to the file
@@ -3741,6 +3758,31 @@ public final class Files {
      * @since   1.8
      */
     public static Stream<String> lines(Path path, Charset cs) throws IOException {
+        // Regular files of the default file system in a charset whose line
+        // terminators are single bytes are split by byte ranges instead of
+        // by copying batches of lines read through a single reader. Other
+        // files, such as pipes or those of /proc, have no meaningful size
+        // and are read through a reader
+        if (path.getFileSystem() == FileSystems.getDefault()
+            && FileChannelLinesSpliterator.isSupported(cs)
+            && isMappable(path)) {
+            FileChannel fc = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                Spliterator<String> s
+                    = new FileChannelLinesSpliterator(fc, cs, 0, fc.size());
+                return StreamSupport.stream(s, false)
+                                    .onClose(asUncheckedRunnable(fc));
+            } catch (Error|RuntimeException|IOException e) {
+                try {
+                    fc.close();
+                } catch (IOException ex) {
+                    try {
+                        e.addSuppressed(ex);
+                    } catch (Throwable ignore) {}
+                }
+                throw e;
+            }
+        }
         BufferedReader br = Files.newBufferedReader(path, cs);
         try {
             return br.lines().onClose(asUncheckedRunnable(br));
@@ -3756,6 +3798,15 @@ public final class Files {
         }
     }
 
+    /**
+     * Tells whether the lines of the given file may be read from a mapped
+     * channel, that is, whether it is a non-empty regular file.
+     */
+    private static boolean isMappable(Path path) throws IOException {
+        BasicFileAttributes attrs = readAttributes(path, BasicFileAttributes.class);
+        return attrs.isRegularFile() && attrs.size() > 0;
+    }
+
     /**
      * Read all lines from a file as a {@code Stream}. Bytes from the file are
      * decoded into characters using the {@link StandardCharsets#UTF_8 UTF-8}
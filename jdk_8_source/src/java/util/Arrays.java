@@ -36,6 +36,7 @@ import java.util.function.IntToDoubleFunction;
 import java.util.function.IntToLongFunction;
 import java.util.function.IntUnaryOperator;
 import java.util.function.LongBinaryOperator;
+import java.util.function.ToLongFunction;
 import java.util.function.UnaryOperator;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
@@ -724,12 +725,13 @@ public class Arrays {
     /**
      * Sorts the specified array into ascending numerical order.
      *
-     * @implNote The sorting algorithm is a parallel sort-merge that breaks the
-     * array into sub-arrays that are themselves sorted and then merged. When
-     * the sub-array length reaches a minimum granularity, the sub-array is
-     * sorted using the appropriate {@link Arrays#sort(long[]) Arrays.sort}
-     * method. If the length of the specified array is less than the minimum
-     * granularity, then it is sorted using the appropriate {@link
+     * @implNote The sorting algorithm is a parallel radix sort that
+     * distributes the elements into buckets by the highest bits at which
+     * they differ, and then sorts the buckets in parallel, distributing
+     * them again while their length exceeds a minimum granularity. Smaller
+     * buckets are sorted using the appropriate {@link Arrays#sort(long[])
+     * Arrays.sort} method. If the length of the specified array is less
+     * than the minimum granularity, then it is sorted using the appropriate {@link
      * Arrays#sort(long[]) Arrays.sort} method. The algorithm requires a
      * working space no greater than the size of the original array. The
      * {@link ForkJoinPool#commonPool() ForkJoin common pool} is used to
@@ -745,10 +747,10 @@ public class Arrays {
             (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
             DualPivotQuicksort.sort(a, 0, n - 1, null, 0, 0);
         else
-            new ArraysParallelSortHelpers.FJLong.Sorter
-                (null, a, new long[n], 0, n, 0,
+            new ArraysParallelSortHelpers.RadixLong.Sorter
+                (a, new long[n], null, null, 0, n, 0,
                  ((g = n / (p << 2)) <= MIN_ARRAY_SORT_GRAN) ?
-                 MIN_ARRAY_SORT_GRAN : g).invoke();
+                 MIN_ARRAY_SORT_GRAN : g, false).invoke();
     }
 
     /**
@@ -757,12 +759,13 @@ public class Arrays {
      * inclusive, to the index {@code toIndex}, exclusive. If
      * {@code fromIndex == toIndex}, the range to be sorted is empty.
      *
-     * @implNote The sorting algorithm is a parallel sort-merge that breaks the
-     * array into sub-arrays that are themselves sorted and then merged. When
-     * the sub-array length reaches a minimum granularity, the sub-array is
-     * sorted using the appropriate {@link Arrays#sort(long[]) Arrays.sort}
-     * method. If the length of the specified array is less than the minimum
-     * granularity, then it is sorted using the appropriate {@link
+     * @implNote The sorting algorithm is a parallel radix sort that
+     * distributes the elements into buckets by the highest bits at which
+     * they differ, and then sorts the buckets in parallel, distributing
+     * them again while their length exceeds a minimum granularity. Smaller
+     * buckets are sorted using the appropriate {@link Arrays#sort(long[])
+     * Arrays.sort} method. If the length of the specified array is less
+     * than the minimum granularity, then it is sorted using the appropriate {@link
      * Arrays#sort(long[]) Arrays.sort} method. The algorithm requires a working
      * space no greater than the size of the specified range of the original
      * array. The {@link ForkJoinPool#commonPool() ForkJoin common pool} is
@@ -785,10 +788,10 @@ public class Arrays {
             (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
             DualPivotQuicksort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
         else
-            new ArraysParallelSortHelpers.FJLong.Sorter
-                (null, a, new long[n], fromIndex, n, 0,
+            new ArraysParallelSortHelpers.RadixLong.Sorter
+                (a, new long[n], null, null, fromIndex, n, 0,
                  ((g = n / (p << 2)) <= MIN_ARRAY_SORT_GRAN) ?
-                 MIN_ARRAY_SORT_GRAN : g).invoke();
+                 MIN_ARRAY_SORT_GRAN : g, false).invoke();
     }
 
     /**
@@ -1571,6 +1574,166 @@ public class Arrays {
         }
     }
 
+    // Sorting by keys
+
+    /**
+     * Sorts the specified array of objects into ascending numerical order
+     * of the {@code long} keys the specified function extracts from them.
+     * The result is the same as that of {@code sort(a,
+     * Comparator.comparingLong(keyExtractor))}, but the function is applied
+     * only once to each element, instead of twice for each comparison.
+     *
+     * <p>This sort is guaranteed to be <i>stable</i>:  elements with equal
+     * keys will not be reordered as a result of the sort.
+     *
+     * @implNote The keys are extracted into an array of {@code long}, which
+     * is sorted together with the indices of the elements by {@link
+     * #argsort(int[], long[]) argsort}, and the elements are then moved to
+     * the positions of their indices.  The algorithm requires a working
+     * space of two {@code long} arrays, two {@code int} arrays and one
+     * array of references the size of the original array.
+     *
+     * @param <T> the class of the objects to be sorted
+     * @param a the array to be sorted
+     * @param keyExtractor the function extracting the key of an element
+     * @throws NullPointerException if {@code keyExtractor} is null
+     *
+     * @since 1.8
+     */
+    public static <T> void sortByLongKey(T[] a,
+                                         ToLongFunction<? super T> keyExtractor) {
+        Objects.requireNonNull(keyExtractor);
+        int n = a.length;
+        long[] keys = new long[n];
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = keyExtractor.applyAsLong(a[i]);
+            index[i] = i;
+        }
+        DualPivotQuicksort.sort(keys, index, 0, n - 1, null, null, 0);
+        T[] elements = a.clone();
+        for (int i = 0; i < n; i++)
+            a[i] = elements[index[i]];
+    }
+
+    /**
+     * Sorts the specified array of objects into ascending numerical order
+     * of the {@code long} keys the specified function extracts from them,
+     * as by {@link #sortByLongKey(Object[], ToLongFunction) sortByLongKey},
+     * extracting the keys and sorting them in parallel.
+     *
+     * <p>This sort is guaranteed to be <i>stable</i>:  elements with equal
+     * keys will not be reordered as a result of the sort.
+     *
+     * @implNote The keys and the indices of the elements are sorted
+     * together by {@link #parallelArgsort(int[], long[]) parallelArgsort}.
+     * If the length of the specified array is less than the minimum
+     * granularity, then it is sorted using {@link
+     * #sortByLongKey(Object[], ToLongFunction) sortByLongKey}.  The {@link
+     * ForkJoinPool#commonPool() ForkJoin common pool} is used to execute
+     * any parallel tasks.
+     *
+     * @param <T> the class of the objects to be sorted
+     * @param a the array to be sorted
+     * @param keyExtractor the function extracting the key of an element
+     * @throws NullPointerException if {@code keyExtractor} is null
+     *
+     * @since 1.8
+     */
+    public static <T> void parallelSortByLongKey(T[] a,
+                                                 ToLongFunction<? super T> keyExtractor) {
+        Objects.requireNonNull(keyExtractor);
+        int n = a.length, p, g;
+        if (n <= MIN_ARRAY_SORT_GRAN ||
+            (p = ForkJoinPool.getCommonPoolParallelism()) == 1) {
+            sortByLongKey(a, keyExtractor);
+            return;
+        }
+        long[] keys = new long[n];
+        int[] index = new int[n];
+        parallelSetAll(keys, i -> keyExtractor.applyAsLong(a[i]));
+        parallelSetAll(index, i -> i);
+        new ArraysParallelSortHelpers.RadixLong.Sorter
+            (keys, new long[n], index, new int[n], 0, n, 0,
+             ((g = n / (p << 2)) <= MIN_ARRAY_SORT_GRAN) ?
+             MIN_ARRAY_SORT_GRAN : g, false).invoke();
+        T[] elements = a.clone();
+        parallelSetAll(a, i -> elements[index[i]]);
+    }
+
+    /**
+     * Sorts the specified array of keys into ascending numerical order,
+     * permuting the specified array of indices in the same way, so that
+     * each index stays with its key.  If the indices are initially
+     * {@code 0} to {@code n - 1}, they end up giving, for each position of
+     * the sorted keys, the position its key had before the sort.
+     *
+     * <p>This sort is guaranteed to be <i>stable</i>:  indices of equal
+     * keys will not be reordered as a result of the sort.
+     *
+     * @implNote The keys and indices are sorted together by a least
+     * significant digit radix sort, that skips the digits all keys have in
+     * common.  The algorithm requires a working space of a {@code long}
+     * array and an {@code int} array the size of the original arrays.
+     *
+     * @param indices the indices to be permuted with the keys
+     * @param keys the keys to be sorted
+     * @throws IllegalArgumentException if the arrays have different
+     *         lengths
+     *
+     * @since 1.8
+     */
+    public static void argsort(int[] indices, long[] keys) {
+        int n = keys.length;
+        if (indices.length != n)
+            throw new IllegalArgumentException(
+                "indices.length(" + indices.length + ") != keys.length(" + n + ")");
+        DualPivotQuicksort.sort(keys, indices, 0, n - 1, null, null, 0);
+    }
+
+    /**
+     * Sorts the specified array of keys into ascending numerical order,
+     * permuting the specified array of indices in the same way, as by
+     * {@link #argsort(int[], long[]) argsort}, in parallel.
+     *
+     * <p>This sort is guaranteed to be <i>stable</i>:  indices of equal
+     * keys will not be reordered as a result of the sort.
+     *
+     * @implNote The sorting algorithm is a parallel radix sort that
+     * distributes the keys and indices into buckets by the highest bits at
+     * which the keys differ, and then sorts the buckets in parallel,
+     * distributing them again while their length exceeds a minimum
+     * granularity. Smaller buckets are sorted using the algorithm of
+     * {@link #argsort(int[], long[]) argsort}. If the length of the
+     * specified arrays is less than the minimum granularity, then they are
+     * sorted using {@link #argsort(int[], long[]) argsort}. The algorithm
+     * requires a working space of a {@code long} array and an {@code int}
+     * array the size of the original arrays. The {@link
+     * ForkJoinPool#commonPool() ForkJoin common pool} is used to execute
+     * any parallel tasks.
+     *
+     * @param indices the indices to be permuted with the keys
+     * @param keys the keys to be sorted
+     * @throws IllegalArgumentException if the arrays have different
+     *         lengths
+     *
+     * @since 1.8
+     */
+    public static void parallelArgsort(int[] indices, long[] keys) {
+        int n = keys.length, p, g;
+        if (indices.length != n)
+            throw new IllegalArgumentException(
+                "indices.length(" + indices.length + ") != keys.length(" + n + ")");
+        if (n <= MIN_ARRAY_SORT_GRAN ||
+            (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
+            DualPivotQuicksort.sort(keys, indices, 0, n - 1, null, null, 0);
+        else
+            new ArraysParallelSortHelpers.RadixLong.Sorter
+                (keys, new long[n], indices, new int[n], 0, n, 0,
+                 ((g = n / (p << 2)) <= MIN_ARRAY_SORT_GRAN) ?
+                 MIN_ARRAY_SORT_GRAN : g, false).invoke();
+    }
+
     // Parallel prefix
 
     /**
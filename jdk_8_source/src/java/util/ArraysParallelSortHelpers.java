@@ -785,6 +785,157 @@ import java.util.concurrent.CountedCompleter;
         }
     } // FJLong
 
+    /**
+     * long support class for the parallel most significant digit radix
+     * sort of Arrays.parallelSort(long[]).  A Sorter finds the highest
+     * bit at which the elements of its range differ, counts the elements
+     * by the digit of RADIX_BITS bits that ends at that bit, and scatters
+     * them by that digit into the workspace, each of these passes done in
+     * parallel by a Pass task per chunk of gran elements.  Each bucket is
+     * then copied back into the main array by a Sorter of its own, which
+     * splits it again if it is larger than gran and otherwise leaves it to
+     * DualPivotQuicksort, which radix sorts it by its remaining digits
+     * within the bucket's slice of the workspace.  If an array of indices
+     * is given, it is permuted together with the elements, and as the
+     * passes preserve the order of equal digits, the sort is stable.
+     */
+    static final class RadixLong {
+        static final int RADIX_BITS = 8;
+        static final int RADIX_SIZE = 1 << RADIX_BITS;
+        static final int RADIX_MASK = RADIX_SIZE - 1;
+
+        static final class Sorter extends RecursiveAction {
+            static final long serialVersionUID = 2446542900576103244L;
+            final long[] a, w;
+            final int[] x, xw;  // indices and their workspace, or null
+            final int base, size, wbase, gran;
+            final boolean copy; // whether the range is in the workspace
+            Sorter(long[] a, long[] w, int[] x, int[] xw, int base, int size,
+                   int wbase, int gran, boolean copy) {
+                this.a = a; this.w = w; this.x = x; this.xw = xw;
+                this.base = base; this.size = size;
+                this.wbase = wbase; this.gran = gran; this.copy = copy;
+            }
+            protected final void compute() {
+                long[] a = this.a, w = this.w; // localize all params
+                int[] x = this.x, xw = this.xw;
+                int b = this.base, n = this.size, wb = this.wbase, g = this.gran;
+                if (copy) {
+                    System.arraycopy(w, wb, a, b, n);
+                    if (x != null)
+                        System.arraycopy(xw, wb, x, b, n);
+                }
+                if (n <= g) {
+                    if (x == null)
+                        DualPivotQuicksort.sort(a, b, b + n - 1, w, wb, n);
+                    else
+                        DualPivotQuicksort.sort(a, x, b, b + n - 1, w, xw, wb);
+                    return;
+                }
+                Pass[] ps = new Pass[(n - 1) / g + 1];
+                for (int i = 0, lo = b; i < ps.length; ++i, lo += g)
+                    ps[i] = new Pass(a, w, x, xw, lo, Math.min(g, b + n - lo),
+                                     a[b]);
+                invokeAll(ps);
+                long diff = 0L;
+                for (Pass p : ps)
+                    diff |= p.diff;
+                if (diff == 0L) // all elements are equal
+                    return;
+                int shift = Math.max(0, Long.SIZE - RADIX_BITS -
+                                     Long.numberOfLeadingZeros(diff));
+                for (Pass p : ps) {
+                    p.reinitialize();
+                    p.shift = shift;
+                    p.count = new int[RADIX_SIZE];
+                }
+                invokeAll(ps);
+                int[] start = new int[RADIX_SIZE + 1]; // bucket bounds in w
+                int k = wb;
+                for (int d = 0; d < RADIX_SIZE; ++d) {
+                    start[d] = k;
+                    for (Pass p : ps) {
+                        int c = p.count[d];
+                        p.count[d] = k;
+                        k += c;
+                    }
+                }
+                start[RADIX_SIZE] = k;
+                for (Pass p : ps) {
+                    p.reinitialize();
+                    p.scatter = true;
+                }
+                invokeAll(ps);
+                List<Sorter> buckets = new ArrayList<>();
+                for (int d = 0; d < RADIX_SIZE; ++d) {
+                    int lo = start[d], m = start[d + 1] - lo;
+                    if (m == 1) {
+                        a[b + lo - wb] = w[lo];
+                        if (x != null)
+                            x[b + lo - wb] = xw[lo];
+                    }
+                    else if (m > 1)
+                        buckets.add(new Sorter(a, w, x, xw, b + lo - wb, m,
+                                               lo, g, true));
+                }
+                invokeAll(buckets);
+            }
+        }
+
+        /**
+         * A pass of a Sorter over one chunk: finding the bits at which
+         * its elements differ from the first element of the range,
+         * counting them by digit, or scattering them by digit.
+         */
+        static final class Pass extends RecursiveAction {
+            static final long serialVersionUID = 2446542900576103244L;
+            final long[] a, w;
+            final int[] x, xw;
+            final int base, size;
+            final long first;
+            long diff;      // set by the first pass
+            int shift;      // of the digit, set before counting
+            int[] count;    // counts, then indices for scattering
+            boolean scatter;
+            Pass(long[] a, long[] w, int[] x, int[] xw, int base, int size,
+                 long first) {
+                this.a = a; this.w = w; this.x = x; this.xw = xw;
+                this.base = base; this.size = size; this.first = first;
+            }
+            protected final void compute() {
+                long[] a = this.a, w = this.w; // localize all params
+                int[] x = this.x;
+                int b = this.base, e = b + this.size, s = this.shift;
+                int[] c = this.count;
+                if (c == null) {
+                    long f = this.first, d = 0L;
+                    for (int i = b; i < e; ++i)
+                        d |= a[i] ^ f;
+                    diff = d;
+                }
+                else if (!scatter) {
+                    for (int i = b; i < e; ++i)
+                        ++c[(int) ((a[i] ^ Long.MIN_VALUE) >>> s) & RADIX_MASK];
+                }
+                else if (x == null) {
+                    for (int i = b; i < e; ++i) {
+                        long v = a[i];
+                        w[c[(int) ((v ^ Long.MIN_VALUE) >>> s) & RADIX_MASK]++] = v;
+                    }
+                }
+                else {
+                    int[] xw = this.xw;
+                    for (int i = b; i < e; ++i) {
+                        long v = a[i];
+                        int k = c[(int) ((v ^ Long.MIN_VALUE) >>> s) & RADIX_MASK]++;
+                        w[k] = v;
+                        xw[k] = x[i];
+                    }
+                }
+            }
+        }
+    } // RadixLong
+
     /** float support class */
     static final class FJFloat {
         static final class Sorter extends CountedCompleter<Void> {
@@ -0,0 +1,2049 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A vector of bits with the operations of {@link BitSet}, stored
+ * compressed so that sparse or clustered bits over the whole range of
+ * nonnegative {@code int} indices take space in proportion to the bits
+ * set rather than to the highest index.
+ *
+ * <p>The indices are divided into chunks of 2<sup>16</sup> by their high
+ * 16 bits, and only chunks containing set bits are stored, in order,
+ * each in a container of the low 16 bits of its set indices.  A chunk
+ * with at most 4096 bits set is an <em>array</em> container, a sorted
+ * array of {@code char}; a chunk with more bits set is a <em>bitmap</em>
+ * container of 1024 {@code long} words.  A chunk may also be a
+ * <em>run</em> container, a sorted array of runs of consecutive set bits,
+ * when it is filled by a range operation or made so by {@link
+ * #runOptimize}.  Logical operations between two sets combine their
+ * containers chunk by chunk, with operations specialized for each kind
+ * of container, and skip the chunks that cannot contribute.
+ *
+ * <p>The content of a set can be written to a {@link ByteBuffer} in a
+ * portable form by {@link #serialize}, and read back by {@link
+ * #deserialize}, or used without being copied by {@link #map}, which
+ * returns a read-only set backed by the buffer, such as a {@link
+ * java.nio.MappedByteBuffer MappedByteBuffer} of a file.  The same form
+ * is used when the set is written to an {@link ObjectOutputStream}.
+ *
+ * <p>By default, all bits in the set initially have the value
+ * {@code false}.
+ *
+ * <p>Unless otherwise noted, passing a null parameter to any of the
+ * methods in a {@code CompressedBitSet} will result in a
+ * {@code NullPointerException}.
+ *
+ * <p>A {@code CompressedBitSet} is not safe for multithreaded use without
+ * external synchronization.  A read-only set returned by {@link #map} may
+ * be read by several threads at once.
+ *
+ * @see     BitSet
+ * @since   1.8
+ */
+public class CompressedBitSet implements Cloneable, java.io.Serializable {
+
+    /*
+     * The indices are split into a key, their high 16 bits, and their low
+     * 16 bits, which are what the containers hold.  The keys of the
+     * chunks in use are kept sorted in a char array alongside their
+     * containers, so that finding a chunk is a binary search.
+     */
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int LOW_MASK = CHUNK_SIZE - 1;
+
+    /** The greatest key of a nonnegative index */
+    private static final int MAX_KEY = Integer.MAX_VALUE >>> CHUNK_BITS;
+
+    /** The number of words of a bitmap container */
+    private static final int BITMAP_WORDS = CHUNK_SIZE >>> 6;
+
+    /**
+     * The greatest cardinality of an array container, above which a
+     * bitmap container takes less space.
+     */
+    private static final int ARRAY_MAX = 4096;
+
+    /*
+     * The serialized form, in little-endian byte order: the int MAGIC,
+     * the int number of containers, then for each container an entry of
+     * its char key, char type, int cardinality, int number of chars of
+     * its data (0 for a bitmap) and int offset of its data from the
+     * start of the form, and after the entries the data of each
+     * container: the chars of an array, the 1024 longs of a bitmap, or
+     * the start and length minus one of each run as chars.
+     */
+    private static final int MAGIC = 0x43425331;
+    private static final int HEADER = 8;
+    private static final int ENTRY = 16;
+    private static final char ARRAY = 0;
+    private static final char BITMAP = 1;
+    private static final char RUN = 2;
+
+    /** The keys of the chunks in use, in increasing order */
+    private transient char[] keys;
+
+    /** The containers of the chunks in use, null in a read-only set */
+    private transient Container[] containers;
+
+    /** The number of chunks in use */
+    private transient int size;
+
+    /** The serialized form backing a read-only set, or null */
+    private transient ByteBuffer mapped;
+
+    /** The container of a read-only set decoded last */
+    private transient Decoded decoded;
+
+    /* use serialVersionUID for interoperability */
+    private static final long serialVersionUID = -3437716216329185446L;
+
+    /**
+     * Creates a new bit set. All bits are initially {@code false}.
+     */
+    public CompressedBitSet() {
+        keys = new char[4];
+        containers = new Container[4];
+    }
+
+    /**
+     * Returns a new bit set containing all the bits in the given long
+     * array, as {@link BitSet#valueOf(long[])} does.
+     *
+     * @param longs a long array containing a little-endian representation
+     *        of a sequence of bits to be used as the initial bits of the
+     *        new bit set
+     * @return a {@code CompressedBitSet} containing all the bits in the
+     *         long array
+     * @throws IllegalArgumentException if a bit is set at an index
+     *         greater than {@code Integer.MAX_VALUE}
+     */
+    public static CompressedBitSet valueOf(long[] longs) {
+        CompressedBitSet set = new CompressedBitSet();
+        for (int from = 0; from < longs.length; from += BITMAP_WORDS) {
+            int to = Math.min(longs.length, from + BITMAP_WORDS);
+            int cardinality = 0;
+            for (int u = from; u < to; u++)
+                cardinality += Long.bitCount(longs[u]);
+            if (cardinality == 0)
+                continue;
+            int key = from / BITMAP_WORDS;
+            if (key > MAX_KEY)
+                throw new IllegalArgumentException(
+                    "bit index > Integer.MAX_VALUE");
+            long[] words = new long[BITMAP_WORDS];
+            System.arraycopy(longs, from, words, 0, to - from);
+            set.insert(set.size, key,
+                       new BitmapContainer(words, cardinality).normalize());
+        }
+        return set;
+    }
+
+    /**
+     * Returns a new bit set containing all the bits of the given bit set.
+     *
+     * @param set the bit set to copy
+     * @return a {@code CompressedBitSet} containing the same bits
+     */
+    public static CompressedBitSet valueOf(BitSet set) {
+        return valueOf(set.toLongArray());
+    }
+
+    /**
+     * Returns a new long array containing all the bits in this bit set,
+     * as {@link BitSet#toLongArray()} does.
+     *
+     * @return a long array containing a little-endian representation
+     *         of all the bits in this bit set
+     */
+    public long[] toLongArray() {
+        long[] longs = new long[(int) (((long) length() + 63) >>> 6)];
+        for (int i = 0; i < size; i++) {
+            int base = keys[i] * BITMAP_WORDS;
+            Container c = container(i);
+            if (c instanceof BitmapContainer) {
+                System.arraycopy(((BitmapContainer) c).words, 0, longs, base,
+                                 Math.min(BITMAP_WORDS, longs.length - base));
+            } else {
+                for (int v = c.next(0); v >= 0; v = c.next(v + 1)) {
+                    longs[base + (v >>> 6)] |= 1L << v;
+                    if (v == LOW_MASK)
+                        break;
+                }
+            }
+        }
+        return longs;
+    }
+
+    /**
+     * Returns a new {@link BitSet} containing all the bits in this bit
+     * set.
+     *
+     * @return a {@code BitSet} with the same bits set
+     */
+    public BitSet toBitSet() {
+        return BitSet.valueOf(toLongArray());
+    }
+
+    /**
+     * Sets the bit at the specified index to the complement of its
+     * current value.
+     *
+     * @param  bitIndex the index of the bit to flip
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     * @throws UnsupportedOperationException if this bit set is read-only
+     */
+    public void flip(int bitIndex) {
+        if (get(bitIndex))
+            clear(bitIndex);
+        else
+            set(bitIndex);
+    }
+
+    /**
+     * Sets each bit from the specified {@code fromIndex} (inclusive) to the
+     * specified {@code toIndex} (exclusive) to the complement of its current
+     * value.
+     *
+     * @param  fromIndex index of the first bit to flip
+     * @param  toIndex index after the last bit to flip
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *         or {@code toIndex} is negative, or {@code fromIndex} is
+     *         larger than {@code toIndex}
+     * @throws UnsupportedOperationException if this bit set is read-only
+     */
+    public void flip(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        checkWritable();
+        if (fromIndex == toIndex)
+            return;
+        int last = toIndex - 1;
+        int fromKey = fromIndex >>> CHUNK_BITS, lastKey = last >>> CHUNK_BITS;
+        int start = lowerBound(fromKey), end = lowerBound(lastKey + 1);
+        int n = lastKey - fromKey + 1;
+        char[] k = new char[size - (end - start) + n];
+        Container[] c = new Container[k.length];
+        System.arraycopy(keys, 0, k, 0, start);
+        System.arraycopy(containers, 0, c, 0, start);
+        int j = start;
+        for (int key = fromKey, i = start; key <= lastKey; key++) {
+            int lo = (key == fromKey) ? fromIndex & LOW_MASK : 0;
+            int hi = (key == lastKey) ? (last & LOW_MASK) + 1 : CHUNK_SIZE;
+            Container r;
+            if (i < end && keys[i] == key)
+                r = containers[i++].flipRange(lo, hi);
+            else
+                r = new RunContainer(lo, hi);
+            if (r.cardinality() > 0) {
+                k[j] = (char) key;
+                c[j++] = r;
+            }
+        }
+        System.arraycopy(keys, end, k, j, size - end);
+        System.arraycopy(containers, end, c, j, size - end);
+        keys = k;
+        containers = c;
+        size = j + size - end;
+    }
+
+    /**
+     * Sets the bit at the specified index to {@code true}.
+     *
+     * @param  bitIndex a bit index
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     * @throws UnsupportedOperationException if this bit set is read-only
+     */
+    public void set(int bitIndex) {
+        if (bitIndex < 0)
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        checkWritable();
+        int key = bitIndex >>> CHUNK_BITS;
+        int i = indexOfKey(key);
+        if (i >= 0)
+            containers[i] = containers[i].add(bitIndex & LOW_MASK);
+        else
+            insert(-i - 1, key, new ArrayContainer(bitIndex & LOW_MASK));
+    }
+
+    /**
+     * Sets the bit at the specified index to the specified value.
+     *
+     * @param  bitIndex a bit index
+     * @param  value a boolean value to set
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     * @throws UnsupportedOperationException if this bit set is read-only
+     */
+    public void set(int bitIndex, boolean value) {
+        if (value)
+            set(bitIndex);
+        else
+            clear(bitIndex);
+    }
+
+    /**
+     * Sets the bits from the specified {@code fromIndex} (inclusive) to the
+     * specified {@code toIndex} (exclusive) to {@code true}.  The chunks
+     * the range covers entirely become run containers of a single run.
+     *
+     * @param  fromIndex index of the first bit to be set
+     * @param  toIndex index after the last bit to be set
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *         or {@code toIndex} is negative, or {@code fromIndex} is
+     *         larger than {@code toIndex}
+     * @throws UnsupportedOperationException if this bit set is read-only
+     */
+    public void set(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        checkWritable();
+        if (fromIndex == toIndex)
+            return;
+        int last = toIndex - 1;
+        int fromKey = fromIndex >>> CHUNK_BITS, lastKey = last >>> CHUNK_BITS;
+        int i = lowerBound(fromKey);
+        for (int key = fromKey; key <= lastKey; key++, i++) {
+            int lo = (key == fromKey) ? fromIndex & LOW_MASK : 0;
+            int hi = (key == lastKey) ? (last & LOW_MASK) + 1 : CHUNK_SIZE;
+            if (i == size || keys[i] != key)
+                insert(i, key, new RunContainer(lo, hi));
+            else if (lo == 0 && hi == CHUNK_SIZE)
+                containers[i] = new RunContainer(0, CHUNK_SIZE);
+            else
+                containers[i] = containers[i].addRange(lo, hi);
+        }
+    }
+
+    /**
+     * Sets the bits from the specified {@code fromIndex} (inclusive) to the
+     * specified {@code toIndex} (exclusive) to the specified value.
+     *
+     * @param  fromIndex index of the first bit to be set
+     * @param  toIndex index after the last bit to be set
+     * @param  value value to set the selected bits to
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *         or {@code toIndex} is negative, or {@code fromIndex} is
+     *         larger than {@code toIndex}
+     * @throws UnsupportedOperationException if this bit set is read-only
+     */
+    public void set(int fromIndex, int toIndex, boolean value) {
+        if (value)
+            set(fromIndex, toIndex);
+        else
+            clear(fromIndex, toIndex);
+    }
+
+    /**
+     * Sets the bit specified by the index to {@code false}.
+     *
+     * @param  bitIndex the index of the bit to be cleared
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     * @throws UnsupportedOperationException if this bit set is read-only
+     */
+    public void clear(int bitIndex) {
+        if (bitIndex < 0)
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        checkWritable();
+        int i = indexOfKey(bitIndex >>> CHUNK_BITS);
+        if (i >= 0)
+            replace(i, containers[i].remove(bitIndex & LOW_MASK));
+    }
+
+    /**
+     * Sets the bits from the specified {@code fromIndex} (inclusive) to the
+     * specified {@code toIndex} (exclusive) to {@code false}.
+     *
+     * @param  fromIndex index of the first bit to be cleared
+     * @param  toIndex index after the last bit to be cleared
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *         or {@code toIndex} is negative, or {@code fromIndex} is
+     *         larger than {@code toIndex}
+     * @throws UnsupportedOperationException if this bit set is read-only
+     */
+    public void clear(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        checkWritable();
+        if (fromIndex == toIndex)
+            return;
+        int last = toIndex - 1;
+        int fromKey = fromIndex >>> CHUNK_BITS, lastKey = last >>> CHUNK_BITS;
+        int i = lowerBound(fromKey), j = i;
+        for (; i < size && keys[i] <= lastKey; i++) {
+            int key = keys[i];
+            int lo = (key == fromKey) ? fromIndex & LOW_MASK : 0;
+            int hi = (key == lastKey) ? (last & LOW_MASK) + 1 : CHUNK_SIZE;
+            if (lo == 0 && hi == CHUNK_SIZE)
+                continue;
+            Container r = containers[i].removeRange(lo, hi);
+            if (r.cardinality() > 0) {
+                keys[j] = keys[i];
+                containers[j++] = r;
+            }
+        }
+        compact(i, j);
+    }
+
+    /**
+     * Sets all of the bits in this bit set to {@code false}.
+     *
+     * @throws UnsupportedOperationException if this bit set is read-only
+     */
+    public void clear() {
+        checkWritable();
+        Arrays.fill(containers, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Returns the value of the bit with the specified index.
+     *
+     * @param  bitIndex the bit index
+     * @return the value of the bit with the specified index
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public boolean get(int bitIndex) {
+        if (bitIndex < 0)
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        int i = indexOfKey(bitIndex >>> CHUNK_BITS);
+        return i >= 0 && container(i).contains(bitIndex & LOW_MASK);
+    }
+
+    /**
+     * Returns a new bit set composed of bits from this bit set
+     * from {@code fromIndex} (inclusive) to {@code toIndex} (exclusive).
+     *
+     * @param  fromIndex index of the first bit to include
+     * @param  toIndex index after the last bit to include
+     * @return a new bit set from a range of this bit set
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *         or {@code toIndex} is negative, or {@code fromIndex} is
+     *         larger than {@code toIndex}
+     */
+    public CompressedBitSet get(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        CompressedBitSet result = new CompressedBitSet();
+        if (fromIndex == toIndex)
+            return result;
+        if ((fromIndex & LOW_MASK) == 0) {
+            // Whole chunks move to other keys unchanged
+            int shift = fromIndex >>> CHUNK_BITS, last = toIndex - 1;
+            int lastKey = last >>> CHUNK_BITS;
+            for (int i = lowerBound(shift); i < size && keys[i] <= lastKey; i++) {
+                Container c = container(i).clone();
+                if (keys[i] == lastKey && (last & LOW_MASK) != LOW_MASK)
+                    c = c.removeRange((last & LOW_MASK) + 1, CHUNK_SIZE);
+                if (c.cardinality() > 0)
+                    result.insert(result.size, keys[i] - shift, c);
+            }
+        } else {
+            for (int i = nextSetBit(fromIndex); i >= 0 && i < toIndex;
+                 i = (i == Integer.MAX_VALUE) ? -1 : nextSetBit(i + 1))
+                result.set(i - fromIndex);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the first bit that is set to {@code true}
+     * that occurs on or after the specified starting index. If no such
+     * bit exists then {@code -1} is returned.
+     *
+     * @param  fromIndex the index to start checking from (inclusive)
+     * @return the index of the next set bit, or {@code -1} if there
+     *         is no such bit
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public int nextSetBit(int fromIndex) {
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        int key = fromIndex >>> CHUNK_BITS;
+        int i = indexOfKey(key);
+        if (i >= 0) {
+            int low = container(i).next(fromIndex & LOW_MASK);
+            if (low >= 0)
+                return (key << CHUNK_BITS) | low;
+            i++;
+        } else {
+            i = -i - 1;
+        }
+        return (i < size) ? (keys[i] << CHUNK_BITS) | container(i).next(0) : -1;
+    }
+
+    /**
+     * Returns the index of the first bit that is set to {@code false}
+     * that occurs on or after the specified starting index.
+     *
+     * @param  fromIndex the index to start checking from (inclusive)
+     * @return the index of the next clear bit
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public int nextClearBit(int fromIndex) {
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        int key = fromIndex >>> CHUNK_BITS, low = fromIndex & LOW_MASK;
+        for (int i = indexOfKey(key); i >= 0; ) {
+            low = container(i).nextClear(low);
+            if (low >= 0)
+                break;
+            // The chunk is set to its end; look at the next one
+            low = 0;
+            key++;
+            if (++i == size || keys[i] != key)
+                break;
+        }
+        return (key << CHUNK_BITS) | low;
+    }
+
+    /**
+     * Returns the index of the nearest bit that is set to {@code true}
+     * that occurs on or before the specified starting index.
+     * If no such bit exists, or if {@code -1} is given as the
+     * starting index, then {@code -1} is returned.
+     *
+     * @param  fromIndex the index to start checking from (inclusive)
+     * @return the index of the previous set bit, or {@code -1} if there
+     *         is no such bit
+     * @throws IndexOutOfBoundsException if the specified index is less
+     *         than {@code -1}
+     */
+    public int previousSetBit(int fromIndex) {
+        if (fromIndex < 0) {
+            if (fromIndex == -1)
+                return -1;
+            throw new IndexOutOfBoundsException(
+                "fromIndex < -1: " + fromIndex);
+        }
+        int key = fromIndex >>> CHUNK_BITS;
+        int i = indexOfKey(key);
+        if (i >= 0) {
+            int low = container(i).previous(fromIndex & LOW_MASK);
+            if (low >= 0)
+                return (key << CHUNK_BITS) | low;
+            i--;
+        } else {
+            i = -i - 2;
+        }
+        return (i >= 0)
+            ? (keys[i] << CHUNK_BITS) | container(i).previous(LOW_MASK) : -1;
+    }
+
+    /**
+     * Returns the index of the nearest bit that is set to {@code false}
+     * that occurs on or before the specified starting index.
+     * If no such bit exists, or if {@code -1} is given as the
+     * starting index, then {@code -1} is returned.
+     *
+     * @param  fromIndex the index to start checking from (inclusive)
+     * @return the index of the previous clear bit, or {@code -1} if there
+     *         is no such bit
+     * @throws IndexOutOfBoundsException if the specified index is less
+     *         than {@code -1}
+     */
+    public int previousClearBit(int fromIndex) {
+        if (fromIndex < 0) {
+            if (fromIndex == -1)
+                return -1;
+            throw new IndexOutOfBoundsException(
+                "fromIndex < -1: " + fromIndex);
+        }
+        int key = fromIndex >>> CHUNK_BITS, low = fromIndex & LOW_MASK;
+        for (int i = indexOfKey(key); i >= 0; ) {
+            low = container(i).previousClear(low);
+            if (low >= 0)
+                break;
+            // The chunk is set from its start; look at the previous one
+            low = LOW_MASK;
+            if (key == 0)
+                return -1;
+            key--;
+            if (--i < 0 || keys[i] != key)
+                break;
+        }
+        return (key << CHUNK_BITS) | low;
+    }
+
+    /**
+     * Returns the "logical size" of this bit set: the index of the
+     * highest set bit plus one. Returns zero if the bit set contains no
+     * set bits.
+     *
+     * @return the logical size of this bit set
+     */
+    public int length() {
+        if (size == 0)
+            return 0;
+        return ((keys[size - 1] << CHUNK_BITS)
+                | container(size - 1).previous(LOW_MASK)) + 1;
+    }
+
+    /**
+     * Returns true if this bit set contains no bits that are set
+     * to {@code true}.
+     *
+     * @return boolean indicating whether this bit set is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns true if the specified bit set has any bits set to
+     * {@code true} that are also set to {@code true} in this bit set.
+     *
+     * @param  set bit set to intersect with
+     * @return boolean indicating whether this bit set intersects
+     *         the specified bit set
+     */
+    public boolean intersects(CompressedBitSet set) {
+        for (int i = 0, j = 0; i < size && j < set.size; ) {
+            int k1 = keys[i], k2 = set.keys[j];
+            if (k1 < k2) {
+                i++;
+            } else if (k1 > k2) {
+                j++;
+            } else {
+                if (Container.intersects(container(i), set.container(j)))
+                    return true;
+                i++;
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of bits set to {@code true} in this bit set.
+     *
+     * @return the number of bits set to {@code true} in this bit set
+     */
+    public int cardinality() {
+        int sum = 0;
+        for (int i = 0; i < size; i++)
+            sum += cardinality(i);
+        return sum;
+    }
+
+    /**
+     * Performs a logical <b>AND</b> of this target bit set with the
+     * argument bit set. This bit set is modified so that each bit in it
+     * has the value {@code true} if and only if it both initially
+     * had the value {@code true} and the corresponding bit in the
+     * bit set argument also had the value {@code true}.
+     *
+     * @param set a bit set
+     * @throws UnsupportedOperationException if this bit set is read-only
+     */
+    public void and(CompressedBitSet set) {
+        checkWritable();
+        if (this == set)
+            return;
+        int i = 0, j = 0, k = 0;
+        while (i < size && j < set.size) {
+            int k1 = keys[i], k2 = set.keys[j];
+            if (k1 < k2) {
+                i++;
+            } else if (k1 > k2) {
+                j++;
+            } else {
+                Container r = Container.and(containers[i], set.container(j));
+                if (r.cardinality() > 0) {
+                    keys[k] = (char) k1;
+                    containers[k++] = r;
+                }
+                i++;
+                j++;
+            }
+        }
+        compact(size, k);
+    }
+
+    /**
+     * Performs a logical <b>OR</b> of this bit set with the bit set
+     * argument. This bit set is modified so that a bit in it has the
+     * value {@code true} if and only if it either already had the
+     * value {@code true} or the corresponding bit in the bit set
+     * argument has the value {@code true}.
+     *
+     * @param set a bit set
+     * @throws UnsupportedOperationException if this bit set is read-only
+     */
+    public void or(CompressedBitSet set) {
+        checkWritable();
+        if (this == set)
+            return;
+        merge(set, false);
+    }
+
+    /**
+     * Performs a logical <b>XOR</b> of this bit set with the bit set
+     * argument. This bit set is modified so that a bit in it has the
+     * value {@code true} if and only if one of the following
+     * statements holds:
+     * <ul>
+     * <li>The bit initially has the value {@code true}, and the
+     *     corresponding bit in the argument has the value {@code false}.
+     * <li>The bit initially has the value {@code false}, and the
+     *     corresponding bit in the argument has the value {@code true}.
+     * </ul>
+     *
+     * @param  set a bit set
+     * @throws UnsupportedOperationException if this bit set is read-only
+     */
+    public void xor(CompressedBitSet set) {
+        checkWritable();
+        if (this == set) {
+            clear();
+            return;
+        }
+        merge(set, true);
+    }
+
+    /**
+     * Clears all of the bits in this bit set whose corresponding
+     * bit is set in the specified bit set.
+     *
+     * @param  set the bit set with which to mask this bit set
+     * @throws UnsupportedOperationException if this bit set is read-only
+     */
+    public void andNot(CompressedBitSet set) {
+        checkWritable();
+        if (this == set) {
+            clear();
+            return;
+        }
+        int i = 0, j = 0, k = 0;
+        while (i < size) {
+            int k1 = keys[i];
+            while (j < set.size && set.keys[j] < k1)
+                j++;
+            Container r = containers[i++];
+            if (j < set.size && set.keys[j] == k1)
+                r = Container.andNot(r, set.container(j++));
+            if (r.cardinality() > 0) {
+                keys[k] = (char) k1;
+                containers[k++] = r;
+            }
+        }
+        compact(size, k);
+    }
+
+    /**
+     * Converts the containers to run containers where that takes less
+     * space, and run containers that do not back to arrays or bitmaps.
+     * Sets of clustered bits, such as consecutive ids, are best
+     * optimized once built, before they are serialized.
+     *
+     * @return true if a container was converted
+     * @throws UnsupportedOperationException if this bit set is read-only
+     */
+    public boolean runOptimize() {
+        checkWritable();
+        boolean changed = false;
+        for (int i = 0; i < size; i++) {
+            Container c = containers[i];
+            int runBytes = c.runCount() * 4;
+            Container r = null;
+            if (c instanceof RunContainer) {
+                if (runBytes > Math.min(c.cardinality() * 2, BITMAP_WORDS * 8))
+                    r = ((RunContainer) c).toContainer();
+            } else if (runBytes < c.dataBytes()) {
+                r = new RunContainer(c);
+            }
+            if (r != null) {
+                containers[i] = r;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the hash code value for this bit set, which is the same as
+     * the hash code of a {@link BitSet} with the same bits set.
+     *
+     * @return the hash code value for this bit set
+     */
+    public int hashCode() {
+        long h = 1234;
+        for (int i = 0; i < size; i++)
+            h ^= container(i).hash((long) keys[i] * BITMAP_WORDS);
+        return (int)((h >> 32) ^ h);
+    }
+
+    /**
+     * Returns the number of bits of space actually in use by this
+     * bit set to represent bit values.
+     *
+     * @return the number of bits of space in use
+     */
+    public int size() {
+        if (mapped != null)
+            return mapped.limit() * 8;
+        long bits = 0;
+        for (int i = 0; i < size; i++)
+            bits += containers[i].dataBytes() * 8L;
+        return (int) Math.min(Integer.MAX_VALUE, bits);
+    }
+
+    /**
+     * Compares this object against the specified object.
+     * The result is {@code true} if and only if the argument is
+     * not {@code null} and is a {@code CompressedBitSet} object that has
+     * exactly the same set of bits set to {@code true} as this bit
+     * set, however they are stored.
+     *
+     * @param  obj the object to compare with
+     * @return {@code true} if the objects are the same;
+     *         {@code false} otherwise
+     */
+    public boolean equals(Object obj) {
+        if (!(obj instanceof CompressedBitSet))
+            return false;
+        if (this == obj)
+            return true;
+        CompressedBitSet set = (CompressedBitSet) obj;
+        if (size != set.size)
+            return false;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != set.keys[i] || cardinality(i) != set.cardinality(i)
+                || !Container.sameBits(container(i), set.container(i)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Cloning this bit set produces a new bit set that is equal to it.
+     * The clone of a read-only bit set is a bit set that can be
+     * modified.
+     *
+     * @return a clone of this bit set
+     */
+    public Object clone() {
+        try {
+            CompressedBitSet result = (CompressedBitSet) super.clone();
+            result.keys = Arrays.copyOf(keys, Math.max(size, 4));
+            result.containers = new Container[result.keys.length];
+            for (int i = 0; i < size; i++)
+                result.containers[i] = container(i).clone();
+            result.mapped = null;
+            result.decoded = null;
+            return result;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    /**
+     * Returns a string representation of this bit set, in the same form
+     * as {@link BitSet#toString()}: the indices of the set bits, in order
+     * from lowest to highest, separated by ",&nbsp;" (a comma and a space)
+     * and surrounded by braces.
+     *
+     * @return a string representation of this bit set
+     */
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        stream().forEach(i -> joiner.add(Integer.toString(i)));
+        return joiner.toString();
+    }
+
+    /**
+     * Returns a stream of indices for which this bit set contains a bit
+     * in the set state. The indices are returned in order, from lowest
+     * to highest. The size of the stream is the number of bits in the set
+     * state, equal to the value returned by the {@link #cardinality()}
+     * method.
+     *
+     * <p>The bit set must remain constant during the execution of the
+     * terminal stream operation.  Otherwise, the result of the terminal
+     * stream operation is undefined.
+     *
+     * @return a stream of integers representing set indices
+     */
+    public IntStream stream() {
+        class CompressedBitSetIterator implements PrimitiveIterator.OfInt {
+            int index = -1;     // of the current container
+            int high;           // the key of the current container, shifted
+            Container c;
+            int next = -1;      // the next low bits of the current container
+
+            CompressedBitSetIterator() {
+                advance();
+            }
+
+            private void advance() {
+                while (next < 0 && ++index < size) {
+                    c = container(index);
+                    high = keys[index] << CHUNK_BITS;
+                    next = c.next(0);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next < 0)
+                    throw new NoSuchElementException();
+                int ret = high | next;
+                next = (next == LOW_MASK) ? -1 : c.next(next + 1);
+                advance();
+                return ret;
+            }
+
+            @Override
+            public void forEachRemaining(IntConsumer action) {
+                if (next >= 0) {
+                    action.accept(high | next);
+                    if (next != LOW_MASK)
+                        c.forEach(high, next + 1, action);
+                    while (++index < size)
+                        container(index).forEach(keys[index] << CHUNK_BITS, 0,
+                                                 action);
+                    next = -1;
+                }
+            }
+        }
+
+        return StreamSupport.intStream(
+                () -> Spliterators.spliterator(
+                        new CompressedBitSetIterator(), cardinality(),
+                        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED),
+                Spliterator.SIZED | Spliterator.SUBSIZED |
+                        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED,
+                false);
+    }
+
+    // Serialized form
+
+    /**
+     * Returns the number of bytes {@link #serialize} writes for this bit
+     * set.
+     *
+     * @return the size of the serialized form of this bit set
+     */
+    public int serializedSize() {
+        if (mapped != null)
+            return mapped.limit();
+        long bytes = HEADER + (long) ENTRY * size;
+        for (int i = 0; i < size; i++)
+            bytes += containers[i].dataBytes();
+        return (int) bytes;
+    }
+
+    /**
+     * Writes this bit set to the given buffer, from its position, in a
+     * portable form of {@link #serializedSize} bytes that {@link
+     * #deserialize} and {@link #map} read back.  The form is written in
+     * little-endian byte order, whatever the order of the buffer, whose
+     * position is advanced past it.
+     *
+     * @param buffer the buffer to write to
+     * @throws java.nio.BufferOverflowException if the buffer has fewer
+     *         than {@link #serializedSize} bytes remaining
+     * @throws java.nio.ReadOnlyBufferException if the buffer is read-only
+     */
+    public void serialize(ByteBuffer buffer) {
+        int length = serializedSize();
+        if (buffer.remaining() < length)
+            throw new java.nio.BufferOverflowException();
+        ByteBuffer b = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (mapped != null) {
+            b.put(mapped.duplicate());
+        } else {
+            b.putInt(MAGIC).putInt(size);
+            int offset = HEADER + ENTRY * size;
+            for (int i = 0; i < size; i++) {
+                Container c = containers[i];
+                b.putChar(keys[i]).putChar(c.type()).putInt(c.cardinality())
+                 .putInt(c.dataBytes() / 2 * ((c.type() == BITMAP) ? 0 : 1))
+                 .putInt(offset);
+                offset += c.dataBytes();
+            }
+            for (int i = 0; i < size; i++)
+                containers[i].write(b);
+        }
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * Reads a bit set from the form {@link #serialize} wrote at the
+     * position of the given buffer, copying its content.  The position of
+     * the buffer is advanced past the form.
+     *
+     * @param buffer the buffer to read from
+     * @return a new bit set with the bits of the serialized form
+     * @throws IllegalArgumentException if the buffer does not contain
+     *         a serialized bit set at its position
+     */
+    public static CompressedBitSet deserialize(ByteBuffer buffer) {
+        CompressedBitSet view = map(buffer);
+        CompressedBitSet set = new CompressedBitSet();
+        set.keys = Arrays.copyOf(view.keys, Math.max(view.size, 4));
+        set.containers = new Container[set.keys.length];
+        for (int i = 0; i < view.size; i++)
+            set.containers[i] = view.read(i);
+        set.size = view.size;
+        return set;
+    }
+
+    /**
+     * Returns a read-only bit set backed by the form {@link #serialize}
+     * wrote at the position of the given buffer.  Only the keys of the
+     * chunks are read at once; the content of the chunks is read from the
+     * buffer as it is needed, so that a set in a {@link
+     * java.nio.MappedByteBuffer MappedByteBuffer} takes little memory
+     * besides the mapped file.  The set may be read, and used as the
+     * argument of logical operations on other sets, but the methods that
+     * would modify it throw {@code UnsupportedOperationException}.  The
+     * position of the buffer is advanced past the form, and the content
+     * of the buffer must not change while the set is in use.
+     *
+     * @param buffer the buffer to read from
+     * @return a read-only bit set backed by the buffer
+     * @throws IllegalArgumentException if the buffer does not contain
+     *         a serialized bit set at its position
+     */
+    public static CompressedBitSet map(ByteBuffer buffer) {
+        ByteBuffer b = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int limit = b.limit();
+        if (limit < HEADER || b.getInt(0) != MAGIC)
+            throw new IllegalArgumentException("not a serialized CompressedBitSet");
+        int n = b.getInt(4);
+        if (n < 0 || n > MAX_KEY + 1 || HEADER + (long) ENTRY * n > limit)
+            throw new IllegalArgumentException("corrupted CompressedBitSet");
+        char[] keys = new char[n];
+        long end = HEADER + (long) ENTRY * n;
+        for (int i = 0; i < n; i++) {
+            int e = HEADER + i * ENTRY;
+            char key = b.getChar(e), type = b.getChar(e + 2);
+            int cardinality = b.getInt(e + 4), chars = b.getInt(e + 8);
+            int offset = b.getInt(e + 12);
+            long bytes = (type == BITMAP) ? BITMAP_WORDS * 8 : chars * 2L;
+            if (key > MAX_KEY || (i > 0 && key <= keys[i - 1]) || type > RUN
+                || cardinality <= 0 || cardinality > CHUNK_SIZE || chars < 0
+                || (type == ARRAY && chars != cardinality)
+                || (type == RUN && (chars & 1) != 0)
+                || offset < HEADER || offset + bytes > limit)
+                throw new IllegalArgumentException("corrupted CompressedBitSet");
+            keys[i] = key;
+            end = Math.max(end, offset + bytes);
+        }
+        b.limit((int) end);
+        CompressedBitSet set = new CompressedBitSet();
+        set.keys = keys;
+        set.containers = null;
+        set.size = n;
+        set.mapped = b;
+        buffer.position(buffer.position() + (int) end);
+        return set;
+    }
+
+    /**
+     * Save the state of the {@code CompressedBitSet} instance to a stream
+     * (i.e., serialize it).
+     *
+     * @serialData The number of bytes of the serialized form written by
+     *             {@link #serialize} (int), followed by those bytes.
+     */
+    private void writeObject(ObjectOutputStream s) throws IOException {
+        s.defaultWriteObject();
+        byte[] bytes = new byte[serializedSize()];
+        serialize(ByteBuffer.wrap(bytes));
+        s.writeInt(bytes.length);
+        s.write(bytes);
+    }
+
+    /**
+     * Reconstitute the {@code CompressedBitSet} instance from a stream
+     * (i.e., deserialize it).
+     */
+    private void readObject(ObjectInputStream s)
+        throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        int length = s.readInt();
+        if (length < HEADER)
+            throw new StreamCorruptedException("length: " + length);
+        byte[] bytes = new byte[length];
+        s.readFully(bytes);
+        CompressedBitSet set;
+        try {
+            set = deserialize(ByteBuffer.wrap(bytes));
+        } catch (IllegalArgumentException e) {
+            throw (StreamCorruptedException)
+                new StreamCorruptedException(e.getMessage()).initCause(e);
+        }
+        keys = set.keys;
+        containers = set.containers;
+        size = set.size;
+    }
+
+    // Chunks
+
+    /**
+     * Returns the index of the chunk of the given key, or
+     * (-(insertion point) - 1) if there is none.
+     */
+    private int indexOfKey(int key) {
+        return Arrays.binarySearch(keys, 0, size, (char) key);
+    }
+
+    /**
+     * Returns the index of the first chunk whose key is at least the
+     * given key.
+     */
+    private int lowerBound(int key) {
+        if (key > MAX_KEY)
+            return size;
+        int i = indexOfKey(key);
+        return (i >= 0) ? i : -i - 1;
+    }
+
+    /**
+     * Returns the container of the chunk at the given index, decoding it
+     * from the serialized form of a read-only set.
+     */
+    private Container container(int i) {
+        if (mapped == null)
+            return containers[i];
+        Decoded d = decoded;
+        if (d == null || d.index != i)
+            decoded = d = new Decoded(i, read(i));
+        return d.container;
+    }
+
+    /**
+     * Returns the cardinality of the chunk at the given index.
+     */
+    private int cardinality(int i) {
+        return (mapped == null)
+            ? containers[i].cardinality()
+            : mapped.getInt(HEADER + i * ENTRY + 4);
+    }
+
+    /**
+     * Decodes the container of the chunk at the given index of a
+     * read-only set.
+     */
+    private Container read(int i) {
+        int e = HEADER + i * ENTRY;
+        char type = mapped.getChar(e + 2);
+        int cardinality = mapped.getInt(e + 4), chars = mapped.getInt(e + 8);
+        ByteBuffer b = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        b.position(mapped.getInt(e + 12));
+        if (type == BITMAP) {
+            long[] words = new long[BITMAP_WORDS];
+            b.asLongBuffer().get(words);
+            return new BitmapContainer(words, cardinality);
+        }
+        char[] values = new char[chars];
+        b.asCharBuffer().get(values);
+        return (type == ARRAY)
+            ? new ArrayContainer(values, cardinality)
+            : new RunContainer(values, chars / 2, cardinality);
+    }
+
+    /**
+     * Inserts a chunk at the given index.
+     */
+    private void insert(int i, int key, Container c) {
+        if (size == keys.length) {
+            int capacity = size + (size >> 1) + 1;
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = (char) key;
+        containers[i] = c;
+        size++;
+    }
+
+    /**
+     * Replaces the container of the chunk at the given index, removing
+     * the chunk if the container is empty.
+     */
+    private void replace(int i, Container c) {
+        if (c.cardinality() > 0) {
+            containers[i] = c;
+        } else {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+            containers[--size] = null;
+        }
+    }
+
+    /**
+     * Moves the chunks from index {@code from} to the end down to index
+     * {@code to}, after chunks in between have been dropped.
+     */
+    private void compact(int from, int to) {
+        if (from != to) {
+            System.arraycopy(keys, from, keys, to, size - from);
+            System.arraycopy(containers, from, containers, to, size - from);
+            int n = size - (from - to);
+            Arrays.fill(containers, n, size, null);
+            size = n;
+        }
+    }
+
+    /**
+     * Merges the chunks of the given set into this one, by union or by
+     * symmetric difference.
+     */
+    private void merge(CompressedBitSet set, boolean xor) {
+        int n1 = size, n2 = set.size;
+        char[] k = new char[n1 + n2];
+        Container[] c = new Container[n1 + n2];
+        int i = 0, j = 0, m = 0;
+        while (i < n1 || j < n2) {
+            int k1 = (i < n1) ? keys[i] : Integer.MAX_VALUE;
+            int k2 = (j < n2) ? set.keys[j] : Integer.MAX_VALUE;
+            Container r;
+            if (k1 < k2) {
+                r = containers[i++];
+            } else if (k1 > k2) {
+                r = set.container(j++).clone();
+                k1 = k2;
+            } else {
+                r = xor
+                    ? Container.xor(containers[i++], set.container(j++))
+                    : Container.or(containers[i++], set.container(j++));
+            }
+            if (r.cardinality() > 0) {
+                k[m] = (char) k1;
+                c[m++] = r;
+            }
+        }
+        keys = k;
+        containers = c;
+        size = m;
+    }
+
+    private static void checkRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        if (toIndex < 0)
+            throw new IndexOutOfBoundsException("toIndex < 0: " + toIndex);
+        if (fromIndex > toIndex)
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex +
+                                                " > toIndex: " + toIndex);
+    }
+
+    private void checkWritable() {
+        if (mapped != null)
+            throw new UnsupportedOperationException("read-only CompressedBitSet");
+    }
+
+    /**
+     * A container of a read-only set and the index of its chunk.  The
+     * container is never modified, so it may be shared by the threads
+     * reading the set.
+     */
+    private static final class Decoded {
+        final int index;
+        final Container container;
+
+        Decoded(int index, Container container) {
+            this.index = index;
+            this.container = container;
+        }
+    }
+
+    // Containers
+
+    /**
+     * The low 16 bits of the set bits of a chunk.  The methods that modify
+     * a container return the container holding the result, which may be
+     * the same one or a new one of another kind; the arguments of the
+     * logical operations are never modified.
+     */
+    private abstract static class Container {
+
+        abstract char type();
+
+        abstract int cardinality();
+
+        /** Returns the number of bytes of the data of the container */
+        abstract int dataBytes();
+
+        /** Returns the number of runs of consecutive set bits */
+        abstract int runCount();
+
+        abstract boolean contains(int low);
+
+        abstract Container add(int low);
+
+        abstract Container remove(int low);
+
+        /** Returns the first set bit at or after low, or -1 */
+        abstract int next(int low);
+
+        /** Returns the last set bit at or before low, or -1 */
+        abstract int previous(int low);
+
+        /** Returns the first clear bit at or after low, or -1 */
+        abstract int nextClear(int low);
+
+        /** Returns the last clear bit at or before low, or -1 */
+        abstract int previousClear(int low);
+
+        /** Passes the set bits from low on, with the given high bits */
+        abstract void forEach(int high, int low, IntConsumer action);
+
+        /** Returns this container if it is a bitmap, else a new bitmap */
+        abstract BitmapContainer toBitmap();
+
+        abstract void write(ByteBuffer b);
+
+        @Override
+        public abstract Container clone();
+
+        Container addRange(int from, int to) {
+            return toBitmap().addRange(from, to);
+        }
+
+        Container removeRange(int from, int to) {
+            return toBitmap().removeRange(from, to);
+        }
+
+        Container flipRange(int from, int to) {
+            return toBitmap().flipRange(from, to);
+        }
+
+        /** Returns a bitmap of the same bits that may be modified */
+        BitmapContainer copyBitmap() {
+            return toBitmap();
+        }
+
+        /**
+         * Returns the exclusive or of the words of the container, each
+         * multiplied by its index plus one, as BitSet.hashCode does.
+         */
+        long hash(long wordBase) {
+            long h = 0, word = 0;
+            int u = -1;
+            for (int v = next(0); v >= 0; v = (v == LOW_MASK) ? -1 : next(v + 1)) {
+                if (v >>> 6 != u) {
+                    if (u >= 0)
+                        h ^= word * (wordBase + u + 1);
+                    u = v >>> 6;
+                    word = 0;
+                }
+                word |= 1L << v;
+            }
+            if (u >= 0)
+                h ^= word * (wordBase + u + 1);
+            return h;
+        }
+
+        static Container and(Container a, Container b) {
+            if (a instanceof ArrayContainer)
+                return ((ArrayContainer) a).retain(b, true);
+            if (b instanceof ArrayContainer)
+                return ((ArrayContainer) b.clone()).retain(a, true);
+            if (b.cardinality() == CHUNK_SIZE)
+                return a;
+            if (a.cardinality() == CHUNK_SIZE)
+                return b.clone();
+            return a.toBitmap().andWith(b).normalize();
+        }
+
+        static Container or(Container a, Container b) {
+            if (a.cardinality() == CHUNK_SIZE)
+                return a;
+            if (b.cardinality() == CHUNK_SIZE)
+                return b.clone();
+            if (a instanceof ArrayContainer) {
+                if (b instanceof ArrayContainer)
+                    return ((ArrayContainer) a).union((ArrayContainer) b);
+                return b.copyBitmap().orWith(a);
+            }
+            return a.toBitmap().orWith(b).normalize();
+        }
+
+        static Container xor(Container a, Container b) {
+            if (a instanceof ArrayContainer) {
+                if (b instanceof ArrayContainer)
+                    return ((ArrayContainer) a).symmetricDifference((ArrayContainer) b);
+                return b.copyBitmap().xorWith(a).normalize();
+            }
+            return a.toBitmap().xorWith(b).normalize();
+        }
+
+        static Container andNot(Container a, Container b) {
+            if (a instanceof ArrayContainer)
+                return ((ArrayContainer) a).retain(b, false);
+            if (b.cardinality() == CHUNK_SIZE)
+                return new ArrayContainer(new char[0], 0);
+            return a.toBitmap().andNotWith(b).normalize();
+        }
+
+        static boolean intersects(Container a, Container b) {
+            if (b instanceof ArrayContainer) {
+                Container t = a; a = b; b = t;
+            }
+            if (a instanceof ArrayContainer) {
+                ArrayContainer x = (ArrayContainer) a;
+                for (int i = 0; i < x.cardinality; i++)
+                    if (b.contains(x.values[i]))
+                        return true;
+                return false;
+            }
+            long[] w1 = a.toBitmap().words, w2 = b.toBitmap().words;
+            for (int u = 0; u < BITMAP_WORDS; u++)
+                if ((w1[u] & w2[u]) != 0)
+                    return true;
+            return false;
+        }
+
+        /**
+         * Tells whether two containers of the same cardinality have the
+         * same bits set.
+         */
+        static boolean sameBits(Container a, Container b) {
+            if (a instanceof BitmapContainer && b instanceof BitmapContainer)
+                return Arrays.equals(((BitmapContainer) a).words,
+                                     ((BitmapContainer) b).words);
+            if (b instanceof ArrayContainer) {
+                Container t = a; a = b; b = t;
+            }
+            for (int v = a.next(0); v >= 0; v = (v == LOW_MASK) ? -1 : a.next(v + 1))
+                if (!b.contains(v))
+                    return false;
+            return true;
+        }
+    }
+
+    /**
+     * A container of at most ARRAY_MAX bits, as a sorted array.
+     */
+    private static final class ArrayContainer extends Container {
+        char[] values;
+        int cardinality;
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        ArrayContainer(int low) {
+            values = new char[4];
+            values[0] = (char) low;
+            cardinality = 1;
+        }
+
+        char type() { return ARRAY; }
+
+        int cardinality() { return cardinality; }
+
+        int dataBytes() { return cardinality * 2; }
+
+        int runCount() {
+            int runs = 0;
+            for (int i = 0; i < cardinality; i++)
+                if (i == 0 || values[i] != values[i - 1] + 1)
+                    runs++;
+            return runs;
+        }
+
+        private int indexOf(int low) {
+            return Arrays.binarySearch(values, 0, cardinality, (char) low);
+        }
+
+        boolean contains(int low) {
+            return indexOf(low) >= 0;
+        }
+
+        Container add(int low) {
+            int i = indexOf(low);
+            if (i >= 0)
+                return this;
+            if (cardinality == ARRAY_MAX)
+                return toBitmap().add(low);
+            i = -i - 1;
+            if (cardinality == values.length)
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX,
+                    cardinality + (cardinality < 64 ? cardinality : cardinality >> 1)));
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = (char) low;
+            cardinality++;
+            return this;
+        }
+
+        Container remove(int low) {
+            int i = indexOf(low);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        int next(int low) {
+            int i = indexOf(low);
+            if (i < 0)
+                i = -i - 1;
+            return (i < cardinality) ? values[i] : -1;
+        }
+
+        int previous(int low) {
+            int i = indexOf(low);
+            if (i < 0)
+                i = -i - 2;
+            return (i >= 0) ? values[i] : -1;
+        }
+
+        int nextClear(int low) {
+            for (int i = indexOf(low); i >= 0 && i < cardinality && values[i] == low; i++)
+                low++;
+            return (low < CHUNK_SIZE) ? low : -1;
+        }
+
+        int previousClear(int low) {
+            for (int i = indexOf(low); i >= 0 && values[i] == low; i--)
+                low--;
+            return low;
+        }
+
+        void forEach(int high, int low, IntConsumer action) {
+            int i = indexOf(low);
+            for (i = (i < 0) ? -i - 1 : i; i < cardinality; i++)
+                action.accept(high | values[i]);
+        }
+
+        BitmapContainer toBitmap() {
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                int v = values[i];
+                words[v >>> 6] |= 1L << v;
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+
+        Container addRange(int from, int to) {
+            int lo = indexOf(from), hi = indexOf(to - 1);
+            lo = (lo < 0) ? -lo - 1 : lo;
+            hi = (hi < 0) ? -hi - 1 : hi + 1;
+            // The bits of the range replace the values in [lo, hi)
+            int n = cardinality - (hi - lo) + (to - from);
+            if (n > ARRAY_MAX)
+                return toBitmap().addRange(from, to);
+            char[] v = (n <= values.length) ? values : new char[n];
+            System.arraycopy(values, hi, v, lo + (to - from), cardinality - hi);
+            if (v != values)
+                System.arraycopy(values, 0, v, 0, lo);
+            for (int i = 0; i < to - from; i++)
+                v[lo + i] = (char) (from + i);
+            values = v;
+            cardinality = n;
+            return this;
+        }
+
+        Container removeRange(int from, int to) {
+            int lo = indexOf(from), hi = indexOf(to - 1);
+            lo = (lo < 0) ? -lo - 1 : lo;
+            hi = (hi < 0) ? -hi - 1 : hi + 1;
+            System.arraycopy(values, hi, values, lo, cardinality - hi);
+            cardinality -= hi - lo;
+            return this;
+        }
+
+        /**
+         * Keeps the values that the given container contains, or those it
+         * does not.
+         */
+        ArrayContainer retain(Container c, boolean contained) {
+            int k = 0;
+            for (int i = 0; i < cardinality; i++) {
+                char v = values[i];
+                if (c.contains(v) == contained)
+                    values[k++] = v;
+            }
+            cardinality = k;
+            return this;
+        }
+
+        Container union(ArrayContainer c) {
+            char[] a = values, b = c.values, r = new char[cardinality + c.cardinality];
+            int i = 0, j = 0, k = 0;
+            while (i < cardinality && j < c.cardinality) {
+                char x = a[i], y = b[j];
+                if (x <= y) {
+                    r[k++] = x;
+                    i++;
+                    if (x == y)
+                        j++;
+                } else {
+                    r[k++] = y;
+                    j++;
+                }
+            }
+            while (i < cardinality)
+                r[k++] = a[i++];
+            while (j < c.cardinality)
+                r[k++] = b[j++];
+            ArrayContainer u = new ArrayContainer(r, k);
+            return (k > ARRAY_MAX) ? u.toBitmap() : u;
+        }
+
+        Container symmetricDifference(ArrayContainer c) {
+            char[] a = values, b = c.values, r = new char[cardinality + c.cardinality];
+            int i = 0, j = 0, k = 0;
+            while (i < cardinality && j < c.cardinality) {
+                char x = a[i], y = b[j];
+                if (x < y) {
+                    r[k++] = x;
+                    i++;
+                } else if (x > y) {
+                    r[k++] = y;
+                    j++;
+                } else {
+                    i++;
+                    j++;
+                }
+            }
+            while (i < cardinality)
+                r[k++] = a[i++];
+            while (j < c.cardinality)
+                r[k++] = b[j++];
+            ArrayContainer u = new ArrayContainer(r, k);
+            return (k > ARRAY_MAX) ? u.toBitmap() : u;
+        }
+
+        void write(ByteBuffer b) {
+            b.asCharBuffer().put(values, 0, cardinality);
+            b.position(b.position() + cardinality * 2);
+        }
+
+        public ArrayContainer clone() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 4)),
+                                      cardinality);
+        }
+    }
+
+    /**
+     * A container of more than ARRAY_MAX bits, as a bitmap.
+     */
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+        int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        char type() { return BITMAP; }
+
+        int cardinality() { return cardinality; }
+
+        int dataBytes() { return BITMAP_WORDS * 8; }
+
+        int runCount() {
+            int runs = 0;
+            long carry = 0;
+            for (int u = 0; u < BITMAP_WORDS; u++) {
+                long w = words[u];
+                runs += Long.bitCount(w & ~((w << 1) | carry));
+                carry = w >>> 63;
+            }
+            return runs;
+        }
+
+        boolean contains(int low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        Container add(int low) {
+            long w = words[low >>> 6], n = w | (1L << low);
+            if (n != w) {
+                words[low >>> 6] = n;
+                cardinality++;
+            }
+            return this;
+        }
+
+        Container remove(int low) {
+            long w = words[low >>> 6], n = w & ~(1L << low);
+            if (n != w) {
+                words[low >>> 6] = n;
+                cardinality--;
+            }
+            return normalize();
+        }
+
+        int next(int low) {
+            int u = low >>> 6;
+            long word = words[u] & (-1L << low);
+            while (true) {
+                if (word != 0)
+                    return (u << 6) + Long.numberOfTrailingZeros(word);
+                if (++u == BITMAP_WORDS)
+                    return -1;
+                word = words[u];
+            }
+        }
+
+        int previous(int low) {
+            int u = low >>> 6;
+            long word = words[u] & (-1L >>> -(low + 1));
+            while (true) {
+                if (word != 0)
+                    return (u << 6) + 63 - Long.numberOfLeadingZeros(word);
+                if (u-- == 0)
+                    return -1;
+                word = words[u];
+            }
+        }
+
+        int nextClear(int low) {
+            int u = low >>> 6;
+            long word = ~words[u] & (-1L << low);
+            while (true) {
+                if (word != 0)
+                    return (u << 6) + Long.numberOfTrailingZeros(word);
+                if (++u == BITMAP_WORDS)
+                    return -1;
+                word = ~words[u];
+            }
+        }
+
+        int previousClear(int low) {
+            int u = low >>> 6;
+            long word = ~words[u] & (-1L >>> -(low + 1));
+            while (true) {
+                if (word != 0)
+                    return (u << 6) + 63 - Long.numberOfLeadingZeros(word);
+                if (u-- == 0)
+                    return -1;
+                word = ~words[u];
+            }
+        }
+
+        void forEach(int high, int low, IntConsumer action) {
+            int u = low >>> 6;
+            long word = words[u] & (-1L << low);
+            while (true) {
+                while (word != 0) {
+                    action.accept(high | (u << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+                if (++u == BITMAP_WORDS)
+                    return;
+                word = words[u];
+            }
+        }
+
+        BitmapContainer toBitmap() {
+            return this;
+        }
+
+        BitmapContainer copyBitmap() {
+            return clone();
+        }
+
+        /**
+         * Returns an array container of the same bits if it takes less
+         * space, else this container.
+         */
+        Container normalize() {
+            if (cardinality > ARRAY_MAX)
+                return this;
+            char[] values = new char[Math.max(cardinality, 4)];
+            int k = 0;
+            for (int u = 0; u < BITMAP_WORDS; u++) {
+                for (long word = words[u]; word != 0; word &= word - 1)
+                    values[k++] = (char) ((u << 6) | Long.numberOfTrailingZeros(word));
+            }
+            return new ArrayContainer(values, k);
+        }
+
+        private BitmapContainer recount() {
+            int n = 0;
+            for (long w : words)
+                n += Long.bitCount(w);
+            cardinality = n;
+            return this;
+        }
+
+        /**
+         * Applies the given operation, 0 to set, 1 to clear and 2 to flip,
+         * to the bits from {@code from} (inclusive) to {@code to}
+         * (exclusive).
+         */
+        private BitmapContainer range(int from, int to, int op) {
+            int u = from >>> 6, v = (to - 1) >>> 6;
+            for (int i = u; i <= v; i++) {
+                long mask = -1L;
+                if (i == u)
+                    mask &= -1L << from;
+                if (i == v)
+                    mask &= -1L >>> -to;
+                if (op == 0)
+                    words[i] |= mask;
+                else if (op == 1)
+                    words[i] &= ~mask;
+                else
+                    words[i] ^= mask;
+            }
+            return recount();
+        }
+
+        Container addRange(int from, int to) {
+            return range(from, to, 0);
+        }
+
+        Container removeRange(int from, int to) {
+            return range(from, to, 1).normalize();
+        }
+
+        Container flipRange(int from, int to) {
+            return range(from, to, 2).normalize();
+        }
+
+        BitmapContainer andWith(Container c) {
+            long[] w = c.toBitmap().words;
+            for (int u = 0; u < BITMAP_WORDS; u++)
+                words[u] &= w[u];
+            return recount();
+        }
+
+        BitmapContainer orWith(Container c) {
+            if (c instanceof ArrayContainer) {
+                ArrayContainer a = (ArrayContainer) c;
+                for (int i = 0; i < a.cardinality; i++) {
+                    int v = a.values[i];
+                    words[v >>> 6] |= 1L << v;
+                }
+            } else {
+                long[] w = c.toBitmap().words;
+                for (int u = 0; u < BITMAP_WORDS; u++)
+                    words[u] |= w[u];
+            }
+            return recount();
+        }
+
+        BitmapContainer xorWith(Container c) {
+            if (c instanceof ArrayContainer) {
+                ArrayContainer a = (ArrayContainer) c;
+                for (int i = 0; i < a.cardinality; i++) {
+                    int v = a.values[i];
+                    words[v >>> 6] ^= 1L << v;
+                }
+            } else {
+                long[] w = c.toBitmap().words;
+                for (int u = 0; u < BITMAP_WORDS; u++)
+                    words[u] ^= w[u];
+            }
+            return recount();
+        }
+
+        BitmapContainer andNotWith(Container c) {
+            if (c instanceof ArrayContainer) {
+                ArrayContainer a = (ArrayContainer) c;
+                for (int i = 0; i < a.cardinality; i++) {
+                    int v = a.values[i];
+                    words[v >>> 6] &= ~(1L << v);
+                }
+            } else {
+                long[] w = c.toBitmap().words;
+                for (int u = 0; u < BITMAP_WORDS; u++)
+                    words[u] &= ~w[u];
+            }
+            return recount();
+        }
+
+        long hash(long wordBase) {
+            long h = 0;
+            for (int u = 0; u < BITMAP_WORDS; u++)
+                h ^= words[u] * (wordBase + u + 1);
+            return h;
+        }
+
+        void write(ByteBuffer b) {
+            b.asLongBuffer().put(words);
+            b.position(b.position() + BITMAP_WORDS * 8);
+        }
+
+        public BitmapContainer clone() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+    }
+
+    /**
+     * A container of runs of consecutive set bits, as a sorted array of
+     * the start and the length minus one of each run.  The runs are not
+     * modified in place; a run container that would change becomes an
+     * array or bitmap container.
+     */
+    private static final class RunContainer extends Container {
+        final char[] runs;
+        final int count;
+        final int cardinality;
+
+        RunContainer(char[] runs, int count, int cardinality) {
+            this.runs = runs;
+            this.count = count;
+            this.cardinality = cardinality;
+        }
+
+        /** Creates a container of the single run from from to to */
+        RunContainer(int from, int to) {
+            this(new char[] { (char) from, (char) (to - from - 1) }, 1, to - from);
+        }
+
+        /** Creates a container of the runs of the given container */
+        RunContainer(Container c) {
+            this(new char[c.runCount() * 2], c.runCount(), c.cardinality());
+            int k = 0;
+            for (int start = c.next(0); start >= 0; ) {
+                int end = c.nextClear(start);
+                if (end < 0)
+                    end = CHUNK_SIZE;
+                runs[k++] = (char) start;
+                runs[k++] = (char) (end - start - 1);
+                start = (end < CHUNK_SIZE) ? c.next(end) : -1;
+            }
+        }
+
+        char type() { return RUN; }
+
+        int cardinality() { return cardinality; }
+
+        int dataBytes() { return count * 4; }
+
+        int runCount() { return count; }
+
+        private int start(int k) { return runs[2 * k]; }
+
+        private int end(int k) { return runs[2 * k] + runs[2 * k + 1]; }
+
+        /**
+         * Returns the index of the last run that starts at or before low,
+         * or -1.
+         */
+        private int find(int low) {
+            int lo = 0, hi = count - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (start(mid) <= low)
+                    lo = mid + 1;
+                else
+                    hi = mid - 1;
+            }
+            return hi;
+        }
+
+        /** Returns an array or bitmap container of the same bits */
+        Container toContainer() {
+            return toBitmap().normalize();
+        }
+
+        boolean contains(int low) {
+            int k = find(low);
+            return k >= 0 && low <= end(k);
+        }
+
+        Container add(int low) {
+            return contains(low) ? this : toContainer().add(low);
+        }
+
+        Container remove(int low) {
+            return contains(low) ? toContainer().remove(low) : this;
+        }
+
+        Container addRange(int from, int to) {
+            int k = find(from);
+            if (k >= 0 && to - 1 <= end(k))
+                return this;
+            return super.addRange(from, to);
+        }
+
+        int next(int low) {
+            int k = find(low);
+            if (k >= 0 && low <= end(k))
+                return low;
+            return (++k < count) ? start(k) : -1;
+        }
+
+        int previous(int low) {
+            int k = find(low);
+            return (k >= 0) ? Math.min(low, end(k)) : -1;
+        }
+
+        int nextClear(int low) {
+            int k = find(low);
+            if (k < 0 || low > end(k))
+                return low;
+            int e = end(k) + 1;
+            return (e < CHUNK_SIZE) ? e : -1;
+        }
+
+        int previousClear(int low) {
+            int k = find(low);
+            if (k < 0 || low > end(k))
+                return low;
+            return start(k) - 1;
+        }
+
+        void forEach(int high, int low, IntConsumer action) {
+            for (int k = Math.max(0, find(low)); k < count; k++) {
+                for (int v = Math.max(low, start(k)), e = end(k); v <= e; v++)
+                    action.accept(high | v);
+            }
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer b = new BitmapContainer(new long[BITMAP_WORDS], 0);
+            for (int k = 0; k < count; k++)
+                b.range(start(k), end(k) + 1, 0);
+            return b;
+        }
+
+        void write(ByteBuffer b) {
+            b.asCharBuffer().put(runs, 0, count * 2);
+            b.position(b.position() + count * 4);
+        }
+
+        public RunContainer clone() {
+            return new RunContainer(runs.clone(), count, cardinality);
+        }
+    }
+}
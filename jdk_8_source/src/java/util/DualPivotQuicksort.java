@@ -32,6 +32,10 @@ package java.util;
  * quicksorts to degrade to quadratic performance, and is typically
  * faster than traditional (one-pivot) Quicksort implementations.
  *
+ * Long int, long, float and double arrays that are not highly
+ * structured are sorted by least significant digit radix sort
+ * instead, in linear time, when a workspace array can be allocated.
+ *
  * All exposed methods are package-private, designed to be invoked
  * from public methods (in class Arrays) after performing any
  * necessary array bounds checks and expanding parameters into the
@@ -89,6 +93,21 @@ final class DualPivotQuicksort {
      */
     private static final int COUNTING_SORT_THRESHOLD_FOR_SHORT_OR_CHAR = 3200;
 
+    /**
+     * If the length of an int, long, float or double array that is not
+     * highly structured is greater than this constant, radix sort is used
+     * in preference to Quicksort.
+     */
+    private static final int RADIX_SORT_THRESHOLD = 1 << 10;
+
+    /**
+     * The number of bits, the number of values and the mask of a digit
+     * in radix sort.
+     */
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX_SIZE = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX_SIZE - 1;
+
     /*
      * Sorting methods for seven primitive types.
      */
@@ -131,7 +150,7 @@ final class DualPivotQuicksort {
             } else { // equal
                 for (int m = MAX_RUN_LENGTH; ++k <= right && a[k - 1] == a[k]; ) {
                     if (--m == 0) {
-                        sort(a, left, right, true);
+                        quickOrRadixSort(a, left, right, work, workBase, workLen);
                         return;
                     }
                 }
@@ -142,7 +161,7 @@ final class DualPivotQuicksort {
              * use Quicksort instead of merge sort.
              */
             if (++count == MAX_RUN_COUNT) {
-                sort(a, left, right, true);
+                quickOrRadixSort(a, left, right, work, workBase, workLen);
                 return;
             }
         }
@@ -203,6 +222,84 @@ final class DualPivotQuicksort {
         }
     }
 
+    /**
+     * Sorts the specified range of an array that is not highly structured,
+     * by radix sort if the range is long enough and a workspace array is
+     * available, else by Dual-Pivot Quicksort.
+     *
+     * @param a the array to be sorted
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     */
+    private static void quickOrRadixSort(int[] a, int left, int right,
+                                         int[] work, int workBase, int workLen) {
+        if (right - left < RADIX_SORT_THRESHOLD
+                || !radixSort(a, left, right, work, workBase, workLen)) {
+            sort(a, left, right, true);
+        }
+    }
+
+    /**
+     * Sorts the specified range of the array by least significant digit
+     * radix sort.  The digits of all elements are counted in a single pass,
+     * and the digits all elements have in common are skipped.
+     *
+     * @param a the array to be sorted
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     * @return false if the range is left unsorted for lack of memory
+     */
+    private static boolean radixSort(int[] a, int left, int right,
+                                     int[] work, int workBase, int workLen) {
+        int n = right - left + 1;
+        int end = 32 / RADIX_BITS * RADIX_SIZE;
+        int[] count;
+        try {
+            if (work == null || workLen < n || workBase + n > work.length) {
+                work = new int[n];
+                workBase = 0;
+            }
+            count = new int[end];
+        } catch (OutOfMemoryError e) {
+            return false;
+        }
+
+        for (int i = left; i <= right; ++i) {
+            int v = a[i];
+            int k = v ^ Integer.MIN_VALUE;
+            for (int d = 0; d < end; d += RADIX_SIZE, k >>>= RADIX_BITS) {
+                ++count[d + (k & RADIX_MASK)];
+            }
+        }
+
+        int[] b = work;              // alternates with a
+        int ao = left, bo = workBase; // offsets of the range in a and b
+        boolean swapped = false;
+        for (int d = 0, shift = 0; d < end; d += RADIX_SIZE, shift += RADIX_BITS) {
+            if (!radixOffsets(count, d, n, bo)) {
+                continue;
+            }
+            for (int i = ao, hi = ao + n; i < hi; ++i) {
+                int v = a[i];
+                int k = v ^ Integer.MIN_VALUE;
+                b[count[d + ((k >>> shift) & RADIX_MASK)]++] = v;
+            }
+            int[] t = a; a = b; b = t;
+            int o = ao; ao = bo; bo = o;
+            swapped = !swapped;
+        }
+        if (swapped) {
+            System.arraycopy(a, ao, b, bo, n);
+        }
+        return true;
+    }
+
     /**
      * Sorts the specified range of the array by Dual-Pivot Quicksort.
      *
@@ -579,7 +676,7 @@ final class DualPivotQuicksort {
             } else { // equal
                 for (int m = MAX_RUN_LENGTH; ++k <= right && a[k - 1] == a[k]; ) {
                     if (--m == 0) {
-                        sort(a, left, right, true);
+                        quickOrRadixSort(a, left, right, work, workBase, workLen);
                         return;
                     }
                 }
@@ -590,7 +687,7 @@ final class DualPivotQuicksort {
              * use Quicksort instead of merge sort.
              */
             if (++count == MAX_RUN_COUNT) {
-                sort(a, left, right, true);
+                quickOrRadixSort(a, left, right, work, workBase, workLen);
                 return;
             }
         }
@@ -651,6 +748,165 @@ final class DualPivotQuicksort {
         }
     }
 
+    /**
+     * Sorts the specified range of an array that is not highly structured,
+     * by radix sort if the range is long enough and a workspace array is
+     * available, else by Dual-Pivot Quicksort.
+     *
+     * @param a the array to be sorted
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     */
+    private static void quickOrRadixSort(long[] a, int left, int right,
+                                         long[] work, int workBase, int workLen) {
+        if (right - left < RADIX_SORT_THRESHOLD
+                || !radixSort(a, left, right, work, workBase, workLen)) {
+            sort(a, left, right, true);
+        }
+    }
+
+    /**
+     * Sorts the specified range of the array by least significant digit
+     * radix sort.  The digits of all elements are counted in a single pass,
+     * and the digits all elements have in common are skipped.
+     *
+     * @param a the array to be sorted
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     * @return false if the range is left unsorted for lack of memory
+     */
+    private static boolean radixSort(long[] a, int left, int right,
+                                     long[] work, int workBase, int workLen) {
+        int n = right - left + 1;
+        int end = 64 / RADIX_BITS * RADIX_SIZE;
+        int[] count;
+        try {
+            if (work == null || workLen < n || workBase + n > work.length) {
+                work = new long[n];
+                workBase = 0;
+            }
+            count = new int[end];
+        } catch (OutOfMemoryError e) {
+            return false;
+        }
+
+        for (int i = left; i <= right; ++i) {
+            long v = a[i];
+            long k = v ^ Long.MIN_VALUE;
+            for (int d = 0; d < end; d += RADIX_SIZE, k >>>= RADIX_BITS) {
+                ++count[d + ((int) k & RADIX_MASK)];
+            }
+        }
+
+        long[] b = work;              // alternates with a
+        int ao = left, bo = workBase; // offsets of the range in a and b
+        boolean swapped = false;
+        for (int d = 0, shift = 0; d < end; d += RADIX_SIZE, shift += RADIX_BITS) {
+            if (!radixOffsets(count, d, n, bo)) {
+                continue;
+            }
+            for (int i = ao, hi = ao + n; i < hi; ++i) {
+                long v = a[i];
+                long k = v ^ Long.MIN_VALUE;
+                b[count[d + ((int) (k >>> shift) & RADIX_MASK)]++] = v;
+            }
+            long[] t = a; a = b; b = t;
+            int o = ao; ao = bo; bo = o;
+            swapped = !swapped;
+        }
+        if (swapped) {
+            System.arraycopy(a, ao, b, bo, n);
+        }
+        return true;
+    }
+
+    /**
+     * Sorts the specified range of the array, permuting the same range of
+     * the index array in the same way.  The sort is stable: elements that
+     * are equal keep the order of their indices.
+     *
+     * @param a the array to be sorted
+     * @param index the array permuted together with a
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     * @param work a workspace array (slice), or null
+     * @param indexWork a workspace array (slice) for index, or null
+     * @param workBase origin of usable space in both work arrays
+     */
+    static void sort(long[] a, int[] index, int left, int right,
+                     long[] work, int[] indexWork, int workBase) {
+        int n = right - left + 1;
+
+        // Use insertion sort on tiny arrays
+        if (n < INSERTION_SORT_THRESHOLD) {
+            for (int i = left, j = i; i < right; j = ++i) {
+                long ai = a[i + 1];
+                int xi = index[i + 1];
+                while (ai < a[j]) {
+                    a[j + 1] = a[j];
+                    index[j + 1] = index[j];
+                    if (j-- == left) {
+                        break;
+                    }
+                }
+                a[j + 1] = ai;
+                index[j + 1] = xi;
+            }
+            return;
+        }
+
+        int end = Long.SIZE / RADIX_BITS * RADIX_SIZE;
+        int[] count = new int[end];
+        boolean sorted = true;
+        for (int i = left; i <= right; ++i) {
+            long k = a[i] ^ Long.MIN_VALUE;
+            if (i > left && a[i - 1] > a[i]) {
+                sorted = false;
+            }
+            for (int d = 0; d < end; d += RADIX_SIZE, k >>>= RADIX_BITS) {
+                ++count[d + ((int) k & RADIX_MASK)];
+            }
+        }
+        if (sorted) {
+            return;
+        }
+        if (work == null || indexWork == null) {
+            work = new long[n];
+            indexWork = new int[n];
+            workBase = 0;
+        }
+
+        long[] b = work;              // alternates with a
+        int[] y = indexWork, x = index; // alternates with x
+        int ao = left, bo = workBase; // offsets of the range in a and b
+        boolean swapped = false;
+        for (int d = 0, shift = 0; d < end; d += RADIX_SIZE, shift += RADIX_BITS) {
+            if (!radixOffsets(count, d, n, bo)) {
+                continue;
+            }
+            for (int i = ao, hi = ao + n; i < hi; ++i) {
+                long v = a[i];
+                int k = count[d + ((int) ((v ^ Long.MIN_VALUE) >>> shift) & RADIX_MASK)]++;
+                b[k] = v;
+                y[k] = x[i];
+            }
+            long[] t = a; a = b; b = t;
+            int[] u = x; x = y; y = u;
+            int o = ao; ao = bo; bo = o;
+            swapped = !swapped;
+        }
+        if (swapped) {
+            System.arraycopy(a, ao, b, bo, n);
+            System.arraycopy(x, ao, y, bo, n);
+        }
+    }
+
     /**
      * Sorts the specified range of the array by Dual-Pivot Quicksort.
      *
@@ -2127,7 +2383,7 @@ final class DualPivotQuicksort {
             } else { // equal
                 for (int m = MAX_RUN_LENGTH; ++k <= right && a[k - 1] == a[k]; ) {
                     if (--m == 0) {
-                        sort(a, left, right, true);
+                        quickOrRadixSort(a, left, right, work, workBase, workLen);
                         return;
                     }
                 }
@@ -2138,7 +2394,7 @@ final class DualPivotQuicksort {
              * use Quicksort instead of merge sort.
              */
             if (++count == MAX_RUN_COUNT) {
-                sort(a, left, right, true);
+                quickOrRadixSort(a, left, right, work, workBase, workLen);
                 return;
             }
         }
@@ -2199,6 +2455,84 @@ final class DualPivotQuicksort {
         }
     }
 
+    /**
+     * Sorts the specified range of an array that is not highly structured,
+     * by radix sort if the range is long enough and a workspace array is
+     * available, else by Dual-Pivot Quicksort.
+     *
+     * @param a the array to be sorted
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     */
+    private static void quickOrRadixSort(float[] a, int left, int right,
+                                         float[] work, int workBase, int workLen) {
+        if (right - left < RADIX_SORT_THRESHOLD
+                || !radixSort(a, left, right, work, workBase, workLen)) {
+            sort(a, left, right, true);
+        }
+    }
+
+    /**
+     * Sorts the specified range of the array by least significant digit
+     * radix sort.  The digits of all elements are counted in a single pass,
+     * and the digits all elements have in common are skipped.
+     *
+     * @param a the array to be sorted
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     * @return false if the range is left unsorted for lack of memory
+     */
+    private static boolean radixSort(float[] a, int left, int right,
+                                     float[] work, int workBase, int workLen) {
+        int n = right - left + 1;
+        int end = 32 / RADIX_BITS * RADIX_SIZE;
+        int[] count;
+        try {
+            if (work == null || workLen < n || workBase + n > work.length) {
+                work = new float[n];
+                workBase = 0;
+            }
+            count = new int[end];
+        } catch (OutOfMemoryError e) {
+            return false;
+        }
+
+        for (int i = left; i <= right; ++i) {
+            float v = a[i];
+            int k = Float.floatToRawIntBits(v); k ^= (k >> 31) | Integer.MIN_VALUE;
+            for (int d = 0; d < end; d += RADIX_SIZE, k >>>= RADIX_BITS) {
+                ++count[d + (k & RADIX_MASK)];
+            }
+        }
+
+        float[] b = work;              // alternates with a
+        int ao = left, bo = workBase; // offsets of the range in a and b
+        boolean swapped = false;
+        for (int d = 0, shift = 0; d < end; d += RADIX_SIZE, shift += RADIX_BITS) {
+            if (!radixOffsets(count, d, n, bo)) {
+                continue;
+            }
+            for (int i = ao, hi = ao + n; i < hi; ++i) {
+                float v = a[i];
+                int k = Float.floatToRawIntBits(v); k ^= (k >> 31) | Integer.MIN_VALUE;
+                b[count[d + ((k >>> shift) & RADIX_MASK)]++] = v;
+            }
+            float[] t = a; a = b; b = t;
+            int o = ao; ao = bo; bo = o;
+            swapped = !swapped;
+        }
+        if (swapped) {
+            System.arraycopy(a, ao, b, bo, n);
+        }
+        return true;
+    }
+
     /**
      * Sorts the specified range of the array by Dual-Pivot Quicksort.
      *
@@ -2666,7 +3000,7 @@ final class DualPivotQuicksort {
             } else { // equal
                 for (int m = MAX_RUN_LENGTH; ++k <= right && a[k - 1] == a[k]; ) {
                     if (--m == 0) {
-                        sort(a, left, right, true);
+                        quickOrRadixSort(a, left, right, work, workBase, workLen);
                         return;
                     }
                 }
@@ -2677,7 +3011,7 @@ final class DualPivotQuicksort {
              * use Quicksort instead of merge sort.
              */
             if (++count == MAX_RUN_COUNT) {
-                sort(a, left, right, true);
+                quickOrRadixSort(a, left, right, work, workBase, workLen);
                 return;
             }
         }
@@ -2738,6 +3072,84 @@ final class DualPivotQuicksort {
         }
     }
 
+    /**
+     * Sorts the specified range of an array that is not highly structured,
+     * by radix sort if the range is long enough and a workspace array is
+     * available, else by Dual-Pivot Quicksort.
+     *
+     * @param a the array to be sorted
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     */
+    private static void quickOrRadixSort(double[] a, int left, int right,
+                                         double[] work, int workBase, int workLen) {
+        if (right - left < RADIX_SORT_THRESHOLD
+                || !radixSort(a, left, right, work, workBase, workLen)) {
+            sort(a, left, right, true);
+        }
+    }
+
+    /**
+     * Sorts the specified range of the array by least significant digit
+     * radix sort.  The digits of all elements are counted in a single pass,
+     * and the digits all elements have in common are skipped.
+     *
+     * @param a the array to be sorted
+     * @param left the index of the first element, inclusive, to be sorted
+     * @param right the index of the last element, inclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     * @return false if the range is left unsorted for lack of memory
+     */
+    private static boolean radixSort(double[] a, int left, int right,
+                                     double[] work, int workBase, int workLen) {
+        int n = right - left + 1;
+        int end = 64 / RADIX_BITS * RADIX_SIZE;
+        int[] count;
+        try {
+            if (work == null || workLen < n || workBase + n > work.length) {
+                work = new double[n];
+                workBase = 0;
+            }
+            count = new int[end];
+        } catch (OutOfMemoryError e) {
+            return false;
+        }
+
+        for (int i = left; i <= right; ++i) {
+            double v = a[i];
+            long k = Double.doubleToRawLongBits(v); k ^= (k >> 63) | Long.MIN_VALUE;
+            for (int d = 0; d < end; d += RADIX_SIZE, k >>>= RADIX_BITS) {
+                ++count[d + ((int) k & RADIX_MASK)];
+            }
+        }
+
+        double[] b = work;              // alternates with a
+        int ao = left, bo = workBase; // offsets of the range in a and b
+        boolean swapped = false;
+        for (int d = 0, shift = 0; d < end; d += RADIX_SIZE, shift += RADIX_BITS) {
+            if (!radixOffsets(count, d, n, bo)) {
+                continue;
+            }
+            for (int i = ao, hi = ao + n; i < hi; ++i) {
+                double v = a[i];
+                long k = Double.doubleToRawLongBits(v); k ^= (k >> 63) | Long.MIN_VALUE;
+                b[count[d + ((int) (k >>> shift) & RADIX_MASK)]++] = v;
+            }
+            double[] t = a; a = b; b = t;
+            int o = ao; ao = bo; bo = o;
+            swapped = !swapped;
+        }
+        if (swapped) {
+            System.arraycopy(a, ao, b, bo, n);
+        }
+        return true;
+    }
+
     /**
      * Sorts the specified range of the array by Dual-Pivot Quicksort.
      *
@@ -3075,4 +3487,27 @@ final class DualPivotQuicksort {
             sort(a, great + 1, right, false);
         }
     }
+
+    /**
+     * Replaces the counts of one digit in radix sort by the indices at
+     * which the elements with each value of the digit begin, unless all
+     * the elements have the same value of the digit.
+     *
+     * @param count the counts of all digits
+     * @param d the index of the counts of the digit
+     * @param n the number of elements
+     * @param base the index of the first element
+     * @return false if all the elements have the same value of the digit
+     */
+    private static boolean radixOffsets(int[] count, int d, int n, int base) {
+        for (int k = d, end = d + RADIX_SIZE; k < end; ++k) {
+            int c = count[k];
+            if (c == n) {
+                return false;
+            }
+            count[k] = base;
+            base += c;
+        }
+        return true;
+    }
 }
@@ -348,6 +348,16 @@ public class HashMap<K,V> extends AbstractMap<K,V>
         return (key == null) ? 0 : (h = key.hashCode()) ^ (h >>> 16);
     }
 
+    /**
+     * Applies the same spreading as {@link #hash(Object)} to an already
+     * computed hash code. Used by the primitive-keyed maps (see
+     * {@link IntIntHashMap}) so that their slot distribution matches
+     * that of a HashMap holding the boxed keys.
+     */
+    static final int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
     /**
      * Returns x's Class if it is of the form "class C implements
      * Comparable<C>", else null.
@@ -0,0 +1,891 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.Serializable;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Hash table mapping primitive {@code int} keys to primitive {@code int}
+ * values.  Keys and values are held in two parallel arrays that are probed
+ * linearly, so unlike {@link HashMap} no per-mapping node is allocated and
+ * neither keys nor values are boxed by the primitive accessors
+ * ({@link #get(int)}, {@link #put(int, int)}, {@link #merge(int, int,
+ * IntBinaryOperator)} and friends).
+ *
+ * <p>The table is sized and grown like a {@code HashMap}: its capacity is
+ * always a power of two, it is allocated lazily on the first insertion and
+ * it doubles whenever the number of mappings exceeds the product of the
+ * load factor and the current capacity.  Slots are selected with the same
+ * bit spreading as {@code HashMap.hash}.  Because collisions are resolved
+ * in the table itself the load factor must be strictly less than one.
+ *
+ * <p>This class also implements {@code Map<Integer,Integer>}.  The methods
+ * inherited from {@code Map} and the collection views are fully functional
+ * but box their arguments and results; they are meant for interoperability
+ * rather than for hot paths.  The primitive accessors cannot express the
+ * absence of a mapping through {@code null}: {@link #get(int)} and friends
+ * return {@code 0} for absent keys, so use {@link #containsKey(int)} or
+ * {@link #getOrDefault(int, int)} when the distinction matters.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * The iterators returned by the collection views are <i>fail-fast</i> in
+ * the same sense as those of {@code HashMap}.
+ *
+ * @see HashMap
+ * @see LongLongHashMap
+ * @see LongObjectHashMap
+ * @since 1.8
+ */
+public class IntIntHashMap extends AbstractMap<Integer,Integer>
+    implements Cloneable, Serializable {
+
+    private static final long serialVersionUID = 5470612869315403581L;
+
+    /**
+     * The default initial capacity - MUST be a power of two.
+     */
+    static final int DEFAULT_INITIAL_CAPACITY = 1 << 4;
+
+    /**
+     * The maximum capacity, which is also the length of the key array at
+     * which the table stops growing.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The load factor used when none specified in constructor.
+     */
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    /* ---------------- Fields -------------- */
+
+    /**
+     * The keys, initialized on first use.  A zero entry marks a free slot;
+     * the key zero itself is kept out of the table in {@link #zeroValue}.
+     */
+    transient int[] keys;
+
+    /**
+     * The values, parallel to {@link #keys}.
+     */
+    transient int[] vals;
+
+    /**
+     * Whether the key zero is mapped.
+     */
+    transient boolean hasZeroKey;
+
+    /**
+     * The value mapped to the key zero, if {@link #hasZeroKey}.
+     */
+    transient int zeroValue;
+
+    /**
+     * The number of key-value mappings contained in this map.
+     */
+    transient int size;
+
+    /**
+     * The number of times this map has been structurally modified.
+     */
+    transient int modCount;
+
+    /**
+     * The next size value at which to resize (capacity * load factor).
+     * Before the table is allocated this holds the initial capacity.
+     *
+     * @serial
+     */
+    int threshold;
+
+    /**
+     * The load factor for the hash table.
+     *
+     * @serial
+     */
+    final float loadFactor;
+
+    /* ---------------- Public operations -------------- */
+
+    /**
+     * Constructs an empty map with the specified initial capacity and load
+     * factor.
+     *
+     * @param  initialCapacity the initial capacity
+     * @param  loadFactor      the load factor
+     * @throws IllegalArgumentException if the initial capacity is negative
+     *         or the load factor is not in the range (0, 1)
+     */
+    public IntIntHashMap(int initialCapacity, float loadFactor) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal initial capacity: " +
+                                               initialCapacity);
+        if (initialCapacity > MAXIMUM_CAPACITY)
+            initialCapacity = MAXIMUM_CAPACITY;
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException("Illegal load factor: " +
+                                               loadFactor);
+        this.loadFactor = loadFactor;
+        this.threshold = HashMap.tableSizeFor(initialCapacity);
+    }
+
+    /**
+     * Constructs an empty map with the specified initial capacity and the
+     * default load factor (0.75).
+     *
+     * @param  initialCapacity the initial capacity.
+     * @throws IllegalArgumentException if the initial capacity is negative.
+     */
+    public IntIntHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an empty map with the default initial capacity (16) and
+     * the default load factor (0.75).
+     */
+    public IntIntHashMap() {
+        this.loadFactor = DEFAULT_LOAD_FACTOR;
+    }
+
+    /**
+     * Constructs a new map with the same mappings as the specified
+     * {@code Map}, using the default load factor (0.75).
+     *
+     * @param   m the map whose mappings are to be placed in this map
+     * @throws  NullPointerException if the specified map is null or
+     *          contains null keys or values
+     */
+    public IntIntHashMap(Map<? extends Integer, ? extends Integer> m) {
+        this.loadFactor = DEFAULT_LOAD_FACTOR;
+        putAll(m);
+    }
+
+    /**
+     * Applies {@code HashMap}'s bit spreading to {@code key}.
+     */
+    static int hash(int key) {
+        return HashMap.spread(key);
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map contains no key-value mappings.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the slot holding {@code key}, or -1 if it is absent or zero.
+     */
+    final int indexOf(int key) {
+        int[] ks; int k, mask, i;
+        if (key != 0 && (ks = keys) != null) {
+            mask = ks.length - 1;
+            for (i = hash(key) & mask; (k = ks[i]) != 0; i = (i + 1) & mask) {
+                if (k == key)
+                    return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or {@code 0}
+     * if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the mapped value, or {@code 0} if there is none
+     */
+    public int get(int key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code defaultValue} if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to return if there is no mapping
+     * @return the mapped value, or {@code defaultValue}
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0)
+            return hasZeroKey ? zeroValue : defaultValue;
+        int i = indexOf(key);
+        return (i < 0) ? defaultValue : vals[i];
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map contains a mapping for the
+     * specified key.
+     *
+     * @param key the key whose presence is to be tested
+     * @return <tt>true</tt> if this map contains a mapping for the key
+     */
+    public boolean containsKey(int key) {
+        return (key == 0) ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map maps one or more keys to the
+     * specified value.  This requires a scan of the whole table.
+     *
+     * @param value the value whose presence is to be tested
+     * @return <tt>true</tt> if some key maps to the value
+     */
+    public boolean containsValue(int value) {
+        if (hasZeroKey && zeroValue == value)
+            return true;
+        int[] ks = keys, vs = vals;
+        if (ks != null) {
+            for (int i = 0; i < ks.length; ++i) {
+                if (ks[i] != 0 && vs[i] == value)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key, the old value
+     * is replaced.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with <tt>key</tt>, or
+     *         {@code 0} if there was no mapping for <tt>key</tt>
+     */
+    public int put(int key, int value) {
+        if (key == 0) {
+            int old = zeroValue;
+            zeroValue = value;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                ++modCount;
+                ++size;
+                return 0;
+            }
+            return old;
+        }
+        int i = slotFor(key);
+        int old = vals[i];
+        vals[i] = value;
+        if (keys[i] == 0) {
+            keys[i] = key;
+            afterInsert();
+            return 0;
+        }
+        return old;
+    }
+
+    /**
+     * If the specified key is not already mapped, associates it with the
+     * given value.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the current value associated with <tt>key</tt>, or {@code 0}
+     *         if there was no mapping and {@code value} was stored
+     */
+    public int putIfAbsent(int key, int value) {
+        if (key == 0) {
+            if (hasZeroKey)
+                return zeroValue;
+            hasZeroKey = true;
+            zeroValue = value;
+            ++modCount;
+            ++size;
+            return 0;
+        }
+        int i = slotFor(key);
+        if (keys[i] != 0)
+            return vals[i];
+        keys[i] = key;
+        vals[i] = value;
+        afterInsert();
+        return 0;
+    }
+
+    /**
+     * If the specified key is not already mapped, associates it with the
+     * given value; otherwise replaces the value with the result of the
+     * given remapping function applied to the old and the given value.
+     * Unlike {@link Map#merge} a mapping is never removed by this method.
+     *
+     * @param key key with which the resulting value is to be associated
+     * @param value the value to use if absent, and the second argument to
+     *        the remapping function otherwise
+     * @param remappingFunction the function to recompute a value if present
+     * @return the new value associated with the specified key
+     * @throws NullPointerException if the remapping function is null
+     */
+    public int merge(int key, int value, IntBinaryOperator remappingFunction) {
+        if (remappingFunction == null)
+            throw new NullPointerException();
+        if (key == 0) {
+            if (hasZeroKey)
+                return zeroValue =
+                    remappingFunction.applyAsInt(zeroValue, value);
+            hasZeroKey = true;
+            ++modCount;
+            ++size;
+            return zeroValue = value;
+        }
+        int i = slotFor(key);
+        if (keys[i] != 0) {
+            int mc = modCount;
+            int v = remappingFunction.applyAsInt(vals[i], value);
+            if (mc != modCount)
+                throw new ConcurrentModificationException();
+            return vals[i] = v;
+        }
+        keys[i] = key;
+        vals[i] = value;
+        afterInsert();
+        return value;
+    }
+
+    /**
+     * Adds {@code delta} to the value mapped to {@code key}, treating an
+     * absent mapping as {@code 0}.  This is the counting idiom
+     * {@code merge(key, delta, Integer::sum)} without the function call.
+     *
+     * @param key the key whose value is to be incremented
+     * @param delta the amount to add
+     * @return the new value associated with the specified key
+     */
+    public int addTo(int key, int delta) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                ++modCount;
+                ++size;
+                return zeroValue = delta;
+            }
+            return zeroValue += delta;
+        }
+        int i = slotFor(key);
+        if (keys[i] != 0)
+            return vals[i] += delta;
+        keys[i] = key;
+        vals[i] = delta;
+        afterInsert();
+        return delta;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param  key key whose mapping is to be removed from the map
+     * @return the previous value associated with <tt>key</tt>, or
+     *         {@code 0} if there was no mapping for <tt>key</tt>
+     */
+    public int remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey)
+                return 0;
+            int old = zeroValue;
+            hasZeroKey = false;
+            zeroValue = 0;
+            ++modCount;
+            --size;
+            return old;
+        }
+        int i = indexOf(key);
+        if (i < 0)
+            return 0;
+        int old = vals[i];
+        ++modCount;
+        --size;
+        shiftKeys(i, null);
+        return old;
+    }
+
+    /**
+     * Removes all of the mappings from this map.  The table keeps its
+     * current capacity.
+     */
+    public void clear() {
+        ++modCount;
+        if (size > 0) {
+            size = 0;
+            hasZeroKey = false;
+            zeroValue = 0;
+            if (keys != null) {
+                Arrays.fill(keys, 0);
+                Arrays.fill(vals, 0);
+            }
+        }
+    }
+
+    /* ---------------- Boxed Map operations -------------- */
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Returns {@code null} if the key is absent or not an {@code Integer}.
+     */
+    public Integer get(Object key) {
+        if (key instanceof Integer) {
+            int k = (Integer)key;
+            if (containsKey(k))
+                return get(k);
+        }
+        return null;
+    }
+
+    public boolean containsKey(Object key) {
+        return (key instanceof Integer) && containsKey(((Integer)key).intValue());
+    }
+
+    public boolean containsValue(Object value) {
+        return (value instanceof Integer) && containsValue(((Integer)value).intValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the key or value is null
+     */
+    public Integer put(Integer key, Integer value) {
+        int k = key, v = value;
+        boolean present = containsKey(k);
+        int old = put(k, v);
+        return present ? old : null;
+    }
+
+    public Integer remove(Object key) {
+        if (key instanceof Integer) {
+            int k = (Integer)key;
+            if (containsKey(k))
+                return remove(k);
+        }
+        return null;
+    }
+
+    public int hashCode() {
+        // Integer.hashCode(k) ^ Integer.hashCode(v), summed as in AbstractMap
+        int h = hasZeroKey ? zeroValue : 0;
+        int[] ks = keys, vs = vals;
+        if (ks != null) {
+            for (int i = 0; i < ks.length; ++i) {
+                if (ks[i] != 0)
+                    h += ks[i] ^ vs[i];
+            }
+        }
+        return h;
+    }
+
+    /* ---------------- Internals -------------- */
+
+    /**
+     * Returns the slot at which {@code key} (which must not be zero) is
+     * held, or the free slot at which it should be inserted, allocating
+     * the table if needed.
+     */
+    private int slotFor(int key) {
+        int[] ks; int k;
+        if ((ks = keys) == null)
+            ks = resize();
+        int mask = ks.length - 1;
+        int i = hash(key) & mask;
+        while ((k = ks[i]) != 0 && k != key)
+            i = (i + 1) & mask;
+        return i;
+    }
+
+    /**
+     * Accounts for a key stored in a free slot and grows the table if the
+     * threshold has been passed.
+     */
+    private void afterInsert() {
+        ++modCount;
+        ++size;
+        if (size - (hasZeroKey ? 1 : 0) > threshold)
+            resize();
+    }
+
+    /**
+     * Initializes or doubles the table.  Mirrors {@code HashMap.resize}
+     * except that the threshold is capped below the capacity, since an
+     * open-addressed table needs at least one free slot to terminate
+     * probing, and that a full table of maximum capacity is an error.
+     *
+     * @return the key array
+     */
+    final int[] resize() {
+        int[] oldKeys = keys, oldVals = vals;
+        int oldCap = (oldKeys == null) ? 0 : oldKeys.length;
+        int oldThr = threshold;
+        int newCap;
+        if (oldCap > 0) {
+            if (oldCap >= MAXIMUM_CAPACITY)
+                throw new IllegalStateException("Map capacity exceeded");
+            newCap = oldCap << 1;
+        }
+        else if (oldThr > 0) // initial capacity was placed in threshold
+            newCap = Math.max(oldThr, 2);
+        else                 // zero initial threshold signifies using defaults
+            newCap = DEFAULT_INITIAL_CAPACITY;
+        threshold = Math.min((int)((float)newCap * loadFactor), newCap - 1);
+        int[] newKeys = new int[newCap], newVals = new int[newCap];
+        keys = newKeys;
+        vals = newVals;
+        if (oldKeys != null) {
+            int mask = newCap - 1;
+            for (int j = 0; j < oldCap; ++j) {
+                int k;
+                if ((k = oldKeys[j]) != 0) {
+                    int i = hash(k) & mask;
+                    while (newKeys[i] != 0)
+                        i = (i + 1) & mask;
+                    newKeys[i] = k;
+                    newVals[i] = oldVals[j];
+                }
+            }
+        }
+        return newKeys;
+    }
+
+    /**
+     * Empties slot {@code pos} and closes the gap by shifting back the
+     * entries of the following probe run that may legally occupy it, so
+     * that no tombstones are needed.  When called from an iterator, an
+     * entry that wraps around from the start of the table to a slot the
+     * iterator has already passed is handed to the iterator.
+     */
+    final void shiftKeys(int pos, HashIterator it) {
+        int[] ks = keys, vs = vals;
+        int mask = ks.length - 1;
+        for (;;) {
+            int last = pos, k;
+            pos = (pos + 1) & mask;
+            for (;;) {
+                if ((k = ks[pos]) == 0) {
+                    ks[last] = 0;
+                    vs[last] = 0;
+                    return;
+                }
+                int slot = hash(k) & mask;
+                if (last <= pos ? last >= slot || slot > pos
+                                : last >= slot && slot > pos)
+                    break;
+                pos = (pos + 1) & mask;
+            }
+            if (pos < last && it != null)
+                it.addWrapped(k, vs[pos]);
+            ks[last] = k;
+            vs[last] = vs[pos];
+        }
+    }
+
+    /* ---------------- Views -------------- */
+
+    /**
+     * Holds cached entrySet().
+     */
+    transient Set<Map.Entry<Integer,Integer>> entrySet;
+
+    /**
+     * Returns a {@link Set} view of the mappings contained in this map.
+     * The entries box their keys and values; {@code setValue} writes
+     * through to the map.
+     *
+     * @return a set view of the mappings contained in this map
+     */
+    public Set<Map.Entry<Integer,Integer>> entrySet() {
+        Set<Map.Entry<Integer,Integer>> es;
+        return (es = entrySet) == null ? (entrySet = new EntrySet()) : es;
+    }
+
+    /**
+     * Returns a {@link Set} view of the keys contained in this map.
+     *
+     * @return a set view of the keys contained in this map
+     */
+    public Set<Integer> keySet() {
+        Set<Integer> ks;
+        return (ks = keySet) == null ? (keySet = new KeySet()) : ks;
+    }
+
+    final class KeySet extends AbstractSet<Integer> {
+        public final int size()                 { return size; }
+        public final void clear()               { IntIntHashMap.this.clear(); }
+        public final Iterator<Integer> iterator() { return new KeyIterator(); }
+        public final boolean contains(Object o) { return containsKey(o); }
+        public final boolean remove(Object o) {
+            if (containsKey(o)) {
+                IntIntHashMap.this.remove(o);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    final class EntrySet extends AbstractSet<Map.Entry<Integer,Integer>> {
+        public final int size()                 { return size; }
+        public final void clear()               { IntIntHashMap.this.clear(); }
+        public final Iterator<Map.Entry<Integer,Integer>> iterator() {
+            return new EntryIterator();
+        }
+        public final boolean contains(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?,?> e = (Map.Entry<?,?>) o;
+            Object key = e.getKey(), value = e.getValue();
+            return containsKey(key) && value instanceof Integer &&
+                get(((Integer)key).intValue()) == (Integer)value;
+        }
+        public final boolean remove(Object o) {
+            if (contains(o)) {
+                IntIntHashMap.this.remove(((Map.Entry<?,?>)o).getKey());
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A boxed snapshot of one mapping; {@code setValue} writes through.
+     */
+    final class Entry implements Map.Entry<Integer,Integer> {
+        final int key;
+        int value;
+        Entry(int key, int value) { this.key = key; this.value = value; }
+        public final Integer getKey()     { return key; }
+        public final Integer getValue()   { return value; }
+        public final String toString()    { return key + "=" + value; }
+        public final int hashCode()       { return key ^ value; }
+        public final Integer setValue(Integer newValue) {
+            int old = value;
+            put(key, value = newValue.intValue());
+            return old;
+        }
+        public final boolean equals(Object o) {
+            if (o == this)
+                return true;
+            if (o instanceof Map.Entry) {
+                Map.Entry<?,?> e = (Map.Entry<?,?>)o;
+                return Integer.valueOf(key).equals(e.getKey()) &&
+                    Integer.valueOf(value).equals(e.getValue());
+            }
+            return false;
+        }
+    }
+
+    /* ---------------- Iterators -------------- */
+
+    /**
+     * Walks the table from the last slot down to the first, so that the
+     * backward shifts done by {@link #remove} move entries only into slots
+     * that have already been visited.  The one exception, an entry
+     * wrapping around from the start of the table, is collected in a side
+     * buffer and returned after the table has been exhausted.
+     */
+    abstract class HashIterator {
+        int pos;              // next slot to examine, counting down
+        int last = -1;        // slot of last returned entry, -1 if none
+        int lastKey;          // key of last returned entry
+        int lastValue;        // value of last returned entry
+        int remaining;        // number of entries not yet returned
+        boolean zeroPending;  // whether the zero key is still to come
+        int[] wrappedKeys;    // entries moved behind us by remove
+        int[] wrappedVals;
+        int wrappedCount;
+        int expectedModCount; // for fast-fail
+
+        HashIterator() {
+            expectedModCount = modCount;
+            remaining = size;
+            zeroPending = hasZeroKey;
+            pos = (keys == null) ? 0 : keys.length;
+        }
+
+        public final boolean hasNext() {
+            return remaining > 0;
+        }
+
+        final void nextSlot() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (remaining <= 0)
+                throw new NoSuchElementException();
+            --remaining;
+            if (zeroPending) {
+                zeroPending = false;
+                last = WRAPPED_OR_ZERO;
+                lastKey = 0;
+                lastValue = zeroValue;
+                return;
+            }
+            int[] ks = keys;
+            while (--pos >= 0) {
+                if (ks[pos] != 0) {
+                    last = pos;
+                    lastKey = ks[pos];
+                    lastValue = vals[pos];
+                    return;
+                }
+            }
+            int w = -pos - 1;
+            if (w >= wrappedCount)
+                throw new ConcurrentModificationException();
+            last = WRAPPED_OR_ZERO;
+            lastKey = wrappedKeys[w];
+            lastValue = getOrDefault(lastKey, wrappedVals[w]);
+        }
+
+        final void addWrapped(int k, int v) {
+            if (wrappedKeys == null) {
+                wrappedKeys = new int[2];
+                wrappedVals = new int[2];
+            } else if (wrappedCount == wrappedKeys.length) {
+                wrappedKeys = Arrays.copyOf(wrappedKeys, wrappedCount << 1);
+                wrappedVals = Arrays.copyOf(wrappedVals, wrappedCount << 1);
+            }
+            wrappedKeys[wrappedCount] = k;
+            wrappedVals[wrappedCount++] = v;
+        }
+
+        public final void remove() {
+            if (last == -1)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (last == WRAPPED_OR_ZERO)
+                IntIntHashMap.this.remove(lastKey);
+            else {
+                ++modCount;
+                --size;
+                shiftKeys(last, this);
+            }
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * Marker for {@link HashIterator#last} when the last returned entry
+     * does not live at a fixed table slot.
+     */
+    static final int WRAPPED_OR_ZERO = -2;
+
+    final class KeyIterator extends HashIterator implements Iterator<Integer> {
+        public final Integer next() { nextSlot(); return lastKey; }
+    }
+
+    final class EntryIterator extends HashIterator
+        implements Iterator<Map.Entry<Integer,Integer>> {
+        public final Map.Entry<Integer,Integer> next() {
+            nextSlot();
+            return new Entry(lastKey, lastValue);
+        }
+    }
+
+    /* ---------------- Cloning and Serialization -------------- */
+
+    /**
+     * Returns a shallow copy of this map instance.
+     *
+     * @return a shallow copy of this map
+     */
+    public IntIntHashMap clone() {
+        IntIntHashMap result;
+        try {
+            result = (IntIntHashMap)super.clone();
+        } catch (CloneNotSupportedException e) {
+            // this shouldn't happen, since we are Cloneable
+            throw new InternalError(e);
+        }
+        if (keys != null) {
+            result.keys = keys.clone();
+            result.vals = vals.clone();
+        }
+        result.entrySet = null;
+        return result;
+    }
+
+    /**
+     * Save the state of the map to a stream (i.e., serialize it).
+     *
+     * @serialData The <i>size</i> of the map (an int) is emitted, followed
+     *             by the key (int) and value (int) of each mapping, in no
+     *             particular order.
+     */
+    private void writeObject(java.io.ObjectOutputStream s)
+        throws IOException {
+        s.defaultWriteObject();
+        s.writeInt(size);
+        if (hasZeroKey) {
+            s.writeInt(0);
+            s.writeInt(zeroValue);
+        }
+        int[] ks = keys, vs = vals;
+        if (ks != null) {
+            for (int i = 0; i < ks.length; ++i) {
+                if (ks[i] != 0) {
+                    s.writeInt(ks[i]);
+                    s.writeInt(vs[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reconstitute the map from a stream (i.e., deserialize it).
+     */
+    private void readObject(java.io.ObjectInputStream s)
+        throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new InvalidObjectException("Illegal load factor: " +
+                                             loadFactor);
+        int mappings = s.readInt();
+        if (mappings < 0)
+            throw new InvalidObjectException("Illegal mappings count: " +
+                                             mappings);
+        float fc = (float)mappings / loadFactor + 1.0f;
+        threshold = (fc >= MAXIMUM_CAPACITY) ? MAXIMUM_CAPACITY :
+            HashMap.tableSizeFor((int)fc);
+        keys = vals = null;
+        hasZeroKey = false;
+        zeroValue = size = modCount = 0;
+        for (int i = 0; i < mappings; i++)
+            put(s.readInt(), s.readInt());
+    }
+}
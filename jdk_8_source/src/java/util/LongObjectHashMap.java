@@ -0,0 +1,898 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.Serializable;
+import java.util.function.BiFunction;
+import java.util.function.LongFunction;
+
+/**
+ * Hash table mapping primitive {@code long} keys to object values.  Keys
+ * and values are held in two parallel arrays that are probed linearly, so
+ * unlike a {@code HashMap<Long,V>} no per-mapping node is allocated and
+ * keys are not boxed by the primitive accessors ({@link #get(long)},
+ * {@link #put(long, Object)}, {@link #merge(long, Object, BiFunction)} and
+ * friends).  Values may be {@code null}, with the same ambiguity for
+ * {@code get} as in {@code HashMap}.
+ *
+ * <p>Sizing, growth and slot selection follow {@link IntIntHashMap}: the
+ * capacity is a power of two, the table is allocated on first insertion
+ * and doubles like a {@code HashMap}, slots are chosen with
+ * {@code HashMap}'s bit spreading of {@code Long.hashCode(key)}, and the
+ * load factor must be strictly less than one.
+ *
+ * <p>This class also implements {@code Map<Long,V>}.  The methods
+ * inherited from {@code Map} and the collection views are fully functional
+ * but box their keys; they are meant for interoperability rather than for
+ * hot paths.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * The iterators returned by the collection views are <i>fail-fast</i> in
+ * the same sense as those of {@code HashMap}.
+ *
+ * @param <V> the type of mapped values
+ *
+ * @see HashMap
+ * @see IntIntHashMap
+ * @see LongLongHashMap
+ * @since 1.8
+ */
+public class LongObjectHashMap<V> extends AbstractMap<Long,V>
+    implements Cloneable, Serializable {
+
+    private static final long serialVersionUID = 8120476913550146023L;
+
+    /**
+     * The default initial capacity - MUST be a power of two.
+     */
+    static final int DEFAULT_INITIAL_CAPACITY = 1 << 4;
+
+    /**
+     * The maximum capacity, which is also the length of the key array at
+     * which the table stops growing.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The load factor used when none specified in constructor.
+     */
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    /* ---------------- Fields -------------- */
+
+    /**
+     * The keys, initialized on first use.  A zero entry marks a free slot;
+     * the key zero itself is kept out of the table in {@link #zeroValue}.
+     */
+    transient long[] keys;
+
+    /**
+     * The values, parallel to {@link #keys}.
+     */
+    transient Object[] vals;
+
+    /**
+     * Whether the key zero is mapped.
+     */
+    transient boolean hasZeroKey;
+
+    /**
+     * The value mapped to the key zero, if {@link #hasZeroKey}.
+     */
+    transient V zeroValue;
+
+    /**
+     * The number of key-value mappings contained in this map.
+     */
+    transient int size;
+
+    /**
+     * The number of times this map has been structurally modified.
+     */
+    transient int modCount;
+
+    /**
+     * The next size value at which to resize (capacity * load factor).
+     * Before the table is allocated this holds the initial capacity.
+     *
+     * @serial
+     */
+    int threshold;
+
+    /**
+     * The load factor for the hash table.
+     *
+     * @serial
+     */
+    final float loadFactor;
+
+    /* ---------------- Public operations -------------- */
+
+    /**
+     * Constructs an empty map with the specified initial capacity and load
+     * factor.
+     *
+     * @param  initialCapacity the initial capacity
+     * @param  loadFactor      the load factor
+     * @throws IllegalArgumentException if the initial capacity is negative
+     *         or the load factor is not in the range (0, 1)
+     */
+    public LongObjectHashMap(int initialCapacity, float loadFactor) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal initial capacity: " +
+                                               initialCapacity);
+        if (initialCapacity > MAXIMUM_CAPACITY)
+            initialCapacity = MAXIMUM_CAPACITY;
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException("Illegal load factor: " +
+                                               loadFactor);
+        this.loadFactor = loadFactor;
+        this.threshold = HashMap.tableSizeFor(initialCapacity);
+    }
+
+    /**
+     * Constructs an empty map with the specified initial capacity and the
+     * default load factor (0.75).
+     *
+     * @param  initialCapacity the initial capacity.
+     * @throws IllegalArgumentException if the initial capacity is negative.
+     */
+    public LongObjectHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an empty map with the default initial capacity (16) and
+     * the default load factor (0.75).
+     */
+    public LongObjectHashMap() {
+        this.loadFactor = DEFAULT_LOAD_FACTOR;
+    }
+
+    /**
+     * Constructs a new map with the same mappings as the specified
+     * {@code Map}, using the default load factor (0.75).
+     *
+     * @param   m the map whose mappings are to be placed in this map
+     * @throws  NullPointerException if the specified map is null or
+     *          contains null keys
+     */
+    public LongObjectHashMap(Map<? extends Long, ? extends V> m) {
+        this.loadFactor = DEFAULT_LOAD_FACTOR;
+        putAll(m);
+    }
+
+    /**
+     * Applies {@code HashMap}'s bit spreading to {@code Long.hashCode(key)},
+     * which is where a boxed key would land in a {@code HashMap}.
+     */
+    static int hash(long key) {
+        return HashMap.spread((int)(key ^ (key >>> 32)));
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map contains no key-value mappings.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the slot holding {@code key}, or -1 if it is absent or zero.
+     */
+    final int indexOf(long key) {
+        long[] ks; long k; int mask, i;
+        if (key != 0 && (ks = keys) != null) {
+            mask = ks.length - 1;
+            for (i = hash(key) & mask; (k = ks[i]) != 0; i = (i + 1) & mask) {
+                if (k == key)
+                    return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code null} if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the mapped value, or {@code null} if there is none
+     */
+    public V get(long key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code defaultValue} if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the value to return if there is no mapping
+     * @return the mapped value, or {@code defaultValue}
+     */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(long key, V defaultValue) {
+        if (key == 0)
+            return hasZeroKey ? zeroValue : defaultValue;
+        int i = indexOf(key);
+        return (i < 0) ? defaultValue : (V)vals[i];
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map contains a mapping for the
+     * specified key.
+     *
+     * @param key the key whose presence is to be tested
+     * @return <tt>true</tt> if this map contains a mapping for the key
+     */
+    public boolean containsKey(long key) {
+        return (key == 0) ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map maps one or more keys to the
+     * specified value.  This requires a scan of the whole table.
+     *
+     * @param value the value whose presence is to be tested
+     * @return <tt>true</tt> if some key maps to the value
+     */
+    public boolean containsValue(Object value) {
+        if (hasZeroKey && Objects.equals(zeroValue, value))
+            return true;
+        long[] ks = keys; Object[] vs = vals;
+        if (ks != null) {
+            for (int i = 0; i < ks.length; ++i) {
+                if (ks[i] != 0 && Objects.equals(vs[i], value))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key, the old value
+     * is replaced.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with <tt>key</tt>, or
+     *         <tt>null</tt> if there was no mapping for <tt>key</tt>
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (key == 0) {
+            V old = zeroValue;
+            zeroValue = value;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                ++modCount;
+                ++size;
+            }
+            return old;
+        }
+        int i = slotFor(key);
+        V old = (V)vals[i];
+        vals[i] = value;
+        if (keys[i] == 0) {
+            keys[i] = key;
+            afterInsert();
+        }
+        return old;
+    }
+
+    /**
+     * If the specified key is not already associated with a value (or is
+     * mapped to {@code null}) associates it with the given value.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with <tt>key</tt>, or
+     *         <tt>null</tt> if there was no mapping for <tt>key</tt>
+     */
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(long key, V value) {
+        if (key == 0) {
+            V old = zeroValue;
+            if (old == null)
+                put(0L, value);
+            return old;
+        }
+        int i = slotFor(key);
+        V old = (V)vals[i];
+        if (old == null)
+            vals[i] = value;
+        if (keys[i] == 0) {
+            keys[i] = key;
+            afterInsert();
+        }
+        return old;
+    }
+
+    /**
+     * If the specified key is not already associated with a value (or is
+     * mapped to {@code null}), attempts to compute its value using the
+     * given mapping function and enters it into this map unless
+     * {@code null}.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param mappingFunction the function to compute a value
+     * @return the current (existing or computed) value associated with
+     *         the specified key, or null if the computed value is null
+     * @throws NullPointerException if the mapping function is null
+     * @throws ConcurrentModificationException if it is detected that the
+     *         mapping function modified this map
+     */
+    public V computeIfAbsent(long key,
+                             LongFunction<? extends V> mappingFunction) {
+        if (mappingFunction == null)
+            throw new NullPointerException();
+        V old;
+        if ((old = get(key)) != null)
+            return old;
+        int mc = modCount;
+        V v = mappingFunction.apply(key);
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+        if (v != null)
+            put(key, v);
+        return v;
+    }
+
+    /**
+     * If the specified key is not already associated with a value or is
+     * associated with null, associates it with the given non-null value.
+     * Otherwise, replaces the associated value with the results of the
+     * given remapping function, or removes if the result is {@code null}.
+     *
+     * @param key key with which the resulting value is to be associated
+     * @param value the non-null value to be merged with the existing value
+     *        associated with the key or, if no existing value or a null
+     *        value is associated with the key, to be associated with the
+     *        key
+     * @param remappingFunction the function to recompute a value if present
+     * @return the new value associated with the specified key, or null if
+     *         no value is associated with the key
+     * @throws NullPointerException if the value or remapping function is
+     *         null
+     * @throws ConcurrentModificationException if it is detected that the
+     *         remapping function modified this map
+     */
+    public V merge(long key, V value,
+                   BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (value == null || remappingFunction == null)
+            throw new NullPointerException();
+        V old = get(key);
+        if (old == null) {
+            put(key, value);
+            return value;
+        }
+        int mc = modCount;
+        V v = remappingFunction.apply(old, value);
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+        if (v == null)
+            remove(key);
+        else
+            put(key, v);
+        return v;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param  key key whose mapping is to be removed from the map
+     * @return the previous value associated with <tt>key</tt>, or
+     *         <tt>null</tt> if there was no mapping for <tt>key</tt>
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            V old = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                ++modCount;
+                --size;
+            }
+            return old;
+        }
+        int i = indexOf(key);
+        if (i < 0)
+            return null;
+        V old = (V)vals[i];
+        ++modCount;
+        --size;
+        shiftKeys(i, null);
+        return old;
+    }
+
+    /**
+     * Removes all of the mappings from this map.  The table keeps its
+     * current capacity.
+     */
+    public void clear() {
+        ++modCount;
+        if (size > 0) {
+            size = 0;
+            hasZeroKey = false;
+            zeroValue = null;
+            if (keys != null) {
+                Arrays.fill(keys, 0L);
+                Arrays.fill(vals, null);
+            }
+        }
+    }
+
+    /* ---------------- Boxed Map operations -------------- */
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Returns {@code null} if the key is absent or not a {@code Long}.
+     */
+    public V get(Object key) {
+        return (key instanceof Long) ? get(((Long)key).longValue()) : null;
+    }
+
+    public boolean containsKey(Object key) {
+        return (key instanceof Long) && containsKey(((Long)key).longValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the key is null
+     */
+    public V put(Long key, V value) {
+        return put(key.longValue(), value);
+    }
+
+    public V remove(Object key) {
+        return (key instanceof Long) ? remove(((Long)key).longValue()) : null;
+    }
+
+    public int hashCode() {
+        // Long.hashCode(k) ^ Objects.hashCode(v), summed as in AbstractMap
+        int h = hasZeroKey ? Objects.hashCode(zeroValue) : 0;
+        long[] ks = keys; Object[] vs = vals;
+        if (ks != null) {
+            for (int i = 0; i < ks.length; ++i) {
+                if (ks[i] != 0)
+                    h += Long.hashCode(ks[i]) ^ Objects.hashCode(vs[i]);
+            }
+        }
+        return h;
+    }
+
+    /* ---------------- Internals -------------- */
+
+    /**
+     * Returns the slot at which {@code key} (which must not be zero) is
+     * held, or the free slot at which it should be inserted, allocating
+     * the table if needed.
+     */
+    private int slotFor(long key) {
+        long[] ks; long k;
+        if ((ks = keys) == null)
+            ks = resize();
+        int mask = ks.length - 1;
+        int i = hash(key) & mask;
+        while ((k = ks[i]) != 0 && k != key)
+            i = (i + 1) & mask;
+        return i;
+    }
+
+    /**
+     * Accounts for a key stored in a free slot and grows the table if the
+     * threshold has been passed.
+     */
+    private void afterInsert() {
+        ++modCount;
+        ++size;
+        if (size - (hasZeroKey ? 1 : 0) > threshold)
+            resize();
+    }
+
+    /**
+     * Initializes or doubles the table, as in
+     * {@code IntIntHashMap.resize}.
+     *
+     * @return the key array
+     */
+    final long[] resize() {
+        long[] oldKeys = keys; Object[] oldVals = vals;
+        int oldCap = (oldKeys == null) ? 0 : oldKeys.length;
+        int oldThr = threshold;
+        int newCap;
+        if (oldCap > 0) {
+            if (oldCap >= MAXIMUM_CAPACITY)
+                throw new IllegalStateException("Map capacity exceeded");
+            newCap = oldCap << 1;
+        }
+        else if (oldThr > 0) // initial capacity was placed in threshold
+            newCap = Math.max(oldThr, 2);
+        else                 // zero initial threshold signifies using defaults
+            newCap = DEFAULT_INITIAL_CAPACITY;
+        threshold = Math.min((int)((float)newCap * loadFactor), newCap - 1);
+        long[] newKeys = new long[newCap];
+        Object[] newVals = new Object[newCap];
+        keys = newKeys;
+        vals = newVals;
+        if (oldKeys != null) {
+            int mask = newCap - 1;
+            for (int j = 0; j < oldCap; ++j) {
+                long k;
+                if ((k = oldKeys[j]) != 0) {
+                    int i = hash(k) & mask;
+                    while (newKeys[i] != 0)
+                        i = (i + 1) & mask;
+                    newKeys[i] = k;
+                    newVals[i] = oldVals[j];
+                }
+            }
+        }
+        return newKeys;
+    }
+
+    /**
+     * Empties slot {@code pos} and closes the gap by backward shifting, as
+     * in {@code IntIntHashMap.shiftKeys}.
+     */
+    final void shiftKeys(int pos, HashIterator it) {
+        long[] ks = keys; Object[] vs = vals;
+        int mask = ks.length - 1;
+        for (;;) {
+            int last = pos; long k;
+            pos = (pos + 1) & mask;
+            for (;;) {
+                if ((k = ks[pos]) == 0) {
+                    ks[last] = 0;
+                    vs[last] = null;
+                    return;
+                }
+                int slot = hash(k) & mask;
+                if (last <= pos ? last >= slot || slot > pos
+                                : last >= slot && slot > pos)
+                    break;
+                pos = (pos + 1) & mask;
+            }
+            if (pos < last && it != null)
+                it.addWrapped(k);
+            ks[last] = k;
+            vs[last] = vs[pos];
+        }
+    }
+
+    /* ---------------- Views -------------- */
+
+    /**
+     * Holds cached entrySet().
+     */
+    transient Set<Map.Entry<Long,V>> entrySet;
+
+    /**
+     * Returns a {@link Set} view of the mappings contained in this map.
+     * The entries box their keys; {@code setValue} writes through to the
+     * map.
+     *
+     * @return a set view of the mappings contained in this map
+     */
+    public Set<Map.Entry<Long,V>> entrySet() {
+        Set<Map.Entry<Long,V>> es;
+        return (es = entrySet) == null ? (entrySet = new EntrySet()) : es;
+    }
+
+    /**
+     * Returns a {@link Set} view of the keys contained in this map.
+     *
+     * @return a set view of the keys contained in this map
+     */
+    public Set<Long> keySet() {
+        Set<Long> ks;
+        return (ks = keySet) == null ? (keySet = new KeySet()) : ks;
+    }
+
+    /**
+     * Returns a {@link Collection} view of the values contained in this
+     * map.
+     *
+     * @return a view of the values contained in this map
+     */
+    public Collection<V> values() {
+        Collection<V> vs;
+        return (vs = values) == null ? (values = new Values()) : vs;
+    }
+
+    final class KeySet extends AbstractSet<Long> {
+        public final int size()                 { return size; }
+        public final void clear()               { LongObjectHashMap.this.clear(); }
+        public final Iterator<Long> iterator()  { return new KeyIterator(); }
+        public final boolean contains(Object o) { return containsKey(o); }
+        public final boolean remove(Object o) {
+            if (containsKey(o)) {
+                LongObjectHashMap.this.remove(o);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    final class Values extends AbstractCollection<V> {
+        public final int size()                 { return size; }
+        public final void clear()               { LongObjectHashMap.this.clear(); }
+        public final Iterator<V> iterator()     { return new ValueIterator(); }
+        public final boolean contains(Object o) { return containsValue(o); }
+    }
+
+    final class EntrySet extends AbstractSet<Map.Entry<Long,V>> {
+        public final int size()                 { return size; }
+        public final void clear()               { LongObjectHashMap.this.clear(); }
+        public final Iterator<Map.Entry<Long,V>> iterator() {
+            return new EntryIterator();
+        }
+        public final boolean contains(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?,?> e = (Map.Entry<?,?>) o;
+            Object key = e.getKey();
+            return containsKey(key) &&
+                Objects.equals(get(((Long)key).longValue()), e.getValue());
+        }
+        public final boolean remove(Object o) {
+            if (contains(o)) {
+                LongObjectHashMap.this.remove(((Map.Entry<?,?>)o).getKey());
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A boxed snapshot of one mapping; {@code setValue} writes through.
+     */
+    final class Entry implements Map.Entry<Long,V> {
+        final long key;
+        V value;
+        Entry(long key, V value) { this.key = key; this.value = value; }
+        public final Long getKey()        { return key; }
+        public final V getValue()         { return value; }
+        public final String toString()    { return key + "=" + value; }
+        public final int hashCode() {
+            return Long.hashCode(key) ^ Objects.hashCode(value);
+        }
+        public final V setValue(V newValue) {
+            V old = value;
+            put(key, value = newValue);
+            return old;
+        }
+        public final boolean equals(Object o) {
+            if (o == this)
+                return true;
+            if (o instanceof Map.Entry) {
+                Map.Entry<?,?> e = (Map.Entry<?,?>)o;
+                return Long.valueOf(key).equals(e.getKey()) &&
+                    Objects.equals(value, e.getValue());
+            }
+            return false;
+        }
+    }
+
+    /* ---------------- Iterators -------------- */
+
+    /**
+     * Walks the table from the last slot down to the first; see
+     * {@code IntIntHashMap.HashIterator}.
+     */
+    abstract class HashIterator {
+        int pos;              // next slot to examine, counting down
+        int last = -1;        // slot of last returned entry, -1 if none
+        long lastKey;         // key of last returned entry
+        V lastValue;          // value of last returned entry
+        int remaining;        // number of entries not yet returned
+        boolean zeroPending;  // whether the zero key is still to come
+        long[] wrappedKeys;   // entries moved behind us by remove
+        int wrappedCount;
+        int expectedModCount; // for fast-fail
+
+        HashIterator() {
+            expectedModCount = modCount;
+            remaining = size;
+            zeroPending = hasZeroKey;
+            pos = (keys == null) ? 0 : keys.length;
+        }
+
+        public final boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        final void nextSlot() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (remaining <= 0)
+                throw new NoSuchElementException();
+            --remaining;
+            if (zeroPending) {
+                zeroPending = false;
+                last = WRAPPED_OR_ZERO;
+                lastKey = 0L;
+                lastValue = zeroValue;
+                return;
+            }
+            long[] ks = keys;
+            while (--pos >= 0) {
+                if (ks[pos] != 0) {
+                    last = pos;
+                    lastKey = ks[pos];
+                    lastValue = (V)vals[pos];
+                    return;
+                }
+            }
+            int w = -pos - 1;
+            if (w >= wrappedCount)
+                throw new ConcurrentModificationException();
+            last = WRAPPED_OR_ZERO;
+            lastKey = wrappedKeys[w];
+            lastValue = get(lastKey);
+        }
+
+        final void addWrapped(long k) {
+            if (wrappedKeys == null)
+                wrappedKeys = new long[2];
+            else if (wrappedCount == wrappedKeys.length)
+                wrappedKeys = Arrays.copyOf(wrappedKeys, wrappedCount << 1);
+            wrappedKeys[wrappedCount++] = k;
+        }
+
+        public final void remove() {
+            if (last == -1)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (last == WRAPPED_OR_ZERO)
+                LongObjectHashMap.this.remove(lastKey);
+            else {
+                ++modCount;
+                --size;
+                shiftKeys(last, this);
+            }
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * Marker for {@link HashIterator#last} when the last returned entry
+     * does not live at a fixed table slot.
+     */
+    static final int WRAPPED_OR_ZERO = -2;
+
+    final class KeyIterator extends HashIterator implements Iterator<Long> {
+        public final Long next() { nextSlot(); return lastKey; }
+    }
+
+    final class ValueIterator extends HashIterator implements Iterator<V> {
+        public final V next() { nextSlot(); return lastValue; }
+    }
+
+    final class EntryIterator extends HashIterator
+        implements Iterator<Map.Entry<Long,V>> {
+        public final Map.Entry<Long,V> next() {
+            nextSlot();
+            return new Entry(lastKey, lastValue);
+        }
+    }
+
+    /* ---------------- Cloning and Serialization -------------- */
+
+    /**
+     * Returns a shallow copy of this map instance: the values themselves
+     * are not cloned.
+     *
+     * @return a shallow copy of this map
+     */
+    @SuppressWarnings("unchecked")
+    public LongObjectHashMap<V> clone() {
+        LongObjectHashMap<V> result;
+        try {
+            result = (LongObjectHashMap<V>)super.clone();
+        } catch (CloneNotSupportedException e) {
+            // this shouldn't happen, since we are Cloneable
+            throw new InternalError(e);
+        }
+        if (keys != null) {
+            result.keys = keys.clone();
+            result.vals = vals.clone();
+        }
+        result.entrySet = null;
+        return result;
+    }
+
+    /**
+     * Save the state of the map to a stream (i.e., serialize it).
+     *
+     * @serialData The <i>size</i> of the map (an int) is emitted, followed
+     *             by the key (long) and value (Object) of each mapping, in
+     *             no particular order.
+     */
+    private void writeObject(java.io.ObjectOutputStream s)
+        throws IOException {
+        s.defaultWriteObject();
+        s.writeInt(size);
+        if (hasZeroKey) {
+            s.writeLong(0L);
+            s.writeObject(zeroValue);
+        }
+        long[] ks = keys; Object[] vs = vals;
+        if (ks != null) {
+            for (int i = 0; i < ks.length; ++i) {
+                if (ks[i] != 0) {
+                    s.writeLong(ks[i]);
+                    s.writeObject(vs[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reconstitute the map from a stream (i.e., deserialize it).
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(java.io.ObjectInputStream s)
+        throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new InvalidObjectException("Illegal load factor: " +
+                                             loadFactor);
+        int mappings = s.readInt();
+        if (mappings < 0)
+            throw new InvalidObjectException("Illegal mappings count: " +
+                                             mappings);
+        float fc = (float)mappings / loadFactor + 1.0f;
+        threshold = (fc >= MAXIMUM_CAPACITY) ? MAXIMUM_CAPACITY :
+            HashMap.tableSizeFor((int)fc);
+        keys = null;
+        vals = null;
+        hasZeroKey = false;
+        zeroValue = null;
+        size = modCount = 0;
+        for (int i = 0; i < mappings; i++) {
+            long key = s.readLong();
+            put(key, (V)s.readObject());
+        }
+    }
+}
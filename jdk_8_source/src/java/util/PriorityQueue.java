@@ -70,7 +70,13 @@ import sun.misc.SharedSecrets;
  * ({@code offer}, {@code poll}, {@code remove()} and {@code add});
  * linear time for the {@code remove(Object)} and {@code contains(Object)}
  * methods; and constant time for the retrieval methods
- * ({@code peek}, {@code element}, and {@code size}).
+ * ({@code peek}, {@code element}, and {@code size}).  The heap is binary
+ * unless another arity is given to the {@linkplain
+ * #PriorityQueue(int, Comparator, int) constructor}: a 4-ary heap is half
+ * as deep, and the children a dequeue compares are adjacent in memory,
+ * which usually makes large queues faster.  Method {@code addAll}
+ * rebuilds the heap in linear time when it adds many elements, and
+ * {@link #drainTo(Collection, int) drainTo} removes elements in bulk.
  *
  * <p>This class is a member of the
  * <a href="{@docRoot}/../technotes/guides/collections/index.html">
@@ -88,8 +94,10 @@ public class PriorityQueue<E> extends AbstractQueue<E>
     private static final int DEFAULT_INITIAL_CAPACITY = 11;
 
     /**
-     * Priority queue represented as a balanced binary heap: the two
-     * children of queue[n] are queue[2*n+1] and queue[2*(n+1)].  The
+     * Priority queue represented as a balanced d-ary heap, where d is
+     * the arity: the children of queue[n] are queue[d*n+1] through
+     * queue[d*n+d], so that the two children of a binary heap are
+     * queue[2*n+1] and queue[2*(n+1)].  The
      * priority queue is ordered by comparator, or by the elements'
      * natural ordering, if comparator is null: For each node n in the
      * heap and each descendant d of n, n <= d.  The element with the
@@ -108,6 +116,14 @@ public class PriorityQueue<E> extends AbstractQueue<E>
      */
     private final Comparator<? super E> comparator;
 
+    /**
+     * The number of children of each node of the heap.  Streams written
+     * before the arity could be chosen hold zero, which is read as 2.
+     *
+     * @serial
+     */
+    private int arity = 2;
+
     /**
      * The number of times this priority queue has been
      * <i>structurally modified</i>.  See AbstractList for gory details.
@@ -162,12 +178,38 @@ public class PriorityQueue<E> extends AbstractQueue<E>
      */
     public PriorityQueue(int initialCapacity,
                          Comparator<? super E> comparator) {
+        this(initialCapacity, comparator, 2);
+    }
+
+    /**
+     * Creates a {@code PriorityQueue} with the specified initial capacity
+     * that orders its elements according to the specified comparator, in
+     * a heap whose nodes have the specified number of children.  A binary
+     * heap, of arity 2, makes the fewest comparisons for each insertion;
+     * a heap of arity 4 makes a few more comparisons for each removal,
+     * but at each level compares children that are next to one another
+     * in memory, and has half as many levels, which is usually faster
+     * for queues larger than the processor caches.
+     *
+     * @param  initialCapacity the initial capacity for this priority queue
+     * @param  comparator the comparator that will be used to order this
+     *         priority queue.  If {@code null}, the {@linkplain Comparable
+     *         natural ordering} of the elements will be used.
+     * @param  arity the number of children of each node of the heap
+     * @throws IllegalArgumentException if {@code initialCapacity} is
+     *         less than 1 or {@code arity} is less than 2
+     * @since 1.8
+     */
+    public PriorityQueue(int initialCapacity,
+                         Comparator<? super E> comparator,
+                         int arity) {
         // Note: This restriction of at least one is not actually needed,
         // but continues for 1.5 compatibility
-        if (initialCapacity < 1)
+        if (initialCapacity < 1 || arity < 2)
             throw new IllegalArgumentException();
         this.queue = new Object[initialCapacity];
         this.comparator = comparator;
+        this.arity = arity;
     }
 
     /**
@@ -207,8 +249,8 @@ public class PriorityQueue<E> extends AbstractQueue<E>
     /**
      * Creates a {@code PriorityQueue} containing the elements in the
      * specified priority queue.  This priority queue will be
-     * ordered according to the same ordering as the given priority
-     * queue.
+     * ordered according to the same ordering, in a heap of the same
+     * arity, as the given priority queue.
      *
      * @param  c the priority queue whose elements are to be placed
      *         into this priority queue
@@ -244,6 +286,7 @@ public class PriorityQueue<E> extends AbstractQueue<E>
     }
 
     private void initFromPriorityQueue(PriorityQueue<? extends E> c) {
+        this.arity = c.arity;
         if (c.getClass() == PriorityQueue.class) {
             this.queue = c.toArray();
             this.size = c.size();
@@ -296,6 +339,8 @@ public class PriorityQueue<E> extends AbstractQueue<E>
                                          (oldCapacity + 2) :
                                          (oldCapacity >> 1));
         // overflow-conscious code
+        if (newCapacity - minCapacity < 0)
+            newCapacity = minCapacity;
         if (newCapacity - MAX_ARRAY_SIZE > 0)
             newCapacity = hugeCapacity(minCapacity);
         queue = Arrays.copyOf(queue, newCapacity);
@@ -338,14 +383,70 @@ public class PriorityQueue<E> extends AbstractQueue<E>
         int i = size;
         if (i >= queue.length)
             grow(i + 1);
-        size = i + 1;
         if (i == 0)
             queue[0] = e;
         else
             siftUp(i, e);
+        size = i + 1;
         return true;
     }
 
+    /**
+     * Adds all of the elements in the specified collection to this
+     * priority queue.  When the collection holds more than half as many
+     * elements as this queue, they are appended to the heap, which is then
+     * rebuilt in linear time, instead of being inserted one at a time.
+     * If the collection contains a null element, or an element that cannot
+     * be compared while the heap is rebuilt, no element is added.
+     *
+     * @param c collection containing elements to be added to this queue
+     * @return {@code true} if this queue changed as a result of the call
+     * @throws ClassCastException if an element of the specified
+     *         collection cannot be compared with the elements of this
+     *         priority queue according to its ordering
+     * @throws NullPointerException if the specified collection or any
+     *         of its elements are null
+     * @throws IllegalArgumentException if the specified collection is
+     *         this queue
+     */
+    @SuppressWarnings("unchecked")
+    public boolean addAll(Collection<? extends E> c) {
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        int n = a.length;
+        for (int i = 0; i < n; i++)
+            if (a[i] == null)
+                throw new NullPointerException();
+        int s = size;
+        if (n <= s >>> 1) {
+            for (int i = 0; i < n; i++)
+                offer((E) a[i]);
+        } else {
+            // Rebuild the heap in a copy, so that a failed comparison
+            // leaves the queue as it was
+            Object[] es = queue;
+            if (s + n > es.length)
+                grow(s + n);
+            else
+                queue = Arrays.copyOf(es, es.length);
+            System.arraycopy(a, 0, queue, s, n);
+            size = s + n;
+            boolean heap = false;
+            try {
+                heapify();
+                heap = true;
+            } finally {
+                if (!heap) {
+                    queue = es;
+                    size = s;
+                }
+            }
+            modCount++;
+        }
+        return n > 0;
+    }
+
     @SuppressWarnings("unchecked")
     public E peek() {
         return (size == 0) ? null : (E) queue[0];
@@ -583,6 +684,55 @@ public class PriorityQueue<E> extends AbstractQueue<E>
         size = 0;
     }
 
+    /**
+     * Removes at most the given number of elements from this queue, in
+     * priority order, and adds them to the given collection.  When more
+     * than half of the elements are removed, they are sorted at once
+     * rather than dequeued one at a time.  A failure encountered while
+     * attempting to add elements to collection {@code c} leaves the
+     * elements that were not added in this queue.
+     *
+     * @param c the collection to transfer elements into
+     * @param maxElements the maximum number of elements to transfer
+     * @return the number of elements transferred
+     * @throws NullPointerException if the specified collection is null
+     * @throws IllegalArgumentException if the specified collection is
+     *         this queue
+     * @since 1.8
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this)
+            throw new IllegalArgumentException();
+        int n = size, m = Math.min(n, maxElements);
+        if (m <= 0)
+            return 0;
+        if (m <= n >>> 1) {
+            for (int i = 0; i < m; i++) {
+                c.add((E) queue[0]); // In this order, in case add() throws.
+                poll();
+            }
+            return m;
+        }
+        // A sorted array is a heap, so that what remains of it after
+        // its head is taken off still is one.
+        Object[] es = queue;
+        Arrays.sort(es, 0, n, (Comparator<Object>) comparator);
+        modCount++;
+        int i = 0;
+        try {
+            for (; i < m; i++)
+                c.add((E) es[i]);
+        } finally {
+            System.arraycopy(es, i, es, 0, n - i);
+            Arrays.fill(es, n - i, n, null);
+            size = n - i;
+        }
+        return m;
+    }
+
     @SuppressWarnings("unchecked")
     public E poll() {
         if (size == 0)
@@ -651,8 +801,9 @@ public class PriorityQueue<E> extends AbstractQueue<E>
     @SuppressWarnings("unchecked")
     private void siftUpComparable(int k, E x) {
         Comparable<? super E> key = (Comparable<? super E>) x;
+        int d = arity;
         while (k > 0) {
-            int parent = (k - 1) >>> 1;
+            int parent = (k - 1) / d;
             Object e = queue[parent];
             if (key.compareTo((E) e) >= 0)
                 break;
@@ -664,8 +815,9 @@ public class PriorityQueue<E> extends AbstractQueue<E>
 
     @SuppressWarnings("unchecked")
     private void siftUpUsingComparator(int k, E x) {
+        int d = arity;
         while (k > 0) {
-            int parent = (k - 1) >>> 1;
+            int parent = (k - 1) / d;
             Object e = queue[parent];
             if (comparator.compare(x, (E) e) >= 0)
                 break;
@@ -693,14 +845,15 @@ public class PriorityQueue<E> extends AbstractQueue<E>
     @SuppressWarnings("unchecked")
     private void siftDownComparable(int k, E x) {
         Comparable<? super E> key = (Comparable<? super E>)x;
-        int half = size >>> 1;        // loop while a non-leaf
+        int d = arity, n = size;
+        int half = (n > 1) ? (n - 2) / d + 1 : 0; // loop while a non-leaf
         while (k < half) {
-            int child = (k << 1) + 1; // assume left child is least
+            int child = k * d + 1;    // assume first child is least
             Object c = queue[child];
-            int right = child + 1;
-            if (right < size &&
-                ((Comparable<? super E>) c).compareTo((E) queue[right]) > 0)
-                c = queue[child = right];
+            for (int i = child + 1, end = child + Math.min(d, n - child); i < end; i++) {
+                if (((Comparable<? super E>) c).compareTo((E) queue[i]) > 0)
+                    c = queue[child = i];
+            }
             if (key.compareTo((E) c) <= 0)
                 break;
             queue[k] = c;
@@ -711,14 +864,15 @@ public class PriorityQueue<E> extends AbstractQueue<E>
 
     @SuppressWarnings("unchecked")
     private void siftDownUsingComparator(int k, E x) {
-        int half = size >>> 1;
+        int d = arity, n = size;
+        int half = (n > 1) ? (n - 2) / d + 1 : 0;
         while (k < half) {
-            int child = (k << 1) + 1;
+            int child = k * d + 1;
             Object c = queue[child];
-            int right = child + 1;
-            if (right < size &&
-                comparator.compare((E) c, (E) queue[right]) > 0)
-                c = queue[child = right];
+            for (int i = child + 1, end = child + Math.min(d, n - child); i < end; i++) {
+                if (comparator.compare((E) c, (E) queue[i]) > 0)
+                    c = queue[child = i];
+            }
             if (comparator.compare(x, (E) c) <= 0)
                 break;
             queue[k] = c;
@@ -733,7 +887,7 @@ public class PriorityQueue<E> extends AbstractQueue<E>
      */
     @SuppressWarnings("unchecked")
     private void heapify() {
-        for (int i = (size >>> 1) - 1; i >= 0; i--)
+        for (int i = (size > 1) ? (size - 2) / arity : -1; i >= 0; i--)
             siftDown(i, (E) queue[i]);
     }
 
@@ -781,6 +935,8 @@ public class PriorityQueue<E> extends AbstractQueue<E>
         throws java.io.IOException, ClassNotFoundException {
         // Read in size, and any hidden stuff
         s.defaultReadObject();
+        if (arity < 2)
+            arity = 2;
 
         // Read in (and discard) array length
         s.readInt();
@@ -135,6 +135,62 @@ public abstract class AbstractExecutorService implements ExecutorService {
         return ftask;
     }
 
+    /**
+     * Submits a collection of value-returning tasks for execution and
+     * returns a single Future representing all of them. Unlike {@link
+     * #invokeAll}, this method does not wait for the tasks, and unlike
+     * calling {@link #submit(Callable)} for each, it does not create a
+     * separate {@code Future} per task: the batch is handed to {@link
+     * #execute} once per thread that can usefully work on it, and
+     * those threads share out its tasks between them. Subclasses may
+     * override this method to match that number to their threads or
+     * to enqueue the batch more cheaply. This implementation uses
+     * at most {@link Runtime#availableProcessors} such handles.
+     *
+     * <p>The returned Future's {@code get} method yields the tasks'
+     * results, in the iteration order of the given collection, once
+     * all of them have completed. If any task throws an exception,
+     * {@code get} instead throws an {@link ExecutionException} whose
+     * cause is the first such exception. Cancelling the returned
+     * Future prevents tasks that have not yet started from running,
+     * but never interrupts tasks in progress. If some, but not all,
+     * handles are rejected, the accepted ones still run every task.
+     *
+     * @param tasks the collection of tasks
+     * @param <T> the type of the values returned from the tasks
+     * @return a Future representing the completion of all of the tasks
+     * @throws NullPointerException if tasks or any of its elements are
+     *         {@code null}
+     * @throws RejectedExecutionException if the batch cannot be
+     *         scheduled for execution at all
+     * @since 1.8
+     */
+    public <T> Future<List<T>> submitAll(Collection<? extends Callable<T>> tasks) {
+        BatchFuture<T> batch = new BatchFuture<T>(tasks);
+        executeBatch(batch, Runtime.getRuntime().availableProcessors());
+        return batch;
+    }
+
+    /**
+     * Hands the batch to execute once for each of up to the given
+     * number of threads, but never more often than it has tasks. Once
+     * one handle has been accepted, the batch is sure to complete, so
+     * a rejection only stops further handles from being offered.
+     */
+    final void executeBatch(BatchFuture<?> batch, int parallelism) {
+        for (int i = 0, n = Math.min(batch.size(), parallelism); i < n; ++i) {
+            try {
+                execute(batch);
+            } catch (RejectedExecutionException ex) {
+                if (i == 0) {
+                    batch.cancel(false);
+                    throw ex;
+                }
+                break;
+            }
+        }
+    }
+
     /**
      * the main mechanics of invokeAny.
      */
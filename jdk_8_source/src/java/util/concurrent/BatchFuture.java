@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link Future} for a batch of {@link Callable} tasks submitted
+ * together, as returned by {@link AbstractExecutorService#submitAll}
+ * and its overrides. Rather than wrapping each task in its own
+ * {@link FutureTask}, a {@code BatchFuture} is itself a {@code
+ * Runnable} that may be handed to an executor several times; each
+ * such handle claims and runs tasks until none remain, so that the
+ * batch costs one queue insertion and at most one worker wakeup per
+ * thread that can usefully work on it rather than per task.
+ *
+ * <p>The batch completes once all of its tasks have completed, or
+ * when it is cancelled. Its result is the list of task results in
+ * the iteration order of the submitted collection. If any task
+ * throws, {@code get} instead throws an {@link ExecutionException}
+ * whose cause is the first exception encountered, with any others
+ * attached as suppressed exceptions. Cancellation prevents tasks
+ * that have not yet started from running, but does not interrupt
+ * those in progress.
+ *
+ * @since 1.8
+ * @param <T> the result type of the tasks
+ */
+final class BatchFuture<T> implements RunnableFuture<List<T>> {
+    /*
+     * Tasks are claimed by atomically incrementing next, so handles
+     * never contend on anything but that counter, and completion is
+     * detected by whichever handle decrements pending to zero. Each
+     * result slot is written by the single thread that claimed it
+     * before that thread's (volatile) decrement of pending, and
+     * read only after the state has been published by the last
+     * decrementer, so results need no further fencing. Waiting
+     * follows FutureTask: a Treiber stack of parked threads, released
+     * on the transition out of NEW.
+     *
+     * Possible state transitions:
+     * NEW -> NORMAL
+     * NEW -> EXCEPTIONAL
+     * NEW -> CANCELLED
+     */
+    private volatile int state;
+    private static final int NEW          = 0;
+    private static final int NORMAL       = 1;
+    private static final int EXCEPTIONAL  = 2;
+    private static final int CANCELLED    = 3;
+
+    /** The tasks; each slot is cleared by the thread that claims it */
+    private final Object[] tasks;
+    /** The results, indexed like tasks */
+    private final Object[] results;
+    /** Index of the next task to claim; may run past tasks.length */
+    private volatile int next;
+    /** Number of tasks not yet completed */
+    private volatile int pending;
+    /** The first exception thrown by a task, if any */
+    private volatile Throwable failure;
+    /** Treiber stack of waiting threads */
+    private volatile WaitNode waiters;
+
+    /**
+     * Creates a batch of the given tasks.
+     *
+     * @throws NullPointerException if tasks or any of its elements
+     *         are null
+     */
+    BatchFuture(Collection<? extends Callable<T>> tasks) {
+        Object[] a = tasks.toArray();
+        for (Object t : a)
+            if (t == null)
+                throw new NullPointerException();
+        this.tasks = a;
+        this.results = new Object[a.length];
+        this.pending = a.length;
+        if (a.length == 0)
+            this.state = NORMAL;
+    }
+
+    /**
+     * Returns the number of tasks in this batch.
+     */
+    int size() {
+        return tasks.length;
+    }
+
+    /**
+     * Runs tasks of this batch until none remain to be claimed or the
+     * batch is cancelled. Concurrent invocations share out the tasks.
+     */
+    public void run() {
+        final Object[] tasks = this.tasks;
+        final int n = tasks.length;
+        for (int i;
+             state == NEW && (i = U.getAndAddInt(this, NEXT, 1)) < n;) {
+            @SuppressWarnings("unchecked")
+            Callable<T> c = (Callable<T>) tasks[i];
+            tasks[i] = null;        // to reduce footprint
+            try {
+                results[i] = c.call();
+            } catch (Throwable ex) {
+                Throwable f;
+                if (!U.compareAndSwapObject(this, FAILURE, null, ex) &&
+                    (f = failure) != ex)
+                    f.addSuppressed(ex);
+            }
+            if (U.getAndAddInt(this, PENDING, -1) == 1 &&
+                U.compareAndSwapInt(this, STATE, NEW,
+                                    (failure == null) ? NORMAL : EXCEPTIONAL))
+                finishCompletion();
+        }
+    }
+
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!(state == NEW &&
+              U.compareAndSwapInt(this, STATE, NEW, CANCELLED)))
+            return false;
+        finishCompletion();
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    public boolean isDone() {
+        return state != NEW;
+    }
+
+    /**
+     * @throws CancellationException {@inheritDoc}
+     */
+    public List<T> get() throws InterruptedException, ExecutionException {
+        int s = state;
+        if (s == NEW)
+            s = awaitDone(false, 0L);
+        return report(s);
+    }
+
+    /**
+     * @throws CancellationException {@inheritDoc}
+     */
+    public List<T> get(long timeout, TimeUnit unit)
+        throws InterruptedException, ExecutionException, TimeoutException {
+        if (unit == null)
+            throw new NullPointerException();
+        int s = state;
+        if (s == NEW &&
+            (s = awaitDone(true, unit.toNanos(timeout))) == NEW)
+            throw new TimeoutException();
+        return report(s);
+    }
+
+    /**
+     * Returns results or throws exception for completed batch.
+     *
+     * @param s completed state value
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> report(int s) throws ExecutionException {
+        if (s == NORMAL)
+            return Collections.unmodifiableList(Arrays.asList((T[])results));
+        if (s == CANCELLED)
+            throw new CancellationException();
+        throw new ExecutionException(failure);
+    }
+
+    public String toString() {
+        int s = state;
+        String status = (s == NORMAL) ? "[Completed normally]" :
+            (s == EXCEPTIONAL) ? "[Completed exceptionally]" :
+            (s == CANCELLED) ? "[Cancelled]" :
+            "[Incomplete, " + pending + " of " + tasks.length + " pending]";
+        return super.toString() + status;
+    }
+
+    /**
+     * Simple linked list nodes to record waiting threads in a Treiber
+     * stack.  See other classes such as Phaser and SynchronousQueue
+     * for more detailed explanation.
+     */
+    static final class WaitNode {
+        volatile Thread thread;
+        volatile WaitNode next;
+        WaitNode() { thread = Thread.currentThread(); }
+    }
+
+    /**
+     * Removes and signals all waiting threads.
+     */
+    private void finishCompletion() {
+        // assert state != NEW;
+        for (WaitNode q; (q = waiters) != null;) {
+            if (U.compareAndSwapObject(this, WAITERS, q, null)) {
+                for (;;) {
+                    Thread t = q.thread;
+                    if (t != null) {
+                        q.thread = null;
+                        LockSupport.unpark(t);
+                    }
+                    WaitNode next = q.next;
+                    if (next == null)
+                        break;
+                    q.next = null; // unlink to help gc
+                    q = next;
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Awaits completion or aborts on interrupt or timeout.
+     *
+     * @param timed true if use timed waits
+     * @param nanos time to wait, if timed
+     * @return state upon completion, or NEW on timeout
+     */
+    private int awaitDone(boolean timed, long nanos)
+        throws InterruptedException {
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+        WaitNode q = null;
+        boolean queued = false;
+        for (;;) {
+            if (Thread.interrupted()) {
+                removeWaiter(q);
+                throw new InterruptedException();
+            }
+
+            int s = state;
+            if (s != NEW) {
+                if (q != null)
+                    q.thread = null;
+                return s;
+            }
+            else if (q == null)
+                q = new WaitNode();
+            else if (!queued)
+                queued = U.compareAndSwapObject(this, WAITERS,
+                                                q.next = waiters, q);
+            else if (timed) {
+                nanos = deadline - System.nanoTime();
+                if (nanos <= 0L) {
+                    removeWaiter(q);
+                    return state;
+                }
+                LockSupport.parkNanos(this, nanos);
+            }
+            else
+                LockSupport.park(this);
+        }
+    }
+
+    /**
+     * Tries to unlink a timed-out or interrupted wait node, as in
+     * FutureTask.
+     */
+    private void removeWaiter(WaitNode node) {
+        if (node != null) {
+            node.thread = null;
+            retry:
+            for (;;) {          // restart on removeWaiter race
+                for (WaitNode pred = null, q = waiters, s; q != null; q = s) {
+                    s = q.next;
+                    if (q.thread != null)
+                        pred = q;
+                    else if (pred != null) {
+                        pred.next = s;
+                        if (pred.thread == null) // check for race
+                            continue retry;
+                    }
+                    else if (!U.compareAndSwapObject(this, WAITERS, q, s))
+                        continue retry;
+                }
+                break;
+            }
+        }
+    }
+
+    // Unsafe mechanics
+    private static final sun.misc.Unsafe U;
+    private static final long STATE;
+    private static final long NEXT;
+    private static final long PENDING;
+    private static final long FAILURE;
+    private static final long WAITERS;
+    static {
+        try {
+            U = sun.misc.Unsafe.getUnsafe();
+            Class<?> k = BatchFuture.class;
+            STATE = U.objectFieldOffset(k.getDeclaredField("state"));
+            NEXT = U.objectFieldOffset(k.getDeclaredField("next"));
+            PENDING = U.objectFieldOffset(k.getDeclaredField("pending"));
+            FAILURE = U.objectFieldOffset(k.getDeclaredField("failure"));
+            WAITERS = U.objectFieldOffset(k.getDeclaredField("waiters"));
+        } catch (Exception e) {
+            throw new Error(e);
+        }
+    }
+}
@@ -0,0 +1,1257 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * A concurrent cache holding a bounded total weight of entries, built
+ * on a {@link ConcurrentHashMap}.  It is meant to replace the common
+ * idiom of a {@link java.util.LinkedHashMap} in access order with an
+ * overridden {@code removeEldestEntry}, wrapped by {@link
+ * java.util.Collections#synchronizedMap}, which serializes all reads
+ * because every read reorders the map's linked list.
+ *
+ * <p>Retrievals and updates have the concurrency of the underlying
+ * {@code ConcurrentHashMap}.  The bookkeeping needed to choose which
+ * entries to evict is deferred: reads are recorded in a set of small
+ * striped buffers that are allowed to drop records when full, writes
+ * are recorded in a queue, and both are replayed in batches by
+ * whichever thread acquires the eviction lock with {@code tryLock}.
+ * No thread ever blocks waiting for that lock.  Consequently the
+ * weighted size may exceed the maximum briefly, and eviction
+ * decisions are based on a sample of the reads.
+ *
+ * <p>Entries are evicted using the <em>Window TinyLFU</em> policy: a
+ * new entry is placed in a small LRU "admission window"; when it
+ * leaves the window it competes against the least recently used
+ * entry of the main space, and only the one with the higher estimated
+ * access frequency is kept.  Frequencies are estimated by a
+ * count-min sketch of 4-bit counters that is periodically halved, so
+ * that it favors recent popularity.  Within the main space, entries
+ * that are accessed again are promoted from a "probation" to a
+ * "protected" LRU segment.  This retains frequently used entries in
+ * the face of scans that would flush an LRU cache.
+ *
+ * <p>The size of an entry is given by a weigher function and
+ * defaults to one, bounding the number of entries.  Entries may also
+ * expire a fixed time after their last access or their creation or
+ * last replacement.  Expired entries are never returned, and are
+ * removed during maintenance using a hierarchical timer wheel, so
+ * that removal costs are independent of the number of entries.
+ *
+ * <p>Hit, miss and eviction counts are available from {@link #stats}.
+ *
+ * <p>Like {@code ConcurrentHashMap}, this class does not allow
+ * {@code null} to be used as a key or value.  Unlike it, this class
+ * does not implement {@link java.util.Map}: a cache cannot promise
+ * that a key just put is still present.
+ *
+ * @since 1.8
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ */
+public class BoundedConcurrentCache<K,V> {
+
+    /*
+     * Overview:
+     *
+     * Each mapping is a Node stored in the ConcurrentHashMap "data".
+     * A node is alive while it is in the map, retired once it has
+     * been removed from the map but not yet from the policy, and dead
+     * afterwards.  State transitions and value replacements happen
+     * while synchronized on the node, so a writer finding a retired
+     * or dead node simply retries against the map.
+     *
+     * All policy structures -- the three access-ordered deques, the
+     * timer wheel, the frequency sketch and the weighted sizes -- are
+     * guarded by evictionLock and touched only during maintenance.
+     * Reads are handed over through ReadBuffers: bounded, lossy,
+     * multiple-producer rings, one of which is picked per thread by
+     * its ThreadLocalRandom probe.  Writes are handed over as tasks
+     * through an unbounded queue, since dropping them would corrupt
+     * the weighted size.  Tasks may be replayed in a different order
+     * than their effects on the map (an update of a node can be
+     * queued before its addition), so each task reconciles the node's
+     * policy state with its current fields instead of carrying deltas.
+     *
+     * drainStatus makes sure that work queued while another thread
+     * holds the lock is not left behind: writers set it to REQUIRED
+     * after queuing, the draining thread resets it to IDLE before
+     * draining, and every thread re-checks it after unlocking.
+     */
+
+    /* ---------------- Constants -------------- */
+
+    /** Number of CPUS, to place bounds on some sizings */
+    static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    /** The number of read buffers, a power of two */
+    static final int NUMBER_OF_READ_BUFFERS = ceilingPowerOfTwo(NCPU << 2);
+
+    /** The capacity of each read buffer, a power of two */
+    static final int READ_BUFFER_SIZE = 16;
+
+    /** The maximum number of write tasks replayed per maintenance */
+    static final int WRITE_BUFFER_DRAIN_THRESHOLD = 1 << 12;
+
+    /** Fraction of the maximum weight given to the admission window */
+    static final double PERCENT_WINDOW = 0.01;
+
+    /** Fraction of the main space given to the protected segment */
+    static final double PERCENT_PROTECTED = 0.80;
+
+    /** Values of drainStatus */
+    static final int IDLE = 0;
+    static final int REQUIRED = 1;
+
+    /** Values of Node.state */
+    static final int ALIVE = 0;
+    static final int RETIRED = 1;
+    static final int DEAD = 2;
+
+    /** Values of Node.queue */
+    static final int WINDOW = 0;
+    static final int PROBATION = 1;
+    static final int PROTECTED = 2;
+
+    /** The largest maximum weight, leaving room for overshoot */
+    static final long MAXIMUM_CAPACITY = Long.MAX_VALUE - Integer.MAX_VALUE;
+
+    static int ceilingPowerOfTwo(int x) {
+        return (x <= 1) ? 1 : Integer.highestOneBit(x - 1) << 1;
+    }
+
+    /* ---------------- Nodes -------------- */
+
+    /**
+     * A cache entry, linked into one access-ordered deque and, if
+     * entries expire, one bucket of the timer wheel.
+     */
+    static final class Node<K,V> {
+        final K key;
+        volatile V value;
+        /** The weight of the current value */
+        volatile int weight;
+        /** Time of last read, if expiring after access */
+        volatile long accessTime;
+        /** Time of creation or last update, if expiring after write */
+        volatile long writeTime;
+        /** ALIVE, RETIRED or DEAD; changed while synchronized on this */
+        volatile int state;
+
+        // Policy fields, accessed only under evictionLock
+        /** The weight currently accounted for by the policy */
+        int policyWeight;
+        /** The deque this node is in, if linked */
+        int queue;
+        /** True if linked into a deque */
+        boolean linked;
+        Node<K,V> prev, next;
+        /** The time at which the timer wheel will next look at this node */
+        long variableTime;
+        Node<K,V> prevInTimer, nextInTimer;
+
+        Node(K key, V value, int weight, long now) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.accessTime = now;
+            this.writeTime = now;
+        }
+
+        /** Creates a sentinel of a timer wheel bucket */
+        Node() {
+            this.key = null;
+            this.prevInTimer = this.nextInTimer = this;
+        }
+
+        boolean isAlive() { return state == ALIVE; }
+    }
+
+    /**
+     * An intrusive doubly-linked list of nodes in access order, least
+     * recently used first.
+     */
+    static final class AccessOrderDeque<K,V> {
+        Node<K,V> first, last;
+
+        void addLast(Node<K,V> e) {
+            Node<K,V> l = last;
+            e.prev = l;
+            e.next = null;
+            last = e;
+            if (l == null)
+                first = e;
+            else
+                l.next = e;
+        }
+
+        void remove(Node<K,V> e) {
+            Node<K,V> p = e.prev, n = e.next;
+            if (p == null)
+                first = n;
+            else
+                p.next = n;
+            if (n == null)
+                last = p;
+            else
+                n.prev = p;
+            e.prev = e.next = null;
+        }
+
+        void moveToBack(Node<K,V> e) {
+            if (e != last) {
+                remove(e);
+                addLast(e);
+            }
+        }
+    }
+
+    /**
+     * A bounded buffer of reads, accepting records from many threads
+     * and drained by the thread holding evictionLock.  A record is
+     * dropped if the buffer is full or its slot cannot be claimed at
+     * the first attempt.
+     */
+    static final class ReadBuffer<K,V> {
+        final AtomicReferenceArray<Node<K,V>> buffer =
+            new AtomicReferenceArray<Node<K,V>>(READ_BUFFER_SIZE);
+        final AtomicLong writeCounter = new AtomicLong();
+        /** Updated only under evictionLock */
+        volatile long readCounter;
+
+        /**
+         * Records a read, returning true if the buffer is now full.
+         */
+        boolean offer(Node<K,V> e) {
+            long w = writeCounter.get();
+            long size = w - readCounter;
+            if (size >= READ_BUFFER_SIZE)
+                return true;
+            if (writeCounter.compareAndSet(w, w + 1)) {
+                buffer.lazySet((int)w & (READ_BUFFER_SIZE - 1), e);
+                return size + 1 >= READ_BUFFER_SIZE;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A count-min sketch estimating the popularity of keys, using four
+     * 4-bit counters per key.  When the number of increments reaches
+     * ten times the table size, all counters are halved, so that old
+     * popularity fades.
+     */
+    static final class FrequencySketch {
+        static final long[] SEED = { // a mix of 64-bit primes
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+            0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+        static final long RESET_MASK = 0x7777777777777777L;
+        static final long ONE_MASK = 0x1111111111111111L;
+
+        long[] table = new long[0];
+        int tableMask;
+        int sampleSize;
+        int size;
+
+        /**
+         * Grows the table, discarding counts, so that it has at least
+         * one counter group per expected key.
+         */
+        void ensureCapacity(long maximumSize) {
+            int n = (int)Math.min(maximumSize, 1 << 30);
+            if (table.length >= n)
+                return;
+            table = new long[ceilingPowerOfTwo(Math.max(n, 8))];
+            tableMask = table.length - 1;
+            sampleSize = 10 * Math.min(table.length, Integer.MAX_VALUE / 10);
+            size = 0;
+        }
+
+        int frequency(Object e) {
+            int hash = spread(e.hashCode());
+            int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int count = (int)((table[index] >>> ((start + i) << 2)) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        void increment(Object e) {
+            int hash = spread(e.hashCode());
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++)
+                added |= incrementAt(indexOf(hash, i), start + i);
+            if (added && ++size >= sampleSize)
+                reset();
+        }
+
+        boolean incrementAt(int i, int j) {
+            int offset = j << 2;
+            long mask = 0xfL << offset;
+            if ((table[i] & mask) != mask) {
+                table[i] += 1L << offset;
+                return true;
+            }
+            return false;
+        }
+
+        void reset() {
+            int count = 0;
+            for (int i = 0; i < table.length; i++) {
+                count += Long.bitCount(table[i] & ONE_MASK);
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            size = (size >>> 1) - (count >>> 2);
+        }
+
+        int indexOf(int item, int i) {
+            long hash = (item + SEED[i]) * SEED[i];
+            hash += (hash >>> 32);
+            return ((int)hash) & tableMask;
+        }
+
+        static int spread(int x) {
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+    }
+
+    /**
+     * A hierarchical timer wheel.  Each level covers a power-of-two
+     * span of time split into power-of-two buckets; a node is placed
+     * in the finest level whose total span exceeds the time left
+     * before its deadline.  Advancing the wheel visits only the
+     * buckets whose ticks have passed, expiring their nodes or
+     * cascading them into finer levels.
+     */
+    static final class TimerWheel<K,V> {
+        static final int[] BUCKETS = { 64, 64, 32, 4, 1 };
+        static final long[] SPANS = {
+            1L << 30, // 1.07s
+            1L << 36, // 1.14m
+            1L << 42, // 1.22h
+            1L << 47, // 1.63d
+            1L << 49, // 6.5d
+        };
+        static final int[] SHIFT = {
+            30, 36, 42, 47, 49
+        };
+
+        final Node<K,V>[][] wheel;
+        long nanos;
+
+        @SuppressWarnings("unchecked")
+        TimerWheel(long now) {
+            nanos = now;
+            wheel = (Node<K,V>[][])new Node<?,?>[BUCKETS.length][];
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = (Node<K,V>[])new Node<?,?>[BUCKETS[i]];
+                for (int j = 0; j < wheel[i].length; j++)
+                    wheel[i][j] = new Node<K,V>();
+            }
+        }
+
+        void schedule(Node<K,V> e) {
+            Node<K,V> sentinel = findBucket(e.variableTime);
+            Node<K,V> l = sentinel.prevInTimer;
+            e.prevInTimer = l;
+            e.nextInTimer = sentinel;
+            l.nextInTimer = e;
+            sentinel.prevInTimer = e;
+        }
+
+        void reschedule(Node<K,V> e) {
+            if (e.nextInTimer != null)
+                unlink(e);
+            schedule(e);
+        }
+
+        void deschedule(Node<K,V> e) {
+            if (e.nextInTimer != null)
+                unlink(e);
+        }
+
+        void unlink(Node<K,V> e) {
+            Node<K,V> p = e.prevInTimer, n = e.nextInTimer;
+            p.nextInTimer = n;
+            n.prevInTimer = p;
+            e.prevInTimer = e.nextInTimer = null;
+        }
+
+        Node<K,V> findBucket(long time) {
+            long duration = time - nanos;
+            int length = wheel.length - 1;
+            for (int i = 0; i < length; i++) {
+                if (duration < SPANS[i + 1]) {
+                    long ticks = time >>> SHIFT[i];
+                    int index = (int)(ticks & (wheel[i].length - 1));
+                    return wheel[i][index];
+                }
+            }
+            return wheel[length][0];
+        }
+
+        /**
+         * Advances the wheel to the given time, passing each node of
+         * every elapsed bucket to the cache, which either removes it
+         * or reschedules it with a new deadline.
+         */
+        void advance(BoundedConcurrentCache<K,V> cache, long currentTime) {
+            long previousTime = nanos;
+            nanos = currentTime;
+            for (int i = 0; i < SHIFT.length; i++) {
+                long previousTicks = previousTime >>> SHIFT[i];
+                long currentTicks = currentTime >>> SHIFT[i];
+                long delta = currentTicks - previousTicks;
+                if (delta <= 0L)
+                    break;
+                Node<K,V>[] buckets = wheel[i];
+                int mask = buckets.length - 1, start, end;
+                if (delta >= buckets.length) {
+                    start = 0;
+                    end = buckets.length;
+                }
+                else {
+                    start = (int)(previousTicks & mask);
+                    end = start + (int)delta;
+                }
+                for (int j = start; j < end; j++) {
+                    Node<K,V> sentinel = buckets[j & mask];
+                    Node<K,V> e = sentinel.nextInTimer;
+                    sentinel.prevInTimer = sentinel.nextInTimer = sentinel;
+                    while (e != sentinel) {
+                        Node<K,V> n = e.nextInTimer;
+                        e.prevInTimer = e.nextInTimer = null;
+                        cache.expireOrReschedule(e, currentTime);
+                        e = n;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A snapshot of cache statistics.
+     */
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long evictionWeight;
+        private final long expirationCount;
+
+        Stats(long hitCount, long missCount, long evictionCount,
+              long evictionWeight, long expirationCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.evictionWeight = evictionWeight;
+            this.expirationCount = expirationCount;
+        }
+
+        /**
+         * Returns the number of lookups that found a value.
+         *
+         * @return the hit count
+         */
+        public long hitCount() { return hitCount; }
+
+        /**
+         * Returns the number of lookups that found no value, or an
+         * expired one.
+         *
+         * @return the miss count
+         */
+        public long missCount() { return missCount; }
+
+        /**
+         * Returns the ratio of hits to lookups, or 1.0 if there have
+         * been no lookups.
+         *
+         * @return the hit rate
+         */
+        public double hitRate() {
+            long requests = hitCount + missCount;
+            return (requests == 0L) ? 1.0 : (double)hitCount / requests;
+        }
+
+        /**
+         * Returns the number of entries evicted to respect the maximum
+         * weight.
+         *
+         * @return the eviction count
+         */
+        public long evictionCount() { return evictionCount; }
+
+        /**
+         * Returns the total weight of entries evicted to respect the
+         * maximum weight.
+         *
+         * @return the eviction weight
+         */
+        public long evictionWeight() { return evictionWeight; }
+
+        /**
+         * Returns the number of entries removed because they expired.
+         *
+         * @return the expiration count
+         */
+        public long expirationCount() { return expirationCount; }
+
+        public String toString() {
+            return "[hits = " + hitCount +
+                ", misses = " + missCount +
+                ", hit rate = " + hitRate() +
+                ", evictions = " + evictionCount +
+                ", eviction weight = " + evictionWeight +
+                ", expirations = " + expirationCount + "]";
+        }
+    }
+
+    /* ---------------- Fields -------------- */
+
+    final ConcurrentHashMap<K,Node<K,V>> data;
+    final ToIntBiFunction<? super K, ? super V> weigher;
+    final long expireAfterAccessNanos;
+    final long expireAfterWriteNanos;
+
+    final ReadBuffer<K,V>[] readBuffers;
+    final ConcurrentLinkedQueue<Runnable> writeBuffer =
+        new ConcurrentLinkedQueue<Runnable>();
+    final ReentrantLock evictionLock = new ReentrantLock();
+    volatile int drainStatus;
+
+    final LongAdder hitCount = new LongAdder();
+    final LongAdder missCount = new LongAdder();
+
+    // Fields below are written only under evictionLock
+    final AccessOrderDeque<K,V> window = new AccessOrderDeque<K,V>();
+    final AccessOrderDeque<K,V> probation = new AccessOrderDeque<K,V>();
+    final AccessOrderDeque<K,V> protectedDeque = new AccessOrderDeque<K,V>();
+    final FrequencySketch sketch = new FrequencySketch();
+    final TimerWheel<K,V> timerWheel;
+    final long maximum;
+    final long windowMaximum;
+    final long protectedMaximum;
+    volatile long weightedSize;
+    long windowWeightedSize;
+    long protectedWeightedSize;
+    volatile long evictionCount;
+    volatile long evictionWeight;
+    volatile long expirationCount;
+
+    /* ---------------- Public operations -------------- */
+
+    /**
+     * Creates a cache holding at most the given number of entries.
+     *
+     * @param maximumSize the maximum number of entries
+     * @throws IllegalArgumentException if {@code maximumSize} is negative
+     */
+    public BoundedConcurrentCache(long maximumSize) {
+        this(maximumSize, null, 0L, 0L, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a cache holding entries of at most the given total
+     * weight, as determined by the given weigher.
+     *
+     * @param maximumWeight the maximum total weight of entries
+     * @param weigher the function computing the weight of an entry,
+     *        which must not be negative; a weight of zero exempts an
+     *        entry from size-based eviction
+     * @throws IllegalArgumentException if {@code maximumWeight} is negative
+     * @throws NullPointerException if {@code weigher} is null
+     */
+    public BoundedConcurrentCache(long maximumWeight,
+                                  ToIntBiFunction<? super K, ? super V> weigher) {
+        this(maximumWeight, requireWeigher(weigher), 0L, 0L,
+             TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a cache holding entries of at most the given total
+     * weight, whose entries expire after the given durations.
+     *
+     * @param maximumWeight the maximum total weight of entries
+     * @param weigher the function computing the weight of an entry,
+     *        which must not be negative, or {@code null} for a weight
+     *        of one per entry
+     * @param expireAfterAccess the time after the last read or write
+     *        of an entry at which it expires, or zero for no limit
+     * @param expireAfterWrite the time after the creation or last
+     *        replacement of an entry at which it expires, or zero for
+     *        no limit
+     * @param unit the time unit of the {@code expireAfterAccess} and
+     *        {@code expireAfterWrite} arguments
+     * @throws IllegalArgumentException if {@code maximumWeight} or
+     *         either duration is negative
+     * @throws NullPointerException if {@code unit} is null
+     */
+    @SuppressWarnings("unchecked")
+    public BoundedConcurrentCache(long maximumWeight,
+                                  ToIntBiFunction<? super K, ? super V> weigher,
+                                  long expireAfterAccess,
+                                  long expireAfterWrite,
+                                  TimeUnit unit) {
+        if (maximumWeight < 0L || expireAfterAccess < 0L ||
+            expireAfterWrite < 0L)
+            throw new IllegalArgumentException();
+        if (unit == null)
+            throw new NullPointerException();
+        this.maximum = Math.min(maximumWeight, MAXIMUM_CAPACITY);
+        this.weigher = weigher;
+        this.expireAfterAccessNanos = unit.toNanos(expireAfterAccess);
+        this.expireAfterWriteNanos = unit.toNanos(expireAfterWrite);
+        this.windowMaximum = Math.max(1L, (long)(maximum * PERCENT_WINDOW));
+        this.protectedMaximum =
+            (long)((maximum - Math.min(maximum, windowMaximum)) * PERCENT_PROTECTED);
+        this.data = new ConcurrentHashMap<K,Node<K,V>>(
+            (int)Math.min(maximum, 1 << 16));
+        ReadBuffer<K,V>[] rbs = (ReadBuffer<K,V>[])
+            new ReadBuffer<?,?>[NUMBER_OF_READ_BUFFERS];
+        for (int i = 0; i < rbs.length; ++i)
+            rbs[i] = new ReadBuffer<K,V>();
+        this.readBuffers = rbs;
+        this.timerWheel = expires() ? new TimerWheel<K,V>(System.nanoTime()) : null;
+    }
+
+    private static <K,V> ToIntBiFunction<? super K, ? super V> requireWeigher(
+        ToIntBiFunction<? super K, ? super V> weigher) {
+        if (weigher == null)
+            throw new NullPointerException();
+        return weigher;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code null} if there is no such mapping or it has expired.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value, or {@code null}
+     * @throws NullPointerException if the specified key is null
+     */
+    public V get(Object key) {
+        Node<K,V> e = data.get(key);
+        long now;
+        if (e == null || hasExpired(e, now = System.nanoTime())) {
+            missCount.increment();
+            if (e != null)
+                scheduleDrain();
+            return null;
+        }
+        V v = e.value;
+        if (expireAfterAccessNanos > 0L)
+            e.accessTime = now;
+        hitCount.increment();
+        afterRead(e);
+        return v;
+    }
+
+    /**
+     * Returns {@code true} if this cache contains an unexpired mapping
+     * for the specified key.  This does not count as an access of the
+     * entry.
+     *
+     * @param key possible key
+     * @return {@code true} if the key is present
+     * @throws NullPointerException if the specified key is null
+     */
+    public boolean containsKey(Object key) {
+        Node<K,V> e = data.get(key);
+        return e != null && !hasExpired(e, System.nanoTime());
+    }
+
+    /**
+     * Maps the specified key to the specified value, replacing any
+     * previous value.  This may cause other entries to be evicted.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous unexpired value, or {@code null} if there
+     *         was none
+     * @throws NullPointerException if the specified key or value is null
+     */
+    public V put(K key, V value) {
+        return putVal(key, value, false);
+    }
+
+    /**
+     * Maps the specified key to the specified value unless it is
+     * already mapped to an unexpired value.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the present value, or {@code null} if there was none
+     * @throws NullPointerException if the specified key or value is null
+     */
+    public V putIfAbsent(K key, V value) {
+        return putVal(key, value, true);
+    }
+
+    /** Implementation for put and putIfAbsent */
+    final V putVal(K key, V value, boolean onlyIfAbsent) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+        int weight = weigh(key, value);
+        long now = System.nanoTime();
+        Node<K,V> node = null;
+        for (;;) {
+            Node<K,V> prior = data.get(key);
+            if (prior == null) {
+                if (node == null)
+                    node = new Node<K,V>(key, value, weight, now);
+                if ((prior = data.putIfAbsent(key, node)) == null) {
+                    afterWrite(new AddTask(node));
+                    return null;
+                }
+            }
+            V oldValue;
+            boolean expired;
+            synchronized (prior) {
+                if (!prior.isAlive())
+                    continue;               // removed; retry against map
+                oldValue = prior.value;
+                expired = hasExpired(prior, now);
+                if (!onlyIfAbsent || expired) {
+                    prior.value = value;
+                    prior.weight = weight;
+                    prior.writeTime = now;
+                    prior.accessTime = now;
+                }
+            }
+            if (onlyIfAbsent && !expired) {
+                afterRead(prior);
+                return oldValue;
+            }
+            afterWrite(new UpdateTask(prior));
+            return expired ? null : oldValue;
+        }
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, first
+     * computing it with the given function and entering it into the
+     * cache if it is absent or has expired.  The function is invoked
+     * at most once per miss, while other updates of the key block.
+     *
+     * @param key key with which the value is to be associated
+     * @param mappingFunction the function to compute a value
+     * @return the current (existing or computed) value associated
+     *         with the specified key, or null if the computed value
+     *         is null
+     * @throws NullPointerException if the specified key or
+     *         mappingFunction is null
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (key == null || mappingFunction == null)
+            throw new NullPointerException();
+        long now = System.nanoTime();
+        Node<K,V> e = data.get(key);
+        if (e != null && !hasExpired(e, now)) {
+            V v = e.value;
+            if (expireAfterAccessNanos > 0L)
+                e.accessTime = now;
+            hitCount.increment();
+            afterRead(e);
+            return v;
+        }
+        missCount.increment();
+        @SuppressWarnings("unchecked")
+        final Node<K,V>[] changes = (Node<K,V>[])new Node<?,?>[2];
+        e = data.compute(key, (k, prior) -> {
+            if (prior != null && !hasExpired(prior, now))
+                return prior;
+            V v = mappingFunction.apply(k);
+            if (prior != null) {
+                synchronized (prior) {
+                    prior.state = RETIRED;
+                }
+                changes[0] = prior;
+            }
+            if (v == null)
+                return null;
+            return changes[1] = new Node<K,V>(k, v, weigh(k, v), now);
+        });
+        if (changes[0] != null)
+            afterWrite(new RemovalTask(changes[0]));
+        if (changes[1] != null)
+            afterWrite(new AddTask(changes[1]));
+        else if (e != null)
+            afterRead(e);
+        return (e == null) ? null : e.value;
+    }
+
+    /**
+     * Removes the mapping for a key from this cache if it is present.
+     *
+     * @param key key whose mapping is to be removed
+     * @return the previous unexpired value, or {@code null} if there
+     *         was none
+     * @throws NullPointerException if the specified key is null
+     */
+    public V remove(Object key) {
+        Node<K,V> e = data.remove(key);
+        if (e == null)
+            return null;
+        V oldValue;
+        synchronized (e) {
+            oldValue = e.value;
+            e.state = RETIRED;
+        }
+        afterWrite(new RemovalTask(e));
+        return hasExpired(e, System.nanoTime()) ? null : oldValue;
+    }
+
+    /**
+     * Removes all of the mappings from this cache.
+     */
+    public void clear() {
+        for (K key : data.keySet())
+            remove(key);
+        cleanUp();
+    }
+
+    /**
+     * Returns the number of mappings, including expired ones not yet
+     * removed.
+     *
+     * @return the number of mappings
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Returns the number of mappings, including expired ones not yet
+     * removed, as a long.
+     *
+     * @return the number of mappings
+     */
+    public long mappingCount() {
+        return data.mappingCount();
+    }
+
+    /**
+     * Returns the total weight of the entries as last accounted for
+     * by maintenance, which may lag behind recent writes.
+     *
+     * @return the weighted size
+     */
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * Returns the maximum total weight of entries.
+     *
+     * @return the maximum weight
+     */
+    public long maximumWeight() {
+        return maximum;
+    }
+
+    /**
+     * Performs pending maintenance: replays recorded reads and
+     * writes, removes expired entries and evicts entries if the cache
+     * exceeds its maximum weight.  Maintenance is otherwise done by
+     * threads accessing the cache, so this method need only be called
+     * to reclaim expired entries of a cache that is no longer used.
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            drainStatus = IDLE;
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     *
+     * @return the statistics
+     */
+    public Stats stats() {
+        return new Stats(hitCount.sum(), missCount.sum(), evictionCount,
+                         evictionWeight, expirationCount);
+    }
+
+    /**
+     * Returns a string identifying this cache, as well as its size,
+     * weight and statistics.
+     *
+     * @return a string identifying this cache, as well as its state
+     */
+    public String toString() {
+        return super.toString() +
+            "[size = " + mappingCount() +
+            ", weighted size = " + weightedSize +
+            ", maximum weight = " + maximum +
+            ", stats = " + stats() + "]";
+    }
+
+    /* ---------------- Access recording -------------- */
+
+    final boolean expires() {
+        return expireAfterAccessNanos > 0L || expireAfterWriteNanos > 0L;
+    }
+
+    final boolean hasExpired(Node<K,V> e, long now) {
+        return (expireAfterAccessNanos > 0L &&
+                now - e.accessTime >= expireAfterAccessNanos) ||
+            (expireAfterWriteNanos > 0L &&
+             now - e.writeTime >= expireAfterWriteNanos);
+    }
+
+    final int weigh(K key, V value) {
+        if (weigher == null)
+            return 1;
+        int w = weigher.applyAsInt(key, value);
+        if (w < 0)
+            throw new IllegalArgumentException("negative weight");
+        return w;
+    }
+
+    /**
+     * Records a read in the calling thread's read buffer, draining
+     * the buffers if it became full.
+     */
+    final void afterRead(Node<K,V> e) {
+        int h = ThreadLocalRandom.getProbe();
+        if (h == 0) {
+            ThreadLocalRandom.localInit();
+            h = ThreadLocalRandom.getProbe();
+        }
+        ReadBuffer<K,V> rb = readBuffers[h & (readBuffers.length - 1)];
+        if (rb.offer(e) || drainStatus == REQUIRED)
+            scheduleDrain();
+    }
+
+    /**
+     * Queues a write task and drains the buffers.
+     */
+    final void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        scheduleDrain();
+    }
+
+    /**
+     * Performs maintenance unless another thread is already doing so,
+     * in which case that thread will see the request.
+     */
+    final void scheduleDrain() {
+        drainStatus = REQUIRED;
+        final ReentrantLock evictionLock = this.evictionLock;
+        while (drainStatus == REQUIRED && evictionLock.tryLock()) {
+            try {
+                drainStatus = IDLE;
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /* ---------------- Maintenance, under evictionLock -------------- */
+
+    final void maintenance() {
+        drainReadBuffers();
+        drainWriteBuffer();
+        if (timerWheel != null)
+            timerWheel.advance(this, System.nanoTime());
+        evictEntries();
+    }
+
+    final void drainReadBuffers() {
+        for (ReadBuffer<K,V> rb : readBuffers) {
+            AtomicReferenceArray<Node<K,V>> buffer = rb.buffer;
+            long r = rb.readCounter, w = rb.writeCounter.get();
+            for (; r != w; ++r) {
+                int i = (int)r & (READ_BUFFER_SIZE - 1);
+                Node<K,V> e = buffer.get(i);
+                if (e == null)
+                    break;                  // claimed but not yet published
+                buffer.lazySet(i, null);
+                onAccess(e);
+            }
+            rb.readCounter = r;
+        }
+    }
+
+    final void drainWriteBuffer() {
+        Runnable task;
+        for (int i = 0; i < WRITE_BUFFER_DRAIN_THRESHOLD &&
+                 (task = writeBuffer.poll()) != null; ++i)
+            task.run();
+        if (!writeBuffer.isEmpty())
+            drainStatus = REQUIRED;
+    }
+
+    /**
+     * Updates the policy for a read of the given node.
+     */
+    final void onAccess(Node<K,V> e) {
+        sketch.increment(e.key);
+        if (!e.linked)
+            return;
+        if (e.queue == WINDOW)
+            window.moveToBack(e);
+        else if (e.queue == PROBATION) {
+            probation.remove(e);
+            e.queue = PROTECTED;
+            protectedDeque.addLast(e);
+            protectedWeightedSize += e.policyWeight;
+            demoteFromProtected();
+        }
+        else
+            protectedDeque.moveToBack(e);
+        if (timerWheel != null)
+            reschedule(e);
+    }
+
+    /**
+     * Moves least recently used protected entries to probation while
+     * the protected segment exceeds its share.
+     */
+    final void demoteFromProtected() {
+        Node<K,V> e;
+        while (protectedWeightedSize > protectedMaximum &&
+               (e = protectedDeque.first) != null) {
+            protectedDeque.remove(e);
+            protectedWeightedSize -= e.policyWeight;
+            e.queue = PROBATION;
+            probation.addLast(e);
+        }
+    }
+
+    final void reschedule(Node<K,V> e) {
+        long t = Long.MAX_VALUE, now = timerWheel.nanos;
+        if (expireAfterAccessNanos > 0L)
+            t = e.accessTime + expireAfterAccessNanos;
+        if (expireAfterWriteNanos > 0L) {
+            long w = e.writeTime + expireAfterWriteNanos;
+            if (t == Long.MAX_VALUE || w - t < 0L)
+                t = w;
+        }
+        // keep deadlines behind the wheel's time from overflowing spans
+        e.variableTime = (t - now < 0L) ? now : t;
+        timerWheel.reschedule(e);
+    }
+
+    /**
+     * Called by the timer wheel for a descheduled node whose deadline
+     * may have passed.  Removes the node if it has expired, and
+     * otherwise reschedules it.  A node that was concurrently removed
+     * from the map is left for its pending RemovalTask.
+     */
+    final void expireOrReschedule(Node<K,V> e, long now) {
+        if (!e.linked)
+            return;
+        if (hasExpired(e, now))
+            evict(e, true);
+        else
+            reschedule(e);
+    }
+
+    final class AddTask implements Runnable {
+        final Node<K,V> node;
+        AddTask(Node<K,V> node) { this.node = node; }
+        public void run() {
+            Node<K,V> e = node;
+            if (e.linked || !e.isAlive())
+                return;                     // removal replayed first
+            int w = e.weight;
+            e.policyWeight = w;
+            e.linked = true;
+            e.queue = WINDOW;
+            window.addLast(e);
+            windowWeightedSize += w;
+            weightedSize += w;
+            sketch.ensureCapacity(Math.min(maximum, data.mappingCount()));
+            sketch.increment(e.key);
+            if (timerWheel != null)
+                reschedule(e);
+        }
+    }
+
+    final class UpdateTask implements Runnable {
+        final Node<K,V> node;
+        UpdateTask(Node<K,V> node) { this.node = node; }
+        public void run() {
+            Node<K,V> e = node;
+            if (!e.linked)
+                return;                     // addition not yet replayed
+            int delta = e.weight - e.policyWeight;
+            e.policyWeight += delta;
+            weightedSize += delta;
+            if (e.queue == WINDOW)
+                windowWeightedSize += delta;
+            else if (e.queue == PROTECTED)
+                protectedWeightedSize += delta;
+            onAccess(e);
+        }
+    }
+
+    final class RemovalTask implements Runnable {
+        final Node<K,V> node;
+        RemovalTask(Node<K,V> node) { this.node = node; }
+        public void run() {
+            Node<K,V> e = node;
+            synchronized (e) {
+                e.state = DEAD;
+            }
+            unlinkPolicy(e);
+        }
+    }
+
+    /**
+     * Removes a node from the deques and timer wheel, adjusting the
+     * weighted sizes.
+     */
+    final void unlinkPolicy(Node<K,V> e) {
+        if (!e.linked)
+            return;
+        e.linked = false;
+        int w = e.policyWeight;
+        if (e.queue == WINDOW) {
+            window.remove(e);
+            windowWeightedSize -= w;
+        }
+        else if (e.queue == PROBATION)
+            probation.remove(e);
+        else {
+            protectedDeque.remove(e);
+            protectedWeightedSize -= w;
+        }
+        weightedSize -= w;
+        if (timerWheel != null)
+            timerWheel.deschedule(e);
+    }
+
+    /**
+     * Removes a node from the map and the policy, returning false if
+     * it had already been removed from the map by another thread (in
+     * which case a pending RemovalTask will unlink it).
+     */
+    final boolean evict(Node<K,V> e, boolean expired) {
+        if (!data.remove(e.key, e))
+            return false;
+        synchronized (e) {
+            e.state = DEAD;
+        }
+        int w = e.policyWeight;
+        unlinkPolicy(e);
+        if (expired)
+            expirationCount = expirationCount + 1;
+        else {
+            evictionCount = evictionCount + 1;
+            evictionWeight = evictionWeight + w;
+        }
+        return true;
+    }
+
+    /**
+     * Moves entries overflowing the window into probation, then
+     * evicts from the main space until the maximum is respected.
+     */
+    final void evictEntries() {
+        evictFromMain(evictFromWindow());
+    }
+
+    /**
+     * Moves least recently used window entries to the back of
+     * probation while the window exceeds its share, returning the
+     * first one moved, or null if none.
+     */
+    final Node<K,V> evictFromWindow() {
+        Node<K,V> e, first = null;
+        while (windowWeightedSize > windowMaximum &&
+               (e = window.first) != null) {
+            window.remove(e);
+            windowWeightedSize -= e.policyWeight;
+            e.queue = PROBATION;
+            probation.addLast(e);
+            if (first == null)
+                first = e;
+        }
+        return first;
+    }
+
+    /**
+     * Evicts entries while the maximum weight is exceeded.  Each
+     * candidate, the entries just moved out of the window from the
+     * back of probation, is compared with the victim at the front of
+     * probation, and the one less frequently used is evicted.
+     *
+     * @param candidate the first candidate, or null if none
+     */
+    final void evictFromMain(Node<K,V> candidate) {
+        while (weightedSize > maximum) {
+            Node<K,V> victim = probation.first;
+            if (victim == null || victim == candidate || candidate == null) {
+                // no contest: evict the least recently used entry
+                if (victim == null &&
+                    (victim = protectedDeque.first) == null &&
+                    (victim = window.first) == null)
+                    break;
+                if (victim == candidate)
+                    candidate = candidate.next;
+                evictOrDrop(victim);
+            }
+            else if (candidate.policyWeight > maximum ||
+                     sketch.frequency(candidate.key) <=
+                     sketch.frequency(victim.key)) {
+                Node<K,V> next = candidate.next;
+                evictOrDrop(candidate);
+                candidate = next;
+            }
+            else
+                evictOrDrop(victim);
+        }
+    }
+
+    /**
+     * Evicts the given node, or if it was concurrently removed, just
+     * drops it from the policy so that eviction makes progress.
+     */
+    private void evictOrDrop(Node<K,V> e) {
+        if (!evict(e, false))
+            unlinkPolicy(e);
+    }
+}
@@ -34,6 +34,7 @@
  */
 
 package java.util.concurrent;
+import java.util.Arrays;
 import java.util.function.Supplier;
 import java.util.function.Consumer;
 import java.util.function.BiConsumer;
@@ -231,10 +232,17 @@ public class CompletableFuture<T> implements Future<T>, CompletionStage<T> {
      * Completion fields need not be declared as final or volatile
      * because they are only visible to other threads upon safe
      * publication.
+     *
+     * Chains of synchronous thenApply stages added before their
+     * source completes are fused: rather than a UniApply per stage,
+     * consecutive stages share one UniPipeline holding an array of
+     * functions and dependents, run in order by a single tryFire
+     * (see class UniPipeline).
      */
 
     volatile Object result;       // Either the result or boxed AltResult
     volatile Completion stack;    // Top of Treiber stack of dependent actions
+    volatile UniPipeline<?> pipeline; // Fused pipeline producing this, until run
 
     final boolean internalComplete(Object r) { // CAS from null to r
         return UNSAFE.compareAndSwapObject(this, RESULT, null, r);
@@ -495,6 +503,9 @@ public class CompletableFuture<T> implements Future<T>, CompletionStage<T> {
                 f = (d = h.tryFire(NESTED)) == null ? this : d;
             }
         }
+        UniPipeline<?> p;
+        if ((p = pipeline) != null) // completed directly while fused
+            p.fireAfter(this);
     }
 
     /** Traverses stack and unlinks dead Completions. */
@@ -556,7 +567,7 @@ public class CompletableFuture<T> implements Future<T>, CompletionStage<T> {
     }
 
     /** Pushes the given completion (if it exists) unless done. */
-    final void push(UniCompletion<?,?> c) {
+    final void push(Completion c) {
         if (c != null) {
             while (result == null && !tryPushStack(c))
                 lazySetNext(c, null); // clear on failure
@@ -632,7 +643,11 @@ public class CompletableFuture<T> implements Future<T>, CompletionStage<T> {
         Executor e, Function<? super T,? extends V> f) {
         if (f == null) throw new NullPointerException();
         CompletableFuture<V> d =  new CompletableFuture<V>();
-        if (e != null || !d.uniApply(this, f, null)) {
+        if (e == null) {
+            if (!d.uniApply(this, f, null))
+                fuseApplyStage(d, f);
+        }
+        else {
             UniApply<T,V> c = new UniApply<T,V>(e, d, this, f);
             push(c);
             c.tryFire(SYNC);
@@ -640,6 +655,261 @@ public class CompletableFuture<T> implements Future<T>, CompletionStage<T> {
         return d;
     }
 
+    /* ------------- Fused synchronous apply chains -------------- */
+
+    /*
+     * Long chains of synchronous thenApply calls on a future that is
+     * not yet complete would otherwise allocate a UniApply per stage,
+     * each pushed onto the previous dependent's stack. Instead, the
+     * first such stage creates a UniPipeline on its source's stack,
+     * and each later thenApply on the pipeline's current tail (the
+     * dependent of its last stage) appends its function and
+     * dependent to the same node. When the source completes, one
+     * tryFire runs the stages in order, completing each dependent
+     * and running that dependent's own stack before moving on.
+     *
+     * Every dependent whose stage has not yet run links back to its
+     * pipeline through field "pipeline". Running a stage first CASes
+     * that link to null, which plays the role of UniCompletion.claim:
+     * the function runs at most once even when the source's
+     * completer, an appender that finds its source already done, and
+     * a caller completing an intermediate dependent directly (see
+     * postComplete) all try to advance the pipeline. A thread that
+     * loses a claim stops, since the winner continues from there.
+     *
+     * Stages are appended only by the thread that CASes "tail" from
+     * the dependent it called thenApply on to null, so there is a
+     * single writer at a time. The writer stores into the stages
+     * array (replacing it when full) before the volatile write of
+     * count, and readers read count before stages, so a reader
+     * never sees a published stage missing. Entries are nulled when
+     * claimed, and a stale copy in a replaced array just fails its
+     * claim. A pipeline holds at most MAX_FUSED stages; the next
+     * thenApply then starts a new pipeline on the tail's stack, so
+     * completing very long chains still goes through postComplete
+     * (via the NESTED return of the last dependent) rather than
+     * recursion.
+     *
+     * An intermediate dependent may have dependents of its own,
+     * possibly further pipelines. Running them from within fire
+     * would recurse once per such stage, so fire instead pushes a
+     * PipelineResume for the remaining stages onto that dependent's
+     * stack and hands the dependent to postComplete, as postFire
+     * does, leaving postComplete's loop to run both its dependents
+     * and the rest of the pipeline.
+     */
+
+    /** Maximum number of stages fused into one UniPipeline. */
+    static final int MAX_FUSED = 64;
+
+    @SuppressWarnings("serial")
+    static final class UniPipeline<T> extends Completion {
+        CompletableFuture<T> src;           // source of the first stage
+        Function<? super T,?> fn;           // first stage
+        CompletableFuture<?> dep;
+        Object[] stages;                    // later stages, as fn, dep pairs
+        volatile CompletableFuture<?> tail; // dependent of the last stage
+        volatile int count;                 // number of published stages
+
+        UniPipeline(CompletableFuture<T> src, Function<? super T,?> fn,
+                    CompletableFuture<?> dep) {
+            this.src = src; this.fn = fn; this.dep = dep;
+            this.tail = dep; this.count = 1;
+        }
+
+        final CompletableFuture<?> tryFire(int mode) {
+            return fire(0, src, mode);
+        }
+
+        final boolean isLive() { return src != null; }
+
+        /**
+         * Appends a stage with function f and dependent d if t is
+         * still the tail and there is room, returning the index of
+         * the new stage, else -1.
+         */
+        final int append(CompletableFuture<?> t, Function<?,?> f,
+                         CompletableFuture<?> d) {
+            if (tail != t || !UNSAFE.compareAndSwapObject(this, TAIL, t, null))
+                return -1;
+            int n = count;
+            if (n >= MAX_FUSED) {
+                tail = t;
+                return -1;
+            }
+            Object[] s = stages; int j = (n - 1) << 1;
+            if (s == null)
+                s = new Object[4];
+            else if (j >= s.length)
+                s = Arrays.copyOf(s, s.length << 1);
+            s[j] = f;
+            s[j + 1] = d;
+            d.pipeline = this;
+            stages = s;
+            count = n + 1;
+            tail = d;
+            return n;
+        }
+
+        /**
+         * Runs stages in order starting at stage i, whose source is
+         * a, until the pipeline ends, a source is not yet complete,
+         * or a stage has been claimed by another thread. Like
+         * postFire, returns the last completed dependent in NESTED
+         * mode if it has dependents of its own.
+         */
+        final CompletableFuture<?> fire(int i, CompletableFuture<?> a,
+                                        int mode) {
+            for (;;) {
+                Object r, f; CompletableFuture<?> d;
+                Object[] s = null; int j = (i - 1) << 1;
+                if (a == null || (r = a.result) == null)
+                    return null;
+                if (i == 0) {
+                    f = fn; d = dep;
+                }
+                else {
+                    f = (s = stages)[j]; d = (CompletableFuture<?>)s[j + 1];
+                }
+                if (f == null || d == null ||
+                    !UNSAFE.compareAndSwapObject(d, PIPELINE, this, null))
+                    return null;
+                if (s != null)
+                    s[j] = s[j + 1] = null;
+                else {
+                    src = null; fn = null; dep = null;
+                    if (a.stack != null) {
+                        if (mode < 0)
+                            a.cleanStack();
+                        else
+                            a.postComplete();
+                    }
+                }
+                d.fusedApply(r, f);
+                if (i + 1 < count) {
+                    if (d.stack != null) {
+                        d.pushStack(new PipelineResume(this, i + 1, d));
+                        if (mode < 0)
+                            return d;
+                        d.postComplete();
+                        return null;
+                    }
+                    a = d;
+                    ++i;
+                }
+                else if (d.stack == null)
+                    return null;
+                else if (mode < 0)
+                    return d;
+                else {
+                    d.postComplete();
+                    return null;
+                }
+            }
+        }
+
+        /** Returns the index of the stage with dependent d, or -1. */
+        final int indexOf(CompletableFuture<?> d) {
+            int n = count;
+            if (d == dep)
+                return 0;
+            Object[] s = stages;
+            for (int i = 1; i < n; ++i) {
+                if (s[((i - 1) << 1) + 1] == d)
+                    return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Runs the stages following the one with dependent a, which
+         * has been completed directly rather than by this pipeline.
+         */
+        final void fireAfter(CompletableFuture<?> a) {
+            int i = indexOf(a);
+            if (i >= 0 && i + 1 < count)
+                fire(i + 1, a, SYNC);
+        }
+
+        /**
+         * Returns true if the stage following the one with dependent
+         * a exists and has not yet run.
+         */
+        final boolean hasPendingSuccessor(CompletableFuture<?> a) {
+            int i = indexOf(a);
+            if (i < 0 || i + 1 >= count)
+                return false;
+            Object d = stages[(i << 1) + 1];
+            return d != null && ((CompletableFuture<?>)d).pipeline == this;
+        }
+    }
+
+    /**
+     * Continues a pipeline at stage index, whose source src has
+     * dependents of its own, from src's stack.
+     */
+    @SuppressWarnings("serial")
+    static final class PipelineResume extends Completion {
+        UniPipeline<?> pipeline;
+        int index;
+        CompletableFuture<?> src;
+        PipelineResume(UniPipeline<?> pipeline, int index,
+                       CompletableFuture<?> src) {
+            this.pipeline = pipeline; this.index = index; this.src = src;
+        }
+        final CompletableFuture<?> tryFire(int mode) {
+            UniPipeline<?> p; CompletableFuture<?> a;
+            if ((p = pipeline) == null || (a = src) == null)
+                return null;
+            pipeline = null; src = null;
+            return p.fire(index, a, mode);
+        }
+        final boolean isLive() { return pipeline != null; }
+    }
+
+    /**
+     * Completes this future, unless already done, with the result of
+     * applying fused stage function f to source result r.
+     */
+    @SuppressWarnings("unchecked")
+    final void fusedApply(Object r, Object f) {
+        if (result == null) {
+            Throwable x;
+            if (r instanceof AltResult) {
+                if ((x = ((AltResult)r).ex) != null) {
+                    completeThrowable(x, r);
+                    return;
+                }
+                r = null;
+            }
+            try {
+                completeValue((T)((Function<Object,Object>)f).apply(r));
+            } catch (Throwable ex) {
+                completeThrowable(ex);
+            }
+        }
+    }
+
+    /**
+     * Adds a synchronous apply stage with dependent d, appending it
+     * to the pipeline ending at this future if possible, else
+     * starting a new pipeline on this future's stack.
+     */
+    private <V> void fuseApplyStage(CompletableFuture<V> d,
+                                    Function<? super T,? extends V> f) {
+        UniPipeline<?> p; int i;
+        if ((p = pipeline) != null && (i = p.append(this, f, d)) > 0) {
+            if (result != null)
+                p.fire(i, this, SYNC);
+        }
+        else {
+            UniPipeline<T> c = new UniPipeline<T>(this, f, d);
+            d.pipeline = c;
+            push(c);
+            c.tryFire(SYNC);
+        }
+    }
+
     @SuppressWarnings("serial")
     static final class UniAccept<T> extends UniCompletion<T,Void> {
         Consumer<? super T> fn;
@@ -2359,6 +2629,9 @@ public class CompletableFuture<T> implements Future<T>, CompletionStage<T> {
         int count = 0;
         for (Completion p = stack; p != null; p = p.next)
             ++count;
+        UniPipeline<?> q;
+        if ((q = pipeline) != null && q.hasPendingSuccessor(this))
+            ++count;
         return count;
     }
 
@@ -2390,6 +2663,8 @@ public class CompletableFuture<T> implements Future<T>, CompletionStage<T> {
     private static final long RESULT;
     private static final long STACK;
     private static final long NEXT;
+    private static final long PIPELINE;
+    private static final long TAIL;
     static {
         try {
             final sun.misc.Unsafe u;
@@ -2399,6 +2674,9 @@ public class CompletableFuture<T> implements Future<T>, CompletionStage<T> {
             STACK = u.objectFieldOffset(k.getDeclaredField("stack"));
             NEXT = u.objectFieldOffset
                 (Completion.class.getDeclaredField("next"));
+            PIPELINE = u.objectFieldOffset(k.getDeclaredField("pipeline"));
+            TAIL = u.objectFieldOffset
+                (UniPipeline.class.getDeclaredField("tail"));
         } catch (Exception x) {
             throw new Error(x);
         }
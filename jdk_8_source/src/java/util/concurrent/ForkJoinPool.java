@@ -2482,6 +2482,49 @@ public class ForkJoinPool extends AbstractExecutorService {
         externalSubmit(task);
     }
 
+    /**
+     * Batched version of externalPush: adds all of the given tasks to
+     * the submitter's queue under a single acquisition of its lock,
+     * then signals up to as many workers as there are tasks. Falls
+     * back to pushing tasks one by one if the queue is missing, busy,
+     * or too small, in which case only the first push may fail.
+     *
+     * @param tasks the tasks. Caller must ensure non-null elements.
+     * @throws RejectedExecutionException if no task was accepted
+     */
+    final void externalPushAll(ForkJoinTask<?>[] tasks) {
+        WorkQueue[] ws; WorkQueue q; int m;
+        int r = ThreadLocalRandom.getProbe();
+        int rs = runState, k = tasks.length;
+        if ((ws = workQueues) != null && (m = (ws.length - 1)) >= 0 &&
+            (q = ws[m & r & SQMASK]) != null && r != 0 && rs > 0 &&
+            U.compareAndSwapInt(q, QLOCK, 0, 1)) {
+            ForkJoinTask<?>[] a; int am, s;
+            if ((a = q.array) != null &&
+                (am = a.length - 1) - ((s = q.top) - q.base) >= k) {
+                for (int i = 0; i < k; ++i) {
+                    int j = ((am & (s + i)) << ASHIFT) + ABASE;
+                    U.putOrderedObject(a, j, tasks[i]);
+                }
+                U.putOrderedInt(q, QTOP, s + k);
+                U.putIntVolatile(q, QLOCK, 0);
+                for (int i = 0; i < k && q.base != q.top; ++i)
+                    signalWork(ws, q);
+                return;
+            }
+            U.compareAndSwapInt(q, QLOCK, 1, 0);
+        }
+        for (int i = 0; i < k; ++i) {
+            try {
+                externalPush(tasks[i]);
+            } catch (RejectedExecutionException ex) {
+                if (i == 0)
+                    throw ex;
+                break;
+            }
+        }
+    }
+
     /**
      * Returns common pool queue for an external thread.
      */
@@ -2795,6 +2838,40 @@ public class ForkJoinPool extends AbstractExecutorService {
         }
     }
 
+    /**
+     * Submits a collection of value-returning tasks as a single batch,
+     * as described in {@link AbstractExecutorService#submitAll}. One
+     * task per unit of parallelism, but never more than the number of
+     * tasks, is pushed to a submission queue in a single locked
+     * operation, and only as many idle workers as needed are
+     * signalled.
+     *
+     * @param tasks the collection of tasks
+     * @param <T> the type of the values returned from the tasks
+     * @return a Future representing the completion of all of the tasks
+     * @throws NullPointerException if tasks or any of its elements are
+     *         {@code null}
+     * @throws RejectedExecutionException if the batch cannot be
+     *         scheduled for execution
+     * @since 1.8
+     */
+    public <T> Future<List<T>> submitAll(Collection<? extends Callable<T>> tasks) {
+        BatchFuture<T> batch = new BatchFuture<T>(tasks);
+        int n = Math.min(batch.size(), getParallelism());
+        if (n > 0) {
+            ForkJoinTask<?>[] jobs = new ForkJoinTask<?>[n];
+            for (int i = 0; i < n; ++i)
+                jobs[i] = new ForkJoinTask.RunnableExecuteAction(batch);
+            try {
+                externalPushAll(jobs);
+            } catch (RejectedExecutionException ex) {
+                batch.cancel(false);
+                throw ex;
+            }
+        }
+        return batch;
+    }
+
     /**
      * Returns the factory used for constructing new workers.
      *
@@ -0,0 +1,1337 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+import java.util.concurrent.locks.ReentrantLock;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * A hash table mapping byte sequences to byte sequences, in which both
+ * keys and values are stored outside the Java heap.  It is intended
+ * for caches holding a large number of small values, where keeping
+ * them as {@code byte[]} in a {@link ConcurrentHashMap} would make
+ * garbage collection pauses grow with the size of the cache.
+ *
+ * <p>Keys and values are passed as {@link ByteBuffer}s, of which the
+ * bytes between position and limit are used; the positions of
+ * argument buffers are never changed.  Keys are compared by content.
+ * Entries are copied into large direct buffers ("slabs") of a fixed
+ * size, allocated on demand, so the heap holds only the slabs
+ * themselves and one {@code long} per hash bin, independently of the
+ * number of mappings.  Each entry must fit into a single slab.
+ *
+ * <p>Like {@link ConcurrentHashMap}, this class supports full
+ * concurrency of retrievals and updates, with locking confined to the
+ * hash bin being accessed, and maintains its size with a set of
+ * counter cells so that updates do not contend on a single count.
+ * Unlike {@code ConcurrentHashMap}, retrievals also lock their bin,
+ * since otherwise they could follow links through memory that has
+ * been freed and reused.
+ *
+ * <p>Method {@link #get(ByteBuffer)} returns a read-only view of the
+ * value inside its slab rather than a copy.  The view stays usable
+ * after the mapping is removed or replaced, but from then on its
+ * content may be overwritten by other entries at any time.  Use
+ * {@link #get(ByteBuffer, ByteBuffer)} to copy a value atomically
+ * instead.
+ *
+ * <p>Removing or replacing a mapping frees its space in the slab, but
+ * that space is not reused until the slab is emptied.  Method {@link
+ * #compact} moves surviving entries out of sparsely occupied slabs so
+ * that those can be reused, and {@link #trimFreeSlabs} drops empty
+ * slabs altogether, leaving their memory to be released when the
+ * garbage collector finds the slab buffers (and any views of them
+ * returned by {@code get}) unreachable.  Slab usage is reported by
+ * the {@link OffHeapConcurrentHashMapMXBean} returned by {@link
+ * #getMXBean}.
+ *
+ * <p>This class does not implement {@link java.util.Map}.  Empty keys
+ * and values are permitted; a mapping to an empty value is reported
+ * by {@code get} as an empty buffer rather than {@code null}.
+ *
+ * @since 1.8
+ */
+public class OffHeapConcurrentHashMap {
+
+    /*
+     * Overview:
+     *
+     * The table is an array of longs, each holding the handle of the
+     * first entry in its bin, or zero.  An entry handle is the index
+     * of its slab plus one in the upper 32 bits and its offset within
+     * the slab in the lower 32 bits.  Entries are laid out in the
+     * slab as
+     *
+     *   offset  0: long  handle of next entry in bin, or zero
+     *   offset  8: int   spread hash of key
+     *   offset 12: int   key length
+     *   offset 16: int   value length
+     *   offset 24: key bytes followed by value bytes
+     *
+     * rounded up to a multiple of 8 bytes.
+     *
+     * ConcurrentHashMap locks a bin by synchronizing on its first
+     * node.  There are no node objects here, so instead the top bit
+     * of the bin's head word serves as a spin lock: it is set by CAS
+     * and cleared by the volatile write that also installs any new
+     * head.  As in ConcurrentHashMap, inserting into an empty bin is
+     * a single CAS without locking, and all other accesses of a bin's
+     * chain happen while holding its lock, which also makes the
+     * plain reads and writes of links and entry bytes safe.  Critical
+     * sections are short: entries are allocated and filled in before
+     * locking, and freed after unlocking.
+     *
+     * Resizing is done by a single thread, elected via sizeCtl as
+     * in ConcurrentHashMap, that locks each bin in turn, splits its
+     * chain into the two corresponding bins of the next table, and
+     * leaves MOVED in the old bin.  Other threads encountering MOVED
+     * retry in the next table, reached through the old table's next
+     * field.  Transfers relink entries in place rather than copying
+     * them, which is possible because readers hold bin locks too.
+     *
+     * Slab allocation is a CAS bump of the current slab's top.  When
+     * the current slab is full, a new one is installed under
+     * allocLock, preferring an emptied slab from freeSlabs.  Each
+     * slab counts its live bytes; an allocating thread adds its
+     * request before bumping top, so a slab with in-flight
+     * allocations never appears empty.  Slabs are recycled only by
+     * compact(), which selects sparse slabs other than the current
+     * one, walks all bins relocating their entries into the current
+     * slab, and then moves slabs found empty to freeSlabs.  A thread
+     * that bumped top of a slab that stopped being current in the
+     * meantime cannot tell whether the slab is being recycled, so it
+     * abandons the space and retries.
+     */
+
+    /* ---------------- Constants -------------- */
+
+    /**
+     * The largest possible table capacity.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The default initial table capacity.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The default slab size.
+     */
+    private static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+    /**
+     * The smallest and largest permitted slab sizes.
+     */
+    private static final int MIN_SLAB_SIZE = 1 << 12;
+    private static final int MAX_SLAB_SIZE = 1 << 30;
+
+    /**
+     * The slab offset of an entry's fields.
+     */
+    static final int NEXT = 0;
+    static final int HASH = 8;
+    static final int KLEN = 12;
+    static final int VLEN = 16;
+    static final int HEADER = 24;
+
+    /**
+     * Lock bit of a bin's head word.
+     */
+    static final long LOCKED = 1L << 63;
+
+    /**
+     * Head word of a bin that has been transferred to the next table.
+     */
+    static final long MOVED = 1L << 62;
+
+    /**
+     * Number of failed attempts to lock a bin before yielding.
+     */
+    private static final int SPINS = 1 << 6;
+
+    static final int HASH_BITS = 0x7fffffff; // usable bits of normal node hash
+
+    /** Number of CPUS, to place bounds on some sizings */
+    static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    /* ---------------- Nested classes -------------- */
+
+    /**
+     * A hash table, linked to its successor while being resized.
+     */
+    static final class Table {
+        final long[] bins;
+        volatile Table next;
+        Table(int n) { bins = new long[n]; }
+    }
+
+    /**
+     * A region of off-heap memory holding entries.
+     */
+    static final class Slab {
+        final int index;
+        final ByteBuffer buf;
+        /** Read-only view of buf, duplicated for returned values */
+        final ByteBuffer view;
+        /** Number of bytes handed out */
+        volatile int top;
+        /** Number of bytes in entries not yet freed */
+        volatile int live;
+        /** True while on freeSlabs.  Accessed only under allocLock. */
+        boolean free;
+        /** True while compact() is moving entries out of this slab */
+        volatile boolean evacuating;
+
+        Slab(int index, int size) {
+            this.index = index;
+            this.buf = ByteBuffer.allocateDirect(size)
+                .order(ByteOrder.nativeOrder());
+            this.view = buf.asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * Action applied to the chain of a locked bin, returning the
+     * (possibly new) head of the chain.
+     */
+    interface BinVisitor {
+        long visit(long head);
+    }
+
+    /* ---------------- Static utilities -------------- */
+
+    /**
+     * Spreads higher bits of hash to lower, as in ConcurrentHashMap.
+     */
+    static final int spread(int h) {
+        return (h ^ (h >>> 16)) & HASH_BITS;
+    }
+
+    /**
+     * Returns a power of two table size for the given desired capacity.
+     */
+    private static final int tableSizeFor(int c) {
+        int n = c - 1;
+        n |= n >>> 1;
+        n |= n >>> 2;
+        n |= n >>> 4;
+        n |= n >>> 8;
+        n |= n >>> 16;
+        return (n < 0) ? 1 : (n >= MAXIMUM_CAPACITY) ? MAXIMUM_CAPACITY : n + 1;
+    }
+
+    /**
+     * Returns the number of slab bytes used by an entry with the given
+     * key and value lengths.
+     */
+    static final long entrySize(int klen, int vlen) {
+        return ((long)HEADER + klen + vlen + 7L) & ~7L;
+    }
+
+    /* ---------------- Bin access -------------- */
+
+    private static long binOffset(int i) {
+        return ((long)i << LSHIFT) + LBASE;
+    }
+
+    /**
+     * Locks bin i, returning its previous head.  Returns without
+     * locking if the bin is empty or has been moved.
+     */
+    static final long lockBin(long[] bins, int i) {
+        long offset = binOffset(i);
+        for (int spins = 0;;) {
+            long f = U.getLongVolatile(bins, offset);
+            if (f == 0L || f == MOVED)
+                return f;
+            if ((f & LOCKED) == 0L &&
+                U.compareAndSwapLong(bins, offset, f, f | LOCKED))
+                return f;
+            if (++spins >= SPINS) {
+                spins = 0;
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Unlocks bin i, installing the given head.
+     */
+    static final void unlockBin(long[] bins, int i, long head) {
+        U.putLongVolatile(bins, binOffset(i), head);
+    }
+
+    static final boolean casBin(long[] bins, int i, long c, long v) {
+        return U.compareAndSwapLong(bins, binOffset(i), c, v);
+    }
+
+    /* ---------------- Fields -------------- */
+
+    /**
+     * The current table.
+     */
+    private transient volatile Table table;
+
+    /**
+     * Table initialization and resizing control.  When -1, a thread
+     * is transferring the table; otherwise the element count at which
+     * to resize.
+     */
+    private transient volatile int sizeCtl;
+
+    /**
+     * Base counter value, used mainly when there is no contention,
+     * but also as a fallback during table initialization
+     * races. Updated via CAS.
+     */
+    private transient volatile long baseCount;
+
+    /**
+     * Spinlock (locked via CAS) used when resizing and/or creating
+     * CounterCells.
+     */
+    private transient volatile int cellsBusy;
+
+    /**
+     * Table of counter cells. When non-null, size is a power of 2.
+     */
+    private transient volatile ConcurrentHashMap.CounterCell[] counterCells;
+
+    /** The size of every slab */
+    private final int slabSize;
+
+    /**
+     * All slabs, indexed by Slab.index, with null for unused indices.
+     * Replaced under allocLock.
+     */
+    private volatile Slab[] slabs;
+
+    /** The slab entries are currently allocated from */
+    private volatile Slab current;
+
+    /** Emptied slabs for reuse.  Accessed only under allocLock. */
+    private final ArrayDeque<Slab> freeSlabs = new ArrayDeque<Slab>();
+
+    /** Lock held while replacing the current slab or the slab array */
+    private final ReentrantLock allocLock = new ReentrantLock();
+
+    /** Lock serializing compactions */
+    private final ReentrantLock compactLock = new ReentrantLock();
+
+    /** The management interface, created on first use */
+    private volatile OffHeapConcurrentHashMapMXBean mxBean;
+
+    /* ---------------- Public operations -------------- */
+
+    /**
+     * Creates a new, empty map with the default initial table size
+     * (16) and slab size (1 MiB).
+     */
+    public OffHeapConcurrentHashMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * Creates a new, empty map with an initial table size
+     * accommodating the specified number of elements without the need
+     * to dynamically resize, and the default slab size (1 MiB).
+     *
+     * @param initialCapacity the implementation performs internal
+     * sizing to accommodate this many elements.
+     * @throws IllegalArgumentException if the initial capacity of
+     * elements is negative
+     */
+    public OffHeapConcurrentHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * Creates a new, empty map with an initial table size
+     * accommodating the specified number of elements without the need
+     * to dynamically resize, allocating entries from slabs of the
+     * given size.
+     *
+     * @param initialCapacity the implementation performs internal
+     * sizing to accommodate this many elements.
+     * @param slabSize the size in bytes of each slab, which bounds the
+     * size of a single entry
+     * @throws IllegalArgumentException if the initial capacity of
+     * elements is negative, or the slab size is less than 4096 or
+     * greater than 2<sup>30</sup>
+     */
+    public OffHeapConcurrentHashMap(int initialCapacity, int slabSize) {
+        if (initialCapacity < 0 ||
+            slabSize < MIN_SLAB_SIZE || slabSize > MAX_SLAB_SIZE)
+            throw new IllegalArgumentException();
+        int cap = ((initialCapacity >= (MAXIMUM_CAPACITY >>> 1)) ?
+                   MAXIMUM_CAPACITY :
+                   tableSizeFor(initialCapacity + (initialCapacity >>> 1) + 1));
+        this.table = new Table(cap);
+        this.sizeCtl = cap - (cap >>> 2);
+        this.slabSize = slabSize & ~7;
+        this.slabs = new Slab[0];
+    }
+
+    /**
+     * Returns the number of mappings, or {@code Integer.MAX_VALUE} if
+     * there are more.
+     *
+     * @return the number of mappings
+     * @see #mappingCount
+     */
+    public int size() {
+        long n = sumCount();
+        return ((n < 0L) ? 0 :
+                (n > (long)Integer.MAX_VALUE) ? Integer.MAX_VALUE :
+                (int)n);
+    }
+
+    /**
+     * Returns {@code true} if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        return sumCount() <= 0L; // ignore transient negative values
+    }
+
+    /**
+     * Returns the number of mappings.  The value returned is an
+     * estimate; the actual count may differ if there are concurrent
+     * insertions or removals.
+     *
+     * @return the number of mappings
+     */
+    public long mappingCount() {
+        long n = sumCount();
+        return (n < 0L) ? 0L : n; // ignore transient negative values
+    }
+
+    /**
+     * Returns a read-only view of the value to which the specified
+     * key is mapped, or {@code null} if there is no mapping for the
+     * key.  The view spans exactly the value's bytes, and refers to
+     * the map's storage rather than a copy, so its content becomes
+     * undefined once the mapping is removed or replaced.
+     *
+     * @param key the key whose value is to be returned
+     * @return a view of the value, or {@code null}
+     * @throws NullPointerException if the specified key is null
+     */
+    public ByteBuffer get(ByteBuffer key) {
+        int h = spread(key.hashCode());
+        for (Table t = table;;) {
+            long[] bins = t.bins;
+            int i = (bins.length - 1) & h;
+            long f = lockBin(bins, i);
+            if (f == 0L)
+                return null;
+            if (f == MOVED) {
+                t = t.next;
+                continue;
+            }
+            try {
+                long e = find(f, h, key);
+                return (e == 0L) ? null : valueView(e);
+            } finally {
+                unlockBin(bins, i, f);
+            }
+        }
+    }
+
+    /**
+     * Copies the value to which the specified key is mapped into the
+     * given buffer, if there is such a mapping and the value fits
+     * into the buffer's remaining space.  On success the buffer's
+     * position is advanced past the copied bytes.  The copy is made
+     * atomically with respect to updates of the mapping.
+     *
+     * @param key the key whose value is to be copied
+     * @param dst the buffer to copy the value into
+     * @return the length of the value, which was copied only if it is
+     * not greater than {@code dst.remaining()}, or -1 if there is no
+     * mapping for the key
+     * @throws NullPointerException if the specified key or buffer is null
+     * @throws java.nio.ReadOnlyBufferException if {@code dst} is read-only
+     */
+    public int get(ByteBuffer key, ByteBuffer dst) {
+        if (dst == null)
+            throw new NullPointerException();
+        int h = spread(key.hashCode());
+        for (Table t = table;;) {
+            long[] bins = t.bins;
+            int i = (bins.length - 1) & h;
+            long f = lockBin(bins, i);
+            if (f == 0L)
+                return -1;
+            if (f == MOVED) {
+                t = t.next;
+                continue;
+            }
+            try {
+                long e = find(f, h, key);
+                if (e == 0L)
+                    return -1;
+                ByteBuffer v = valueView(e);
+                int vlen = v.remaining();
+                if (vlen <= dst.remaining())
+                    dst.put(v);
+                return vlen;
+            } finally {
+                unlockBin(bins, i, f);
+            }
+        }
+    }
+
+    /**
+     * Tests if the specified key is in this map.
+     *
+     * @param key possible key
+     * @return {@code true} if and only if the specified key is a key
+     *         in this map
+     * @throws NullPointerException if the specified key is null
+     */
+    public boolean containsKey(ByteBuffer key) {
+        int h = spread(key.hashCode());
+        for (Table t = table;;) {
+            long[] bins = t.bins;
+            int i = (bins.length - 1) & h;
+            long f = lockBin(bins, i);
+            if (f == 0L)
+                return false;
+            if (f == MOVED) {
+                t = t.next;
+                continue;
+            }
+            try {
+                return find(f, h, key) != 0L;
+            } finally {
+                unlockBin(bins, i, f);
+            }
+        }
+    }
+
+    /**
+     * Maps the specified key to the specified value, replacing and
+     * freeing any previous value.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return {@code true} if the key was previously mapped
+     * @throws NullPointerException if the specified key or value is null
+     * @throws IllegalArgumentException if the entry would not fit into
+     *         a slab
+     */
+    public boolean put(ByteBuffer key, ByteBuffer value) {
+        return putVal(key, value, false);
+    }
+
+    /**
+     * Maps the specified key to the specified value, unless the key is
+     * already mapped.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return {@code true} if the mapping was added, or {@code false}
+     *         if the key was already mapped
+     * @throws NullPointerException if the specified key or value is null
+     * @throws IllegalArgumentException if the entry would not fit into
+     *         a slab
+     */
+    public boolean putIfAbsent(ByteBuffer key, ByteBuffer value) {
+        return !putVal(key, value, true);
+    }
+
+    /** Implementation for put and putIfAbsent */
+    final boolean putVal(ByteBuffer key, ByteBuffer value,
+                         boolean onlyIfAbsent) {
+        int h = spread(key.hashCode());
+        long e = newEntry(h, key, value);
+        long old = 0L;
+        for (Table t = table;;) {
+            long[] bins = t.bins;
+            int i = (bins.length - 1) & h;
+            long f = lockBin(bins, i);
+            if (f == 0L) {
+                if (casBin(bins, i, 0L, e))
+                    break;                   // no lock when adding to empty bin
+                continue;
+            }
+            if (f == MOVED) {
+                t = t.next;
+                continue;
+            }
+            long head = f;
+            try {
+                long pred = 0L;
+                for (long p = f; p != 0L; pred = p, p = next(p)) {
+                    if (matches(p, h, key)) {
+                        old = p;
+                        break;
+                    }
+                }
+                if (old == 0L) {
+                    setNext(e, f);
+                    head = e;
+                }
+                else if (!onlyIfAbsent) {
+                    setNext(e, next(old));
+                    if (pred == 0L)
+                        head = e;
+                    else
+                        setNext(pred, e);
+                }
+            } finally {
+                unlockBin(bins, i, head);
+            }
+            break;
+        }
+        if (old == 0L) {
+            addCount(1L, 1);
+            return false;
+        }
+        free(onlyIfAbsent ? e : old);
+        return true;
+    }
+
+    /**
+     * Removes the key (and its corresponding value) from this map,
+     * freeing its space.  This method does nothing if the key is not
+     * in the map.
+     *
+     * @param key the key that needs to be removed
+     * @return {@code true} if the key was mapped
+     * @throws NullPointerException if the specified key is null
+     */
+    public boolean remove(ByteBuffer key) {
+        int h = spread(key.hashCode());
+        long old = 0L;
+        for (Table t = table;;) {
+            long[] bins = t.bins;
+            int i = (bins.length - 1) & h;
+            long f = lockBin(bins, i);
+            if (f == 0L)
+                return false;
+            if (f == MOVED) {
+                t = t.next;
+                continue;
+            }
+            long head = f;
+            try {
+                long pred = 0L;
+                for (long p = f; p != 0L; pred = p, p = next(p)) {
+                    if (matches(p, h, key)) {
+                        old = p;
+                        if (pred == 0L)
+                            head = next(p);
+                        else
+                            setNext(pred, next(p));
+                        break;
+                    }
+                }
+            } finally {
+                unlockBin(bins, i, head);
+            }
+            break;
+        }
+        if (old == 0L)
+            return false;
+        free(old);
+        addCount(-1L, -1);
+        return true;
+    }
+
+    /**
+     * Removes all of the mappings from this map, freeing their space.
+     * Slabs are kept, and can be reused or released with {@link
+     * #compact} and {@link #trimFreeSlabs}.
+     */
+    public void clear() {
+        final long[] removed = new long[1];
+        visitAll(new BinVisitor() {
+            public long visit(long head) {
+                for (long p = head, q; p != 0L; p = q) {
+                    q = next(p);
+                    free(p);
+                    ++removed[0];
+                }
+                return 0L;
+            }
+        });
+        if (removed[0] != 0L)
+            addCount(-removed[0], -1);
+    }
+
+    /**
+     * Performs the given action for each mapping, passing read-only
+     * views of the key and value as described for {@link
+     * #get(ByteBuffer)}.  Mappings added or removed concurrently may
+     * or may not be reported, but no mapping is reported twice.
+     *
+     * @param action the action
+     * @throws NullPointerException if the specified action is null
+     */
+    public void forEach(BiConsumer<? super ByteBuffer, ? super ByteBuffer> action) {
+        if (action == null)
+            throw new NullPointerException();
+        final ArrayList<ByteBuffer> views = new ArrayList<ByteBuffer>();
+        BinVisitor v = new BinVisitor() {
+            public long visit(long head) {
+                for (long p = head; p != 0L; p = next(p)) {
+                    views.add(keyView(p));
+                    views.add(valueView(p));
+                }
+                return head;
+            }
+        };
+        Table t = table;
+        for (int i = 0, n = t.bins.length; i < n; ++i) {
+            visitBin(t, i, v);
+            // invoke action without holding any bin lock
+            for (int j = 0, m = views.size(); j < m; j += 2)
+                action.accept(views.get(j), views.get(j + 1));
+            views.clear();
+        }
+    }
+
+    /**
+     * Moves entries out of slabs whose occupancy is at most the given
+     * fraction, and makes the slabs emptied in this way available for
+     * reuse.  The slab currently used for new entries is never
+     * compacted.  This method walks the whole table, locking one bin
+     * at a time, so it is best invoked periodically from a
+     * background thread.
+     *
+     * @param maxOccupancy the occupancy at or below which a slab is
+     *        compacted, between 0.0 and 1.0
+     * @return the number of slabs made free
+     * @throws IllegalArgumentException if {@code maxOccupancy} is not
+     *         between 0.0 and 1.0
+     */
+    public int compact(double maxOccupancy) {
+        if (!(maxOccupancy >= 0.0 && maxOccupancy <= 1.0))
+            throw new IllegalArgumentException();
+        final ReentrantLock compactLock = this.compactLock;
+        compactLock.lock();
+        try {
+            ArrayList<Slab> victims = new ArrayList<Slab>();
+            long limit = (long)(maxOccupancy * slabSize);
+            final ReentrantLock allocLock = this.allocLock;
+            allocLock.lock();
+            try {
+                for (Slab s : slabs) {
+                    if (s != null && !s.free && s != current &&
+                        s.live <= limit) {
+                        s.evacuating = true;
+                        victims.add(s);
+                    }
+                }
+            } finally {
+                allocLock.unlock();
+            }
+            if (victims.isEmpty())
+                return 0;
+            visitAll(new BinVisitor() {
+                public long visit(long head) {
+                    return relocate(head);
+                }
+            });
+            int freed = 0;
+            allocLock.lock();
+            try {
+                for (Slab s : victims) {
+                    s.evacuating = false;
+                    if (s.live == 0 && s != current) {
+                        s.top = 0;
+                        s.free = true;
+                        freeSlabs.push(s);
+                        ++freed;
+                    }
+                }
+            } finally {
+                allocLock.unlock();
+            }
+            return freed;
+        } finally {
+            compactLock.unlock();
+        }
+    }
+
+    /**
+     * Drops all free slabs, so that their memory can be released once
+     * the garbage collector finds them unreachable.  Free slabs are
+     * those emptied by {@link #compact}.
+     *
+     * @return the number of slabs dropped
+     */
+    public int trimFreeSlabs() {
+        final ReentrantLock allocLock = this.allocLock;
+        allocLock.lock();
+        try {
+            int n = freeSlabs.size();
+            if (n != 0) {
+                Slab[] ss = slabs.clone();
+                for (Slab s; (s = freeSlabs.poll()) != null; )
+                    ss[s.index] = null;
+                slabs = ss;
+            }
+            return n;
+        } finally {
+            allocLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the management interface reporting the slab usage of
+     * this map.  The caller is responsible for registering it with an
+     * {@code MBeanServer} if desired.
+     *
+     * @return the management interface
+     */
+    public OffHeapConcurrentHashMapMXBean getMXBean() {
+        OffHeapConcurrentHashMapMXBean b;
+        if ((b = mxBean) == null)
+            mxBean = b = new SlabStats();
+        return b;
+    }
+
+    /**
+     * Returns a string representation of this map's size and slab
+     * usage.
+     *
+     * @return a string representation of this map
+     */
+    public String toString() {
+        OffHeapConcurrentHashMapMXBean b = getMXBean();
+        return super.toString() +
+            "[mappings = " + b.getMappingCount() +
+            ", slabs = " + b.getSlabCount() +
+            ", free slabs = " + b.getFreeSlabCount() +
+            ", live bytes = " + b.getLiveBytes() +
+            ", reserved bytes = " + b.getReservedBytes() + "]";
+    }
+
+    /* ---------------- Entry access -------------- */
+
+    final Slab slabOf(long e) {
+        return slabs[(int)(e >>> 32) - 1];
+    }
+
+    final long next(long e) {
+        return slabOf(e).buf.getLong((int)e + NEXT);
+    }
+
+    final void setNext(long e, long next) {
+        slabOf(e).buf.putLong((int)e + NEXT, next);
+    }
+
+    /**
+     * Returns the handle of the entry for the given key in the chain
+     * starting at f, or zero if there is none.
+     */
+    final long find(long f, int h, ByteBuffer key) {
+        for (long p = f; p != 0L; p = next(p)) {
+            if (matches(p, h, key))
+                return p;
+        }
+        return 0L;
+    }
+
+    /**
+     * Returns true if entry e holds the given key.
+     */
+    final boolean matches(long e, int h, ByteBuffer key) {
+        ByteBuffer buf = slabOf(e).buf;
+        int o = (int)e, klen = key.remaining();
+        if (buf.getInt(o + HASH) != h || buf.getInt(o + KLEN) != klen)
+            return false;
+        o += HEADER;
+        for (int j = 0, k = key.position(); j < klen; ++j) {
+            if (buf.get(o + j) != key.get(k + j))
+                return false;
+        }
+        return true;
+    }
+
+    final ByteBuffer keyView(long e) {
+        Slab s = slabOf(e);
+        int o = (int)e;
+        int klen = s.buf.getInt(o + KLEN);
+        return view(s, o + HEADER, klen);
+    }
+
+    final ByteBuffer valueView(long e) {
+        Slab s = slabOf(e);
+        int o = (int)e;
+        int klen = s.buf.getInt(o + KLEN), vlen = s.buf.getInt(o + VLEN);
+        return view(s, o + HEADER + klen, vlen);
+    }
+
+    private static ByteBuffer view(Slab s, int from, int len) {
+        ByteBuffer b = s.view.duplicate();
+        b.limit(from + len).position(from);
+        return b.slice();
+    }
+
+    /**
+     * Allocates and fills in an unlinked entry.
+     */
+    private long newEntry(int h, ByteBuffer key, ByteBuffer value) {
+        int klen = key.remaining(), vlen = value.remaining();
+        long size = entrySize(klen, vlen);
+        if (size > slabSize)
+            throw new IllegalArgumentException("Entry larger than slab");
+        long e = allocate((int)size);
+        ByteBuffer buf = slabOf(e).buf;
+        int o = (int)e;
+        buf.putLong(o + NEXT, 0L);
+        buf.putInt(o + HASH, h);
+        buf.putInt(o + KLEN, klen);
+        buf.putInt(o + VLEN, vlen);
+        ByteBuffer b = buf.duplicate();
+        b.position(o + HEADER);
+        b.put(key.duplicate());
+        b.put(value.duplicate());
+        return e;
+    }
+
+    /**
+     * Returns the handle of a fresh block of the given size.
+     */
+    private long allocate(int size) {
+        for (;;) {
+            Slab s = current;
+            if (s == null) {
+                advanceSlab(null);
+                continue;
+            }
+            U.getAndAddInt(s, LIVE, size);
+            int t = s.top;
+            if (t <= slabSize - size &&
+                U.compareAndSwapInt(s, TOP, t, t + size)) {
+                if (current == s)
+                    return ((long)(s.index + 1) << 32) | t;
+                // s may be about to be recycled; abandon the space
+            }
+            U.getAndAddInt(s, LIVE, -size);
+            if (t > slabSize - size)
+                advanceSlab(s);
+        }
+    }
+
+    /**
+     * Frees the space of an entry no longer reachable from the table.
+     */
+    final void free(long e) {
+        Slab s = slabOf(e);
+        int o = (int)e;
+        long size = entrySize(s.buf.getInt(o + KLEN), s.buf.getInt(o + VLEN));
+        U.getAndAddInt(s, LIVE, -(int)size);
+    }
+
+    /**
+     * Replaces the current slab if it is still the given full one.
+     */
+    private void advanceSlab(Slab full) {
+        final ReentrantLock allocLock = this.allocLock;
+        allocLock.lock();
+        try {
+            if (current == full) {
+                Slab s = freeSlabs.poll();
+                if (s != null)
+                    s.free = false;
+                else {
+                    Slab[] ss = slabs;
+                    int n = ss.length, i = 0;
+                    while (i < n && ss[i] != null)
+                        ++i;
+                    if (i == n) {
+                        if (n >= (1 << 30) - 1)
+                            throw new OutOfMemoryError("Too many slabs");
+                        ss = Arrays.copyOf(ss, Math.max(4, n << 1));
+                    }
+                    else
+                        ss = ss.clone();
+                    ss[i] = s = new Slab(i, slabSize);
+                    slabs = ss;
+                }
+                current = s;
+            }
+        } finally {
+            allocLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces entries of the given chain lying in evacuating slabs
+     * with copies in the current slab, returning the new head.
+     */
+    final long relocate(long head) {
+        long pred = 0L;
+        for (long p = head, q; p != 0L; pred = p, p = q) {
+            q = next(p);
+            Slab s = slabOf(p);
+            if (s.evacuating) {
+                int o = (int)p;
+                int size = (int)entrySize(s.buf.getInt(o + KLEN),
+                                          s.buf.getInt(o + VLEN));
+                long c = allocate(size);
+                ByteBuffer src = s.buf.duplicate();
+                src.limit(o + size).position(o);
+                ByteBuffer dst = slabOf(c).buf.duplicate();
+                dst.position((int)c);
+                dst.put(src);
+                setNext(c, q);
+                if (pred == 0L)
+                    head = c;
+                else
+                    setNext(pred, c);
+                U.getAndAddInt(s, LIVE, -size);
+                p = c;
+            }
+        }
+        return head;
+    }
+
+    /* ---------------- Traversal -------------- */
+
+    /**
+     * Applies the visitor to every non-empty bin.
+     */
+    private void visitAll(BinVisitor v) {
+        Table t = table;
+        for (int i = 0, n = t.bins.length; i < n; ++i)
+            visitBin(t, i, v);
+    }
+
+    /**
+     * Applies the visitor to bin i of table t while holding its lock,
+     * or to both of its successors if it has been moved.
+     */
+    private void visitBin(Table t, int i, BinVisitor v) {
+        long[] bins = t.bins;
+        long f = lockBin(bins, i);
+        if (f == MOVED) {
+            Table nt = t.next;
+            visitBin(nt, i, v);
+            visitBin(nt, i + bins.length, v);
+        }
+        else if (f != 0L) {
+            long head = f;
+            try {
+                head = v.visit(f);
+            } finally {
+                unlockBin(bins, i, head);
+            }
+        }
+    }
+
+    /* ---------------- Table resizing -------------- */
+
+    /**
+     * Moves all chains of the given table into a new table of twice
+     * the size.  Called only by the thread that set sizeCtl to -1.
+     */
+    private void transfer(Table t) {
+        long[] bins = t.bins;
+        int n = bins.length;
+        Table nt = new Table(n << 1);
+        long[] nbins = nt.bins;
+        t.next = nt;
+        for (int i = n - 1; i >= 0; --i) {
+            long f;
+            do {} while ((f = lockBin(bins, i)) == 0L &&
+                         !casBin(bins, i, 0L, MOVED));
+            if (f == 0L)
+                continue;                    // empty bin now marked
+            long lo = 0L, hi = 0L;
+            for (long p = f, q; p != 0L; p = q) {
+                q = next(p);
+                if ((slabOf(p).buf.getInt((int)p + HASH) & n) == 0) {
+                    setNext(p, lo);
+                    lo = p;
+                }
+                else {
+                    setNext(p, hi);
+                    hi = p;
+                }
+            }
+            U.putLongVolatile(nbins, binOffset(i), lo);
+            U.putLongVolatile(nbins, binOffset(i + n), hi);
+            unlockBin(bins, i, MOVED);
+        }
+        table = nt;
+        sizeCtl = (n << 1) - (n >>> 1);
+    }
+
+    /* ---------------- Counter support -------------- */
+
+    /**
+     * Adds to count, and if table is too small and not already
+     * resizing, performs a transfer.  Adapted from
+     * ConcurrentHashMap, except that there is only ever one resizer.
+     *
+     * @param x the count to add
+     * @param check if <0, don't check resize, if <= 1 only check if uncontended
+     */
+    private final void addCount(long x, int check) {
+        ConcurrentHashMap.CounterCell[] as; long b, s;
+        if ((as = counterCells) != null ||
+            !U.compareAndSwapLong(this, BASECOUNT, b = baseCount, s = b + x)) {
+            ConcurrentHashMap.CounterCell a; long v; int m;
+            boolean uncontended = true;
+            if (as == null || (m = as.length - 1) < 0 ||
+                (a = as[ThreadLocalRandom.getProbe() & m]) == null ||
+                !(uncontended =
+                  U.compareAndSwapLong(a, CELLVALUE, v = a.value, v + x))) {
+                fullAddCount(x, uncontended);
+                return;
+            }
+            if (check <= 1)
+                return;
+            s = sumCount();
+        }
+        if (check >= 0) {
+            Table t; int sc;
+            while (s >= (long)(sc = sizeCtl) && sc > 0 &&
+                   (t = table).bins.length < MAXIMUM_CAPACITY) {
+                if (U.compareAndSwapInt(this, SIZECTL, sc, -1)) {
+                    try {
+                        transfer(t);
+                    } finally {
+                        if (sizeCtl == -1)   // failed to allocate
+                            sizeCtl = sc;
+                    }
+                }
+                s = sumCount();
+            }
+        }
+    }
+
+    final long sumCount() {
+        ConcurrentHashMap.CounterCell[] as = counterCells;
+        ConcurrentHashMap.CounterCell a;
+        long sum = baseCount;
+        if (as != null) {
+            for (int i = 0; i < as.length; ++i) {
+                if ((a = as[i]) != null)
+                    sum += a.value;
+            }
+        }
+        return sum;
+    }
+
+    // See LongAdder version for explanation
+    private final void fullAddCount(long x, boolean wasUncontended) {
+        int h;
+        if ((h = ThreadLocalRandom.getProbe()) == 0) {
+            ThreadLocalRandom.localInit();      // force initialization
+            h = ThreadLocalRandom.getProbe();
+            wasUncontended = true;
+        }
+        boolean collide = false;                // True if last slot nonempty
+        for (;;) {
+            ConcurrentHashMap.CounterCell[] as;
+            ConcurrentHashMap.CounterCell a; int n; long v;
+            if ((as = counterCells) != null && (n = as.length) > 0) {
+                if ((a = as[(n - 1) & h]) == null) {
+                    if (cellsBusy == 0) {            // Try to attach new Cell
+                        ConcurrentHashMap.CounterCell r =
+                            new ConcurrentHashMap.CounterCell(x); // Optimistic create
+                        if (cellsBusy == 0 &&
+                            U.compareAndSwapInt(this, CELLSBUSY, 0, 1)) {
+                            boolean created = false;
+                            try {               // Recheck under lock
+                                ConcurrentHashMap.CounterCell[] rs; int m, j;
+                                if ((rs = counterCells) != null &&
+                                    (m = rs.length) > 0 &&
+                                    rs[j = (m - 1) & h] == null) {
+                                    rs[j] = r;
+                                    created = true;
+                                }
+                            } finally {
+                                cellsBusy = 0;
+                            }
+                            if (created)
+                                break;
+                            continue;           // Slot is now non-empty
+                        }
+                    }
+                    collide = false;
+                }
+                else if (!wasUncontended)       // CAS already known to fail
+                    wasUncontended = true;      // Continue after rehash
+                else if (U.compareAndSwapLong(a, CELLVALUE, v = a.value, v + x))
+                    break;
+                else if (counterCells != as || n >= NCPU)
+                    collide = false;            // At max size or stale
+                else if (!collide)
+                    collide = true;
+                else if (cellsBusy == 0 &&
+                         U.compareAndSwapInt(this, CELLSBUSY, 0, 1)) {
+                    try {
+                        if (counterCells == as) {// Expand table unless stale
+                            ConcurrentHashMap.CounterCell[] rs =
+                                new ConcurrentHashMap.CounterCell[n << 1];
+                            for (int i = 0; i < n; ++i)
+                                rs[i] = as[i];
+                            counterCells = rs;
+                        }
+                    } finally {
+                        cellsBusy = 0;
+                    }
+                    collide = false;
+                    continue;                   // Retry with expanded table
+                }
+                h = ThreadLocalRandom.advanceProbe(h);
+            }
+            else if (cellsBusy == 0 && counterCells == as &&
+                     U.compareAndSwapInt(this, CELLSBUSY, 0, 1)) {
+                boolean init = false;
+                try {                           // Initialize table
+                    if (counterCells == as) {
+                        ConcurrentHashMap.CounterCell[] rs =
+                            new ConcurrentHashMap.CounterCell[2];
+                        rs[h & 1] = new ConcurrentHashMap.CounterCell(x);
+                        counterCells = rs;
+                        init = true;
+                    }
+                } finally {
+                    cellsBusy = 0;
+                }
+                if (init)
+                    break;
+            }
+            else if (U.compareAndSwapLong(this, BASECOUNT, v = baseCount, v + x))
+                break;                          // Fall back on using base
+        }
+    }
+
+    /* ---------------- Management -------------- */
+
+    /**
+     * Implementation of the management interface, sampling slab
+     * fields without locking.
+     */
+    final class SlabStats implements OffHeapConcurrentHashMapMXBean {
+        public int getSlabSize() {
+            return slabSize;
+        }
+
+        public int getSlabCount() {
+            int n = 0;
+            for (Slab s : slabs) {
+                if (s != null)
+                    ++n;
+            }
+            return n;
+        }
+
+        public int getFreeSlabCount() {
+            final ReentrantLock allocLock = OffHeapConcurrentHashMap.this.allocLock;
+            allocLock.lock();
+            try {
+                return freeSlabs.size();
+            } finally {
+                allocLock.unlock();
+            }
+        }
+
+        public long getReservedBytes() {
+            return (long)getSlabCount() * slabSize;
+        }
+
+        public long getAllocatedBytes() {
+            long n = 0L;
+            for (Slab s : slabs) {
+                if (s != null)
+                    n += s.top;
+            }
+            return n;
+        }
+
+        public long getLiveBytes() {
+            long n = 0L;
+            for (Slab s : slabs) {
+                if (s != null)
+                    n += s.live;
+            }
+            return n;
+        }
+
+        public double getOccupancy() {
+            long reserved = getReservedBytes();
+            return (reserved == 0L) ? 0.0 : (double)getLiveBytes() / reserved;
+        }
+
+        public long getMappingCount() {
+            return mappingCount();
+        }
+    }
+
+    // Unsafe mechanics
+    private static final sun.misc.Unsafe U;
+    private static final long SIZECTL;
+    private static final long BASECOUNT;
+    private static final long CELLSBUSY;
+    private static final long CELLVALUE;
+    private static final long TOP;
+    private static final long LIVE;
+    private static final long LBASE;
+    private static final int LSHIFT;
+    static {
+        try {
+            U = sun.misc.Unsafe.getUnsafe();
+            Class<?> k = OffHeapConcurrentHashMap.class;
+            SIZECTL = U.objectFieldOffset
+                (k.getDeclaredField("sizeCtl"));
+            BASECOUNT = U.objectFieldOffset
+                (k.getDeclaredField("baseCount"));
+            CELLSBUSY = U.objectFieldOffset
+                (k.getDeclaredField("cellsBusy"));
+            Class<?> ck = ConcurrentHashMap.CounterCell.class;
+            CELLVALUE = U.objectFieldOffset
+                (ck.getDeclaredField("value"));
+            Class<?> sk = Slab.class;
+            TOP = U.objectFieldOffset
+                (sk.getDeclaredField("top"));
+            LIVE = U.objectFieldOffset
+                (sk.getDeclaredField("live"));
+            LBASE = U.arrayBaseOffset(long[].class);
+            int scale = U.arrayIndexScale(long[].class);
+            if ((scale & (scale - 1)) != 0)
+                throw new Error("data type scale not a power of two");
+            LSHIFT = 31 - Integer.numberOfLeadingZeros(scale);
+        } catch (Exception e) {
+            throw new Error(e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+/**
+ * The management interface for the slab storage of an {@link
+ * OffHeapConcurrentHashMap}.  An instance is obtained with {@link
+ * OffHeapConcurrentHashMap#getMXBean} and may be registered with an
+ * {@code MBeanServer} under a name chosen by the application, for
+ * example:
+ *
+ * <pre> {@code
+ * ManagementFactory.getPlatformMBeanServer().registerMBean(
+ *     map.getMXBean(),
+ *     new ObjectName("com.example:type=OffHeapCache,name=sessions"));}</pre>
+ *
+ * <p>Each value is sampled separately, so values read together may
+ * be mutually inconsistent while the map is being modified.
+ *
+ * @since 1.8
+ */
+public interface OffHeapConcurrentHashMapMXBean {
+
+    /**
+     * Returns the size in bytes of each slab.
+     *
+     * @return the slab size in bytes
+     */
+    int getSlabSize();
+
+    /**
+     * Returns the number of slabs currently allocated, including
+     * free slabs kept for reuse.
+     *
+     * @return the number of slabs
+     */
+    int getSlabCount();
+
+    /**
+     * Returns the number of empty slabs kept for reuse.  These are
+     * released by {@link OffHeapConcurrentHashMap#trimFreeSlabs}.
+     *
+     * @return the number of free slabs
+     */
+    int getFreeSlabCount();
+
+    /**
+     * Returns the total off-heap memory held in slabs, in bytes.
+     *
+     * @return the reserved size in bytes
+     */
+    long getReservedBytes();
+
+    /**
+     * Returns the number of slab bytes handed out to entries since
+     * each slab was last emptied, whether or not the entries are
+     * still present.
+     *
+     * @return the allocated size in bytes
+     */
+    long getAllocatedBytes();
+
+    /**
+     * Returns the number of slab bytes occupied by present entries.
+     *
+     * @return the live size in bytes
+     */
+    long getLiveBytes();
+
+    /**
+     * Returns the fraction of reserved slab memory occupied by
+     * present entries, or zero if no slab is allocated.  A low value
+     * indicates that {@link OffHeapConcurrentHashMap#compact} would
+     * release memory.
+     *
+     * @return the occupancy, between 0.0 and 1.0
+     */
+    double getOccupancy();
+
+    /**
+     * Returns the number of mappings.
+     *
+     * @return the number of mappings
+     * @see OffHeapConcurrentHashMap#mappingCount
+     */
+    long getMappingCount();
+}
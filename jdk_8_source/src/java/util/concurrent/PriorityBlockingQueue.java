@@ -98,6 +98,12 @@ import sun.misc.SharedSecrets;
  *   }
  * }}</pre>
  *
+ * <p>All operations of this class hold a single lock.  Applications
+ * such as task schedulers, in which many threads insert and remove
+ * elements and which can tolerate retrieving an element that is only
+ * near the head of the queue, may instead use a {@link
+ * RelaxedPriorityBlockingQueue}.
+ *
  * <p>This class is a member of the
  * <a href="{@docRoot}/../technotes/guides/collections/index.html">
  * Java Collections Framework</a>.
@@ -498,6 +504,90 @@ public class PriorityBlockingQueue<E> extends AbstractQueue<E>
         return true;
     }
 
+    /**
+     * Adds all of the elements in the specified collection to this
+     * priority queue, holding the lock once.  When the collection holds
+     * more than half as many elements as this queue, they are appended
+     * to the heap, which is then rebuilt in linear time, instead of being
+     * inserted one at a time.  If the collection contains a null
+     * element, or an element that cannot be compared while the heap is
+     * rebuilt, no element is added.
+     *
+     * @param c collection containing elements to be added to this queue
+     * @return {@code true} if this queue changed as a result of the call
+     * @throws ClassCastException if an element of the specified
+     *         collection cannot be compared with the elements of this
+     *         priority queue according to its ordering
+     * @throws NullPointerException if the specified collection or any
+     *         of its elements are null
+     * @throws IllegalArgumentException if the specified collection is
+     *         this queue
+     */
+    public boolean addAll(Collection<? extends E> c) {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        int n = a.length;
+        for (int i = 0; i < n; i++)
+            if (a[i] == null)
+                throw new NullPointerException();
+        if (n == 0)
+            return false;
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            int s = size;
+            Object[] array = queue;
+            boolean bulk = n > s >>> 1;
+            if (array.length - s < n) {
+                // Unlike offer, grow while holding the lock, as a single
+                // copy serves the whole batch
+                int oldCap = array.length, minCap = s + n;
+                if (minCap < 0 || minCap > MAX_ARRAY_SIZE)
+                    throw new OutOfMemoryError();
+                int newCap = oldCap + ((oldCap < 64) ?
+                                       (oldCap + 2) :
+                                       (oldCap >> 1));
+                if (newCap - MAX_ARRAY_SIZE > 0)
+                    newCap = MAX_ARRAY_SIZE;
+                array = Arrays.copyOf(array, Math.max(newCap, minCap));
+            } else if (bulk) {
+                array = Arrays.copyOf(array, array.length);
+            }
+            Comparator<? super E> cmp = comparator;
+            if (bulk) {
+                // Rebuild the heap in a copy and publish it only then, so
+                // that a failed comparison leaves the queue as it was
+                System.arraycopy(a, 0, array, s, n);
+                int m = s + n;
+                for (int i = (m >>> 1) - 1; i >= 0; i--) {
+                    if (cmp == null)
+                        siftDownComparable(i, (E) array[i], array, m);
+                    else
+                        siftDownUsingComparator(i, (E) array[i], array, m, cmp);
+                }
+                queue = array;
+                size = m;
+            }
+            else {
+                queue = array;
+                for (int i = 0; i < n; i++) {
+                    if (cmp == null)
+                        siftUpComparable(s, (E) a[i], array);
+                    else
+                        siftUpUsingComparator(s, (E) a[i], array, cmp);
+                    size = ++s;
+                }
+            }
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
     /**
      * Inserts the specified element into this priority queue.
      * As the queue is unbounded, this method will never block.
@@ -764,6 +854,14 @@ public class PriorityBlockingQueue<E> extends AbstractQueue<E>
     }
 
     /**
+     * Removes at most the given number of available elements from this
+     * queue, in priority order, and adds them to the given collection.
+     * When all of the elements are removed, the heap array is exchanged
+     * for an empty one while holding the lock, and sorted after the
+     * lock is released, so that other threads wait only for the
+     * exchange.  If the collection throws, the elements it has not
+     * taken are put back into this queue, so none is lost.
+     *
      * @throws UnsupportedOperationException {@inheritDoc}
      * @throws ClassCastException            {@inheritDoc}
      * @throws NullPointerException          {@inheritDoc}
@@ -776,18 +874,38 @@ public class PriorityBlockingQueue<E> extends AbstractQueue<E>
             throw new IllegalArgumentException();
         if (maxElements <= 0)
             return 0;
+        Object[] array;
+        int n;
         final ReentrantLock lock = this.lock;
         lock.lock();
         try {
-            int n = Math.min(size, maxElements);
-            for (int i = 0; i < n; i++) {
-                c.add((E) queue[0]); // In this order, in case add() throws.
-                dequeue();
+            if ((n = size) == 0)
+                return 0;
+            if (n > maxElements) {
+                n = maxElements;
+                for (int i = 0; i < n; i++) {
+                    c.add((E) queue[0]); // In this order, in case add() throws.
+                    dequeue();
+                }
+                return n;
             }
-            return n;
+            array = queue;
+            queue = new Object[DEFAULT_INITIAL_CAPACITY];
+            size = 0;
         } finally {
             lock.unlock();
         }
+        int i = 0;
+        try {
+            Arrays.sort(array, 0, n, (Comparator<Object>) comparator);
+            for (; i < n; i++)
+                c.add((E) array[i]);
+        } finally {
+            if (i < n)      // c.add threw; put back what it did not take
+                addAll((Collection<? extends E>)
+                       Arrays.asList(array).subList(i, n));
+        }
+        return n;
     }
 
     /**
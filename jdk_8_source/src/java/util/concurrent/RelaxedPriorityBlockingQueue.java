@@ -0,0 +1,821 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An unbounded {@linkplain BlockingQueue blocking queue} of elements
+ * ordered like those of a {@link PriorityBlockingQueue}, whose retrieval
+ * operations return an element <em>near</em> the head of the queue
+ * rather than exactly the least one, so that many threads can insert and
+ * remove elements at the same time.  This suits task schedulers and
+ * similar applications, in which the order of elements of close
+ * priority matters little but a single lock would limit throughput.
+ * This class does not permit {@code null} elements, and a queue relying
+ * on {@linkplain Comparable natural ordering} does not permit insertion
+ * of non-comparable objects.  The elements must be mutually comparable,
+ * although two elements may be compared only when they are retrieved.
+ *
+ * <p>The elements are spread over several heaps, each with its own lock:
+ * twice as many as the parallelism given at construction, by default the
+ * number of available processors.  An insertion adds the element to a
+ * heap picked at random whose lock is free.  A removal picks two heaps
+ * at random and removes the head of the one whose head is less, which
+ * keeps the elements removed close to the least ones: on average, an
+ * element removed is among the first few times the number of heaps
+ * elements of the queue.  The operations {@code poll} and {@code take}
+ * only return {@code null} or wait when every heap is empty.  The
+ * methods {@code peek} and {@code size} read the heads and a counter
+ * of the elements without locking, and so are approximate while other
+ * threads modify the queue.
+ *
+ * <p>This class and its iterator implement all of the
+ * <em>optional</em> methods of the {@link Collection} and {@link
+ * Iterator} interfaces.  The iterator traverses a snapshot of the
+ * elements in no particular order, collected from one heap at a time.
+ * Method {@code drainTo} removes the elements of one heap after the
+ * other, each in priority order.
+ *
+ * <p>This class is a member of the
+ * <a href="{@docRoot}/../technotes/guides/collections/index.html">
+ * Java Collections Framework</a>.
+ *
+ * @since 1.8
+ * @param <E> the type of elements held in this collection
+ */
+@SuppressWarnings("unchecked")
+public class RelaxedPriorityBlockingQueue<E> extends AbstractQueue<E>
+    implements BlockingQueue<E>, java.io.Serializable {
+    private static final long serialVersionUID = -1928375160281447634L;
+
+    /*
+     * This is a "MultiQueue": each shard is a PriorityQueue, of arity 4
+     * to keep the heaps shallow, guarded by the shard, which is its own
+     * lock, and publishing its head in a volatile field read by
+     * removals to choose between two shards without locking either.
+     * Insertions and removals try the locks of random shards, and only
+     * block on one after failing on as many as there are shards.  A
+     * removal that finds its two shards empty or locked retries with
+     * two others, and after as many attempts as there are shards visits
+     * every shard in turn, so that it returns null only if every shard
+     * was empty when visited.
+     *
+     * Blocking removals wait on a condition of a separate lock, as in
+     * LinkedBlockingQueue, but take that lock only after a removal
+     * failed.  A waiting thread increments the volatile waiters count
+     * before removing again, and an insertion signals after writing the
+     * head of its shard if it then reads a nonzero count, so that either
+     * the waiter sees the element or the insertion sees the waiter.
+     */
+
+    /** The number of shards for each thread of parallelism */
+    private static final int SHARDS_PER_THREAD = 2;
+
+    /** The arity of the heap of each shard */
+    private static final int ARITY = 4;
+
+    /** The initial capacity of the heap of each shard */
+    private static final int INITIAL_SHARD_CAPACITY = 16;
+
+    /**
+     * The comparator, or null if priority queue uses elements'
+     * natural ordering.
+     */
+    private final Comparator<? super E> comparator;
+
+    /** The parallelism the queue was created for */
+    private final int parallelism;
+
+    /** The shards */
+    private transient Shard<E>[] shards;
+
+    /** The number of elements, updated after each shard operation */
+    private final AtomicInteger count = new AtomicInteger();
+
+    /** Lock held by take, poll(timeout), etc while waiting */
+    private final ReentrantLock takeLock = new ReentrantLock();
+
+    /** Wait queue for waiting takes */
+    private final Condition notEmpty = takeLock.newCondition();
+
+    /** The number of threads waiting on notEmpty, written under takeLock */
+    private transient volatile int waiters;
+
+    /**
+     * A heap and the lock guarding it.
+     */
+    static final class Shard<E> extends ReentrantLock {
+        private static final long serialVersionUID = 2249069246763182397L;
+
+        final PriorityQueue<E> heap;
+
+        /** The head of the heap, or null if it is empty */
+        volatile E top;
+
+        Shard(Comparator<? super E> comparator) {
+            heap = new PriorityQueue<E>(INITIAL_SHARD_CAPACITY, comparator,
+                                        ARITY);
+        }
+    }
+
+    /**
+     * Creates a {@code RelaxedPriorityBlockingQueue} for as many threads
+     * as there are available processors, that orders its elements
+     * according to their {@linkplain Comparable natural ordering}.
+     */
+    public RelaxedPriorityBlockingQueue() {
+        this(null, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a {@code RelaxedPriorityBlockingQueue} for as many threads
+     * as there are available processors, that orders its elements
+     * according to the specified comparator.
+     *
+     * @param  comparator the comparator that will be used to order this
+     *         priority queue.  If {@code null}, the {@linkplain Comparable
+     *         natural ordering} of the elements will be used.
+     */
+    public RelaxedPriorityBlockingQueue(Comparator<? super E> comparator) {
+        this(comparator, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a {@code RelaxedPriorityBlockingQueue} for the specified
+     * number of threads, that orders its elements according to the
+     * specified comparator.  The more threads, the more heaps the
+     * elements are spread over, and the further from the least elements
+     * removals may be.
+     *
+     * @param  comparator the comparator that will be used to order this
+     *         priority queue.  If {@code null}, the {@linkplain Comparable
+     *         natural ordering} of the elements will be used.
+     * @param  parallelism the number of threads expected to use the
+     *         queue at the same time
+     * @throws IllegalArgumentException if {@code parallelism} is less
+     *         than 1
+     */
+    public RelaxedPriorityBlockingQueue(Comparator<? super E> comparator,
+                                        int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException();
+        this.comparator = comparator;
+        this.parallelism = parallelism;
+        this.shards = newShards();
+    }
+
+    private Shard<E>[] newShards() {
+        int n = (int) Math.min((long) parallelism * SHARDS_PER_THREAD, 1 << 16);
+        Shard<E>[] ss = (Shard<E>[]) new Shard<?>[n];
+        for (int i = 0; i < n; i++)
+            ss[i] = new Shard<E>(comparator);
+        return ss;
+    }
+
+    private int compare(E x, E y) {
+        Comparator<? super E> cmp = comparator;
+        return (cmp == null) ? ((Comparable<? super E>) x).compareTo(y)
+            : cmp.compare(x, y);
+    }
+
+    /**
+     * Signals a waiting take. Called only from offer and addAll when
+     * there may be one.
+     */
+    private void signalNotEmpty() {
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes an element from the head of one of two shards, or of any
+     * shard after failing to, or returns null if every shard is empty.
+     */
+    private E dequeue() {
+        Shard<E>[] ss = shards;
+        int n = ss.length;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int tries = 0; tries < n && count.get() > 0; tries++) {
+            Shard<E> a = ss[random.nextInt(n)], b = ss[random.nextInt(n)];
+            E x = a.top, y = b.top;
+            if (x == null) {
+                if (y == null)
+                    continue;
+                a = b;
+            }
+            else if (y != null && compare(y, x) < 0)
+                a = b;
+            if (a.tryLock()) {
+                try {
+                    E e = a.heap.poll();
+                    if (e != null) {
+                        a.top = a.heap.peek();
+                        count.getAndDecrement();
+                        return e;
+                    }
+                } finally {
+                    a.unlock();
+                }
+            }
+        }
+        for (int k = 0, i = random.nextInt(n); k < n; k++) {
+            Shard<E> s = ss[i];
+            if (s.top != null) {
+                s.lock();
+                try {
+                    E e = s.heap.poll();
+                    if (e != null) {
+                        s.top = s.heap.peek();
+                        count.getAndDecrement();
+                        return e;
+                    }
+                } finally {
+                    s.unlock();
+                }
+            }
+            if (++i == n)
+                i = 0;
+        }
+        return null;
+    }
+
+    /**
+     * Returns a shard picked at random, locked.
+     */
+    private Shard<E> lockShard() {
+        Shard<E>[] ss = shards;
+        int n = ss.length;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int tries = 0; ; tries++) {
+            Shard<E> s = ss[random.nextInt(n)];
+            if (s.tryLock())
+                return s;
+            if (tries >= n) {
+                s.lock();
+                return s;
+            }
+        }
+    }
+
+    /**
+     * Inserts the specified element into this priority queue.
+     *
+     * @param e the element to add
+     * @return {@code true} (as specified by {@link Collection#add})
+     * @throws ClassCastException if the specified element cannot be compared
+     *         with elements currently in the priority queue according to the
+     *         priority queue's ordering
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean add(E e) {
+        return offer(e);
+    }
+
+    /**
+     * Inserts the specified element into this priority queue.
+     * As the queue is unbounded, this method will never return {@code false}.
+     *
+     * @param e the element to add
+     * @return {@code true} (as specified by {@link Queue#offer})
+     * @throws ClassCastException if the specified element cannot be compared
+     *         with elements currently in the priority queue according to the
+     *         priority queue's ordering
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E e) {
+        if (e == null)
+            throw new NullPointerException();
+        Shard<E> s = lockShard();
+        try {
+            s.heap.offer(e);
+            s.top = s.heap.peek();
+        } finally {
+            s.unlock();
+        }
+        count.getAndIncrement();
+        if (waiters > 0)
+            signalNotEmpty();
+        return true;
+    }
+
+    /**
+     * Adds all of the elements in the specified collection to this
+     * priority queue, spread in batches over the shards.
+     *
+     * @param c collection containing elements to be added to this queue
+     * @return {@code true} if this queue changed as a result of the call
+     * @throws ClassCastException if an element of the specified
+     *         collection cannot be compared with the elements of this
+     *         priority queue according to its ordering
+     * @throws NullPointerException if the specified collection or any
+     *         of its elements are null
+     * @throws IllegalArgumentException if the specified collection is
+     *         this queue
+     */
+    public boolean addAll(Collection<? extends E> c) {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] a = c.toArray();
+        int n = a.length;
+        for (int i = 0; i < n; i++)
+            if (a[i] == null)
+                throw new NullPointerException();
+        int batch = Math.max(1, (n + shards.length - 1) / shards.length);
+        for (int i = 0; i < n; i += batch) {
+            int m = Math.min(batch, n - i);
+            Shard<E> s = lockShard();
+            try {
+                s.heap.addAll((Collection<? extends E>)
+                              Arrays.asList(a).subList(i, i + m));
+                s.top = s.heap.peek();
+            } finally {
+                s.unlock();
+            }
+            count.getAndAdd(m);
+            if (waiters > 0)
+                signalNotEmpty();
+        }
+        return n > 0;
+    }
+
+    /**
+     * Inserts the specified element into this priority queue.
+     * As the queue is unbounded, this method will never block.
+     *
+     * @param e the element to add
+     * @throws ClassCastException if the specified element cannot be compared
+     *         with elements currently in the priority queue according to the
+     *         priority queue's ordering
+     * @throws NullPointerException if the specified element is null
+     */
+    public void put(E e) {
+        offer(e); // never need to block
+    }
+
+    /**
+     * Inserts the specified element into this priority queue.
+     * As the queue is unbounded, this method will never block or
+     * return {@code false}.
+     *
+     * @param e the element to add
+     * @param timeout This parameter is ignored as the method never blocks
+     * @param unit This parameter is ignored as the method never blocks
+     * @return {@code true} (as specified by
+     *  {@link BlockingQueue#offer(Object,long,TimeUnit) BlockingQueue.offer})
+     * @throws ClassCastException if the specified element cannot be compared
+     *         with elements currently in the priority queue according to the
+     *         priority queue's ordering
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E e, long timeout, TimeUnit unit) {
+        return offer(e); // never need to block
+    }
+
+    public E poll() {
+        return dequeue();
+    }
+
+    public E take() throws InterruptedException {
+        E x = dequeue();
+        if (x != null)
+            return x;
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lockInterruptibly();
+        try {
+            waiters++;
+            try {
+                while ((x = dequeue()) == null)
+                    notEmpty.await();
+            } finally {
+                waiters--;
+            }
+            if (count.get() > 0)
+                notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+        return x;
+    }
+
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E x = dequeue();
+        if (x != null)
+            return x;
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lockInterruptibly();
+        try {
+            waiters++;
+            try {
+                while ((x = dequeue()) == null && nanos > 0)
+                    nanos = notEmpty.awaitNanos(nanos);
+            } finally {
+                waiters--;
+            }
+            if (x != null && count.get() > 0)
+                notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+        return x;
+    }
+
+    /**
+     * Retrieves, but does not remove, the least of the elements at the
+     * heads of the shards, or returns {@code null} if this queue is
+     * empty.  As the heads are read without locking, the element may
+     * already have been removed by another thread.
+     *
+     * @return the head of one of the shards, or {@code null} if this
+     *         queue is empty
+     */
+    public E peek() {
+        E min = null;
+        for (Shard<E> s : shards) {
+            E x = s.top;
+            if (x != null && (min == null || compare(x, min) < 0))
+                min = x;
+        }
+        return min;
+    }
+
+    /**
+     * Returns the comparator used to order the elements in this queue,
+     * or {@code null} if this queue uses the {@linkplain Comparable
+     * natural ordering} of its elements.
+     *
+     * @return the comparator used to order the elements in this queue,
+     *         or {@code null} if this queue uses the natural
+     *         ordering of its elements
+     */
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Returns the number of elements in this queue, which is only an
+     * estimate while other threads insert or remove elements.
+     *
+     * @return the number of elements in this queue
+     */
+    public int size() {
+        return Math.max(0, count.get());
+    }
+
+    /**
+     * Always returns {@code Integer.MAX_VALUE} because
+     * a {@code RelaxedPriorityBlockingQueue} is not capacity constrained.
+     * @return {@code Integer.MAX_VALUE} always
+     */
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Removes a single instance of the specified element from this queue,
+     * if it is present.  More formally, removes an element {@code e} such
+     * that {@code o.equals(e)}, if this queue contains one or more such
+     * elements.  Returns {@code true} if and only if this queue contained
+     * the specified element (or equivalently, if this queue changed as a
+     * result of the call).
+     *
+     * @param o element to be removed from this queue, if present
+     * @return {@code true} if this queue changed as a result of the call
+     */
+    public boolean remove(Object o) {
+        if (o == null)
+            return false;
+        for (Shard<E> s : shards) {
+            s.lock();
+            try {
+                if (s.heap.remove(o)) {
+                    s.top = s.heap.peek();
+                    count.getAndDecrement();
+                    return true;
+                }
+            } finally {
+                s.unlock();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Identity-based version for use in Itr.remove
+     */
+    void removeEQ(Object o) {
+        for (Shard<E> s : shards) {
+            s.lock();
+            try {
+                for (Iterator<E> it = s.heap.iterator(); it.hasNext(); ) {
+                    if (it.next() == o) {
+                        it.remove();
+                        s.top = s.heap.peek();
+                        count.getAndDecrement();
+                        return;
+                    }
+                }
+            } finally {
+                s.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if this queue contains the specified element.
+     * More formally, returns {@code true} if and only if this queue contains
+     * at least one element {@code e} such that {@code o.equals(e)}.
+     *
+     * @param o object to be checked for containment in this queue
+     * @return {@code true} if this queue contains the specified element
+     */
+    public boolean contains(Object o) {
+        if (o == null)
+            return false;
+        for (Shard<E> s : shards) {
+            s.lock();
+            try {
+                if (s.heap.contains(o))
+                    return true;
+            } finally {
+                s.unlock();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns an array containing all of the elements in this queue,
+     * collected from one shard at a time.  The returned array elements
+     * are in no particular order.
+     *
+     * <p>The returned array will be "safe" in that no references to it are
+     * maintained by this queue.  (In other words, this method must allocate
+     * a new array).  The caller is thus free to modify the returned array.
+     *
+     * <p>This method acts as bridge between array-based and collection-based
+     * APIs.
+     *
+     * @return an array containing all of the elements in this queue
+     */
+    public Object[] toArray() {
+        ArrayList<Object> list = new ArrayList<Object>(size());
+        for (Shard<E> s : shards) {
+            s.lock();
+            try {
+                list.addAll(s.heap);
+            } finally {
+                s.unlock();
+            }
+        }
+        return list.toArray();
+    }
+
+    /**
+     * Returns an array containing all of the elements in this queue; the
+     * runtime type of the returned array is that of the specified array.
+     * The returned array elements are in no particular order.
+     * If the queue fits in the specified array, it is returned therein.
+     * Otherwise, a new array is allocated with the runtime type of the
+     * specified array and the size of this queue.
+     *
+     * <p>If this queue fits in the specified array with room to spare
+     * (i.e., the array has more elements than this queue), the element in
+     * the array immediately following the end of the queue is set to
+     * {@code null}.
+     *
+     * @param a the array into which the elements of the queue are to
+     *          be stored, if it is big enough; otherwise, a new array of the
+     *          same runtime type is allocated for this purpose
+     * @return an array containing all of the elements in this queue
+     * @throws ArrayStoreException if the runtime type of the specified array
+     *         is not a supertype of the runtime type of every element in
+     *         this queue
+     * @throws NullPointerException if the specified array is null
+     */
+    public <T> T[] toArray(T[] a) {
+        Object[] array = toArray();
+        int n = array.length;
+        if (a.length < n)
+            return (T[]) Arrays.copyOf(array, n, a.getClass());
+        System.arraycopy(array, 0, a, 0, n);
+        if (a.length > n)
+            a[n] = null;
+        return a;
+    }
+
+    /**
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     */
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes at most the given number of available elements from this
+     * queue and adds them to the given collection, taking them from one
+     * shard after the other, each in priority order.
+     *
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     */
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this)
+            throw new IllegalArgumentException();
+        Shard<E>[] ss = shards;
+        int n = ss.length, drained = 0;
+        for (int k = 0, i = ThreadLocalRandom.current().nextInt(n);
+             k < n && drained < maxElements; k++) {
+            Shard<E> s = ss[i];
+            if (s.top != null) {
+                s.lock();
+                int before = s.heap.size();
+                try {
+                    s.heap.drainTo(c, maxElements - drained);
+                } finally {
+                    int m = before - s.heap.size();
+                    s.top = s.heap.peek();
+                    s.unlock();
+                    count.getAndAdd(-m);
+                    drained += m;
+                }
+            }
+            if (++i == n)
+                i = 0;
+        }
+        return drained;
+    }
+
+    /**
+     * Removes all of the elements from this queue, clearing one shard
+     * at a time.
+     */
+    public void clear() {
+        for (Shard<E> s : shards) {
+            s.lock();
+            try {
+                int m = s.heap.size();
+                s.heap.clear();
+                s.top = null;
+                count.getAndAdd(-m);
+            } finally {
+                s.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements in this queue. The
+     * iterator does not return the elements in any particular order.
+     *
+     * <p>The returned iterator is
+     * <a href="package-summary.html#Weakly"><i>weakly consistent</i></a>.
+     *
+     * @return an iterator over the elements in this queue
+     */
+    public Iterator<E> iterator() {
+        return new Itr(toArray());
+    }
+
+    /**
+     * Snapshot iterator that works off copy of the elements.
+     */
+    final class Itr implements Iterator<E> {
+        final Object[] array; // Array of all elements
+        int cursor;           // index of next element to return
+        int lastRet;          // index of last element, or -1 if no such
+
+        Itr(Object[] array) {
+            lastRet = -1;
+            this.array = array;
+        }
+
+        public boolean hasNext() {
+            return cursor < array.length;
+        }
+
+        public E next() {
+            if (cursor >= array.length)
+                throw new NoSuchElementException();
+            lastRet = cursor;
+            return (E)array[cursor++];
+        }
+
+        public void remove() {
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            removeEQ(array[lastRet]);
+            lastRet = -1;
+        }
+    }
+
+    /**
+     * Returns a {@link Spliterator} over a snapshot of the elements in
+     * this queue, taken when this method is called.
+     *
+     * <p>The {@code Spliterator} reports {@link Spliterator#SIZED},
+     * {@link Spliterator#SUBSIZED} and {@link Spliterator#NONNULL}.
+     *
+     * @return a {@code Spliterator} over the elements in this queue
+     */
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(toArray(), Spliterator.NONNULL);
+    }
+
+    /**
+     * Saves this queue to a stream (that is, serializes it).
+     *
+     * @serialData The comparator and parallelism are emitted, followed
+     *             by each element (each an {@code Object}), in no
+     *             particular order, and a trailing {@code null}.
+     * @param s the stream
+     * @throws java.io.IOException if an I/O error occurs
+     */
+    private void writeObject(java.io.ObjectOutputStream s)
+        throws java.io.IOException {
+        // Write out any hidden stuff, plus comparator and parallelism
+        s.defaultWriteObject();
+
+        for (Object e : toArray())
+            s.writeObject(e);
+
+        // Use trailing null as sentinel
+        s.writeObject(null);
+    }
+
+    /**
+     * Reconstitutes this queue from a stream (that is, deserializes it).
+     * @param s the stream
+     * @throws ClassNotFoundException if the class of a serialized object
+     *         could not be found
+     * @throws java.io.IOException if an I/O error occurs
+     */
+    private void readObject(java.io.ObjectInputStream s)
+        throws java.io.IOException, ClassNotFoundException {
+        // Read in comparator and parallelism, and any hidden stuff
+        s.defaultReadObject();
+        if (parallelism < 1)
+            throw new java.io.InvalidObjectException("parallelism < 1");
+
+        count.set(0);
+        shards = newShards();
+
+        // Read in all elements and place in queue
+        for (;;) {
+            E item = (E)s.readObject();
+            if (item == null)
+                break;
+            add(item);
+        }
+    }
+}
@@ -0,0 +1,811 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A bounded {@linkplain BlockingQueue blocking queue} backed by a ring
+ * of array slots that producers and consumers claim without locking.
+ * This queue orders elements FIFO (first-in-first-out).  The
+ * <em>head</em> of the queue is that element that has been on the
+ * queue the longest time.  The <em>tail</em> of the queue is that
+ * element that has been on the queue the shortest time.
+ *
+ * <p>Unlike {@link ArrayBlockingQueue} and {@link LinkedBlockingQueue},
+ * whose every insertion and removal acquires a {@code ReentrantLock},
+ * {@code offer} and {@code poll} here are a single CAS on the tail or
+ * head counter plus a release of the claimed slot, and allocate
+ * nothing.  A lock is used only to park threads that {@code put} into a
+ * full queue or {@code take} from an empty one, and producers and
+ * consumers touch it only when such a thread is actually waiting.  This
+ * makes the class suitable as a {@link ThreadPoolExecutor} work queue
+ * fed by many submitting threads.
+ *
+ * <p>Because slots are claimed before they are filled, an element whose
+ * producer has claimed a slot but not yet published into it is not yet
+ * visible to consumers, and may hold back elements published behind it
+ * for that short window.  Removing an element from the interior of the
+ * queue by {@link #remove(Object)} or by an iterator moves the elements
+ * behind it up, as in {@link ArrayBlockingQueue}, so that its slot is
+ * freed at once; producers and consumers wait for the move to finish.
+ * Interior removal is intended for rare operations such as
+ * {@link ThreadPoolExecutor#remove} and {@link ThreadPoolExecutor#purge}.
+ *
+ * <p>The Iterator provided in method {@link #iterator()} traverses a
+ * snapshot of the elements taken when it is created, in proper order.
+ * This class and its iterator implement all of the <em>optional</em>
+ * methods of the {@link Collection} and {@link Iterator} interfaces.
+ *
+ * @since 1.8
+ * @param <E> the type of elements held in this collection
+ */
+public class RingBufferBlockingQueue<E> extends AbstractQueue<E>
+        implements BlockingQueue<E>, java.io.Serializable {
+
+    private static final long serialVersionUID = -3302646583517421650L;
+
+    /*
+     * Each slot i carries a sequence number alongside its item.  A
+     * slot is free for the producer of position p (p % capacity == i)
+     * when its sequence equals 2p, and holds a published element for
+     * the consumer of position p when its sequence equals 2p + 1; the
+     * consumer releases it for the next lap by setting it to
+     * 2(p + capacity).  (Doubling keeps "published" and "free for the
+     * next lap" distinct even for a capacity of one.)  Producers and
+     * consumers claim positions by CASing tail and head respectively,
+     * so each party only ever waits on the one slot it claimed.
+     *
+     * Interior removal, snapshots and drainTo need the elements to stay
+     * put.
+     * Holding the lock, they freeze head and tail by setting their sign
+     * bit (FROZEN), which fails the CAS of any producer or consumer that
+     * has not yet claimed a position; such threads then wait on the lock
+     * (awaitThaw).  Once the producers that did claim a position have
+     * published it, the slots between head and tail can be read and
+     * moved with plain accesses, and writing head and tail back
+     * publishes the result.  Threads that hold the lock never see a
+     * frozen queue.
+     *
+     * Blocking uses a lock and two conditions, touched only on slow
+     * paths.  A waiter registers in takeWaiters/putWaiters (volatile)
+     * before re-checking the queue; a successful offer/poll publishes
+     * its slot with a volatile write before reading the waiter count,
+     * so either the waiter sees the element or the other party sees
+     * the waiter and signals under the lock.
+     */
+
+    /** The queued items */
+    transient Object[] items;
+
+    /** Per-slot sequence numbers, see above */
+    transient long[] sequences;
+
+    /** The capacity of the queue */
+    private final int capacity;
+
+    /** Next position to take; CASed by consumers */
+    @sun.misc.Contended("head")
+    private transient volatile long head;
+
+    /** Next position to fill; CASed by producers */
+    @sun.misc.Contended("tail")
+    private transient volatile long tail;
+
+    /** Lock held only by waiting threads and by those signalling them */
+    final ReentrantLock lock;
+
+    /** Condition for waiting takes */
+    private final Condition notEmpty;
+
+    /** Condition for waiting puts */
+    private final Condition notFull;
+
+    /** Number of threads waiting in take/poll; written under lock */
+    private transient volatile int takeWaiters;
+
+    /** Number of threads waiting in put/offer; written under lock */
+    private transient volatile int putWaiters;
+
+    /** Bit set in head and tail while a removal or snapshot moves slots */
+    private static final long FROZEN = Long.MIN_VALUE;
+
+    /**
+     * Creates a {@code RingBufferBlockingQueue} with the given (fixed)
+     * capacity.
+     *
+     * @param capacity the capacity of this queue
+     * @throws IllegalArgumentException if {@code capacity < 1}
+     */
+    public RingBufferBlockingQueue(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException();
+        this.capacity = capacity;
+        this.items = new Object[capacity];
+        this.sequences = new long[capacity];
+        for (int i = 0; i < capacity; ++i)
+            sequences[i] = (long)i << 1;
+        lock = new ReentrantLock();
+        notEmpty = lock.newCondition();
+        notFull =  lock.newCondition();
+    }
+
+    /**
+     * Creates a {@code RingBufferBlockingQueue} with the given (fixed)
+     * capacity, initially containing the elements of the given
+     * collection, added in traversal order of the collection's iterator.
+     *
+     * @param capacity the capacity of this queue
+     * @param c the collection of elements to initially contain
+     * @throws IllegalArgumentException if {@code capacity} is less than
+     *         {@code c.size()}, or less than 1.
+     * @throws NullPointerException if the specified collection or any
+     *         of its elements are null
+     */
+    public RingBufferBlockingQueue(int capacity, Collection<? extends E> c) {
+        this(capacity);
+        for (E e : c) {
+            if (!offer(e))
+                throw new IllegalArgumentException();
+        }
+    }
+
+    private static int index(long pos, int capacity) {
+        return (int)(pos % capacity);
+    }
+
+    /**
+     * Tries to claim and fill the tail slot.
+     *
+     * @return true if inserted, false if the queue is full
+     */
+    private boolean tryEnqueue(E e) {
+        final long[] seqs = sequences;
+        final int cap = capacity;
+        for (;;) {
+            long t = tail;
+            if (t < 0) {
+                awaitThaw();
+                continue;
+            }
+            int i = index(t, cap);
+            long dif = U.getLongVolatile(seqs, seqOffset(i)) - (t << 1);
+            if (dif == 0) {
+                if (U.compareAndSwapLong(this, TAIL, t, t + 1)) {
+                    U.putOrderedObject(items, itemOffset(i), e);
+                    U.putLongVolatile(seqs, seqOffset(i), (t << 1) + 1);
+                    return true;
+                }
+            }
+            else if (dif < 0) {
+                // slot not yet released by the consumer one lap back
+                if (t == tail)
+                    return false;
+            }
+            // else lost race with another producer; retry
+        }
+    }
+
+    /**
+     * Tries to claim and empty the head slot.
+     *
+     * @return the element, or null if none is available
+     */
+    @SuppressWarnings("unchecked")
+    private E tryDequeue() {
+        final long[] seqs = sequences;
+        final int cap = capacity;
+        for (;;) {
+            long h = head;
+            if (h < 0) {
+                awaitThaw();
+                continue;
+            }
+            int i = index(h, cap);
+            long dif = U.getLongVolatile(seqs, seqOffset(i)) - ((h << 1) + 1);
+            if (dif == 0) {
+                if (U.compareAndSwapLong(this, HEAD, h, h + 1)) {
+                    long off = itemOffset(i);
+                    Object x = U.getObject(items, off);
+                    U.putObject(items, off, null);
+                    U.putLongVolatile(seqs, seqOffset(i), (h + cap) << 1);
+                    if (putWaiters != 0)
+                        signalNotFull();
+                    return (E)x;
+                }
+            }
+            else if (dif < 0) {
+                // empty, or the producer has yet to publish
+                if (h == head)
+                    return null;
+            }
+            // else lost race with another consumer; retry
+        }
+    }
+
+    /**
+     * Waits until a removal or snapshot in progress has restored head
+     * and tail.  Called only when one of them was seen frozen, which
+     * can only happen while another thread holds the lock.
+     */
+    private void awaitThaw() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        lock.unlock();
+    }
+
+    /**
+     * Sets the FROZEN bit of head or tail, so that no producer or
+     * consumer can claim a position until thaw.  Called with lock held.
+     *
+     * @return the position before freezing
+     */
+    private long freeze(long offset) {
+        for (;;) {
+            long v = U.getLongVolatile(this, offset);
+            if (U.compareAndSwapLong(this, offset, v, v | FROZEN))
+                return v;
+        }
+    }
+
+    /**
+     * Waits until the producers that claimed the positions between
+     * {@code h} and {@code t} have published them.  Called with head
+     * and tail frozen.
+     */
+    private void awaitPublished(long h, long t) {
+        final long[] seqs = sequences;
+        for (long p = h; p < t; ++p) {
+            int i = index(p, capacity);
+            while (U.getLongVolatile(seqs, seqOffset(i)) != (p << 1) + 1)
+                Thread.yield();
+        }
+    }
+
+    /**
+     * Restores head and tail after a freeze, publishing any slots moved
+     * meanwhile.
+     */
+    private void thaw(long h, long t) {
+        tail = t;
+        head = h;
+    }
+
+    /**
+     * Wakes up a thread waiting in take.  Called only when
+     * {@code takeWaiters} was seen nonzero.
+     */
+    private void signalNotEmpty() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes up a thread waiting in put.  Called only when
+     * {@code putWaiters} was seen nonzero.
+     */
+    private void signalNotFull() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            notFull.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue if it is
+     * possible to do so immediately without exceeding the queue's
+     * capacity, returning {@code true} upon success and throwing an
+     * {@code IllegalStateException} if this queue is full.
+     *
+     * @param e the element to add
+     * @return {@code true} (as specified by {@link Collection#add})
+     * @throws IllegalStateException if this queue is full
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean add(E e) {
+        return super.add(e);
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue if it is
+     * possible to do so immediately without exceeding the queue's
+     * capacity, returning {@code true} upon success and {@code false} if
+     * this queue is full.  This method is generally preferable to method
+     * {@link #add}, which can fail to insert an element only by throwing
+     * an exception.
+     *
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E e) {
+        if (e == null) throw new NullPointerException();
+        if (!tryEnqueue(e))
+            return false;
+        if (takeWaiters != 0)
+            signalNotEmpty();
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue, waiting
+     * for space to become available if the queue is full.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     */
+    public void put(E e) throws InterruptedException {
+        if (offer(e))
+            return;
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            ++putWaiters;
+            try {
+                while (!tryEnqueue(e))
+                    notFull.await();
+            } finally {
+                --putWaiters;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (takeWaiters != 0)
+            signalNotEmpty();
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue, waiting
+     * up to the specified wait time for space to become available if
+     * the queue is full.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     */
+    public boolean offer(E e, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        if (offer(e))
+            return true;
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            ++putWaiters;
+            try {
+                while (!tryEnqueue(e)) {
+                    if (nanos <= 0)
+                        return false;
+                    nanos = notFull.awaitNanos(nanos);
+                }
+            } finally {
+                --putWaiters;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (takeWaiters != 0)
+            signalNotEmpty();
+        return true;
+    }
+
+    public E poll() {
+        return tryDequeue();
+    }
+
+    public E take() throws InterruptedException {
+        E x;
+        if ((x = tryDequeue()) != null)
+            return x;
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            ++takeWaiters;
+            try {
+                while ((x = tryDequeue()) == null)
+                    notEmpty.await();
+            } finally {
+                --takeWaiters;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return x;
+    }
+
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E x;
+        if ((x = tryDequeue()) != null)
+            return x;
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            ++takeWaiters;
+            try {
+                while ((x = tryDequeue()) == null) {
+                    if (nanos <= 0)
+                        return null;
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+            } finally {
+                --takeWaiters;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return x;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        final long[] seqs = sequences;
+        final int cap = capacity;
+        for (;;) {
+            long h = head;
+            if (h < 0) {
+                awaitThaw();
+                continue;
+            }
+            int i = index(h, cap);
+            long seq = U.getLongVolatile(seqs, seqOffset(i));
+            if (seq == (h << 1) + 1) {
+                Object x = U.getObjectVolatile(items, itemOffset(i));
+                if (x != null && U.getLongVolatile(seqs, seqOffset(i)) == seq)
+                    return (E)x;
+                // consumed meanwhile; retry
+            }
+            else if (seq < (h << 1) + 1) // empty, or not yet published
+                return null;
+            // else consumed meanwhile; retry
+        }
+    }
+
+    /**
+     * Returns the number of claimed slots in this queue.  The value
+     * includes elements whose producers have not yet published them,
+     * and is only a snapshot under concurrent use.
+     *
+     * @return the number of elements in this queue
+     */
+    public int size() {
+        long h = head & ~FROZEN, t = tail & ~FROZEN;
+        long n = t - h;
+        return (n <= 0) ? 0 : (n >= capacity) ? capacity : (int)n;
+    }
+
+    /**
+     * Returns {@code true} if no slot is claimed.  Slots that are still
+     * being filled count as occupied, so a {@code false} result is
+     * conservative.
+     */
+    public boolean isEmpty() {
+        return (tail & ~FROZEN) == (head & ~FROZEN);
+    }
+
+    /**
+     * Returns the number of additional elements that this queue can
+     * ideally (in the absence of memory or resource constraints) accept
+     * without blocking.  This is always equal to the initial capacity of
+     * this queue less the current {@code size} of this queue.
+     */
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    /**
+     * Removes a single instance of the specified element from this
+     * queue, if it is present.  The elements behind it are moved up, so
+     * that its slot is released immediately.
+     *
+     * @param o element to be removed from this queue, if present
+     * @return {@code true} if this queue changed as a result of the call
+     */
+    public boolean remove(Object o) {
+        return o != null && removeMatching(o, false);
+    }
+
+    /**
+     * Identity-based version for use in Itr.remove.
+     */
+    void removeEQ(Object o) {
+        removeMatching(o, true);
+    }
+
+    /**
+     * Removes the first element equal, or identical, to {@code o} by
+     * moving the elements behind it up one position and giving the
+     * freed last slot back to producers.
+     */
+    private boolean removeMatching(Object o, boolean identity) {
+        final Object[] items = this.items;
+        final long[] seqs = sequences;
+        final int cap = capacity;
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            long t = freeze(TAIL);
+            long h = freeze(HEAD);
+            try {
+                awaitPublished(h, t);
+                for (long p = h; p < t; ++p) {
+                    Object x = items[index(p, cap)];
+                    if (identity ? o == x : o.equals(x)) {
+                        for (long q = p + 1; q < t; ++q)
+                            items[index(q - 1, cap)] = items[index(q, cap)];
+                        int last = index(--t, cap);
+                        items[last] = null;
+                        seqs[last] = t << 1;
+                        if (putWaiters != 0)
+                            notFull.signal();
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                thaw(h, t);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Atomically removes all of the elements from this queue.  Elements
+     * inserted concurrently may or may not be removed.
+     */
+    public void clear() {
+        while (tryDequeue() != null)
+            ;
+    }
+
+    /**
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     */
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this)
+            throw new IllegalArgumentException();
+        if (maxElements <= 0)
+            return 0;
+        final Object[] items = this.items;
+        final long[] seqs = sequences;
+        final int cap = capacity;
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            // An element leaves the queue only once c has taken it
+            long t = freeze(TAIL);
+            long h = freeze(HEAD);
+            long p = h;
+            try {
+                long end = Math.min(t, h + maxElements);
+                awaitPublished(h, end);
+                for (; p < end; ++p) {
+                    int i = index(p, cap);
+                    c.add((E)items[i]);
+                    items[i] = null;
+                    seqs[i] = (p + cap) << 1;
+                }
+                return (int)(p - h);
+            } finally {
+                thaw(p, t);
+                if (p > h && putWaiters != 0)
+                    notFull.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns an array containing all of the elements in this queue, in
+     * proper sequence.
+     *
+     * <p>The returned array will be "safe" in that no references to it
+     * are maintained by this queue.  (In other words, this method must
+     * allocate a new array).  The caller is thus free to modify the
+     * returned array.
+     *
+     * <p>This method acts as bridge between array-based and
+     * collection-based APIs.
+     *
+     * @return an array containing all of the elements in this queue
+     */
+    public Object[] toArray() {
+        final Object[] items = this.items;
+        final int cap = capacity;
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            long t = freeze(TAIL);
+            long h = freeze(HEAD);
+            try {
+                awaitPublished(h, t);
+                Object[] a = new Object[(int)(t - h)];
+                for (int k = 0; k < a.length; ++k)
+                    a[k] = items[index(h + k, cap)];
+                return a;
+            } finally {
+                thaw(h, t);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements in this queue in proper
+     * sequence.  The elements will be returned in order from first
+     * (head) to last (tail).
+     *
+     * <p>The returned iterator is a "snapshot" iterator that relies upon
+     * a copy of the elements taken when it is created, and so never
+     * reflects later insertions or removals.
+     *
+     * @return an iterator over the elements in this queue in proper sequence
+     */
+    public Iterator<E> iterator() {
+        return new Itr(toArray());
+    }
+
+    /**
+     * Snapshot iterator that works off copy of underlying q array.
+     */
+    final class Itr implements Iterator<E> {
+        final Object[] array; // Array of all elements
+        int cursor;           // index of next element to return
+        int lastRet;          // index of last element, or -1 if no such
+
+        Itr(Object[] array) {
+            lastRet = -1;
+            this.array = array;
+        }
+
+        public boolean hasNext() {
+            return cursor < array.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (cursor >= array.length)
+                throw new NoSuchElementException();
+            lastRet = cursor;
+            return (E)array[cursor++];
+        }
+
+        public void remove() {
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            removeEQ(array[lastRet]);
+            lastRet = -1;
+        }
+    }
+
+    /**
+     * Saves this queue to a stream (that is, serializes it).
+     *
+     * @param s the stream
+     * @throws java.io.IOException if an I/O error occurs
+     * @serialData The capacity is emitted (int), followed by all of
+     * its elements (each an {@code Object}) in the proper order,
+     * followed by a null
+     */
+    private void writeObject(java.io.ObjectOutputStream s)
+        throws java.io.IOException {
+        s.defaultWriteObject();
+        for (E e : this)
+            s.writeObject(e);
+        s.writeObject(null);
+    }
+
+    /**
+     * Reconstitutes this queue from a stream (that is, deserializes it).
+     * @param s the stream
+     * @throws ClassNotFoundException if the class of a serialized object
+     *         could not be found
+     * @throws java.io.IOException if an I/O error occurs
+     */
+    private void readObject(java.io.ObjectInputStream s)
+        throws java.io.IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        if (capacity <= 0)
+            throw new java.io.InvalidObjectException("invalid capacity");
+        items = new Object[capacity];
+        sequences = new long[capacity];
+        for (int i = 0; i < capacity; ++i)
+            sequences[i] = (long)i << 1;
+        for (;;) {
+            @SuppressWarnings("unchecked")
+            E item = (E)s.readObject();
+            if (item == null)
+                break;
+            if (!offer(item))
+                throw new java.io.InvalidObjectException("too many elements");
+        }
+    }
+
+    private static long seqOffset(int i) {
+        return ((long)i << LSHIFT) + LBASE;
+    }
+
+    private static long itemOffset(int i) {
+        return ((long)i << ASHIFT) + ABASE;
+    }
+
+    // Unsafe mechanics
+    private static final sun.misc.Unsafe U;
+    private static final long HEAD;
+    private static final long TAIL;
+    private static final long ABASE;
+    private static final int ASHIFT;
+    private static final long LBASE;
+    private static final int LSHIFT;
+    static {
+        try {
+            U = sun.misc.Unsafe.getUnsafe();
+            Class<?> k = RingBufferBlockingQueue.class;
+            HEAD = U.objectFieldOffset(k.getDeclaredField("head"));
+            TAIL = U.objectFieldOffset(k.getDeclaredField("tail"));
+            ABASE = U.arrayBaseOffset(Object[].class);
+            int scale = U.arrayIndexScale(Object[].class);
+            if ((scale & (scale - 1)) != 0)
+                throw new Error("data type scale not a power of two");
+            ASHIFT = 31 - Integer.numberOfLeadingZeros(scale);
+            LBASE = U.arrayBaseOffset(long[].class);
+            scale = U.arrayIndexScale(long[].class);
+            if ((scale & (scale - 1)) != 0)
+                throw new Error("data type scale not a power of two");
+            LSHIFT = 31 - Integer.numberOfLeadingZeros(scale);
+        } catch (Exception e) {
+            throw new Error(e);
+        }
+    }
+}
@@ -48,6 +48,17 @@ import java.util.concurrent.locks.ReentrantLock;
  * causes tasks to be immediately removed from the work queue at
  * time of cancellation.
  *
+ * <p>By default delayed tasks are held in a binary heap, so that
+ * scheduling and cancelling a task take time logarithmic in the
+ * number of pending tasks. Executors that keep very large numbers of
+ * pending timeouts, most of which are cancelled before they expire,
+ * may instead be constructed with a tick duration, in which case
+ * tasks are held in a hashed hierarchical timing wheel that schedules
+ * and removes tasks in constant time and moves whole buckets of
+ * tasks towards execution as time advances. Tasks are still enabled
+ * no sooner than their delay, and in the same order, whichever queue
+ * is used.
+ *
  *
  * <p>Successive executions of a task scheduled via
  * {@code scheduleAtFixedRate} or
@@ -211,9 +222,14 @@ public class ScheduledThreadPoolExecutor
 
         /**
          * Index into delay queue, to support faster cancellation.
+         * A TimerWheelWorkQueue only distinguishes queued (0) from
+         * removed (-1), and keeps the position in wheelNode instead.
          */
         int heapIndex;
 
+        /** Wheel entry while held by a TimerWheelWorkQueue, else null */
+        TimerWheelWorkQueue.Node wheelNode;
+
         /**
          * Creates a one-shot action with given nanoTime-based trigger time.
          */
@@ -516,6 +532,41 @@ public class ScheduledThreadPoolExecutor
               new DelayedWorkQueue(), threadFactory, handler);
     }
 
+    /**
+     * Creates a new ScheduledThreadPoolExecutor with the given
+     * initial parameters, holding delayed tasks in a hierarchical
+     * timing wheel rather than a binary heap. The wheel schedules and
+     * removes tasks (see {@link #setRemoveOnCancelPolicy}) in constant
+     * time, which pays off when many tasks are pending at once. The
+     * tick duration only controls how finely pending tasks are
+     * bucketed: tasks become eligible for execution at their exact
+     * trigger time, as with the other constructors. It is rounded up
+     * to a power of two nanoseconds.
+     *
+     * @param corePoolSize the number of threads to keep in the pool, even
+     *        if they are idle, unless {@code allowCoreThreadTimeOut} is set
+     * @param threadFactory the factory to use when the executor
+     *        creates a new thread
+     * @param handler the handler to use when execution is blocked
+     *        because the thread bounds and queue capacities are reached
+     * @param tickDuration the granularity of the timing wheel
+     * @param unit the time unit of the {@code tickDuration} argument
+     * @throws IllegalArgumentException if {@code corePoolSize < 0}
+     *         or {@code tickDuration <= 0}
+     * @throws NullPointerException if {@code threadFactory},
+     *         {@code handler} or {@code unit} is null
+     * @since 1.8
+     */
+    public ScheduledThreadPoolExecutor(int corePoolSize,
+                                       ThreadFactory threadFactory,
+                                       RejectedExecutionHandler handler,
+                                       long tickDuration,
+                                       TimeUnit unit) {
+        super(corePoolSize, Integer.MAX_VALUE, 0, NANOSECONDS,
+              new TimerWheelWorkQueue(unit.toNanos(tickDuration)),
+              threadFactory, handler);
+    }
+
     /**
      * Returns the trigger time of a delayed action.
      */
@@ -1311,4 +1362,698 @@ public class ScheduledThreadPoolExecutor
             }
         }
     }
+
+    /**
+     * Delay queue backed by a hashed hierarchical timing wheel, used
+     * in place of DelayedWorkQueue by executors constructed with a
+     * tick duration. Like DelayedWorkQueue, it is declared as a
+     * BlockingQueue<Runnable> but only holds RunnableScheduledFutures.
+     */
+    static class TimerWheelWorkQueue extends AbstractQueue<Runnable>
+        implements BlockingQueue<Runnable> {
+
+        /*
+         * Time is divided into ticks of 2^tickShift nanoseconds,
+         * counted from the creation of the queue. The wheel has one
+         * level of 64 buckets per 6 bits of tick number, enough
+         * levels to cover all 64-bit nanoTime offsets. A task due at
+         * tick t while the wheel is at tick c >= t is "ready";
+         * otherwise it is linked into level L = (highest bit in which
+         * t and c differ) / 6, bucket (t >>> 6L) & 63. Its position
+         * at that level is thus between 1 and 63 buckets ahead of the
+         * current one, and a bucket is reconsidered exactly when the
+         * wheel's tick count at that level reaches it. Insertion and
+         * removal are constant time: buckets are doubly linked lists
+         * of Nodes, and ScheduledFutureTasks record their Node in
+         * wheelNode, much as DelayedWorkQueue uses heapIndex. Other
+         * kinds of RunnableScheduledFutures fall back to linear
+         * search on removal.
+         *
+         * The wheel is advanced lazily, under the lock, by polling
+         * threads. Offers place tasks relative to the possibly stale
+         * current tick, which avoids reading the clock and is safe
+         * since buckets are only ever visited relative to it. Each
+         * passed bucket is detached as a whole and its nodes are
+         * placed again relative to the new tick, which moves them
+         * either to a lower level or, once their tick has been
+         * reached, into the ready heap. The ready heap orders tasks
+         * by compareTo, so tasks are never handed out before their
+         * exact trigger time nor out of order; as nodes left in the
+         * wheel are due after the ready ones, the heap only holds
+         * about a tick's worth of tasks. Re-placing a node is
+         * idempotent, so a node that lands again in a bucket that is
+         * still to be visited during the same advance is harmless.
+         *
+         * Waiting uses the same leader-follower scheme as
+         * DelayedWorkQueue. When the ready heap is empty the leader
+         * sleeps until the nearest occupied bucket is due, found from
+         * per-level occupancy bitmaps. Offers only signal when the
+         * queue was empty or the new task's bucket is due before the
+         * leader intends to wake up; otherwise any waiting thread will
+         * be signalled by the leader as usual.
+         */
+
+        private static final int WHEEL_BITS = 6;
+        private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+        private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+        /** Node.slot values for nodes that are not in a bucket */
+        private static final int READY = -1;
+        private static final int DETACHED = -2;
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        /**
+         * A queued task. slot is the bucket index (level << 6 | bucket)
+         * while linked into the wheel, READY while index is its
+         * position in the ready heap, and DETACHED once removed.
+         */
+        static final class Node {
+            final TimerWheelWorkQueue queue;
+            final RunnableScheduledFuture<?> task;
+            final long time;
+            Node prev, next;
+            int slot;
+            int index;
+
+            Node(TimerWheelWorkQueue queue, RunnableScheduledFuture<?> task,
+                 long time) {
+                this.queue = queue;
+                this.task = task;
+                this.time = time;
+            }
+        }
+
+        private final int tickShift;
+        private final long origin;
+        private final Node[] buckets;
+        private final long[] occupied;
+        private long currentTick;
+        private Node[] ready = new Node[INITIAL_CAPACITY];
+        private int readySize;
+        private int size;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /** Thread designated to wait for the next task, as in DelayedWorkQueue */
+        private Thread leader = null;
+
+        /** The nanoTime the leader is waiting for */
+        private long leaderDeadline;
+
+        /**
+         * Condition signalled when an earlier task becomes available
+         * or a new thread may need to become leader.
+         */
+        private final Condition available = lock.newCondition();
+
+        TimerWheelWorkQueue(long tickNanos) {
+            if (tickNanos <= 0)
+                throw new IllegalArgumentException();
+            int shift = 64 - Long.numberOfLeadingZeros(tickNanos - 1);
+            // keep tick numbers positive, and ticks below ~18 minutes
+            tickShift = Math.max(1, Math.min(shift, 40));
+            int levels = (64 - tickShift + WHEEL_BITS - 1) / WHEEL_BITS;
+            buckets = new Node[levels << WHEEL_BITS];
+            occupied = new long[levels];
+            origin = System.nanoTime();
+        }
+
+        /**
+         * Records n as f's node if f is a ScheduledFutureTask.
+         */
+        private static void setNode(RunnableScheduledFuture<?> f, Node n) {
+            if (f instanceof ScheduledFutureTask) {
+                ScheduledFutureTask<?> t = (ScheduledFutureTask<?>)f;
+                t.wheelNode = n;
+                t.heapIndex = (n == null) ? -1 : 0;
+            }
+        }
+
+        /**
+         * Links n into the ready heap or the wheel, relative to
+         * currentTick. Call only when holding lock.
+         *
+         * @return the nanoTime at which n may become ready
+         */
+        private long place(Node n) {
+            long d = n.time - (origin + (currentTick << tickShift));
+            if (d < (1L << tickShift)) {
+                // also taken by (absurdly) distant times wrapping negative
+                readyOffer(n);
+                return n.time;
+            }
+            long t = currentTick + (d >>> tickShift);
+            int level = (63 - Long.numberOfLeadingZeros(t ^ currentTick))
+                / WHEEL_BITS;
+            int shift = level * WHEEL_BITS;
+            int bucket = (int)(t >>> shift) & WHEEL_MASK;
+            int s = (level << WHEEL_BITS) | bucket;
+            Node head = buckets[s];
+            n.prev = null;
+            n.next = head;
+            if (head != null)
+                head.prev = n;
+            buckets[s] = n;
+            n.slot = s;
+            occupied[level] |= 1L << bucket;
+            long fire = (t >>> shift) << shift;
+            return (fire > (Long.MAX_VALUE >>> tickShift)) ? n.time :
+                origin + (fire << tickShift);
+        }
+
+        /**
+         * Returns nanos from now until the start of the given tick.
+         */
+        private long delayUntilTick(long tick, long now) {
+            if (tick > (Long.MAX_VALUE >>> tickShift))
+                return Long.MAX_VALUE;
+            return (tick << tickShift) - (now - origin);
+        }
+
+        /**
+         * Moves the wheel up to the tick containing now, re-placing
+         * the nodes of every bucket passed. Call only when holding lock.
+         */
+        private void advance(long now) {
+            long c = currentTick;
+            long t = (now - origin) >>> tickShift;
+            if (t <= c)
+                return;
+            currentTick = t;
+            for (int level = 0, shift = 0; level < occupied.length;
+                 ++level, shift += WHEEL_BITS) {
+                long from = c >>> shift, to = t >>> shift;
+                if (from == to)
+                    break;              // higher levels have not moved
+                long pending = occupied[level];
+                if (pending == 0)
+                    continue;
+                long steps = Math.min(to - from, WHEEL_SIZE);
+                for (long k = 1; k <= steps; ++k) {
+                    int bucket = (int)(from + k) & WHEEL_MASK;
+                    if ((pending & (1L << bucket)) == 0)
+                        continue;
+                    int s = (level << WHEEL_BITS) | bucket;
+                    Node p = buckets[s];
+                    buckets[s] = null;
+                    occupied[level] &= ~(1L << bucket);
+                    while (p != null) {
+                        Node next = p.next;
+                        p.prev = p.next = null;
+                        place(p);
+                        p = next;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns nanos from now until the nearest occupied bucket is
+         * due. Call only when holding lock, with the wheel advanced.
+         */
+        private long nextBucketDelay(long now) {
+            long delay = Long.MAX_VALUE;
+            for (int level = 0, shift = 0; level < occupied.length;
+                 ++level, shift += WHEEL_BITS) {
+                long bits = occupied[level];
+                if (bits == 0)
+                    continue;
+                long c = currentTick >>> shift;
+                int k = Long.numberOfTrailingZeros(
+                    Long.rotateRight(bits, (int)(c + 1) & WHEEL_MASK)) + 1;
+                if (c + k <= (Long.MAX_VALUE >>> shift))
+                    delay = Math.min(delay,
+                                     delayUntilTick((c + k) << shift, now));
+            }
+            return delay;
+        }
+
+        /**
+         * Sifts element up to its heap-ordered spot in the ready heap.
+         * Call only when holding lock.
+         */
+        private void siftUp(int k, Node key) {
+            while (k > 0) {
+                int parent = (k - 1) >>> 1;
+                Node e = ready[parent];
+                if (key.task.compareTo(e.task) >= 0)
+                    break;
+                ready[k] = e;
+                e.index = k;
+                k = parent;
+            }
+            ready[k] = key;
+            key.index = k;
+        }
+
+        /**
+         * Sifts element down to its heap-ordered spot in the ready heap.
+         * Call only when holding lock.
+         */
+        private void siftDown(int k, Node key) {
+            int half = readySize >>> 1;
+            while (k < half) {
+                int child = (k << 1) + 1;
+                Node c = ready[child];
+                int right = child + 1;
+                if (right < readySize &&
+                    c.task.compareTo(ready[right].task) > 0)
+                    c = ready[child = right];
+                if (key.task.compareTo(c.task) <= 0)
+                    break;
+                ready[k] = c;
+                c.index = k;
+                k = child;
+            }
+            ready[k] = key;
+            key.index = k;
+        }
+
+        private void readyOffer(Node n) {
+            int i = readySize;
+            if (i >= ready.length) {
+                int newCapacity = i + (i >> 1);
+                if (newCapacity < 0) // overflow
+                    newCapacity = Integer.MAX_VALUE;
+                ready = Arrays.copyOf(ready, newCapacity);
+            }
+            readySize = i + 1;
+            n.slot = READY;
+            siftUp(i, n);
+        }
+
+        /**
+         * Removes n from wherever it is held. Call only when holding lock.
+         */
+        private void unlink(Node n) {
+            int s = n.slot;
+            if (s == READY) {
+                int i = n.index;
+                int last = --readySize;
+                Node replacement = ready[last];
+                ready[last] = null;
+                if (last != i) {
+                    siftDown(i, replacement);
+                    if (ready[i] == replacement)
+                        siftUp(i, replacement);
+                }
+            } else {
+                Node prev = n.prev, next = n.next;
+                if (prev == null)
+                    buckets[s] = next;
+                else
+                    prev.next = next;
+                if (next != null)
+                    next.prev = prev;
+                if (buckets[s] == null)
+                    occupied[s >>> WHEEL_BITS] &= ~(1L << (s & WHEEL_MASK));
+                n.prev = n.next = null;
+            }
+            n.slot = DETACHED;
+            --size;
+            setNode(n.task, null);
+        }
+
+        /**
+         * Finds the node holding x, or null if absent.
+         */
+        private Node nodeOf(Object x) {
+            if (x instanceof ScheduledFutureTask) {
+                Node n = ((ScheduledFutureTask<?>)x).wheelNode;
+                // x could be a ScheduledFutureTask from some other pool
+                return (n != null && n.queue == this &&
+                        n.slot != DETACHED) ? n : null;
+            } else if (x != null) {
+                for (int i = 0; i < readySize; i++)
+                    if (x.equals(ready[i].task))
+                        return ready[i];
+                for (Node head : buckets)
+                    for (Node p = head; p != null; p = p.next)
+                        if (x.equals(p.task))
+                            return p;
+            }
+            return null;
+        }
+
+        /**
+         * Returns all queued tasks. Call only when holding lock.
+         */
+        private RunnableScheduledFuture<?>[] snapshot() {
+            RunnableScheduledFuture<?>[] a = new RunnableScheduledFuture<?>[size];
+            int k = 0;
+            for (int i = 0; i < readySize; i++)
+                a[k++] = ready[i].task;
+            for (Node head : buckets)
+                for (Node p = head; p != null; p = p.next)
+                    a[k++] = p.task;
+            return a;
+        }
+
+        public boolean contains(Object x) {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                return nodeOf(x) != null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean remove(Object x) {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                Node n = nodeOf(x);
+                if (n == null)
+                    return false;
+                unlink(n);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int size() {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        public int remainingCapacity() {
+            return Integer.MAX_VALUE;
+        }
+
+        /**
+         * Returns the task with the earliest trigger time. Unlike
+         * poll, this may have to scan the nearest occupied bucket of
+         * each level, as tasks within a bucket are not ordered.
+         */
+        public RunnableScheduledFuture<?> peek() {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                advance(System.nanoTime());
+                RunnableScheduledFuture<?> first =
+                    (readySize > 0) ? ready[0].task : null;
+                for (int level = 0, shift = 0; level < occupied.length;
+                     ++level, shift += WHEEL_BITS) {
+                    long bits = occupied[level];
+                    if (bits == 0)
+                        continue;
+                    long c = currentTick >>> shift;
+                    int k = Long.numberOfTrailingZeros(
+                        Long.rotateRight(bits, (int)(c + 1) & WHEEL_MASK)) + 1;
+                    int s = (level << WHEEL_BITS) | ((int)(c + k) & WHEEL_MASK);
+                    for (Node p = buckets[s]; p != null; p = p.next)
+                        if (first == null || p.task.compareTo(first) < 0)
+                            first = p.task;
+                }
+                return first;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean offer(Runnable x) {
+            if (x == null)
+                throw new NullPointerException();
+            RunnableScheduledFuture<?> e = (RunnableScheduledFuture<?>)x;
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                long time = (e instanceof ScheduledFutureTask) ?
+                    ((ScheduledFutureTask<?>)e).time :
+                    System.nanoTime() + e.getDelay(NANOSECONDS);
+                Node n = new Node(this, e, time);
+                setNode(e, n);
+                long due = place(n);
+                if (++size == 1 ||
+                    (leader != null && due - leaderDeadline < 0)) {
+                    leader = null;
+                    available.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+            return true;
+        }
+
+        public void put(Runnable e) {
+            offer(e);
+        }
+
+        public boolean add(Runnable e) {
+            return offer(e);
+        }
+
+        public boolean offer(Runnable e, long timeout, TimeUnit unit) {
+            return offer(e);
+        }
+
+        /**
+         * Removes and returns the head of the ready heap.  Call only
+         * when holding lock.
+         */
+        private RunnableScheduledFuture<?> finishPoll() {
+            Node first = ready[0];
+            unlink(first);
+            return first.task;
+        }
+
+        /**
+         * Returns nanos until the next task may become available, or
+         * a non-positive value if the head of the ready heap is due.
+         * Call only when holding lock, with size > 0.
+         */
+        private long nextDelay(long now) {
+            advance(now);
+            if (readySize == 0)
+                return nextBucketDelay(now);
+            long delay = ready[0].task.getDelay(NANOSECONDS);
+            return (delay > 0 && readySize < size) ?
+                Math.min(delay, nextBucketDelay(now)) : delay;
+        }
+
+        public RunnableScheduledFuture<?> poll() {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                return (size == 0 || nextDelay(System.nanoTime()) > 0 ||
+                        readySize == 0) ? null : finishPoll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public RunnableScheduledFuture<?> take() throws InterruptedException {
+            final ReentrantLock lock = this.lock;
+            lock.lockInterruptibly();
+            try {
+                for (;;) {
+                    if (size == 0)
+                        available.await();
+                    else {
+                        long now = System.nanoTime();
+                        long delay = nextDelay(now);
+                        if (delay <= 0) {
+                            if (readySize > 0)
+                                return finishPoll();
+                        } else if (leader != null)
+                            available.await();
+                        else {
+                            Thread thisThread = Thread.currentThread();
+                            leader = thisThread;
+                            leaderDeadline =
+                                now + Math.min(delay, Long.MAX_VALUE >> 1);
+                            try {
+                                available.awaitNanos(delay);
+                            } finally {
+                                if (leader == thisThread)
+                                    leader = null;
+                            }
+                        }
+                    }
+                }
+            } finally {
+                if (leader == null && size != 0)
+                    available.signal();
+                lock.unlock();
+            }
+        }
+
+        public RunnableScheduledFuture<?> poll(long timeout, TimeUnit unit)
+            throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            final ReentrantLock lock = this.lock;
+            lock.lockInterruptibly();
+            try {
+                for (;;) {
+                    if (size == 0) {
+                        if (nanos <= 0)
+                            return null;
+                        else
+                            nanos = available.awaitNanos(nanos);
+                    } else {
+                        long now = System.nanoTime();
+                        long delay = nextDelay(now);
+                        if (delay <= 0) {
+                            if (readySize > 0)
+                                return finishPoll();
+                        } else if (nanos <= 0)
+                            return null;
+                        else if (nanos < delay || leader != null)
+                            nanos = available.awaitNanos(nanos);
+                        else {
+                            Thread thisThread = Thread.currentThread();
+                            leader = thisThread;
+                            leaderDeadline =
+                                now + Math.min(delay, Long.MAX_VALUE >> 1);
+                            try {
+                                long timeLeft = available.awaitNanos(delay);
+                                nanos -= delay - timeLeft;
+                            } finally {
+                                if (leader == thisThread)
+                                    leader = null;
+                            }
+                        }
+                    }
+                }
+            } finally {
+                if (leader == null && size != 0)
+                    available.signal();
+                lock.unlock();
+            }
+        }
+
+        public void clear() {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                for (int i = 0; i < readySize; i++) {
+                    Node n = ready[i];
+                    ready[i] = null;
+                    n.slot = DETACHED;
+                    setNode(n.task, null);
+                }
+                for (int s = 0; s < buckets.length; s++) {
+                    for (Node p = buckets[s], next; p != null; p = next) {
+                        next = p.next;
+                        p.prev = p.next = null;
+                        p.slot = DETACHED;
+                        setNode(p.task, null);
+                    }
+                    buckets[s] = null;
+                }
+                Arrays.fill(occupied, 0L);
+                readySize = 0;
+                size = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int drainTo(Collection<? super Runnable> c) {
+            return drainTo(c, Integer.MAX_VALUE);
+        }
+
+        public int drainTo(Collection<? super Runnable> c, int maxElements) {
+            if (c == null)
+                throw new NullPointerException();
+            if (c == this)
+                throw new IllegalArgumentException();
+            if (maxElements <= 0)
+                return 0;
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                advance(System.nanoTime());
+                int n = 0;
+                while (n < maxElements && readySize > 0 &&
+                       ready[0].task.getDelay(NANOSECONDS) <= 0) {
+                    c.add(ready[0].task); // In this order, in case add() throws.
+                    finishPoll();
+                    ++n;
+                }
+                return n;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public Object[] toArray() {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                return Arrays.copyOf(snapshot(), size, Object[].class);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T[] toArray(T[] a) {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                RunnableScheduledFuture<?>[] all = snapshot();
+                if (a.length < size)
+                    return (T[]) Arrays.copyOf(all, size, a.getClass());
+                System.arraycopy(all, 0, a, 0, size);
+                if (a.length > size)
+                    a[size] = null;
+                return a;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public Iterator<Runnable> iterator() {
+            final ReentrantLock lock = this.lock;
+            lock.lock();
+            try {
+                return new Itr(snapshot());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Snapshot iterator that works off a copy of the queued tasks.
+         */
+        private class Itr implements Iterator<Runnable> {
+            final RunnableScheduledFuture<?>[] array;
+            int cursor = 0;     // index of next element to return
+            int lastRet = -1;   // index of last element, or -1 if no such
+
+            Itr(RunnableScheduledFuture<?>[] array) {
+                this.array = array;
+            }
+
+            public boolean hasNext() {
+                return cursor < array.length;
+            }
+
+            public Runnable next() {
+                if (cursor >= array.length)
+                    throw new NoSuchElementException();
+                lastRet = cursor;
+                return array[cursor++];
+            }
+
+            public void remove() {
+                if (lastRet < 0)
+                    throw new IllegalStateException();
+                TimerWheelWorkQueue.this.remove(array[lastRet]);
+                lastRet = -1;
+            }
+        }
+    }
 }
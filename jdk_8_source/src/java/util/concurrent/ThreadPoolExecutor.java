@@ -198,6 +198,13 @@ import java.util.*;
  *
  * </ol>
  *
+ * When many threads submit short tasks, the single work queue itself
+ * can become the bottleneck.  Pools constructed with the {@code
+ * striped} option spread queued tasks over several per-worker queues
+ * whose combined capacity follows that of the given work queue; see
+ * {@link #ThreadPoolExecutor(int, int, long, TimeUnit, BlockingQueue,
+ * ThreadFactory, RejectedExecutionHandler, boolean)}.
+ *
  * </dd>
  *
  * <dt>Rejected tasks</dt>
@@ -495,6 +502,59 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      */
     private final BlockingQueue<Runnable> workQueue;
 
+    /**
+     * Per-worker task queues used in striped mode, or null if this
+     * pool hands all tasks through workQueue.  Each worker has a
+     * "home" stripe that it polls first, falling back to stealing
+     * from the other stripes in index order.  Submitters pick a
+     * stripe using their ThreadLocalRandom probe, rehashing on
+     * failure, so uncontended producers keep hitting the same
+     * stripe.  The ring buffers are non-blocking on both ends, so
+     * idle workers park on idleCondition instead of inside a queue.
+     * The remaining capacity of workQueue (sampled at construction)
+     * is split across the stripes, rounding up, and workQueue itself
+     * is otherwise unused, unless that would make stripes larger than
+     * MAX_STRIPE_CAPACITY, in which case tasks overflow into
+     * workQueue once every stripe is full.
+     */
+    private final RingBufferBlockingQueue<Runnable>[] stripes;
+
+    /**
+     * True if tasks that do not fit into any stripe are to be placed
+     * in workQueue (because it is large or unbounded) rather than
+     * being treated as a saturated queue.
+     */
+    private final boolean overflowToWorkQueue;
+
+    /**
+     * Lock and condition used by idle workers in striped mode.  A
+     * worker first registers itself in idleWorkers while holding
+     * idleLock and then rescans all queues before waiting, and
+     * submitters read idleWorkers only after enqueuing, so either the
+     * worker sees the new task or the submitter sees the waiter.
+     */
+    private final ReentrantLock idleLock;
+    private final Condition idleCondition;
+
+    /**
+     * Number of workers waiting on idleCondition.  Written only while
+     * holding idleLock.
+     */
+    private volatile int idleWorkers;
+
+    /**
+     * Next home stripe to hand out to a new worker.  Accessed only
+     * under mainLock.
+     */
+    private int nextHome;
+
+    /**
+     * The largest capacity given to a single stripe.  Kept moderate
+     * since every slot costs a reference and a sequence number up
+     * front, whether used or not.
+     */
+    private static final int MAX_STRIPE_CAPACITY = 1 << 12;
+
     /**
      * Lock held on access to workers set and related bookkeeping.
      * While we could use a concurrent set of some sort, it turns out
@@ -673,6 +733,8 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
         Runnable firstTask;
         /** Per-thread task counter */
         volatile long completedTasks;
+        /** Index of the stripe polled first in striped mode */
+        int home;
 
         /**
          * Creates with given first task and thread from ThreadFactory.
@@ -764,7 +826,7 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
             int c = ctl.get();
             if (isRunning(c) ||
                 runStateAtLeast(c, TIDYING) ||
-                (runStateOf(c) == SHUTDOWN && ! workQueue.isEmpty()))
+                (runStateOf(c) == SHUTDOWN && ! queuesEmpty()))
                 return;
             if (workerCountOf(c) != 0) { // Eligible to terminate
                 interruptIdleWorkers(ONLY_ONE);
@@ -924,6 +986,11 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
     private List<Runnable> drainQueue() {
         BlockingQueue<Runnable> q = workQueue;
         ArrayList<Runnable> taskList = new ArrayList<Runnable>();
+        RingBufferBlockingQueue<Runnable>[] ss;
+        if ((ss = stripes) != null) {
+            for (RingBufferBlockingQueue<Runnable> s : ss)
+                s.drainTo(taskList);
+        }
         q.drainTo(taskList);
         if (!q.isEmpty()) {
             for (Runnable r : q.toArray(new Runnable[0])) {
@@ -934,6 +1001,138 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
         return taskList;
     }
 
+    /*
+     * Queue access.  Unless the pool is striped these simply forward
+     * to workQueue.
+     */
+
+    /**
+     * Returns true if no task is held in workQueue or any stripe.
+     */
+    private boolean queuesEmpty() {
+        RingBufferBlockingQueue<Runnable>[] ss;
+        if ((ss = stripes) != null) {
+            for (RingBufferBlockingQueue<Runnable> s : ss) {
+                if (!s.isEmpty())
+                    return false;
+            }
+        }
+        return workQueue.isEmpty();
+    }
+
+    /**
+     * Returns the number of tasks held in workQueue and all stripes.
+     */
+    private int queuedTaskCount() {
+        int n = workQueue.size();
+        RingBufferBlockingQueue<Runnable>[] ss;
+        if ((ss = stripes) != null) {
+            for (RingBufferBlockingQueue<Runnable> s : ss)
+                n += s.size();
+        }
+        return n;
+    }
+
+    /**
+     * Queues a task, returning false if there is no room for it.  In
+     * striped mode, tries the caller's stripe, then the others, then
+     * the overflow queue if permitted, and wakes up an idle worker
+     * on success.
+     */
+    private boolean offerTask(Runnable command) {
+        RingBufferBlockingQueue<Runnable>[] ss;
+        if ((ss = stripes) == null)
+            return workQueue.offer(command);
+        int n = ss.length, m = n - 1;
+        int h = ThreadLocalRandom.getProbe();
+        if (h == 0) {
+            ThreadLocalRandom.localInit();
+            h = ThreadLocalRandom.getProbe();
+        }
+        boolean queued = false;
+        int i = h & m;
+        if (ss[i].offer(command))
+            queued = true;
+        else {
+            // home stripe full: move this thread elsewhere next time
+            ThreadLocalRandom.advanceProbe(h);
+            for (int k = 1; k < n; ++k) {
+                if (ss[(i + k) & m].offer(command)) {
+                    queued = true;
+                    break;
+                }
+            }
+            if (!queued && overflowToWorkQueue)
+                queued = workQueue.offer(command);
+        }
+        if (queued && idleWorkers != 0)
+            signalIdleWorker();
+        return queued;
+    }
+
+    /**
+     * Wakes up one worker waiting in awaitTask.
+     */
+    private void signalIdleWorker() {
+        final ReentrantLock idleLock = this.idleLock;
+        idleLock.lock();
+        try {
+            idleCondition.signal();
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a task without blocking in striped mode, polling the
+     * worker's home stripe first, then stealing from the others,
+     * then the overflow queue.
+     */
+    private Runnable pollTask(Worker w) {
+        RingBufferBlockingQueue<Runnable>[] ss = stripes;
+        int n = ss.length, m = n - 1, i = w.home & m;
+        Runnable r;
+        for (int k = 0; k < n; ++k) {
+            if ((r = ss[(i + k) & m].poll()) != null)
+                return r;
+        }
+        return workQueue.poll();
+    }
+
+    /**
+     * Striped-mode counterpart of workQueue.take() and
+     * workQueue.poll(keepAliveTime): waits on idleCondition until a
+     * task shows up, returning null on timeout.
+     */
+    private Runnable awaitTask(Worker w, boolean timed)
+        throws InterruptedException {
+        Runnable r;
+        if ((r = pollTask(w)) != null)
+            return r;
+        long nanos = keepAliveTime;
+        final ReentrantLock idleLock = this.idleLock;
+        idleLock.lockInterruptibly();
+        try {
+            ++idleWorkers;
+            try {
+                for (;;) {
+                    if ((r = pollTask(w)) != null)
+                        return r;
+                    if (!timed)
+                        idleCondition.await();
+                    else if (nanos <= 0L)
+                        return null;
+                    else
+                        nanos = idleCondition.awaitNanos(nanos);
+                }
+            } finally {
+                --idleWorkers;
+            }
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
     /*
      * Methods for creating, running and cleaning up after workers
      */
@@ -989,7 +1188,7 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
             if (rs >= SHUTDOWN &&
                 ! (rs == SHUTDOWN &&
                    firstTask == null &&
-                   ! workQueue.isEmpty()))
+                   ! queuesEmpty()))
                 return false;
 
             for (;;) {
@@ -1025,6 +1224,8 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
                         (rs == SHUTDOWN && firstTask == null)) {
                         if (t.isAlive()) // precheck that t is startable
                             throw new IllegalThreadStateException();
+                        if (stripes != null)
+                            w.home = nextHome++;
                         workers.add(w);
                         int s = workers.size();
                         if (s > largestPoolSize)
@@ -1098,7 +1299,7 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
         if (runStateLessThan(c, STOP)) {
             if (!completedAbruptly) {
                 int min = allowCoreThreadTimeOut ? 0 : corePoolSize;
-                if (min == 0 && ! workQueue.isEmpty())
+                if (min == 0 && ! queuesEmpty())
                     min = 1;
                 if (workerCountOf(c) >= min)
                     return; // replacement not needed
@@ -1121,10 +1322,11 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      *    both before and after the timed wait, and if the queue is
      *    non-empty, this worker is not the last thread in the pool.
      *
+     * @param w the worker
      * @return task, or null if the worker must exit, in which case
      *         workerCount is decremented
      */
-    private Runnable getTask() {
+    private Runnable getTask(Worker w) {
         boolean timedOut = false; // Did the last poll() time out?
 
         for (;;) {
@@ -1132,7 +1334,7 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
             int rs = runStateOf(c);
 
             // Check if queue empty only if necessary.
-            if (rs >= SHUTDOWN && (rs >= STOP || workQueue.isEmpty())) {
+            if (rs >= SHUTDOWN && (rs >= STOP || queuesEmpty())) {
                 decrementWorkerCount();
                 return null;
             }
@@ -1143,14 +1345,15 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
             boolean timed = allowCoreThreadTimeOut || wc > corePoolSize;
 
             if ((wc > maximumPoolSize || (timed && timedOut))
-                && (wc > 1 || workQueue.isEmpty())) {
+                && (wc > 1 || queuesEmpty())) {
                 if (compareAndDecrementWorkerCount(c))
                     return null;
                 continue;
             }
 
             try {
-                Runnable r = timed ?
+                Runnable r = (stripes != null) ? awaitTask(w, timed) :
+                    timed ?
                     workQueue.poll(keepAliveTime, TimeUnit.NANOSECONDS) :
                     workQueue.take();
                 if (r != null)
@@ -1212,7 +1415,7 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
         w.unlock(); // allow interrupts
         boolean completedAbruptly = true;
         try {
-            while (task != null || (task = getTask()) != null) {
+            while (task != null || (task = getTask(w)) != null) {
                 w.lock();
                 // If pool is stopping, ensure thread is interrupted;
                 // if not, ensure thread is not interrupted.  This
@@ -1388,6 +1591,64 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
                               BlockingQueue<Runnable> workQueue,
                               ThreadFactory threadFactory,
                               RejectedExecutionHandler handler) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue,
+             threadFactory, handler, false);
+    }
+
+    /**
+     * Creates a new {@code ThreadPoolExecutor} with the given initial
+     * parameters, optionally using striped task queues.
+     *
+     * <p>A striped pool keeps queued tasks in a number of lock-free
+     * queues (about one per available processor) rather than in the
+     * single {@code workQueue}, so that submitting threads and
+     * workers contend less with each other.  Each worker prefers its
+     * own queue and steals from the others when that is empty.  The
+     * remaining capacity of {@code workQueue} at construction is
+     * divided among the stripes, so that bounded pools saturate, and
+     * hence grow towards {@code maximumPoolSize} and eventually
+     * reject tasks, at about the same point as they would otherwise.
+     * When {@code workQueue} is very large or unbounded, tasks that do
+     * not fit into the stripes are placed in {@code workQueue}.  A
+     * {@code workQueue} with no capacity, such as a {@link
+     * SynchronousQueue}, disables striping.  Tasks are no longer
+     * executed in strict submission order in striped mode.
+     *
+     * @param corePoolSize the number of threads to keep in the pool, even
+     *        if they are idle, unless {@code allowCoreThreadTimeOut} is set
+     * @param maximumPoolSize the maximum number of threads to allow in the
+     *        pool
+     * @param keepAliveTime when the number of threads is greater than
+     *        the core, this is the maximum time that excess idle threads
+     *        will wait for new tasks before terminating.
+     * @param unit the time unit for the {@code keepAliveTime} argument
+     * @param workQueue the queue to use for holding tasks before they are
+     *        executed.  This queue will hold only the {@code Runnable}
+     *        tasks submitted by the {@code execute} method.
+     * @param threadFactory the factory to use when the executor
+     *        creates a new thread
+     * @param handler the handler to use when execution is blocked
+     *        because the thread bounds and queue capacities are reached
+     * @param striped if true, queue tasks in per-worker stripes as
+     *        described above
+     * @throws IllegalArgumentException if one of the following holds:<br>
+     *         {@code corePoolSize < 0}<br>
+     *         {@code keepAliveTime < 0}<br>
+     *         {@code maximumPoolSize <= 0}<br>
+     *         {@code maximumPoolSize < corePoolSize}
+     * @throws NullPointerException if {@code workQueue}
+     *         or {@code threadFactory} or {@code handler} is null
+     * @since 1.8
+     */
+    @SuppressWarnings("unchecked")
+    public ThreadPoolExecutor(int corePoolSize,
+                              int maximumPoolSize,
+                              long keepAliveTime,
+                              TimeUnit unit,
+                              BlockingQueue<Runnable> workQueue,
+                              ThreadFactory threadFactory,
+                              RejectedExecutionHandler handler,
+                              boolean striped) {
         if (corePoolSize < 0 ||
             maximumPoolSize <= 0 ||
             maximumPoolSize < corePoolSize ||
@@ -1404,6 +1665,34 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
         this.keepAliveTime = unit.toNanos(keepAliveTime);
         this.threadFactory = threadFactory;
         this.handler = handler;
+        int room;
+        if (!striped || (room = workQueue.remainingCapacity()) <= 0) {
+            this.stripes = null;
+            this.overflowToWorkQueue = false;
+            this.idleLock = null;
+            this.idleCondition = null;
+        }
+        else {
+            int p = Math.min(maximumPoolSize,
+                             Runtime.getRuntime().availableProcessors());
+            int n = (p <= 1) ? 1 : Integer.highestOneBit(p - 1) << 1;
+            if (n > room)
+                n = Integer.highestOneBit(room);
+            // round up, so the stripes hold at least room tasks
+            int cap = room / n + ((room % n == 0) ? 0 : 1);
+            boolean overflow = cap > MAX_STRIPE_CAPACITY;
+            if (overflow)
+                cap = MAX_STRIPE_CAPACITY;
+            RingBufferBlockingQueue<Runnable>[] ss =
+                (RingBufferBlockingQueue<Runnable>[])
+                new RingBufferBlockingQueue<?>[n];
+            for (int i = 0; i < n; ++i)
+                ss[i] = new RingBufferBlockingQueue<Runnable>(cap);
+            this.stripes = ss;
+            this.overflowToWorkQueue = overflow;
+            this.idleLock = new ReentrantLock();
+            this.idleCondition = idleLock.newCondition();
+        }
     }
 
     /**
@@ -1449,7 +1738,7 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
                 return;
             c = ctl.get();
         }
-        if (isRunning(c) && workQueue.offer(command)) {
+        if (isRunning(c) && offerTask(command)) {
             int recheck = ctl.get();
             if (! isRunning(recheck) && remove(command))
                 reject(command);
@@ -1460,6 +1749,34 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
             reject(command);
     }
 
+    /**
+     * Submits a collection of value-returning tasks as a single batch,
+     * as described in {@link AbstractExecutorService#submitAll}. The
+     * batch is handed to {@link #execute} once for each thread that
+     * this pool would devote to it: the core pool size, or the
+     * number of available processors if more and the maximum pool
+     * size permits, and never more than the number of tasks. Each
+     * handle costs at most one work queue insertion and one worker
+     * start or wakeup, however many tasks the batch holds.
+     *
+     * @param tasks the collection of tasks
+     * @param <T> the type of the values returned from the tasks
+     * @return a Future representing the completion of all of the tasks
+     * @throws NullPointerException if tasks or any of its elements are
+     *         {@code null}
+     * @throws RejectedExecutionException at discretion of
+     *         {@code RejectedExecutionHandler}, if no part of the
+     *         batch can be accepted for execution
+     * @since 1.8
+     */
+    public <T> Future<List<T>> submitAll(Collection<? extends Callable<T>> tasks) {
+        BatchFuture<T> batch = new BatchFuture<T>(tasks);
+        int ncpu = Runtime.getRuntime().availableProcessors();
+        int threads = Math.max(corePoolSize, Math.min(maximumPoolSize, ncpu));
+        executeBatch(batch, Math.max(1, threads));
+        return batch;
+    }
+
     /**
      * Initiates an orderly shutdown in which previously submitted
      * tasks are executed, but no new tasks will be accepted.
@@ -1643,9 +1960,9 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
             // As a heuristic, prestart enough new workers (up to new
             // core size) to handle the current number of tasks in
             // queue, but stop if queue becomes empty while doing so.
-            int k = Math.min(delta, workQueue.size());
+            int k = Math.min(delta, queuedTaskCount());
             while (k-- > 0 && addWorker(null, true)) {
-                if (workQueue.isEmpty())
+                if (queuesEmpty())
                     break;
             }
         }
@@ -1823,7 +2140,9 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      * Returns the task queue used by this executor. Access to the
      * task queue is intended primarily for debugging and monitoring.
      * This queue may be in active use.  Retrieving the task queue
-     * does not prevent queued tasks from executing.
+     * does not prevent queued tasks from executing.  If this executor
+     * was created with striped queues, the returned queue holds only
+     * the tasks that overflowed the stripes, if any.
      *
      * @return the task queue
      */
@@ -1848,7 +2167,16 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      * @return {@code true} if the task was removed
      */
     public boolean remove(Runnable task) {
-        boolean removed = workQueue.remove(task);
+        boolean removed = false;
+        RingBufferBlockingQueue<Runnable>[] ss;
+        if ((ss = stripes) != null) {
+            for (RingBufferBlockingQueue<Runnable> s : ss) {
+                if (removed = s.remove(task))
+                    break;
+            }
+        }
+        if (!removed)
+            removed = workQueue.remove(task);
         tryTerminate(); // In case SHUTDOWN and now empty
         return removed;
     }
@@ -1864,6 +2192,17 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      * the presence of interference by other threads.
      */
     public void purge() {
+        RingBufferBlockingQueue<Runnable>[] ss;
+        if ((ss = stripes) != null) {
+            // stripe iterators traverse a snapshot, so never throw CME
+            for (RingBufferBlockingQueue<Runnable> s : ss) {
+                for (Iterator<Runnable> it = s.iterator(); it.hasNext();) {
+                    Runnable r = it.next();
+                    if (r instanceof Future<?> && ((Future<?>)r).isCancelled())
+                        it.remove();
+                }
+            }
+        }
         final BlockingQueue<Runnable> q = workQueue;
         try {
             Iterator<Runnable> it = q.iterator();
@@ -1958,7 +2297,7 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
                 if (w.isLocked())
                     ++n;
             }
-            return n + workQueue.size();
+            return n + queuedTaskCount();
         } finally {
             mainLock.unlock();
         }
@@ -2018,7 +2357,7 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
             "[" + rs +
             ", pool size = " + nworkers +
             ", active threads = " + nactive +
-            ", queued tasks = " + workQueue.size() +
+            ", queued tasks = " + queuedTaskCount() +
             ", completed tasks = " + ncompleted +
             "]";
     }
@@ -0,0 +1,469 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent.atomic;
+import java.io.Serializable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An array of {@code long} counters, each of which maintains an
+ * initially zero sum in the manner of {@link LongAdder}.  When
+ * updates to a counter are contended across threads, the set of
+ * variables maintaining that counter may grow dynamically to reduce
+ * contention. Method {@link #sum(int)} returns the current total of
+ * one counter, and {@link #snapshot} the totals of all of them.
+ *
+ * <p>This class is usually preferable to {@link AtomicLongArray} when
+ * multiple threads update counters indexed by some id (for example
+ * per-endpoint request counts) for purposes such as collecting
+ * statistics, not for fine-grained synchronization control.  Unlike
+ * the elements of an {@code AtomicLongArray}, which share cache lines
+ * with their neighbours so that updates to different counters still
+ * interfere with each other, each counter here is placed on its own
+ * cache line, and contended counters spread further across padded
+ * per-thread cells.  This comes at the expense of higher space
+ * consumption: about 128 bytes per counter, plus the cells of
+ * contended counters.
+ *
+ * <p>Methods {@link #sum(int)} and {@link #snapshot} never block or
+ * delay updating threads; as with {@link LongAdder#sum}, the values
+ * they return are <em>not</em> atomic snapshots when there are
+ * concurrent updates.
+ *
+ * @since 1.8
+ */
+public class LongAdderArray implements Serializable {
+    private static final long serialVersionUID = -6224839520541418213L;
+
+    /*
+     * Each counter has a base value, as in Striped64, and a lazily
+     * created table of Striped64.Cells, held in slot i of "cells".
+     * Updates go to the base until a CAS on it fails, and from then
+     * on to the cell selected by the thread's probe, with tables
+     * created, grown (up to NCPU) and probes rehashed exactly as in
+     * Striped64.longAccumulate, except that the table is per counter
+     * rather than per object.  A single spinlock guards creation and
+     * resizing for all counters: these are rare, and when the lock
+     * is busy threads just retry other cells or the base.
+     *
+     * Bases live in one long[] spaced PAD elements apart (and with
+     * PAD elements before the first and after the last), so that no
+     * two bases, nor a base and the array header or an adjacent
+     * object, share a cache line; 128 bytes rather than 64 also
+     * covers adjacent-line prefetch, matching the padding that
+     * @sun.misc.Contended gives Cells.
+     */
+
+    /** Number of longs between consecutive bases; 128 bytes. */
+    private static final int PAD_SHIFT = 4;
+
+    /** Maximum number of counters, so that the bases array fits. */
+    private static final int MAX_LENGTH =
+        (Integer.MAX_VALUE >>> PAD_SHIFT) - 2;
+
+    /** Padded base values, counter i at index (i + 1) << PAD_SHIFT. */
+    private final transient long[] bases;
+
+    /** Per-counter cell tables, null until the counter is contended. */
+    private final transient Striped64.Cell[][] cells;
+
+    /** Spinlock (locked via CAS) used when resizing and/or creating Cells. */
+    private transient volatile int cellsBusy;
+
+    /**
+     * Creates a new LongAdderArray of the given length, with all
+     * counters initially zero.
+     *
+     * @param length the number of counters
+     * @throws IllegalArgumentException if length is negative or too
+     * large for the padded representation
+     */
+    public LongAdderArray(int length) {
+        if (length < 0 || length > MAX_LENGTH)
+            throw new IllegalArgumentException();
+        bases = new long[(length + 2) << PAD_SHIFT];
+        cells = new Striped64.Cell[length][];
+    }
+
+    /**
+     * Returns the number of counters.
+     *
+     * @return the number of counters
+     */
+    public final int length() {
+        return cells.length;
+    }
+
+    private long checkedByteOffset(int i) {
+        if (i < 0 || i >= cells.length)
+            throw new IndexOutOfBoundsException("index " + i);
+        return byteOffset(i);
+    }
+
+    private static long byteOffset(int i) {
+        return ((long)(i + 1) << (PAD_SHIFT + LSHIFT)) + LBASE;
+    }
+
+    private Striped64.Cell[] cellsAt(int i) {
+        return (Striped64.Cell[])
+            U.getObjectVolatile(cells, ((long)i << CSHIFT) + CBASE);
+    }
+
+    private void setCellsAt(int i, Striped64.Cell[] as) {
+        U.putObjectVolatile(cells, ((long)i << CSHIFT) + CBASE, as);
+    }
+
+    private boolean casCellsBusy() {
+        return U.compareAndSwapInt(this, CELLSBUSY, 0, 1);
+    }
+
+    /**
+     * Adds the given value to counter {@code i}.
+     *
+     * @param i the index
+     * @param x the value to add
+     * @throws IndexOutOfBoundsException if i is out of range
+     */
+    public void add(int i, long x) {
+        Striped64.Cell[] as; long b, v; int m; Striped64.Cell a;
+        long offset = checkedByteOffset(i);
+        if ((as = cellsAt(i)) != null ||
+            !U.compareAndSwapLong(bases, offset,
+                                  b = U.getLongVolatile(bases, offset),
+                                  b + x)) {
+            boolean uncontended = true;
+            if (as == null || (m = as.length - 1) < 0 ||
+                (a = as[Striped64.getProbe() & m]) == null ||
+                !(uncontended = a.cas(v = a.value, v + x)))
+                accumulate(i, offset, x, uncontended);
+        }
+    }
+
+    /**
+     * Equivalent to {@code add(i, 1)}.
+     *
+     * @param i the index
+     */
+    public void increment(int i) {
+        add(i, 1L);
+    }
+
+    /**
+     * Equivalent to {@code add(i, -1)}.
+     *
+     * @param i the index
+     */
+    public void decrement(int i) {
+        add(i, -1L);
+    }
+
+    /**
+     * Handles updates of counter i involving initialization, resizing,
+     * creating new Cells, and/or contention. Same as
+     * Striped64.longAccumulate, but for the cell table of one counter,
+     * and for addition only.
+     *
+     * @param wasUncontended false if CAS failed before call
+     */
+    private void accumulate(int i, long offset, long x,
+                            boolean wasUncontended) {
+        int h;
+        if ((h = Striped64.getProbe()) == 0) {
+            ThreadLocalRandom.current(); // force initialization
+            h = Striped64.getProbe();
+            wasUncontended = true;
+        }
+        boolean collide = false;                // True if last slot nonempty
+        for (;;) {
+            Striped64.Cell[] as; Striped64.Cell a; int n; long v;
+            if ((as = cellsAt(i)) != null && (n = as.length) > 0) {
+                if ((a = as[(n - 1) & h]) == null) {
+                    if (cellsBusy == 0) {       // Try to attach new Cell
+                        Striped64.Cell r = new Striped64.Cell(x);
+                        if (cellsBusy == 0 && casCellsBusy()) {
+                            boolean created = false;
+                            try {               // Recheck under lock
+                                Striped64.Cell[] rs; int m, j;
+                                if ((rs = cellsAt(i)) != null &&
+                                    (m = rs.length) > 0 &&
+                                    rs[j = (m - 1) & h] == null) {
+                                    rs[j] = r;
+                                    created = true;
+                                }
+                            } finally {
+                                cellsBusy = 0;
+                            }
+                            if (created)
+                                break;
+                            continue;           // Slot is now non-empty
+                        }
+                    }
+                    collide = false;
+                }
+                else if (!wasUncontended)       // CAS already known to fail
+                    wasUncontended = true;      // Continue after rehash
+                else if (a.cas(v = a.value, v + x))
+                    break;
+                else if (n >= Striped64.NCPU || cellsAt(i) != as)
+                    collide = false;            // At max size or stale
+                else if (!collide)
+                    collide = true;
+                else if (cellsBusy == 0 && casCellsBusy()) {
+                    try {
+                        if (cellsAt(i) == as) { // Expand table unless stale
+                            Striped64.Cell[] rs = new Striped64.Cell[n << 1];
+                            for (int k = 0; k < n; ++k)
+                                rs[k] = as[k];
+                            setCellsAt(i, rs);
+                        }
+                    } finally {
+                        cellsBusy = 0;
+                    }
+                    collide = false;
+                    continue;                   // Retry with expanded table
+                }
+                h = Striped64.advanceProbe(h);
+            }
+            else if (cellsBusy == 0 && cellsAt(i) == as && casCellsBusy()) {
+                boolean init = false;
+                try {                           // Initialize table
+                    if (cellsAt(i) == as) {
+                        Striped64.Cell[] rs = new Striped64.Cell[2];
+                        rs[h & 1] = new Striped64.Cell(x);
+                        setCellsAt(i, rs);
+                        init = true;
+                    }
+                } finally {
+                    cellsBusy = 0;
+                }
+                if (init)
+                    break;
+            }
+            else if (U.compareAndSwapLong(bases, offset,
+                                          v = U.getLongVolatile(bases, offset),
+                                          v + x))
+                break;                          // Fall back on using base
+        }
+    }
+
+    /**
+     * Returns the current sum of counter {@code i}.  The returned
+     * value is <em>NOT</em> an atomic snapshot; invocation in the
+     * absence of concurrent updates returns an accurate result, but
+     * concurrent updates that occur while the sum is being calculated
+     * might not be incorporated.
+     *
+     * @param i the index
+     * @return the sum
+     * @throws IndexOutOfBoundsException if i is out of range
+     */
+    public long sum(int i) {
+        return sumAt(i, checkedByteOffset(i));
+    }
+
+    private long sumAt(int i, long offset) {
+        Striped64.Cell[] as = cellsAt(i); Striped64.Cell a;
+        long sum = U.getLongVolatile(bases, offset);
+        if (as != null) {
+            for (int k = 0; k < as.length; ++k) {
+                if ((a = as[k]) != null)
+                    sum += a.value;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the current sums of all counters, as by calling {@link
+     * #sum(int)} for each index in turn.  Updating threads are never
+     * blocked, so when there are concurrent updates the result is
+     * <em>not</em> an atomic snapshot, either across counters or
+     * within one of them.
+     *
+     * @return a new array holding the sum of each counter
+     */
+    public long[] snapshot() {
+        return snapshot(new long[cells.length]);
+    }
+
+    /**
+     * Stores the current sums of all counters into the given array,
+     * as for {@link #snapshot()}, avoiding allocation when sampled
+     * periodically.
+     *
+     * @param dst the array to fill
+     * @return {@code dst}
+     * @throws IllegalArgumentException if dst is shorter than
+     * {@link #length}
+     */
+    public long[] snapshot(long[] dst) {
+        int n = cells.length;
+        if (dst.length < n)
+            throw new IllegalArgumentException();
+        for (int i = 0; i < n; ++i)
+            dst[i] = sumAt(i, byteOffset(i));
+        return dst;
+    }
+
+    /**
+     * Resets all counters to zero.  This method may be a useful
+     * alternative to creating a new array, but is only effective if
+     * there are no concurrent updates.  Because this method is
+     * intrinsically racy, it should only be used when it is known
+     * that no threads are concurrently updating.
+     */
+    public void reset() {
+        for (int i = 0; i < cells.length; ++i)
+            sumThenResetAt(i, byteOffset(i));
+    }
+
+    /**
+     * Equivalent in effect to {@link #sum(int)} followed by resetting
+     * counter {@code i} to zero. If there are updates concurrent with
+     * this method, the returned value is <em>not</em> guaranteed to be
+     * the final value occurring before the reset.
+     *
+     * @param i the index
+     * @return the sum
+     * @throws IndexOutOfBoundsException if i is out of range
+     */
+    public long sumThenReset(int i) {
+        return sumThenResetAt(i, checkedByteOffset(i));
+    }
+
+    private long sumThenResetAt(int i, long offset) {
+        Striped64.Cell[] as = cellsAt(i); Striped64.Cell a;
+        long sum = U.getAndSetLong(bases, offset, 0L);
+        if (as != null) {
+            for (int k = 0; k < as.length; ++k) {
+                if ((a = as[k]) != null) {
+                    sum += a.value;
+                    a.value = 0L;
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the String representation of the current sums of the
+     * counters.
+     * @return the String representation of the current sums
+     */
+    public String toString() {
+        int iMax = cells.length - 1;
+        if (iMax == -1)
+            return "[]";
+
+        StringBuilder b = new StringBuilder();
+        b.append('[');
+        for (int i = 0; ; i++) {
+            b.append(sumAt(i, byteOffset(i)));
+            if (i == iMax)
+                return b.append(']').toString();
+            b.append(',').append(' ');
+        }
+    }
+
+    /**
+     * Serialization proxy, used to avoid reference to the non-public
+     * Striped64.Cell class in serialized forms.
+     * @serial include
+     */
+    private static class SerializationProxy implements Serializable {
+        private static final long serialVersionUID = -6224839520541418213L;
+
+        /**
+         * The current values returned by snapshot().
+         * @serial
+         */
+        private final long[] values;
+
+        SerializationProxy(LongAdderArray a) {
+            values = a.snapshot();
+        }
+
+        /**
+         * Return a {@code LongAdderArray} object with initial state
+         * held by this proxy.
+         *
+         * @return a {@code LongAdderArray} object with initial state
+         * held by this proxy.
+         */
+        private Object readResolve() {
+            LongAdderArray a = new LongAdderArray(values.length);
+            for (int i = 0; i < values.length; ++i)
+                a.bases[(i + 1) << PAD_SHIFT] = values[i];
+            return a;
+        }
+    }
+
+    /**
+     * Returns a
+     * <a href="../../../../serialized-form.html#java.util.concurrent.atomic.LongAdderArray.SerializationProxy">
+     * SerializationProxy</a>
+     * representing the state of this instance.
+     *
+     * @return a {@link SerializationProxy}
+     * representing the state of this instance
+     */
+    private Object writeReplace() {
+        return new SerializationProxy(this);
+    }
+
+    /**
+     * @param s the stream
+     * @throws java.io.InvalidObjectException always
+     */
+    private void readObject(java.io.ObjectInputStream s)
+        throws java.io.InvalidObjectException {
+        throw new java.io.InvalidObjectException("Proxy required");
+    }
+
+    // Unsafe mechanics
+    private static final sun.misc.Unsafe U;
+    private static final long CELLSBUSY;
+    private static final int LBASE;
+    private static final int LSHIFT;
+    private static final int CBASE;
+    private static final int CSHIFT;
+    static {
+        try {
+            U = sun.misc.Unsafe.getUnsafe();
+            CELLSBUSY = U.objectFieldOffset
+                (LongAdderArray.class.getDeclaredField("cellsBusy"));
+            LBASE = U.arrayBaseOffset(long[].class);
+            int ls = U.arrayIndexScale(long[].class);
+            CBASE = U.arrayBaseOffset(Striped64.Cell[][].class);
+            int cs = U.arrayIndexScale(Striped64.Cell[][].class);
+            if ((ls & (ls - 1)) != 0 || (cs & (cs - 1)) != 0)
+                throw new Error("data type scale not a power of two");
+            LSHIFT = 31 - Integer.numberOfLeadingZeros(ls);
+            CSHIFT = 31 - Integer.numberOfLeadingZeros(cs);
+        } catch (Exception e) {
+            throw new Error(e);
+        }
+    }
+}
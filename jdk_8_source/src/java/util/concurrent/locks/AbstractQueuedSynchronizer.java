@@ -374,7 +374,40 @@ public abstract class AbstractQueuedSynchronizer
      * Creates a new {@code AbstractQueuedSynchronizer} instance
      * with initial synchronization state of zero.
      */
-    protected AbstractQueuedSynchronizer() { }
+    protected AbstractQueuedSynchronizer() {
+        spin = null;
+    }
+
+    /**
+     * Creates a new {@code AbstractQueuedSynchronizer} instance
+     * with initial synchronization state of zero, optionally using
+     * adaptive spinning.
+     *
+     * <p>With adaptive spinning, a thread that is next in line to
+     * acquire spins for a while, retrying {@link #tryAcquire} or
+     * {@link #tryAcquireShared}, before blocking. The spin duration
+     * is sized from recently sampled exclusive hold times, shrunk
+     * after spins that fail and regrown after spins that succeed,
+     * and spinning stops early if the thread set by {@link
+     * #setExclusiveOwnerThread} is not running. This can much
+     * reduce acquisition latency when critical sections are short
+     * compared to the cost of blocking and unblocking a thread, at
+     * the expense of CPU time, so it is disabled by default and
+     * never used on uniprocessors. Waits are then also recorded in a
+     * {@link WaitTimeHistogram} (see {@link #getWaitTimeHistogram}).
+     * Adaptive spinning is not retained across serialization.
+     *
+     * @param adaptiveSpinning {@code true} to use adaptive spinning
+     * @since 1.8
+     */
+    protected AbstractQueuedSynchronizer(boolean adaptiveSpinning) {
+        spin = adaptiveSpinning ? new AdaptiveSpin() : null;
+    }
+
+    /**
+     * Adaptive spinning state, or null if not enabled.
+     */
+    private final transient AdaptiveSpin spin;
 
     /**
      * Wait queue node class.
@@ -758,6 +791,167 @@ public abstract class AbstractQueuedSynchronizer
      */
     static final long spinForTimeoutThreshold = 1000L;
 
+    /**
+     * State for adaptive spinning (see the protected constructor).
+     *
+     * The spin budget is twice an exponentially weighted average of
+     * exclusive hold times, shifted right by a backoff that grows by
+     * one on each spin that runs out without acquiring and shrinks by
+     * one on each that succeeds, so locks whose holders usually take
+     * longer than a spin soon stop spinning, but retry occasionally
+     * with a short budget. Hold times are sampled by the owner (one
+     * acquire in HOLD_SAMPLE_MASK + 1, plus every queued acquire,
+     * which reads the clock anyway). Every exclusive acquire sets
+     * holdStart, and release reads it before calling tryRelease but
+     * records the hold only if tryRelease returns true, so holdStart
+     * and holds are only written by the owner and need no
+     * synchronization, and neither partial releases of reentrant
+     * holds nor failed releases by other threads are sampled.
+     * Shared holds are not sampled, since there may be many holders.
+     * Fields read by spinning threads are updated racily; they are
+     * only heuristics.
+     */
+    static final class AdaptiveSpin {
+        /** Whether spinning can ever help. */
+        static final boolean MP =
+            Runtime.getRuntime().availableProcessors() > 1;
+
+        /** Budget before any hold time has been sampled. */
+        static final long INITIAL_SPIN_NANOS = 2000L;
+
+        /** Maximum spin budget. */
+        static final long MAX_SPIN_NANOS = 50000L;
+
+        /** Maximum backoff shift applied to the budget. */
+        static final int MAX_BACKOFF = 6;
+
+        /** Sample one in this many (plus one) uncontended acquires. */
+        static final int HOLD_SAMPLE_MASK = 7;
+
+        /** Number of spins between checks of the clock and owner. */
+        static final int SPIN_CHECK_MASK = 15;
+
+        final WaitTimeHistogram waits = new WaitTimeHistogram();
+        volatile long avgHold;   // weighted average of sampled holds
+        volatile int backoff;    // budget shift, 0..MAX_BACKOFF
+        long holdStart;          // owner only: start of sampled hold
+        int holds;               // owner only: acquires since sample
+
+        /** Returns the spin budget in nanoseconds, or 0 to not spin. */
+        long budget() {
+            if (!MP)
+                return 0L;
+            long h = avgHold;
+            long b = (h == 0L) ? INITIAL_SPIN_NANOS :
+                Math.min(MAX_SPIN_NANOS, h << 1);
+            return b >>> backoff;
+        }
+
+        void spinSucceeded() {
+            int b;
+            if ((b = backoff) > 0)
+                backoff = b - 1;
+        }
+
+        void spinFailed() {
+            int b;
+            if ((b = backoff) < MAX_BACKOFF)
+                backoff = b + 1;
+        }
+
+        /** Called by the owner after an immediate exclusive acquire. */
+        void acquired() {
+            holdStart = ((++holds & HOLD_SAMPLE_MASK) == 0) ?
+                System.nanoTime() : 0L;
+        }
+
+        /**
+         * Called after a queued acquire that started waiting at
+         * start, by the new owner if exclusive.
+         */
+        void acquired(long start, boolean exclusive) {
+            long now = System.nanoTime();
+            waits.record(now - start);
+            if (exclusive)
+                holdStart = now;
+        }
+
+        /**
+         * Called after a full exclusive release of a hold sampled
+         * from start, as read by the owner before releasing.
+         */
+        void released(long start) {
+            long h = System.nanoTime() - start, a = avgHold;
+            avgHold = (a == 0L) ? Math.max(1L, h) :
+                Math.max(1L, a + ((h - a) >> 3));
+        }
+
+        /**
+         * Returns true if t is null (owner unknown) or is running,
+         * so that it may soon release.
+         */
+        static boolean isRunning(Thread t) {
+            return t == null || t.getState() == Thread.State.RUNNABLE;
+        }
+    }
+
+    /**
+     * Spins for up to the adaptive spin budget, but not past the
+     * given deadline if timed, retrying tryAcquire while the
+     * exclusive owner, if known, is running.
+     *
+     * @return {@code true} if acquired
+     */
+    private boolean spinAcquire(AdaptiveSpin s, int arg,
+                                boolean timed, long deadline) {
+        long budget = s.budget();
+        if (budget <= 0L || !AdaptiveSpin.isRunning(getExclusiveOwnerThread()))
+            return false;
+        long end = System.nanoTime() + budget;
+        if (timed && end - deadline > 0L)
+            end = deadline;
+        for (int i = 1; ; ++i) {
+            if (tryAcquire(arg)) {
+                s.spinSucceeded();
+                return true;
+            }
+            if ((i & AdaptiveSpin.SPIN_CHECK_MASK) == 0 &&
+                (System.nanoTime() - end >= 0L ||
+                 !AdaptiveSpin.isRunning(getExclusiveOwnerThread())))
+                break;
+        }
+        s.spinFailed();
+        return false;
+    }
+
+    /**
+     * Shared mode version of spinAcquire.
+     *
+     * @return the last result of tryAcquireShared
+     */
+    private int spinAcquireShared(AdaptiveSpin s, int arg,
+                                  boolean timed, long deadline) {
+        long budget = s.budget();
+        if (budget <= 0L || !AdaptiveSpin.isRunning(getExclusiveOwnerThread()))
+            return -1;
+        long end = System.nanoTime() + budget;
+        if (timed && end - deadline > 0L)
+            end = deadline;
+        for (int i = 1; ; ++i) {
+            int r = tryAcquireShared(arg);
+            if (r >= 0) {
+                s.spinSucceeded();
+                return r;
+            }
+            if ((i & AdaptiveSpin.SPIN_CHECK_MASK) == 0 &&
+                (System.nanoTime() - end >= 0L ||
+                 !AdaptiveSpin.isRunning(getExclusiveOwnerThread())))
+                break;
+        }
+        s.spinFailed();
+        return -1;
+    }
+
     /**
      * Inserts node into queue, initializing if necessary. See picture above.
      * 将节点插入队列，必要时进行初始化。 参见上图。
@@ -1085,6 +1279,8 @@ public abstract class AbstractQueuedSynchronizer
      *         如果在等待时中断，返回true
      */
     final boolean acquireQueued(final Node node, int arg) {
+        final AdaptiveSpin s = spin;
+        final long start = (s == null) ? 0L : System.nanoTime();
         // 标记是否成功拿到资源
         boolean failed = true;
         try {
@@ -1095,12 +1291,15 @@ public abstract class AbstractQueuedSynchronizer
                 // 获取当前节点的前驱节点p
                 final Node p = node.predecessor();
                 // 如果p是头结点，说明当前节点在真实数据队列的首部，就尝试获取锁（别忘了头结点是虚节点）
-                if (p == head && tryAcquire(arg)) {
+                if (p == head && (tryAcquire(arg) ||
+                                  (s != null && spinAcquire(s, arg, false, 0L)))) {
                     // 获取锁成功，头指针移动到当前node
                     // 注：setHead方法是把当前节点置为虚节点，但并没有修改waitStatus，因为它是一直需要用的数据。
                     setHead(node);
                     p.next = null; // help GC
                     failed = false;
+                    if (s != null)
+                        s.acquired(start, true);
                     return interrupted;
                 }
                 // 说明p为头节点且当前没有获取到锁（可能是非公平锁被抢占了）或者是p不为头结点，
@@ -1121,15 +1320,20 @@ public abstract class AbstractQueuedSynchronizer
      */
     private void doAcquireInterruptibly(int arg)
         throws InterruptedException {
+        final AdaptiveSpin s = spin;
+        final long start = (s == null) ? 0L : System.nanoTime();
         final Node node = addWaiter(Node.EXCLUSIVE);
         boolean failed = true;
         try {
             for (;;) {
                 final Node p = node.predecessor();
-                if (p == head && tryAcquire(arg)) {
+                if (p == head && (tryAcquire(arg) ||
+                                  (s != null && spinAcquire(s, arg, false, 0L)))) {
                     setHead(node);
                     p.next = null; // help GC
                     failed = false;
+                    if (s != null)
+                        s.acquired(start, true);
                     return;
                 }
                 if (shouldParkAfterFailedAcquire(p, node) &&
@@ -1153,16 +1357,22 @@ public abstract class AbstractQueuedSynchronizer
             throws InterruptedException {
         if (nanosTimeout <= 0L)
             return false;
-        final long deadline = System.nanoTime() + nanosTimeout;
+        final AdaptiveSpin s = spin;
+        final long start = System.nanoTime();
+        final long deadline = start + nanosTimeout;
         final Node node = addWaiter(Node.EXCLUSIVE);
         boolean failed = true;
         try {
             for (;;) {
                 final Node p = node.predecessor();
-                if (p == head && tryAcquire(arg)) {
+                if (p == head && (tryAcquire(arg) ||
+                                  (s != null &&
+                                   spinAcquire(s, arg, true, deadline)))) {
                     setHead(node);
                     p.next = null; // help GC
                     failed = false;
+                    if (s != null)
+                        s.acquired(start, true);
                     return true;
                 }
                 nanosTimeout = deadline - System.nanoTime();
@@ -1185,6 +1395,8 @@ public abstract class AbstractQueuedSynchronizer
      * @param arg the acquire argument
      */
     private void doAcquireShared(int arg) {
+        final AdaptiveSpin s = spin;
+        final long start = (s == null) ? 0L : System.nanoTime();
         final Node node = addWaiter(Node.SHARED);
         boolean failed = true;
         try {
@@ -1193,12 +1405,16 @@ public abstract class AbstractQueuedSynchronizer
                 final Node p = node.predecessor();
                 if (p == head) {
                     int r = tryAcquireShared(arg);
+                    if (r < 0 && s != null)
+                        r = spinAcquireShared(s, arg, false, 0L);
                     if (r >= 0) {
                         setHeadAndPropagate(node, r);
                         p.next = null; // help GC
                         if (interrupted)
                             selfInterrupt();
                         failed = false;
+                        if (s != null)
+                            s.acquired(start, false);
                         return;
                     }
                 }
@@ -1218,6 +1434,8 @@ public abstract class AbstractQueuedSynchronizer
      */
     private void doAcquireSharedInterruptibly(int arg)
         throws InterruptedException {
+        final AdaptiveSpin s = spin;
+        final long start = (s == null) ? 0L : System.nanoTime();
         final Node node = addWaiter(Node.SHARED);
         boolean failed = true;
         try {
@@ -1225,10 +1443,14 @@ public abstract class AbstractQueuedSynchronizer
                 final Node p = node.predecessor();
                 if (p == head) {
                     int r = tryAcquireShared(arg);
+                    if (r < 0 && s != null)
+                        r = spinAcquireShared(s, arg, false, 0L);
                     if (r >= 0) {
                         setHeadAndPropagate(node, r);
                         p.next = null; // help GC
                         failed = false;
+                        if (s != null)
+                            s.acquired(start, false);
                         return;
                     }
                 }
@@ -1253,7 +1475,9 @@ public abstract class AbstractQueuedSynchronizer
             throws InterruptedException {
         if (nanosTimeout <= 0L)
             return false;
-        final long deadline = System.nanoTime() + nanosTimeout;
+        final AdaptiveSpin s = spin;
+        final long start = System.nanoTime();
+        final long deadline = start + nanosTimeout;
         final Node node = addWaiter(Node.SHARED);
         boolean failed = true;
         try {
@@ -1261,10 +1485,14 @@ public abstract class AbstractQueuedSynchronizer
                 final Node p = node.predecessor();
                 if (p == head) {
                     int r = tryAcquireShared(arg);
+                    if (r < 0 && s != null)
+                        r = spinAcquireShared(s, arg, true, deadline);
                     if (r >= 0) {
                         setHeadAndPropagate(node, r);
                         p.next = null; // help GC
                         failed = false;
+                        if (s != null)
+                            s.acquired(start, false);
                         return true;
                     }
                 }
@@ -1458,9 +1686,12 @@ public abstract class AbstractQueuedSynchronizer
     public final void acquire(int arg) {
         // 注意本方法是独占模式下的
         // 如果调用子类tryAcquire(arg)方法获取独占锁失败，尝试往队列里增加独占模式的等待节点
-        if (!tryAcquire(arg) &&
-            acquireQueued(addWaiter(Node.EXCLUSIVE), arg))
-            selfInterrupt();
+        if (!tryAcquire(arg)) {
+            if (acquireQueued(addWaiter(Node.EXCLUSIVE), arg))
+                selfInterrupt();
+        }
+        else if (spin != null)
+            spin.acquired();
     }
 
     /**
@@ -1483,6 +1714,8 @@ public abstract class AbstractQueuedSynchronizer
             throw new InterruptedException();
         if (!tryAcquire(arg))
             doAcquireInterruptibly(arg);
+        else if (spin != null)
+            spin.acquired();
     }
 
     /**
@@ -1506,8 +1739,23 @@ public abstract class AbstractQueuedSynchronizer
             throws InterruptedException {
         if (Thread.interrupted())
             throw new InterruptedException();
-        return tryAcquire(arg) ||
-            doAcquireNanos(arg, nanosTimeout);
+        if (!tryAcquire(arg))
+            return doAcquireNanos(arg, nanosTimeout);
+        if (spin != null)
+            spin.acquired();
+        return true;
+    }
+
+    /**
+     * Samples the hold that starts with an immediate exclusive
+     * acquire made without going through {@link #acquire}, such as
+     * the barging fast paths of {@link ReentrantLock}, as that
+     * method would.
+     */
+    final void acquiredImmediately() {
+        AdaptiveSpin s = spin;
+        if (s != null)
+            s.acquired();
     }
 
     /**
@@ -1529,8 +1777,13 @@ public abstract class AbstractQueuedSynchronizer
      *        从 tryRelease(int) 返回的值
      */
     public final boolean release(int arg) {
+        AdaptiveSpin s = spin;
+        // read while still the owner; once released, a new owner sets it
+        long start = (s != null) ? s.holdStart : 0L;
         // tryRelease如果返回true，说明该锁没有被任何线程持有
         if (tryRelease(arg)) {
+            if (start != 0L)
+                s.released(start);
             Node h = head;
             // 头结点不为空并且头结点的waitStatus不是初始化节点情况，解除线程挂起状态
             //这里的判断条件为什么是h != null && h.waitStatus != 0？
@@ -1821,6 +2074,34 @@ public abstract class AbstractQueuedSynchronizer
 
     // Instrumentation and monitoring methods
 
+    /**
+     * Returns the histogram of acquisition wait times maintained when
+     * this synchronizer was constructed with adaptive spinning (see
+     * {@link #AbstractQueuedSynchronizer(boolean)}).
+     *
+     * @return the wait time histogram, or {@code null} if adaptive
+     * spinning is not enabled
+     * @since 1.8
+     */
+    public final WaitTimeHistogram getWaitTimeHistogram() {
+        AdaptiveSpin s = spin;
+        return (s == null) ? null : s.waits;
+    }
+
+    /**
+     * Returns the weighted average of the sampled exclusive hold
+     * times that the adaptive spin budget is based on (see {@link
+     * #AbstractQueuedSynchronizer(boolean)}).
+     *
+     * @return the average hold time in nanoseconds, or {@code 0} if
+     * no hold has been sampled or adaptive spinning is not enabled
+     * @since 1.8
+     */
+    public final long getAverageHoldNanos() {
+        AdaptiveSpin s = spin;
+        return (s == null) ? 0L : s.avgHold;
+    }
+
     /**
      * Returns an estimate of the number of threads waiting to
      * acquire.  The value is only an estimate because the number of
@@ -145,6 +145,10 @@ public class ReentrantLock implements Lock, java.io.Serializable {
     abstract static class Sync extends AbstractQueuedSynchronizer {
         private static final long serialVersionUID = -5179523762034025860L;
 
+        Sync(boolean adaptiveSpinning) {
+            super(adaptiveSpinning);
+        }
+
         /**
          * Performs {@link Lock#lock}. The main reason for subclassing
          * is to allow fast path for nonfair version.
@@ -245,6 +249,10 @@ public class ReentrantLock implements Lock, java.io.Serializable {
     static final class NonfairSync extends Sync {
         private static final long serialVersionUID = 7316153563782823691L;
 
+        NonfairSync(boolean adaptiveSpinning) {
+            super(adaptiveSpinning);
+        }
+
         /**
          * Performs lock.  Try immediate barge, backing up to normal
          * acquire on failure.
@@ -254,10 +262,12 @@ public class ReentrantLock implements Lock, java.io.Serializable {
          */
         final void lock() {
             // 先尝试通过CAS更新AQS中的state字段
-            if (compareAndSetState(0, 1))
+            if (compareAndSetState(0, 1)) {
                 //expect为0，CAS成功，表明当前线程获取到了锁，而且是第一次获取到锁
                 // 把当前线程设为锁的独占线程
                 setExclusiveOwnerThread(Thread.currentThread());
+                acquiredImmediately();
+            }
             else
                 acquire(1);
         }
@@ -276,6 +286,10 @@ public class ReentrantLock implements Lock, java.io.Serializable {
     static final class FairSync extends Sync {
         private static final long serialVersionUID = -3000897897090466540L;
 
+        FairSync(boolean adaptiveSpinning) {
+            super(adaptiveSpinning);
+        }
+
         final void lock() {
             acquire(1);
         }
@@ -319,7 +333,7 @@ public class ReentrantLock implements Lock, java.io.Serializable {
      * 相当于使用 {@code ReentrantLock(false)}.
      */
     public ReentrantLock() {
-        sync = new NonfairSync();
+        sync = new NonfairSync(false);
     }
 
     /**
@@ -331,7 +345,31 @@ public class ReentrantLock implements Lock, java.io.Serializable {
      *                         如果此锁应该使用公平的排序策略，则该参数为 true
      */
     public ReentrantLock(boolean fair) {
-        sync = fair ? new FairSync() : new NonfairSync();
+        this(fair, false);
+    }
+
+    /**
+     * Creates an instance of {@code ReentrantLock} with the
+     * given fairness policy and spinning policy.
+     *
+     * <p>With adaptive spinning, a thread that is next in line for
+     * the lock spins for a while before blocking, for about twice
+     * the recently observed hold time, and only while the owner is
+     * running; see {@link
+     * AbstractQueuedSynchronizer#AbstractQueuedSynchronizer(boolean)}.
+     * This helps when critical sections are very short, so that the
+     * cost of blocking and unblocking dominates. Such locks also
+     * record their acquisition wait times; see {@link
+     * #getWaitTimeHistogram}.
+     *
+     * @param fair {@code true} if this lock should use a fair ordering policy
+     * @param adaptiveSpinning {@code true} if waiting threads should
+     *        spin adaptively before blocking
+     * @since 1.8
+     */
+    public ReentrantLock(boolean fair, boolean adaptiveSpinning) {
+        sync = fair ? new FairSync(adaptiveSpinning) :
+            new NonfairSync(adaptiveSpinning);
     }
 
     /**
@@ -458,7 +496,10 @@ public class ReentrantLock implements Lock, java.io.Serializable {
      */
     public boolean tryLock() {
         //注意采用的是非公平地尝试获取锁方式
-        return sync.nonfairTryAcquire(1);
+        if (!sync.nonfairTryAcquire(1))
+            return false;
+        sync.acquiredImmediately();
+        return true;
     }
 
     /**
@@ -744,6 +785,31 @@ public class ReentrantLock implements Lock, java.io.Serializable {
         return sync instanceof FairSync;
     }
 
+    /**
+     * Returns the histogram of times threads spent waiting to acquire
+     * this lock, if it was created with adaptive spinning.
+     *
+     * @return the wait time histogram, or {@code null} if this lock
+     * does not use adaptive spinning
+     * @since 1.8
+     */
+    public final WaitTimeHistogram getWaitTimeHistogram() {
+        return sync.getWaitTimeHistogram();
+    }
+
+    /**
+     * Returns the weighted average of the sampled times this lock
+     * was held, which adaptive spinning bases its spin budget on.
+     *
+     * @return the average hold time in nanoseconds, or {@code 0} if
+     * no hold has been sampled or this lock does not use adaptive
+     * spinning
+     * @since 1.8
+     */
+    public final long getAverageHoldNanos() {
+        return sync.getAverageHoldNanos();
+    }
+
     /**
      * Returns the thread that currently owns this lock, or
      * {@code null} if not owned. When this method is called by a
@@ -278,7 +278,29 @@ public class ReentrantReadWriteLock
      * @param fair {@code true} if this lock should use a fair ordering policy
      */
     public ReentrantReadWriteLock(boolean fair) {
-        sync = fair ? new FairSync() : new NonfairSync();
+        this(fair, false);
+    }
+
+    /**
+     * Creates a new {@code ReentrantReadWriteLock} with
+     * the given fairness policy and spinning policy.
+     *
+     * <p>With adaptive spinning, a thread that is next in line for
+     * the read or write lock spins for a while before blocking, for
+     * about twice the recently observed write lock hold time, and
+     * while a writer holds the lock only if it is running; see {@link
+     * AbstractQueuedSynchronizer#AbstractQueuedSynchronizer(boolean)}.
+     * Such locks also record their acquisition wait times; see
+     * {@link #getWaitTimeHistogram}.
+     *
+     * @param fair {@code true} if this lock should use a fair ordering policy
+     * @param adaptiveSpinning {@code true} if waiting threads should
+     *        spin adaptively before blocking
+     * @since 1.8
+     */
+    public ReentrantReadWriteLock(boolean fair, boolean adaptiveSpinning) {
+        sync = fair ? new FairSync(adaptiveSpinning) :
+            new NonfairSync(adaptiveSpinning);
         readerLock = new ReadLock(this);
         writerLock = new WriteLock(this);
     }
@@ -375,7 +397,8 @@ public class ReentrantReadWriteLock
         private transient Thread firstReader = null;
         private transient int firstReaderHoldCount;
 
-        Sync() {
+        Sync(boolean adaptiveSpinning) {
+            super(adaptiveSpinning);
             readHolds = new ThreadLocalHoldCounter();
             setState(getState()); // ensures visibility of readHolds
         }
@@ -709,6 +732,9 @@ public class ReentrantReadWriteLock
      */
     static final class NonfairSync extends Sync {
         private static final long serialVersionUID = -8159625535654395037L;
+        NonfairSync(boolean adaptiveSpinning) {
+            super(adaptiveSpinning);
+        }
         final boolean writerShouldBlock() {
             return false; // writers can always barge
         }
@@ -729,6 +755,9 @@ public class ReentrantReadWriteLock
      */
     static final class FairSync extends Sync {
         private static final long serialVersionUID = -2274990926593161451L;
+        FairSync(boolean adaptiveSpinning) {
+            super(adaptiveSpinning);
+        }
         final boolean writerShouldBlock() {
             return hasQueuedPredecessors();
         }
@@ -1069,7 +1098,10 @@ public class ReentrantReadWriteLock
          * by the current thread; and {@code false} otherwise.
          */
         public boolean tryLock( ) {
-            return sync.tryWriteLock();
+            if (!sync.tryWriteLock())
+                return false;
+            sync.acquiredImmediately();
+            return true;
         }
 
         /**
@@ -1273,6 +1305,19 @@ public class ReentrantReadWriteLock
         return sync instanceof FairSync;
     }
 
+    /**
+     * Returns the histogram of times threads spent waiting to acquire
+     * the read or write lock, if this lock was created with adaptive
+     * spinning.
+     *
+     * @return the wait time histogram, or {@code null} if this lock
+     * does not use adaptive spinning
+     * @since 1.8
+     */
+    public final WaitTimeHistogram getWaitTimeHistogram() {
+        return sync.getWaitTimeHistogram();
+    }
+
     /**
      * Returns the thread that currently owns the write lock, or
      * {@code null} if not owned. When this method is called by a
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent.locks;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.atomic.LongAdderArray;
+
+/**
+ * A histogram of the times threads spent waiting to acquire a
+ * synchronizer, maintained by an {@link AbstractQueuedSynchronizer}
+ * constructed with adaptive spinning enabled (see for example {@link
+ * ReentrantLock#ReentrantLock(boolean, boolean)}).
+ *
+ * <p>Only acquisitions that could not be granted immediately, and so
+ * were queued, spun and/or blocked, are recorded.  Wait times are
+ * counted in power-of-two buckets: bucket {@code k} counts waits of
+ * at least 2<sup>k</sup> and less than 2<sup>k+1</sup> nanoseconds,
+ * except that bucket 0 also counts waits under one nanosecond and the
+ * last bucket counts all longer waits.
+ *
+ * <p>Recording never blocks acquiring threads, and the methods
+ * reading this histogram do not block them either; so when there are
+ * concurrent acquisitions, values read are <em>not</em> atomic
+ * snapshots, in the same sense as for {@link LongAdder#sum}.
+ *
+ * @since 1.8
+ */
+public final class WaitTimeHistogram {
+
+    /** The number of buckets; the last counts waits of 2^39ns (~9min) or more. */
+    public static final int BUCKETS = 40;
+
+    private final LongAdderArray counts = new LongAdderArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+
+    WaitTimeHistogram() {
+    }
+
+    /**
+     * Records a wait of the given number of nanoseconds.
+     */
+    void record(long nanos) {
+        if (nanos < 0L)
+            nanos = 0L;
+        counts.increment(Math.min(BUCKETS - 1,
+                                  63 - Long.numberOfLeadingZeros(nanos | 1L)));
+        totalNanos.add(nanos);
+    }
+
+    /**
+     * Returns the smallest wait time, in nanoseconds, counted in the
+     * given bucket.
+     *
+     * @param bucket the bucket index
+     * @return the lower bound of the bucket
+     * @throws IndexOutOfBoundsException if bucket is out of range
+     */
+    public static long lowerBound(int bucket) {
+        if (bucket < 0 || bucket >= BUCKETS)
+            throw new IndexOutOfBoundsException("index " + bucket);
+        return (bucket == 0) ? 0L : 1L << bucket;
+    }
+
+    /**
+     * Returns the number of recorded waits.
+     *
+     * @return the number of recorded waits
+     */
+    public long getCount() {
+        long n = 0L;
+        for (long c : counts.snapshot())
+            n += c;
+        return n;
+    }
+
+    /**
+     * Returns the number of recorded waits counted in each bucket.
+     *
+     * @return a new array holding the count of each bucket
+     */
+    public long[] getBucketCounts() {
+        return counts.snapshot();
+    }
+
+    /**
+     * Returns the sum of all recorded waits, in nanoseconds.
+     *
+     * @return the total wait time
+     */
+    public long getTotalWaitNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Returns the mean recorded wait, in nanoseconds, or zero if none
+     * have been recorded.
+     *
+     * @return the mean wait time
+     */
+    public double getMeanWaitNanos() {
+        long n = getCount();
+        return (n == 0L) ? 0.0 : (double)totalNanos.sum() / n;
+    }
+
+    /**
+     * Returns an upper bound, in nanoseconds, of the wait time below
+     * which the given fraction of recorded waits fall: the exclusive
+     * upper bound of the bucket containing that percentile, or zero
+     * if no waits have been recorded.
+     *
+     * @param fraction the fraction of waits, for example {@code 0.99}
+     * @return the bound
+     * @throws IllegalArgumentException if fraction is not between
+     * zero and one
+     */
+    public long getPercentileNanos(double fraction) {
+        if (!(fraction >= 0.0 && fraction <= 1.0))
+            throw new IllegalArgumentException();
+        long[] c = counts.snapshot();
+        long n = 0L;
+        for (long x : c)
+            n += x;
+        if (n == 0L)
+            return 0L;
+        long rank = Math.max(1L, (long)Math.ceil(fraction * n)), seen = 0L;
+        int k = 0;
+        while (k < BUCKETS - 1 && (seen += c[k]) < rank)
+            ++k;
+        return (k == BUCKETS - 1) ? Long.MAX_VALUE : 1L << (k + 1);
+    }
+
+    /**
+     * Resets all counts to zero.  This method is only effective if
+     * there are no concurrent acquisitions being recorded.
+     */
+    public void reset() {
+        counts.reset();
+        totalNanos.reset();
+    }
+
+    /**
+     * Returns a string summarizing this histogram: the number of
+     * recorded waits, their mean, and bounds of the 50th, 99th and
+     * 99.9th percentiles, all in nanoseconds.
+     *
+     * @return a string summarizing this histogram
+     */
+    public String toString() {
+        return super.toString() +
+            "[count = " + getCount() +
+            ", mean = " + (long)getMeanWaitNanos() +
+            "ns, p50 < " + getPercentileNanos(0.5) +
+            "ns, p99 < " + getPercentileNanos(0.99) +
+            "ns, p99.9 < " + getPercentileNanos(0.999) + "ns]";
+    }
+}
@@ -28,6 +28,7 @@ package java.util.jar;
 import java.io.*;
 import java.lang.ref.SoftReference;
 import java.net.URL;
+import java.nio.channels.SeekableByteChannel;
 import java.util.*;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -74,6 +75,8 @@ class JarFile extends ZipFile {
     private JarVerifier jv;
     private boolean jvInitialized;
     private boolean verify;
+    private final boolean mapped;
+    private String[] metaInfNames;
 
     // indicates if Class-Path attribute present (only valid if hasCheckedSpecialAttributes true)
     private boolean hasClassPathAttribute;
@@ -149,7 +152,8 @@ class JarFile extends ZipFile {
     /**
      * Creates a new <code>JarFile</code> to read from the specified
      * <code>File</code> object in the specified mode.  The mode argument
-     * must be either <tt>OPEN_READ</tt> or <tt>OPEN_READ | OPEN_DELETE</tt>.
+     * must be <tt>OPEN_READ</tt>, optionally combined with
+     * <tt>OPEN_DELETE</tt> and <tt>OPEN_MAPPED</tt>.
      *
      * @param file the jar file to be opened for reading
      * @param verify whether or not to verify the jar file if
@@ -165,6 +169,29 @@ class JarFile extends ZipFile {
     public JarFile(File file, boolean verify, int mode) throws IOException {
         super(file, mode);
         this.verify = verify;
+        this.mapped = SharedSecrets.getJavaUtilZipFileAccess().isMapped(this);
+    }
+
+    /**
+     * Creates a new <code>JarFile</code> to read from the specified
+     * channel, which is closed when the jar file is closed. The jar file
+     * is indexed and read in place as described for
+     * {@link ZipFile#ZipFile(SeekableByteChannel, String,
+     * java.nio.charset.Charset) ZipFile}.
+     *
+     * @param ch the channel to read the jar file from
+     * @param name the name of the jar file, returned by {@link #getName}
+     * @param verify whether or not to verify the jar file if
+     * it is signed.
+     * @throws IOException if an I/O error has occurred
+     * @since 1.8
+     */
+    public JarFile(SeekableByteChannel ch, String name, boolean verify)
+        throws IOException
+    {
+        super(ch, name);
+        this.verify = verify;
+        this.mapped = true;
     }
 
     /**
@@ -206,6 +233,32 @@ class JarFile extends ZipFile {
 
     private native String[] getMetaInfEntryNames();
 
+    /*
+     * Returns the names of the "META-INF/" entries, or null if there are
+     * none. A zip file opened in mapped mode or from a channel has no
+     * native jzfile for getMetaInfEntryNames to consult, so the names are
+     * collected from the entries instead, once.
+     */
+    private String[] metaInfEntryNames() {
+        if (!mapped) {
+            return getMetaInfEntryNames();
+        }
+        synchronized (this) {
+            if (metaInfNames == null) {
+                List<String> names = new ArrayList<>();
+                Enumeration<? extends ZipEntry> entries = super.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (name.regionMatches(true, 0, "META-INF/", 0, 9)) {
+                        names.add(name);
+                    }
+                }
+                metaInfNames = names.toArray(new String[names.size()]);
+            }
+            return metaInfNames.length == 0 ? null : metaInfNames;
+        }
+    }
+
     /**
      * Returns the <code>JarEntry</code> for the given entry name or
      * <code>null</code> if not found.
@@ -276,6 +329,10 @@ class JarFile extends ZipFile {
 
     @Override
     public Stream<JarEntry> stream() {
+        if (mapped) {
+            // keep the splittable stream of the mapped index
+            return super.stream().<JarEntry>map(JarFileEntry::new);
+        }
         return StreamSupport.stream(Spliterators.spliterator(
                 new JarEntryIterator(), size(),
                 Spliterator.ORDERED | Spliterator.DISTINCT |
@@ -330,7 +387,7 @@ class JarFile extends ZipFile {
         }
 
         if (verify) {
-            String[] names = getMetaInfEntryNames();
+            String[] names = metaInfEntryNames();
             if (names != null) {
                 for (int i = 0; i < names.length; i++) {
                     String name = names[i].toUpperCase(Locale.ENGLISH);
@@ -362,7 +419,7 @@ class JarFile extends ZipFile {
 
         // Verify "META-INF/" entries...
         try {
-            String[] names = getMetaInfEntryNames();
+            String[] names = metaInfEntryNames();
             if (names != null) {
                 for (int i = 0; i < names.length; i++) {
                     String uname = names[i].toUpperCase(Locale.ENGLISH);
@@ -495,7 +552,7 @@ class JarFile extends ZipFile {
             if (manEntry == null) {
                 // If not found, then iterate through all the "META-INF/"
                 // entries to find a match.
-                String[] names = getMetaInfEntryNames();
+                String[] names = metaInfEntryNames();
                 if (names != null) {
                     for (int i = 0; i < names.length; i++) {
                         if (MANIFEST_NAME.equals(
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.regex;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * An Aho-Corasick automaton over a set of literal strings, used to skip
+ * ahead to the positions where a match of a pattern can begin.
+ *
+ * <p>{@link Pattern} extracts the set of literals one of which every match
+ * must start with from the leading {@code Slice}, {@code Single} and
+ * {@code Branch} nodes of the pattern, so that an alternation of many
+ * literals is searched in a single pass over the input instead of trying
+ * each alternative at every position.  The same automaton reports the
+ * occurrences of the literals of all the patterns of a {@link PatternSet}.
+ *
+ * <p>The goto and failure functions are compiled into a full transition
+ * table for the Latin-1 range, indexed by equivalence classes of the
+ * characters that occur in the literals; other characters follow the
+ * failure links.  Instances are immutable and may be shared by threads.
+ *
+ * @since 1.8
+ */
+final class AhoCorasick {
+
+    private static final int[] NONE = new int[0];
+
+    /** Equivalence classes of the Latin-1 characters, 0 for unused ones. */
+    private final int[] classes = new int[256];
+    private final int classCount;
+
+    /** Latin-1 transitions, {@code classCount} entries per state. */
+    private final int[] delta;
+
+    /** Goto function on the other characters, keyed by state and char. */
+    private final HashMap<Long, Integer> wide = new HashMap<>();
+
+    private final int[] fail;
+    private final int[] depth;
+
+    /** Ids of the literals that end at each state, longest first. */
+    private final int[][] out;
+
+    private final int[] lengths;
+    private final int maxLength;
+
+    /**
+     * Creates the automaton; the id of a literal is its index.
+     */
+    AhoCorasick(int[][] literals) {
+        int n = 1;
+        for (int[] literal : literals)
+            n += literal.length;
+        int[] parent = new int[n];
+        char[] label = new char[n];
+        int[] depth = new int[n];
+        HashMap<Long, Integer> edges = new HashMap<>();
+        int[][] own = new int[n][];
+        int size = 1;
+        int count = 1;
+        int longest = 0;
+        lengths = new int[literals.length];
+        for (int id = 0; id < literals.length; id++) {
+            int[] literal = literals[id];
+            int s = 0;
+            for (int c : literal) {
+                char ch = (char) c;
+                if (ch < 256 && classes[ch] == 0)
+                    classes[ch] = count++;
+                Long key = key(s, ch);
+                Integer t = edges.get(key);
+                if (t == null) {
+                    t = size++;
+                    edges.put(key, t);
+                    parent[t] = s;
+                    label[t] = ch;
+                    depth[t] = depth[s] + 1;
+                    if (ch >= 256)
+                        wide.put(key, t);
+                }
+                s = t;
+            }
+            own[s] = (own[s] == null) ? new int[] { id }
+                                      : append(own[s], id);
+            lengths[id] = literal.length;
+            longest = Math.max(longest, literal.length);
+        }
+        classCount = count;
+        maxLength = longest;
+        this.depth = Arrays.copyOf(depth, size);
+        fail = new int[size];
+        out = new int[size][];
+        delta = new int[size * count];
+        char[] reps = new char[count];
+        for (int ch = 0; ch < 256; ch++)
+            reps[classes[ch]] = (char) ch;
+
+        // States in breadth-first order: a failure link always points to
+        // a shallower state
+        Integer[] order = new Integer[size];
+        for (int s = 0; s < size; s++)
+            order[s] = s;
+        Arrays.sort(order, (a, b) -> depth[a] - depth[b]);
+        for (int s : order) {
+            if (s != 0) {
+                int p = parent[s];
+                fail[s] = (p == 0) ? 0 : next(fail[p], label[s]);
+            }
+            int[] mine = (own[s] == null) ? NONE : own[s];
+            int[] inherited = (s == 0) ? NONE : out[fail[s]];
+            if (inherited.length == 0) {
+                out[s] = mine;
+            } else {
+                int[] all = Arrays.copyOf(mine, mine.length + inherited.length);
+                System.arraycopy(inherited, 0, all, mine.length,
+                                 inherited.length);
+                out[s] = all;
+            }
+            int row = s * count;
+            for (int k = 1; k < count; k++) {
+                Integer t = edges.get(key(s, reps[k]));
+                delta[row + k] = (t != null) ? t
+                    : (s == 0) ? 0 : delta[fail[s] * count + k];
+            }
+        }
+    }
+
+    private static Long key(int state, char ch) {
+        return ((long) state << 16) | ch;
+    }
+
+    private static int[] append(int[] a, int id) {
+        int[] b = Arrays.copyOf(a, a.length + 1);
+        b[a.length] = id;
+        return b;
+    }
+
+    /**
+     * Returns the state of the automaton before any input.
+     */
+    int start() {
+        return 0;
+    }
+
+    /**
+     * Returns the state reached from {@code state} on {@code ch}.
+     */
+    int next(int state, char ch) {
+        if (ch < 256)
+            return delta[state * classCount + classes[ch]];
+        if (wide.isEmpty())
+            return 0;
+        for (;;) {
+            Integer t = wide.get(key(state, ch));
+            if (t != null)
+                return t;
+            if (state == 0)
+                return 0;
+            state = fail[state];
+        }
+    }
+
+    /**
+     * Returns the ids of the literals that end at the last character read
+     * into {@code state}.
+     */
+    int[] output(int state) {
+        return out[state];
+    }
+
+    /**
+     * Returns the length of the literal with the given id.
+     */
+    int length(int id) {
+        return lengths[id];
+    }
+
+    /**
+     * Returns the length of the longest literal.
+     */
+    int maxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Returns the smallest index in {@code [from, to)} at which one of the
+     * literals occurs, or at which the rest of the input is a prefix of one
+     * of them, or -1 if there is none.  A match attempt at such a trailing
+     * prefix still has to be made, since it hits the end of the input.
+     */
+    int find(CharSequence seq, int from, int to) {
+        int state = 0;
+        int best = -1;
+        for (int j = from; j < to; j++) {
+            char ch = seq.charAt(j);
+            state = (ch < 256) ? delta[state * classCount + classes[ch]]
+                               : next(state, ch);
+            int[] ids = out[state];
+            if (ids.length > 0) {
+                // The literals of a state are ordered longest first
+                int s = j + 1 - lengths[ids[0]];
+                if (best < 0 || s < best)
+                    best = s;
+            }
+            // No occurrence that starts before best can still end
+            if (best >= 0 && j + 2 - maxLength >= best)
+                return best;
+        }
+        int partial = to - depth[state];
+        if (depth[state] > 0 && (best < 0 || partial < best))
+            return partial;
+        return best;
+    }
+}
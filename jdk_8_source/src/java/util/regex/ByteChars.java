@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.regex;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A character sequence that reads each byte of a {@link ByteBuffer} as the
+ * character with the same unsigned value, which lets a {@link Matcher}
+ * search ISO-8859-1 and, for ASCII-compatible patterns, US-ASCII and UTF-8
+ * input without decoding it.
+ *
+ * <p>The view covers the bytes between the position and the limit of the
+ * buffer when it was created or last {@link #set}, and uses absolute gets
+ * so that the position of the buffer is never changed.
+ *
+ * @since 1.8
+ */
+final class ByteChars implements CharSequence {
+
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    ByteChars(ByteBuffer buffer) {
+        set(buffer);
+    }
+
+    private ByteChars(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Moves this view to the remaining bytes of the given buffer.
+     */
+    void set(ByteBuffer buffer) {
+        int offset = buffer.position();
+        int length = buffer.limit() - offset;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("index " + index
+                                                + ", length " + length);
+        return (char)(buffer.get(offset + index) & 0xff);
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || start > end || end > length)
+            throw new IndexOutOfBoundsException("start " + start + ", end "
+                                                + end + ", length " + length);
+        return new ByteChars(buffer, offset + start, end - start);
+    }
+
+    public String toString() {
+        byte[] b = new byte[length];
+        for (int i = 0; i < length; i++)
+            b[i] = buffer.get(offset + i);
+        return new String(b, StandardCharsets.ISO_8859_1);
+    }
+}
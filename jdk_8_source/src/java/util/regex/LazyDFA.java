@@ -0,0 +1,1237 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * A matching engine that runs in time linear in the length of the input,
+ * used by {@link Matcher} in place of the backtracking node tree whenever
+ * the pattern allows it.
+ *
+ * <p>The node tree built by {@link Pattern} is translated into a
+ * Thompson-style program of character tests, prioritized splits, zero-width
+ * assertions and group markers.  Patterns containing back references,
+ * lookaround, independent groups, possessive quantifiers, {@code \G},
+ * {@code \R}, canonical equivalence nodes, or a counted repetition of a
+ * subexpression that can match the empty string are not translated, since
+ * the backtracking semantics of those constructs cannot be reproduced by an
+ * automaton.  A {@code *} or {@code +} loop over such a subexpression stops
+ * repeating after an iteration that matched the empty string; it is
+ * translated with a second copy of the body that starts every iteration
+ * and leaves the loop if it reaches its end without consuming a character.
+ *
+ * <p>A search first runs a lazily built DFA over the input.  A DFA state is
+ * the ordered list of program threads that are still alive, so that the
+ * automaton follows the same leftmost-first (Perl) priority as the
+ * backtracking nodes: it finds out whether there is a match, where the
+ * preferred match ends, and which threads the backtracking engine would
+ * have explored before accepting it, which is what {@link Matcher#hitEnd}
+ * and {@link Matcher#requireEnd} report.  Only when the caller needs the
+ * start of the match or the capturing groups is a Pike VM run over the
+ * span the DFA has already scanned.
+ *
+ * <p>States and their transitions are built on demand and cached in a
+ * bounded table shared by all matchers of the pattern; transitions on the
+ * Latin-1 range are indexed by equivalence classes of the character tests.
+ * When the table has to be flushed repeatedly during a single search, or
+ * the input contains surrogates, the search is abandoned and the matcher
+ * falls back to the backtracking nodes.
+ *
+ * @since 1.8
+ */
+final class LazyDFA {
+
+    /**
+     * Results of {@link #search} and {@link #match}.
+     */
+    static final int NO_MATCH = 0;
+    static final int MATCH = 1;
+    static final int FALLBACK = -1;
+
+    // Program opcodes
+    private static final int CHAR   = 0;
+    private static final int SPLIT  = 1;
+    private static final int JMP    = 2;
+    private static final int ASSERT = 3;
+    private static final int HEAD   = 4;
+    private static final int TAIL   = 5;
+    private static final int MATCH_ = 6;
+
+    /**
+     * Flags carried by every thread: the side effects on the matcher of
+     * the threads of higher priority, plus its own.  HOLDS is only used
+     * for the result of an assertion test.
+     */
+    private static final int HIT_END = 1;
+    private static final int REQUIRE_END = 2;
+    private static final int FLAGS = HIT_END | REQUIRE_END;
+    private static final int HOLDS = 4;
+
+    private static final int MAX_PROGRAM = 4096;
+    private static final int MAX_ASSERTIONS = 8;
+    private static final int MAX_CACHE = 1 << 18;
+    private static final int MAX_RESETS = 3;
+
+    private static final State DEAD = new State(new int[0], false, -1);
+
+    private final int[] op;
+    private final int[] x;
+    private final int[] y;
+    private final Pattern.CharProperty[] preds;
+    private final Pattern.Node[] assertions;
+
+    /**
+     * Pseudo program counter of the thread that starts a new match
+     * attempt at every position of an unanchored search.
+     */
+    private final int restartPc;
+
+    /** True if the pattern root is the match root, as for {@code ^}. */
+    private final boolean anchored;
+    private final int minLength;
+
+    /** The leading literals of every match, or null. */
+    private final AhoCorasick literals;
+    private final boolean captures;
+    private final int groupSlots;
+    private final int slots;
+
+    /** Equivalence classes of the character tests on the Latin-1 range. */
+    private final int[] classes;
+    private final int classCount;
+
+    // The state cache, guarded by this
+    private final HashMap<State, State> states = new HashMap<>();
+    private final State[] starts = new State[3];
+    private int cacheSize;
+    private int resets;
+    private final int[] marks;
+    private int stamp;
+    private final int[] stack;
+    private final int[] buffer;
+
+    private LazyDFA(Compiler c, boolean anchored, int minLength,
+                    AhoCorasick literals, int groupCount, int localCount) {
+        int n = c.size;
+        op = Arrays.copyOf(c.op, n);
+        x = Arrays.copyOf(c.x, n);
+        y = Arrays.copyOf(c.y, n);
+        preds = Arrays.copyOf(c.preds, n);
+        assertions = c.assertions.toArray(new Pattern.Node[0]);
+        restartPc = n;
+        this.anchored = anchored;
+        this.minLength = minLength;
+        this.literals = literals;
+        captures = groupCount > 1;
+        groupSlots = groupCount * 2;
+        slots = groupSlots + localCount;
+
+        // A group start is only recorded if its tail reads it back
+        boolean[] used = new boolean[localCount];
+        for (int pc = 0; pc < n; pc++) {
+            if (op[pc] == TAIL)
+                used[x[pc]] = true;
+        }
+        for (int pc = 0; pc < n; pc++) {
+            if (op[pc] == HEAD && !used[x[pc]]) {
+                op[pc] = JMP;
+                x[pc] = pc + 1;
+            }
+        }
+
+        classes = new int[256];
+        int count = 1;
+        IdentityHashMap<Pattern.CharProperty, Boolean> seen = new IdentityHashMap<>();
+        for (Pattern.CharProperty p : preds) {
+            if (p == null || seen.put(p, Boolean.TRUE) != null)
+                continue;
+            int[] remap = new int[count * 2];
+            Arrays.fill(remap, -1);
+            int k = 0;
+            for (int ch = 0; ch < 256; ch++) {
+                int key = classes[ch] * 2 + (p.isSatisfiedBy(ch) ? 1 : 0);
+                if (remap[key] < 0)
+                    remap[key] = k++;
+                classes[ch] = remap[key];
+            }
+            count = k;
+        }
+        classCount = count;
+
+        marks = new int[n];
+        stack = new int[2 * n + 2];
+        buffer = new int[n + 1];
+    }
+
+    /**
+     * Returns the engine for the given compiled pattern, or null if the
+     * pattern has to be matched by backtracking.
+     */
+    static LazyDFA forPattern(Pattern p) {
+        Pattern.Node root = p.root;
+        boolean anchored;
+        int minLength;
+        if (root == p.matchRoot) {
+            anchored = true;
+            minLength = 0;
+        } else if (root instanceof Pattern.Start) {
+            anchored = false;
+            minLength = ((Pattern.Start) root).minLength;
+        } else if (root instanceof Pattern.BnM) {
+            anchored = false;
+            minLength = ((Pattern.BnM) root).buffer.length;
+        } else {
+            return null;
+        }
+        Compiler c = new Compiler();
+        if (c.sequence(p.matchRoot, null) < 0
+            || c.size > MAX_PROGRAM
+            || c.assertions.size() > MAX_ASSERTIONS)
+            return null;
+        AhoCorasick literals = (root instanceof Pattern.StartLiterals)
+            ? ((Pattern.StartLiterals) root).literals : null;
+        return new LazyDFA(c, anchored, minLength, literals,
+                           p.capturingGroupCount, p.localCount);
+    }
+
+    /**
+     * Finds the next match starting at or after {@code from}, as
+     * {@code parentPattern.root.match} does.
+     */
+    int search(Matcher matcher, int from) {
+        return run(matcher, from, !anchored, false);
+    }
+
+    /**
+     * Matches at {@code from}, as {@code parentPattern.matchRoot.match}
+     * does in the given accept mode.
+     */
+    int match(Matcher matcher, int from, int anchor) {
+        return run(matcher, from, false, anchor == Matcher.ENDANCHOR);
+    }
+
+    private int run(Matcher matcher, int from, boolean restart,
+                    boolean endAnchor) {
+        CharSequence seq = matcher.text;
+        int to = matcher.to;
+        int guard = to - minLength;
+        if (restart && from > guard) {
+            // Same shortcut as Start and BnM
+            matcher.hitEnd = true;
+            return NO_MATCH;
+        }
+        int kinds = assertions.length;
+        int atEnd = 1 << kinds;
+        int resets = this.resets;
+        State s = start(restart, endAnchor);
+        int i = from;
+        int idle = from;
+        int end = -1;
+        int flags = 0;
+        int all = 0;
+        for (;;) {
+            if (s.restart) {
+                if (i > guard) {
+                    if ((s = withoutRestart(s)) == DEAD)
+                        break;
+                } else if (s.threads.length == 1) {
+                    // Every attempt started earlier has failed
+                    idle = i;
+                }
+            }
+            int mask = (i == to) ? atEnd : 0;
+            for (int k = 0; k < kinds; k++) {
+                int r = test(assertions[k], matcher, seq, i);
+                if ((r & HOLDS) != 0)
+                    mask |= 1 << k;
+                mask |= (r & FLAGS) << (kinds + 1 + 2 * k);
+            }
+            Closed c = null;
+            Closed[] cs = s.closures;
+            if (cs != null) {
+                for (Closed e : cs) {
+                    if (e != null && e.mask == mask) {
+                        c = e;
+                        break;
+                    }
+                }
+            }
+            if (c == null)
+                c = closure(s, mask);
+            all |= c.flags;
+            if (c.match) {
+                end = i;
+                flags = c.matchFlags;
+            } else {
+                // Threads above the accepted one are explored first
+                flags |= c.flags;
+            }
+            if (i == to || c.consumers.length == 0)
+                break;
+            if (kinds == 0 && s.restart && s.threads.length == 1) {
+                // Skip the characters that keep the search idle without
+                // going through the bookkeeping above
+                State[] next = c.next;
+                int limit = Math.min(guard, to - 1);
+                while (i < limit) {
+                    char ch = seq.charAt(i);
+                    if (ch >= 256 || next[classes[ch]] != s)
+                        break;
+                    i++;
+                }
+                idle = i;
+            } else if (literals != null && s.restart
+                       && s.threads.length == 1) {
+                // Assertions have to be tested at every position the
+                // automaton visits, so jump to the next position where an
+                // attempt can get past its leading literal
+                int p = literals.find(seq, i, to);
+                if (p < 0 || p > guard)
+                    break;
+                if (p > i) {
+                    i = idle = p;
+                    continue;
+                }
+            }
+            char ch = seq.charAt(i);
+            State n;
+            if (ch < 256) {
+                n = c.next[classes[ch]];
+            } else if (Character.isSurrogate(ch)) {
+                return FALLBACK;
+            } else {
+                Memo memo = c.memo;
+                n = (memo != null && memo.ch == ch) ? memo.state : null;
+            }
+            if (n == null) {
+                n = next(c, ch, endAnchor);
+                if (this.resets - resets > MAX_RESETS)
+                    return FALLBACK;
+            }
+            if (n == DEAD)
+                break;
+            s = n;
+            i++;
+        }
+        if (end < 0) {
+            // Start and BnM always report hitEnd on failure
+            matcher.hitEnd = restart || (all & HIT_END) != 0;
+            matcher.requireEnd = (all & REQUIRE_END) != 0;
+            return NO_MATCH;
+        }
+        int first = from;
+        int[] caps = null;
+        if (restart || captures) {
+            caps = pike(matcher, seq, restart ? idle : from, restart,
+                        endAnchor, guard, end);
+            if (caps == null || caps[1] != end)
+                return FALLBACK;
+            first = caps[0];
+        }
+        int[] groups = matcher.groups;
+        matcher.first = first;
+        matcher.last = end;
+        groups[0] = first;
+        groups[1] = end;
+        if (caps != null)
+            System.arraycopy(caps, 2, groups, 2, groupSlots - 2);
+        matcher.hitEnd = (flags & HIT_END) != 0;
+        matcher.requireEnd = (flags & REQUIRE_END) != 0;
+        return MATCH;
+    }
+
+    /**
+     * Runs the program as a Pike VM from {@code i} and returns the slots of
+     * the preferred match, holding its start in slot 0 and its end in slot
+     * 1, or null if there is none.  The DFA found that match to end at
+     * {@code end}.
+     */
+    private int[] pike(Matcher matcher, CharSequence seq, int i,
+                       boolean restart, boolean endAnchor, int guard,
+                       int end) {
+        int n = restartPc;
+        int to = matcher.to;
+        int kinds = assertions.length;
+        Scratch scratch = matcher.scratch;
+        if (scratch == null || scratch.mark.length < n
+            || scratch.tests.length < kinds)
+            matcher.scratch = scratch = new Scratch(n, kinds);
+        int[] tests = scratch.tests;
+        int[] tested = scratch.tested;
+        int[] kpc = scratch.kpc;
+        int[][] kcaps = scratch.kcaps;
+        int[] cpc = scratch.cpc;
+        int[][] ccaps = scratch.ccaps;
+        int[] spc = scratch.spc;
+        int[][] scaps = scratch.scaps;
+        int[] mark = scratch.mark;
+        int step = scratch.step;
+        if (step > Integer.MAX_VALUE - (to - i) - 2) {
+            // Marks left by earlier runs must not look current
+            Arrays.fill(mark, 0);
+            Arrays.fill(tested, 0);
+            step = 0;
+        }
+        int kn = 1;
+        if (restart) {
+            kpc[0] = n;
+        } else {
+            kpc[0] = 0;
+            kcaps[0] = fresh(i);
+        }
+        int[] winner = null;
+        int candidate = -1;
+        while (kn > 0) {
+            step++;
+            int cn = 0;
+            boolean cut = false;
+            for (int t = 0; t < kn && !cut; t++) {
+                int pc = kpc[t];
+                int[] caps = kcaps[t];
+                if (pc == n) {
+                    if (i > guard)
+                        continue;
+                    if (literals != null) {
+                        if (candidate < i) {
+                            // The preferred match starts at or before end
+                            int limit = Math.min(to, end + literals.maxLength());
+                            candidate = literals.find(seq, i, limit);
+                            if (candidate < 0 || candidate > end)
+                                candidate = to + 1;
+                        }
+                        if (candidate != i) {
+                            // No attempt started here can match
+                            cpc[cn] = n;
+                            ccaps[cn++] = null;
+                            continue;
+                        }
+                    }
+                    pc = 0;
+                    caps = fresh(i);
+                }
+                int sp = 0;
+                spc[sp] = pc;
+                scaps[sp++] = caps;
+                while (sp > 0) {
+                    pc = spc[--sp];
+                    caps = scaps[sp];
+                    if (mark[pc] == step)
+                        continue;
+                    mark[pc] = step;
+                    switch (op[pc]) {
+                    case CHAR:
+                        if (i < to) {
+                            cpc[cn] = pc;
+                            ccaps[cn++] = caps;
+                        }
+                        break;
+                    case SPLIT:
+                        spc[sp] = y[pc];
+                        scaps[sp++] = caps;
+                        spc[sp] = x[pc];
+                        scaps[sp++] = caps;
+                        break;
+                    case JMP:
+                        spc[sp] = x[pc];
+                        scaps[sp++] = caps;
+                        break;
+                    case ASSERT:
+                        int k = x[pc];
+                        if (tested[k] != step) {
+                            tests[k] = test(assertions[k], matcher, seq, i);
+                            tested[k] = step;
+                        }
+                        if ((tests[k] & HOLDS) != 0) {
+                            spc[sp] = pc + 1;
+                            scaps[sp++] = caps;
+                        }
+                        break;
+                    case HEAD:
+                        caps = caps.clone();
+                        caps[groupSlots + x[pc]] = i;
+                        spc[sp] = pc + 1;
+                        scaps[sp++] = caps;
+                        break;
+                    case TAIL:
+                        caps = caps.clone();
+                        caps[y[pc]] = caps[groupSlots + x[pc]];
+                        caps[y[pc] + 1] = i;
+                        spc[sp] = pc + 1;
+                        scaps[sp++] = caps;
+                        break;
+                    default: // MATCH_
+                        if (!endAnchor || i == to) {
+                            winner = caps.clone();
+                            winner[1] = i;
+                            cut = true;
+                            sp = 0;
+                        }
+                    }
+                }
+                if (!cut && kpc[t] == n && i < to) {
+                    cpc[cn] = n;
+                    ccaps[cn++] = null;
+                }
+            }
+            if (i == to)
+                break;
+            char ch = seq.charAt(i);
+            kn = 0;
+            for (int t = 0; t < cn; t++) {
+                int pc = cpc[t];
+                if (pc == n) {
+                    kpc[kn] = n;
+                    kcaps[kn++] = null;
+                } else if (preds[pc].isSatisfiedBy(ch)) {
+                    kpc[kn] = pc + 1;
+                    kcaps[kn++] = ccaps[t];
+                }
+            }
+            i++;
+        }
+        scratch.step = step;
+        return winner;
+    }
+
+    /**
+     * The working storage of the Pike VM, kept by a matcher so that
+     * finding the bounds and groups of successive matches does not
+     * allocate it again.  The step counter carries over from one run to
+     * the next, so the marks need not be cleared between runs.
+     */
+    static final class Scratch {
+        final int[] tests;
+        final int[] tested;
+        final int[] kpc;
+        final int[][] kcaps;
+        final int[] cpc;
+        final int[][] ccaps;
+        final int[] spc;
+        final int[][] scaps;
+        final int[] mark;
+        int step;
+
+        Scratch(int n, int kinds) {
+            tests = new int[kinds];
+            tested = new int[kinds];
+            kpc = new int[n + 1];
+            kcaps = new int[n + 1][];
+            cpc = new int[n + 1];
+            ccaps = new int[n + 1][];
+            spc = new int[2 * n + 2];
+            scaps = new int[2 * n + 2][];
+            mark = new int[n];
+        }
+    }
+
+    private int[] fresh(int start) {
+        int[] caps = new int[slots];
+        Arrays.fill(caps, -1);
+        caps[0] = start;
+        return caps;
+    }
+
+    /**
+     * Tests a zero-width assertion node at {@code i}, mirroring its
+     * {@code match} method for a matcher with opaque, anchoring bounds.
+     * Returns HOLDS if it succeeds, together with the flags it sets on the
+     * matcher whether or not it succeeds.
+     */
+    private static int test(Pattern.Node node, Matcher matcher,
+                            CharSequence seq, int i) {
+        int from = matcher.from;
+        int to = matcher.to;
+        if (node instanceof Pattern.Begin)
+            return (i == from) ? HOLDS : 0;
+        if (node instanceof Pattern.End)
+            return (i == to) ? HOLDS | HIT_END : 0;
+        if (node instanceof Pattern.Caret) {
+            if (i == to)
+                return HIT_END;
+            if (i > from) {
+                char ch = seq.charAt(i - 1);
+                if (ch != '\n' && ch != '\r'
+                    && (ch|1) != '\u2029'
+                    && ch != '\u0085')
+                    return 0;
+                if (ch == '\r' && seq.charAt(i) == '\n')
+                    return 0;
+            }
+            return HOLDS;
+        }
+        if (node instanceof Pattern.UnixCaret) {
+            if (i == to)
+                return HIT_END;
+            if (i > from && seq.charAt(i - 1) != '\n')
+                return 0;
+            return HOLDS;
+        }
+        if (node instanceof Pattern.Dollar) {
+            boolean multiline = ((Pattern.Dollar) node).multiline;
+            if (!multiline) {
+                if (i < to - 2)
+                    return 0;
+                if (i == to - 2
+                    && (seq.charAt(i) != '\r' || seq.charAt(i + 1) != '\n'))
+                    return 0;
+            }
+            if (i < to) {
+                char ch = seq.charAt(i);
+                if (ch == '\n') {
+                    if (i > 0 && seq.charAt(i - 1) == '\r')
+                        return 0;
+                    if (multiline)
+                        return HOLDS;
+                } else if (ch == '\r' || ch == '\u0085' ||
+                           (ch|1) == '\u2029') {
+                    if (multiline)
+                        return HOLDS;
+                } else {
+                    return 0;
+                }
+            }
+            return HOLDS | HIT_END | REQUIRE_END;
+        }
+        if (node instanceof Pattern.UnixDollar) {
+            boolean multiline = ((Pattern.UnixDollar) node).multiline;
+            if (i < to) {
+                if (seq.charAt(i) != '\n')
+                    return 0;
+                if (multiline)
+                    return HOLDS;
+                if (i != to - 1)
+                    return 0;
+            }
+            return HOLDS | HIT_END | REQUIRE_END;
+        }
+        // Bound
+        Pattern.Bound bound = (Pattern.Bound) node;
+        boolean hitEnd = matcher.hitEnd;
+        boolean requireEnd = matcher.requireEnd;
+        matcher.hitEnd = false;
+        matcher.requireEnd = false;
+        int r = ((bound.check(matcher, i, seq) & bound.type) > 0) ? HOLDS : 0;
+        if (matcher.hitEnd)
+            r |= HIT_END;
+        if (matcher.requireEnd)
+            r |= REQUIRE_END;
+        matcher.hitEnd = hitEnd;
+        matcher.requireEnd = requireEnd;
+        return r;
+    }
+
+    private State start(boolean restart, boolean endAnchor) {
+        int k = restart ? 0 : endAnchor ? 2 : 1;
+        State s = starts[k];
+        if (s == null) {
+            synchronized (this) {
+                if ((s = starts[k]) == null) {
+                    int[] threads = { restart ? restartPc << 2 : 0 };
+                    starts[k] = s = intern(threads, endAnchor);
+                }
+            }
+        }
+        return s;
+    }
+
+    private synchronized State withoutRestart(State s) {
+        State n = s.withoutRestart;
+        if (n == null) {
+            n = intern(Arrays.copyOf(s.threads, s.threads.length - 1),
+                       s.endAnchor);
+            s.withoutRestart = n;
+        }
+        return n;
+    }
+
+    private synchronized Closed closure(State s, int mask) {
+        Closed[] cs = s.closures;
+        int len = 0;
+        if (cs != null) {
+            for (Closed e : cs) {
+                if (e.mask == mask)
+                    return e;
+            }
+            len = cs.length;
+        }
+        Closed c = close(s, mask);
+        cs = (cs == null) ? new Closed[1] : Arrays.copyOf(cs, len + 1);
+        cs[len] = c;
+        s.closures = cs;
+        cacheSize += c.consumers.length + classCount + 8;
+        return c;
+    }
+
+    private synchronized State next(Closed c, char ch, boolean endAnchor) {
+        State n;
+        if (ch < 256) {
+            int k = classes[ch];
+            if ((n = c.next[k]) == null)
+                c.next[k] = n = step(c, ch, endAnchor);
+        } else {
+            Memo memo = c.memo;
+            if (memo != null && memo.ch == ch)
+                return memo.state;
+            n = step(c, ch, endAnchor);
+            c.memo = new Memo(ch, n);
+        }
+        return n;
+    }
+
+    /**
+     * Follows the epsilon transitions of the threads of {@code s} in
+     * priority order at a position described by {@code mask}: bit k tells
+     * whether assertion k holds, the next bit whether the position is the
+     * end of the region, and the following bit pairs are the flags each
+     * assertion sets there.
+     */
+    private Closed close(State s, int mask) {
+        if (++stamp == 0) {
+            Arrays.fill(marks, 0);
+            stamp = 1;
+        }
+        int kinds = assertions.length;
+        boolean atEnd = (mask & (1 << kinds)) != 0;
+        boolean accept = !s.endAnchor || atEnd;
+        int[] out = buffer;
+        int n = 0;
+        int acc = 0;
+        boolean match = false;
+        int matchFlags = 0;
+    threads:
+        for (int t : s.threads) {
+            acc |= t & FLAGS;
+            int pc = t >>> 2;
+            boolean restart = pc == restartPc;
+            int sp = 0;
+            stack[sp++] = restart ? 0 : pc;
+            while (sp > 0) {
+                pc = stack[--sp];
+                if (marks[pc] == stamp)
+                    continue;
+                marks[pc] = stamp;
+                switch (op[pc]) {
+                case CHAR:
+                    if (atEnd)
+                        acc |= HIT_END;
+                    else
+                        out[n++] = pc << 2 | acc;
+                    break;
+                case SPLIT:
+                    stack[sp++] = y[pc];
+                    stack[sp++] = x[pc];
+                    break;
+                case JMP:
+                    stack[sp++] = x[pc];
+                    break;
+                case ASSERT:
+                    int k = x[pc];
+                    acc |= (mask >>> (kinds + 1 + 2 * k)) & FLAGS;
+                    if ((mask & (1 << k)) != 0)
+                        stack[sp++] = pc + 1;
+                    break;
+                case MATCH_:
+                    if (accept) {
+                        // Threads of lower priority are never explored
+                        match = true;
+                        matchFlags = acc;
+                        break threads;
+                    }
+                    break;
+                default: // HEAD, TAIL
+                    stack[sp++] = pc + 1;
+                }
+            }
+            if (restart && !atEnd)
+                out[n++] = restartPc << 2 | acc;
+        }
+        return new Closed(mask, Arrays.copyOf(out, n), match, matchFlags,
+                          acc, classCount);
+    }
+
+    private State step(Closed c, char ch, boolean endAnchor) {
+        int[] out = buffer;
+        int n = 0;
+        for (int t : c.consumers) {
+            int pc = t >>> 2;
+            if (pc == restartPc)
+                out[n++] = t;
+            else if (preds[pc].isSatisfiedBy(ch))
+                out[n++] = t + (1 << 2);
+        }
+        return intern(Arrays.copyOf(out, n), endAnchor);
+    }
+
+    private State intern(int[] threads, boolean endAnchor) {
+        if (threads.length == 0)
+            return DEAD;
+        State s = new State(threads, endAnchor, restartPc);
+        State cached = states.get(s);
+        if (cached != null)
+            return cached;
+        if (cacheSize > MAX_CACHE) {
+            // States still referenced by running searches stay usable
+            states.clear();
+            Arrays.fill(starts, null);
+            cacheSize = 0;
+            resets++;
+        }
+        states.put(s, s);
+        cacheSize += threads.length + 8;
+        return s;
+    }
+
+    /**
+     * A DFA state: the threads still alive after consuming a character,
+     * in priority order, each encoded as {@code pc << 2 | flags}.
+     */
+    private static final class State {
+        final int[] threads;
+        final boolean endAnchor;
+        final boolean restart;
+        final int hash;
+        // Written under the engine lock, read without it
+        Closed[] closures;
+        State withoutRestart;
+
+        State(int[] threads, boolean endAnchor, int restartPc) {
+            this.threads = threads;
+            this.endAnchor = endAnchor;
+            int n = threads.length;
+            restart = n > 0 && threads[n - 1] >>> 2 == restartPc;
+            hash = Arrays.hashCode(threads) * 31 + (endAnchor ? 1 : 0);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof State))
+                return false;
+            State s = (State) o;
+            return endAnchor == s.endAnchor
+                && Arrays.equals(threads, s.threads);
+        }
+    }
+
+    /**
+     * A state after following its epsilon transitions at a position: the
+     * threads waiting for a character, whether one of them accepted, and
+     * the transitions taken from here so far.
+     */
+    private static final class Closed {
+        final int mask;
+        final int[] consumers;
+        final boolean match;
+        final int matchFlags;
+        final int flags;
+        final State[] next;
+        Memo memo;
+
+        Closed(int mask, int[] consumers, boolean match, int matchFlags,
+               int flags, int classCount) {
+            this.mask = mask;
+            this.consumers = consumers;
+            this.match = match;
+            this.matchFlags = matchFlags;
+            this.flags = flags;
+            this.next = new State[classCount];
+        }
+    }
+
+    /**
+     * The last transition taken on a character outside the Latin-1 range.
+     */
+    private static final class Memo {
+        final char ch;
+        final State state;
+
+        Memo(char ch, State state) {
+            this.ch = ch;
+            this.state = state;
+        }
+    }
+
+    /**
+     * Translates the node tree into a program.  The translating methods
+     * return 1 if the code they emitted always consumes a character, 0 if
+     * it may match the empty string, and -1 if the nodes cannot be
+     * translated.
+     */
+    private static final class Compiler {
+        int[] op = new int[16];
+        int[] x = new int[16];
+        int[] y = new int[16];
+        Pattern.CharProperty[] preds = new Pattern.CharProperty[16];
+        int size;
+        int depth;
+        int captures;
+        int owner = -1;
+        // The character tests emitted so far, and whether the body being
+        // emitted is an empty iteration copy
+        int[] tests = new int[16];
+        int testCount;
+        boolean copying;
+        final ArrayList<Pattern.Node> assertions = new ArrayList<>();
+        private final IdentityHashMap<Pattern.Node, Pattern.CharProperty[]>
+            slices = new IdentityHashMap<>();
+
+        private int emit(int code, int a, int b) {
+            if (size == op.length) {
+                int len = size * 2;
+                op = Arrays.copyOf(op, len);
+                x = Arrays.copyOf(x, len);
+                y = Arrays.copyOf(y, len);
+                preds = Arrays.copyOf(preds, len);
+            }
+            op[size] = code;
+            x[size] = a;
+            y[size] = b;
+            return size++;
+        }
+
+        private void test(Pattern.CharProperty p) {
+            int pc;
+            if (copying) {
+                // Jumps to the same test in the body, see loop
+                pc = emit(JMP, 0, 0);
+            } else {
+                pc = emit(CHAR, 0, 0);
+                preds[pc] = p;
+            }
+            if (testCount == tests.length)
+                tests = Arrays.copyOf(tests, testCount * 2);
+            tests[testCount++] = pc;
+        }
+
+        /**
+         * Translates the nodes from {@code node} up to, but not including,
+         * {@code stop}.  The top level sequence has a null stop and ends
+         * with the last accept node.
+         */
+        int sequence(Pattern.Node node, Pattern.Node stop) {
+            int consumes = 0;
+            while (node != stop) {
+                if (size > MAX_PROGRAM)
+                    return -1;
+                int r;
+                if (node == Pattern.lastAccept) {
+                    emit(MATCH_, 0, 0);
+                    return consumes;
+                } else if (node instanceof Pattern.CharProperty) {
+                    test((Pattern.CharProperty) node);
+                    r = 1;
+                    node = node.next;
+                } else if (node instanceof Pattern.SliceNode) {
+                    Pattern.CharProperty[] chars = slice((Pattern.SliceNode) node);
+                    for (Pattern.CharProperty p : chars)
+                        test(p);
+                    r = (chars.length > 0) ? 1 : 0;
+                    node = node.next;
+                } else if (node instanceof Pattern.Begin
+                           || node instanceof Pattern.End
+                           || node instanceof Pattern.Caret
+                           || node instanceof Pattern.UnixCaret
+                           || node instanceof Pattern.Dollar
+                           || node instanceof Pattern.UnixDollar
+                           || node instanceof Pattern.Bound) {
+                    emit(ASSERT, assertion(node), 0);
+                    r = 0;
+                    node = node.next;
+                } else if (node instanceof Pattern.GroupHead) {
+                    emit(HEAD, ((Pattern.GroupHead) node).localIndex, 0);
+                    r = 0;
+                    node = node.next;
+                } else if (node instanceof Pattern.GroupTail) {
+                    Pattern.GroupTail tail = (Pattern.GroupTail) node;
+                    // Pure groups have no group index of their own
+                    if (tail.groupIndex > 0) {
+                        emit(TAIL, tail.localIndex, tail.groupIndex);
+                        if (tail.localIndex != owner)
+                            captures++;
+                    }
+                    r = 0;
+                    node = node.next;
+                } else if (node instanceof Pattern.BranchConn) {
+                    r = 0;
+                    node = node.next;
+                } else if (node instanceof Pattern.Branch) {
+                    r = branch((Pattern.Branch) node);
+                    node = ((Pattern.Branch) node).conn.next;
+                } else if (node instanceof Pattern.Ques) {
+                    Pattern.Ques ques = (Pattern.Ques) node;
+                    if (ques.type != Pattern.GREEDY && ques.type != Pattern.LAZY)
+                        return -1;
+                    r = repeat(ques.atom, Pattern.accept, -1, 0, 1,
+                               ques.type == Pattern.LAZY);
+                    node = node.next;
+                } else if (node instanceof Pattern.Curly) {
+                    Pattern.Curly curly = (Pattern.Curly) node;
+                    if (curly.type == Pattern.POSSESSIVE)
+                        return -1;
+                    r = repeat(curly.atom, Pattern.accept, -1, curly.cmin,
+                               curly.cmax, curly.type == Pattern.LAZY);
+                    node = node.next;
+                } else if (node instanceof Pattern.GroupCurly) {
+                    Pattern.GroupCurly curly = (Pattern.GroupCurly) node;
+                    if (curly.type == Pattern.POSSESSIVE)
+                        return -1;
+                    // A greedy GroupCurly sets its group after the rest of
+                    // the match succeeds, so inside another repetition the
+                    // outer iteration's capture wins; leave that to the
+                    // backtracker.
+                    if (curly.capture && curly.type == Pattern.GREEDY
+                        && depth > 0)
+                        return -1;
+                    int before = captures;
+                    int outer = owner;
+                    owner = curly.localIndex;
+                    r = repeat(curly.atom, Pattern.accept,
+                               curly.capture ? curly.localIndex : -1,
+                               curly.cmin, curly.cmax,
+                               curly.type == Pattern.LAZY);
+                    owner = outer;
+                    // Groups nested in the atom are not restored when a
+                    // later iteration or the rest of the match fails
+                    if (captures != before)
+                        return -1;
+                    node = node.next;
+                } else if (node instanceof Pattern.Prolog) {
+                    Pattern.Loop loop = ((Pattern.Prolog) node).loop;
+                    boolean lazy = loop instanceof Pattern.LazyLoop;
+                    if (loop.cmin <= 1 && loop.cmax == Pattern.MAX_REPS)
+                        r = loop(loop.body, loop, loop.cmin, lazy);
+                    else
+                        r = repeat(loop.body, loop, -1, loop.cmin, loop.cmax,
+                                   lazy);
+                    node = loop.next;
+                } else {
+                    return -1;
+                }
+                if (r < 0)
+                    return r;
+                consumes |= r;
+            }
+            return consumes;
+        }
+
+        private int branch(Pattern.Branch branch) {
+            int consumes = 1;
+            int[] exits = new int[branch.size];
+            for (int n = 0; n < branch.size; n++) {
+                boolean last = n == branch.size - 1;
+                int split = last ? -1 : emit(SPLIT, size + 1, 0);
+                Pattern.Node atom = branch.atoms[n];
+                int r = (atom == null) ? 0 : sequence(atom, branch.conn);
+                if (r < 0)
+                    return r;
+                consumes &= r;
+                if (!last) {
+                    exits[n] = emit(JMP, 0, 0);
+                    y[split] = size;
+                }
+            }
+            for (int n = 0; n < branch.size - 1; n++)
+                x[exits[n]] = size;
+            return consumes;
+        }
+
+        /**
+         * Emits {@code cmin} copies of the body followed by the optional
+         * ones, or by a loop if {@code cmax} is unbounded.  The body must
+         * consume input: the backtracking nodes stop repeating a body that
+         * matched the empty string, which an automaton cannot express.
+         */
+        private int repeat(Pattern.Node body, Pattern.Node stop, int local,
+                           int cmin, int cmax, boolean lazy) {
+            boolean unbounded = cmax == Pattern.MAX_REPS;
+            if (cmin > MAX_PROGRAM || (!unbounded && cmax - cmin > MAX_PROGRAM))
+                return -1;
+            for (int k = 0; k < cmin; k++) {
+                if (body(body, stop, local) <= 0 || size > MAX_PROGRAM)
+                    return -1;
+            }
+            if (unbounded) {
+                int split = emit(SPLIT, 0, 0);
+                if (body(body, stop, local) <= 0)
+                    return -1;
+                emit(JMP, split, 0);
+                prefer(split, lazy);
+            } else if (cmax > cmin) {
+                int[] splits = new int[cmax - cmin];
+                for (int k = 0; k < splits.length; k++) {
+                    splits[k] = emit(SPLIT, 0, 0);
+                    if (body(body, stop, local) <= 0 || size > MAX_PROGRAM)
+                        return -1;
+                }
+                for (int split : splits)
+                    prefer(split, lazy);
+            }
+            return (cmin > 0) ? 1 : 0;
+        }
+
+        /**
+         * Emits a {@code *} or {@code +} loop of a {@link Pattern.Loop}.
+         * The loop stops repeating when an iteration did not advance, so
+         * every iteration starts in a copy of the body whose character
+         * tests jump to the same tests in the body, and whose end leaves
+         * the loop: past a character, the body ends with the choice of
+         * another iteration.  A body that always consumes a character is
+         * left to repeat.
+         */
+        private int loop(Pattern.Node body, Pattern.Node stop, int cmin,
+                         boolean lazy) {
+            int start = size;
+            int skip = (cmin == 0) ? emit(SPLIT, 0, 0) : -1;
+            int enter = size;
+            int first = testCount;
+            boolean outer = copying;
+            copying = true;
+            int r = body(body, stop, -1);
+            copying = outer;
+            if (r < 0)
+                return r;
+            if (r > 0) {
+                // Every iteration advances; a single body will do
+                size = start;
+                testCount = first;
+                return repeat(body, stop, -1, cmin, Pattern.MAX_REPS, lazy);
+            }
+            int done = emit(JMP, 0, 0);
+            int copied = testCount - first;
+            if (body(body, stop, -1) < 0)
+                return -1;
+            int back = emit(SPLIT, 0, 0);
+            for (int k = first; k < first + copied; k++)
+                x[tests[k]] = tests[k + copied];
+            x[done] = size;
+            x[back] = lazy ? size : enter;
+            y[back] = lazy ? enter : size;
+            if (skip >= 0)
+                prefer(skip, lazy);
+            return 0;
+        }
+
+        private int body(Pattern.Node body, Pattern.Node stop, int local) {
+            if (local >= 0)
+                emit(HEAD, local, 0);
+            depth++;
+            int r = sequence(body, stop);
+            depth--;
+            return r;
+        }
+
+        /**
+         * Points a split emitted before a repeated body at the body and at
+         * the current end of the program, in the order of preference.
+         */
+        private void prefer(int split, boolean lazy) {
+            x[split] = lazy ? size : split + 1;
+            y[split] = lazy ? split + 1 : size;
+        }
+
+        private int assertion(Pattern.Node node) {
+            for (int k = 0; k < assertions.size(); k++) {
+                Pattern.Node a = assertions.get(k);
+                if (a.getClass() != node.getClass())
+                    continue;
+                if (node instanceof Pattern.Dollar) {
+                    if (((Pattern.Dollar) a).multiline
+                        != ((Pattern.Dollar) node).multiline)
+                        continue;
+                } else if (node instanceof Pattern.UnixDollar) {
+                    if (((Pattern.UnixDollar) a).multiline
+                        != ((Pattern.UnixDollar) node).multiline)
+                        continue;
+                } else if (node instanceof Pattern.Bound) {
+                    Pattern.Bound b1 = (Pattern.Bound) a;
+                    Pattern.Bound b2 = (Pattern.Bound) node;
+                    if (b1.type != b2.type || b1.useUWORD != b2.useUWORD)
+                        continue;
+                }
+                return k;
+            }
+            assertions.add(node);
+            return assertions.size() - 1;
+        }
+
+        /**
+         * Returns one character test per element of a slice, shared by all
+         * copies of the slice in the program.
+         */
+        private Pattern.CharProperty[] slice(Pattern.SliceNode node) {
+            Pattern.CharProperty[] chars = slices.get(node);
+            if (chars == null) {
+                int fold = (node instanceof Pattern.SliceUS
+                            || node instanceof Pattern.SliceU) ? SliceChar.FOLD_UNICODE
+                         : (node instanceof Pattern.SliceIS
+                            || node instanceof Pattern.SliceI) ? SliceChar.FOLD_ASCII
+                         : SliceChar.FOLD_NONE;
+                int[] buf = node.buffer;
+                chars = new Pattern.CharProperty[buf.length];
+                for (int j = 0; j < buf.length; j++)
+                    chars[j] = new SliceChar(buf[j], fold);
+                slices.put(node, chars);
+            }
+            return chars;
+        }
+    }
+
+    /**
+     * One character of a slice node, compared the way the node compares it.
+     */
+    private static final class SliceChar extends Pattern.CharProperty {
+        static final int FOLD_NONE = 0;
+        static final int FOLD_ASCII = 1;
+        static final int FOLD_UNICODE = 2;
+
+        final int c;
+        final int fold;
+
+        SliceChar(int c, int fold) {
+            this.c = c;
+            this.fold = fold;
+        }
+
+        boolean isSatisfiedBy(int ch) {
+            if (ch == c)
+                return true;
+            switch (fold) {
+            case FOLD_ASCII:
+                return ASCII.toLower(ch) == c;
+            case FOLD_UNICODE:
+                return Character.toLowerCase(Character.toUpperCase(ch)) == c;
+            default:
+                return false;
+            }
+        }
+    }
+}
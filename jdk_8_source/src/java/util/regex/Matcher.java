@@ -25,6 +25,8 @@
 
 package java.util.regex;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.Objects;
 
 /**
@@ -207,6 +209,24 @@ public final class Matcher implements MatchResult {
      */
     boolean anchoringBounds = true;
 
+    /**
+     * The view of the byte input this matcher was last reset with, reused
+     * when the matcher is moved to the next window of the input.
+     */
+    ByteChars bytes;
+
+    /**
+     * True if the byte input is in an ASCII-compatible multibyte encoding,
+     * which only a pattern that matches ASCII characters alone can read
+     * byte by byte.
+     */
+    boolean asciiBytes;
+
+    /**
+     * Working storage of the linear-time engine, kept across matches.
+     */
+    LazyDFA.Scratch scratch;
+
     /**
      * No default constructor.
      */
@@ -263,22 +283,33 @@ public final class Matcher implements MatchResult {
       * matcher's position in the input is maintained and its
       * last append position is unaffected.</p>
       *
+      * <p> The state storage of this matcher is reused if it is large
+      * enough for the new pattern, so that switching between the patterns
+      * of a set does not allocate.</p>
+      *
       * @param  newPattern
       *         The new pattern used by this matcher
       * @return  This matcher
       * @throws  IllegalArgumentException
-      *          If newPattern is <tt>null</tt>
+      *          If newPattern is <tt>null</tt>, or if this matcher reads
+      *          UTF-8 or US-ASCII bytes and newPattern can match a
+      *          non-ASCII character
       * @since 1.5
       */
     public Matcher usePattern(Pattern newPattern) {
         if (newPattern == null)
             throw new IllegalArgumentException("Pattern cannot be null");
+        if (asciiBytes && text == bytes && !newPattern.asciiCompatible())
+            throw new IllegalArgumentException(
+                "Pattern is not ASCII-compatible");
         parentPattern = newPattern;
 
-        // Reallocate state storage
+        // Reallocate state storage only if it is too small
         int parentGroupCount = Math.max(newPattern.capturingGroupCount, 10);
-        groups = new int[parentGroupCount * 2];
-        locals = new int[newPattern.localCount];
+        if (groups.length < parentGroupCount * 2)
+            groups = new int[parentGroupCount * 2];
+        if (locals.length < newPattern.localCount)
+            locals = new int[newPattern.localCount];
         for (int i = 0; i < groups.length; i++)
             groups[i] = -1;
         for (int i = 0; i < locals.length; i++)
@@ -329,6 +360,41 @@ public final class Matcher implements MatchResult {
         return reset();
     }
 
+    /**
+     * Resets this matcher with a new window of byte input.
+     *
+     * <p> The bytes between the position and the limit of the buffer are
+     * matched without being decoded, as described for {@link
+     * Pattern#matcher(ByteBuffer, Charset)}, in the charset this matcher
+     * was created with, or ISO-8859-1 if it was created for a character
+     * sequence.  Indexes are byte offsets from the position of the buffer;
+     * the position and limit of the buffer are not changed, and its
+     * contents are read as the matcher needs them.
+     *
+     * <p> Resetting a matcher over successive windows of a {@link
+     * java.nio.MappedByteBuffer} scans a large file without creating a
+     * string for it.  A match that {@link #hitEnd hits the end} of a window
+     * may extend into the next one, and should be retried in a window that
+     * starts at the beginning of the match.  This method does not allocate
+     * when the matcher already reads byte input.  The matcher's region is
+     * set to the whole window; the anchoring and transparency of its region
+     * boundaries are unaffected.
+     *
+     * @param  input
+     *         The new input bytes
+     *
+     * @return  This matcher
+     * @since 1.8
+     */
+    public Matcher reset(ByteBuffer input) {
+        if (bytes == null)
+            bytes = new ByteChars(input);
+        else
+            bytes.set(input);
+        text = bytes;
+        return reset();
+    }
+
     /**
      * Returns the start index of the previous match.
      *
@@ -1245,7 +1311,11 @@ public final class Matcher implements MatchResult {
         for (int i = 0; i < groups.length; i++)
             groups[i] = -1;
         acceptMode = NOANCHOR;
-        boolean result = parentPattern.root.match(this, from, text);
+        LazyDFA dfa = dfa();
+        int r = (dfa != null) ? dfa.search(this, from) : LazyDFA.FALLBACK;
+        boolean result = (r == LazyDFA.FALLBACK)
+            ? parentPattern.root.match(this, from, text)
+            : r == LazyDFA.MATCH;
         if (!result)
             this.first = -1;
         this.oldLast = this.last;
@@ -1267,13 +1337,27 @@ public final class Matcher implements MatchResult {
         for (int i = 0; i < groups.length; i++)
             groups[i] = -1;
         acceptMode = anchor;
-        boolean result = parentPattern.matchRoot.match(this, from, text);
+        LazyDFA dfa = dfa();
+        int r = (dfa != null) ? dfa.match(this, from, anchor) : LazyDFA.FALLBACK;
+        boolean result = (r == LazyDFA.FALLBACK)
+            ? parentPattern.matchRoot.match(this, from, text)
+            : r == LazyDFA.MATCH;
         if (!result)
             this.first = -1;
         this.oldLast = this.last;
         return result;
     }
 
+    /**
+     * Returns the linear-time engine of the pattern, or null if the pattern
+     * or the bounds of this matcher require backtracking.
+     */
+    private LazyDFA dfa() {
+        if (!anchoringBounds || transparentBounds)
+            return null;
+        return parentPattern.dfa();
+    }
+
     /**
      * Returns the end index of the text.
      *
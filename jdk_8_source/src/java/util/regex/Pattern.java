@@ -25,12 +25,16 @@
 
 package java.util.regex;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.text.Normalizer;
 import java.util.Locale;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Arrays;
 import java.util.NoSuchElementException;
 import java.util.Spliterator;
@@ -676,6 +680,18 @@ import java.util.stream.StreamSupport;
  * <p>The <code>Pattern</code> engine performs traditional NFA-based matching
  * with ordered alternation as occurs in Perl 5.
  *
+ * <p> A pattern that contains no back references, lookahead or lookbehind,
+ * independent groups, possessive quantifiers, <tt>\G</tt> or <tt>\R</tt>,
+ * and no quantified group that can match the empty string, is matched by a
+ * lazily constructed deterministic automaton instead of by backtracking, so
+ * that {@link Matcher#find find}, {@link Matcher#matches matches} and
+ * {@link Matcher#lookingAt lookingAt} take time linear in the length of the
+ * input.  The matches, groups, {@link Matcher#hitEnd hitEnd} and
+ * {@link Matcher#requireEnd requireEnd} results are the same as those of
+ * backtracking.  Matchers whose region bounds are transparent or
+ * non-anchoring, and inputs that contain surrogate characters, are matched
+ * by backtracking.
+ *
  * <p> Perl constructs not supported by this class: </p>
  *
  * <ul>
@@ -996,6 +1012,23 @@ public final class Pattern
      */
     transient int localCount;
 
+    /**
+     * The linear-time engine for this pattern, built on first use.
+     */
+    private transient volatile LazyDFA dfa;
+
+    /**
+     * Set once this pattern has been found to need the backtracking
+     * engine.
+     */
+    private transient volatile boolean backtrackOnly;
+
+    /**
+     * 1 if this pattern is known to be ASCII-compatible, -1 if it is known
+     * not to be, 0 if that has not been computed yet.
+     */
+    private transient volatile int asciiCompatible;
+
     /**
      * Index into the pattern string that keeps track of how much has been
      * parsed.
@@ -1094,6 +1127,67 @@ public final class Pattern
         return m;
     }
 
+    /**
+     * Creates a matcher that will match the bytes between the position and
+     * the limit of the given buffer against this pattern, without decoding
+     * them into characters.
+     *
+     * <p> Each byte is read as one character.  If the charset is
+     * ISO-8859-1 this gives the same matches as matching the decoded
+     * characters.  UTF-8 and US-ASCII input can be read this way only if
+     * the pattern can match nothing but ASCII characters and cannot match
+     * the empty string, since then no match can begin, end or look into the
+     * middle of a multibyte sequence; such a pattern contains no character
+     * class that accepts a non-ASCII character, no Unicode case folding,
+     * no word boundaries and no line anchors other than those of {@link
+     * #UNIX_LINES} mode.
+     *
+     * <p> Indexes reported by the matcher are byte offsets from the
+     * position of the buffer, and the position and limit of the buffer are
+     * not changed.  The buffer is read as the matcher needs it, so that a
+     * {@link java.nio.MappedByteBuffer} can be searched without copying
+     * it; see {@link Matcher#reset(ByteBuffer)} for moving the matcher over
+     * successive windows of a large input.
+     *
+     * @param  input
+     *         The bytes to be matched
+     *
+     * @param  charset
+     *         The charset of the bytes, which must be ISO-8859-1, US-ASCII
+     *         or UTF-8
+     *
+     * @return  A new matcher for this pattern
+     *
+     * @throws  IllegalArgumentException
+     *          If the charset is not supported, or if it is US-ASCII or
+     *          UTF-8 and this pattern is not ASCII-compatible
+     * @since 1.8
+     */
+    public Matcher matcher(ByteBuffer input, Charset charset) {
+        boolean ascii;
+        if (StandardCharsets.ISO_8859_1.equals(charset))
+            ascii = false;
+        else if (StandardCharsets.UTF_8.equals(charset)
+                 || StandardCharsets.US_ASCII.equals(charset))
+            ascii = true;
+        else
+            throw new IllegalArgumentException(
+                "Unsupported charset: " + charset);
+        if (!compiled) {
+            synchronized(this) {
+                if (!compiled)
+                    compile();
+            }
+        }
+        if (ascii && !asciiCompatible())
+            throw new IllegalArgumentException(
+                "Pattern is not ASCII-compatible: " + pattern);
+        Matcher m = new Matcher(this, new ByteChars(input));
+        m.bytes = (ByteChars) m.text;
+        m.asciiBytes = ascii;
+        return m;
+    }
+
     /**
      * Returns this pattern's match flags.
      *
@@ -1710,12 +1804,12 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
         if (matchRoot instanceof Slice) {
             root = BnM.optimize(matchRoot);
             if (root == matchRoot) {
-                root = hasSupplementary ? new StartS(matchRoot) : new Start(matchRoot);
+                root = start(matchRoot);
             }
         } else if (matchRoot instanceof Begin || matchRoot instanceof First) {
             root = matchRoot;
         } else {
-            root = hasSupplementary ? new StartS(matchRoot) : new Start(matchRoot);
+            root = start(matchRoot);
         }
 
         // Release temporary storage
@@ -1726,6 +1820,178 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
         compiled = true;
     }
 
+    /**
+     * Returns the node that tries the match at each position of the input,
+     * skipping to the occurrences of the leading literals if there are any.
+     */
+    private Node start(Node node) {
+        if (hasSupplementary)
+            return new StartS(node);
+        int[][] literals = literalPrefixes(node);
+        if (literals != null)
+            return new StartLiterals(node, new AhoCorasick(literals));
+        return new Start(node);
+    }
+
+    /**
+     * Returns the set of literals one of which every match of {@code node}
+     * starts with, or null if there is no such set.  No literal in the set
+     * is a prefix of another one.
+     */
+    static int[][] literalPrefixes(Node node) {
+        ArrayList<int[]> list = new ArrayList<>();
+        if (!addPrefixes(node, list))
+            return null;
+        int[][] literals = list.toArray(new int[list.size()][]);
+        // A literal that starts with another one adds no new positions
+        Arrays.sort(literals, (a, b) -> {
+            for (int i = 0; i < a.length && i < b.length; i++) {
+                if (a[i] != b[i])
+                    return a[i] - b[i];
+            }
+            return a.length - b.length;
+        });
+        int n = 0;
+        for (int[] literal : literals) {
+            if (n == 0 || !startsWith(literal, literals[n - 1]))
+                literals[n++] = literal;
+        }
+        return Arrays.copyOf(literals, n);
+    }
+
+    private static boolean addPrefixes(Node node, ArrayList<int[]> list) {
+        while (node instanceof GroupHead)
+            node = node.next;
+        if (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            for (int n = 0; n < branch.size; n++) {
+                if (branch.atoms[n] == null
+                    || !addPrefixes(branch.atoms[n], list))
+                    return false;
+            }
+            return true;
+        }
+        int[] literal;
+        if (node instanceof Slice)
+            literal = ((Slice) node).buffer;
+        else if (node instanceof Single)
+            literal = new int[] { ((Single) node).c };
+        else
+            return false;
+        for (int c : literal) {
+            if (Character.isSurrogate((char) c))
+                return false;
+        }
+        list.add(literal);
+        return true;
+    }
+
+    private static boolean startsWith(int[] literal, int[] prefix) {
+        if (prefix.length > literal.length)
+            return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (literal[i] != prefix[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether every match of this pattern is a non-empty run of ASCII
+     * characters whose matching only looks at ASCII characters, so that it
+     * can be matched on the bytes of an ASCII-compatible encoding.
+     */
+    boolean asciiCompatible() {
+        int a = asciiCompatible;
+        if (a == 0) {
+            TreeInfo info = new TreeInfo();
+            matchRoot.study(info);
+            boolean ascii = info.minLength > 0
+                && asciiOnly(matchRoot, new IdentityHashMap<>());
+            asciiCompatible = a = ascii ? 1 : -1;
+        }
+        return a > 0;
+    }
+
+    private static boolean asciiOnly(Node node,
+                                     IdentityHashMap<Node, Boolean> seen) {
+        while (node != null && seen.put(node, Boolean.TRUE) == null) {
+            if (node == accept || node == lookbehindEnd
+                || node instanceof LastNode) {
+                return true;
+            } else if (node instanceof CharProperty) {
+                if (!((CharProperty) node).isAsciiOnly())
+                    return false;
+            } else if (node instanceof Slice || node instanceof SliceI) {
+                for (int c : ((SliceNode) node).buffer) {
+                    if (c >= 0x80)
+                        return false;
+                }
+            } else if (node instanceof Branch) {
+                Branch branch = (Branch) node;
+                for (int n = 0; n < branch.size; n++) {
+                    if (!asciiOnly(branch.atoms[n], seen))
+                        return false;
+                }
+                node = branch.conn;
+            } else if (node instanceof Prolog) {
+                node = ((Prolog) node).loop;
+                continue;
+            } else if (node instanceof Loop) {
+                if (!asciiOnly(((Loop) node).body, seen))
+                    return false;
+            } else if (node instanceof Ques) {
+                if (!asciiOnly(((Ques) node).atom, seen))
+                    return false;
+            } else if (node instanceof Curly) {
+                if (!asciiOnly(((Curly) node).atom, seen))
+                    return false;
+            } else if (node instanceof GroupCurly) {
+                if (!asciiOnly(((GroupCurly) node).atom, seen))
+                    return false;
+            } else if (node instanceof Pos) {
+                if (!asciiOnly(((Pos) node).cond, seen))
+                    return false;
+            } else if (node instanceof Neg) {
+                if (!asciiOnly(((Neg) node).cond, seen))
+                    return false;
+            } else if (node instanceof Behind) {
+                if (!asciiOnly(((Behind) node).cond, seen))
+                    return false;
+            } else if (node instanceof NotBehind) {
+                if (!asciiOnly(((NotBehind) node).cond, seen))
+                    return false;
+            } else if (!(node instanceof GroupHead
+                         || node instanceof GroupTail
+                         || node instanceof BranchConn
+                         || node instanceof Begin
+                         || node instanceof End
+                         || node instanceof UnixCaret
+                         || node instanceof UnixDollar
+                         || node instanceof LastMatch
+                         || node.getClass() == BackRef.class)) {
+                return false;
+            }
+            node = node.next;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the linear-time engine for this pattern, or null if it
+     * contains constructs that only the backtracking nodes implement.
+     */
+    LazyDFA dfa() {
+        LazyDFA d = dfa;
+        if (d == null && !backtrackOnly) {
+            if ((d = LazyDFA.forPattern(this)) != null)
+                dfa = d;
+            else
+                backtrackOnly = true;
+        }
+        return d;
+    }
+
     Map<String, Integer> namedGroups() {
         if (namedGroups == null)
             namedGroups = new HashMap<>(2);
@@ -3335,6 +3601,13 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
         boolean isSatisfiedBy(int ch) {
             return ch < 256 && bits[ch];
         }
+        boolean isAsciiOnly() {
+            for (int c = 0x80; c < 256; c++) {
+                if (bits[c])
+                    return false;
+            }
+            return true;
+        }
     }
 
     /**
@@ -3515,6 +3788,39 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
         }
     }
 
+    /**
+     * Start for REs whose matches all begin with one of a set of literals.
+     * Instead of trying the match at every position it uses an Aho-Corasick
+     * automaton to move to the next position where one of the literals
+     * occurs, or where the rest of the input is a prefix of one of them.
+     * The positions it skips could only have failed on their first
+     * characters, which leaves the matcher state as Start would.
+     */
+    static final class StartLiterals extends Start {
+        final AhoCorasick literals;
+        StartLiterals(Node node, AhoCorasick literals) {
+            super(node);
+            this.literals = literals;
+        }
+        boolean match(Matcher matcher, int i, CharSequence seq) {
+            int guard = matcher.to - minLength;
+            while (i <= guard) {
+                i = literals.find(seq, i, matcher.to);
+                if (i < 0 || i > guard)
+                    break;
+                if (next.match(matcher, i, seq)) {
+                    matcher.first = i;
+                    matcher.groups[0] = matcher.first;
+                    matcher.groups[1] = matcher.last;
+                    return true;
+                }
+                i++;
+            }
+            matcher.hitEnd = true;
+            return false;
+        }
+    }
+
     /**
      * Node to anchor at the beginning of input. This object implements the
      * match for a \A sequence, and the caret anchor will use this if not in
@@ -3765,8 +4071,16 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
      * Abstract node class to match one character satisfying some
      * boolean property.
      */
-    private static abstract class CharProperty extends Node {
+    static abstract class CharProperty extends Node {
         abstract boolean isSatisfiedBy(int ch);
+        /**
+         * Returns true if only ASCII characters satisfy this property.
+         * Properties that could only tell by testing every code point
+         * answer false.
+         */
+        boolean isAsciiOnly() {
+            return false;
+        }
         CharProperty complement() {
             return new CharProperty() {
                     boolean isSatisfiedBy(int ch) {
@@ -3825,6 +4139,9 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
         boolean isSatisfiedBy(int ch) {
             return ch == c;
         }
+        boolean isAsciiOnly() {
+            return c < 0x80;
+        }
     }
 
     /**
@@ -3840,6 +4157,9 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
         boolean isSatisfiedBy(int ch) {
             return ch == lower || ch == upper;
         }
+        boolean isAsciiOnly() {
+            return lower < 0x80 && upper < 0x80;
+        }
     }
 
     /**
@@ -3913,6 +4233,9 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
         boolean isSatisfiedBy(int ch) {
             return ch < 128 && ASCII.isType(ch, ctype);
         }
+        boolean isAsciiOnly() {
+            return true;
+        }
     }
 
     /**
@@ -4110,7 +4433,9 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
                                          final int upper) {
         return new CharProperty() {
                 boolean isSatisfiedBy(int ch) {
-                    return inRange(lower, ch, upper);}};
+                    return inRange(lower, ch, upper);}
+                boolean isAsciiOnly() {
+                    return upper < 0x80;}};
     }
 
     /**
@@ -4133,6 +4458,9 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
                     ASCII.isAscii(ch) &&
                         (inRange(lower, ASCII.toUpper(ch), upper) ||
                          inRange(lower, ASCII.toLower(ch), upper));
+            }
+            boolean isAsciiOnly() {
+                return upper < 0x80;
             }};
     }
 
@@ -5250,7 +5578,9 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
                                       final CharProperty rhs) {
         return new CharProperty() {
                 boolean isSatisfiedBy(int ch) {
-                    return lhs.isSatisfiedBy(ch) || rhs.isSatisfiedBy(ch);}};
+                    return lhs.isSatisfiedBy(ch) || rhs.isSatisfiedBy(ch);}
+                boolean isAsciiOnly() {
+                    return lhs.isAsciiOnly() && rhs.isAsciiOnly();}};
     }
 
     /**
@@ -5260,7 +5590,9 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
                                              final CharProperty rhs) {
         return new CharProperty() {
                 boolean isSatisfiedBy(int ch) {
-                    return lhs.isSatisfiedBy(ch) && rhs.isSatisfiedBy(ch);}};
+                    return lhs.isSatisfiedBy(ch) && rhs.isSatisfiedBy(ch);}
+                boolean isAsciiOnly() {
+                    return lhs.isAsciiOnly() || rhs.isAsciiOnly();}};
     }
 
     /**
@@ -5270,7 +5602,9 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
                                               final CharProperty rhs) {
         return new CharProperty() {
                 boolean isSatisfiedBy(int ch) {
-                    return ! rhs.isSatisfiedBy(ch) && lhs.isSatisfiedBy(ch);}};
+                    return ! rhs.isSatisfiedBy(ch) && lhs.isSatisfiedBy(ch);}
+                boolean isAsciiOnly() {
+                    return lhs.isAsciiOnly();}};
     }
 
     /**
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * A set of compiled regular expressions that are matched against an input
+ * sequence together.
+ *
+ * <p>{@link #matches(CharSequence) matches} tells which of the patterns
+ * {@link Matcher#find find} a match in the input.  Most patterns of a large
+ * rule set begin with one of a few literals, as in
+ * {@code "(ERROR|FATAL|Timeout).*"}; the leading literals of all such
+ * patterns are searched for in a single pass over the input with one
+ * Aho-Corasick automaton, and a pattern is only tried at the positions
+ * where one of its literals occurs.  The remaining patterns are searched
+ * for one by one.
+ *
+ * <pre>
+ * PatternSet rules = PatternSet.compile("ERROR \\d+", "(FATAL|PANIC):", "^WARN");
+ * BitSet hits = rules.matches(line);
+ * </pre>
+ *
+ * <p>Instances of this class are immutable and are safe for use by multiple
+ * concurrent threads.
+ *
+ * @see Pattern
+ * @since 1.8
+ */
+public final class PatternSet {
+
+    private final Pattern[] patterns;
+
+    /** The leading literals of the patterns that have them, or null. */
+    private final AhoCorasick literals;
+
+    /** The indexes of the patterns that start with each literal. */
+    private final int[][] owners;
+
+    /** The indexes of the patterns without leading literals. */
+    private final int[] unfiltered;
+
+    private PatternSet(Pattern[] patterns) {
+        this.patterns = patterns;
+        HashMap<String, Integer> ids = new HashMap<>();
+        ArrayList<int[]> all = new ArrayList<>();
+        ArrayList<int[]> owners = new ArrayList<>();
+        int[] unfiltered = new int[patterns.length];
+        int n = 0;
+        for (int k = 0; k < patterns.length; k++) {
+            int[][] prefixes = Pattern.literalPrefixes(patterns[k].matchRoot);
+            if (prefixes == null) {
+                unfiltered[n++] = k;
+                continue;
+            }
+            for (int[] literal : prefixes) {
+                String key = new String(literal, 0, literal.length);
+                Integer id = ids.get(key);
+                if (id == null) {
+                    ids.put(key, id = all.size());
+                    all.add(literal);
+                    owners.add(new int[] { k });
+                } else {
+                    int[] o = owners.get(id);
+                    o = Arrays.copyOf(o, o.length + 1);
+                    o[o.length - 1] = k;
+                    owners.set(id, o);
+                }
+            }
+        }
+        this.unfiltered = Arrays.copyOf(unfiltered, n);
+        this.owners = owners.toArray(new int[owners.size()][]);
+        this.literals = all.isEmpty() ? null
+            : new AhoCorasick(all.toArray(new int[all.size()][]));
+    }
+
+    /**
+     * Compiles the given regular expressions into a set.
+     *
+     * @param  regexes
+     *         The expressions to be compiled
+     *
+     * @return the set of the compiled patterns, in the given order
+     *
+     * @throws  PatternSyntaxException
+     *          If the syntax of one of the expressions is invalid
+     */
+    public static PatternSet compile(String... regexes) {
+        return compile(Arrays.asList(regexes), 0);
+    }
+
+    /**
+     * Compiles the given regular expressions into a set of patterns with
+     * the given flags.
+     *
+     * @param  regexes
+     *         The expressions to be compiled
+     *
+     * @param  flags
+     *         Match flags, as for {@link Pattern#compile(String, int)}
+     *
+     * @return the set of the compiled patterns, in iteration order
+     *
+     * @throws  IllegalArgumentException
+     *          If bit values other than those corresponding to the defined
+     *          match flags are set in <tt>flags</tt>
+     *
+     * @throws  PatternSyntaxException
+     *          If the syntax of one of the expressions is invalid
+     */
+    public static PatternSet compile(Collection<String> regexes, int flags) {
+        Pattern[] patterns = new Pattern[regexes.size()];
+        int k = 0;
+        for (String regex : regexes)
+            patterns[k++] = Pattern.compile(Objects.requireNonNull(regex), flags);
+        return new PatternSet(patterns);
+    }
+
+    /**
+     * Returns the number of patterns in this set.
+     *
+     * @return  the number of patterns
+     */
+    public int size() {
+        return patterns.length;
+    }
+
+    /**
+     * Returns the pattern with the given index.
+     *
+     * @param  index
+     *         The index of the pattern, in the order it was compiled
+     *
+     * @return  the pattern
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the index is negative or not less than {@link #size()}
+     */
+    public Pattern pattern(int index) {
+        return patterns[index];
+    }
+
+    /**
+     * Returns the indexes of the patterns that match a subsequence of the
+     * input, as {@link Matcher#find()} would tell.
+     *
+     * @param  input
+     *         The character sequence to be matched
+     *
+     * @return  a new bit set with the indexes of the matching patterns
+     */
+    public BitSet matches(CharSequence input) {
+        BitSet found = new BitSet(patterns.length);
+        scan(input, found, false);
+        return found;
+    }
+
+    /**
+     * Tells whether any pattern of this set matches a subsequence of the
+     * input.  The scan stops at the first match.
+     *
+     * @param  input
+     *         The character sequence to be matched
+     *
+     * @return  <tt>true</tt> if and only if at least one pattern matches
+     */
+    public boolean matchesAny(CharSequence input) {
+        return scan(input, new BitSet(patterns.length), true);
+    }
+
+    private boolean scan(CharSequence input, BitSet found, boolean any) {
+        for (int k : unfiltered) {
+            if (patterns[k].matcher(input).find()) {
+                found.set(k);
+                if (any)
+                    return true;
+            }
+        }
+        if (literals == null)
+            return !found.isEmpty();
+        int remaining = patterns.length - unfiltered.length;
+        Matcher[] matchers = new Matcher[patterns.length];
+        int to = input.length();
+        int state = literals.start();
+        for (int j = 0; j < to && remaining > 0; j++) {
+            state = literals.next(state, input.charAt(j));
+            for (int id : literals.output(state)) {
+                int start = j + 1 - literals.length(id);
+                for (int k : owners[id]) {
+                    if (found.get(k))
+                        continue;
+                    // A match of the pattern at start, seeing the input
+                    // around it as find does
+                    Matcher m = matchers[k];
+                    if (m == null) {
+                        m = matchers[k] = patterns[k].matcher(input)
+                            .useTransparentBounds(true)
+                            .useAnchoringBounds(false);
+                    }
+                    if (m.region(start, to).lookingAt()) {
+                        found.set(k);
+                        remaining--;
+                        if (any)
+                            return true;
+                    }
+                }
+            }
+        }
+        return !found.isEmpty();
+    }
+}
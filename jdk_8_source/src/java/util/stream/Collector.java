@@ -31,6 +31,9 @@ import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
 import java.util.function.Supplier;
 
 /**
@@ -307,6 +310,109 @@ public interface Collector<T, A, R> {
         return new Collectors.CollectorImpl<>(supplier, accumulator, combiner, finisher, cs);
     }
 
+    /**
+     * A {@code Collector} specialized for {@code int} values.  When applied by
+     * {@link IntStream#collect(Collector.OfInt)}, elements are folded into the
+     * result container by {@link #intAccumulator()} without being boxed; when
+     * used as a {@code Collector<Integer, A, R>}, as by
+     * {@link Stream#collect(Collector)}, they are unboxed first.
+     *
+     * @param <A> the mutable accumulation type of the reduction operation
+     * @param <R> the result type of the reduction operation
+     * @see Collectors#countingByInt(java.util.function.IntUnaryOperator)
+     * @since 1.8
+     */
+    interface OfInt<A, R> extends Collector<Integer, A, R> {
+        /**
+         * A function that folds an {@code int} value into a mutable result
+         * container.
+         *
+         * @return a function that folds a value into a mutable result container
+         */
+        ObjIntConsumer<A> intAccumulator();
+
+        /**
+         * {@inheritDoc}
+         *
+         * @implSpec
+         * The default implementation unboxes each value and passes it to the
+         * function returned by {@link #intAccumulator()}.
+         */
+        @Override
+        default BiConsumer<A, Integer> accumulator() {
+            ObjIntConsumer<A> accumulator = intAccumulator();
+            return accumulator::accept;
+        }
+    }
+
+    /**
+     * A {@code Collector} specialized for {@code long} values.  When applied
+     * by {@link LongStream#collect(Collector.OfLong)}, elements are folded
+     * into the result container by {@link #longAccumulator()} without being
+     * boxed.
+     *
+     * @param <A> the mutable accumulation type of the reduction operation
+     * @param <R> the result type of the reduction operation
+     * @see Collectors#countingByLong(java.util.function.LongUnaryOperator)
+     * @since 1.8
+     */
+    interface OfLong<A, R> extends Collector<Long, A, R> {
+        /**
+         * A function that folds a {@code long} value into a mutable result
+         * container.
+         *
+         * @return a function that folds a value into a mutable result container
+         */
+        ObjLongConsumer<A> longAccumulator();
+
+        /**
+         * {@inheritDoc}
+         *
+         * @implSpec
+         * The default implementation unboxes each value and passes it to the
+         * function returned by {@link #longAccumulator()}.
+         */
+        @Override
+        default BiConsumer<A, Long> accumulator() {
+            ObjLongConsumer<A> accumulator = longAccumulator();
+            return accumulator::accept;
+        }
+    }
+
+    /**
+     * A {@code Collector} specialized for {@code double} values.  When applied
+     * by {@link DoubleStream#collect(Collector.OfDouble)}, elements are folded
+     * into the result container by {@link #doubleAccumulator()} without being
+     * boxed.
+     *
+     * @param <A> the mutable accumulation type of the reduction operation
+     * @param <R> the result type of the reduction operation
+     * @see Collectors#countingByDouble(java.util.function.DoubleToLongFunction)
+     * @since 1.8
+     */
+    interface OfDouble<A, R> extends Collector<Double, A, R> {
+        /**
+         * A function that folds a {@code double} value into a mutable result
+         * container.
+         *
+         * @return a function that folds a value into a mutable result container
+         */
+        ObjDoubleConsumer<A> doubleAccumulator();
+
+        /**
+         * {@inheritDoc}
+         *
+         * @implSpec
+         * The default implementation unboxes each value and passes it to the
+         * function returned by {@link #doubleAccumulator()}.
+         */
+        @Override
+        default BiConsumer<A, Double> accumulator() {
+            ObjDoubleConsumer<A> accumulator = doubleAccumulator();
+            return accumulator::accept;
+        }
+    }
+
     /**
      * Characteristics indicating properties of a {@code Collector}, which can
      * be used to optimize reduction implementations.
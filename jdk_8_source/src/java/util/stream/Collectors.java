@@ -40,6 +40,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.LongSummaryStatistics;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -50,7 +51,16 @@ import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.ToDoubleFunction;
@@ -196,6 +206,78 @@ public final class Collectors {
         }
     }
 
+    /**
+     * Simple implementation class for {@code Collector.OfInt}.
+     *
+     * @param <A> the mutable accumulation type
+     * @param <R> the result type
+     */
+    static class IntCollectorImpl<A, R> extends CollectorImpl<Integer, A, R>
+            implements Collector.OfInt<A, R> {
+        private final ObjIntConsumer<A> intAccumulator;
+
+        IntCollectorImpl(Supplier<A> supplier,
+                         ObjIntConsumer<A> accumulator,
+                         BinaryOperator<A> combiner,
+                         Set<Characteristics> characteristics) {
+            super(supplier, accumulator::accept, combiner, characteristics);
+            this.intAccumulator = accumulator;
+        }
+
+        @Override
+        public ObjIntConsumer<A> intAccumulator() {
+            return intAccumulator;
+        }
+    }
+
+    /**
+     * Simple implementation class for {@code Collector.OfLong}.
+     *
+     * @param <A> the mutable accumulation type
+     * @param <R> the result type
+     */
+    static class LongCollectorImpl<A, R> extends CollectorImpl<Long, A, R>
+            implements Collector.OfLong<A, R> {
+        private final ObjLongConsumer<A> longAccumulator;
+
+        LongCollectorImpl(Supplier<A> supplier,
+                          ObjLongConsumer<A> accumulator,
+                          BinaryOperator<A> combiner,
+                          Set<Characteristics> characteristics) {
+            super(supplier, accumulator::accept, combiner, characteristics);
+            this.longAccumulator = accumulator;
+        }
+
+        @Override
+        public ObjLongConsumer<A> longAccumulator() {
+            return longAccumulator;
+        }
+    }
+
+    /**
+     * Simple implementation class for {@code Collector.OfDouble}.
+     *
+     * @param <A> the mutable accumulation type
+     * @param <R> the result type
+     */
+    static class DoubleCollectorImpl<A, R> extends CollectorImpl<Double, A, R>
+            implements Collector.OfDouble<A, R> {
+        private final ObjDoubleConsumer<A> doubleAccumulator;
+
+        DoubleCollectorImpl(Supplier<A> supplier,
+                            ObjDoubleConsumer<A> accumulator,
+                            BinaryOperator<A> combiner,
+                            Set<Characteristics> characteristics) {
+            super(supplier, accumulator::accept, combiner, characteristics);
+            this.doubleAccumulator = accumulator;
+        }
+
+        @Override
+        public ObjDoubleConsumer<A> doubleAccumulator() {
+            return doubleAccumulator;
+        }
+    }
+
     /**
      * Returns a {@code Collector} that accumulates the input elements into a
      * new {@code Collection}, in encounter order.  The {@code Collection} is
@@ -1091,6 +1173,237 @@ public final class Collectors {
         }
     }
 
+    /**
+     * Returns a {@code Collector.OfInt} counting the input elements by the
+     * {@code int} key the classifier maps them to.  The result is equal to
+     * that of {@code groupingBy(classifier::applyAsInt, counting())} applied
+     * to the boxed elements, but neither the elements, the keys nor the counts
+     * are boxed while collecting: keys and counts are held in compact
+     * primitive arrays, and the containers of the leaves of a parallel stream
+     * are merged directly.
+     *
+     * <p>The returned {@code Map} cannot be modified.  There are no guarantees
+     * on its type, serializability, iteration order or thread-safety.
+     *
+     * @param classifier a function mapping input elements to keys
+     * @return a {@code Collector.OfInt} implementing the counting operation
+     *
+     * @see IntStream#collect(Collector.OfInt)
+     * @see #groupingBy(Function, Collector)
+     * @since 1.8
+     */
+    public static Collector.OfInt<?, Map<Integer, Long>>
+    countingByInt(IntUnaryOperator classifier) {
+        Objects.requireNonNull(classifier);
+        return new IntCollectorImpl<LongKeyMap<Integer, Long>, Map<Integer, Long>>(
+                longKeyMap(null, true, false),
+                (m, t) -> m.accumulate(classifier.applyAsInt(t), 1L),
+                LongKeyMap::merge, CH_ID);
+    }
+
+    /**
+     * Returns a {@code Collector.OfInt} summing a {@code long}-valued function
+     * of the input elements by the {@code int} key the classifier maps them
+     * to, without boxing.
+     *
+     * <p>The returned {@code Map} cannot be modified.  There are no guarantees
+     * on its type, serializability, iteration order or thread-safety.
+     *
+     * @param classifier a function mapping input elements to keys
+     * @param mapper a function extracting the value to be summed
+     * @return a {@code Collector.OfInt} implementing the summing operation
+     *
+     * @see #countingByInt(IntUnaryOperator)
+     * @since 1.8
+     */
+    public static Collector.OfInt<?, Map<Integer, Long>>
+    summingByInt(IntUnaryOperator classifier, IntToLongFunction mapper) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(mapper);
+        return new IntCollectorImpl<LongKeyMap<Integer, Long>, Map<Integer, Long>>(
+                longKeyMap(null, true, false),
+                (m, t) -> m.accumulate(classifier.applyAsInt(t), mapper.applyAsLong(t)),
+                LongKeyMap::merge, CH_ID);
+    }
+
+    /**
+     * Returns a {@code Collector.OfInt} that accumulates the input elements
+     * into a {@code Map} whose keys and values are the result of applying the
+     * provided mapping functions to the input elements, without boxing.
+     *
+     * <p>If the mapped keys contain duplicates, the values of the equal keys
+     * are merged using the provided merging function, in encounter order.
+     * Unlike {@link #toMap(Function, Function)}, a merging function must
+     * always be given.
+     *
+     * <p>The returned {@code Map} cannot be modified.  There are no guarantees
+     * on its type, serializability, iteration order or thread-safety.
+     *
+     * @param keyMapper a mapping function to produce keys
+     * @param valueMapper a mapping function to produce values
+     * @param mergeFunction a merge function, used to resolve collisions between
+     *                      values associated with the same key
+     * @return a {@code Collector.OfInt} which collects elements into a
+     * {@code Map}
+     *
+     * @see #toMap(Function, Function, BinaryOperator)
+     * @since 1.8
+     */
+    public static Collector.OfInt<?, Map<Integer, Long>>
+    toIntMap(IntUnaryOperator keyMapper,
+             IntToLongFunction valueMapper,
+             LongBinaryOperator mergeFunction) {
+        Objects.requireNonNull(keyMapper);
+        Objects.requireNonNull(valueMapper);
+        Objects.requireNonNull(mergeFunction);
+        return new IntCollectorImpl<LongKeyMap<Integer, Long>, Map<Integer, Long>>(
+                longKeyMap(mergeFunction, true, false),
+                (m, t) -> m.accumulate(keyMapper.applyAsInt(t), valueMapper.applyAsLong(t)),
+                LongKeyMap::merge, CH_ID);
+    }
+
+    /**
+     * Returns a {@code Collector.OfLong} counting the input elements by the
+     * {@code long} key the classifier maps them to, without boxing.
+     *
+     * <p>The returned {@code Map} cannot be modified.  There are no guarantees
+     * on its type, serializability, iteration order or thread-safety.
+     *
+     * @param classifier a function mapping input elements to keys
+     * @return a {@code Collector.OfLong} implementing the counting operation
+     *
+     * @see LongStream#collect(Collector.OfLong)
+     * @see #countingByInt(IntUnaryOperator)
+     * @since 1.8
+     */
+    public static Collector.OfLong<?, Map<Long, Long>>
+    countingByLong(LongUnaryOperator classifier) {
+        Objects.requireNonNull(classifier);
+        return new LongCollectorImpl<LongKeyMap<Long, Long>, Map<Long, Long>>(
+                longKeyMap(null, false, false),
+                (m, t) -> m.accumulate(classifier.applyAsLong(t), 1L),
+                LongKeyMap::merge, CH_ID);
+    }
+
+    /**
+     * Returns a {@code Collector.OfLong} summing a function of the input
+     * elements by the {@code long} key the classifier maps them to, without
+     * boxing.
+     *
+     * <p>The returned {@code Map} cannot be modified.  There are no guarantees
+     * on its type, serializability, iteration order or thread-safety.
+     *
+     * @param classifier a function mapping input elements to keys
+     * @param mapper a function extracting the value to be summed
+     * @return a {@code Collector.OfLong} implementing the summing operation
+     *
+     * @see #countingByLong(LongUnaryOperator)
+     * @since 1.8
+     */
+    public static Collector.OfLong<?, Map<Long, Long>>
+    summingByLong(LongUnaryOperator classifier, LongUnaryOperator mapper) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(mapper);
+        return new LongCollectorImpl<LongKeyMap<Long, Long>, Map<Long, Long>>(
+                longKeyMap(null, false, false),
+                (m, t) -> m.accumulate(classifier.applyAsLong(t), mapper.applyAsLong(t)),
+                LongKeyMap::merge, CH_ID);
+    }
+
+    /**
+     * Returns a {@code Collector.OfLong} that accumulates the input elements
+     * into a {@code Map} whose keys and values are the result of applying the
+     * provided mapping functions to the input elements, without boxing.
+     *
+     * <p>If the mapped keys contain duplicates, the values of the equal keys
+     * are merged using the provided merging function, in encounter order.
+     *
+     * <p>The returned {@code Map} cannot be modified.  There are no guarantees
+     * on its type, serializability, iteration order or thread-safety.
+     *
+     * @param keyMapper a mapping function to produce keys
+     * @param valueMapper a mapping function to produce values
+     * @param mergeFunction a merge function, used to resolve collisions between
+     *                      values associated with the same key
+     * @return a {@code Collector.OfLong} which collects elements into a
+     * {@code Map}
+     *
+     * @see #toIntMap(IntUnaryOperator, IntToLongFunction, LongBinaryOperator)
+     * @since 1.8
+     */
+    public static Collector.OfLong<?, Map<Long, Long>>
+    toLongMap(LongUnaryOperator keyMapper,
+              LongUnaryOperator valueMapper,
+              LongBinaryOperator mergeFunction) {
+        Objects.requireNonNull(keyMapper);
+        Objects.requireNonNull(valueMapper);
+        Objects.requireNonNull(mergeFunction);
+        return new LongCollectorImpl<LongKeyMap<Long, Long>, Map<Long, Long>>(
+                longKeyMap(mergeFunction, false, false),
+                (m, t) -> m.accumulate(keyMapper.applyAsLong(t), valueMapper.applyAsLong(t)),
+                LongKeyMap::merge, CH_ID);
+    }
+
+    /**
+     * Returns a {@code Collector.OfDouble} counting the input elements by the
+     * {@code long} key the classifier maps them to, such as the index of the
+     * bucket of a histogram, without boxing.
+     *
+     * <p>The returned {@code Map} cannot be modified.  There are no guarantees
+     * on its type, serializability, iteration order or thread-safety.
+     *
+     * @param classifier a function mapping input elements to keys
+     * @return a {@code Collector.OfDouble} implementing the counting operation
+     *
+     * @see DoubleStream#collect(Collector.OfDouble)
+     * @see #countingByInt(IntUnaryOperator)
+     * @since 1.8
+     */
+    public static Collector.OfDouble<?, Map<Long, Long>>
+    countingByDouble(DoubleToLongFunction classifier) {
+        Objects.requireNonNull(classifier);
+        return new DoubleCollectorImpl<LongKeyMap<Long, Long>, Map<Long, Long>>(
+                longKeyMap(null, false, false),
+                (m, t) -> m.accumulate(classifier.applyAsLong(t), 1L),
+                LongKeyMap::merge, CH_ID);
+    }
+
+    /**
+     * Returns a {@code Collector.OfDouble} summing a function of the input
+     * elements by the {@code long} key the classifier maps them to, without
+     * boxing.
+     *
+     * <p>The sums are simple floating-point sums.  Unlike
+     * {@link #summingDouble(ToDoubleFunction)} they are not compensated, and
+     * the order in which values are added, and so the rounding error, may
+     * differ between sequential and parallel execution.
+     *
+     * <p>The returned {@code Map} cannot be modified.  There are no guarantees
+     * on its type, serializability, iteration order or thread-safety.
+     *
+     * @param classifier a function mapping input elements to keys
+     * @param mapper a function extracting the value to be summed
+     * @return a {@code Collector.OfDouble} implementing the summing operation
+     *
+     * @see #countingByDouble(DoubleToLongFunction)
+     * @since 1.8
+     */
+    public static Collector.OfDouble<?, Map<Long, Double>>
+    summingByDouble(DoubleToLongFunction classifier, DoubleUnaryOperator mapper) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(mapper);
+        return new DoubleCollectorImpl<LongKeyMap<Long, Double>, Map<Long, Double>>(
+                longKeyMap(LongKeyMap.DOUBLE_SUM, false, true),
+                (m, t) -> m.accumulate(classifier.applyAsLong(t),
+                                       Double.doubleToRawLongBits(mapper.applyAsDouble(t))),
+                LongKeyMap::merge, CH_ID);
+    }
+
+    private static <K, V> Supplier<LongKeyMap<K, V>>
+    longKeyMap(LongBinaryOperator merger, boolean intKeys, boolean doubleValues) {
+        return () -> new LongKeyMap<>(merger, intKeys, doubleValues);
+    }
+
     /**
      * Returns a {@code Collector} which partitions the input elements according
      * to a {@code Predicate}, and organizes them into a
@@ -1565,4 +1878,168 @@ public final class Collectors {
             };
         }
     }
+
+    /**
+     * Implementation class used by the collectors grouping primitive values
+     * by an {@code int} or {@code long} key.  Keys and values are held unboxed
+     * in parallel arrays, in the order keys were first seen, and found through
+     * an open-addressing table of positions; they are boxed only when read
+     * through the {@code Map} interface.  Values are {@code long}s, or the
+     * bits of {@code double}s.
+     */
+    private static final class LongKeyMap<K, V> extends AbstractMap<K, V> {
+        /** Multiplier for Fibonacci hashing, 2^64 divided by the golden ratio */
+        private static final long SCRAMBLE = 0x9E3779B97F4A7C15L;
+
+        /** Merges the bits of two {@code double} values into their sum */
+        static final LongBinaryOperator DOUBLE_SUM
+                = (a, b) -> Double.doubleToRawLongBits(Double.longBitsToDouble(a)
+                                                       + Double.longBitsToDouble(b));
+
+        /** Merges the values of equal keys, in encounter order, or null to add them */
+        private final LongBinaryOperator merger;
+        private final boolean intKeys;
+        private final boolean doubleValues;
+
+        private long[] keys = new long[8];
+        private long[] values = new long[8];
+        private int size;
+
+        /** Positions of the entries plus one, 0 marking a free slot */
+        private int[] index = new int[16];
+        /** 64 minus the log of the length of the index */
+        private int shift = 64 - 4;
+
+        LongKeyMap(LongBinaryOperator merger, boolean intKeys, boolean doubleValues) {
+            this.merger = merger;
+            this.intKeys = intKeys;
+            this.doubleValues = doubleValues;
+        }
+
+        /**
+         * Merges the value into the value held for the key, or adds an entry
+         * for the key if there is none.
+         */
+        void accumulate(long key, long value) {
+            int[] tab = index;
+            int mask = tab.length - 1;
+            int i = (int) ((key * SCRAMBLE) >>> shift);
+            for (int e; (e = tab[i] - 1) >= 0; i = (i + 1) & mask) {
+                if (keys[e] == key) {
+                    values[e] = (merger == null) ? values[e] + value
+                                                 : merger.applyAsLong(values[e], value);
+                    return;
+                }
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size << 1);
+                values = Arrays.copyOf(values, size << 1);
+            }
+            keys[size] = key;
+            values[size] = value;
+            tab[i] = ++size;
+            if (size << 1 > tab.length)
+                resize();
+        }
+
+        /**
+         * Merges the entries of a map of the same collector, which were
+         * encountered after those of this map.
+         */
+        LongKeyMap<K, V> merge(LongKeyMap<K, V> other) {
+            if (merger == null && other.size > size)
+                // Sums do not depend on the order, so fold the smaller map
+                return other.merge(this);
+            for (int e = 0; e < other.size; e++)
+                accumulate(other.keys[e], other.values[e]);
+            return this;
+        }
+
+        private void resize() {
+            int[] tab = new int[index.length << 1];
+            int mask = tab.length - 1;
+            shift--;
+            for (int e = 0; e < size; e++) {
+                int i = (int) ((keys[e] * SCRAMBLE) >>> shift);
+                while (tab[i] != 0)
+                    i = (i + 1) & mask;
+                tab[i] = e + 1;
+            }
+            index = tab;
+        }
+
+        private int find(Object key) {
+            long k;
+            if (intKeys ? key instanceof Integer : key instanceof Long)
+                k = ((Number) key).longValue();
+            else
+                return -1;
+            int[] tab = index;
+            int mask = tab.length - 1;
+            int i = (int) ((k * SCRAMBLE) >>> shift);
+            for (int e; (e = tab[i] - 1) >= 0; i = (i + 1) & mask) {
+                if (keys[e] == k)
+                    return e;
+            }
+            return -1;
+        }
+
+        @SuppressWarnings("unchecked")
+        private K key(int e) {
+            return (K) (intKeys ? (Object) Integer.valueOf((int) keys[e])
+                                : (Object) Long.valueOf(keys[e]));
+        }
+
+        @SuppressWarnings("unchecked")
+        private V value(int e) {
+            return (V) (doubleValues ? (Object) Double.valueOf(Double.longBitsToDouble(values[e]))
+                                     : (Object) Long.valueOf(values[e]));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return find(key) >= 0;
+        }
+
+        @Override
+        public V get(Object key) {
+            int e = find(key);
+            return (e < 0) ? null : value(e);
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new AbstractSet<Map.Entry<K, V>>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new Iterator<Map.Entry<K, V>>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < size;
+                        }
+
+                        @Override
+                        public Map.Entry<K, V> next() {
+                            if (next >= size)
+                                throw new NoSuchElementException();
+                            int e = next++;
+                            return new SimpleImmutableEntry<>(key(e), value(e));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
 }
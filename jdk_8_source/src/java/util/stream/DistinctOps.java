@@ -24,6 +24,7 @@
  */
 package java.util.stream;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Objects;
@@ -180,4 +181,254 @@ final class DistinctOps {
             }
         };
     }
+
+    /**
+     * Appends a "distinct" operation to the provided int stream, and returns
+     * the new stream.  Elements are tracked in a {@link LongSet} rather than
+     * boxed into a {@code HashSet}.
+     *
+     * @param upstream an int stream
+     * @return the new stream
+     */
+    static IntPipeline<Integer> makeInt(AbstractPipeline<?, Integer, ?> upstream) {
+        return new IntPipeline.StatefulOp<Integer>(upstream, StreamShape.INT_VALUE,
+                                                   StreamOpFlag.IS_DISTINCT | StreamOpFlag.NOT_SIZED) {
+
+            @Override
+            <P_IN> Node<Integer> opEvaluateParallel(PipelineHelper<Integer> helper,
+                                                    Spliterator<P_IN> spliterator,
+                                                    IntFunction<Integer[]> generator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    // No-op
+                    return helper.evaluate(spliterator, false, generator);
+                }
+                else {
+                    // Sets are merged left to right, which also preserves
+                    // encounter order if the stream is ORDERED
+                    TerminalOp<Integer, LongSet> reduceOp
+                            = ReduceOps.<LongSet>makeInt(LongSet::new, LongSet::add, LongSet::addAll);
+                    LongSet set = reduceOp.evaluateParallel(helper, spliterator);
+                    return Nodes.node(set.toIntArray());
+                }
+            }
+
+            @Override
+            Sink<Integer> opWrapSink(int flags, Sink<Integer> sink) {
+                Objects.requireNonNull(sink);
+
+                if (StreamOpFlag.DISTINCT.isKnown(flags)) {
+                    return sink;
+                } else if (StreamOpFlag.SORTED.isKnown(flags)) {
+                    return new Sink.ChainedInt<Integer>(sink) {
+                        boolean seen;
+                        int lastSeen;
+
+                        @Override
+                        public void begin(long size) {
+                            seen = false;
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void accept(int t) {
+                            if (!seen || t != lastSeen) {
+                                seen = true;
+                                downstream.accept(lastSeen = t);
+                            }
+                        }
+                    };
+                } else {
+                    return new Sink.ChainedInt<Integer>(sink) {
+                        LongSet seen;
+
+                        @Override
+                        public void begin(long size) {
+                            seen = new LongSet();
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void end() {
+                            seen = null;
+                            downstream.end();
+                        }
+
+                        @Override
+                        public void accept(int t) {
+                            if (seen.add(t))
+                                downstream.accept(t);
+                        }
+                    };
+                }
+            }
+        };
+    }
+
+    /**
+     * Appends a "distinct" operation to the provided long stream, and
+     * returns the new stream.  Elements are tracked in a {@link LongSet}
+     * rather than boxed into a {@code HashSet}.
+     *
+     * @param upstream a long stream
+     * @return the new stream
+     */
+    static LongPipeline<Long> makeLong(AbstractPipeline<?, Long, ?> upstream) {
+        return new LongPipeline.StatefulOp<Long>(upstream, StreamShape.LONG_VALUE,
+                                                 StreamOpFlag.IS_DISTINCT | StreamOpFlag.NOT_SIZED) {
+
+            @Override
+            <P_IN> Node<Long> opEvaluateParallel(PipelineHelper<Long> helper,
+                                                 Spliterator<P_IN> spliterator,
+                                                 IntFunction<Long[]> generator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    // No-op
+                    return helper.evaluate(spliterator, false, generator);
+                }
+                else {
+                    // Sets are merged left to right, which also preserves
+                    // encounter order if the stream is ORDERED
+                    TerminalOp<Long, LongSet> reduceOp
+                            = ReduceOps.<LongSet>makeLong(LongSet::new, LongSet::add, LongSet::addAll);
+                    LongSet set = reduceOp.evaluateParallel(helper, spliterator);
+                    return Nodes.node(set.toLongArray());
+                }
+            }
+
+            @Override
+            Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
+                Objects.requireNonNull(sink);
+
+                if (StreamOpFlag.DISTINCT.isKnown(flags)) {
+                    return sink;
+                } else if (StreamOpFlag.SORTED.isKnown(flags)) {
+                    return new Sink.ChainedLong<Long>(sink) {
+                        boolean seen;
+                        long lastSeen;
+
+                        @Override
+                        public void begin(long size) {
+                            seen = false;
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void accept(long t) {
+                            if (!seen || t != lastSeen) {
+                                seen = true;
+                                downstream.accept(lastSeen = t);
+                            }
+                        }
+                    };
+                } else {
+                    return new Sink.ChainedLong<Long>(sink) {
+                        LongSet seen;
+
+                        @Override
+                        public void begin(long size) {
+                            seen = new LongSet();
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void end() {
+                            seen = null;
+                            downstream.end();
+                        }
+
+                        @Override
+                        public void accept(long t) {
+                            if (seen.add(t))
+                                downstream.accept(t);
+                        }
+                    };
+                }
+            }
+        };
+    }
+
+    /**
+     * An open-addressing hash set of long values that also records them in
+     * the order they were first added.  Int values are held widened to long.
+     */
+    static final class LongSet {
+        /** Multiplier for Fibonacci hashing, 2^64 divided by the golden ratio */
+        private static final long SCRAMBLE = 0x9E3779B97F4A7C15L;
+
+        /** Linear probing table; 0 marks a free slot */
+        private long[] table = new long[16];
+        /** 64 minus the log of the table length */
+        private int shift = 64 - 4;
+        /** Whether 0, which cannot be held in the table, has been added */
+        private boolean hasZero;
+        /** The elements in the order they were added */
+        private long[] elements = new long[8];
+        private int size;
+
+        /**
+         * Adds the value if not already present.
+         *
+         * @return true if the value was added
+         */
+        boolean add(long value) {
+            if (value == 0) {
+                if (hasZero)
+                    return false;
+                hasZero = true;
+            }
+            else {
+                long[] tab = table;
+                int mask = tab.length - 1;
+                int i = (int) ((value * SCRAMBLE) >>> shift);
+                for (long v; (v = tab[i]) != 0; i = (i + 1) & mask) {
+                    if (v == value)
+                        return false;
+                }
+                tab[i] = value;
+            }
+            if (size == elements.length)
+                elements = Arrays.copyOf(elements, size << 1);
+            elements[size++] = value;
+            if (size << 1 > table.length)
+                resize();
+            return true;
+        }
+
+        /**
+         * Adds the elements of the given set not already present, in order.
+         *
+         * @return this set
+         */
+        LongSet addAll(LongSet other) {
+            for (int i = 0; i < other.size; i++)
+                add(other.elements[i]);
+            return this;
+        }
+
+        private void resize() {
+            long[] tab = new long[table.length << 1];
+            int mask = tab.length - 1;
+            shift--;
+            for (int j = 0; j < size; j++) {
+                long value = elements[j];
+                if (value != 0) {
+                    int i = (int) ((value * SCRAMBLE) >>> shift);
+                    while (tab[i] != 0)
+                        i = (i + 1) & mask;
+                    tab[i] = value;
+                }
+            }
+            table = tab;
+        }
+
+        int[] toIntArray() {
+            int[] array = new int[size];
+            for (int i = 0; i < size; i++)
+                array[i] = (int) elements[i];
+            return array;
+        }
+
+        long[] toLongArray() {
+            return Arrays.copyOf(elements, size);
+        }
+    }
 }
@@ -476,6 +476,15 @@ abstract class DoublePipeline<E_IN>
         return evaluate(ReduceOps.makeDouble(supplier, accumulator, operator));
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public final <A, R> R collect(Collector.OfDouble<A, R> collector) {
+        A container = evaluate(ReduceOps.makeDouble(collector));
+        return collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)
+               ? (R) container
+               : collector.finisher().apply(container);
+    }
+
     @Override
     public final boolean anyMatch(DoublePredicate predicate) {
         return evaluate(MatchOps.makeDouble(predicate, MatchOps.MatchKind.ANY));
@@ -454,6 +454,34 @@ public interface DoubleStream extends BaseStream<Double, DoubleStream> {
                   ObjDoubleConsumer<R> accumulator,
                   BiConsumer<R, R> combiner);
 
+    /**
+     * Performs a <a href="package-summary.html#MutableReduction">mutable
+     * reduction</a> operation on the elements of this stream using a
+     * {@code Collector.OfDouble}, which folds each element into its result
+     * container without boxing it.  For a parallel execution the result
+     * containers of the leaves are merged by the collector's combiner.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">terminal
+     * operation</a>.
+     *
+     * @implSpec
+     * The default implementation boxes the elements and behaves as if:
+     * <pre>{@code
+     *     return boxed().collect(collector);
+     * }</pre>
+     *
+     * @param <A> the intermediate accumulation type of the {@code Collector}
+     * @param <R> the type of the result
+     * @param collector the {@code Collector.OfDouble} describing the reduction
+     * @return the result of the reduction
+     * @see #collect(Supplier, ObjDoubleConsumer, BiConsumer)
+     * @see Collectors#countingByDouble(DoubleToLongFunction)
+     * @since 1.8
+     */
+    default <A, R> R collect(Collector.OfDouble<A, R> collector) {
+        return boxed().collect(collector);
+    }
+
     /**
      * Returns the sum of elements in this stream.
      *
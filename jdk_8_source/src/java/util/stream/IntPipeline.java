@@ -392,9 +392,7 @@ abstract class IntPipeline<E_IN>
 
     @Override
     public final IntStream distinct() {
-        // While functional and quick to implement, this approach is not very efficient.
-        // An efficient version requires an int-specific map/set implementation.
-        return boxed().distinct().mapToInt(i -> i);
+        return DistinctOps.makeInt(this);
     }
 
     // Terminal ops from IntStream
@@ -472,6 +470,15 @@ abstract class IntPipeline<E_IN>
         return evaluate(ReduceOps.makeInt(supplier, accumulator, operator));
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public final <A, R> R collect(Collector.OfInt<A, R> collector) {
+        A container = evaluate(ReduceOps.makeInt(collector));
+        return collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)
+               ? (R) container
+               : collector.finisher().apply(container);
+    }
+
     @Override
     public final boolean anyMatch(IntPredicate predicate) {
         return evaluate(MatchOps.makeInt(predicate, MatchOps.MatchKind.ANY));
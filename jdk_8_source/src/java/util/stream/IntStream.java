@@ -446,6 +446,34 @@ public interface IntStream extends BaseStream<Integer, IntStream> {
                   ObjIntConsumer<R> accumulator,
                   BiConsumer<R, R> combiner);
 
+    /**
+     * Performs a <a href="package-summary.html#MutableReduction">mutable
+     * reduction</a> operation on the elements of this stream using a
+     * {@code Collector.OfInt}, which folds each element into its result
+     * container without boxing it.  For a parallel execution the result
+     * containers of the leaves are merged by the collector's combiner.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">terminal
+     * operation</a>.
+     *
+     * @implSpec
+     * The default implementation boxes the elements and behaves as if:
+     * <pre>{@code
+     *     return boxed().collect(collector);
+     * }</pre>
+     *
+     * @param <A> the intermediate accumulation type of the {@code Collector}
+     * @param <R> the type of the result
+     * @param collector the {@code Collector.OfInt} describing the reduction
+     * @return the result of the reduction
+     * @see #collect(Supplier, ObjIntConsumer, BiConsumer)
+     * @see Collectors#countingByInt(IntUnaryOperator)
+     * @since 1.8
+     */
+    default <A, R> R collect(Collector.OfInt<A, R> collector) {
+        return boxed().collect(collector);
+    }
+
     /**
      * Returns the sum of elements in this stream.  This is a special case
      * of a <a href="package-summary.html#Reduction">reduction</a>
@@ -369,6 +369,52 @@ final class ReduceOps {
         };
     }
 
+    /**
+     * Constructs a {@code TerminalOp} that implements a mutable reduce on
+     * {@code int} values, folding each value into the result container
+     * of a leaf without boxing it.
+     *
+     * @param <I> the type of the intermediate reduction result
+     * @param collector a {@code Collector.OfInt} defining the reduction
+     * @return a {@code ReduceOp} implementing the reduction
+     */
+    public static <I> TerminalOp<Integer, I>
+    makeInt(Collector.OfInt<I, ?> collector) {
+        Supplier<I> supplier = Objects.requireNonNull(collector).supplier();
+        ObjIntConsumer<I> accumulator = collector.intAccumulator();
+        BinaryOperator<I> combiner = collector.combiner();
+        class ReducingSink extends Box<I>
+                implements AccumulatingSink<Integer, I, ReducingSink>, Sink.OfInt {
+            @Override
+            public void begin(long size) {
+                state = supplier.get();
+            }
+
+            @Override
+            public void accept(int t) {
+                accumulator.accept(state, t);
+            }
+
+            @Override
+            public void combine(ReducingSink other) {
+                state = combiner.apply(state, other.state);
+            }
+        }
+        return new ReduceOp<Integer, I, ReducingSink>(StreamShape.INT_VALUE) {
+            @Override
+            public ReducingSink makeSink() {
+                return new ReducingSink();
+            }
+
+            @Override
+            public int getOpFlags() {
+                return collector.characteristics().contains(Collector.Characteristics.UNORDERED)
+                       ? StreamOpFlag.NOT_ORDERED
+                       : 0;
+            }
+        };
+    }
+
     /**
      * Constructs a {@code TerminalOp} that implements a functional reduce on
      * {@code long} values.
@@ -505,6 +551,52 @@ final class ReduceOps {
         };
     }
 
+    /**
+     * Constructs a {@code TerminalOp} that implements a mutable reduce on
+     * {@code long} values, folding each value into the result container
+     * of a leaf without boxing it.
+     *
+     * @param <I> the type of the intermediate reduction result
+     * @param collector a {@code Collector.OfLong} defining the reduction
+     * @return a {@code ReduceOp} implementing the reduction
+     */
+    public static <I> TerminalOp<Long, I>
+    makeLong(Collector.OfLong<I, ?> collector) {
+        Supplier<I> supplier = Objects.requireNonNull(collector).supplier();
+        ObjLongConsumer<I> accumulator = collector.longAccumulator();
+        BinaryOperator<I> combiner = collector.combiner();
+        class ReducingSink extends Box<I>
+                implements AccumulatingSink<Long, I, ReducingSink>, Sink.OfLong {
+            @Override
+            public void begin(long size) {
+                state = supplier.get();
+            }
+
+            @Override
+            public void accept(long t) {
+                accumulator.accept(state, t);
+            }
+
+            @Override
+            public void combine(ReducingSink other) {
+                state = combiner.apply(state, other.state);
+            }
+        }
+        return new ReduceOp<Long, I, ReducingSink>(StreamShape.LONG_VALUE) {
+            @Override
+            public ReducingSink makeSink() {
+                return new ReducingSink();
+            }
+
+            @Override
+            public int getOpFlags() {
+                return collector.characteristics().contains(Collector.Characteristics.UNORDERED)
+                       ? StreamOpFlag.NOT_ORDERED
+                       : 0;
+            }
+        };
+    }
+
     /**
      * Constructs a {@code TerminalOp} that implements a functional reduce on
      * {@code double} values.
@@ -641,6 +733,52 @@ final class ReduceOps {
         };
     }
 
+    /**
+     * Constructs a {@code TerminalOp} that implements a mutable reduce on
+     * {@code double} values, folding each value into the result container
+     * of a leaf without boxing it.
+     *
+     * @param <I> the type of the intermediate reduction result
+     * @param collector a {@code Collector.OfDouble} defining the reduction
+     * @return a {@code ReduceOp} implementing the reduction
+     */
+    public static <I> TerminalOp<Double, I>
+    makeDouble(Collector.OfDouble<I, ?> collector) {
+        Supplier<I> supplier = Objects.requireNonNull(collector).supplier();
+        ObjDoubleConsumer<I> accumulator = collector.doubleAccumulator();
+        BinaryOperator<I> combiner = collector.combiner();
+        class ReducingSink extends Box<I>
+                implements AccumulatingSink<Double, I, ReducingSink>, Sink.OfDouble {
+            @Override
+            public void begin(long size) {
+                state = supplier.get();
+            }
+
+            @Override
+            public void accept(double t) {
+                accumulator.accept(state, t);
+            }
+
+            @Override
+            public void combine(ReducingSink other) {
+                state = combiner.apply(state, other.state);
+            }
+        }
+        return new ReduceOp<Double, I, ReducingSink>(StreamShape.DOUBLE_VALUE) {
+            @Override
+            public ReducingSink makeSink() {
+                return new ReducingSink();
+            }
+
+            @Override
+            public int getOpFlags() {
+                return collector.characteristics().contains(Collector.Characteristics.UNORDERED)
+                       ? StreamOpFlag.NOT_ORDERED
+                       : 0;
+            }
+        };
+    }
+
     /**
      * A type of {@code TerminalSink} that implements an associative reducing
      * operation on elements of type {@code T} and producing a result of type
@@ -27,8 +27,11 @@ package java.util.stream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Spliterator;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.IntFunction;
 
 
@@ -93,6 +96,36 @@ final class SortedOps {
         return new OfDouble(upstream);
     }
 
+    /**
+     * The largest number of leading elements a "sorted" operation can be
+     * bounded to, such that twice as many fit in an array.
+     */
+    private static final long MAX_LIMIT = Nodes.MAX_ARRAY_SIZE / 2;
+
+    /**
+     * Bounds a "sorted" operation to its first {@code size} elements in
+     * sort order, if the given stage is one.  A slice operation appended to
+     * a sorted stage consumes no more than its skip plus its limit, so the
+     * sorted stage need only keep that many of the smallest elements seen
+     * rather than buffer its whole input.
+     *
+     * @param upstream the stage a slice operation is being appended to
+     * @param size the number of leading elements the slice operation
+     *        consumes, or a negative value if unbounded
+     */
+    static void limit(AbstractPipeline<?, ?, ?> upstream, long size) {
+        if (size <= 0 || size > MAX_LIMIT)
+            return;
+        if (upstream instanceof OfRef)
+            ((OfRef<?>) upstream).limit = (int) size;
+        else if (upstream instanceof OfInt)
+            ((OfInt) upstream).limit = (int) size;
+        else if (upstream instanceof OfLong)
+            ((OfLong) upstream).limit = (int) size;
+        else if (upstream instanceof OfDouble)
+            ((OfDouble) upstream).limit = (int) size;
+    }
+
     /**
      * Specialized subtype for sorting reference streams
      */
@@ -103,6 +136,12 @@ final class SortedOps {
         private final boolean isNaturalSort;
         private final Comparator<? super T> comparator;
 
+        /**
+         * The number of leading elements the downstream slice consumes, or
+         * -1 if all elements are sorted
+         */
+        int limit = -1;
+
         /**
          * Sort using natural order of {@literal <T>} which must be
          * {@code Comparable}.
@@ -137,6 +176,8 @@ final class SortedOps {
             // also naturally sorted then this is a no-op
             if (StreamOpFlag.SORTED.isKnown(flags) && isNaturalSort)
                 return sink;
+            else if (limit >= 0)
+                return new RefLimitSortingSink<>(sink, comparator, limit);
             else if (StreamOpFlag.SIZED.isKnown(flags))
                 return new SizedRefSortingSink<>(sink, comparator);
             else
@@ -153,10 +194,10 @@ final class SortedOps {
                 return helper.evaluate(spliterator, false, generator);
             }
             else {
-                // @@@ Weak two-pass parallel implementation; parallel collect, parallel sort
-                T[] flattenedData = helper.evaluate(spliterator, true, generator).asArray(generator);
-                Arrays.parallelSort(flattenedData, comparator);
-                return Nodes.node(flattenedData);
+                // Sort the leaves where they are collected, then merge
+                T[] sorted = new RefSortTask<>(helper, spliterator, generator,
+                                               comparator, limit).invoke();
+                return Nodes.node(sorted);
             }
         }
     }
@@ -165,6 +206,12 @@ final class SortedOps {
      * Specialized subtype for sorting int streams.
      */
     private static final class OfInt extends IntPipeline.StatefulOp<Integer> {
+        /**
+         * The number of leading elements the downstream slice consumes, or
+         * -1 if all elements are sorted
+         */
+        int limit = -1;
+
         OfInt(AbstractPipeline<?, Integer, ?> upstream) {
             super(upstream, StreamShape.INT_VALUE,
                   StreamOpFlag.IS_ORDERED | StreamOpFlag.IS_SORTED);
@@ -176,6 +223,8 @@ final class SortedOps {
 
             if (StreamOpFlag.SORTED.isKnown(flags))
                 return sink;
+            else if (limit >= 0)
+                return new IntLimitSortingSink(sink, limit);
             else if (StreamOpFlag.SIZED.isKnown(flags))
                 return new SizedIntSortingSink(sink);
             else
@@ -190,12 +239,8 @@ final class SortedOps {
                 return helper.evaluate(spliterator, false, generator);
             }
             else {
-                Node.OfInt n = (Node.OfInt) helper.evaluate(spliterator, true, generator);
-
-                int[] content = n.asPrimitiveArray();
-                Arrays.parallelSort(content);
-
-                return Nodes.node(content);
+                int[] sorted = new IntSortTask<>(helper, spliterator, generator, limit).invoke();
+                return Nodes.node(sorted);
             }
         }
     }
@@ -204,6 +249,12 @@ final class SortedOps {
      * Specialized subtype for sorting long streams.
      */
     private static final class OfLong extends LongPipeline.StatefulOp<Long> {
+        /**
+         * The number of leading elements the downstream slice consumes, or
+         * -1 if all elements are sorted
+         */
+        int limit = -1;
+
         OfLong(AbstractPipeline<?, Long, ?> upstream) {
             super(upstream, StreamShape.LONG_VALUE,
                   StreamOpFlag.IS_ORDERED | StreamOpFlag.IS_SORTED);
@@ -215,6 +266,8 @@ final class SortedOps {
 
             if (StreamOpFlag.SORTED.isKnown(flags))
                 return sink;
+            else if (limit >= 0)
+                return new LongLimitSortingSink(sink, limit);
             else if (StreamOpFlag.SIZED.isKnown(flags))
                 return new SizedLongSortingSink(sink);
             else
@@ -229,12 +282,8 @@ final class SortedOps {
                 return helper.evaluate(spliterator, false, generator);
             }
             else {
-                Node.OfLong n = (Node.OfLong) helper.evaluate(spliterator, true, generator);
-
-                long[] content = n.asPrimitiveArray();
-                Arrays.parallelSort(content);
-
-                return Nodes.node(content);
+                long[] sorted = new LongSortTask<>(helper, spliterator, generator, limit).invoke();
+                return Nodes.node(sorted);
             }
         }
     }
@@ -243,6 +292,12 @@ final class SortedOps {
      * Specialized subtype for sorting double streams.
      */
     private static final class OfDouble extends DoublePipeline.StatefulOp<Double> {
+        /**
+         * The number of leading elements the downstream slice consumes, or
+         * -1 if all elements are sorted
+         */
+        int limit = -1;
+
         OfDouble(AbstractPipeline<?, Double, ?> upstream) {
             super(upstream, StreamShape.DOUBLE_VALUE,
                   StreamOpFlag.IS_ORDERED | StreamOpFlag.IS_SORTED);
@@ -254,6 +309,8 @@ final class SortedOps {
 
             if (StreamOpFlag.SORTED.isKnown(flags))
                 return sink;
+            else if (limit >= 0)
+                return new DoubleLimitSortingSink(sink, limit);
             else if (StreamOpFlag.SIZED.isKnown(flags))
                 return new SizedDoubleSortingSink(sink);
             else
@@ -268,16 +325,29 @@ final class SortedOps {
                 return helper.evaluate(spliterator, false, generator);
             }
             else {
-                Node.OfDouble n = (Node.OfDouble) helper.evaluate(spliterator, true, generator);
-
-                double[] content = n.asPrimitiveArray();
-                Arrays.parallelSort(content);
-
-                return Nodes.node(content);
+                double[] sorted = new DoubleSortTask<>(helper, spliterator, generator, limit).invoke();
+                return Nodes.node(sorted);
             }
         }
     }
 
+    /**
+     * Returns the initial capacity of the buffer of a sink bounded to
+     * {@code limit} elements, given the size passed to its {@code begin}.
+     */
+    private static int initialCapacity(long size, int limit) {
+        long max = 2L * limit;
+        return (int) (size >= 0 ? Math.min(size, max) : Math.min(16, max));
+    }
+
+    /**
+     * Returns the capacity to grow a full buffer of {@code length} elements
+     * to, for a sink bounded to {@code limit} elements.
+     */
+    private static int grow(int length, int limit) {
+        return (int) Math.min(Math.max(2L * length, 16), 2L * limit);
+    }
+
     /**
      * Abstract {@link Sink} for implementing sort on reference streams.
      *
@@ -405,6 +475,75 @@ final class SortedOps {
         }
     }
 
+    /**
+     * {@link Sink} for implementing sort on reference streams whose
+     * downstream consumes only the first {@code limit} elements.
+     * <p>
+     * Elements are buffered until the buffer holds twice the limit, when it
+     * is sorted and cut down to the limit.  From then on an element that
+     * does not sort before the last element kept is dropped on arrival,
+     * which, as later elements sort after equal earlier ones, keeps the
+     * sort stable.
+     */
+    private static final class RefLimitSortingSink<T> extends AbstractRefSortingSink<T> {
+        private final int limit;
+        private T[] array;
+        private int offset;
+        private boolean cut;
+
+        RefLimitSortingSink(Sink<? super T> sink, Comparator<? super T> comparator, int limit) {
+            super(sink, comparator);
+            this.limit = limit;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void begin(long size) {
+            if (size >= Nodes.MAX_ARRAY_SIZE)
+                throw new IllegalArgumentException(Nodes.BAD_SIZE);
+            array = (T[]) new Object[initialCapacity(size, limit)];
+            offset = 0;
+            cut = false;
+        }
+
+        @Override
+        public void end() {
+            Arrays.sort(array, 0, offset, comparator);
+            int size = Math.min(offset, limit);
+            downstream.begin(size);
+            if (!cancellationWasRequested) {
+                for (int i = 0; i < size; i++)
+                    downstream.accept(array[i]);
+            }
+            else {
+                for (int i = 0; i < size && !downstream.cancellationRequested(); i++)
+                    downstream.accept(array[i]);
+            }
+            downstream.end();
+            array = null;
+        }
+
+        @Override
+        public void accept(T t) {
+            if (cut && comparator.compare(t, array[limit - 1]) >= 0)
+                return;
+            if (offset == array.length) {
+                if (offset < 2 * limit) {
+                    array = Arrays.copyOf(array, grow(offset, limit));
+                }
+                else {
+                    Arrays.sort(array, 0, offset, comparator);
+                    Arrays.fill(array, limit, offset, null);
+                    offset = limit;
+                    cut = true;
+                    if (comparator.compare(t, array[limit - 1]) >= 0)
+                        return;
+                }
+            }
+            array[offset++] = t;
+        }
+    }
+
     /**
      * Abstract {@link Sink} for implementing sort on int streams.
      */
@@ -503,6 +642,67 @@ final class SortedOps {
         }
     }
 
+    /**
+     * {@link Sink} for implementing sort on int streams whose downstream
+     * consumes only the first {@code limit} elements.
+     */
+    private static final class IntLimitSortingSink extends AbstractIntSortingSink {
+        private final int limit;
+        private int[] array;
+        private int offset;
+        private boolean cut;
+
+        IntLimitSortingSink(Sink<? super Integer> downstream, int limit) {
+            super(downstream);
+            this.limit = limit;
+        }
+
+        @Override
+        public void begin(long size) {
+            if (size >= Nodes.MAX_ARRAY_SIZE)
+                throw new IllegalArgumentException(Nodes.BAD_SIZE);
+            array = new int[initialCapacity(size, limit)];
+            offset = 0;
+            cut = false;
+        }
+
+        @Override
+        public void end() {
+            Arrays.sort(array, 0, offset);
+            int size = Math.min(offset, limit);
+            downstream.begin(size);
+            if (!cancellationWasRequested) {
+                for (int i = 0; i < size; i++)
+                    downstream.accept(array[i]);
+            }
+            else {
+                for (int i = 0; i < size && !downstream.cancellationRequested(); i++)
+                    downstream.accept(array[i]);
+            }
+            downstream.end();
+            array = null;
+        }
+
+        @Override
+        public void accept(int t) {
+            if (cut && t >= array[limit - 1])
+                return;
+            if (offset == array.length) {
+                if (offset < 2 * limit) {
+                    array = Arrays.copyOf(array, grow(offset, limit));
+                }
+                else {
+                    Arrays.sort(array, 0, offset);
+                    offset = limit;
+                    cut = true;
+                    if (t >= array[limit - 1])
+                        return;
+                }
+            }
+            array[offset++] = t;
+        }
+    }
+
     /**
      * Abstract {@link Sink} for implementing sort on long streams.
      */
@@ -601,6 +801,67 @@ final class SortedOps {
         }
     }
 
+    /**
+     * {@link Sink} for implementing sort on long streams whose downstream
+     * consumes only the first {@code limit} elements.
+     */
+    private static final class LongLimitSortingSink extends AbstractLongSortingSink {
+        private final int limit;
+        private long[] array;
+        private int offset;
+        private boolean cut;
+
+        LongLimitSortingSink(Sink<? super Long> downstream, int limit) {
+            super(downstream);
+            this.limit = limit;
+        }
+
+        @Override
+        public void begin(long size) {
+            if (size >= Nodes.MAX_ARRAY_SIZE)
+                throw new IllegalArgumentException(Nodes.BAD_SIZE);
+            array = new long[initialCapacity(size, limit)];
+            offset = 0;
+            cut = false;
+        }
+
+        @Override
+        public void end() {
+            Arrays.sort(array, 0, offset);
+            int size = Math.min(offset, limit);
+            downstream.begin(size);
+            if (!cancellationWasRequested) {
+                for (int i = 0; i < size; i++)
+                    downstream.accept(array[i]);
+            }
+            else {
+                for (int i = 0; i < size && !downstream.cancellationRequested(); i++)
+                    downstream.accept(array[i]);
+            }
+            downstream.end();
+            array = null;
+        }
+
+        @Override
+        public void accept(long t) {
+            if (cut && t >= array[limit - 1])
+                return;
+            if (offset == array.length) {
+                if (offset < 2 * limit) {
+                    array = Arrays.copyOf(array, grow(offset, limit));
+                }
+                else {
+                    Arrays.sort(array, 0, offset);
+                    offset = limit;
+                    cut = true;
+                    if (t >= array[limit - 1])
+                        return;
+                }
+            }
+            array[offset++] = t;
+        }
+    }
+
     /**
      * Abstract {@link Sink} for implementing sort on long streams.
      */
@@ -698,4 +959,415 @@ final class SortedOps {
             b.accept(t);
         }
     }
+
+    /**
+     * {@link Sink} for implementing sort on double streams whose downstream
+     * consumes only the first {@code limit} elements.
+     */
+    private static final class DoubleLimitSortingSink extends AbstractDoubleSortingSink {
+        private final int limit;
+        private double[] array;
+        private int offset;
+        private boolean cut;
+
+        DoubleLimitSortingSink(Sink<? super Double> downstream, int limit) {
+            super(downstream);
+            this.limit = limit;
+        }
+
+        @Override
+        public void begin(long size) {
+            if (size >= Nodes.MAX_ARRAY_SIZE)
+                throw new IllegalArgumentException(Nodes.BAD_SIZE);
+            array = new double[initialCapacity(size, limit)];
+            offset = 0;
+            cut = false;
+        }
+
+        @Override
+        public void end() {
+            Arrays.sort(array, 0, offset);
+            int size = Math.min(offset, limit);
+            downstream.begin(size);
+            if (!cancellationWasRequested) {
+                for (int i = 0; i < size; i++)
+                    downstream.accept(array[i]);
+            }
+            else {
+                for (int i = 0; i < size && !downstream.cancellationRequested(); i++)
+                    downstream.accept(array[i]);
+            }
+            downstream.end();
+            array = null;
+        }
+
+        @Override
+        public void accept(double t) {
+            if (cut && Double.compare(t, array[limit - 1]) >= 0)
+                return;
+            if (offset == array.length) {
+                if (offset < 2 * limit) {
+                    array = Arrays.copyOf(array, grow(offset, limit));
+                }
+                else {
+                    Arrays.sort(array, 0, offset);
+                    offset = limit;
+                    cut = true;
+                    if (Double.compare(t, array[limit - 1]) >= 0)
+                        return;
+                }
+            }
+            array[offset++] = t;
+        }
+    }
+
+    /**
+     * Task for sorting a parallel stream.  Each leaf collects and sorts the
+     * elements of its spliterator, or keeps the first {@code limit} of them
+     * in sort order, and each inner task merges the sorted arrays of its
+     * children, preferring the left one on ties so that the merge is stable
+     * for ordered streams.  Large merges are split into chunks of the
+     * output that are merged in parallel.
+     *
+     * @param <P_IN> type of input elements to the pipeline
+     * @param <P_OUT> type of output elements from the pipeline
+     * @param <A> type of the sorted arrays
+     * @param <K> type of the task
+     */
+    @SuppressWarnings("serial")
+    private static abstract class SortTask<P_IN, P_OUT, A, K extends SortTask<P_IN, P_OUT, A, K>>
+            extends AbstractTask<P_IN, P_OUT, A, K> {
+        /**
+         * The smallest merge that is split into parallel chunks
+         */
+        private static final int MIN_MERGE_CHUNK = 1 << 13;
+
+        protected final IntFunction<P_OUT[]> generator;
+        protected final int limit;
+
+        SortTask(PipelineHelper<P_OUT> helper, Spliterator<P_IN> spliterator,
+                 IntFunction<P_OUT[]> generator, int limit) {
+            super(helper, spliterator);
+            this.generator = generator;
+            this.limit = limit;
+        }
+
+        SortTask(K parent, Spliterator<P_IN> spliterator) {
+            super(parent, spliterator);
+            this.generator = parent.generator;
+            this.limit = parent.limit;
+        }
+
+        /**
+         * Collects the elements of this leaf into a node, with the given
+         * sink between the pipeline and the node if not null.
+         */
+        protected final Node<P_OUT> collect(Sink<P_OUT> sink, Node.Builder<P_OUT> builder) {
+            helper.wrapAndCopyInto(sink != null ? sink : builder, spliterator);
+            return builder.build();
+        }
+
+        /**
+         * Returns a node builder for the elements of this leaf.
+         */
+        protected final Node.Builder<P_OUT> builder() {
+            return helper.makeNodeBuilder(limit < 0 ? helper.exactOutputSizeIfKnown(spliterator) : -1,
+                                          generator);
+        }
+
+        abstract int length(A array);
+
+        abstract A newArray(int length);
+
+        /**
+         * Returns true if {@code left[i]} does not sort after
+         * {@code right[j]}.
+         */
+        abstract boolean precedes(A left, int i, A right, int j);
+
+        /**
+         * Merges {@code left} from {@code i} and {@code right} from
+         * {@code j} into {@code out} from {@code from} to {@code to}.
+         */
+        abstract void merge(A left, int i, A right, int j, A out, int from, int to);
+
+        @Override
+        public void onCompletion(CountedCompleter<?> caller) {
+            if (!isLeaf()) {
+                setLocalResult(merge(leftChild.getLocalResult(), rightChild.getLocalResult()));
+                leftChild.setLocalResult(null);
+                rightChild.setLocalResult(null);
+            }
+            super.onCompletion(caller);
+        }
+
+        private A merge(A left, A right) {
+            int ln = length(left), rn = length(right);
+            if (rn == 0)
+                return left;
+            if (ln == 0)
+                return right;
+            long size = (long) ln + rn;
+            if (limit >= 0)
+                size = Math.min(size, limit);
+            if (size >= Nodes.MAX_ARRAY_SIZE)
+                throw new IllegalArgumentException(Nodes.BAD_SIZE);
+            int n = (int) size;
+            A out = newArray(n);
+            int chunks = Math.min(n / MIN_MERGE_CHUNK, LEAF_TARGET);
+            if (chunks <= 1) {
+                merge(left, 0, right, 0, out, 0, n);
+            }
+            else {
+                List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+                for (int c = 0; c < chunks; c++) {
+                    int from = (int) ((long) n * c / chunks);
+                    int to = (int) ((long) n * (c + 1) / chunks);
+                    int i = split(left, ln, right, rn, from);
+                    int j = from - i;
+                    tasks.add(ForkJoinTask.adapt(() -> merge(left, i, right, j, out, from, to)));
+                }
+                ForkJoinTask.invokeAll(tasks);
+            }
+            return out;
+        }
+
+        /**
+         * Returns the number of elements of {@code left} among the first
+         * {@code d} elements of the merge of {@code left} and
+         * {@code right}.
+         */
+        private int split(A left, int ln, A right, int rn, int d) {
+            int lo = Math.max(0, d - rn), hi = Math.min(d, ln);
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (precedes(left, mid, right, d - mid - 1))
+                    lo = mid + 1;
+                else
+                    hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class RefSortTask<P_IN, T>
+            extends SortTask<P_IN, T, T[], RefSortTask<P_IN, T>> {
+        private final Comparator<? super T> comparator;
+
+        RefSortTask(PipelineHelper<T> helper, Spliterator<P_IN> spliterator,
+                    IntFunction<T[]> generator, Comparator<? super T> comparator, int limit) {
+            super(helper, spliterator, generator, limit);
+            this.comparator = comparator;
+        }
+
+        RefSortTask(RefSortTask<P_IN, T> parent, Spliterator<P_IN> spliterator) {
+            super(parent, spliterator);
+            this.comparator = parent.comparator;
+        }
+
+        @Override
+        protected RefSortTask<P_IN, T> makeChild(Spliterator<P_IN> spliterator) {
+            return new RefSortTask<>(this, spliterator);
+        }
+
+        @Override
+        protected T[] doLeaf() {
+            Node.Builder<T> builder = builder();
+            if (limit >= 0)
+                return collect(new RefLimitSortingSink<>(builder, comparator, limit), builder)
+                        .asArray(generator);
+            T[] array = collect(null, builder).asArray(generator);
+            Arrays.sort(array, comparator);
+            return array;
+        }
+
+        @Override
+        int length(T[] array) {
+            return array.length;
+        }
+
+        @Override
+        T[] newArray(int length) {
+            return generator.apply(length);
+        }
+
+        @Override
+        boolean precedes(T[] left, int i, T[] right, int j) {
+            return comparator.compare(left[i], right[j]) <= 0;
+        }
+
+        @Override
+        void merge(T[] left, int i, T[] right, int j, T[] out, int from, int to) {
+            for (int k = from; k < to; k++) {
+                if (j >= right.length
+                    || (i < left.length && comparator.compare(left[i], right[j]) <= 0))
+                    out[k] = left[i++];
+                else
+                    out[k] = right[j++];
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class IntSortTask<P_IN>
+            extends SortTask<P_IN, Integer, int[], IntSortTask<P_IN>> {
+        IntSortTask(PipelineHelper<Integer> helper, Spliterator<P_IN> spliterator,
+                    IntFunction<Integer[]> generator, int limit) {
+            super(helper, spliterator, generator, limit);
+        }
+
+        IntSortTask(IntSortTask<P_IN> parent, Spliterator<P_IN> spliterator) {
+            super(parent, spliterator);
+        }
+
+        @Override
+        protected IntSortTask<P_IN> makeChild(Spliterator<P_IN> spliterator) {
+            return new IntSortTask<>(this, spliterator);
+        }
+
+        @Override
+        protected int[] doLeaf() {
+            Node.Builder<Integer> builder = builder();
+            if (limit >= 0)
+                return ((Node.OfInt) collect(new IntLimitSortingSink(builder, limit), builder))
+                        .asPrimitiveArray();
+            int[] array = ((Node.OfInt) collect(null, builder)).asPrimitiveArray();
+            Arrays.sort(array);
+            return array;
+        }
+
+        @Override
+        int length(int[] array) {
+            return array.length;
+        }
+
+        @Override
+        int[] newArray(int length) {
+            return new int[length];
+        }
+
+        @Override
+        boolean precedes(int[] left, int i, int[] right, int j) {
+            return left[i] <= right[j];
+        }
+
+        @Override
+        void merge(int[] left, int i, int[] right, int j, int[] out, int from, int to) {
+            for (int k = from; k < to; k++) {
+                if (j >= right.length || (i < left.length && left[i] <= right[j]))
+                    out[k] = left[i++];
+                else
+                    out[k] = right[j++];
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class LongSortTask<P_IN>
+            extends SortTask<P_IN, Long, long[], LongSortTask<P_IN>> {
+        LongSortTask(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator,
+                    IntFunction<Long[]> generator, int limit) {
+            super(helper, spliterator, generator, limit);
+        }
+
+        LongSortTask(LongSortTask<P_IN> parent, Spliterator<P_IN> spliterator) {
+            super(parent, spliterator);
+        }
+
+        @Override
+        protected LongSortTask<P_IN> makeChild(Spliterator<P_IN> spliterator) {
+            return new LongSortTask<>(this, spliterator);
+        }
+
+        @Override
+        protected long[] doLeaf() {
+            Node.Builder<Long> builder = builder();
+            if (limit >= 0)
+                return ((Node.OfLong) collect(new LongLimitSortingSink(builder, limit), builder))
+                        .asPrimitiveArray();
+            long[] array = ((Node.OfLong) collect(null, builder)).asPrimitiveArray();
+            Arrays.sort(array);
+            return array;
+        }
+
+        @Override
+        int length(long[] array) {
+            return array.length;
+        }
+
+        @Override
+        long[] newArray(int length) {
+            return new long[length];
+        }
+
+        @Override
+        boolean precedes(long[] left, int i, long[] right, int j) {
+            return left[i] <= right[j];
+        }
+
+        @Override
+        void merge(long[] left, int i, long[] right, int j, long[] out, int from, int to) {
+            for (int k = from; k < to; k++) {
+                if (j >= right.length || (i < left.length && left[i] <= right[j]))
+                    out[k] = left[i++];
+                else
+                    out[k] = right[j++];
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class DoubleSortTask<P_IN>
+            extends SortTask<P_IN, Double, double[], DoubleSortTask<P_IN>> {
+        DoubleSortTask(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator,
+                    IntFunction<Double[]> generator, int limit) {
+            super(helper, spliterator, generator, limit);
+        }
+
+        DoubleSortTask(DoubleSortTask<P_IN> parent, Spliterator<P_IN> spliterator) {
+            super(parent, spliterator);
+        }
+
+        @Override
+        protected DoubleSortTask<P_IN> makeChild(Spliterator<P_IN> spliterator) {
+            return new DoubleSortTask<>(this, spliterator);
+        }
+
+        @Override
+        protected double[] doLeaf() {
+            Node.Builder<Double> builder = builder();
+            if (limit >= 0)
+                return ((Node.OfDouble) collect(new DoubleLimitSortingSink(builder, limit), builder))
+                        .asPrimitiveArray();
+            double[] array = ((Node.OfDouble) collect(null, builder)).asPrimitiveArray();
+            Arrays.sort(array);
+            return array;
+        }
+
+        @Override
+        int length(double[] array) {
+            return array.length;
+        }
+
+        @Override
+        double[] newArray(int length) {
+            return new double[length];
+        }
+
+        @Override
+        boolean precedes(double[] left, int i, double[] right, int j) {
+            return Double.compare(left[i], right[j]) <= 0;
+        }
+
+        @Override
+        void merge(double[] left, int i, double[] right, int j, double[] out, int from, int to) {
+            for (int k = from; k < to; k++) {
+                if (j >= right.length || (i < left.length && Double.compare(left[i], right[j]) <= 0))
+                    out[k] = left[i++];
+                else
+                    out[k] = right[j++];
+            }
+        }
+    }
 }
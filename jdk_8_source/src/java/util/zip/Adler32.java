@@ -134,6 +134,42 @@ class Adler32 implements Checksum {
         return (long)adler & 0xffffffffL;
     }
 
+    /*
+     * Largest prime smaller than 65536.
+     */
+    private static final int BASE = 65521;
+
+    /**
+     * Returns the Adler-32 checksum of the concatenation of two byte
+     * sequences, given the checksum of each and the length of the second.
+     * This allows the checksum of a large input to be computed from parts
+     * checksummed independently, for instance in parallel.
+     *
+     * @param adler1 the Adler-32 checksum of the first sequence
+     * @param adler2 the Adler-32 checksum of the second sequence
+     * @param len2 the length in bytes of the second sequence
+     * @return the Adler-32 checksum of the first sequence followed by
+     *         the second
+     * @throws IllegalArgumentException if {@code len2} is negative
+     * @since 1.8
+     */
+    public static long combine(long adler1, long adler2, long len2) {
+        if (len2 < 0)
+            throw new IllegalArgumentException("len2 < 0");
+        // as zlib's adler32_combine: the first sum is carried over len2
+        // bytes into the second, modulo BASE
+        long rem = len2 % BASE;
+        long sum1 = adler1 & 0xffff;
+        long sum2 = (rem * sum1) % BASE;
+        sum1 += (adler2 & 0xffff) + BASE - 1;
+        sum2 += ((adler1 >> 16) & 0xffff) + ((adler2 >> 16) & 0xffff) + BASE - rem;
+        if (sum1 >= BASE) sum1 -= BASE;
+        if (sum1 >= BASE) sum1 -= BASE;
+        if (sum2 >= (BASE << 1)) sum2 -= (BASE << 1);
+        if (sum2 >= BASE) sum2 -= BASE;
+        return sum1 | (sum2 << 16);
+    }
+
     private native static int update(int adler, int b);
     private native static int updateBytes(int adler, byte[] b, int off,
                                           int len);
@@ -131,6 +131,79 @@ class CRC32 implements Checksum {
         return (long)crc & 0xffffffffL;
     }
 
+    /**
+     * Returns the CRC-32 of the concatenation of two byte sequences, given
+     * the CRC-32 of each and the length of the second. This allows the
+     * CRC-32 of a large input to be computed from parts checksummed
+     * independently, for instance in parallel.
+     *
+     * @param crc1 the CRC-32 of the first sequence
+     * @param crc2 the CRC-32 of the second sequence
+     * @param len2 the length in bytes of the second sequence
+     * @return the CRC-32 of the first sequence followed by the second
+     * @throws IllegalArgumentException if {@code len2} is negative
+     * @since 1.8
+     */
+    public static long combine(long crc1, long crc2, long len2) {
+        return combine(crc1, crc2, len2, 0xedb88320);
+    }
+
+    /*
+     * Combines two CRCs of the given reflected polynomial as zlib's
+     * crc32_combine does: the first value is advanced over len2 zero bytes
+     * with operators in GF(2) obtained by repeated squaring, then combined
+     * with the second. Also used by CRC32C.
+     */
+    static long combine(long crc1, long crc2, long len2, int poly) {
+        if (len2 < 0)
+            throw new IllegalArgumentException("len2 < 0");
+        if (len2 == 0)
+            return crc1 & 0xffffffffL;
+        int[] even = new int[32];    // even-power-of-two zeros operator
+        int[] odd = new int[32];     // odd-power-of-two zeros operator
+
+        // put operator for one zero bit in odd
+        odd[0] = poly;
+        int row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd);  // put operator for two zero bits in even
+        gf2MatrixSquare(odd, even);  // put operator for four zero bits in odd
+
+        // apply len2 zeros to crc1 (first square will put the operator for
+        // one zero byte, eight zero bits, in even)
+        int c = (int)crc1;
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((len2 & 1) != 0)
+                c = gf2MatrixTimes(even, c);
+            len2 >>>= 1;
+            if (len2 == 0)
+                break;
+            gf2MatrixSquare(odd, even);
+            if ((len2 & 1) != 0)
+                c = gf2MatrixTimes(odd, c);
+            len2 >>>= 1;
+        } while (len2 != 0);
+        return (c ^ (int)crc2) & 0xffffffffL;
+    }
+
+    private static int gf2MatrixTimes(int[] mat, int vec) {
+        int sum = 0;
+        for (int i = 0; vec != 0; i++, vec >>>= 1) {
+            if ((vec & 1) != 0)
+                sum ^= mat[i];
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(int[] square, int[] mat) {
+        for (int n = 0; n < 32; n++)
+            square[n] = gf2MatrixTimes(mat, mat[n]);
+    }
+
     private native static int update(int crc, int b);
     private native static int updateBytes(int crc, byte[] b, int off, int len);
 
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A class that can be used to compute the CRC-32C of a data stream.
+ *
+ * <p>CRC-32C is defined with the Castagnoli polynomial
+ * {@code 0x1EDC6F41}, as specified in RFC 3720 section 12.1, and is used
+ * by iSCSI, SCTP, ext4 and many storage formats. This implementation is
+ * written in Java and processes eight bytes per step with the
+ * slicing-by-8 table method, so it performs well also where the platform
+ * offers no hardware support.
+ *
+ * <p> Passing a {@code null} argument to a method in this class will cause
+ * a {@link NullPointerException} to be thrown.
+ *
+ * @see Checksum
+ * @since 1.8
+ */
+public final class CRC32C implements Checksum {
+
+    /*
+     * The Castagnoli polynomial, reflected.
+     */
+    private static final int CRC32C_POLY = 0x82f63b78;
+
+    /*
+     * TABLES[k][n] is the CRC of byte n followed by k zero bytes.
+     */
+    private static final int[][] TABLES = new int[8][256];
+    static {
+        int[] t0 = TABLES[0];
+        for (int n = 0; n < 256; n++) {
+            int c = n;
+            for (int k = 0; k < 8; k++)
+                c = (c & 1) != 0 ? (c >>> 1) ^ CRC32C_POLY : c >>> 1;
+            t0[n] = c;
+        }
+        for (int k = 1; k < 8; k++) {
+            int[] t = TABLES[k], p = TABLES[k - 1];
+            for (int n = 0; n < 256; n++)
+                t[n] = (p[n] >>> 8) ^ t0[p[n] & 0xff];
+        }
+    }
+
+    /*
+     * The state is kept inverted, so that the initial value is all ones.
+     */
+    private int crc = 0xffffffff;
+
+    /**
+     * Creates a new CRC32C object.
+     */
+    public CRC32C() {
+    }
+
+    /**
+     * Updates the CRC-32C checksum with the specified byte (the low
+     * eight bits of the argument b).
+     *
+     * @param b the byte to update the checksum with
+     */
+    public void update(int b) {
+        crc = (crc >>> 8) ^ TABLES[0][(crc ^ b) & 0xff];
+    }
+
+    /**
+     * Updates the CRC-32C checksum with the specified array of bytes.
+     *
+     * @throws  ArrayIndexOutOfBoundsException
+     *          if {@code off} is negative, or {@code len} is negative,
+     *          or {@code off+len} is greater than the length of the
+     *          array {@code b}
+     */
+    public void update(byte[] b, int off, int len) {
+        if (b == null) {
+            throw new NullPointerException();
+        }
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+        crc = updateBytes(crc, b, off, off + len);
+    }
+
+    /**
+     * Updates the CRC-32C checksum with the specified array of bytes.
+     *
+     * @param b the array of bytes to update the checksum with
+     */
+    public void update(byte[] b) {
+        crc = updateBytes(crc, b, 0, b.length);
+    }
+
+    /**
+     * Updates the checksum with the bytes from the specified buffer.
+     *
+     * The checksum is updated using
+     * buffer.{@link java.nio.Buffer#remaining() remaining()}
+     * bytes starting at
+     * buffer.{@link java.nio.Buffer#position() position()}
+     * Upon return, the buffer's position will be updated to its
+     * limit; its limit will not have been changed.
+     *
+     * @param buffer the ByteBuffer to update the checksum with
+     */
+    public void update(ByteBuffer buffer) {
+        int pos = buffer.position();
+        int limit = buffer.limit();
+        assert (pos <= limit);
+        int rem = limit - pos;
+        if (rem <= 0)
+            return;
+        if (buffer.hasArray()) {
+            crc = updateBytes(crc, buffer.array(), pos + buffer.arrayOffset(),
+                              limit + buffer.arrayOffset());
+        } else {
+            crc = updateByteBuffer(crc, buffer, pos, limit);
+        }
+        buffer.position(limit);
+    }
+
+    /**
+     * Resets CRC-32C to initial value.
+     */
+    public void reset() {
+        crc = 0xffffffff;
+    }
+
+    /**
+     * Returns CRC-32C value.
+     */
+    public long getValue() {
+        return (~crc) & 0xffffffffL;
+    }
+
+    /**
+     * Returns the CRC-32C of the concatenation of two byte sequences,
+     * given the CRC-32C of each and the length of the second.
+     *
+     * @param crc1 the CRC-32C of the first sequence
+     * @param crc2 the CRC-32C of the second sequence
+     * @param len2 the length in bytes of the second sequence
+     * @return the CRC-32C of the first sequence followed by the second
+     * @throws IllegalArgumentException if {@code len2} is negative
+     * @see CRC32#combine(long, long, long)
+     */
+    public static long combine(long crc1, long crc2, long len2) {
+        return CRC32.combine(crc1, crc2, len2, CRC32C_POLY);
+    }
+
+    /*
+     * Advances the crc over eight bytes, the first four in lo and the
+     * last four in hi, both in little-endian order.
+     */
+    private static int update8(int crc, int lo, int hi) {
+        final int[][] t = TABLES;
+        lo ^= crc;
+        return t[7][lo & 0xff] ^ t[6][(lo >>> 8) & 0xff] ^
+               t[5][(lo >>> 16) & 0xff] ^ t[4][lo >>> 24] ^
+               t[3][hi & 0xff] ^ t[2][(hi >>> 8) & 0xff] ^
+               t[1][(hi >>> 16) & 0xff] ^ t[0][hi >>> 24];
+    }
+
+    private static int updateBytes(int crc, byte[] b, int off, int end) {
+        final int[] t0 = TABLES[0];
+        for (; off + 8 <= end; off += 8) {
+            int lo = (b[off] & 0xff) | (b[off + 1] & 0xff) << 8 |
+                     (b[off + 2] & 0xff) << 16 | b[off + 3] << 24;
+            int hi = (b[off + 4] & 0xff) | (b[off + 5] & 0xff) << 8 |
+                     (b[off + 6] & 0xff) << 16 | b[off + 7] << 24;
+            crc = update8(crc, lo, hi);
+        }
+        for (; off < end; off++) {
+            crc = (crc >>> 8) ^ t0[(crc ^ b[off]) & 0xff];
+        }
+        return crc;
+    }
+
+    private static int updateByteBuffer(int crc, ByteBuffer buffer,
+                                        int pos, int limit) {
+        final int[] t0 = TABLES[0];
+        // absolute reads of a little-endian view leave the buffer alone
+        ByteBuffer bb = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        for (; pos + 8 <= limit; pos += 8) {
+            long v = bb.getLong(pos);
+            crc = update8(crc, (int)v, (int)(v >>> 32));
+        }
+        for (; pos < limit; pos++) {
+            crc = (crc >>> 8) ^ t0[(crc ^ bb.get(pos)) & 0xff];
+        }
+        return crc;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.RecursiveTask;
+import sun.misc.Cleaner;
+import sun.nio.ch.DirectBuffer;
+
+/**
+ * This class consists of static methods that compute checksums over
+ * regions of files in parallel.
+ *
+ * <p>The region is split into parts of a few megabytes that are mapped
+ * into memory with {@link FileChannel#map FileChannel.map} and checksummed
+ * directly from the mapping, without copying, by tasks in the
+ * {@linkplain java.util.concurrent.ForkJoinPool#commonPool() common pool}.
+ * The checksums of the parts are then combined with
+ * {@link CRC32#combine CRC32.combine}, {@link Adler32#combine
+ * Adler32.combine} or {@link CRC32C#combine CRC32C.combine}. Each part
+ * is unmapped as soon as it has been checksummed, so that arbitrarily
+ * large files can be processed.
+ *
+ * <p>The result is the same as that of updating a single checksum object
+ * with the bytes of the region in order. The file must not be modified
+ * while its checksum is computed.
+ *
+ * @see CRC32
+ * @see Adler32
+ * @see CRC32C
+ * @since 1.8
+ */
+public final class Checksums {
+
+    private Checksums() { }
+
+    /*
+     * The size of the parts mapped and checksummed by each task.
+     */
+    private static final long PART_SIZE = 32L << 20;
+
+    private static final int KIND_CRC32   = 0;
+    private static final int KIND_ADLER32 = 1;
+    private static final int KIND_CRC32C  = 2;
+
+    /**
+     * Computes the CRC-32 of a region of a file.
+     *
+     * @param ch the file channel, open for reading
+     * @param position the position in the file at which the region starts
+     * @param size the size of the region
+     * @return the CRC-32 of the bytes of the region
+     * @throws IllegalArgumentException if {@code position} or {@code size}
+     *         is negative
+     * @throws EOFException if the region extends beyond the end of the file
+     * @throws IOException if an I/O error occurs
+     */
+    public static long crc32(FileChannel ch, long position, long size)
+        throws IOException
+    {
+        return checksum(ch, position, size, KIND_CRC32);
+    }
+
+    /**
+     * Computes the Adler-32 checksum of a region of a file.
+     *
+     * @param ch the file channel, open for reading
+     * @param position the position in the file at which the region starts
+     * @param size the size of the region
+     * @return the Adler-32 checksum of the bytes of the region
+     * @throws IllegalArgumentException if {@code position} or {@code size}
+     *         is negative
+     * @throws EOFException if the region extends beyond the end of the file
+     * @throws IOException if an I/O error occurs
+     */
+    public static long adler32(FileChannel ch, long position, long size)
+        throws IOException
+    {
+        return checksum(ch, position, size, KIND_ADLER32);
+    }
+
+    /**
+     * Computes the CRC-32C of a region of a file.
+     *
+     * @param ch the file channel, open for reading
+     * @param position the position in the file at which the region starts
+     * @param size the size of the region
+     * @return the CRC-32C of the bytes of the region
+     * @throws IllegalArgumentException if {@code position} or {@code size}
+     *         is negative
+     * @throws EOFException if the region extends beyond the end of the file
+     * @throws IOException if an I/O error occurs
+     */
+    public static long crc32c(FileChannel ch, long position, long size)
+        throws IOException
+    {
+        return checksum(ch, position, size, KIND_CRC32C);
+    }
+
+    private static long checksum(FileChannel ch, long position, long size,
+                                 int kind)
+        throws IOException
+    {
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (size < 0)
+            throw new IllegalArgumentException("Negative size");
+        if (position > ch.size() - size)
+            throw new EOFException("Region extends beyond end of file");
+        try {
+            return new Part(ch, position, position + size, kind).invoke();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /*
+     * Checksums the bytes from lo to hi, splitting in halves down to
+     * PART_SIZE and combining the results.
+     */
+    @SuppressWarnings("serial")
+    private static final class Part extends RecursiveTask<Long> {
+        final FileChannel ch;
+        final long lo, hi;
+        final int kind;
+
+        Part(FileChannel ch, long lo, long hi, int kind) {
+            this.ch = ch;
+            this.lo = lo;
+            this.hi = hi;
+            this.kind = kind;
+        }
+
+        protected Long compute() {
+            if (hi - lo <= PART_SIZE) {
+                try {
+                    return checksum(ch, lo, hi - lo, kind);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            // split on a part boundary, so that mappings stay aligned
+            long parts = (hi - lo + PART_SIZE - 1) / PART_SIZE;
+            long mid = lo + (parts / 2) * PART_SIZE;
+            Part right = new Part(ch, mid, hi, kind);
+            right.fork();
+            long c1 = new Part(ch, lo, mid, kind).compute();
+            long c2 = right.join();
+            return combine(c1, c2, hi - mid, kind);
+        }
+
+        private static long checksum(FileChannel ch, long pos, long len,
+                                     int kind)
+            throws IOException
+        {
+            MappedByteBuffer bb = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+            try {
+                switch (kind) {
+                case KIND_CRC32:
+                    CRC32 crc32 = new CRC32();
+                    crc32.update(bb);
+                    return crc32.getValue();
+                case KIND_ADLER32:
+                    Adler32 adler32 = new Adler32();
+                    adler32.update(bb);
+                    return adler32.getValue();
+                default:
+                    CRC32C crc32c = new CRC32C();
+                    crc32c.update(bb);
+                    return crc32c.getValue();
+                }
+            } finally {
+                // release the mapping now rather than when collected
+                Cleaner cl = ((DirectBuffer)bb).cleaner();
+                if (cl != null)
+                    cl.clean();
+            }
+        }
+
+        private static long combine(long c1, long c2, long len2, int kind) {
+            switch (kind) {
+            case KIND_CRC32:
+                return CRC32.combine(c1, c2, len2);
+            case KIND_ADLER32:
+                return Adler32.combine(c1, c2, len2);
+            default:
+                return CRC32C.combine(c1, c2, len2);
+            }
+        }
+    }
+}
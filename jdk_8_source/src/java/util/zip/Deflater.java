@@ -81,6 +81,8 @@ class Deflater {
     private boolean finish, finished;
     private long bytesRead;
     private long bytesWritten;
+    private final boolean nowrap;
+    private int poolState;      // ZStreamPool.BORROWED, RETURNED or 0
 
     /**
      * Compression method for the deflate algorithm (the only one currently
@@ -169,6 +171,7 @@ class Deflater {
         this.level = level;
         this.strategy = DEFAULT_STRATEGY;
         this.zsRef = new ZStreamRef(init(level, DEFAULT_STRATEGY, nowrap));
+        this.nowrap = nowrap;
     }
 
     /**
@@ -559,6 +562,35 @@ class Deflater {
             throw new NullPointerException("Deflater has been closed");
     }
 
+    boolean ended() {
+        synchronized (zsRef) {
+            return zsRef.address() == 0;
+        }
+    }
+
+    boolean nowrap() {
+        return nowrap;
+    }
+
+    int level() {
+        synchronized (zsRef) {
+            return level;
+        }
+    }
+
+    /*
+     * Moves this deflater from one ZStreamPool state to another, returning
+     * false if it is not in the expected state.
+     */
+    boolean setPoolState(int expect, int update) {
+        synchronized (zsRef) {
+            if (poolState != expect)
+                return false;
+            poolState = update;
+            return true;
+        }
+    }
+
     private static native void initIDs();
     private native static long init(int level, int strategy, boolean nowrap);
     private native static void setDictionary(long addr, byte[] b, int off, int len);
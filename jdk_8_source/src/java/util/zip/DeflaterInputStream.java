@@ -74,7 +74,7 @@ public class DeflaterInputStream extends FilterInputStream {
      * @throws NullPointerException if {@code in} is null
      */
     public DeflaterInputStream(InputStream in) {
-        this(in, new Deflater());
+        this(in, ZStreamPool.getDeflater(Deflater.DEFAULT_COMPRESSION, false));
         usesDefaultDeflater = true;
     }
 
@@ -127,7 +127,7 @@ public class DeflaterInputStream extends FilterInputStream {
             try {
                 // Clean up
                 if (usesDefaultDeflater) {
-                    def.end();
+                    ZStreamPool.releaseDeflater(def);
                 }
 
                 in.close();
@@ -54,7 +54,7 @@ class DeflaterOutputStream extends FilterOutputStream {
      * Indicates that the stream has been closed.
      */
 
-    private boolean closed = false;
+    boolean closed = false;
 
     private final boolean syncFlush;
 
@@ -159,7 +159,8 @@ class DeflaterOutputStream extends FilterOutputStream {
      * @since 1.7
      */
     public DeflaterOutputStream(OutputStream out, boolean syncFlush) {
-        this(out, new Deflater(), 512, syncFlush);
+        this(out, ZStreamPool.getDeflater(Deflater.DEFAULT_COMPRESSION, false),
+             512, syncFlush);
         usesDefaultDeflater = true;
     }
 
@@ -197,6 +198,9 @@ class DeflaterOutputStream extends FilterOutputStream {
      * @exception IOException if an I/O error has occurred
      */
     public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
         if (def.finished()) {
             throw new IOException("write beyond end of stream");
         }
@@ -220,7 +224,7 @@ class DeflaterOutputStream extends FilterOutputStream {
      * @exception IOException if an I/O error has occurred
      */
     public void finish() throws IOException {
-        if (!def.finished()) {
+        if (!closed && !def.finished()) {
             def.finish();
             while (!def.finished()) {
                 deflate();
@@ -236,10 +240,12 @@ class DeflaterOutputStream extends FilterOutputStream {
     public void close() throws IOException {
         if (!closed) {
             finish();
+            // a pooled deflater must not be used, or returned, again once
+            // it is back in the pool
+            closed = true;
             if (usesDefaultDeflater)
-                def.end();
+                ZStreamPool.releaseDeflater(def);
             out.close();
-            closed = true;
         }
     }
 
@@ -270,7 +276,7 @@ class DeflaterOutputStream extends FilterOutputStream {
      * @since 1.7
      */
     public void flush() throws IOException {
-        if (syncFlush && !def.finished()) {
+        if (syncFlush && !closed && !def.finished()) {
             int len = 0;
             while ((len = def.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH)) > 0)
             {
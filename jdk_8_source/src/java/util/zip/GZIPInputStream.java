@@ -74,9 +74,14 @@ class GZIPInputStream extends InflaterInputStream {
      * @exception IllegalArgumentException if {@code size <= 0}
      */
     public GZIPInputStream(InputStream in, int size) throws IOException {
-        super(in, new Inflater(true), size);
+        super(in, ZStreamPool.getInflater(true), size);
         usesDefaultInflater = true;
-        readHeader(in);
+        try {
+            readHeader(in);
+        } catch (IOException ioe) {
+            ZStreamPool.releaseInflater(this.inf);
+            throw ioe;
+        }
     }
 
     /**
@@ -87,11 +87,16 @@ class GZIPOutputStream extends DeflaterOutputStream {
     public GZIPOutputStream(OutputStream out, int size, boolean syncFlush)
         throws IOException
     {
-        super(out, new Deflater(Deflater.DEFAULT_COMPRESSION, true),
+        super(out, ZStreamPool.getDeflater(Deflater.DEFAULT_COMPRESSION, true),
               size,
               syncFlush);
         usesDefaultDeflater = true;
-        writeHeader();
+        try {
+            writeHeader();
+        } catch (IOException ioe) {
+            ZStreamPool.releaseDeflater(this.def);
+            throw ioe;
+        }
         crc.reset();
     }
 
@@ -153,7 +158,7 @@ class GZIPOutputStream extends DeflaterOutputStream {
      * @exception IOException if an I/O error has occurred
      */
     public void finish() throws IOException {
-        if (!def.finished()) {
+        if (!closed && !def.finished()) {
             def.finish();
             while (!def.finished()) {
                 int len = def.deflate(buf, 0, buf.length);
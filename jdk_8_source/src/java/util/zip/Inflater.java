@@ -80,6 +80,8 @@ class Inflater {
     private boolean needDict;
     private long bytesRead;
     private long bytesWritten;
+    private final boolean nowrap;
+    private int poolState;      // ZStreamPool.BORROWED, RETURNED or 0
 
     private static final byte[] defaultBuf = new byte[0];
 
@@ -101,6 +103,7 @@ class Inflater {
      */
     public Inflater(boolean nowrap) {
         zsRef = new ZStreamRef(init(nowrap));
+        this.nowrap = nowrap;
     }
 
     /**
@@ -395,6 +398,23 @@ class Inflater {
         }
     }
 
+    boolean nowrap() {
+        return nowrap;
+    }
+
+    /*
+     * Moves this inflater from one ZStreamPool state to another, returning
+     * false if it is not in the expected state.
+     */
+    boolean setPoolState(int expect, int update) {
+        synchronized (zsRef) {
+            if (poolState != expect)
+                return false;
+            poolState = update;
+            return true;
+        }
+    }
+
     private native static void initIDs();
     private native static long init(boolean nowrap);
     private native static void setDictionary(long addr, byte[] b, int off,
@@ -105,7 +105,7 @@ class InflaterInputStream extends FilterInputStream {
      * @param in the input stream
      */
     public InflaterInputStream(InputStream in) {
-        this(in, new Inflater());
+        this(in, ZStreamPool.getInflater(false));
         usesDefaultInflater = true;
     }
 
@@ -222,10 +222,12 @@ class InflaterInputStream extends FilterInputStream {
      */
     public void close() throws IOException {
         if (!closed) {
+            // a pooled inflater must not be used, or returned, again once
+            // it is back in the pool
+            closed = true;
             if (usesDefaultInflater)
-                inf.end();
+                ZStreamPool.releaseInflater(inf);
             in.close();
-            closed = true;
         }
     }
 
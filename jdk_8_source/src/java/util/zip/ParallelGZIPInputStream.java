@@ -0,0 +1,451 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static java.util.zip.ParallelGZIPOutputStream.*;
+
+/**
+ * This class implements a stream filter for reading compressed data in
+ * the GZIP file format, decompressing indexed members in parallel.
+ *
+ * <p>A GZIP file may consist of several members, each of which can be
+ * decompressed independently. When the header of a member records the
+ * length of the member in an extra field, as written by
+ * {@link ParallelGZIPOutputStream} in indexed mode (subfield ID
+ * {@code 'J','Z'}) or by BGZF compressors (subfield ID {@code 'B','C'}),
+ * the next member can be located without decompressing this one. Such
+ * members are read ahead and decompressed by tasks in a
+ * {@link ForkJoinPool}, at most twice as many as the pool has parallelism,
+ * and their data is returned in order.
+ *
+ * <p>From the first member whose header does not record its length, the
+ * rest of the input is decompressed sequentially, as by
+ * {@link GZIPInputStream}; any GZIP file can therefore be read with this
+ * class.
+ *
+ * <p>This class is not thread-safe; only the decompression itself is
+ * performed by other threads.
+ *
+ * @see GZIPInputStream
+ * @see ParallelGZIPOutputStream
+ * @since 1.8
+ */
+public
+class ParallelGZIPInputStream extends InputStream {
+
+    /*
+     * File header flags.
+     */
+    private final static int FHCRC      = 2;    // Header CRC
+    private final static int FNAME      = 8;    // File name
+    private final static int FCOMMENT   = 16;   // File comment
+
+    private final InputStream in;
+    private final ForkJoinPool pool;
+    private final int maxPending;
+    private final ArrayDeque<ForkJoinTask<Member>> pending = new ArrayDeque<>();
+
+    private InputStream rest;    // sequential decoding of unindexed members
+    private boolean eos;         // no more members to read ahead
+    private boolean closed;
+
+    private byte[] buf;          // data of the current member
+    private int pos;
+    private int lim;
+
+    /**
+     * Creates a new input stream decompressing on the
+     * {@linkplain ForkJoinPool#commonPool() common pool}.
+     *
+     * @param in the input stream
+     *
+     * @exception ZipException if a GZIP format error has occurred or the
+     *                         compression method used is unsupported
+     * @exception IOException if an I/O error has occurred
+     */
+    public ParallelGZIPInputStream(InputStream in) throws IOException {
+        this(in, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new input stream.
+     *
+     * @param in the input stream
+     * @param pool the pool in which members are decompressed
+     *
+     * @exception ZipException if a GZIP format error has occurred or the
+     *                         compression method used is unsupported
+     * @exception IOException if an I/O error has occurred
+     */
+    public ParallelGZIPInputStream(InputStream in, ForkJoinPool pool)
+        throws IOException
+    {
+        if (in == null || pool == null) {
+            throw new NullPointerException();
+        }
+        this.in = in;
+        this.pool = pool;
+        this.maxPending = Math.max(2, 2 * pool.getParallelism());
+        nextMember(true);
+    }
+
+    /*
+     * Reads the header of the next member and either submits the member
+     * for decompression, or hands the rest of the input to a sequential
+     * decoder if its length is not recorded. Returns false at the end of
+     * the input, which after the first member includes trailing garbage.
+     */
+    private boolean nextMember(boolean first) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream(32);
+        byte[] h = new byte[HEADER_SIZE];
+        int n = readFully(h, 0, HEADER_SIZE);
+        if (n == 0 && !first) {
+            return false;
+        }
+        if (n < HEADER_SIZE) {
+            if (first)
+                throw new EOFException();
+            return false;
+        }
+        header.write(h, 0, HEADER_SIZE);
+        if ((h[0] & 0xff | (h[1] & 0xff) << 8) != GZIP_MAGIC) {
+            if (first)
+                throw new ZipException("Not in GZIP format");
+            return false;
+        }
+        if (h[2] != Deflater.DEFLATED) {
+            if (first)
+                throw new ZipException("Unsupported compression method");
+            return false;
+        }
+        int flg = h[3] & 0xff;
+        long length = -1;
+        if ((flg & FEXTRA) == FEXTRA) {
+            byte[] x = new byte[2];
+            readHeader(x, header);
+            byte[] extra = new byte[(x[0] & 0xff) | (x[1] & 0xff) << 8];
+            readHeader(extra, header);
+            length = memberLength(extra);
+        }
+        if ((flg & FNAME) == FNAME) {
+            skipString(header);
+        }
+        if ((flg & FCOMMENT) == FCOMMENT) {
+            skipString(header);
+        }
+        if ((flg & FHCRC) == FHCRC) {
+            CRC32 crc = new CRC32();
+            crc.update(header.toByteArray());
+            byte[] v = new byte[2];
+            readHeader(v, null);
+            if (((v[0] & 0xff) | (v[1] & 0xff) << 8) != ((int)crc.getValue() & 0xffff))
+                throw new ZipException("Corrupt GZIP header");
+            header.write(v, 0, 2);
+        }
+
+        if (length < 0) {
+            rest = new GZIPInputStream(new SequenceInputStream(
+                new ByteArrayInputStream(header.toByteArray()), in));
+            eos = true;
+            return true;
+        }
+        long size = length - header.size();
+        if (size < TRAILER_SIZE || size > Integer.MAX_VALUE) {
+            throw new ZipException("invalid GZIP member length");
+        }
+        byte[] data = new byte[(int)size];
+        if (readFully(data, 0, data.length) < data.length) {
+            throw new EOFException("Unexpected end of GZIP member");
+        }
+        pending.add(pool.submit(new Member(data)));
+        return true;
+    }
+
+    /*
+     * Returns the member length recorded in an extra field, or -1.
+     */
+    private static long memberLength(byte[] extra) {
+        int off = 0;
+        while (off + 4 <= extra.length) {
+            int si1 = extra[off] & 0xff;
+            int si2 = extra[off + 1] & 0xff;
+            int len = (extra[off + 2] & 0xff) | (extra[off + 3] & 0xff) << 8;
+            off += 4;
+            if (off + len > extra.length)
+                break;
+            if (si1 == INDEX_SI1 && si2 == INDEX_SI2 && len == 4) {
+                return (extra[off] & 0xff | (extra[off + 1] & 0xff) << 8 |
+                        (extra[off + 2] & 0xff) << 16) |
+                       (long)(extra[off + 3] & 0xff) << 24;
+            }
+            if (si1 == 'B' && si2 == 'C' && len == 2) {
+                return ((extra[off] & 0xff) | (extra[off + 1] & 0xff) << 8) + 1;
+            }
+            off += len;
+        }
+        return -1;
+    }
+
+    private void readHeader(byte[] b, ByteArrayOutputStream header)
+        throws IOException
+    {
+        if (readFully(b, 0, b.length) < b.length) {
+            throw new EOFException();
+        }
+        if (header != null) {
+            header.write(b, 0, b.length);
+        }
+    }
+
+    private void skipString(ByteArrayOutputStream header) throws IOException {
+        int c;
+        do {
+            if ((c = in.read()) < 0) {
+                throw new EOFException();
+            }
+            header.write(c);
+        } while (c != 0);
+    }
+
+    private int readFully(byte[] b, int off, int len) throws IOException {
+        int n = 0;
+        while (n < len) {
+            int count = in.read(b, off + n, len - n);
+            if (count < 0)
+                break;
+            n += count;
+        }
+        return n;
+    }
+
+    /*
+     * Decompresses one member and checks its trailer.
+     */
+    private static final class Member implements Callable<Member> {
+        final byte[] data;
+        byte[] output;
+        int outputLen;
+        ZipException error;
+
+        Member(byte[] data) {
+            this.data = data;
+        }
+
+        public Member call() {
+            int end = data.length - TRAILER_SIZE;
+            long crc = get32(data, end);
+            long isize = get32(data, end + 4);
+            // the recorded size is modulo 2^32, so only a hint
+            byte[] b = new byte[(int)Math.min(Math.max(isize, 64), 1 << 26)];
+            int n = 0;
+            Inflater inf = ZStreamPool.getInflater(true);
+            try {
+                // the trailer doubles as the extra byte that nowrap needs
+                inf.setInput(data, 0, data.length);
+                while (!inf.finished()) {
+                    if (n == b.length) {
+                        b = Arrays.copyOf(b, b.length * 2);
+                    }
+                    int k = inf.inflate(b, n, b.length - n);
+                    if (k == 0 && !inf.finished()) {
+                        if (inf.needsDictionary())
+                            throw new ZipException("Unexpected preset dictionary");
+                        if (inf.needsInput())
+                            throw new ZipException("Unexpected end of ZLIB input stream");
+                    }
+                    n += k;
+                }
+                if (inf.getRemaining() != TRAILER_SIZE)
+                    throw new ZipException("invalid GZIP member length");
+            } catch (DataFormatException e) {
+                String s = e.getMessage();
+                error = new ZipException(s != null ? s : "Invalid ZLIB data format");
+                return this;
+            } catch (ZipException e) {
+                error = e;
+                return this;
+            } finally {
+                ZStreamPool.releaseInflater(inf);
+            }
+            CRC32 c = new CRC32();
+            c.update(b, 0, n);
+            if (c.getValue() != crc || (n & 0xffffffffL) != isize) {
+                error = new ZipException("Corrupt GZIP trailer");
+                return this;
+            }
+            output = b;
+            outputLen = n;
+            return this;
+        }
+
+        private static long get32(byte[] b, int off) {
+            return (b[off] & 0xff | (b[off + 1] & 0xff) << 8 |
+                    (b[off + 2] & 0xff) << 16 | (long)(b[off + 3] & 0xff) << 24);
+        }
+    }
+
+    /*
+     * Makes the data of the next member current, reading ahead as many
+     * members as may be in flight. Returns false at the end of the data.
+     */
+    private boolean fill() throws IOException {
+        while (!eos && pending.size() < maxPending) {
+            if (!nextMember(false)) {
+                eos = true;
+            }
+        }
+        ForkJoinTask<Member> task = pending.poll();
+        if (task != null) {
+            Member m = task.join();
+            if (m.error != null) {
+                throw m.error;
+            }
+            buf = m.output;
+            pos = 0;
+            lim = m.outputLen;
+            return true;
+        }
+        if (rest != null) {
+            if (buf == null || buf.length < 8192) {
+                buf = new byte[8192];
+            }
+            int n = rest.read(buf, 0, buf.length);
+            if (n < 0) {
+                return false;
+            }
+            pos = 0;
+            lim = n;
+            return true;
+        }
+        return false;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * Reads a byte of uncompressed data.
+     *
+     * @return the byte read, or -1 if the end of the compressed input
+     *         is reached
+     * @exception ZipException if the compressed input data is corrupt.
+     * @exception IOException if an I/O error has occurred.
+     */
+    public int read() throws IOException {
+        ensureOpen();
+        while (pos == lim) {
+            if (!fill()) {
+                return -1;
+            }
+        }
+        return buf[pos++] & 0xff;
+    }
+
+    /**
+     * Reads uncompressed data into an array of bytes. If <code>len</code> is
+     * not zero, the method will block until some data is available;
+     * otherwise, no bytes are read and <code>0</code> is returned.
+     *
+     * @param b the buffer into which the data is read
+     * @param off the start offset in the destination array <code>b</code>
+     * @param len the maximum number of bytes read
+     * @return  the actual number of bytes read, or -1 if the end of the
+     *          compressed input stream is reached
+     *
+     * @exception  NullPointerException If <code>b</code> is <code>null</code>.
+     * @exception  IndexOutOfBoundsException If <code>off</code> is negative,
+     * <code>len</code> is negative, or <code>len</code> is greater than
+     * <code>b.length - off</code>
+     * @exception ZipException if the compressed input data is corrupt.
+     * @exception IOException if an I/O error has occurred.
+     */
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        } else if (len == 0) {
+            return 0;
+        }
+        while (pos == lim) {
+            if (!fill()) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, lim - pos);
+        System.arraycopy(buf, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    /**
+     * Returns the number of bytes of uncompressed data that can be read
+     * without blocking.
+     *
+     * @return the number of bytes that can be read without blocking
+     * @exception IOException if an I/O error has occurred.
+     */
+    public int available() throws IOException {
+        ensureOpen();
+        if (pos == lim && rest != null && pending.isEmpty()) {
+            return rest.available();
+        }
+        return lim - pos;
+    }
+
+    /**
+     * Closes this input stream and the underlying input stream.
+     *
+     * @exception IOException if an I/O error has occurred.
+     */
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            pending.clear();
+            buf = null;
+            pos = lim = 0;
+            if (rest != null) {
+                rest.close();
+            } else {
+                in.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,441 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * This class implements a stream filter for writing compressed data in
+ * the GZIP file format, compressing blocks of the data in parallel.
+ *
+ * <p>The data written is collected into blocks of a fixed size, and each
+ * block is deflated by a task in a {@link ForkJoinPool} while the next one
+ * is being filled. The compressed blocks are written to the underlying
+ * stream in order, by the thread writing to this stream. At most twice as
+ * many blocks as the pool has parallelism are in flight at any time.
+ *
+ * <p>By default the output is a single standard GZIP member, readable by
+ * {@link GZIPInputStream} and any other GZIP decoder. Each block is
+ * deflated with the last 32K of the previous block as preset dictionary
+ * and ends on a byte boundary with a {@link Deflater#SYNC_FLUSH sync flush},
+ * so that the compressed blocks can simply be concatenated; the CRC-32 of
+ * the whole data is combined from the CRC-32 of each block. The cost of
+ * compressing in parallel is a few bytes per block and, for small blocks, a
+ * slightly lower compression ratio.
+ *
+ * <p>In <i>indexed</i> mode, each block is instead written as a separate
+ * GZIP member that records its own length in an extra field of its header
+ * (subfield ID {@code 'J','Z'}, four bytes holding the little-endian
+ * length of the member). The result is a valid multi-member GZIP file
+ * that {@link ParallelGZIPInputStream} can locate the members of without
+ * decompressing, and so decompress in parallel as well.
+ *
+ * <p>This class is not thread-safe; only the compression itself is
+ * performed by other threads.
+ *
+ * @see GZIPOutputStream
+ * @see ParallelGZIPInputStream
+ * @since 1.8
+ */
+public
+class ParallelGZIPOutputStream extends FilterOutputStream {
+
+    /*
+     * GZIP header magic number.
+     */
+    static final int GZIP_MAGIC = 0x8b1f;
+
+    /*
+     * GZIP header flag for an extra field.
+     */
+    static final int FEXTRA = 4;
+
+    /*
+     * Extra field subfield ID of the member length, written in indexed mode.
+     */
+    static final int INDEX_SI1 = 'J';
+    static final int INDEX_SI2 = 'Z';
+
+    /*
+     * Header size in bytes, without and with the member length subfield.
+     */
+    static final int HEADER_SIZE = 10;
+    static final int INDEXED_HEADER_SIZE = HEADER_SIZE + 2 + 4 + 4;
+
+    /*
+     * Trailer size in bytes.
+     */
+    static final int TRAILER_SIZE = 8;
+
+    /**
+     * The default block size, 128K.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    /*
+     * The largest dictionary deflate can make use of.
+     */
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int level;
+    private final int blockSize;
+    private final boolean indexed;
+    private final int maxPending;
+    private final ArrayDeque<ForkJoinTask<Block>> pending = new ArrayDeque<>();
+
+    private byte[] buf;          // block being filled
+    private int count;           // number of bytes in buf
+    private byte[] prev;         // previous block, for the dictionary
+    private int prevCount;
+    private boolean written;     // a member has been written, if indexed
+    private long crc;            // CRC-32 of the blocks written
+    private long total;          // number of bytes in the blocks written
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * Creates a new output stream with the default compression level and
+     * block size, compressing on the {@linkplain ForkJoinPool#commonPool()
+     * common pool}.
+     *
+     * @param out the output stream
+     * @exception IOException If an I/O error has occurred.
+     */
+    public ParallelGZIPOutputStream(OutputStream out) throws IOException {
+        this(out, Deflater.DEFAULT_COMPRESSION, DEFAULT_BLOCK_SIZE,
+             ForkJoinPool.commonPool(), false);
+    }
+
+    /**
+     * Creates a new output stream.
+     *
+     * @param out the output stream
+     * @param level the compression level (0-9), or
+     *        {@link Deflater#DEFAULT_COMPRESSION}
+     * @param blockSize the number of bytes of input compressed by each task
+     * @param pool the pool in which blocks are compressed
+     * @param indexed if {@code true} each block is written as a separate
+     *        GZIP member that records its own length
+     * @exception IOException If an I/O error has occurred.
+     * @exception IllegalArgumentException if the compression level is
+     *            invalid or {@code blockSize <= 0}
+     */
+    public ParallelGZIPOutputStream(OutputStream out, int level, int blockSize,
+                                    ForkJoinPool pool, boolean indexed)
+        throws IOException
+    {
+        super(out);
+        if (level < Deflater.DEFAULT_COMPRESSION ||
+            level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level");
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize <= 0");
+        }
+        if (pool == null) {
+            throw new NullPointerException();
+        }
+        this.level = level;
+        this.blockSize = blockSize;
+        this.pool = pool;
+        this.indexed = indexed;
+        this.maxPending = Math.max(2, 2 * pool.getParallelism());
+        this.buf = new byte[blockSize];
+        if (!indexed) {
+            out.write(header(false, 0), 0, HEADER_SIZE);
+        }
+    }
+
+    /*
+     * Returns a GZIP member header, with the member length subfield if
+     * indexed.
+     */
+    static byte[] header(boolean indexed, int length) {
+        byte[] h = new byte[indexed ? INDEXED_HEADER_SIZE : HEADER_SIZE];
+        h[0] = (byte) GZIP_MAGIC;           // Magic number (short)
+        h[1] = (byte)(GZIP_MAGIC >> 8);     // Magic number (short)
+        h[2] = Deflater.DEFLATED;           // Compression method (CM)
+        // MTIME, XFL and OS are left zero, as by GZIPOutputStream
+        if (indexed) {
+            h[3] = FEXTRA;                  // Flags (FLG)
+            writeShort(8, h, 10);           // Extra field length (XLEN)
+            h[12] = (byte) INDEX_SI1;       // Subfield ID
+            h[13] = (byte) INDEX_SI2;
+            writeShort(4, h, 14);           // Subfield length
+            writeInt(length, h, 16);        // Member length
+        }
+        return h;
+    }
+
+    /**
+     * Writes a byte to the compressed output stream.
+     *
+     * @param b the byte to be written
+     * @exception IOException If an I/O error has occurred.
+     */
+    public void write(int b) throws IOException {
+        ensureOpen();
+        buf[count++] = (byte)b;
+        if (count == blockSize) {
+            submit(false);
+        }
+    }
+
+    /**
+     * Writes an array of bytes to the compressed output stream. This method
+     * blocks only when the maximum number of blocks are in flight, until
+     * the oldest of them has been compressed and written.
+     *
+     * @param b the data to be written
+     * @param off the start offset of the data
+     * @param len the length of the data
+     * @exception IOException If an I/O error has occurred.
+     */
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if ((off | len | (off + len) | (b.length - (off + len))) < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, buf, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == blockSize) {
+                submit(false);
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (finished) {
+            throw new IOException("write beyond end of stream");
+        }
+    }
+
+    /*
+     * Hands the current block to the pool and starts a new one, writing
+     * out completed blocks while too many are in flight.
+     */
+    private void submit(boolean last) throws IOException {
+        Block block;
+        if (indexed || prev == null) {
+            block = new Block(buf, count, null, 0, 0, last);
+        } else {
+            int dictLen = Math.min(prevCount, DICTIONARY_SIZE);
+            block = new Block(buf, count, prev, prevCount - dictLen, dictLen, last);
+        }
+        pending.add(pool.submit(block));
+        prev = buf;
+        prevCount = count;
+        buf = new byte[blockSize];
+        count = 0;
+        while (pending.size() > maxPending) {
+            writeBlock(pending.poll().join());
+        }
+    }
+
+    private void writeBlock(Block block) throws IOException {
+        out.write(block.output, 0, block.outputLen);
+        if (!indexed) {
+            crc = CRC32.combine(crc, block.crc, block.len);
+            total += block.len;
+        }
+        written = true;
+    }
+
+    private void drain() throws IOException {
+        ForkJoinTask<Block> task;
+        while ((task = pending.poll()) != null) {
+            writeBlock(task.join());
+        }
+    }
+
+    /**
+     * Flushes the compressed output stream. The data written so far is
+     * compressed and written out, ending on a byte boundary, before the
+     * underlying stream is flushed.
+     *
+     * @exception IOException If an I/O error has occurred.
+     */
+    public void flush() throws IOException {
+        if (!closed && !finished) {
+            if (count > 0) {
+                submit(false);
+            }
+            drain();
+        }
+        out.flush();
+    }
+
+    /**
+     * Finishes writing compressed data to the output stream without closing
+     * the underlying stream, waiting for all blocks to be compressed.
+     *
+     * @exception IOException If an I/O error has occurred.
+     */
+    public void finish() throws IOException {
+        if (!closed && !finished) {
+            finished = true;
+            if (!indexed || count > 0 || !written && pending.isEmpty()) {
+                submit(true);
+            }
+            drain();
+            if (!indexed) {
+                byte[] trailer = new byte[TRAILER_SIZE];
+                writeInt((int)crc, trailer, 0);     // CRC-32 of uncompr. data
+                writeInt((int)total, trailer, 4);   // Number of uncompr. bytes
+                out.write(trailer);
+            }
+            prev = buf = null;
+        }
+    }
+
+    /**
+     * Writes remaining compressed data to the output stream and closes the
+     * underlying stream.
+     *
+     * @exception IOException If an I/O error has occurred.
+     */
+    public void close() throws IOException {
+        if (!closed) {
+            try {
+                finish();
+            } finally {
+                closed = true;
+                pending.clear();
+            }
+            out.close();
+        }
+    }
+
+    /*
+     * Compresses one block. In indexed mode the result is a complete GZIP
+     * member; otherwise it is a run of deflate blocks ending on a byte
+     * boundary, or the end of the deflate stream for the last block.
+     */
+    private final class Block implements Callable<Block> {
+        final byte[] input;
+        final int len;
+        final byte[] dict;
+        final int dictOff;
+        final int dictLen;
+        final boolean last;
+        long crc;
+        byte[] output;
+        int outputLen;
+
+        Block(byte[] input, int len, byte[] dict, int dictOff, int dictLen,
+              boolean last) {
+            this.input = input;
+            this.len = len;
+            this.dict = dict;
+            this.dictOff = dictOff;
+            this.dictLen = dictLen;
+            this.last = last;
+        }
+
+        public Block call() {
+            CRC32 c = new CRC32();
+            c.update(input, 0, len);
+            crc = c.getValue();
+
+            int start = indexed ? INDEXED_HEADER_SIZE : 0;
+            byte[] b = new byte[start + len + (len >> 4) + 64];
+            int n = start;
+            Deflater def = ZStreamPool.getDeflater(level, true);
+            try {
+                if (dict != null) {
+                    def.setDictionary(dict, dictOff, dictLen);
+                }
+                def.setInput(input, 0, len);
+                if (indexed || last) {
+                    def.finish();
+                    while (!def.finished()) {
+                        if (n == b.length) {
+                            b = Arrays.copyOf(b, b.length * 2);
+                        }
+                        n += def.deflate(b, n, b.length - n);
+                    }
+                } else {
+                    // a sync flush that fills the buffer may have more to do
+                    while (true) {
+                        n += def.deflate(b, n, b.length - n, Deflater.SYNC_FLUSH);
+                        if (n < b.length) {
+                            break;
+                        }
+                        b = Arrays.copyOf(b, b.length * 2);
+                    }
+                }
+            } finally {
+                ZStreamPool.releaseDeflater(def);
+            }
+
+            if (indexed) {
+                if (b.length - n < TRAILER_SIZE) {
+                    b = Arrays.copyOf(b, n + TRAILER_SIZE);
+                }
+                writeInt((int)crc, b, n);
+                writeInt(len, b, n + 4);
+                n += TRAILER_SIZE;
+                System.arraycopy(header(true, n), 0, b, 0, INDEXED_HEADER_SIZE);
+            }
+            output = b;
+            outputLen = n;
+            return this;
+        }
+    }
+
+    /*
+     * Writes integer in Intel byte order to a byte array, starting at a
+     * given offset.
+     */
+    static void writeInt(int i, byte[] buf, int offset) {
+        writeShort(i & 0xffff, buf, offset);
+        writeShort((i >> 16) & 0xffff, buf, offset + 2);
+    }
+
+    /*
+     * Writes short integer in Intel byte order to a byte array, starting
+     * at a given offset
+     */
+    static void writeShort(int s, byte[] buf, int offset) {
+        buf[offset] = (byte)(s & 0xff);
+        buf[offset + 1] = (byte)((s >> 8) & 0xff);
+    }
+}
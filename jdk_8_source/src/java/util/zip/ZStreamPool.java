@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A shared, bounded pool of {@link Inflater} and {@link Deflater} objects.
+ *
+ * <p>Each inflater and deflater owns a native zlib stream, which is only
+ * freed by {@code end()} or, failing that, by finalization. The stream
+ * classes of this package that create their own inflater or deflater,
+ * such as {@link GZIPInputStream}, {@link GZIPOutputStream},
+ * {@link ZipInputStream} and {@link ZipFile}, borrow it from this pool and
+ * return it when they are closed; a returned object is reset and kept for
+ * the next borrower, or ended immediately if the pool is full. Only the
+ * methods that size and observe the pool are public, so that no object
+ * outside this package can be handed to two borrowers.
+ *
+ * <p>Inflaters are pooled by their {@code nowrap} setting, deflaters by
+ * {@code nowrap} and compression level. At most
+ * {@link #getMaxIdle getMaxIdle()} idle objects are kept of each kind;
+ * the bound is set by the system property
+ * {@code jdk.util.zip.streamPoolSize} and defaults to twice the number of
+ * available processors. A bound of zero disables pooling, so that returned
+ * objects are always ended.
+ *
+ * <p>An object must not be used after it has been returned. Each object
+ * records whether it is borrowed or returned, and returning it twice
+ * throws an {@code IllegalStateException}. All methods of this class are
+ * thread-safe.
+ *
+ * @since 1.8
+ */
+public final class ZStreamPool {
+
+    private ZStreamPool() {}
+
+    private static final int maxIdle;
+
+    static {
+        int n = 2 * Runtime.getRuntime().availableProcessors();
+        String prop = sun.misc.VM.getSavedProperty("jdk.util.zip.streamPoolSize");
+        if (prop != null) {
+            try {
+                n = Math.max(0, Integer.parseInt(prop));
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        maxIdle = n;
+    }
+
+    /*
+     * A bounded LIFO stack, so that the most recently used and most likely
+     * cached objects are handed out first.
+     */
+    private static final class Stack {
+        private final Object[] items = new Object[maxIdle];
+        private int size;
+
+        synchronized Object pop() {
+            if (size == 0)
+                return null;
+            Object o = items[--size];
+            items[size] = null;
+            return o;
+        }
+
+        synchronized boolean push(Object o) {
+            if (size == items.length)
+                return false;
+            items[size++] = o;
+            return true;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+    }
+
+    // indexed by nowrap
+    private static final Stack[] inflaters = { new Stack(), new Stack() };
+
+    // indexed by 2 * (level + 1) + nowrap, for levels -1 to 9
+    private static final Stack[] deflaters = new Stack[22];
+
+    static {
+        for (int i = 0; i < deflaters.length; i++)
+            deflaters[i] = new Stack();
+    }
+
+    private static final LongAdder created = new LongAdder();
+    private static final LongAdder reused = new LongAdder();
+    private static final LongAdder recycled = new LongAdder();
+    private static final LongAdder ended = new LongAdder();
+
+    private static final byte[] emptyBuf = new byte[0];
+
+    // pool states of an inflater or deflater; 0 if it is not from the pool
+    static final int BORROWED = 1;
+    static final int RETURNED = 2;
+
+    /**
+     * Borrows an inflater from the pool, or creates one if none is idle.
+     *
+     * @param nowrap if true then support GZIP compatible compression
+     * @return an inflater as if newly created by {@code new Inflater(nowrap)}
+     */
+    static Inflater getInflater(boolean nowrap) {
+        Inflater inf = (Inflater)inflaters[nowrap ? 1 : 0].pop();
+        if (inf != null) {
+            reused.increment();
+            inf.setPoolState(RETURNED, BORROWED);
+        } else {
+            created.increment();
+            inf = new Inflater(nowrap);
+            inf.setPoolState(0, BORROWED);
+        }
+        return inf;
+    }
+
+    /**
+     * Returns an inflater to the pool. The inflater is reset, or ended if
+     * the pool is full. Inflaters that have already been ended are ignored,
+     * and those not borrowed from the pool are ended.
+     *
+     * @param inf the inflater
+     * @throws IllegalStateException if the inflater has already been
+     *         returned
+     */
+    static void releaseInflater(Inflater inf) {
+        boolean borrowed = inf.setPoolState(BORROWED, RETURNED);
+        if (!borrowed && !inf.setPoolState(0, 0))
+            throw new IllegalStateException("Inflater already returned");
+        if (inf.ended())
+            return;
+        if (borrowed && maxIdle > 0) {
+            inf.reset();
+            if (inflaters[inf.nowrap() ? 1 : 0].push(inf)) {
+                recycled.increment();
+                return;
+            }
+        }
+        inf.end();
+        ended.increment();
+    }
+
+    /**
+     * Borrows a deflater from the pool, or creates one if none is idle.
+     *
+     * @param level the compression level (0-9), or
+     *        {@link Deflater#DEFAULT_COMPRESSION}
+     * @param nowrap if true then use GZIP compatible compression
+     * @return a deflater as if newly created by
+     *         {@code new Deflater(level, nowrap)}
+     * @throws IllegalArgumentException if the compression level is invalid
+     */
+    static Deflater getDeflater(int level, boolean nowrap) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION)
+            throw new IllegalArgumentException("invalid compression level");
+        Deflater def = (Deflater)deflaters[deflaterIndex(level, nowrap)].pop();
+        if (def != null) {
+            reused.increment();
+            def.setPoolState(RETURNED, BORROWED);
+        } else {
+            created.increment();
+            def = new Deflater(level, nowrap);
+            def.setPoolState(0, BORROWED);
+        }
+        return def;
+    }
+
+    /**
+     * Returns a deflater to the pool. The deflater is reset, its strategy
+     * restored to the default, and it is kept for borrowers of its current
+     * compression level; it is ended instead if the pool is full. Deflaters
+     * that have already been ended are ignored, and those not borrowed from
+     * the pool are ended.
+     *
+     * @param def the deflater
+     * @throws IllegalStateException if the deflater has already been
+     *         returned
+     */
+    static void releaseDeflater(Deflater def) {
+        boolean borrowed = def.setPoolState(BORROWED, RETURNED);
+        if (!borrowed && !def.setPoolState(0, 0))
+            throw new IllegalStateException("Deflater already returned");
+        if (def.ended())
+            return;
+        if (borrowed && maxIdle > 0) {
+            def.reset();
+            def.setInput(emptyBuf);
+            def.setStrategy(Deflater.DEFAULT_STRATEGY);
+            if (deflaters[deflaterIndex(def.level(), def.nowrap())].push(def)) {
+                recycled.increment();
+                return;
+            }
+        }
+        def.end();
+        ended.increment();
+    }
+
+    private static int deflaterIndex(int level, boolean nowrap) {
+        return 2 * (level + 1) + (nowrap ? 1 : 0);
+    }
+
+    /**
+     * Ends all idle inflaters and deflaters, freeing their native memory.
+     * The pool remains usable.
+     */
+    public static void clear() {
+        for (Stack s : inflaters)
+            clear(s);
+        for (Stack s : deflaters)
+            clear(s);
+    }
+
+    private static void clear(Stack s) {
+        Object o;
+        while ((o = s.pop()) != null) {
+            if (o instanceof Inflater)
+                ((Inflater)o).end();
+            else
+                ((Deflater)o).end();
+            ended.increment();
+        }
+    }
+
+    /**
+     * Returns the maximum number of idle objects kept of each kind.
+     *
+     * @return the maximum number of idle objects kept of each kind
+     */
+    public static int getMaxIdle() {
+        return maxIdle;
+    }
+
+    /**
+     * Returns the number of inflaters and deflaters currently idle in the
+     * pool, each of which holds native memory.
+     *
+     * @return the number of idle objects
+     */
+    public static int getIdleCount() {
+        int n = 0;
+        for (Stack s : inflaters)
+            n += s.size();
+        for (Stack s : deflaters)
+            n += s.size();
+        return n;
+    }
+
+    /**
+     * Returns the number of inflaters and deflaters created because none
+     * was idle when borrowed.
+     *
+     * @return the number of objects created by the pool
+     */
+    public static long getCreatedCount() {
+        return created.sum();
+    }
+
+    /**
+     * Returns the number of borrows served by an idle object.
+     *
+     * @return the number of objects reused
+     */
+    public static long getReusedCount() {
+        return reused.sum();
+    }
+
+    /**
+     * Returns the number of returned objects kept for reuse.
+     *
+     * @return the number of objects recycled
+     */
+    public static long getRecycledCount() {
+        return recycled.sum();
+    }
+
+    /**
+     * Returns the number of objects ended by the pool, either because they
+     * were returned while it was full or because it was cleared.
+     *
+     * @return the number of objects ended
+     */
+    public static long getEndedCount() {
+        return ended.sum();
+    }
+}
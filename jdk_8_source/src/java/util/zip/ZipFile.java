@@ -30,10 +30,11 @@ import java.io.InputStream;
 import java.io.IOException;
 import java.io.EOFException;
 import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -42,6 +43,7 @@ import java.util.NoSuchElementException;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.WeakHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -59,6 +61,8 @@ import static java.util.zip.ZipConstants64.*;
 public
 class ZipFile implements ZipConstants, Closeable {
     private long jzfile;  // address of jzfile data
+    private final ZipIndex index;  // central directory index, if mapped
+                                   // or read from a channel
     private final String name;     // zip file name
     private final int total;       // total number of entries
     private final boolean locsig;  // if zip file starts with LOCSIG (usually true)
@@ -81,6 +85,26 @@ class ZipFile implements ZipConstants, Closeable {
      */
     public static final int OPEN_DELETE = 0x4;
 
+    /**
+     * Mode flag to open a zip file with a memory-mapped index over its
+     * central directory instead of the native zip library.
+     *
+     * <p>The central directory is mapped once and indexed by the raw bytes
+     * of the entry names, so that {@link #getEntry getEntry} does not decode
+     * names of entries it is not looking for and {@link #stream stream}
+     * can be split for parallel traversal. Entries stored without
+     * compression can be accessed in place with {@link #getByteBuffer
+     * getByteBuffer}. Mapped mode may also be enabled for all zip files by
+     * setting the system property {@code jdk.util.zip.mappedIndex} to
+     * {@code true}.
+     *
+     * <p>As with the native implementation, the zip file must not be
+     * modified while it is open in this mode.
+     *
+     * @since 1.8
+     */
+    public static final int OPEN_MAPPED = 0x8;
+
     static {
         /* Zip library is loaded from System.initializeSystemClass */
         initIDs();
@@ -92,6 +116,8 @@ class ZipFile implements ZipConstants, Closeable {
 
     private static final boolean ensuretrailingslash;
 
+    private static final boolean mappedindex;
+
     static {
         // A system prpperty to disable mmap use to avoid vm crash when
         // in-use zip file is accidently overwritten by others.
@@ -102,6 +128,10 @@ class ZipFile implements ZipConstants, Closeable {
         // see getEntry() for details
         prop = sun.misc.VM.getSavedProperty("jdk.util.zip.ensureTrailingSlash");
         ensuretrailingslash = prop == null || !prop.equalsIgnoreCase("false");
+
+        // see OPEN_MAPPED
+        prop = sun.misc.VM.getSavedProperty("jdk.util.zip.mappedIndex");
+        mappedindex = prop != null && prop.equalsIgnoreCase("true");
     }
 
     /**
@@ -129,7 +159,8 @@ class ZipFile implements ZipConstants, Closeable {
     /**
      * Opens a new <code>ZipFile</code> to read from the specified
      * <code>File</code> object in the specified mode.  The mode argument
-     * must be either <tt>OPEN_READ</tt> or <tt>OPEN_READ | OPEN_DELETE</tt>.
+     * must be <tt>OPEN_READ</tt>, optionally combined with
+     * <tt>OPEN_DELETE</tt> and <tt>OPEN_MAPPED</tt>.
      *
      * <p>First, if there is a security manager, its <code>checkRead</code>
      * method is called with the <code>name</code> argument as its argument to
@@ -170,11 +201,13 @@ class ZipFile implements ZipConstants, Closeable {
     }
 
     private ZipCoder zc;
+    private final Charset charset;
 
     /**
      * Opens a new <code>ZipFile</code> to read from the specified
      * <code>File</code> object in the specified mode.  The mode argument
-     * must be either <tt>OPEN_READ</tt> or <tt>OPEN_READ | OPEN_DELETE</tt>.
+     * must be <tt>OPEN_READ</tt>, optionally combined with
+     * <tt>OPEN_DELETE</tt> and <tt>OPEN_MAPPED</tt>.
      *
      * <p>First, if there is a security manager, its <code>checkRead</code>
      * method is called with the <code>name</code> argument as its argument to
@@ -206,7 +239,7 @@ class ZipFile implements ZipConstants, Closeable {
     public ZipFile(File file, int mode, Charset charset) throws IOException
     {
         if (((mode & OPEN_READ) == 0) ||
-            ((mode & ~(OPEN_READ | OPEN_DELETE)) != 0)) {
+            ((mode & ~(OPEN_READ | OPEN_DELETE | OPEN_MAPPED)) != 0)) {
             throw new IllegalArgumentException("Illegal mode: 0x"+
                                                Integer.toHexString(mode));
         }
@@ -221,13 +254,22 @@ class ZipFile implements ZipConstants, Closeable {
         if (charset == null)
             throw new NullPointerException("charset is null");
         this.zc = ZipCoder.get(charset);
+        this.charset = charset;
         long t0 = System.nanoTime();
-        jzfile = open(name, mode, file.lastModified(), usemmap);
+        if (mappedindex || (mode & OPEN_MAPPED) != 0) {
+            index = new ZipIndex(file, (mode & OPEN_DELETE) != 0, usemmap);
+            this.total = index.size();
+            this.locsig = index.startsWithLOC();
+        } else {
+            index = null;
+            jzfile = open(name, mode & ~OPEN_MAPPED, file.lastModified(),
+                          usemmap);
+            this.total = getTotal(jzfile);
+            this.locsig = startsWithLOC(jzfile);
+        }
         sun.misc.PerfCounter.getZipFileOpenTime().addElapsedTimeFrom(t0);
         sun.misc.PerfCounter.getZipFileCount().increment();
         this.name = name;
-        this.total = getTotal(jzfile);
-        this.locsig = startsWithLOC(jzfile);
     }
 
     /**
@@ -279,6 +321,75 @@ class ZipFile implements ZipConstants, Closeable {
         this(file, OPEN_READ, charset);
     }
 
+    /**
+     * Opens a zip file for reading from the specified channel.
+     *
+     * <p>The zip file is read from position 0 of the channel up to its
+     * {@linkplain SeekableByteChannel#size() size}. As with
+     * {@link #OPEN_MAPPED} the central directory is read from the end of
+     * the channel and indexed once; entries are then read at their
+     * positions, without the channel contents being copied to a
+     * file. This allows random access to zip content held in memory or
+     * received over the network, for instance. If the channel is a
+     * {@link FileChannel} it is memory-mapped as in mapped mode; reads from
+     * any other channel are serialized, since they need to position it.
+     *
+     * <p>The channel is closed when this zip file is closed, or if the
+     * channel does not hold a valid zip file. It must not be used by other
+     * code, nor its contents modified, while this zip file is open.
+     *
+     * @param ch the channel to read the zip file from
+     * @param name the name of the zip file, returned by {@link #getName}
+     * @param charset
+     *        the {@linkplain java.nio.charset.Charset charset} to
+     *        be used to decode the ZIP entry name and comment that are not
+     *        encoded by using UTF-8 encoding (indicated by entry's general
+     *        purpose flag).
+     *
+     * @throws ZipException if a ZIP format error has occurred
+     * @throws IOException if an I/O error has occurred
+     *
+     * @since 1.8
+     */
+    public ZipFile(SeekableByteChannel ch, String name, Charset charset)
+        throws IOException
+    {
+        if (ch == null)
+            throw new NullPointerException("channel is null");
+        if (name == null)
+            throw new NullPointerException("name is null");
+        if (charset == null)
+            throw new NullPointerException("charset is null");
+        this.zc = ZipCoder.get(charset);
+        this.charset = charset;
+        long t0 = System.nanoTime();
+        index = new ZipIndex(ch, usemmap);
+        this.total = index.size();
+        this.locsig = index.startsWithLOC();
+        sun.misc.PerfCounter.getZipFileOpenTime().addElapsedTimeFrom(t0);
+        sun.misc.PerfCounter.getZipFileCount().increment();
+        this.name = name;
+    }
+
+    /**
+     * Opens a zip file for reading from the specified channel.
+     *
+     * <p>The UTF-8 {@link java.nio.charset.Charset charset} is used to
+     * decode the entry names and comments.
+     *
+     * @param ch the channel to read the zip file from
+     * @param name the name of the zip file, returned by {@link #getName}
+     *
+     * @throws ZipException if a ZIP format error has occurred
+     * @throws IOException if an I/O error has occurred
+     *
+     * @see #ZipFile(SeekableByteChannel, String, Charset)
+     * @since 1.8
+     */
+    public ZipFile(SeekableByteChannel ch, String name) throws IOException {
+        this(ch, name, StandardCharsets.UTF_8);
+    }
+
     /**
      * Returns the zip file comment, or null if none.
      *
@@ -291,7 +402,8 @@ class ZipFile implements ZipConstants, Closeable {
     public String getComment() {
         synchronized (this) {
             ensureOpen();
-            byte[] bcomm = getCommentBytes(jzfile);
+            byte[] bcomm = index != null ? index.comment()
+                                         : getCommentBytes(jzfile);
             if (bcomm == null)
                 return null;
             return zc.toString(bcomm, bcomm.length);
@@ -313,6 +425,21 @@ class ZipFile implements ZipConstants, Closeable {
         long jzentry = 0;
         synchronized (this) {
             ensureOpen();
+            if (index != null) {
+                byte[] bname = zc.getBytes(name);
+                int i = index.find(bname, true);
+                if (i < 0) {
+                    return null;
+                }
+                // the name matched byte for byte, so there is no need to
+                // decode it again unless it is in a different charset
+                if (!ensuretrailingslash ||
+                    (index.nameLength(i) == bname.length &&
+                     (zc.isUTF8() || (index.flag(i) & EFS) == 0))) {
+                    return getZipEntry(name, i, zc);
+                }
+                return getZipEntry(null, i, zc);
+            }
             jzentry = getEntry(jzfile, zc.getBytes(name), true);
             if (jzentry != 0) {
                 // If no entry is found for the specified 'name' and
@@ -364,17 +491,30 @@ class ZipFile implements ZipConstants, Closeable {
         ZipFileInputStream in = null;
         synchronized (this) {
             ensureOpen();
+            byte[] bname;
             if (!zc.isUTF8() && (entry.flag & EFS) != 0) {
-                jzentry = getEntry(jzfile, zc.getBytesUTF8(entry.name), false);
+                bname = zc.getBytesUTF8(entry.name);
             } else {
-                jzentry = getEntry(jzfile, zc.getBytes(entry.name), false);
+                bname = zc.getBytes(entry.name);
             }
-            if (jzentry == 0) {
-                return null;
+            int method;
+            if (index != null) {
+                int i = index.find(bname, false);
+                if (i < 0) {
+                    return null;
+                }
+                in = new ZipFileInputStream(i);
+                method = index.method(i);
+            } else {
+                jzentry = getEntry(jzfile, bname, false);
+                if (jzentry == 0) {
+                    return null;
+                }
+                in = new ZipFileInputStream(jzentry);
+                method = getEntryMethod(jzentry);
             }
-            in = new ZipFileInputStream(jzentry);
 
-            switch (getEntryMethod(jzentry)) {
+            switch (method) {
             case STORED:
                 synchronized (streams) {
                     streams.put(in, null);
@@ -382,7 +522,7 @@ class ZipFile implements ZipConstants, Closeable {
                 return in;
             case DEFLATED:
                 // MORE: Compute good size for inflater stream:
-                long size = getEntrySize(jzentry) + 2; // Inflater likes a bit of slack
+                long size = in.size() + 2; // Inflater likes a bit of slack
                 if (size > 65536) size = 8192;
                 if (size <= 0) size = 4096;
                 Inflater inf = getInflater();
@@ -398,6 +538,46 @@ class ZipFile implements ZipConstants, Closeable {
         }
     }
 
+    /**
+     * Returns a read-only buffer over the contents of the specified zip file
+     * entry, if the entry is stored without compression and this zip file
+     * was opened with {@link #OPEN_MAPPED} or from a channel.
+     *
+     * <p>Where the zip file is mapped in its entirety the buffer is a slice
+     * of that mapping, and no data is copied. The buffer remains valid after
+     * this zip file is closed.
+     *
+     * @param entry the zip file entry
+     * @return a read-only buffer over the entry data, or null if the entry
+     *         was not found, is compressed, or this zip file was not opened
+     *         in mapped mode or from a channel
+     * @throws ZipException if a ZIP format error has occurred
+     * @throws IOException if an I/O error has occurred
+     * @throws IllegalStateException if the zip file has been closed
+     * @since 1.8
+     */
+    public ByteBuffer getByteBuffer(ZipEntry entry) throws IOException {
+        if (entry == null) {
+            throw new NullPointerException("entry");
+        }
+        int i;
+        synchronized (this) {
+            ensureOpen();
+            if (index == null) {
+                return null;
+            }
+            if (!zc.isUTF8() && (entry.flag & EFS) != 0) {
+                i = index.find(zc.getBytesUTF8(entry.name), false);
+            } else {
+                i = index.find(zc.getBytes(entry.name), false);
+            }
+        }
+        if (i < 0 || index.method(i) != STORED) {
+            return null;
+        }
+        return index.slice(index.dataPosition(i), index.csize(i));
+    }
+
     private class ZipFileInflaterInputStream extends InflaterInputStream {
         private volatile boolean closeRequested = false;
         private boolean eof = false;
@@ -454,36 +634,20 @@ class ZipFile implements ZipConstants, Closeable {
     }
 
     /*
-     * Gets an inflater from the list of available inflaters or allocates
-     * a new one.
+     * Gets an inflater from the shared pool, which also serves the streams
+     * of other zip files, so none is kept per zip file.
      */
     private Inflater getInflater() {
-        Inflater inf;
-        synchronized (inflaterCache) {
-            while (null != (inf = inflaterCache.poll())) {
-                if (false == inf.ended()) {
-                    return inf;
-                }
-            }
-        }
-        return new Inflater(true);
+        return ZStreamPool.getInflater(true);
     }
 
     /*
-     * Releases the specified inflater to the list of available inflaters.
+     * Returns the specified inflater to the shared pool.
      */
     private void releaseInflater(Inflater inf) {
-        if (false == inf.ended()) {
-            inf.reset();
-            synchronized (inflaterCache) {
-                inflaterCache.add(inf);
-            }
-        }
+        ZStreamPool.releaseInflater(inf);
     }
 
-    // List of available Inflater objects for decompression
-    private Deque<Inflater> inflaterCache = new ArrayDeque<>();
-
     /**
      * Returns the path name of the ZIP file.
      * @return the path name of the ZIP file
@@ -520,6 +684,9 @@ class ZipFile implements ZipConstants, Closeable {
                 if (i >= total) {
                     throw new NoSuchElementException();
                 }
+                if (index != null) {
+                    return getZipEntry(null, i++, zc);
+                }
                 long jzentry = getNextEntry(jzfile, i++);
                 if (jzentry == 0) {
                     String message;
@@ -557,17 +724,108 @@ class ZipFile implements ZipConstants, Closeable {
      * Entries appear in the {@code Stream} in the order they appear in
      * the central directory of the ZIP file.
      *
+     * <p>If this zip file was opened with {@link #OPEN_MAPPED} or from a
+     * channel the stream is sized and splits evenly for parallel traversal.
+     *
      * @return an ordered {@code Stream} of entries in this ZIP file
      * @throws IllegalStateException if the zip file has been closed
      * @since 1.8
      */
     public Stream<? extends ZipEntry> stream() {
+        if (index != null) {
+            ensureOpen();
+            return StreamSupport.stream(new EntrySpliterator(0, total), false);
+        }
         return StreamSupport.stream(Spliterators.spliterator(
                 new ZipEntryIterator(), size(),
                 Spliterator.ORDERED | Spliterator.DISTINCT |
                         Spliterator.IMMUTABLE | Spliterator.NONNULL), false);
     }
 
+    /*
+     * Spliterator over a range of the entries of a mapped zip file. Reading
+     * the index needs no lock, and each split decodes names with its own
+     * ZipCoder, which is not thread-safe.
+     */
+    private class EntrySpliterator implements Spliterator<ZipEntry> {
+        private final ZipCoder zc = ZipCoder.get(charset);
+        private int i;
+        private final int fence;
+
+        EntrySpliterator(int origin, int fence) {
+            this.i = origin;
+            this.fence = fence;
+        }
+
+        public boolean tryAdvance(Consumer<? super ZipEntry> action) {
+            if (action == null)
+                throw new NullPointerException();
+            if (i >= fence)
+                return false;
+            ensureOpen();
+            action.accept(getZipEntry(null, i++, zc));
+            return true;
+        }
+
+        public void forEachRemaining(Consumer<? super ZipEntry> action) {
+            if (action == null)
+                throw new NullPointerException();
+            int hi = fence;
+            for (int k = i; k < hi; k++) {
+                ensureOpen();
+                i = k + 1;
+                action.accept(getZipEntry(null, k, zc));
+            }
+        }
+
+        public Spliterator<ZipEntry> trySplit() {
+            int lo = i, mid = (lo + fence) >>> 1;
+            return (lo >= mid) ? null : new EntrySpliterator(lo, i = mid);
+        }
+
+        public long estimateSize() {
+            return fence - i;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.DISTINCT |
+                Spliterator.IMMUTABLE | Spliterator.NONNULL |
+                Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    private ZipEntry getZipEntry(String name, int i, ZipCoder zc) {
+        ZipEntry e = new ZipEntry();
+        e.flag = index.flag(i);  // get the flag first
+        if (name != null) {
+            e.name = name;
+        } else {
+            byte[] bname = index.name(i);
+            if (!zc.isUTF8() && (e.flag & EFS) != 0) {
+                e.name = zc.toStringUTF8(bname, bname.length);
+            } else {
+                e.name = zc.toString(bname, bname.length);
+            }
+        }
+        e.xdostime = index.dostime(i);
+        e.crc = index.crc(i);
+        e.size = index.size(i);
+        e.csize = index.csize(i);
+        e.method = index.method(i);
+        e.setExtra0(index.extra(i), false);
+        byte[] bcomm = index.comment(i);
+        if (bcomm == null) {
+            e.comment = null;
+        } else {
+            if (!zc.isUTF8() && (e.flag & EFS) != 0) {
+                e.comment = zc.toStringUTF8(bcomm, bcomm.length);
+            } else {
+                e.comment = zc.toString(bcomm, bcomm.length);
+            }
+        }
+        return e;
+    }
+
     private ZipEntry getZipEntry(String name, long jzentry) {
         ZipEntry e = new ZipEntry();
         e.flag = getEntryFlag(jzentry);  // get the flag first
@@ -643,12 +901,8 @@ class ZipFile implements ZipConstants, Closeable {
                 }
             }
 
-            // Release cached inflaters
-            Inflater inf;
-            synchronized (inflaterCache) {
-                while (null != (inf = inflaterCache.poll())) {
-                    inf.end();
-                }
+            if (index != null) {
+                index.close();
             }
 
             if (jzfile != 0) {
@@ -686,7 +940,7 @@ class ZipFile implements ZipConstants, Closeable {
             throw new IllegalStateException("zip file closed");
         }
 
-        if (jzfile == 0) {
+        if (jzfile == 0 && index == null) {
             throw new IllegalStateException("The object is not initialized.");
         }
     }
@@ -707,6 +961,7 @@ class ZipFile implements ZipConstants, Closeable {
         private   long pos;     // current position within entry data
         protected long rem;     // number of remaining bytes within entry
         protected long size;    // uncompressed size of this entry
+        private   long start;   // file position of entry data, if mapped
 
         ZipFileInputStream(long jzentry) {
             pos = 0;
@@ -715,7 +970,36 @@ class ZipFile implements ZipConstants, Closeable {
             this.jzentry = jzentry;
         }
 
+        ZipFileInputStream(int i) throws IOException {
+            pos = 0;
+            rem = index.csize(i);
+            size = index.size(i);
+            start = index.dataPosition(i);
+        }
+
         public int read(byte b[], int off, int len) throws IOException {
+            if (index != null) {
+                // the index may be read concurrently
+                if (rem == 0) {
+                    return -1;
+                }
+                if (len <= 0) {
+                    return 0;
+                }
+                if (len > rem) {
+                    len = (int) rem;
+                }
+                ensureOpenOrZipException();
+                len = index.read(start + pos, b, off, len);
+                if (len > 0) {
+                    pos += len;
+                    rem -= len;
+                }
+                if (rem == 0) {
+                    close();
+                }
+                return len;
+            }
             synchronized (ZipFile.this) {
                 long rem = this.rem;
                 long pos = this.pos;
@@ -800,6 +1084,9 @@ class ZipFile implements ZipConstants, Closeable {
                 public boolean startsWithLocHeader(ZipFile zip) {
                     return zip.startsWithLocHeader();
                 }
+                public boolean isMapped(ZipFile zip) {
+                    return zip.isMapped();
+                }
              }
         );
     }
@@ -812,6 +1099,14 @@ class ZipFile implements ZipConstants, Closeable {
         return locsig;
     }
 
+    /**
+     * Returns {@code true} if, and only if, the entries of this zip file are
+     * read through its central directory index rather than a native jzfile.
+     */
+    private boolean isMapped() {
+        return index != null;
+    }
+
     private static native long open(String name, int mode, long lastModified,
                                     boolean usemmap) throws IOException;
     private static native int getTotal(long jzfile);
@@ -0,0 +1,576 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static java.util.zip.ZipConstants.*;
+import static java.util.zip.ZipConstants64.*;
+
+/**
+ * A read-only index over the central directory of a ZIP file, used by
+ * {@link ZipFile} when it is opened in mapped mode or over a channel.
+ *
+ * <p>The central directory (CEN) is memory-mapped once and never decoded
+ * as a whole. Entries are identified by their position in directory order;
+ * the CEN offset of each is kept in a flat {@code int} array, and an
+ * open-addressed hash table maps raw name bytes to entry positions so that
+ * lookups compare bytes against the mapped directory without creating a
+ * {@code String}. Entry fields are read from the mapped CEN on demand.
+ *
+ * <p>When the whole file fits in a single mapping, entry data is read from
+ * that mapping and STORED entries can be handed out as zero-copy slices.
+ * Otherwise only the CEN is mapped and entry data is read with positional
+ * channel reads. If memory mapping is disabled the CEN is read onto the
+ * heap instead.
+ *
+ * <p>An index may also be built over any {@link SeekableByteChannel}, such
+ * as one reading from memory. Only file channels are mapped; for other
+ * channels the CEN is read onto the heap and entry data is read by
+ * positioning the channel, one read at a time.
+ *
+ * <p>All methods other than {@link #close} may be invoked concurrently.
+ */
+final class ZipIndex {
+
+    private final SeekableByteChannel ch;
+    private final FileChannel fch;  // ch if it can be mapped, or null
+    private final long length;      // file length
+    private final boolean usemmap;
+    private final ByteBuffer data;  // the whole file, or null
+    private final ByteBuffer cen;   // the central directory, little-endian
+    private final long locpos;      // position of the first LOC header
+    private final byte[] comment;   // zip file comment, or null
+    private final boolean locsig;   // file starts with LOCSIG
+
+    private final int total;        // number of entries
+    private final int[] entries;    // CEN offset of each entry
+    private final int[] hashes;     // name hash of each entry
+    private final int[] table;      // entry index + 1, or 0 if free
+    private final int mask;         // table.length - 1
+
+    /**
+     * Opens and indexes the specified zip file.
+     *
+     * @param file the zip file
+     * @param toDelete whether to delete the file once it is opened
+     * @param usemmap whether memory mapping may be used
+     * @throws ZipException if a ZIP format error has occurred
+     * @throws IOException if an I/O error has occurred
+     */
+    ZipIndex(File file, boolean toDelete, boolean usemmap) throws IOException {
+        this(open(file, toDelete), usemmap);
+    }
+
+    private static FileChannel open(File file, boolean toDelete)
+        throws IOException
+    {
+        RandomAccessFile zfile = new RandomAccessFile(file, "r");
+        try {
+            if (toDelete) {
+                Files.delete(file.toPath());
+            }
+        } catch (Throwable t) {
+            try {
+                zfile.close();
+            } catch (IOException x) {
+                t.addSuppressed(x);
+            }
+            throw t;
+        }
+        // closing the channel closes the file as well
+        return zfile.getChannel();
+    }
+
+    /**
+     * Indexes the zip file read from the specified channel, starting at
+     * position 0. The channel is closed if indexing fails, and when the
+     * index is closed.
+     *
+     * @param ch the channel
+     * @param usemmap whether memory mapping may be used, if {@code ch}
+     *        is a {@link FileChannel}
+     * @throws ZipException if a ZIP format error has occurred
+     * @throws IOException if an I/O error has occurred
+     */
+    ZipIndex(SeekableByteChannel ch, boolean usemmap) throws IOException {
+        try {
+            this.ch = ch;
+            this.fch = usemmap && ch instanceof FileChannel
+                ? (FileChannel)ch : null;
+            this.length = ch.size();
+            this.usemmap = fch != null;
+
+            // locate the END header, followed by the zip file comment
+            int tlen = (int)Math.min(length, ENDHDR + 0xFFFF);
+            byte[] tail = new byte[tlen];
+            readFully(length - tlen, tail, 0, tlen);
+            int end = findEND(tail, tlen);
+            if (end < 0) {
+                throw new ZipException("zip END header not found");
+            }
+            int clen = Math.min(ENDCOM(tail, end), tlen - end - ENDHDR);
+            this.comment = clen > 0
+                ? Arrays.copyOfRange(tail, end + ENDHDR, end + ENDHDR + clen)
+                : null;
+
+            long endpos = length - tlen + end;
+            long cenlen = ZipUtils.get32(tail, end + ENDSIZ);
+            long cenoff = ZipUtils.get32(tail, end + ENDOFF);
+            if (endpos >= ZIP64_LOCHDR) {
+                byte[] loc64 = new byte[ZIP64_LOCHDR];
+                readFully(endpos - ZIP64_LOCHDR, loc64, 0, ZIP64_LOCHDR);
+                if (ZipUtils.get32(loc64, 0) == ZIP64_LOCSIG) {
+                    long end64pos = ZipUtils.get64(loc64, ZIP64_LOCOFF);
+                    byte[] end64 = new byte[ZIP64_ENDHDR];
+                    if (end64pos >= 0 && end64pos + ZIP64_ENDHDR <= endpos) {
+                        readFully(end64pos, end64, 0, ZIP64_ENDHDR);
+                        if (ZipUtils.get32(end64, 0) == ZIP64_ENDSIG) {
+                            cenlen = ZipUtils.get64(end64, ZIP64_ENDSIZ);
+                            cenoff = ZipUtils.get64(end64, ZIP64_ENDOFF);
+                            endpos = end64pos;
+                        }
+                    }
+                }
+            }
+            if (cenlen > endpos || cenlen > Integer.MAX_VALUE) {
+                throw new ZipException(
+                    "invalid END header (bad central directory size)");
+            }
+            long cenpos = endpos - cenlen;
+            this.locpos = cenpos - cenoff;
+            if (locpos < 0) {
+                throw new ZipException(
+                    "invalid END header (bad central directory offset)");
+            }
+
+            ByteBuffer cen;
+            if (this.usemmap && length <= Integer.MAX_VALUE) {
+                this.data = fch.map(FileChannel.MapMode.READ_ONLY, 0, length);
+                cen = slice(data, cenpos, (int)cenlen);
+            } else if (this.usemmap) {
+                this.data = null;
+                cen = fch.map(FileChannel.MapMode.READ_ONLY, cenpos, cenlen);
+            } else {
+                this.data = null;
+                byte[] b = new byte[(int)cenlen];
+                readFully(cenpos, b, 0, b.length);
+                cen = ByteBuffer.wrap(b);
+            }
+            this.cen = cen.order(ByteOrder.LITTLE_ENDIAN);
+
+            byte[] sig = new byte[4];
+            this.locsig = length >= 4 && read(0, sig, 0, 4) == 4
+                && ZipUtils.get32(sig, 0) == LOCSIG;
+
+            // walk the CEN, recording the offset of each header; the END
+            // entry count is only a hint since it saturates for ZIP64
+            int[] entries = new int[Math.max(16,
+                (int)Math.min(ZipUtils.get16(tail, end + ENDTOT),
+                              cenlen / CENHDR))];
+            int n = 0;
+            int pos = 0;
+            int limit = (int)cenlen;
+            while (pos < limit) {
+                if (limit - pos < CENHDR || cen.getInt(pos) != (int)CENSIG) {
+                    throw new ZipException("invalid CEN header (bad signature)");
+                }
+                int next = pos + CENHDR + nameLengthAt(pos) +
+                    (cen.getShort(pos + CENEXT) & 0xffff) +
+                    (cen.getShort(pos + CENCOM) & 0xffff);
+                if (next > limit) {
+                    throw new ZipException("invalid CEN header (bad header size)");
+                }
+                if (n == entries.length) {
+                    entries = Arrays.copyOf(entries, n + (n >> 1));
+                }
+                entries[n++] = pos;
+                pos = next;
+            }
+            this.total = n;
+            this.entries = entries;
+
+            // size the table to a load factor of at most one half
+            int cap = Integer.highestOneBit(Math.max(n, 1)) << 2;
+            int[] table = new int[cap];
+            int[] hashes = new int[n];
+            int mask = cap - 1;
+            for (int i = 0; i < n; i++) {
+                int cenoff0 = entries[i];
+                int nlen = nameLengthAt(cenoff0);
+                int off = cenoff0 + CENHDR;
+                if (nlen > 0 && cen.get(off + nlen - 1) == '/') {
+                    nlen--;
+                }
+                int h = 0;
+                for (int j = 0; j < nlen; j++) {
+                    h = 31 * h + cen.get(off + j);
+                }
+                h = spread(h);
+                hashes[i] = h;
+                int k = h & mask;
+                while (table[k] != 0) {
+                    k = (k + 1) & mask;
+                }
+                table[k] = i + 1;
+            }
+            this.hashes = hashes;
+            this.table = table;
+            this.mask = mask;
+        } catch (Throwable t) {
+            try {
+                ch.close();
+            } catch (IOException x) {
+                t.addSuppressed(x);
+            }
+            throw t;
+        }
+    }
+
+    /*
+     * Searches the tail of the file backwards for the END header. A
+     * candidate whose comment length reaches exactly to the end of the file
+     * is preferred; otherwise the last candidate seen is used, so that
+     * files with trailing garbage can still be opened.
+     */
+    private static int findEND(byte[] tail, int tlen) {
+        int found = -1;
+        for (int i = tlen - ENDHDR; i >= 0; i--) {
+            if (tail[i] == (byte)'P' && tail[i + 1] == (byte)'K' &&
+                ZipUtils.get32(tail, i) == ENDSIG) {
+                int end = i + ENDHDR + ENDCOM(tail, i);
+                if (end == tlen) {
+                    return i;
+                }
+                if (found < 0 && end < tlen) {
+                    found = i;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static int ENDCOM(byte[] b, int end) {
+        return ZipUtils.get16(b, end + ENDCOM);
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buf, long pos, int len) {
+        ByteBuffer b = buf.duplicate();
+        b.position((int)pos);
+        b.limit((int)pos + len);
+        return b.slice();
+    }
+
+    private void readFully(long pos, byte[] b, int off, int len)
+        throws IOException
+    {
+        ByteBuffer bb = ByteBuffer.wrap(b, off, len);
+        while (bb.hasRemaining()) {
+            if (read(bb, pos + bb.position() - off) < 0) {
+                throw new EOFException("Unexpected end of zip file");
+            }
+        }
+    }
+
+    /*
+     * Reads from the channel at the given position. Other channels than
+     * file channels have no positional read, so reads on them are
+     * serialized.
+     */
+    private int read(ByteBuffer bb, long pos) throws IOException {
+        if (ch instanceof FileChannel) {
+            return ((FileChannel)ch).read(bb, pos);
+        }
+        synchronized (ch) {
+            ch.position(pos);
+            return ch.read(bb);
+        }
+    }
+
+    /**
+     * Returns the number of entries.
+     */
+    int size() {
+        return total;
+    }
+
+    /**
+     * Returns the zip file comment bytes, or null if there is no comment.
+     */
+    byte[] comment() {
+        return comment == null ? null : comment.clone();
+    }
+
+    /**
+     * Returns {@code true} if the file begins with {@code LOCSIG}.
+     */
+    boolean startsWithLOC() {
+        return locsig;
+    }
+
+    /**
+     * Returns the position of the entry with the specified raw name, or
+     * -1 if there is none. If {@code addSlash} is true and there is no
+     * exact match, an entry named {@code name + "/"} is accepted instead.
+     * If several entries share a name the first in directory order wins.
+     */
+    int find(byte[] name, boolean addSlash) {
+        int nlen = name.length;
+        int hlen = nlen;
+        if (nlen > 0 && name[nlen - 1] == '/') {
+            hlen--;
+            addSlash = false;
+        }
+        int h = 0;
+        for (int j = 0; j < hlen; j++) {
+            h = 31 * h + name[j];
+        }
+        h = spread(h);
+        int slash = -1;
+        int[] table = this.table;
+        for (int k = h & mask, i; (i = table[k] - 1) >= 0; k = (k + 1) & mask) {
+            if (hashes[i] != h) {
+                continue;
+            }
+            int pos = entries[i];
+            int len = nameLengthAt(pos);
+            if (len == nlen) {
+                if (nameEquals(pos, name, nlen)) {
+                    return i;
+                }
+            } else if (addSlash && slash < 0 && len == nlen + 1 &&
+                       cen.get(pos + CENHDR + nlen) == '/' &&
+                       nameEquals(pos, name, nlen)) {
+                slash = i;
+            }
+        }
+        return slash;
+    }
+
+    private boolean nameEquals(int pos, byte[] name, int len) {
+        int off = pos + CENHDR;
+        for (int j = 0; j < len; j++) {
+            if (cen.get(off + j) != name[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int nameLengthAt(int pos) {
+        return cen.getShort(pos + CENNAM) & 0xffff;
+    }
+
+    /**
+     * Returns the length of the raw name of entry {@code i}.
+     */
+    int nameLength(int i) {
+        return nameLengthAt(entries[i]);
+    }
+
+    int flag(int i) {
+        return cen.getShort(entries[i] + CENFLG) & 0xffff;
+    }
+
+    int method(int i) {
+        return cen.getShort(entries[i] + CENHOW) & 0xffff;
+    }
+
+    long dostime(int i) {
+        return cen.getInt(entries[i] + CENTIM) & 0xffffffffL;
+    }
+
+    long crc(int i) {
+        return cen.getInt(entries[i] + CENCRC) & 0xffffffffL;
+    }
+
+    long size(int i) {
+        int pos = entries[i];
+        long size = cen.getInt(pos + CENLEN) & 0xffffffffL;
+        return size == ZIP64_MAGICVAL ? zip64(pos, 0) : size;
+    }
+
+    long csize(int i) {
+        int pos = entries[i];
+        long csize = cen.getInt(pos + CENSIZ) & 0xffffffffL;
+        return csize == ZIP64_MAGICVAL ? zip64(pos, 1) : csize;
+    }
+
+    private long locoff(int i) {
+        int pos = entries[i];
+        long off = cen.getInt(pos + CENOFF) & 0xffffffffL;
+        return off == ZIP64_MAGICVAL ? zip64(pos, 2) : off;
+    }
+
+    /*
+     * Reads a field of the ZIP64 extended information extra field, where
+     * 0, 1 and 2 select the uncompressed size, compressed size and LOC
+     * offset. Only the fields whose CEN values are saturated are present,
+     * in that order. Returns the magic value if the field is missing.
+     */
+    private long zip64(int pos, int field) {
+        int off = pos + CENHDR + nameLengthAt(pos);
+        int end = off + (cen.getShort(pos + CENEXT) & 0xffff);
+        while (off + 4 <= end) {
+            int tag = cen.getShort(off) & 0xffff;
+            int sz = cen.getShort(off + 2) & 0xffff;
+            off += 4;
+            if (off + sz > end) {
+                break;
+            }
+            if (tag == ZIP64_EXTID) {
+                int p = off;
+                for (int f = 0; f < field; f++) {
+                    int cenfield = f == 0 ? CENLEN : CENSIZ;
+                    if ((cen.getInt(pos + cenfield) & 0xffffffffL) == ZIP64_MAGICVAL) {
+                        p += 8;
+                    }
+                }
+                return p + 8 <= off + sz ? cen.getLong(p) : ZIP64_MAGICVAL;
+            }
+            off += sz;
+        }
+        return ZIP64_MAGICVAL;
+    }
+
+    /**
+     * Returns the raw name of entry {@code i}.
+     */
+    byte[] name(int i) {
+        int pos = entries[i];
+        return bytes(pos + CENHDR, nameLengthAt(pos));
+    }
+
+    /**
+     * Returns the CEN extra field of entry {@code i}, or null if empty.
+     */
+    byte[] extra(int i) {
+        int pos = entries[i];
+        int len = cen.getShort(pos + CENEXT) & 0xffff;
+        return len == 0 ? null : bytes(pos + CENHDR + nameLengthAt(pos), len);
+    }
+
+    /**
+     * Returns the comment of entry {@code i}, or null if empty.
+     */
+    byte[] comment(int i) {
+        int pos = entries[i];
+        int len = cen.getShort(pos + CENCOM) & 0xffff;
+        return len == 0 ? null
+            : bytes(pos + CENHDR + nameLengthAt(pos) +
+                    (cen.getShort(pos + CENEXT) & 0xffff), len);
+    }
+
+    private byte[] bytes(int off, int len) {
+        byte[] b = new byte[len];
+        ByteBuffer d = cen.duplicate();
+        d.position(off);
+        d.get(b, 0, len);
+        return b;
+    }
+
+    /**
+     * Returns the file position of the data of entry {@code i}, which
+     * follows its LOC header.
+     */
+    long dataPosition(int i) throws IOException {
+        long pos = locpos + locoff(i);
+        byte[] loc = new byte[LOCHDR];
+        if (pos < 0 || pos + LOCHDR > length) {
+            throw new ZipException("invalid LOC header (bad offset)");
+        }
+        read(pos, loc, 0, LOCHDR);
+        if (ZipUtils.get32(loc, 0) != LOCSIG) {
+            throw new ZipException("invalid LOC header (bad signature)");
+        }
+        return pos + LOCHDR + ZipUtils.get16(loc, LOCNAM) +
+            ZipUtils.get16(loc, LOCEXT);
+    }
+
+    /**
+     * Reads up to {@code len} bytes at file position {@code pos}. Returns
+     * the number of bytes read, or -1 at end of file.
+     */
+    int read(long pos, byte[] b, int off, int len) throws IOException {
+        if (pos >= length) {
+            return -1;
+        }
+        if (data != null) {
+            len = (int)Math.min(len, length - pos);
+            ByteBuffer d = data.duplicate();
+            d.position((int)pos);
+            d.get(b, off, len);
+            return len;
+        }
+        ByteBuffer bb = ByteBuffer.wrap(b, off, len);
+        int n;
+        do {
+            n = read(bb, pos);
+        } while (n == 0 && len > 0);
+        return n;
+    }
+
+    /**
+     * Returns a read-only buffer over {@code len} bytes at file position
+     * {@code pos}. The buffer shares the mapping of the file where there is
+     * one, and is otherwise mapped or read for the occasion.
+     */
+    ByteBuffer slice(long pos, long len) throws IOException {
+        if (pos < 0 || len < 0 || pos + len > length || len > Integer.MAX_VALUE) {
+            throw new ZipException("invalid entry size");
+        }
+        if (data != null) {
+            return slice(data, pos, (int)len).asReadOnlyBuffer();
+        }
+        if (usemmap) {
+            return fch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+        }
+        byte[] b = new byte[(int)len];
+        readFully(pos, b, 0, b.length);
+        return ByteBuffer.wrap(b).asReadOnlyBuffer();
+    }
+
+    /**
+     * Closes the underlying channel. Mappings already handed out remain
+     * valid until they are garbage collected.
+     */
+    void close() throws IOException {
+        ch.close();
+    }
+}
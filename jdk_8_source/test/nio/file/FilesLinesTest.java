@@ -0,0 +1,255 @@
+package nio.file;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Files.lines 按文件字节区间拆分的测试：UTF-8、ISO-8859-1、US-ASCII 直接映射 FileChannel，
+ * 并行流按中点之后的第一个行结束符切分，结果必须和 BufferedReader.readLine 逐行读取完全一致
+ * @since 2026/10/17
+ */
+public class FilesLinesTest {
+
+    private static final String[] TERMINATORS = {"\n", "\r\n", "\r"};
+
+    @Test
+    public void testAgainstBufferedReader() throws IOException {
+        Random random = new Random(7);
+        for (int lines : new int[]{0, 1, 2, 10, 1000, 50000}) {
+            Path path = write(randomText(random, lines, true), StandardCharsets.UTF_8);
+            try {
+                compare(path, StandardCharsets.UTF_8);
+            } finally {
+                Files.delete(path);
+            }
+        }
+        for (Charset cs : new Charset[]{StandardCharsets.ISO_8859_1, StandardCharsets.US_ASCII}) {
+            Path path = write(randomText(random, 5000, false), cs);
+            try {
+                compare(path, cs);
+            } finally {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * 行结束符出现在文件末尾、开头、连续出现，以及 \r 和 \n 分属两行的边界情况
+     */
+    @Test
+    public void testTerminators() throws IOException {
+        String[] texts = {"", "\n", "\r", "\r\n", "\n\r", "\r\r\n\n", "a", "a\n", "a\r", "\na", "a\rb\nc\r\nd",
+                "é\r\n\r\n😀", "€\r"};
+        for (String text : texts) {
+            Path path = write(text, StandardCharsets.UTF_8);
+            try {
+                compare(path, StandardCharsets.UTF_8);
+            } finally {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * 超过一个映射窗口（4M 字节）的文件，多字节字符和 \r\n 会落在窗口边界上
+     */
+    @Test
+    public void testLargeFile() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int lines = 0;
+        while (sb.length() < 6 << 20) {
+            sb.append(lines).append("é€😀").append(TERMINATORS[lines % 3]);
+            lines++;
+        }
+        Path path = write(sb.toString(), StandardCharsets.UTF_8);
+        try {
+            try (Stream<String> s = Files.lines(path).parallel()) {
+                Assert.assertEquals(lines, s.count());
+            }
+            try (Stream<String> s = Files.lines(path).parallel()) {
+                Assert.assertEquals(lines, s.filter(l -> l.endsWith("😀")).count());
+            }
+            compare(path, StandardCharsets.UTF_8);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testMalformedInput() throws IOException {
+        Path path = Files.createTempFile("lines", ".txt");
+        try {
+            Files.write(path, new byte[]{'a', '\n', (byte) 0xff, '\n'});
+            try (Stream<String> s = Files.lines(path)) {
+                s.count();
+                Assert.fail();
+            } catch (java.io.UncheckedIOException expected) {
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * 非普通文件（/proc 下的文件、命名管道）的 size() 为 0，必须走 Reader 读取而不是返回空流
+     */
+    @Test
+    public void testNonRegularFiles() throws Exception {
+        Path status = java.nio.file.Paths.get("/proc/self/status");
+        if (Files.isReadable(status)) {
+            try (Stream<String> s = Files.lines(status)) {
+                Assert.assertTrue(s.count() > 0);
+            }
+        }
+        Path dir = Files.createTempDirectory("lines");
+        Path fifo = dir.resolve("fifo");
+        try {
+            Process mkfifo;
+            try {
+                mkfifo = new ProcessBuilder("mkfifo", fifo.toString()).start();
+            } catch (IOException e) {
+                return; // no mkfifo on this platform
+            }
+            if (mkfifo.waitFor() != 0) {
+                return;
+            }
+            Thread writer = new Thread(() -> {
+                try {
+                    Files.write(fifo, "first\nsecond\n".getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            });
+            writer.start();
+            try (Stream<String> s = Files.lines(fifo)) {
+                Assert.assertEquals(java.util.Arrays.asList("first", "second"), s.collect(Collectors.toList()));
+            }
+            writer.join();
+        } finally {
+            Files.deleteIfExists(fifo);
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * 读取过程中文件被截断，映射下一个窗口（4M 字节）时抛出 UncheckedIOException；
+     * 已映射窗口内被截掉的部分无法防护，所以截断点留在第一个窗口之后
+     */
+    @Test
+    public void testTruncatedWhileReading() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < 10 << 20; i++) {
+            sb.append("line ").append(i).append('\n');
+        }
+        Path path = write(sb.toString(), StandardCharsets.UTF_8);
+        try (Stream<String> s = Files.lines(path)) {
+            java.util.Iterator<String> it = s.iterator();
+            Assert.assertEquals("line 0", it.next());
+            try (java.io.RandomAccessFile raf = new java.io.RandomAccessFile(path.toFile(), "rw")) {
+                raf.setLength(5 << 20);
+            }
+            while (it.hasNext()) {
+                it.next();
+            }
+            Assert.fail();
+        } catch (java.io.UncheckedIOException expected) {
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * 对比 BufferedReader、顺序 Files.lines、并行 Files.lines 的耗时
+     */
+    @Test
+    public void benchmarkLines() throws IOException {
+        Path path = write(randomText(new Random(1), 1000000, true), StandardCharsets.UTF_8);
+        try {
+            for (int round = 0; round < 5; round++) {
+                long begin = System.nanoTime();
+                long reader = 0;
+                try (BufferedReader br = Files.newBufferedReader(path)) {
+                    String line;
+                    while ((line = br.readLine()) != null) {
+                        reader += line.length();
+                    }
+                }
+                long t1 = System.nanoTime();
+                long sequential;
+                try (Stream<String> s = Files.lines(path)) {
+                    sequential = s.mapToLong(String::length).sum();
+                }
+                long t2 = System.nanoTime();
+                long parallel;
+                try (Stream<String> s = Files.lines(path).parallel()) {
+                    parallel = s.mapToLong(String::length).sum();
+                }
+                long t3 = System.nanoTime();
+                Assert.assertEquals(reader, sequential);
+                Assert.assertEquals(reader, parallel);
+                if (round >= 2) {
+                    System.out.println("round " + (round - 2) + ": reader " + (t1 - begin) / 1000000
+                            + " ms, lines " + (t2 - t1) / 1000000 + " ms, parallel lines "
+                            + (t3 - t2) / 1000000 + " ms");
+                }
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static void compare(Path path, Charset cs) throws IOException {
+        List<String> expected = new ArrayList<String>();
+        try (BufferedReader br = Files.newBufferedReader(path, cs)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                expected.add(line);
+            }
+        }
+        try (Stream<String> s = Files.lines(path, cs)) {
+            Assert.assertEquals(expected, s.collect(Collectors.toList()));
+        }
+        try (Stream<String> s = Files.lines(path, cs).parallel()) {
+            Assert.assertEquals(expected, s.collect(Collectors.toList()));
+        }
+    }
+
+    private static String randomText(Random random, int lines, boolean unicode) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            int len = random.nextInt(random.nextInt(50) == 0 ? 1000 : 40);
+            for (int j = 0; j < len; j++) {
+                int k = random.nextInt(30);
+                if (unicode && k == 0) {
+                    sb.append('é');
+                } else if (unicode && k == 1) {
+                    sb.append("😀");
+                } else {
+                    sb.append((char) ('a' + k));
+                }
+            }
+            if (i < lines - 1 || random.nextBoolean()) {
+                sb.append(TERMINATORS[random.nextInt(TERMINATORS.length)]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static Path write(String text, Charset cs) throws IOException {
+        Path path = Files.createTempFile("lines", ".txt");
+        Files.write(path, text.getBytes(cs));
+        return path;
+    }
+}
@@ -0,0 +1,127 @@
+package util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * 按 long 键排序和 argsort 测试：键只提取一次，和下标一起做基数排序，
+ * 结果必须和 Comparator.comparingLong 的稳定排序完全一致
+ * @since 2026/10/17
+ */
+public class ArraysKeySortTest {
+
+    private static final int[] SIZES = {0, 1, 2, 30, 46, 47, 1000, 9000, 200000};
+
+    static final class Record {
+        final long timestamp;
+        final int id;
+
+        Record(long timestamp, int id) {
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+    }
+
+    @Test
+    public void testSortByLongKey() {
+        Random random = new Random(1);
+        for (int n : SIZES) {
+            for (int mod : new int[]{3, 1000, 0}) {
+                Record[] a = new Record[n];
+                for (int i = 0; i < n; i++) {
+                    long key = mod == 0 ? random.nextLong() : random.nextInt(mod) - mod / 2;
+                    a[i] = new Record(key, i);
+                }
+                Record[] expected = a.clone();
+                Arrays.sort(expected, Comparator.comparingLong((Record r) -> r.timestamp));
+                int[] calls = new int[1];
+                Record[] sorted = a.clone();
+                Arrays.sortByLongKey(sorted, r -> {
+                    calls[0]++;
+                    return r.timestamp;
+                });
+                Assert.assertEquals(n, calls[0]);
+                Assert.assertArrayEquals(expected, sorted);
+                Record[] parallel = a.clone();
+                Arrays.parallelSortByLongKey(parallel, r -> r.timestamp);
+                Assert.assertArrayEquals(expected, parallel);
+            }
+        }
+    }
+
+    @Test
+    public void testArgsort() {
+        Random random = new Random(2);
+        for (int n : SIZES) {
+            long[] keys = new long[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = random.nextBoolean() ? random.nextInt(20) : random.nextLong();
+            }
+            for (boolean parallel : new boolean[]{false, true}) {
+                long[] sorted = keys.clone();
+                int[] indices = new int[n];
+                for (int i = 0; i < n; i++) {
+                    indices[i] = i;
+                }
+                if (parallel) {
+                    Arrays.parallelArgsort(indices, sorted);
+                } else {
+                    Arrays.argsort(indices, sorted);
+                }
+                long[] expected = keys.clone();
+                Arrays.sort(expected);
+                Assert.assertArrayEquals(expected, sorted);
+                for (int i = 0; i < n; i++) {
+                    Assert.assertEquals(keys[indices[i]], sorted[i]);
+                    if (i > 0 && sorted[i - 1] == sorted[i]) {
+                        Assert.assertTrue(indices[i - 1] < indices[i]);
+                    }
+                }
+            }
+        }
+        try {
+            Arrays.argsort(new int[2], new long[3]);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    /**
+     * 对比 Comparator.comparingLong 和 sortByLongKey 给大量记录排序的耗时
+     */
+    @Test
+    public void benchmarkSortByLongKey() {
+        Random random = new Random(3);
+        int n = 2000000;
+        Record[] a = new Record[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = new Record(1700000000000L + random.nextInt(1 << 30), i);
+        }
+        Comparator<Record> comparator = Comparator.comparingLong(r -> r.timestamp);
+        for (int round = 0; round < 4; round++) {
+            Record[] b = a.clone();
+            long begin = System.nanoTime();
+            Arrays.sort(b, comparator);
+            long comparing = System.nanoTime() - begin;
+            Record[] c = a.clone();
+            begin = System.nanoTime();
+            Arrays.sortByLongKey(c, r -> r.timestamp);
+            long byKey = System.nanoTime() - begin;
+            Record[] d = a.clone();
+            begin = System.nanoTime();
+            Arrays.parallelSortByLongKey(d, r -> r.timestamp);
+            long parallelByKey = System.nanoTime() - begin;
+            Assert.assertArrayEquals(b, c);
+            Assert.assertArrayEquals(b, d);
+            if (round >= 2) {
+                System.out.println("round " + (round - 2) + ": comparingLong " + comparing / 1000000
+                        + " ms, sortByLongKey " + byKey / 1000000 + " ms, parallelSortByLongKey "
+                        + parallelByKey / 1000000 + " ms");
+            }
+        }
+    }
+}
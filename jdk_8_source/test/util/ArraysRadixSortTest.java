@@ -0,0 +1,188 @@
+package util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 基本类型数组基数排序测试：不是高度有序的 int、long、float、double 数组超过阈值时改用 LSD 基数排序，
+ * Arrays.parallelSort(long[]) 改为并行 MSD 基数排序，结果必须和逐个比较得到的顺序一致，
+ * 包括负数、NaN、-0.0 的位置
+ * @since 2026/10/17
+ */
+public class ArraysRadixSortTest {
+
+    private static final String[] DISTRIBUTIONS = {"random", "timestamp", "sorted", "reversed", "sawtooth",
+            "fewUnique", "equal", "extremes"};
+
+    private static final int[] SIZES = {0, 1, 2, 100, 1000, 1025, 5000, 100000, 1000000};
+
+    @Test
+    public void testLong() {
+        Random random = new Random(1);
+        for (String distribution : DISTRIBUTIONS) {
+            for (int n : SIZES) {
+                long[] a = generate(random, distribution, n);
+                long[] expected = a.clone();
+                mergeSort(expected);
+                long[] sorted = a.clone();
+                Arrays.sort(sorted);
+                Assert.assertArrayEquals(distribution + " " + n, expected, sorted);
+                long[] parallel = a.clone();
+                Arrays.parallelSort(parallel);
+                Assert.assertArrayEquals(distribution + " " + n, expected, parallel);
+                if (n > 10) {
+                    long[] range = a.clone();
+                    Arrays.parallelSort(range, 3, n - 4);
+                    long[] part = Arrays.copyOfRange(a, 3, n - 4);
+                    mergeSort(part);
+                    for (int i = 0; i < n; i++) {
+                        long e = (i < 3 || i >= n - 4) ? a[i] : part[i - 3];
+                        Assert.assertEquals(distribution + " " + n + " at " + i, e, range[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testInt() {
+        Random random = new Random(2);
+        for (String distribution : DISTRIBUTIONS) {
+            for (int n : SIZES) {
+                long[] l = generate(random, distribution, n);
+                int[] a = new int[n];
+                for (int i = 0; i < n; i++) {
+                    a[i] = (int) (l[i] ^ (l[i] >>> 32));
+                }
+                int[] sorted = a.clone();
+                Arrays.sort(sorted);
+                long[] expected = new long[n];
+                for (int i = 0; i < n; i++) {
+                    expected[i] = a[i];
+                }
+                mergeSort(expected);
+                for (int i = 0; i < n; i++) {
+                    Assert.assertEquals(distribution + " " + n, expected[i], sorted[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 浮点数按 Double.compareTo 的全序排列：-0.0 在 0.0 之前，NaN 在最后
+     */
+    @Test
+    public void testFloatingPoint() {
+        Random random = new Random(3);
+        double[] specials = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int n : SIZES) {
+            double[] a = new double[n];
+            float[] f = new float[n];
+            for (int i = 0; i < n; i++) {
+                a[i] = random.nextInt(10) == 0 ? specials[random.nextInt(specials.length)]
+                        : random.nextGaussian() * 1e9;
+                f[i] = (float) a[i];
+            }
+            double[] sorted = a.clone();
+            Arrays.sort(sorted);
+            float[] sortedFloats = f.clone();
+            Arrays.sort(sortedFloats);
+            Double[] expected = new Double[n];
+            Float[] expectedFloats = new Float[n];
+            for (int i = 0; i < n; i++) {
+                expected[i] = a[i];
+                expectedFloats[i] = f[i];
+            }
+            Arrays.sort(expected);
+            Arrays.sort(expectedFloats);
+            for (int i = 0; i < n; i++) {
+                Assert.assertEquals(0, Double.compare(expected[i], sorted[i]));
+                Assert.assertEquals(0, Float.compare(expectedFloats[i], sortedFloats[i]));
+            }
+        }
+    }
+
+    /**
+     * 各分布下 Arrays.sort、Arrays.parallelSort 对 long 数组的耗时
+     */
+    @Test
+    public void benchmarkSort() {
+        Random random = new Random(4);
+        int n = 5000000;
+        for (String distribution : DISTRIBUTIONS) {
+            long[] a = generate(random, distribution, n);
+            for (int round = 0; round < 4; round++) {
+                long[] b = a.clone();
+                long begin = System.nanoTime();
+                Arrays.sort(b);
+                long sort = System.nanoTime() - begin;
+                long[] c = a.clone();
+                begin = System.nanoTime();
+                Arrays.parallelSort(c);
+                long parallelSort = System.nanoTime() - begin;
+                Assert.assertArrayEquals(b, c);
+                if (round >= 2) {
+                    System.out.println("round " + (round - 2) + " " + distribution + ": sort "
+                            + sort / 1000000 + " ms, parallelSort " + parallelSort / 1000000 + " ms");
+                }
+            }
+        }
+    }
+
+    private static long[] generate(Random random, String distribution, int n) {
+        long[] a = new long[n];
+        for (int i = 0; i < n; i++) {
+            switch (distribution) {
+                case "random":
+                    a[i] = random.nextLong();
+                    break;
+                case "timestamp":
+                    a[i] = 1700000000000L + random.nextInt(1 << 30);
+                    break;
+                case "sorted":
+                    a[i] = i;
+                    break;
+                case "reversed":
+                    a[i] = -i;
+                    break;
+                case "sawtooth":
+                    a[i] = i % 1000;
+                    break;
+                case "fewUnique":
+                    a[i] = random.nextInt(8) - 4;
+                    break;
+                case "equal":
+                    a[i] = 42;
+                    break;
+                default:
+                    a[i] = random.nextBoolean() ? Long.MIN_VALUE + random.nextInt(100)
+                            : Long.MAX_VALUE - random.nextInt(100);
+                    break;
+            }
+        }
+        return a;
+    }
+
+    /**
+     * 只用比较实现的参考排序
+     */
+    private static void mergeSort(long[] a) {
+        if (a.length < 2) {
+            return;
+        }
+        long[] b = new long[a.length];
+        for (int width = 1; width < a.length; width <<= 1) {
+            for (int lo = 0; lo < a.length; lo += width << 1) {
+                int mid = Math.min(lo + width, a.length), hi = Math.min(lo + (width << 1), a.length);
+                for (int i = lo, p = lo, q = mid; i < hi; i++) {
+                    b[i] = (q >= hi || p < mid && a[p] <= a[q]) ? a[p++] : a[q++];
+                }
+            }
+            System.arraycopy(b, 0, a, 0, a.length);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.CompressedBitSet;
+import java.util.Random;
+
+/**
+ * 压缩位图测试：数组、位图、游程三种容器的各种操作结果必须和 BitSet 完全一致，
+ * 包括集合运算、区间操作、序列化以及只读映射
+ * @since 2026/10/17
+ */
+public class CompressedBitSetTest {
+
+    /**
+     * 随机生成稀疏、密集和成段的位，覆盖三种容器
+     */
+    private static BitSet randomBits(Random random, int chunks) {
+        BitSet bits = new BitSet();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int base = random.nextInt(64) << 16;
+            switch (random.nextInt(4)) {
+                case 0:
+                    for (int i = random.nextInt(100); i > 0; i--) {
+                        bits.set(base + random.nextInt(1 << 16));
+                    }
+                    break;
+                case 1:
+                    for (int i = 5000 + random.nextInt(30000); i > 0; i--) {
+                        bits.set(base + random.nextInt(1 << 16));
+                    }
+                    break;
+                case 2:
+                    int from = base + random.nextInt(1 << 16);
+                    bits.set(from, from + random.nextInt(200000));
+                    break;
+                default:
+                    bits.set(base, base + (1 << 16));
+                    break;
+            }
+        }
+        return bits;
+    }
+
+    private static CompressedBitSet compressed(BitSet bits, boolean runs) {
+        CompressedBitSet set = new CompressedBitSet();
+        bits.stream().forEach(set::set);
+        if (runs) {
+            set.runOptimize();
+        }
+        return set;
+    }
+
+    private static void assertSame(BitSet expected, CompressedBitSet actual) {
+        Assert.assertEquals(expected.cardinality(), actual.cardinality());
+        Assert.assertEquals(expected.length(), actual.length());
+        Assert.assertEquals(expected.isEmpty(), actual.isEmpty());
+        Assert.assertEquals(expected.hashCode(), actual.hashCode());
+        Assert.assertArrayEquals(expected.toLongArray(), actual.toLongArray());
+        Assert.assertEquals(expected, actual.toBitSet());
+        Assert.assertArrayEquals(expected.stream().toArray(), actual.stream().toArray());
+    }
+
+    @Test
+    public void testSetAlgebra() {
+        Random random = new Random(1);
+        for (int round = 0; round < 40; round++) {
+            BitSet a = randomBits(random, 1 + random.nextInt(12));
+            BitSet b = randomBits(random, 1 + random.nextInt(12));
+            for (int kind = 0; kind < 4; kind++) {
+                CompressedBitSet x = compressed(a, (kind & 1) != 0);
+                CompressedBitSet y = compressed(b, (kind & 2) != 0);
+                assertSame(a, x);
+                Assert.assertEquals(a.intersects(b), x.intersects(y));
+
+                BitSet expected = (BitSet) a.clone();
+                expected.and(b);
+                CompressedBitSet actual = (CompressedBitSet) x.clone();
+                actual.and(y);
+                assertSame(expected, actual);
+
+                expected = (BitSet) a.clone();
+                expected.or(b);
+                actual = (CompressedBitSet) x.clone();
+                actual.or(y);
+                assertSame(expected, actual);
+
+                expected = (BitSet) a.clone();
+                expected.xor(b);
+                actual = (CompressedBitSet) x.clone();
+                actual.xor(y);
+                assertSame(expected, actual);
+
+                expected = (BitSet) a.clone();
+                expected.andNot(b);
+                actual = (CompressedBitSet) x.clone();
+                actual.andNot(y);
+                assertSame(expected, actual);
+
+                // 参与运算的右操作数不能被修改
+                assertSame(b, y);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(2);
+        for (int round = 0; round < 20; round++) {
+            BitSet expected = new BitSet();
+            CompressedBitSet actual = new CompressedBitSet();
+            int bound = random.nextBoolean() ? 1 << 18 : 1 << 24;
+            for (int op = 0; op < 2000; op++) {
+                int from = random.nextInt(bound);
+                int to = from + random.nextInt(random.nextBoolean() ? 100 : 150000);
+                switch (random.nextInt(9)) {
+                    case 0:
+                        expected.set(from);
+                        actual.set(from);
+                        break;
+                    case 1:
+                        expected.clear(from);
+                        actual.clear(from);
+                        break;
+                    case 2:
+                        expected.flip(from);
+                        actual.flip(from);
+                        break;
+                    case 3:
+                        expected.set(from, to);
+                        actual.set(from, to);
+                        break;
+                    case 4:
+                        expected.clear(from, to);
+                        actual.clear(from, to);
+                        break;
+                    case 5:
+                        expected.flip(from, to);
+                        actual.flip(from, to);
+                        break;
+                    case 6:
+                        if (random.nextInt(10) == 0) {
+                            actual.runOptimize();
+                        }
+                        break;
+                    case 7:
+                        Assert.assertEquals(expected.get(from), actual.get(from));
+                        Assert.assertEquals(expected.cardinality(), actual.cardinality());
+                        break;
+                    default:
+                        int start = random.nextBoolean() ? from & ~0xFFFF : from;
+                        Assert.assertEquals(expected.get(start, to), actual.get(start, to).toBitSet());
+                        break;
+                }
+                Assert.assertEquals(expected.nextSetBit(from), actual.nextSetBit(from));
+                Assert.assertEquals(expected.nextClearBit(from), actual.nextClearBit(from));
+                Assert.assertEquals(expected.previousSetBit(from), actual.previousSetBit(from));
+                Assert.assertEquals(expected.previousClearBit(from), actual.previousClearBit(from));
+            }
+            assertSame(expected, actual);
+            Assert.assertEquals(expected.toString(), actual.toString());
+        }
+    }
+
+    @Test
+    public void testEqualsAcrossContainers() {
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            BitSet bits = randomBits(random, 6);
+            CompressedBitSet plain = compressed(bits, false);
+            CompressedBitSet runs = compressed(bits, true);
+            CompressedBitSet fromLongs = CompressedBitSet.valueOf(bits.toLongArray());
+            Assert.assertEquals(plain, runs);
+            Assert.assertEquals(runs, fromLongs);
+            Assert.assertEquals(plain.hashCode(), runs.hashCode());
+            Assert.assertEquals(plain, CompressedBitSet.valueOf(bits));
+            runs.flip(bits.length());
+            Assert.assertFalse(plain.equals(runs));
+        }
+        CompressedBitSet set = new CompressedBitSet();
+        set.set(Integer.MAX_VALUE);
+        set.set(Integer.MAX_VALUE - 70000, Integer.MAX_VALUE);
+        Assert.assertEquals(Integer.MAX_VALUE, set.previousSetBit(Integer.MAX_VALUE));
+        Assert.assertEquals(Integer.MAX_VALUE - 70001, set.previousClearBit(Integer.MAX_VALUE));
+        Assert.assertEquals(70001, set.cardinality());
+        Assert.assertEquals(Integer.MAX_VALUE, set.length() - 1);
+    }
+
+    /**
+     * 满块位于首尾时查找相邻的清零位，随机测试中满块几乎不会恰好是最后一块
+     */
+    @Test
+    public void testClearBitAcrossFullChunks() {
+        for (boolean runs : new boolean[]{false, true}) {
+            BitSet last = new BitSet();
+            last.set(0, 1 << 16);
+            CompressedBitSet set = compressed(last, runs);
+            Assert.assertEquals(65536, set.nextClearBit(0));
+            Assert.assertEquals(65536, set.nextClearBit(65535));
+
+            BitSet first = new BitSet();
+            first.set(1 << 16, 2 << 16);
+            set = compressed(first, runs);
+            Assert.assertEquals(65535, set.previousClearBit(100000));
+            Assert.assertEquals(131072, set.nextClearBit(65536));
+
+            BitSet two = new BitSet();
+            two.set(3 << 16, 5 << 16);
+            two.set(7 << 16, 8 << 16);
+            set = compressed(two, runs);
+            for (int from : new int[]{0, 3 << 16, (4 << 16) + 5, 7 << 16, (8 << 16) - 1, 8 << 16}) {
+                Assert.assertEquals(two.nextClearBit(from), set.nextClearBit(from));
+                Assert.assertEquals(two.previousClearBit(from), set.previousClearBit(from));
+            }
+        }
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        Random random = new Random(4);
+        for (int round = 0; round < 20; round++) {
+            BitSet bits = randomBits(random, random.nextInt(8));
+            CompressedBitSet set = compressed(bits, random.nextBoolean());
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(set);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(
+                    new ByteArrayInputStream(bytes.toByteArray()))) {
+                CompressedBitSet read = (CompressedBitSet) in.readObject();
+                Assert.assertEquals(set, read);
+                assertSame(bits, read);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(set.serializedSize() + 7);
+            buffer.position(3);
+            set.serialize(buffer);
+            Assert.assertEquals(set.serializedSize() + 3, buffer.position());
+            buffer.position(3);
+            CompressedBitSet copy = CompressedBitSet.deserialize(buffer);
+            Assert.assertEquals(set.serializedSize() + 3, buffer.position());
+            assertSame(bits, copy);
+
+            buffer.position(3);
+            CompressedBitSet mapped = CompressedBitSet.map(buffer);
+            assertSame(bits, mapped);
+            Assert.assertEquals(set, mapped);
+            Assert.assertEquals(set.serializedSize(), mapped.serializedSize());
+            for (int i = 0; i < 100; i++) {
+                int index = random.nextInt(64 << 16);
+                Assert.assertEquals(bits.get(index), mapped.get(index));
+                Assert.assertEquals(bits.nextSetBit(index), mapped.nextSetBit(index));
+            }
+            try {
+                mapped.set(1);
+                Assert.fail();
+            } catch (UnsupportedOperationException expected) {
+            }
+
+            // 只读集合可以作为运算的参数，克隆后可以修改
+            CompressedBitSet union = new CompressedBitSet();
+            union.or(mapped);
+            Assert.assertEquals(set, union);
+            CompressedBitSet clone = (CompressedBitSet) mapped.clone();
+            clone.set(1);
+            Assert.assertEquals(bits.get(1), mapped.get(1));
+
+            ByteBuffer again = ByteBuffer.allocate(mapped.serializedSize());
+            mapped.serialize(again);
+            again.flip();
+            Assert.assertEquals(set, CompressedBitSet.deserialize(again));
+        }
+        try {
+            CompressedBitSet.map(ByteBuffer.allocate(16));
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    /**
+     * 对比稀疏 id 集合在 BitSet 和 CompressedBitSet 中占用的空间与求交耗时
+     */
+    @Test
+    public void benchmarkSparseIds() {
+        Random random = new Random(5);
+        BitSet a = new BitSet(), b = new BitSet();
+        for (int i = 0; i < 200000; i++) {
+            a.set(random.nextInt(1 << 28));
+            b.set(random.nextInt(1 << 28));
+        }
+        a.set(1000000, 3000000);
+        b.set(2000000, 4000000);
+        CompressedBitSet x = compressed(a, true), y = compressed(b, true);
+        for (int round = 0; round < 4; round++) {
+            long begin = System.nanoTime();
+            BitSet and = (BitSet) a.clone();
+            and.and(b);
+            long bitSet = System.nanoTime() - begin;
+            begin = System.nanoTime();
+            CompressedBitSet compressedAnd = (CompressedBitSet) x.clone();
+            compressedAnd.and(y);
+            long compressed = System.nanoTime() - begin;
+            Assert.assertArrayEquals(and.stream().toArray(), compressedAnd.stream().toArray());
+            if (round >= 2) {
+                System.out.println("round " + (round - 2) + ": BitSet " + a.size() / 8 / 1024
+                        + " KB, and " + bitSet / 1000 + " us; CompressedBitSet "
+                        + x.serializedSize() / 1024 + " KB, and " + compressed / 1000 + " us");
+            }
+        }
+    }
+}
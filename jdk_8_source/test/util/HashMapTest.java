@@ -1,9 +1,15 @@
 package util;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.HashMap;
+import java.util.IntIntHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LongObjectHashMap;
 import java.util.Map;
+import java.util.Random;
 
 /**
  * @author dingchenchen
@@ -33,4 +39,120 @@ public class HashMapTest {
         }
         System.out.println(cache);
     }
+
+    /**
+     * 原始类型 key 的开放寻址 map 与 HashMap/LinkedHashMap 的简单对比：
+     * HashMap<Integer, Integer> 每次 put/get 都要装箱，并为每个映射分配一个 Node
+     */
+    @Test
+    public void benchmarkIntIntHashMap() {
+        int n = 1 << 20;
+        int[] keys = new int[n];
+        Random random = new Random(42);
+        for (int i = 0; i < n; i++) {
+            keys[i] = random.nextInt();
+        }
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            Map<Integer, Integer> hashMap = new HashMap<>();
+            for (int key : keys) {
+                hashMap.merge(key, 1, Integer::sum);
+            }
+            long sum = 0;
+            for (int key : keys) {
+                sum += hashMap.get(key);
+            }
+            long hashMapTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Map<Integer, Integer> linkedHashMap = new LinkedHashMap<>();
+            for (int key : keys) {
+                linkedHashMap.merge(key, 1, Integer::sum);
+            }
+            for (int key : keys) {
+                sum -= linkedHashMap.get(key);
+            }
+            long linkedHashMapTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            IntIntHashMap intIntHashMap = new IntIntHashMap();
+            for (int key : keys) {
+                intIntHashMap.addTo(key, 1);
+            }
+            for (int key : keys) {
+                sum += intIntHashMap.get(key);
+            }
+            long intIntHashMapTime = System.nanoTime() - start;
+
+            Assert.assertEquals(hashMap, intIntHashMap);
+            System.out.println("round " + round + ", sum " + sum
+                    + "\n  HashMap:       " + hashMapTime / 1000000 + " ms"
+                    + "\n  LinkedHashMap: " + linkedHashMapTime / 1000000 + " ms"
+                    + "\n  IntIntHashMap: " + intIntHashMapTime / 1000000 + " ms");
+        }
+    }
+
+    @Test
+    public void benchmarkLongObjectHashMap() {
+        int n = 1 << 20;
+        long[] keys = new long[n];
+        Random random = new Random(42);
+        for (int i = 0; i < n; i++) {
+            keys[i] = random.nextLong();
+        }
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            Map<Long, String> hashMap = new HashMap<>();
+            for (long key : keys) {
+                hashMap.put(key, "v");
+            }
+            int hits = 0;
+            for (long key : keys) {
+                if (hashMap.get(key) != null) {
+                    hits++;
+                }
+            }
+            long hashMapTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            LongObjectHashMap<String> longObjectHashMap = new LongObjectHashMap<>();
+            for (long key : keys) {
+                longObjectHashMap.put(key, "v");
+            }
+            for (long key : keys) {
+                if (longObjectHashMap.get(key) != null) {
+                    hits--;
+                }
+            }
+            long longObjectHashMapTime = System.nanoTime() - start;
+
+            Assert.assertEquals(0, hits);
+            Assert.assertEquals(hashMap, longObjectHashMap);
+            System.out.println("round " + round
+                    + "\n  HashMap:           " + hashMapTime / 1000000 + " ms"
+                    + "\n  LongObjectHashMap: " + longObjectHashMapTime / 1000000 + " ms");
+        }
+    }
+
+    @Test
+    public void testIntIntHashMapIteratorRemove() {
+        // 线性探测删除时会向前移动后续元素，迭代器删除后不能漏掉或重复访问元素
+        IntIntHashMap map = new IntIntHashMap(4);
+        for (int i = -50; i < 50; i++) {
+            map.put(i * 16, i);
+        }
+        int visited = 0;
+        for (Iterator<Map.Entry<Integer, Integer>> it = map.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, Integer> e = it.next();
+            visited++;
+            if ((e.getValue() & 1) == 0) {
+                it.remove();
+            }
+        }
+        Assert.assertEquals(100, visited);
+        Assert.assertEquals(50, map.size());
+        for (int i = -50; i < 50; i++) {
+            Assert.assertEquals((i & 1) != 0, map.containsKey(i * 16));
+        }
+    }
 }
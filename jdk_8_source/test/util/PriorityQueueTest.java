@@ -0,0 +1,384 @@
+package util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RelaxedPriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 优先队列测试：d 叉堆、批量建堆的 addAll、批量 drainTo，
+ * 以及分片的 RelaxedPriorityBlockingQueue 在多线程下不丢不重、顺序近似
+ * @since 2026/10/17
+ */
+public class PriorityQueueTest {
+
+    private static List<Integer> randomList(Random random, int n) {
+        List<Integer> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            list.add(random.nextInt(n + 1));
+        }
+        return list;
+    }
+
+    private static List<Integer> pollAll(PriorityQueue<Integer> queue) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer e; (e = queue.poll()) != null; ) {
+            list.add(e);
+        }
+        return list;
+    }
+
+    @Test
+    public void testArity() {
+        Random random = new Random(1);
+        for (int arity : new int[]{2, 3, 4, 8}) {
+            for (Comparator<Integer> comparator : Arrays.<Comparator<Integer>>asList(
+                    null, Comparator.reverseOrder())) {
+                for (int n : new int[]{0, 1, 2, 5, 17, 1000}) {
+                    List<Integer> list = randomList(random, n);
+                    List<Integer> expected = new ArrayList<>(list);
+                    expected.sort(comparator);
+
+                    PriorityQueue<Integer> queue = new PriorityQueue<>(1, comparator, arity);
+                    list.forEach(queue::offer);
+                    Assert.assertEquals(expected, pollAll(queue));
+
+                    // 删除中间元素后堆仍然有序
+                    queue.addAll(list);
+                    for (int i = 0; i < n / 3; i++) {
+                        Assert.assertTrue(queue.remove(list.get(i)));
+                    }
+                    List<Integer> rest = new ArrayList<>(list.subList(n / 3, n));
+                    rest.sort(comparator);
+                    Assert.assertEquals(rest, pollAll(new PriorityQueue<>(queue)));
+                    Assert.assertEquals(rest, pollAll(queue));
+                }
+            }
+        }
+        try {
+            new PriorityQueue<Integer>(1, null, 1);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testAddAll() {
+        Random random = new Random(2);
+        for (int arity : new int[]{2, 4}) {
+            for (int[] sizes : new int[][]{{0, 100}, {100, 10}, {100, 1000}, {3, 3}}) {
+                PriorityQueue<Integer> queue = new PriorityQueue<>(1, null, arity);
+                List<Integer> first = randomList(random, sizes[0]);
+                List<Integer> second = randomList(random, sizes[1]);
+                queue.addAll(first);
+                Assert.assertEquals(sizes[1] > 0, queue.addAll(second));
+                List<Integer> expected = new ArrayList<>(first);
+                expected.addAll(second);
+                Collections.sort(expected);
+                Assert.assertEquals(expected, pollAll(queue));
+            }
+        }
+        PriorityQueue<Integer> queue = new PriorityQueue<>();
+        queue.add(1);
+        try {
+            queue.addAll(Arrays.asList(2, null, 3));
+            Assert.fail();
+        } catch (NullPointerException expected) {
+        }
+        Assert.assertEquals(1, queue.size());
+    }
+
+    /**
+     * 批量建堆时遇到不可比较的元素，队列保持原样，仍按顺序取出
+     */
+    @Test
+    public void testAddAllNotComparable() {
+        List<Object> batch = Arrays.asList(1, 2, new Object(), 4, 6, 7, 9);
+        PriorityQueue<Object> queue = new PriorityQueue<>();
+        queue.addAll(Arrays.asList(5, 3, 8));
+        try {
+            queue.addAll(batch);
+            Assert.fail();
+        } catch (ClassCastException expected) {
+        }
+        Assert.assertEquals(3, queue.size());
+        queue.add(4);
+        List<Object> polled = new ArrayList<>();
+        for (Object e; (e = queue.poll()) != null; ) {
+            polled.add(e);
+        }
+        Assert.assertEquals(Arrays.asList(3, 4, 5, 8), polled);
+
+        PriorityBlockingQueue<Object> blocking = new PriorityBlockingQueue<>();
+        blocking.addAll(Arrays.asList(5, 3, 8));
+        try {
+            blocking.addAll(batch);
+            Assert.fail();
+        } catch (ClassCastException expected) {
+        }
+        Assert.assertEquals(3, blocking.size());
+        blocking.add(4);
+        polled.clear();
+        for (Object e; (e = blocking.poll()) != null; ) {
+            polled.add(e);
+        }
+        Assert.assertEquals(Arrays.asList(3, 4, 5, 8), polled);
+    }
+
+    @Test
+    public void testDrainTo() {
+        Random random = new Random(3);
+        for (int arity : new int[]{2, 4}) {
+            for (int max : new int[]{0, 1, 30, 60, 99, 100, 1000}) {
+                List<Integer> list = randomList(random, 100);
+                PriorityQueue<Integer> queue = new PriorityQueue<>(1, null, arity);
+                queue.addAll(list);
+                List<Integer> drained = new ArrayList<>();
+                Assert.assertEquals(Math.min(max, 100), queue.drainTo(drained, max));
+                Collections.sort(list);
+                Assert.assertEquals(list.subList(0, Math.min(max, 100)), drained);
+                drained.addAll(pollAll(queue));
+                Assert.assertEquals(list, drained);
+            }
+        }
+        // 目标集合 add 抛出异常时，没有加进去的元素留在队列中
+        PriorityQueue<Integer> queue = new PriorityQueue<>();
+        queue.addAll(Arrays.asList(5, 3, 9, 1, 7));
+        List<Integer> bounded = new ArrayList<Integer>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean add(Integer e) {
+                if (size() == 2) {
+                    throw new IllegalStateException();
+                }
+                return super.add(e);
+            }
+        };
+        try {
+            queue.drainTo(bounded, 5);
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+        Assert.assertEquals(Arrays.asList(1, 3), bounded);
+        Assert.assertEquals(Arrays.asList(5, 7, 9), pollAll(queue));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSerialization() throws Exception {
+        PriorityQueue<Integer> queue = new PriorityQueue<>(1, Comparator.reverseOrder(), 4);
+        queue.addAll(randomList(new Random(4), 500));
+        RelaxedPriorityBlockingQueue<Integer> relaxed = new RelaxedPriorityBlockingQueue<>(null, 3);
+        relaxed.addAll(randomList(new Random(5), 500));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(queue);
+            out.writeObject(relaxed);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            PriorityQueue<Integer> copy = (PriorityQueue<Integer>) in.readObject();
+            copy.addAll(randomList(new Random(6), 10));
+            queue.addAll(randomList(new Random(6), 10));
+            Assert.assertEquals(pollAll(queue), pollAll(copy));
+            RelaxedPriorityBlockingQueue<Integer> relaxedCopy =
+                    (RelaxedPriorityBlockingQueue<Integer>) in.readObject();
+            Assert.assertEquals(500, relaxedCopy.size());
+            Object[] expected = relaxed.toArray(), actual = relaxedCopy.toArray();
+            Arrays.sort(expected);
+            Arrays.sort(actual);
+            Assert.assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testBlockingQueueBulk() throws Exception {
+        Random random = new Random(7);
+        PriorityBlockingQueue<Integer> queue = new PriorityBlockingQueue<>();
+        List<Integer> all = new ArrayList<>();
+        for (int n : new int[]{5, 100, 20, 0, 3000}) {
+            List<Integer> list = randomList(random, n);
+            Assert.assertEquals(n > 0, queue.addAll(list));
+            all.addAll(list);
+        }
+        Collections.sort(all);
+        List<Integer> drained = new ArrayList<>();
+        Assert.assertEquals(100, queue.drainTo(drained, 100));
+        Assert.assertEquals(all.size() - 100, queue.drainTo(drained));
+        Assert.assertEquals(all, drained);
+        Assert.assertEquals(0, queue.drainTo(drained));
+        queue.add(3);
+        queue.add(1);
+        Assert.assertEquals(Integer.valueOf(1), queue.take());
+        Assert.assertEquals(Integer.valueOf(3), queue.take());
+
+        // 整体取出时目标集合 add 抛出异常，没有加进去的元素放回队列
+        queue.addAll(Arrays.asList(5, 3, 9, 1, 7));
+        List<Integer> bounded = new ArrayList<Integer>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean add(Integer e) {
+                if (size() == 2) {
+                    throw new IllegalStateException();
+                }
+                return super.add(e);
+            }
+        };
+        try {
+            queue.drainTo(bounded);
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+        Assert.assertEquals(Arrays.asList(1, 3), bounded);
+        Assert.assertEquals(3, queue.size());
+        drained.clear();
+        Assert.assertEquals(3, queue.drainTo(drained));
+        Assert.assertEquals(Arrays.asList(5, 7, 9), drained);
+    }
+
+    @Test
+    public void testRelaxedSingleThread() throws Exception {
+        Random random = new Random(8);
+        int n = 20000;
+        RelaxedPriorityBlockingQueue<Integer> queue = new RelaxedPriorityBlockingQueue<>(null, 4);
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(i);
+        }
+        Collections.shuffle(list, random);
+        list.forEach(queue::add);
+        Assert.assertEquals(n, queue.size());
+        Assert.assertEquals(Integer.valueOf(0), queue.peek());
+        Assert.assertTrue(queue.contains(123));
+        Assert.assertTrue(queue.remove(123));
+        Assert.assertFalse(queue.contains(123));
+        // 取出的元素和当前最小元素的名次差，平均应当远小于元素个数
+        boolean[] taken = new boolean[n];
+        taken[123] = true;
+        long rankError = 0;
+        int least = 0;
+        for (int i = 0; i < n - 1; i++) {
+            int e = queue.poll();
+            Assert.assertFalse(taken[e]);
+            taken[e] = true;
+            while (taken[least] && least < n - 1) {
+                least++;
+            }
+            rankError += Math.max(0, e - least);
+        }
+        Assert.assertNull(queue.poll());
+        Assert.assertEquals(0, queue.size());
+        double averageRankError = (double) rankError / n;
+        Assert.assertTrue("average rank error " + averageRankError, averageRankError < 64);
+        Assert.assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+
+        queue.addAll(Arrays.asList(4, 2, 6));
+        List<Integer> drained = new ArrayList<>();
+        Assert.assertEquals(3, queue.drainTo(drained));
+        Collections.sort(drained);
+        Assert.assertEquals(Arrays.asList(2, 4, 6), drained);
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testRelaxedConcurrent() throws Exception {
+        int producers = 3, consumers = 3, perProducer = 20000;
+        int total = producers * perProducer;
+        RelaxedPriorityBlockingQueue<Integer> queue = new RelaxedPriorityBlockingQueue<>(null, 4);
+        AtomicIntegerArray seen = new AtomicIntegerArray(total);
+        CountDownLatch done = new CountDownLatch(producers + consumers);
+        ForkJoinPool pool = new ForkJoinPool(producers + consumers);
+        Collection<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            pool.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    queue.put(base + i);
+                }
+                done.countDown();
+            });
+        }
+        for (int c = 0; c < consumers; c++) {
+            int share = total / consumers;
+            pool.execute(() -> {
+                try {
+                    for (int i = 0; i < share; i++) {
+                        Integer e = queue.poll(10, TimeUnit.SECONDS);
+                        if (e == null) {
+                            throw new AssertionError("timed out");
+                        }
+                        if (seen.getAndIncrement(e) != 0) {
+                            throw new AssertionError("duplicate " + e);
+                        }
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+                done.countDown();
+            });
+        }
+        Assert.assertTrue(done.await(60, TimeUnit.SECONDS));
+        pool.shutdown();
+        Assert.assertTrue(failures.toString(), failures.isEmpty());
+        for (int i = 0; i < total; i++) {
+            Assert.assertEquals(1, seen.get(i));
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * 对比二叉堆和四叉堆在大队列上插入、取出的耗时
+     */
+    @Test
+    public void benchmarkArity() {
+        Random random = new Random(9);
+        int n = 2000000;
+        Integer[] values = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextInt();
+        }
+        List<Integer> list = Arrays.asList(values);
+        for (int round = 0; round < 4; round++) {
+            StringBuilder line = new StringBuilder("round " + (round - 2) + ":");
+            for (int arity : new int[]{2, 4}) {
+                PriorityQueue<Integer> queue = new PriorityQueue<>(11, null, arity);
+                long begin = System.nanoTime();
+                for (Integer e : values) {
+                    queue.offer(e);
+                }
+                long offer = System.nanoTime() - begin;
+                begin = System.nanoTime();
+                while (queue.poll() != null) {
+                }
+                long poll = System.nanoTime() - begin;
+                begin = System.nanoTime();
+                queue.addAll(list);
+                long addAll = System.nanoTime() - begin;
+                line.append(" arity ").append(arity).append(" offer ").append(offer / 1000000)
+                        .append(" ms, poll ").append(poll / 1000000).append(" ms, addAll ")
+                        .append(addAll / 1000000).append(" ms;");
+            }
+            if (round >= 2) {
+                System.out.println(line);
+            }
+        }
+    }
+}
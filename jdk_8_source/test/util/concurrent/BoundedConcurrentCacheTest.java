@@ -0,0 +1,169 @@
+package util.concurrent;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BoundedConcurrentCache;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 ConcurrentHashMap 的有界并发缓存（W-TinyLFU 淘汰）测试，
+ * 对比常见的 LinkedHashMap(accessOrder) + removeEldestEntry + Collections.synchronizedMap 写法
+ * @since 2026/10/17
+ */
+public class BoundedConcurrentCacheTest {
+
+    private static final int CAPACITY = 1000;
+
+    private static Map<Integer, Integer> synchronizedLru(final int capacity) {
+        return Collections.synchronizedMap(new LinkedHashMap<Integer, Integer>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    /**
+     * 生成 Zipf 分布的访问序列，每 10000 次访问中穿插 2000 次只访问一次的扫描，
+     * LRU 会被扫描冲掉热点数据，TinyLFU 的准入策略可以挡住这些低频 key
+     */
+    private static int[] zipfWithScans(int length) {
+        double[] cdf = new double[50000];
+        double sum = 0;
+        for (int i = 0; i < cdf.length; i++) {
+            sum += 1.0 / Math.pow(i + 1, 0.9);
+            cdf[i] = sum;
+        }
+        Random random = new Random(1);
+        int[] keys = new int[length];
+        int scan = cdf.length;
+        for (int i = 0; i < length; i++) {
+            if (i % 10000 < 2000) {
+                keys[i] = scan++;
+            } else {
+                int idx = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+                keys[i] = idx < 0 ? -idx - 1 : idx;
+            }
+        }
+        return keys;
+    }
+
+    @Test
+    public void testHitRateAgainstLru() {
+        int[] keys = zipfWithScans(1000000);
+        BoundedConcurrentCache<Integer, Integer> cache = new BoundedConcurrentCache<Integer, Integer>(CAPACITY);
+        Map<Integer, Integer> lru = synchronizedLru(CAPACITY);
+        long lruHits = 0;
+        for (int key : keys) {
+            if (cache.get(key) == null) {
+                cache.put(key, key);
+            }
+            if (lru.get(key) != null) {
+                lruHits++;
+            } else {
+                lru.put(key, key);
+            }
+        }
+        cache.cleanUp();
+        double lruHitRate = (double) lruHits / keys.length;
+        System.out.println("W-TinyLFU: " + cache.stats());
+        System.out.println("LRU hit rate = " + lruHitRate);
+        Assert.assertTrue(cache.mappingCount() <= CAPACITY);
+        Assert.assertTrue(cache.stats().hitRate() > lruHitRate);
+    }
+
+    @Test
+    public void testWeightAndExpiration() throws InterruptedException {
+        BoundedConcurrentCache<Integer, String> cache = new BoundedConcurrentCache<Integer, String>(
+                100, (k, v) -> v.length(), 0L, 50L, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "0123456789");
+        }
+        cache.cleanUp();
+        // 权重总和不超过 100，也就是最多留下 10 个 entry
+        Assert.assertTrue(cache.weightedSize() <= 100);
+        Assert.assertTrue(cache.mappingCount() <= 10);
+        Thread.sleep(100);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertNull(cache.get(i));
+        }
+        // 过期的 entry 由时间轮在下一个 tick（约 1 秒）后清理
+        Thread.sleep(2200);
+        cache.cleanUp();
+        System.out.println(cache);
+        Assert.assertEquals(0, cache.mappingCount());
+    }
+
+    /**
+     * 多线程读：synchronizedMap 包装的 LRU 每次 get 都要持锁调整链表，
+     * BoundedConcurrentCache 的读只写入条带化的读缓冲区
+     */
+    @Test
+    public void benchmarkConcurrentReads() throws InterruptedException {
+        final int[] keys = zipfWithScans(1 << 20);
+        final BoundedConcurrentCache<Integer, Integer> cache =
+                new BoundedConcurrentCache<Integer, Integer>(CAPACITY * 10);
+        final Map<Integer, Integer> lru = synchronizedLru(CAPACITY * 10);
+        for (int i = 0; i < CAPACITY * 10; i++) {
+            cache.put(i, i);
+            lru.put(i, i);
+        }
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        for (int round = 0; round < 3; round++) {
+            long cacheTime = runReaders(threads, keys, new Reader() {
+                public Integer read(Integer key) {
+                    return cache.get(key);
+                }
+            });
+            long lruTime = runReaders(threads, keys, new Reader() {
+                public Integer read(Integer key) {
+                    return lru.get(key);
+                }
+            });
+            System.out.println("round " + round + ": BoundedConcurrentCache " + cacheTime / 1000000
+                    + " ms, synchronized LinkedHashMap " + lruTime / 1000000 + " ms");
+        }
+    }
+
+    interface Reader {
+        Integer read(Integer key);
+    }
+
+    private static long runReaders(int threads, final int[] keys, final Reader reader)
+            throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * 7919;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < keys.length; i++) {
+                        reader.read(keys[(i + offset) & (keys.length - 1)]);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - begin;
+    }
+}
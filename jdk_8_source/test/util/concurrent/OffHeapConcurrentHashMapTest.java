@@ -0,0 +1,126 @@
+package util.concurrent;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.OffHeapConcurrentHashMap;
+import java.util.concurrent.OffHeapConcurrentHashMapMXBean;
+
+/**
+ * 堆外 ConcurrentHashMap 测试：key/value 存放在 DirectByteBuffer slab 中，不占用堆内存
+ * @since 2026/10/17
+ */
+public class OffHeapConcurrentHashMapTest {
+
+    private static ByteBuffer key(int i) {
+        ByteBuffer b = ByteBuffer.allocate(4);
+        b.putInt(i).flip();
+        return b;
+    }
+
+    private static ByteBuffer value(int i, int len) {
+        ByteBuffer b = ByteBuffer.allocate(len);
+        for (int j = 0; j < len; j++) {
+            b.put((byte) (i + j));
+        }
+        b.flip();
+        return b;
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        OffHeapConcurrentHashMap map = new OffHeapConcurrentHashMap(16, 4096);
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertFalse(map.put(key(i), value(i, i % 100)));
+        }
+        Assert.assertEquals(10000, map.mappingCount());
+        // get 返回的是 slab 内的只读视图，没有拷贝
+        ByteBuffer v = map.get(key(42));
+        Assert.assertTrue(v.isReadOnly());
+        Assert.assertEquals(value(42, 42), v);
+        Assert.assertTrue(map.put(key(42), value(0, 10)));
+        ByteBuffer dst = ByteBuffer.allocate(64);
+        Assert.assertEquals(10, map.get(key(42), dst));
+        dst.flip();
+        Assert.assertEquals(value(0, 10), dst);
+        Assert.assertFalse(map.putIfAbsent(key(42), value(1, 1)));
+        for (int i = 0; i < 10000; i += 2) {
+            Assert.assertTrue(map.remove(key(i)));
+        }
+        Assert.assertNull(map.get(key(42)));
+        Assert.assertEquals(5000, map.size());
+        System.out.println(map);
+    }
+
+    /**
+     * 删除一半 entry 后 slab 占用率下降，compact 把存活 entry 搬到新 slab，空出来的 slab 可以复用或释放
+     */
+    @Test
+    public void testCompact() {
+        OffHeapConcurrentHashMap map = new OffHeapConcurrentHashMap(16, 4096);
+        OffHeapConcurrentHashMapMXBean stats = map.getMXBean();
+        for (int i = 0; i < 20000; i++) {
+            map.put(key(i), value(i, 64));
+        }
+        for (int i = 0; i < 20000; i++) {
+            if (i % 4 != 0) {
+                map.remove(key(i));
+            }
+        }
+        System.out.println("before compact: slabs = " + stats.getSlabCount()
+                + ", occupancy = " + stats.getOccupancy());
+        int freed = map.compact(0.5);
+        int trimmed = map.trimFreeSlabs();
+        System.out.println("after compact: freed = " + freed + ", trimmed = " + trimmed
+                + ", slabs = " + stats.getSlabCount() + ", occupancy = " + stats.getOccupancy());
+        Assert.assertTrue(freed > 0);
+        Assert.assertEquals(freed, trimmed);
+        for (int i = 0; i < 20000; i++) {
+            ByteBuffer v = map.get(key(i));
+            if (i % 4 == 0) {
+                Assert.assertEquals(value(i, 64), v);
+            } else {
+                Assert.assertNull(v);
+            }
+        }
+    }
+
+    @Test
+    public void benchmarkOffHeapVsConcurrentHashMap() {
+        int n = 1000000;
+        for (int round = 0; round < 3; round++) {
+            long begin = System.nanoTime();
+            ConcurrentHashMap<Integer, byte[]> chm = new ConcurrentHashMap<Integer, byte[]>();
+            for (int i = 0; i < n; i++) {
+                chm.put(i, new byte[32]);
+            }
+            long sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += chm.get(i).length;
+            }
+            long chmTime = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            OffHeapConcurrentHashMap offHeap = new OffHeapConcurrentHashMap();
+            ByteBuffer k = ByteBuffer.allocate(4);
+            ByteBuffer v = ByteBuffer.allocate(32);
+            for (int i = 0; i < n; i++) {
+                k.clear();
+                k.putInt(i).flip();
+                offHeap.put(k, v);
+            }
+            for (int i = 0; i < n; i++) {
+                k.clear();
+                k.putInt(i).flip();
+                sum += offHeap.get(k).remaining();
+            }
+            long offHeapTime = System.nanoTime() - begin;
+            Assert.assertEquals(2L * n * 32, sum);
+            System.out.println("round " + round + ": ConcurrentHashMap " + chmTime / 1000000
+                    + " ms, OffHeapConcurrentHashMap " + offHeapTime / 1000000 + " ms, "
+                    + offHeap.getMXBean().getReservedBytes() / (1 << 20) + " MiB off-heap");
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package util.concurrent;
 
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -50,6 +60,122 @@ public class ScheduledExecutorServiceTest {
         System.out.println("scheduledFuture.get():" + scheduledFuture.get());
         System.out.println("hello world");
     }
+
+    /**
+     * 时间轮队列：传入 tick 时长的构造函数用分层时间轮代替二叉堆保存延迟任务
+     */
+    private static ScheduledThreadPoolExecutor newExecutor(int threads, boolean timerWheel) {
+        ThreadFactory threadFactory = new ThreadFactoryImpl(timerWheel ? "TimerWheel" : "DelayedWorkQueue", true);
+        if (timerWheel) {
+            return new ScheduledThreadPoolExecutor(threads, threadFactory,
+                    new ThreadPoolExecutor.AbortPolicy(), 1, TimeUnit.MILLISECONDS);
+        }
+        return new ScheduledThreadPoolExecutor(threads, threadFactory);
+    }
+
+    /**
+     * 时间轮只影响任务在队列中的组织方式，任务仍然不早于触发时间、按触发时间的先后执行，周期任务照常重新入队
+     */
+    @Test
+    public void testTimerWheelSemantics() throws Exception {
+        ScheduledThreadPoolExecutor executor = newExecutor(1, true);
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger early = new AtomicInteger();
+        final ScheduledFuture<?>[] futures = new ScheduledFuture<?>[500];
+        Random random = new Random(7);
+        for (int i = 0; i < futures.length; i++) {
+            final int index = i;
+            futures[i] = executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (futures[index].getDelay(TimeUnit.NANOSECONDS) > 0) {
+                        early.incrementAndGet();
+                    }
+                    order.add(index);
+                }
+            }, 50 + random.nextInt(300), TimeUnit.MILLISECONDS);
+        }
+        final AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> periodic = executor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }, 0, 20, TimeUnit.MILLISECONDS);
+
+        executor.setRemoveOnCancelPolicy(true);
+        ScheduledFuture<?> far = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 1, TimeUnit.HOURS);
+        Assert.assertTrue(executor.getQueue().contains(far));
+        Assert.assertTrue(far.cancel(false));
+        Assert.assertFalse(executor.getQueue().contains(far));
+
+        Thread.sleep(600);
+        periodic.cancel(false);
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        System.out.println("periodic runs = " + runs.get());
+        Assert.assertEquals(0, early.get());
+        Assert.assertEquals(futures.length, order.size());
+        for (int i = 1; i < order.size(); i++) {
+            Assert.assertTrue(futures[order.get(i - 1)].compareTo(futures[order.get(i)]) < 0);
+        }
+        Assert.assertTrue(runs.get() >= 20);
+    }
+
+    /**
+     * 大量超时任务：注册后在到期前取消（setRemoveOnCancelPolicy），二叉堆每次 schedule/cancel 都是 O(log n)，
+     * 时间轮是 O(1)；再比较一批任务集中到期时的执行耗时
+     */
+    @Test
+    public void benchmarkTimerWheelVsDelayedWorkQueue() throws InterruptedException {
+        final int n = 500000;
+        for (int round = 0; round < 3; round++) {
+            for (boolean timerWheel : new boolean[] {false, true}) {
+                ScheduledThreadPoolExecutor executor = newExecutor(2, timerWheel);
+                executor.setRemoveOnCancelPolicy(true);
+                Runnable timeout = new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                };
+                Random random = new Random(round);
+                ScheduledFuture<?>[] futures = new ScheduledFuture<?>[n];
+                long begin = System.nanoTime();
+                for (int i = 0; i < n; i++) {
+                    futures[i] = executor.schedule(timeout, 10000 + random.nextInt(50000), TimeUnit.MILLISECONDS);
+                }
+                long scheduleTime = System.nanoTime() - begin;
+                begin = System.nanoTime();
+                for (int i = 0; i < n; i++) {
+                    futures[i].cancel(false);
+                }
+                long cancelTime = System.nanoTime() - begin;
+                Assert.assertEquals(0, executor.getQueue().size());
+
+                final CountDownLatch done = new CountDownLatch(n / 5);
+                Runnable expiry = new Runnable() {
+                    @Override
+                    public void run() {
+                        done.countDown();
+                    }
+                };
+                begin = System.nanoTime();
+                for (int i = 0; i < n / 5; i++) {
+                    executor.schedule(expiry, random.nextInt(200), TimeUnit.MILLISECONDS);
+                }
+                done.await();
+                long expiryTime = System.nanoTime() - begin;
+                executor.shutdownNow();
+                System.out.println("round " + round + ", " + (timerWheel ? "TimerWheelWorkQueue" : "DelayedWorkQueue")
+                        + ": schedule " + scheduleTime / 1000000 + " ms, cancel " + cancelTime / 1000000
+                        + " ms, expire " + n / 5 + " tasks in " + expiryTime / 1000000 + " ms");
+            }
+        }
+    }
 }
 class ThreadFactoryImpl implements ThreadFactory {
     private final AtomicLong threadIndex = new AtomicLong(0);
@@ -1,13 +1,26 @@
 package util.concurrent;
 
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RingBufferBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * @author dingchenchen
@@ -134,4 +147,389 @@ public class ThreadPoolExecutorTest {
             }
         });
     }
+
+    /**
+     * 多个提交线程同时向线程池提交大量小任务，对比不同 workQueue 的提交吞吐：
+     * LinkedBlockingQueue/ArrayBlockingQueue 每次入队出队都要获取 ReentrantLock，
+     * RingBufferBlockingQueue 只在队列空或满需要阻塞时才用到锁
+     */
+    @Test
+    public void benchmarkWorkQueueContention() throws InterruptedException {
+        int producers = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int tasksPerProducer = 200000;
+        for (int round = 0; round < 3; round++) {
+            System.out.println("round " + round);
+            runContention("LinkedBlockingQueue", new LinkedBlockingQueue<Runnable>(4096),
+                    producers, tasksPerProducer, false);
+            runContention("ArrayBlockingQueue", new ArrayBlockingQueue<Runnable>(4096),
+                    producers, tasksPerProducer, false);
+            runContention("RingBufferBlockingQueue", new RingBufferBlockingQueue<Runnable>(4096),
+                    producers, tasksPerProducer, false);
+        }
+    }
+
+    /**
+     * RingBufferBlockingQueue 从中间删除元素后，后面的元素前移，
+     * size、isEmpty、remainingCapacity 立即反映删除，腾出的槽位马上可以再放入元素
+     */
+    @Test
+    public void testRingBufferRemoveCompacts() {
+        RingBufferBlockingQueue<Integer> q = new RingBufferBlockingQueue<Integer>(4);
+        for (int round = 0; round < 3; round++) {
+            // 每轮绕环一圈，覆盖头尾跨越数组末尾的情况
+            Assert.assertTrue(q.offer(1));
+            Assert.assertTrue(q.offer(2));
+            Assert.assertTrue(q.offer(3));
+            Assert.assertTrue(q.offer(4));
+            Assert.assertFalse(q.offer(5));
+            Assert.assertTrue(q.remove(2));
+            Assert.assertFalse(q.remove(2));
+            Assert.assertEquals(3, q.size());
+            Assert.assertEquals(1, q.remainingCapacity());
+            Assert.assertTrue(q.offer(5));
+            Assert.assertFalse(q.offer(6));
+            Assert.assertEquals(java.util.Arrays.asList(1, 3, 4, 5), new ArrayList<Integer>(q));
+
+            java.util.Iterator<Integer> it = q.iterator();
+            Assert.assertEquals(1, (int) it.next());
+            Assert.assertEquals(3, (int) it.next());
+            it.remove();
+            Assert.assertEquals(4, (int) it.next());
+            Assert.assertEquals(5, (int) it.next());
+            Assert.assertFalse(it.hasNext());
+            Assert.assertEquals(3, q.size());
+            Assert.assertEquals(1, (int) q.peek());
+
+            Assert.assertTrue(q.remove(5));
+            Assert.assertTrue(q.remove(1));
+            Assert.assertEquals(4, (int) q.poll());
+            Assert.assertTrue(q.isEmpty());
+            Assert.assertEquals(4, q.remainingCapacity());
+            Assert.assertNull(q.poll());
+            Assert.assertTrue(q.offer(round));
+            Assert.assertTrue(q.remove(round));
+            Assert.assertTrue(q.isEmpty());
+        }
+    }
+
+    /**
+     * RingBufferBlockingQueue 的 drainTo 在目标集合 add 抛出异常时，没有加进去的元素留在队列中
+     */
+    @Test
+    public void testRingBufferDrainToFailure() {
+        RingBufferBlockingQueue<Integer> q = new RingBufferBlockingQueue<Integer>(4);
+        q.offer(0);
+        q.poll();
+        for (int i = 1; i <= 4; i++) {
+            Assert.assertTrue(q.offer(i));
+        }
+        List<Integer> bounded = new ArrayList<Integer>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean add(Integer e) {
+                if (size() == 2) {
+                    throw new IllegalStateException();
+                }
+                return super.add(e);
+            }
+        };
+        try {
+            q.drainTo(bounded);
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+        Assert.assertEquals(java.util.Arrays.asList(1, 2), bounded);
+        Assert.assertEquals(2, q.size());
+        Assert.assertEquals(2, q.remainingCapacity());
+        Assert.assertTrue(q.offer(5));
+        List<Integer> drained = new ArrayList<Integer>();
+        Assert.assertEquals(2, q.drainTo(drained, 2));
+        Assert.assertEquals(1, q.drainTo(drained));
+        Assert.assertEquals(java.util.Arrays.asList(3, 4, 5), drained);
+        Assert.assertTrue(q.isEmpty());
+    }
+
+    /**
+     * 生产者、消费者与删除线程并发操作，每个元素恰好被消费或删除一次
+     */
+    @Test
+    public void testRingBufferConcurrentRemove() throws InterruptedException {
+        final RingBufferBlockingQueue<Integer> q = new RingBufferBlockingQueue<Integer>(64);
+        final int n = 200000;
+        final boolean[] seen = new boolean[n];
+        final LongAdder duplicates = new LongAdder();
+        final LongAdder taken = new LongAdder();
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < n; i++) {
+                    q.put(i);
+                }
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        Thread consumer = new Thread(() -> {
+            try {
+                while (taken.sum() < n) {
+                    Integer x = q.poll(10, TimeUnit.MILLISECONDS);
+                    if (x != null) {
+                        record(seen, x, duplicates);
+                        taken.increment();
+                    }
+                }
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        Thread remover = new Thread(() -> {
+            java.util.Random random = new java.util.Random(1);
+            while (taken.sum() < n) {
+                Integer head = q.peek();
+                if (head == null) {
+                    Thread.yield();
+                    continue;
+                }
+                Integer x = head + random.nextInt(64);
+                if (x < n && q.remove(x)) {
+                    record(seen, x, duplicates);
+                    taken.increment();
+                }
+            }
+        });
+        producer.start();
+        consumer.start();
+        remover.start();
+        producer.join();
+        consumer.join();
+        remover.join();
+        Assert.assertEquals(0, duplicates.sum());
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(seen[i]);
+        }
+        Assert.assertTrue(q.isEmpty());
+    }
+
+    private static void record(boolean[] seen, int x, LongAdder duplicates) {
+        synchronized (seen) {
+            if (seen[x]) {
+                duplicates.increment();
+            }
+            seen[x] = true;
+        }
+    }
+
+    /**
+     * 条带化线程池：任务分散到每个 worker 的无锁队列中，空闲 worker 从其他队列窃取任务
+     */
+    @Test
+    public void benchmarkStripedExecutor() throws InterruptedException {
+        int producers = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int tasksPerProducer = 200000;
+        for (int round = 0; round < 3; round++) {
+            System.out.println("round " + round);
+            runContention("LinkedBlockingQueue", new LinkedBlockingQueue<Runnable>(4096),
+                    producers, tasksPerProducer, false);
+            runContention("LinkedBlockingQueue striped", new LinkedBlockingQueue<Runnable>(4096),
+                    producers, tasksPerProducer, true);
+            runContention("LinkedBlockingQueue unbounded striped", new LinkedBlockingQueue<Runnable>(),
+                    producers, tasksPerProducer, true);
+        }
+    }
+
+    /**
+     * 条带化后队列总容量不变：核心线程忙、队列满时仍然走拒绝策略
+     */
+    @Test
+    public void testStripedExecutorRejection() throws InterruptedException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(8), Executors.defaultThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy(), true);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    gate.await();
+                } catch (InterruptedException ignore) {
+                }
+            }
+        });
+        int rejected = 0;
+        for (int i = 0; i < 20; i++) {
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rejected++;
+            }
+        }
+        System.out.println(executor);
+        Assert.assertEquals(12, rejected);
+        Assert.assertEquals(8, executor.shutdownNow().size());
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    private static List<Callable<Integer>> squares(int n) {
+        List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>(n);
+        for (int i = 0; i < n; i++) {
+            final int x = i;
+            tasks.add(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    return x * x;
+                }
+            });
+        }
+        return tasks;
+    }
+
+    /**
+     * submitAll 批量提交：返回一个聚合的 Future，结果顺序与提交顺序一致，
+     * 任一任务抛异常时 get 抛出 ExecutionException
+     */
+    @Test
+    public void testSubmitAll() throws Exception {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (AbstractExecutorService service : new AbstractExecutorService[] {executor, pool}) {
+            List<Integer> results = service.submitAll(squares(10000)).get();
+            Assert.assertEquals(10000, results.size());
+            for (int i = 0; i < results.size(); i++) {
+                Assert.assertEquals(i * i, results.get(i).intValue());
+            }
+            Assert.assertTrue(service.submitAll(Collections.<Callable<Integer>>emptyList()).get().isEmpty());
+
+            List<Callable<Integer>> tasks = squares(100);
+            tasks.set(50, new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    throw new IllegalStateException("task 50");
+                }
+            });
+            try {
+                service.submitAll(tasks).get();
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+
+        // 取消后尚未开始的任务不再执行
+        final CountDownLatch gate = new CountDownLatch(1);
+        ThreadPoolExecutor single = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        final LongAdder ran = new LongAdder();
+        List<Callable<Integer>> blocking = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < 10; i++) {
+            blocking.add(new Callable<Integer>() {
+                @Override
+                public Integer call() throws InterruptedException {
+                    ran.increment();
+                    gate.await();
+                    return 0;
+                }
+            });
+        }
+        Future<List<Integer>> batch = single.submitAll(blocking);
+        Thread.sleep(100);
+        Assert.assertTrue(batch.cancel(false));
+        Assert.assertTrue(batch.isCancelled());
+        gate.countDown();
+        single.shutdown();
+        Assert.assertTrue(single.awaitTermination(1, TimeUnit.SECONDS));
+        Assert.assertEquals(1, ran.sum());
+
+        executor.shutdown();
+        pool.shutdown();
+    }
+
+    /**
+     * 一万个小任务：逐个 submit 每个任务都要分配 FutureTask、入队并可能唤醒 worker，
+     * submitAll 只按线程数入队几个句柄，由 worker 分摊领取任务
+     */
+    @Test
+    public void benchmarkSubmitAll() throws Exception {
+        int workers = Math.max(4, Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        List<Callable<Integer>> tasks = squares(10000);
+        for (int round = 0; round < 5; round++) {
+            for (AbstractExecutorService service : new AbstractExecutorService[] {executor, pool}) {
+                long begin = System.nanoTime();
+                for (int rep = 0; rep < 20; rep++) {
+                    List<Future<Integer>> futures = new ArrayList<Future<Integer>>(tasks.size());
+                    for (Callable<Integer> task : tasks) {
+                        futures.add(service.submit(task));
+                    }
+                    for (Future<Integer> future : futures) {
+                        future.get();
+                    }
+                }
+                long submitTime = System.nanoTime() - begin;
+                begin = System.nanoTime();
+                for (int rep = 0; rep < 20; rep++) {
+                    Assert.assertEquals(tasks.size(), service.submitAll(tasks).get().size());
+                }
+                long submitAllTime = System.nanoTime() - begin;
+                System.out.println("round " + round + ", " + service.getClass().getSimpleName()
+                        + ": submit " + submitTime / 1000000 + " ms, submitAll " + submitAllTime / 1000000 + " ms");
+            }
+        }
+        executor.shutdown();
+        pool.shutdown();
+    }
+
+    private static void runContention(String name, BlockingQueue<Runnable> workQueue,
+                                      int producers, final int tasksPerProducer,
+                                      boolean striped)
+            throws InterruptedException {
+        int workers = Runtime.getRuntime().availableProcessors();
+        // 队列满时由提交线程自己执行任务，保证所有任务都被执行
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 0L,
+                TimeUnit.MILLISECONDS, workQueue, Executors.defaultThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy(), striped);
+        executor.prestartAllCoreThreads();
+        final LongAdder executed = new LongAdder();
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                executed.increment();
+            }
+        };
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < tasksPerProducer; j++) {
+                        executor.execute(task);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - begin;
+        Assert.assertEquals((long) producers * tasksPerProducer, executed.sum());
+        System.out.println("  " + name + ": " + elapsed / 1000000 + " ms, "
+                + (long) producers * tasksPerProducer * 1000000000L / elapsed + " tasks/s");
+    }
 }
@@ -0,0 +1,167 @@
+package util.concurrent.atomic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdderArray;
+
+/**
+ * 按计数器 id 索引、每个计数器独占缓存行并在竞争时按线程分散到 Striped64.Cell 的计数器数组测试，
+ * 对比相邻元素伪共享的 AtomicLongArray
+ * @since 2026/10/17
+ */
+public class LongAdderArrayTest {
+
+    private static final int COUNTERS = 4096;
+
+    @Test
+    public void testConcurrentAdds() throws InterruptedException {
+        final LongAdderArray counters = new LongAdderArray(COUNTERS);
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        final int perThread = 200000;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    // 所有线程集中更新前 8 个计数器，制造竞争
+                    counters.increment(i & 7);
+                    counters.add(8 + (i % (COUNTERS - 8)), 2L);
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        // 写线程运行期间做快照，不会阻塞写线程，读到的值单调不减
+        long previous = 0;
+        for (int s = 0; s < 100; s++) {
+            long[] snapshot = counters.snapshot();
+            long total = 0;
+            for (long v : snapshot) {
+                total += v;
+            }
+            Assert.assertTrue(total >= previous);
+            previous = total;
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long[] snapshot = counters.snapshot(new long[COUNTERS]);
+        long expectedHot = (long) threads * perThread / 8;
+        for (int i = 0; i < 8; i++) {
+            Assert.assertEquals(expectedHot, snapshot[i]);
+            Assert.assertEquals(expectedHot, counters.sum(i));
+        }
+        long total = 0;
+        for (int i = 8; i < COUNTERS; i++) {
+            total += snapshot[i];
+        }
+        Assert.assertEquals(2L * threads * perThread, total);
+
+        Assert.assertEquals(expectedHot, counters.sumThenReset(3));
+        Assert.assertEquals(0L, counters.sum(3));
+        counters.reset();
+        for (long v : counters.snapshot()) {
+            Assert.assertEquals(0L, v);
+        }
+    }
+
+    @Test
+    public void testBoundsAndSerialization() throws Exception {
+        LongAdderArray counters = new LongAdderArray(3);
+        counters.add(0, 5L);
+        counters.decrement(2);
+        Assert.assertEquals("[5, 0, -1]", counters.toString());
+        try {
+            counters.increment(3);
+            Assert.fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(counters);
+        out.close();
+        LongAdderArray copy = (LongAdderArray) new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        Assert.assertEquals(3, copy.length());
+        Assert.assertEquals("[5, 0, -1]", copy.toString());
+        Assert.assertEquals("[]", new LongAdderArray(0).toString());
+    }
+
+    /**
+     * 每个线程只更新自己的计数器（相邻下标），AtomicLongArray 中这些元素落在同一缓存行上互相伪共享；
+     * 所有线程更新同一个计数器时 AtomicLongArray 的 CAS 竞争更严重
+     */
+    @Test
+    public void benchmarkAgainstAtomicLongArray() throws InterruptedException {
+        final int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        final int perThread = 2000000;
+        for (int round = 0; round < 3; round++) {
+            for (final boolean shared : new boolean[]{false, true}) {
+                final AtomicLongArray atomic = new AtomicLongArray(COUNTERS);
+                final LongAdderArray adders = new LongAdderArray(COUNTERS);
+                long atomicTime = run(threads, new Updater() {
+                    public void update(int thread) {
+                        int i = shared ? 0 : thread;
+                        for (int k = 0; k < perThread; k++) {
+                            atomic.incrementAndGet(i);
+                        }
+                    }
+                });
+                long adderTime = run(threads, new Updater() {
+                    public void update(int thread) {
+                        int i = shared ? 0 : thread;
+                        for (int k = 0; k < perThread; k++) {
+                            adders.increment(i);
+                        }
+                    }
+                });
+                Assert.assertEquals(shared ? (long) threads * perThread : perThread, adders.sum(0));
+                System.out.println("round " + round + (shared ? " same counter" : " adjacent counters")
+                        + ": AtomicLongArray " + atomicTime / 1000000 + " ms, LongAdderArray "
+                        + adderTime / 1000000 + " ms");
+            }
+        }
+    }
+
+    interface Updater {
+        void update(int thread);
+    }
+
+    private static long run(int threads, final Updater updater) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    updater.update(id);
+                }
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - begin;
+    }
+}
@@ -0,0 +1,283 @@
+package util.concurrent.completablefuture;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * CompletableFuture 同步 thenApply 链融合测试：
+ * 源 future 完成前追加的同步 stage 合并到一个 UniPipeline 节点中，完成时一次性按顺序执行，
+ * 对外可见的行为（结果、异常传播、中间 future 被直接完成、依赖计数）必须和逐个 UniApply 完全一致
+ * @since 2026/10/17
+ */
+public class CompletableFutureFusionTest {
+
+    /**
+     * 直接在调用线程执行的 executor，thenApplyAsync(fn, DIRECT) 走的是原来的 UniApply 路径，作为对照组
+     */
+    private static final Executor DIRECT = Runnable::run;
+
+    private static final Function<Integer, Integer> INC = x -> x + 1;
+
+    @Test
+    public void testChainResults() {
+        // 链长超过 MAX_FUSED，会拆成多个 pipeline 节点
+        CompletableFuture<Integer> source = new CompletableFuture<Integer>();
+        List<CompletableFuture<Integer>> stages = new ArrayList<CompletableFuture<Integer>>();
+        CompletableFuture<Integer> f = source;
+        for (int i = 0; i < 1000; i++) {
+            f = f.thenApply(INC);
+            stages.add(f);
+        }
+        Assert.assertEquals(1, source.getNumberOfDependents());
+        Assert.assertEquals(1, stages.get(10).getNumberOfDependents());
+        Assert.assertEquals(0, f.getNumberOfDependents());
+        Assert.assertFalse(f.isDone());
+        source.complete(0);
+        for (int i = 0; i < stages.size(); i++) {
+            Assert.assertEquals(i + 1, (int) stages.get(i).join());
+            Assert.assertEquals(0, stages.get(i).getNumberOfDependents());
+        }
+        // 已完成的 future 上追加的 stage 立即执行
+        Assert.assertEquals(1001, (int) f.thenApply(INC).getNow(-1));
+    }
+
+    @Test
+    public void testExceptionPropagation() {
+        final AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<Integer> source = new CompletableFuture<Integer>();
+        CompletableFuture<Integer> a = source.thenApply(INC);
+        CompletableFuture<Integer> b = a.thenApply(x -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<Integer> c = b.thenApply(x -> {
+            calls.incrementAndGet();
+            return x;
+        });
+        CompletableFuture<Integer> d = c.exceptionally(ex -> -1);
+        source.complete(1);
+        Assert.assertEquals(2, (int) a.join());
+        Assert.assertTrue(b.isCompletedExceptionally());
+        Assert.assertTrue(c.isCompletedExceptionally());
+        Assert.assertEquals(-1, (int) d.join());
+        Assert.assertEquals(1, calls.get());
+        try {
+            c.join();
+            Assert.fail();
+        } catch (CompletionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+
+        // 源异常完成，所有 stage 都异常完成且函数不会被调用
+        CompletableFuture<Integer> failed = new CompletableFuture<Integer>();
+        CompletableFuture<Integer> tail = failed.thenApply(x -> {
+            calls.incrementAndGet();
+            return x;
+        }).thenApply(INC);
+        failed.completeExceptionally(new IllegalArgumentException());
+        Assert.assertTrue(tail.isCompletedExceptionally());
+        Assert.assertEquals(1, calls.get());
+    }
+
+    /**
+     * 中间 stage 被直接 complete/cancel 时，后续 stage 要立即基于它的结果执行，
+     * 之后源 future 完成也不能再次调用已经跳过的函数
+     */
+    @Test
+    public void testIntermediateCompletedDirectly() {
+        final AtomicInteger calls = new AtomicInteger();
+        Function<Integer, Integer> counted = x -> {
+            calls.incrementAndGet();
+            return x + 1;
+        };
+        CompletableFuture<Integer> source = new CompletableFuture<Integer>();
+        CompletableFuture<Integer> a = source.thenApply(counted);
+        CompletableFuture<Integer> b = a.thenApply(counted);
+        CompletableFuture<Integer> c = b.thenApply(counted);
+        Assert.assertTrue(a.complete(100));
+        Assert.assertEquals(102, (int) c.getNow(-1));
+        Assert.assertEquals(2, calls.get());
+        source.complete(0);
+        Assert.assertEquals(100, (int) a.join());
+        Assert.assertEquals(102, (int) c.join());
+        Assert.assertEquals(2, calls.get());
+
+        CompletableFuture<Integer> source2 = new CompletableFuture<Integer>();
+        CompletableFuture<Integer> x = source2.thenApply(INC);
+        CompletableFuture<Integer> y = x.thenApply(INC);
+        Assert.assertTrue(x.cancel(false));
+        Assert.assertTrue(y.isCompletedExceptionally());
+        try {
+            y.join();
+            Assert.fail();
+        } catch (CompletionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof CancellationException);
+        }
+        source2.complete(0);
+        Assert.assertTrue(x.isCancelled());
+    }
+
+    @Test
+    public void testBranchesAndNestedStages() {
+        CompletableFuture<Integer> source = new CompletableFuture<Integer>();
+        final CompletableFuture<Integer> a = source.thenApply(INC);
+        // a 已经有后继，再次 thenApply 形成分支，新开一个 pipeline
+        CompletableFuture<Integer> left = a.thenApply(x -> x * 10);
+        CompletableFuture<Integer> right = a.thenApply(x -> x * 100);
+        final List<CompletableFuture<Integer>> nested = new ArrayList<CompletableFuture<Integer>>();
+        // stage 执行过程中在同一条链尚未执行的尾部追加 stage
+        final List<CompletableFuture<Integer>> holder = new ArrayList<CompletableFuture<Integer>>();
+        CompletableFuture<Integer> tail = left.thenApply(x -> {
+            nested.add(holder.get(0).thenApply(INC));
+            return x + 1;
+        });
+        CompletableFuture<Integer> last = tail.thenApply(x -> x);
+        holder.add(last);
+        CompletableFuture<Integer> accepted = right.thenApply(INC).thenApply(INC);
+        Assert.assertEquals(2, a.getNumberOfDependents());
+        source.complete(1);
+        Assert.assertEquals(20, (int) left.join());
+        Assert.assertEquals(200, (int) right.join());
+        Assert.assertEquals(21, (int) last.join());
+        Assert.assertEquals(202, (int) accepted.join());
+        Assert.assertEquals(22, (int) nested.get(0).join());
+    }
+
+    /**
+     * 每个中间 stage 都带有自己的依赖（另一个 pipeline），长链完成时不能随链长递归，
+     * 原生实现对这种链同样不会栈溢出
+     */
+    @Test
+    public void testDeepChainWithSideDependents() {
+        CompletableFuture<Integer> source = new CompletableFuture<Integer>();
+        CompletableFuture<Integer> cur = source;
+        List<CompletableFuture<Integer>> sides = new ArrayList<CompletableFuture<Integer>>();
+        for (int i = 0; i < 20000; i++) {
+            cur = cur.thenApply(INC);
+            sides.add(cur.thenApply(x -> x));
+        }
+        source.complete(0);
+        Assert.assertEquals(20000, (int) cur.join());
+        for (int i = 0; i < sides.size(); i++) {
+            Assert.assertEquals(i + 1, (int) sides.get(i).join());
+        }
+
+        // 中间 stage 被直接完成后继续执行剩余的 stage
+        source = new CompletableFuture<Integer>();
+        CompletableFuture<Integer> first = source.thenApply(INC);
+        cur = first;
+        for (int i = 0; i < 20000; i++) {
+            cur = cur.thenApply(INC);
+            cur.thenApply(x -> x);
+        }
+        first.complete(0);
+        Assert.assertEquals(20000, (int) cur.join());
+        source.complete(0);
+        Assert.assertEquals(20000, (int) cur.join());
+    }
+
+    /**
+     * 多个线程并发构建链、同时完成源 future，每个函数只能被调用一次
+     */
+    @Test
+    public void testConcurrentAppendAndComplete() throws InterruptedException {
+        int threads = 4;
+        for (int round = 0; round < 200; round++) {
+            final CompletableFuture<Integer> source = new CompletableFuture<Integer>();
+            final AtomicInteger calls = new AtomicInteger();
+            final Function<Integer, Integer> counted = x -> {
+                calls.incrementAndGet();
+                return x + 1;
+            };
+            final CompletableFuture<?>[] tails = new CompletableFuture<?>[threads];
+            final CountDownLatch start = new CountDownLatch(1);
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                final int id = t;
+                workers[t] = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    CompletableFuture<Integer> f = source;
+                    for (int i = 0; i < 100; i++) {
+                        f = f.thenApply(counted);
+                    }
+                    tails[id] = f;
+                });
+                workers[t].start();
+            }
+            start.countDown();
+            source.complete(0);
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            for (CompletableFuture<?> tail : tails) {
+                Assert.assertEquals(100, tail.join());
+            }
+            Assert.assertEquals(100 * threads, calls.get());
+        }
+    }
+
+    /**
+     * JMH 风格的对比：预热若干轮后测量，每轮构建 CHAINS 条长度为 depth 的 thenApply 链再完成源 future，
+     * 输出每个 stage 的耗时和分配字节数。对照组用 thenApplyAsync(fn, DIRECT)，每个 stage 一个 UniApply
+     */
+    @Test
+    public void benchmarkFusedChain() {
+        for (int depth : new int[]{4, 16, 64}) {
+            for (int round = 0; round < 5; round++) {
+                boolean warmup = round < 2;
+                long[] fused = runChains(depth, false);
+                long[] unfused = runChains(depth, true);
+                if (!warmup) {
+                    System.out.printf("depth %d round %d: fused %.1f ns/stage %.1f B/stage, "
+                                    + "unfused %.1f ns/stage %.1f B/stage%n", depth, round - 2,
+                            (double) fused[0] / (CHAINS * depth), (double) fused[1] / (CHAINS * depth),
+                            (double) unfused[0] / (CHAINS * depth), (double) unfused[1] / (CHAINS * depth));
+                }
+            }
+        }
+    }
+
+    private static final int CHAINS = 20000;
+
+    private static long[] runChains(int depth, boolean unfused) {
+        long bytes = allocatedBytes();
+        long begin = System.nanoTime();
+        long sum = 0;
+        for (int c = 0; c < CHAINS; c++) {
+            CompletableFuture<Integer> source = new CompletableFuture<Integer>();
+            CompletableFuture<Integer> f = source;
+            for (int i = 0; i < depth; i++) {
+                f = unfused ? f.thenApplyAsync(INC, DIRECT) : f.thenApply(INC);
+            }
+            source.complete(c);
+            sum += f.join();
+        }
+        long time = System.nanoTime() - begin;
+        bytes = allocatedBytes() - bytes;
+        Assert.assertEquals((long) CHAINS * (CHAINS - 1) / 2 + (long) CHAINS * depth, sum);
+        return new long[]{time, bytes};
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0L;
+    }
+}
@@ -1,9 +1,17 @@
 package util.concurrent.locks;
 
 
+import org.junit.Assert;
+import org.junit.Test;
+
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.WaitTimeHistogram;
 
 /**
  * 参考 Conditioon 接口文档中的示例，模拟一个阻塞队列
@@ -81,6 +89,151 @@ public class ReentrantLockTest {
         return sb.toString();
     }
 
+    /**
+     * 自适应自旋不改变互斥语义：计数结果正确，只有排队等待过的获取才会记入等待时间直方图
+     */
+    @Test
+    public void testAdaptiveSpinning() throws InterruptedException {
+        Assert.assertNull(new ReentrantLock().getWaitTimeHistogram());
+        for (boolean fair : new boolean[]{false, true}) {
+            final ReentrantLock lock = new ReentrantLock(fair, true);
+            Assert.assertEquals(fair, lock.isFair());
+            final long[] counter = new long[1];
+            long elapsed = runContended(4, 100000, lock, counter);
+            Assert.assertEquals(400000L, counter[0]);
+            WaitTimeHistogram waits = lock.getWaitTimeHistogram();
+            System.out.println("fair = " + fair + ", " + elapsed / 1000000 + " ms, " + waits);
+            long[] buckets = waits.getBucketCounts();
+            long total = 0;
+            for (long b : buckets) {
+                total += b;
+            }
+            Assert.assertEquals(waits.getCount(), total);
+            Assert.assertTrue(waits.getCount() <= 400000L);
+            Assert.assertTrue(waits.getPercentileNanos(0.5) <= waits.getPercentileNanos(0.999));
+
+            // 可中断、超时获取以及 Condition 等待同样可用
+            Assert.assertTrue(lock.tryLock(1, TimeUnit.SECONDS));
+            lock.lockInterruptibly();
+            Condition c = lock.newCondition();
+            Assert.assertFalse(c.await(1, TimeUnit.MILLISECONDS));
+            Assert.assertEquals(2, lock.getHoldCount());
+            lock.unlock();
+            lock.unlock();
+            Assert.assertFalse(lock.isLocked());
+
+            // 非持有者 unlock 失败，不影响持有者
+            lock.lock();
+            final boolean[] rejected = new boolean[1];
+            Thread other = new Thread(() -> {
+                try {
+                    lock.unlock();
+                } catch (IllegalMonitorStateException expected) {
+                    rejected[0] = true;
+                }
+            });
+            other.start();
+            other.join();
+            Assert.assertTrue(rejected[0]);
+            Assert.assertTrue(lock.isHeldByCurrentThread());
+            lock.unlock();
+            Assert.assertFalse(lock.isLocked());
+            waits.reset();
+            Assert.assertEquals(0L, waits.getCount());
+        }
+
+        final ReentrantReadWriteLock rw = new ReentrantReadWriteLock(false, true);
+        final long[] counter = new long[1];
+        runContended(4, 50000, rw.writeLock(), counter);
+        Assert.assertEquals(200000L, counter[0]);
+        rw.readLock().lock();
+        rw.readLock().lock();
+        Assert.assertEquals(2, rw.getReadLockCount());
+        rw.readLock().unlock();
+        rw.readLock().unlock();
+        Assert.assertNotNull(rw.getWaitTimeHistogram());
+        Assert.assertNull(new ReentrantReadWriteLock(true).getWaitTimeHistogram());
+    }
+
+    /**
+     * 多线程竞争同一把锁、临界区极短时的延迟对比：默认策略几乎立刻 park，
+     * 自适应自旋在持有者运行且持有时间很短时先自旋，减少上下文切换
+     */
+    /**
+     * 无竞争的 lock/unlock 走快速路径，也要重新采样持有时间，
+     * 不能沿用上一次采样留下的起点，把两次持有之间的空闲时间算成持有时间
+     */
+    @Test
+    public void testUncontendedHoldTime() throws InterruptedException {
+        Assert.assertEquals(0L, new ReentrantLock().getAverageHoldNanos());
+        ReentrantLock spinning = new ReentrantLock(false, true);
+        // 超时获取每 8 次采样一次，第 8 次的采样起点在 unlock 后仍留在锁里
+        for (int i = 0; i < 8; i++) {
+            Assert.assertTrue(spinning.tryLock(1, TimeUnit.SECONDS));
+            spinning.unlock();
+        }
+        Assert.assertTrue(spinning.getAverageHoldNanos() > 0L);
+        Thread.sleep(100);
+        for (int i = 0; i < 32; i++) {
+            spinning.lock();
+            spinning.unlock();
+            Assert.assertTrue(spinning.tryLock());
+            spinning.unlock();
+        }
+        Assert.assertTrue(spinning.getAverageHoldNanos() > 0L);
+        Assert.assertTrue(spinning.getAverageHoldNanos() < TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    public void benchmarkShortCriticalSectionLatency() throws InterruptedException {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int perThread = 200000;
+        for (int round = 0; round < 3; round++) {
+            for (boolean adaptive : new boolean[]{false, true}) {
+                ReentrantLock lock = new ReentrantLock(false, adaptive);
+                long[] counter = new long[1];
+                long elapsed = runContended(threads, perThread, lock, counter);
+                Assert.assertEquals((long) threads * perThread, counter[0]);
+                System.out.println("round " + round + (adaptive ? " adaptive spinning: " : " default: ")
+                        + elapsed / ((long) threads * perThread) + " ns/lock"
+                        + (adaptive ? ", waits " + lock.getWaitTimeHistogram() : ""));
+            }
+        }
+    }
+
+    private static long runContended(int threads, final int perThread, final Lock lock, final long[] counter)
+            throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        lock.lock();
+                        try {
+                            counter[0]++;
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - begin;
+    }
+
     public static void main(String[] args) throws InterruptedException {
         ReentrantLockTest reentrantLockTest = new ReentrantLockTest();
         Thread put = new Thread(new PutTask(reentrantLockTest));
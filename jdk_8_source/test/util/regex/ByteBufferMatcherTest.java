@@ -0,0 +1,248 @@
+package util.regex;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 直接在 ByteBuffer 上匹配：ISO-8859-1 按字节即字符，UTF-8 只接受只能匹配 ASCII 的模式，
+ * 结果（字节偏移）必须和先解码成 String 再匹配的结果一致；usePattern、reset 复用 Matcher 的存储
+ * @since 2026/10/17
+ */
+public class ByteBufferMatcherTest {
+
+    private static final String[] PATTERNS = {
+            "abc", "a|b", "(a|ab)(c|bcd)(d*)", "(\\w+)@(\\w+)\\.com", "\\d+(\\.\\d+)?", "[a-z]+\\d+",
+            "(?i)ABC", "x+y?", "(?d)^a", "(?d)a$", "\\Aab", "ab\\z", "(a)\\1", "a(?=b)", "(?<=a)b",
+            "colou?r", "(ab){1,2}",
+    };
+
+    private static final String[] INPUTS = {
+            "", "abc", "aab abcd", "foo@bar.com x@y.com", "3.14 and 42", "abc123 déf456 xyz7",
+            "é€😀abc", "ABC aBc", "a\nab\n", "color colour", "xxyy", "naïve@café.com a@b.com", "aaéaa",
+    };
+
+    @Test
+    public void testLatin1() {
+        for (String regex : PATTERNS) {
+            Pattern p = Pattern.compile(regex);
+            for (String input : INPUTS) {
+                if (!StandardCharsets.ISO_8859_1.newEncoder().canEncode(input)) {
+                    continue;
+                }
+                ByteBuffer bytes = ByteBuffer.wrap(input.getBytes(StandardCharsets.ISO_8859_1));
+                Assert.assertEquals(regex + " on \"" + input + "\"", run(p.matcher(input)),
+                        run(p.matcher(bytes, StandardCharsets.ISO_8859_1)));
+                Assert.assertEquals(0, bytes.position());
+            }
+        }
+        // 非 ASCII 的模式在 Latin-1 下可以使用
+        Matcher m = Pattern.compile("(?iu)café").matcher(
+                ByteBuffer.wrap("CAFÉ".getBytes(StandardCharsets.ISO_8859_1)), StandardCharsets.ISO_8859_1);
+        Assert.assertTrue(m.matches());
+        Assert.assertEquals("CAFÉ", m.group());
+    }
+
+    @Test
+    public void testUtf8() {
+        for (String regex : PATTERNS) {
+            Pattern p = Pattern.compile(regex);
+            for (String input : INPUTS) {
+                byte[] encoded = input.getBytes(StandardCharsets.UTF_8);
+                List<String> expected = new ArrayList<String>();
+                Matcher m = p.matcher(input);
+                while (m.find()) {
+                    StringBuilder sb = new StringBuilder();
+                    for (int g = 0; g <= m.groupCount(); g++) {
+                        sb.append('[').append(utf8Offset(input, m.start(g))).append(',')
+                                .append(utf8Offset(input, m.end(g))).append(']');
+                    }
+                    expected.add(sb.append(' ').append(m.group()).toString());
+                }
+                List<String> actual = new ArrayList<String>();
+                Matcher b = p.matcher(ByteBuffer.wrap(encoded), StandardCharsets.UTF_8);
+                while (b.find()) {
+                    StringBuilder sb = new StringBuilder();
+                    for (int g = 0; g <= b.groupCount(); g++) {
+                        sb.append('[').append(b.start(g)).append(',').append(b.end(g)).append(']');
+                    }
+                    actual.add(sb.append(' ').append(b.group()).toString());
+                }
+                Assert.assertEquals(regex + " on \"" + input + "\"", expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testIncompatiblePatterns() {
+        ByteBuffer bytes = ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8));
+        String[] incompatible = {"é", "\\bfoo", "a*", ".", "[^a]", "\\W", "(?iu)k", "(?m)^a", "a$", "(?U)\\s", "\\R"};
+        for (String regex : incompatible) {
+            try {
+                Pattern.compile(regex).matcher(bytes, StandardCharsets.UTF_8);
+                Assert.fail(regex);
+            } catch (IllegalArgumentException expected) {
+                // 这些模式可能匹配或检查多字节序列中间的字节
+            }
+        }
+        try {
+            Pattern.compile("a").matcher(bytes, StandardCharsets.UTF_16);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+            // 不支持的字符集
+        }
+        // 切换到不兼容的模式
+        Matcher m = Pattern.compile("abc").matcher(bytes, StandardCharsets.US_ASCII);
+        try {
+            m.usePattern(Pattern.compile("."));
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+            // 原来的模式保持不变
+        }
+        Assert.assertTrue(m.matches());
+        // 换成字符输入后不再限制
+        m.reset("é").usePattern(Pattern.compile("."));
+        Assert.assertTrue(m.matches());
+    }
+
+    /**
+     * 通过 FileChannel.map 映射的文件按行对齐的窗口扫描，同一个 Matcher 在各窗口间 reset 复用
+     */
+    @Test
+    public void testMappedWindows() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            sb.append("GET /item/").append(random.nextInt(100000)).append(" status=")
+                    .append(random.nextBoolean() ? 200 : 404).append(" user=ü").append(i).append('\n');
+        }
+        String text = sb.toString();
+        Pattern p = Pattern.compile("/item/(\\d+) status=404");
+        List<String> expected = new ArrayList<String>();
+        Matcher m = p.matcher(text);
+        while (m.find()) {
+            expected.add(utf8Offset(text, m.start()) + ":" + m.group(1));
+        }
+
+        File file = File.createTempFile("regex", ".log");
+        file.deleteOnExit();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(text.getBytes(StandardCharsets.UTF_8));
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int window = 4093;
+            List<String> actual = new ArrayList<String>();
+            Matcher b = p.matcher(ByteBuffer.allocate(0), StandardCharsets.UTF_8);
+            int base = 0;
+            while (base < map.capacity()) {
+                int limit = Math.min(map.capacity(), base + window);
+                while (limit < map.capacity() && map.get(limit - 1) != '\n') {
+                    limit--;
+                }
+                map.limit(limit).position(base);
+                b.reset(map);
+                while (b.find()) {
+                    actual.add((base + b.start()) + ":" + b.group(1));
+                }
+                map.limit(map.capacity());
+                base = limit;
+            }
+            Assert.assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testUsePatternReusesGroups() {
+        String input = "2026-10-17T08:30:15.123+08:00 key=value";
+        Pattern wide = Pattern.compile(
+                "(\\d)(\\d)(\\d)(\\d)-(\\d)(\\d)-(\\d)(\\d)T(\\d)(\\d):(\\d)(\\d)");
+        Pattern narrow = Pattern.compile("(\\w+)=");
+        Matcher m = wide.matcher(input);
+        for (int round = 0; round < 3; round++) {
+            m.usePattern(wide).reset();
+            Assert.assertTrue(m.find());
+            Assert.assertEquals(12, m.groupCount());
+            Assert.assertEquals("0", m.group(12));
+            m.usePattern(narrow);
+            Assert.assertEquals(1, m.groupCount());
+            Assert.assertTrue(m.find());
+            Assert.assertEquals("key", m.group(1));
+            try {
+                m.group(2);
+                Assert.fail();
+            } catch (IndexOutOfBoundsException expected) {
+                // 组数随模式变化
+            }
+        }
+    }
+
+    /**
+     * 对比先解码成 String 和直接匹配 ByteBuffer 的耗时
+     */
+    @Test
+    public void benchmarkByteBuffer() {
+        StringBuilder sb = new StringBuilder();
+        Random random = new Random(1);
+        for (int i = 0; i < 50000; i++) {
+            sb.append("ts=").append(random.nextInt(1 << 30)).append(" level=")
+                    .append(random.nextInt(10) == 0 ? "ERROR" : "INFO").append(" msg=ok\n");
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        Pattern p = Pattern.compile("ts=(\\d+) level=ERROR");
+        for (int round = 0; round < 5; round++) {
+            long begin = System.nanoTime();
+            Matcher m = p.matcher(new String(bytes, StandardCharsets.UTF_8));
+            int decoded = 0;
+            while (m.find()) {
+                decoded++;
+            }
+            long middle = System.nanoTime();
+            Matcher b = p.matcher(direct, StandardCharsets.UTF_8);
+            int raw = 0;
+            while (b.find()) {
+                raw++;
+            }
+            long end = System.nanoTime();
+            Assert.assertEquals(decoded, raw);
+            if (round >= 2) {
+                System.out.println("round " + (round - 2) + ": decode+match " + (middle - begin) / 1000000
+                        + " ms, ByteBuffer " + (end - middle) / 1000000 + " ms, " + raw + " matches");
+            }
+        }
+    }
+
+    private static int utf8Offset(String s, int index) {
+        return index < 0 ? index : s.substring(0, index).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static List<String> run(Matcher m) {
+        List<String> results = new ArrayList<String>();
+        while (m.find()) {
+            StringBuilder sb = new StringBuilder();
+            for (int g = 0; g <= m.groupCount(); g++) {
+                sb.append('[').append(m.start(g)).append(',').append(m.end(g)).append(']');
+            }
+            results.add(sb.append(' ').append(m.group()).append(' ').append(m.hitEnd()).toString());
+        }
+        results.add("find " + m.hitEnd() + " " + m.requireEnd());
+        m.reset();
+        results.add("matches " + m.matches());
+        m.reset();
+        results.add("lookingAt " + m.lookingAt());
+        return results;
+    }
+}
@@ -0,0 +1,279 @@
+package util.regex;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 正则线性时间引擎（惰性 DFA + Pike VM）测试：
+ * 不含反向引用、环视、独占量词的模式默认走 DFA，useTransparentBounds(true) 的 Matcher 仍走原来的回溯引擎，
+ * 两者的匹配区间、分组、hitEnd、requireEnd 必须完全一致
+ * @since 2026/10/17
+ */
+public class LazyDFATest {
+
+    private static final String[] PATTERNS = {
+            "a", "abc", "abcdef", "a|b", "ab|a", "a|ab", "(a|ab)(c|bcd)(d*)", "a*", "a+?", "a*?b",
+            "(ab)*", "(a|b)*abb", "[a-c]+", "[^abc]+", "a{2,3}", "a{2,3}?", "(ab){1,2}", "(?:a|bc){2,}",
+            "(a)|(b)|(c)", "((a)|b)+", "(a(b)?)+", "(?<first>\\w+)\\s+(?<second>\\w+)", "x*y?z*",
+            "^a", "^", "$", "a$", "^$", "(?m)^a", "(?m)a$", "(?m)^$", "(?d)^a.$", "(?dm)$", "\\Aab", "ab\\z",
+            "ab\\Z", "\\bab\\b", "\\Ba", "\\b", "(?i)AbC", "(?iu)straße", "(?i)[a-z]+", ".", "(?s).+", ".*",
+            "\\d+(\\.\\d+)?", "[\\p{L}\\d]+", "(\\w+)@(\\w+)\\.com", "\\Qa.b\\E", "colou?r", "(a|b|)+c",
+            "(.*a){3}", "a.*b.*c", "(a*)+", "(a|)*b", "(?:x|(?:)|a)+", "((a)|b|)*?c", "(a?)+?b", "((a*)b?)*",
+    };
+
+    private static final String[] INPUTS = {
+            "", "a", "b", "ab", "abc", "aab", "abab", "abcabc", "abbabb", "aaaa", "aaab", "xxyzz", "ba",
+            "a\n", "a\r\n", "\na", "a\nb\n", "\r\n", "ab ab", " ab", "ABC", "abC", "STRASSE", "strasse",
+            "3.14 and 42", "foo@bar.com x@y.com", "a.b", "color colour", "aaaaaaaaaaaaaaaaaaaaaaaaaaaa",
+            "xxxxxxxxxxxxxxxxxxxxxxxx", "éa b", "a b\u0085", "abcabcabc\n",
+    };
+
+    /**
+     * 回溯引擎在这些模式上是指数时间，对照时只用不超过 MAX_REFERENCE_LENGTH 的输入，
+     * 更长的输入在 testPathologicalPatterns 中只跑 DFA
+     */
+    private static final String[] PATHOLOGICAL = {"(a*)+b", "(a|aa)*b", "(x+x+)+y", "(?:a*b*)*c"};
+
+    private static final int MAX_REFERENCE_LENGTH = 20;
+
+    @Test
+    public void testAgainstBacktracking() {
+        for (String regex : PATTERNS) {
+            Pattern p = Pattern.compile(regex);
+            for (String input : INPUTS) {
+                compare(p, input);
+            }
+        }
+        for (String regex : PATHOLOGICAL) {
+            Pattern p = Pattern.compile(regex);
+            for (String input : INPUTS) {
+                if (input.length() <= MAX_REFERENCE_LENGTH) {
+                    compare(p, input);
+                }
+            }
+        }
+    }
+
+    /**
+     * 随机生成小字母表上的模式和输入做差分测试
+     */
+    @Test
+    public void testRandomPatterns() {
+        Random random = new Random(42);
+        for (int n = 0; n < 3000; n++) {
+            String regex = randomRegex(random, 3);
+            Pattern p;
+            try {
+                p = Pattern.compile(regex);
+            } catch (RuntimeException e) {
+                continue;
+            }
+            for (int k = 0; k < 20; k++) {
+                StringBuilder sb = new StringBuilder();
+                int len = random.nextInt(12);
+                for (int j = 0; j < len; j++) {
+                    sb.append("ab\nc".charAt(random.nextInt(4)));
+                }
+                compare(p, sb.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testRegionsAndFallbacks() {
+        Pattern p = Pattern.compile("^(a+)(b*)$");
+        Matcher m = p.matcher("xaabbx");
+        m.region(1, 5);
+        Assert.assertTrue(m.matches());
+        Assert.assertEquals("aa", m.group(1));
+        Assert.assertEquals("bb", m.group(2));
+        m.useAnchoringBounds(false);
+        Assert.assertFalse(m.find(0));
+
+        // 含代理对的输入回退到回溯引擎
+        Matcher s = Pattern.compile("(.)b").matcher("a😀b");
+        Assert.assertTrue(s.find());
+        Assert.assertEquals("😀", s.group(1));
+
+        // 含反向引用、环视的模式仍由回溯引擎处理
+        Assert.assertTrue(Pattern.matches("(a+)b\\1", "aabaa"));
+        Assert.assertTrue(Pattern.compile("a(?=b)").matcher("ab").find());
+
+        // 不同线程共享同一个 Pattern 的状态缓存
+        final Pattern shared = Pattern.compile("(\\w+)=(\\d+);");
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append("key").append(i).append('=').append(i).append(';');
+        }
+        Thread[] threads = new Thread[4];
+        final int[] counts = new int[threads.length];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread(() -> {
+                Matcher matcher = shared.matcher(text);
+                while (matcher.find()) {
+                    if (matcher.group(1).equals("key" + matcher.group(2))) {
+                        counts[id]++;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+        for (int count : counts) {
+            Assert.assertEquals(1000, count);
+        }
+    }
+
+    /**
+     * 回溯引擎在这些输入上是指数时间，DFA 是线性时间
+     */
+    @Test(timeout = 10000)
+    public void testPathologicalPatterns() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.append('a');
+        }
+        String input = sb.toString();
+        Assert.assertFalse(Pattern.compile("(a|aa)*b").matcher(input).find());
+        Assert.assertFalse(Pattern.compile("(a+a+)+b").matcher(input).matches());
+        Assert.assertFalse(Pattern.compile("(.*a){20}b").matcher(input).find());
+        Matcher m = Pattern.compile("(a|aa)*c?$").matcher(input);
+        Assert.assertTrue(m.find());
+        Assert.assertEquals(0, m.start());
+        Assert.assertEquals(input.length(), m.end());
+        Assert.assertTrue(m.hitEnd());
+        Assert.assertTrue(m.requireEnd());
+
+        for (String regex : PATHOLOGICAL) {
+            Pattern p = Pattern.compile(regex);
+            for (String text : INPUTS) {
+                if (text.length() > MAX_REFERENCE_LENGTH) {
+                    Matcher pm = p.matcher(text);
+                    Assert.assertFalse(pm.find());
+                    Assert.assertTrue(pm.hitEnd());
+                }
+            }
+        }
+    }
+
+    /**
+     * 对比两个引擎的耗时：常规的逐个 find 和回溯引擎的指数级退化
+     */
+    @Test
+    public void benchmarkEngines() {
+        StringBuilder sb = new StringBuilder();
+        Random random = new Random(1);
+        for (int i = 0; i < 20000; i++) {
+            sb.append("user").append(random.nextInt(1000)).append('@')
+                    .append(random.nextBoolean() ? "example.com" : "example.org").append(' ');
+            sb.append("lorem ipsum dolor sit amet ");
+        }
+        String text = sb.toString();
+        String[] regexes = {"(\\w+)@(\\w+)\\.com", "[a-z]+\\d+@example\\.org", "\\bipsum\\b", "(dolor|amet) sit"};
+        for (int round = 0; round < 5; round++) {
+            for (String regex : regexes) {
+                Pattern p = Pattern.compile(regex);
+                long dfa = time(p, text, false);
+                long backtracking = time(p, text, true);
+                if (round >= 2) {
+                    System.out.println("round " + (round - 2) + " " + regex + ": dfa " + dfa / 1000000
+                            + " ms, backtracking " + backtracking / 1000000 + " ms");
+                }
+            }
+        }
+        for (int n = 18; n <= 24; n += 2) {
+            StringBuilder a = new StringBuilder();
+            for (int i = 0; i < n; i++) {
+                a.append('a');
+            }
+            Pattern p = Pattern.compile("(a|aa)*b");
+            long dfa = time(p, a.toString(), false);
+            long backtracking = time(p, a.toString(), true);
+            System.out.println("(a|aa)*b on a^" + n + ": dfa " + dfa / 1000 + " us, backtracking "
+                    + backtracking / 1000 + " us");
+        }
+    }
+
+    private static long time(Pattern p, String text, boolean backtracking) {
+        long begin = System.nanoTime();
+        Matcher m = p.matcher(text).useTransparentBounds(backtracking);
+        int count = 0;
+        while (m.find()) {
+            count += m.end() - m.start();
+        }
+        Assert.assertTrue(count >= 0);
+        return System.nanoTime() - begin;
+    }
+
+    private static String randomRegex(Random random, int depth) {
+        int kind = random.nextInt(depth > 0 ? 12 : 5);
+        switch (kind) {
+            case 0: return "a";
+            case 1: return "b";
+            case 2: return random.nextBoolean() ? "." : "[ab]";
+            case 3: return random.nextBoolean() ? "^" : "$";
+            case 4: return random.nextBoolean() ? "\\b" : "c";
+            case 5: case 6: return randomRegex(random, depth - 1) + randomRegex(random, depth - 1);
+            case 7: return randomRegex(random, depth - 1) + "|" + randomRegex(random, depth - 1);
+            case 8: return "(" + randomRegex(random, depth - 1) + ")" + quantifier(random);
+            case 9: return "(?:" + randomRegex(random, depth - 1) + ")" + quantifier(random);
+            case 10: return randomRegex(random, 0) + quantifier(random);
+            default: return (random.nextBoolean() ? "(?m)" : "(?s)") + randomRegex(random, depth - 1);
+        }
+    }
+
+    private static String quantifier(Random random) {
+        String[] q = {"", "*", "+", "?", "{2}", "{1,3}", "{2,}", "*?", "+?", "??", "{0,2}?"};
+        return q[random.nextInt(q.length)];
+    }
+
+    private static void compare(Pattern p, String input) {
+        Assert.assertEquals(p.pattern() + " on \"" + input + "\"", run(p, input, true), run(p, input, false));
+    }
+
+    /**
+     * 记录 find 循环、matches、lookingAt 的全部可观察结果
+     */
+    private static List<String> run(Pattern p, String input, boolean backtracking) {
+        List<String> results = new ArrayList<String>();
+        Matcher m = p.matcher(input).useTransparentBounds(backtracking);
+        while (m.find()) {
+            results.add(describe(m));
+            if (results.size() > 50) {
+                break;
+            }
+        }
+        results.add("find " + m.hitEnd() + " " + m.requireEnd());
+        m.reset();
+        results.add("matches " + (m.matches() ? describe(m) : m.hitEnd()));
+        m.reset();
+        results.add("lookingAt " + (m.lookingAt() ? describe(m) : m.hitEnd()));
+        // 透明边界下 \b 能看到区域外的字符，只有不含 \b、\B 的模式在区域内的结果可比
+        if (input.length() > 1 && !p.pattern().contains("\\b") && !p.pattern().contains("\\B")) {
+            m.reset().region(1, input.length());
+            results.add("region " + (m.find() ? describe(m) : m.hitEnd()));
+        }
+        return results;
+    }
+
+    private static String describe(Matcher m) {
+        StringBuilder sb = new StringBuilder();
+        for (int g = 0; g <= m.groupCount(); g++) {
+            sb.append('[').append(m.start(g)).append(',').append(m.end(g)).append(']');
+        }
+        return sb.append(' ').append(m.hitEnd()).append(' ').append(m.requireEnd()).toString();
+    }
+}
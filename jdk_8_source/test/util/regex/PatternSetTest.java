@@ -0,0 +1,232 @@
+package util.regex;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSet;
+
+/**
+ * 前导字面量集合（Aho-Corasick）预过滤和 PatternSet 测试：
+ * 模式前面加上 "(?:)" 后不再提取前导字面量，按原来的 Start 逐个位置尝试，作为对照组，
+ * 两者的匹配区间、分组、hitEnd、requireEnd 必须完全一致
+ * @since 2026/10/17
+ */
+public class PatternSetTest {
+
+    private static final String[] PATTERNS = {
+            "ab", "(ERROR|FATAL|Timeout)", "(ERROR|FATAL|Timeout): (\\w+)", "abcd|b", "(a|ab)(c|bcd)",
+            "(?:foo|foobar|bar)\\b", "(x|xy|xyz)$", "(he|she|his|hers)+", "(a|b|c)d*", "é|中文|a\\d",
+    };
+
+    private static final String[] INPUTS = {
+            "", "a", "ab", "abc", "abcd", "xab", "b", "ERROR: disk full", "xxFATAL: x", "Timeou",
+            "FATA", "foobar foo bar", "foob", "xyz", "xyzxy", "ushers", "hishers", "ccdd", "中文 a1 é",
+    };
+
+    @Test
+    public void testPrefilterAgainstStart() {
+        for (String regex : PATTERNS) {
+            for (String input : INPUTS) {
+                compare(regex, input);
+            }
+        }
+    }
+
+    /**
+     * 随机的字面量集合，后面接上不同的后缀，在小字母表的随机输入上做差分测试
+     */
+    @Test
+    public void testRandomLiteralSets() {
+        Random random = new Random(42);
+        String[] tails = {"", "\\b", "c*", "(a|b)$", "(?:ab)+?", ".", "\\w*c"};
+        for (int n = 0; n < 2000; n++) {
+            StringBuilder regex = new StringBuilder("(");
+            int count = 1 + random.nextInt(6);
+            for (int k = 0; k < count; k++) {
+                if (k > 0) {
+                    regex.append('|');
+                }
+                regex.append(randomString(random, 1 + random.nextInt(4)));
+            }
+            regex.append(')').append(tails[random.nextInt(tails.length)]);
+            for (int k = 0; k < 10; k++) {
+                compare(regex.toString(), randomString(random, random.nextInt(16)));
+            }
+        }
+    }
+
+    @Test
+    public void testPatternSet() {
+        String[] regexes = {"ERROR \\d+", "(FATAL|PANIC):", "^WARN", "\\d{3}-\\d{4}", "(?i)timeout",
+                "disk (full|error)", "x", "(ab|abc)d\\b", "\\bab"};
+        PatternSet set = PatternSet.compile(regexes);
+        Assert.assertEquals(regexes.length, set.size());
+        Assert.assertEquals("^WARN", set.pattern(2).pattern());
+        String[] inputs = {"", "ERROR 42", "WARN: FATAL: disk full", "call 555-1234 TIMEOUT", "abcd xabd",
+                "PANIC:x", "ERROR x", "nothing here", "ab"};
+        for (String input : inputs) {
+            BitSet expected = new BitSet();
+            for (int k = 0; k < regexes.length; k++) {
+                if (Pattern.compile(regexes[k]).matcher(input).find()) {
+                    expected.set(k);
+                }
+            }
+            Assert.assertEquals(input, expected, set.matches(input));
+            Assert.assertEquals(input, !expected.isEmpty(), set.matchesAny(input));
+        }
+
+        // 随机字面量规则集
+        Random random = new Random(7);
+        List<String> rules = new ArrayList<String>();
+        for (int k = 0; k < 200; k++) {
+            rules.add("(" + randomString(random, 2 + random.nextInt(3)) + "|" + randomString(random, 3) + ")"
+                    + (random.nextBoolean() ? "c" : "\\b"));
+        }
+        PatternSet many = PatternSet.compile(rules, 0);
+        for (int n = 0; n < 200; n++) {
+            String input = randomString(random, random.nextInt(40));
+            BitSet expected = new BitSet();
+            for (int k = 0; k < rules.size(); k++) {
+                if (many.pattern(k).matcher(input).find()) {
+                    expected.set(k);
+                }
+            }
+            Assert.assertEquals(input, expected, many.matches(input));
+        }
+        Assert.assertTrue(PatternSet.compile().matches("abc").isEmpty());
+    }
+
+    /**
+     * 几百个关键字的告警规则在日志文本上的 find：逐个位置尝试每个分支、字面量预过滤、
+     * 预过滤加 DFA，以及 PatternSet 一遍扫描和逐个模式 find 的对比
+     */
+    @Test
+    public void benchmarkAlertRules() {
+        Random random = new Random(1);
+        List<String> words = new ArrayList<String>();
+        StringBuilder alternation = new StringBuilder("(");
+        for (int k = 0; k < 300; k++) {
+            String word = (char) ('A' + random.nextInt(26)) + randomWord(random, 4 + random.nextInt(6));
+            words.add(word);
+            alternation.append(k > 0 ? "|" : "").append(word);
+        }
+        alternation.append(')');
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.append("2026-10-17 12:00:").append(i % 60).append(" INFO request served in ")
+                    .append(random.nextInt(1000)).append(" ms");
+            if (i % 100 == 0) {
+                sb.append(' ').append(words.get(random.nextInt(words.size())));
+            }
+            sb.append('\n');
+        }
+        String text = sb.toString();
+        Pattern plain = Pattern.compile("(?:)" + alternation);
+        Pattern filtered = Pattern.compile(alternation.toString());
+        List<String> rules = new ArrayList<String>();
+        for (String word : words) {
+            rules.add(word + "\\b");
+        }
+        PatternSet set = PatternSet.compile(rules, 0);
+        String[] lines = text.split("\n");
+        for (int round = 0; round < 5; round++) {
+            long begin = System.nanoTime();
+            int a = count(plain.matcher(text).useTransparentBounds(true));
+            long plainTime = System.nanoTime() - begin;
+            begin = System.nanoTime();
+            int b = count(filtered.matcher(text).useTransparentBounds(true));
+            long filteredTime = System.nanoTime() - begin;
+            begin = System.nanoTime();
+            int c = count(filtered.matcher(text));
+            long dfaTime = System.nanoTime() - begin;
+            Assert.assertEquals(a, b);
+            Assert.assertEquals(a, c);
+
+            begin = System.nanoTime();
+            int hits = 0;
+            for (String line : lines) {
+                hits += set.matches(line).cardinality();
+            }
+            long setTime = System.nanoTime() - begin;
+            begin = System.nanoTime();
+            int expected = 0;
+            for (String line : lines) {
+                for (int k = 0; k < set.size(); k++) {
+                    if (set.pattern(k).matcher(line).find()) {
+                        expected++;
+                    }
+                }
+            }
+            long loopTime = System.nanoTime() - begin;
+            Assert.assertEquals(expected, hits);
+            if (round >= 2) {
+                System.out.println("round " + (round - 2) + ": start " + plainTime / 1000000 + " ms, prefilter "
+                        + filteredTime / 1000000 + " ms, prefilter+dfa " + dfaTime / 1000000
+                        + " ms; PatternSet " + setTime / 1000000 + " ms, one by one " + loopTime / 1000000 + " ms");
+            }
+        }
+    }
+
+    private static int count(Matcher m) {
+        int count = 0;
+        while (m.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append("abc".charAt(random.nextInt(3)));
+        }
+        return sb.toString();
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    private static void compare(String regex, String input) {
+        Pattern expected = Pattern.compile("(?:)" + regex);
+        Pattern actual = Pattern.compile(regex);
+        String message = regex + " on \"" + input + "\"";
+        Assert.assertEquals(message, run(expected, input, true), run(actual, input, true));
+        Assert.assertEquals(message, run(expected, input, true), run(actual, input, false));
+    }
+
+    /**
+     * 记录 find 循环和 region 内 find 的全部可观察结果
+     */
+    private static List<String> run(Pattern p, String input, boolean backtracking) {
+        List<String> results = new ArrayList<String>();
+        Matcher m = p.matcher(input).useTransparentBounds(backtracking);
+        while (m.find()) {
+            results.add(describe(m));
+        }
+        results.add("find " + m.hitEnd() + " " + m.requireEnd());
+        if (input.length() > 1 && !p.pattern().contains("\\b")) {
+            m.reset().region(1, input.length() - 1);
+            results.add("region " + (m.find() ? describe(m) : m.hitEnd() + " " + m.requireEnd()));
+        }
+        return results;
+    }
+
+    private static String describe(Matcher m) {
+        StringBuilder sb = new StringBuilder();
+        for (int g = 0; g <= m.groupCount(); g++) {
+            sb.append('[').append(m.start(g)).append(',').append(m.end(g)).append(']');
+        }
+        return sb.append(' ').append(m.hitEnd()).append(' ').append(m.requireEnd()).toString();
+    }
+}
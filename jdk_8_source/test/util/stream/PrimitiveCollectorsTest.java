@@ -0,0 +1,149 @@
+package util.stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * 原始类型收集器：countingByInt、summingByLong、toIntMap 等不装箱地按原始类型键分组，
+ * 顺序流和并行流的结果必须和按装箱元素逐个累加的 HashMap 一致
+ * @since 2026/10/17
+ */
+public class PrimitiveCollectorsTest {
+
+    @Test
+    public void testCountingAndSumming() {
+        Random random = new Random(1);
+        for (int size : new int[]{0, 1, 10, 1000, 100000}) {
+            int[] data = random.ints(size, -500, 500).toArray();
+            Map<Integer, Long> counts = new HashMap<>();
+            Map<Integer, Long> sums = new HashMap<>();
+            for (int i : data) {
+                counts.merge(Math.floorMod(i, 37), 1L, Long::sum);
+                sums.merge(i & 7, (long) i * i, Long::sum);
+            }
+            for (boolean parallel : new boolean[]{false, true}) {
+                IntStream s = IntStream.of(data);
+                Assert.assertEquals(counts, (parallel ? s.parallel() : s)
+                        .collect(Collectors.countingByInt(i -> Math.floorMod(i, 37))));
+                s = IntStream.of(data);
+                Assert.assertEquals(sums, (parallel ? s.parallel() : s)
+                        .collect(Collectors.summingByInt(i -> i & 7, i -> (long) i * i)));
+            }
+
+            long[] longs = random.longs(size, 0, 1L << 40).toArray();
+            Map<Long, Long> longCounts = new HashMap<>();
+            Map<Long, Long> longSums = new HashMap<>();
+            for (long l : longs) {
+                longCounts.merge(l >>> 36, 1L, Long::sum);
+                longSums.merge(l % 3, l, Long::sum);
+            }
+            Assert.assertEquals(longCounts, LongStream.of(longs).parallel().collect(Collectors.countingByLong(l -> l >>> 36)));
+            Assert.assertEquals(longSums, LongStream.of(longs).collect(Collectors.summingByLong(l -> l % 3, l -> l)));
+
+            double[] doubles = random.doubles(size).toArray();
+            Map<Long, Long> histogram = new HashMap<>();
+            Map<Long, Double> bucketSums = new HashMap<>();
+            for (double d : doubles) {
+                histogram.merge((long) (d * 10), 1L, Long::sum);
+                bucketSums.merge((long) (d * 4), d, Double::sum);
+            }
+            Assert.assertEquals(histogram, DoubleStream.of(doubles).parallel()
+                    .collect(Collectors.countingByDouble(d -> (long) (d * 10))));
+            Map<Long, Double> actual = DoubleStream.of(doubles).parallel()
+                    .collect(Collectors.summingByDouble(d -> (long) (d * 4), d -> d));
+            Assert.assertEquals(bucketSums.keySet(), actual.keySet());
+            for (Map.Entry<Long, Double> e : bucketSums.entrySet()) {
+                Assert.assertEquals(e.getValue(), actual.get(e.getKey()), 1e-9 * size);
+            }
+        }
+    }
+
+    /**
+     * toIntMap 的合并函数满足结合律但不满足交换律时，并行流也要按出现顺序合并
+     */
+    @Test
+    public void testToMapMergesInEncounterOrder() {
+        Collector.OfInt<?, Map<Integer, Long>> first = Collectors.toIntMap(i -> i % 10, i -> i, (a, b) -> a);
+        Collector.OfInt<?, Map<Integer, Long>> last = Collectors.toIntMap(i -> i % 10, i -> i, (a, b) -> b);
+        Map<Integer, Long> expectedFirst = new HashMap<>();
+        Map<Integer, Long> expectedLast = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            expectedFirst.putIfAbsent(i % 10, (long) i);
+            expectedLast.put(i % 10, (long) i);
+        }
+        Assert.assertEquals(expectedFirst, IntStream.range(0, 100000).collect(first));
+        Assert.assertEquals(expectedFirst, IntStream.range(0, 100000).parallel().collect(first));
+        Assert.assertEquals(expectedLast, IntStream.range(0, 100000).parallel().collect(last));
+
+        Map<Long, Long> max = LongStream.rangeClosed(1, 1000).parallel()
+                .collect(Collectors.toLongMap(l -> l % 2, l -> l, Math::max));
+        Assert.assertEquals(Long.valueOf(1000), max.get(0L));
+        Assert.assertEquals(Long.valueOf(999), max.get(1L));
+    }
+
+    @Test
+    public void testMapView() {
+        Map<Integer, Long> map = IntStream.of(0, 0, -1, Integer.MIN_VALUE, 7, 0, Integer.MIN_VALUE)
+                .collect(Collectors.countingByInt(i -> i));
+        Assert.assertEquals(4, map.size());
+        Assert.assertEquals(Long.valueOf(3), map.get(0));
+        Assert.assertEquals(Long.valueOf(2), map.get(Integer.MIN_VALUE));
+        Assert.assertNull(map.get(0L));
+        Assert.assertNull(map.get("0"));
+        Assert.assertNull(map.get(null));
+        Assert.assertTrue(map.containsKey(-1));
+        Assert.assertFalse(map.containsKey(1));
+        Assert.assertTrue(map.containsValue(1L));
+        Map<Integer, Long> expected = new HashMap<>();
+        expected.put(0, 3L);
+        expected.put(-1, 1L);
+        expected.put(Integer.MIN_VALUE, 2L);
+        expected.put(7, 1L);
+        Assert.assertEquals(expected, map);
+        Assert.assertEquals(expected.hashCode(), map.hashCode());
+        try {
+            map.put(1, 1L);
+            Assert.fail();
+        } catch (UnsupportedOperationException e) {
+            // 结果不可修改
+        }
+        // 作为普通 Collector 用于装箱的流
+        Assert.assertEquals(expected, Stream.of(0, 0, -1, Integer.MIN_VALUE, 7, 0, Integer.MIN_VALUE)
+                .collect(Collectors.countingByInt(i -> i)));
+    }
+
+    /**
+     * 10^8 个元素的并行分组计数：原始类型收集器与 boxed().collect(groupingBy(..., counting())) 对比
+     */
+    @Test
+    public void benchmarkCountingByInt() {
+        int size = 100000000;
+        for (int round = 0; round < 2; round++) {
+            long t0 = System.nanoTime();
+            Map<Integer, Long> primitive = IntStream.range(0, size).parallel()
+                    .collect(Collectors.countingByInt(i -> i % 1000));
+            long t1 = System.nanoTime();
+            Map<Integer, Long> boxed = IntStream.range(0, size).parallel().boxed()
+                    .collect(Collectors.groupingBy(i -> i % 1000, Collectors.counting()));
+            long t2 = System.nanoTime();
+            Map<Long, Long> sums = LongStream.range(0, size).parallel()
+                    .collect(Collectors.summingByLong(l -> l & 0xffff, l -> l));
+            long t3 = System.nanoTime();
+            Assert.assertEquals(boxed, primitive);
+            Assert.assertEquals(65536, sums.size());
+            System.out.println("round " + round + ": countingByInt " + (t1 - t0) / 1000000
+                    + " ms, boxed groupingBy counting " + (t2 - t1) / 1000000 + " ms, summingByLong "
+                    + (t3 - t2) / 1000000 + " ms");
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package util.stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * 并行 sorted 按叶子排序再归并、sorted().limit() 融合为有界缓冲的 Top-K、int/long 流的 distinct 不再装箱：
+ * 顺序流、并行流、已知大小和未知大小的结果都必须和 Arrays.sort、LinkedHashSet 的结果一致
+ * @since 2026/10/17
+ */
+public class SortedDistinctTest {
+
+    private static final int[] SIZES = {0, 1, 2, 10, 100, 1000, 10000, 100000};
+
+    @Test
+    public void testSortedInt() {
+        Random random = new Random(1);
+        for (int size : SIZES) {
+            int[] data = random.ints(size, -size, size + 1).toArray();
+            int[] expected = data.clone();
+            Arrays.sort(expected);
+            for (boolean parallel : new boolean[]{false, true}) {
+                IntStream s = IntStream.of(data);
+                Assert.assertArrayEquals(expected, (parallel ? s.parallel() : s).sorted().toArray());
+                // 未知大小
+                s = IntStream.of(data);
+                Assert.assertArrayEquals(expected, (parallel ? s.parallel() : s).filter(i -> true).sorted().toArray());
+            }
+        }
+    }
+
+    @Test
+    public void testSortedLongAndDouble() {
+        Random random = new Random(2);
+        for (int size : SIZES) {
+            long[] longs = random.longs(size).toArray();
+            long[] expectedLongs = longs.clone();
+            Arrays.sort(expectedLongs);
+            Assert.assertArrayEquals(expectedLongs, LongStream.of(longs).parallel().sorted().toArray());
+            Assert.assertArrayEquals(expectedLongs, LongStream.of(longs).sorted().toArray());
+
+            double[] doubles = new double[size];
+            for (int i = 0; i < size; i++) {
+                int k = random.nextInt(20);
+                doubles[i] = k == 0 ? Double.NaN : k == 1 ? -0.0 : k == 2 ? 0.0 : random.nextGaussian();
+            }
+            double[] expectedDoubles = doubles.clone();
+            Arrays.sort(expectedDoubles);
+            assertBitsEqual(expectedDoubles, DoubleStream.of(doubles).parallel().sorted().toArray());
+            assertBitsEqual(expectedDoubles, DoubleStream.of(doubles).parallel().sorted().limit(size / 3).toArray());
+        }
+    }
+
+    /**
+     * 有序流的 sorted 是稳定的：键相同的元素保持出现顺序
+     */
+    @Test
+    public void testSortedRefIsStable() {
+        Random random = new Random(3);
+        for (int size : SIZES) {
+            Integer[][] data = new Integer[size][];
+            for (int i = 0; i < size; i++) {
+                data[i] = new Integer[]{random.nextInt(50), i};
+            }
+            Comparator<Integer[]> byKey = Comparator.comparing(a -> a[0]);
+            Integer[][] expected = data.clone();
+            Arrays.sort(expected, byKey);
+            for (boolean parallel : new boolean[]{false, true}) {
+                Stream<Integer[]> s = parallel ? Stream.of(data).parallel() : Stream.of(data);
+                Assert.assertArrayEquals(expected, s.sorted(byKey).toArray());
+                for (int k : new int[]{1, 7, 100, size, size + 5}) {
+                    s = parallel ? Stream.of(data).parallel() : Stream.of(data);
+                    Assert.assertArrayEquals(Arrays.copyOf(expected, Math.min(k, size)),
+                            s.sorted(byKey).limit(k).toArray());
+                    s = parallel ? Stream.of(data).parallel() : Stream.of(data);
+                    Assert.assertArrayEquals(Arrays.copyOfRange(expected, Math.min(3, size), Math.min(3 + k, size)),
+                            s.filter(a -> true).sorted(byKey).skip(3).limit(k).toArray());
+                }
+            }
+            String[] strings = new String[size];
+            for (int i = 0; i < size; i++) {
+                strings[i] = Integer.toString(random.nextInt(size + 1));
+            }
+            String[] sortedStrings = strings.clone();
+            Arrays.sort(sortedStrings);
+            Assert.assertArrayEquals(sortedStrings, Stream.of(strings).parallel().sorted().toArray());
+            Assert.assertArrayEquals(Arrays.copyOf(sortedStrings, Math.min(10, size)),
+                    Stream.of(strings).sorted().limit(10).toArray());
+        }
+    }
+
+    @Test
+    public void testSortedLimit() {
+        Random random = new Random(4);
+        for (int size : SIZES) {
+            int[] data = random.ints(size, 0, Math.max(1, size / 4)).toArray();
+            int[] sorted = data.clone();
+            Arrays.sort(sorted);
+            for (int k : new int[]{1, 2, 10, 33, 1000, size}) {
+                for (boolean parallel : new boolean[]{false, true}) {
+                    int[] expected = Arrays.copyOf(sorted, Math.min(k, size));
+                    IntStream s = parallel ? IntStream.of(data).parallel() : IntStream.of(data);
+                    Assert.assertArrayEquals(expected, s.sorted().limit(k).toArray());
+                    s = parallel ? IntStream.of(data).parallel() : IntStream.of(data);
+                    Assert.assertArrayEquals(expected, s.filter(i -> true).sorted().limit(k).toArray());
+                    s = parallel ? IntStream.of(data).parallel() : IntStream.of(data);
+                    Assert.assertEquals(Math.min(k, size), s.sorted().limit(k).count());
+
+                    LongStream l = parallel ? LongStream.range(0, size).parallel() : LongStream.range(0, size);
+                    Assert.assertArrayEquals(LongStream.range(0, Math.min(k, size)).map(i -> size - 1 - i).toArray(),
+                            l.map(i -> -i).sorted().limit(k).map(i -> -i).toArray());
+                }
+            }
+            // 短路的下游：第一个元素
+            if (size > 0) {
+                Assert.assertEquals(sorted[0], IntStream.of(data).sorted().limit(5).findFirst().getAsInt());
+                Assert.assertEquals(sorted[0], IntStream.of(data).parallel().sorted().limit(5).findFirst().getAsInt());
+            }
+        }
+        // 已经链接过的流不能再被 limit 修改
+        IntStream sorted = IntStream.of(3, 1, 2).sorted();
+        int[] all = sorted.toArray();
+        try {
+            sorted.limit(1);
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+            // 流只能使用一次
+        }
+        Assert.assertArrayEquals(new int[]{1, 2, 3}, all);
+    }
+
+    @Test
+    public void testDistinct() {
+        Random random = new Random(5);
+        for (int size : SIZES) {
+            int[] data = random.ints(size, -size / 3 - 1, size / 3 + 1).toArray();
+            LinkedHashSet<Integer> set = new LinkedHashSet<>();
+            for (int i : data) {
+                set.add(i);
+            }
+            int[] expected = new int[set.size()];
+            int n = 0;
+            for (int i : set) {
+                expected[n++] = i;
+            }
+            Assert.assertArrayEquals(expected, IntStream.of(data).distinct().toArray());
+            Assert.assertArrayEquals(expected, IntStream.of(data).parallel().distinct().toArray());
+            int[] unordered = IntStream.of(data).parallel().unordered().distinct().toArray();
+            Arrays.sort(unordered);
+            int[] sortedExpected = expected.clone();
+            Arrays.sort(sortedExpected);
+            Assert.assertArrayEquals(sortedExpected, unordered);
+            Assert.assertArrayEquals(sortedExpected, IntStream.of(data).sorted().distinct().toArray());
+            Assert.assertArrayEquals(sortedExpected, IntStream.of(data).parallel().sorted().distinct().toArray());
+
+            long[] longs = new long[size];
+            for (int i = 0; i < size; i++) {
+                longs[i] = random.nextBoolean() ? random.nextInt(10) : random.nextLong() << 40;
+            }
+            LinkedHashSet<Long> longSet = new LinkedHashSet<>();
+            for (long l : longs) {
+                longSet.add(l);
+            }
+            long[] expectedLongs = new long[longSet.size()];
+            n = 0;
+            for (long l : longSet) {
+                expectedLongs[n++] = l;
+            }
+            Assert.assertArrayEquals(expectedLongs, LongStream.of(longs).distinct().toArray());
+            Assert.assertArrayEquals(expectedLongs, LongStream.of(longs).parallel().distinct().toArray());
+            Assert.assertEquals(expectedLongs.length, LongStream.of(longs).parallel().distinct().count());
+        }
+        Assert.assertArrayEquals(new int[]{0, -1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE},
+                IntStream.of(0, -1, 0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, 0).distinct().toArray());
+        Assert.assertArrayEquals(new long[]{0, Long.MIN_VALUE, 1L << 32, 1},
+                LongStream.of(0, Long.MIN_VALUE, 1L << 32, 0, 1, Long.MIN_VALUE, 1L << 32).distinct().toArray());
+    }
+
+    /**
+     * 对比 sorted().limit(10) 与先整体排序再截取、int distinct 与装箱 distinct 的耗时
+     */
+    @Test
+    public void benchmarkSortedLimitAndDistinct() {
+        int size = 5000000;
+        int[] data = new Random(6).ints(size).toArray();
+        for (int round = 0; round < 4; round++) {
+            long t0 = System.nanoTime();
+            int[] top = IntStream.of(data).parallel().sorted().limit(10).toArray();
+            long t1 = System.nanoTime();
+            int[] all = IntStream.of(data).parallel().sorted().toArray();
+            long t2 = System.nanoTime();
+            int[] sequentialTop = IntStream.of(data).sorted().limit(10).toArray();
+            long t3 = System.nanoTime();
+            Assert.assertArrayEquals(Arrays.copyOf(all, 10), top);
+            Assert.assertArrayEquals(top, sequentialTop);
+
+            int[] small = IntStream.of(data).map(i -> i & 0xfffff).toArray();
+            long t4 = System.nanoTime();
+            long distinct = IntStream.of(small).distinct().count();
+            long t5 = System.nanoTime();
+            long boxed = IntStream.of(small).boxed().distinct().count();
+            long t6 = System.nanoTime();
+            long parallelDistinct = IntStream.of(small).parallel().distinct().count();
+            long t7 = System.nanoTime();
+            Assert.assertEquals(boxed, distinct);
+            Assert.assertEquals(boxed, parallelDistinct);
+            if (round >= 1) {
+                System.out.println("round " + (round - 1) + ": parallel sorted().limit(10) " + (t1 - t0) / 1000000
+                        + " ms, parallel sorted() " + (t2 - t1) / 1000000 + " ms, sequential sorted().limit(10) "
+                        + (t3 - t2) / 1000000 + " ms; distinct " + (t5 - t4) / 1000000 + " ms, boxed distinct "
+                        + (t6 - t5) / 1000000 + " ms, parallel distinct " + (t7 - t6) / 1000000 + " ms");
+            }
+        }
+    }
+
+    /**
+     * 按位比较，NaN、-0.0 的位置也要一致；actual 可以是 expected 的前缀
+     */
+    private static void assertBitsEqual(double[] expected, double[] actual) {
+        List<Long> e = new ArrayList<>();
+        List<Long> a = new ArrayList<>();
+        for (double d : expected) {
+            e.add(Double.doubleToLongBits(d));
+        }
+        for (double d : actual) {
+            a.add(Double.doubleToLongBits(d));
+        }
+        Assert.assertEquals(e.subList(0, a.size()), a);
+    }
+}
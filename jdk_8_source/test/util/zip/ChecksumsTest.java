@@ -0,0 +1,229 @@
+package util.zip;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+import java.util.zip.Checksums;
+
+/**
+ * 校验和合并与并行计算测试：CRC32/Adler32/CRC32C 的 combine 与整体计算一致、
+ * CRC32C 标准向量与各类 ByteBuffer 路径、按映射分段并行计算文件校验和，以及吞吐对比
+ * @since 2026/10/17
+ */
+public class ChecksumsTest {
+
+    private static long checksum(Checksum c, byte[] b, int off, int len) {
+        c.reset();
+        c.update(b, off, len);
+        return c.getValue();
+    }
+
+    /**
+     * 逐位计算的 CRC-32C，作为对照
+     */
+    private static long bitwiseCrc32c(byte[] b, int off, int len) {
+        int c = 0xffffffff;
+        for (int i = off; i < off + len; i++) {
+            c ^= b[i] & 0xff;
+            for (int k = 0; k < 8; k++) {
+                c = (c & 1) != 0 ? (c >>> 1) ^ 0x82f63b78 : c >>> 1;
+            }
+        }
+        return ~c & 0xffffffffL;
+    }
+
+    @Test
+    public void testCrc32cVectors() throws Exception {
+        CRC32C c = new CRC32C();
+        Assert.assertEquals(0L, c.getValue());
+        c.update("123456789".getBytes("US-ASCII"));
+        Assert.assertEquals(0xe3069283L, c.getValue());
+        Assert.assertEquals(0x8a9136aaL, checksum(c, new byte[32], 0, 32));
+        byte[] ones = new byte[32];
+        java.util.Arrays.fill(ones, (byte) 0xff);
+        Assert.assertEquals(0x62a8ab43L, checksum(c, ones, 0, 32));
+
+        Random random = new Random(1);
+        byte[] data = new byte[1000];
+        random.nextBytes(data);
+        for (int i = 0; i < 200; i++) {
+            int off = random.nextInt(100);
+            int len = random.nextInt(data.length - off);
+            Assert.assertEquals(bitwiseCrc32c(data, off, len), checksum(c, data, off, len));
+        }
+        c.reset();
+        for (byte b : data) {
+            c.update(b);
+        }
+        Assert.assertEquals(bitwiseCrc32c(data, 0, data.length), c.getValue());
+    }
+
+    @Test
+    public void testByteBuffers() {
+        Random random = new Random(2);
+        byte[] data = new byte[5000];
+        random.nextBytes(data);
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data).clear();
+        ByteBuffer[] buffers = { ByteBuffer.wrap(data), direct, ByteBuffer.wrap(data).asReadOnlyBuffer() };
+        CRC32C c = new CRC32C();
+        for (ByteBuffer buffer : buffers) {
+            for (int i = 0; i < 50; i++) {
+                int pos = random.nextInt(100);
+                int limit = pos + random.nextInt(data.length - pos);
+                buffer.limit(limit).position(pos);
+                c.reset();
+                c.update(buffer);
+                Assert.assertEquals(limit, buffer.position());
+                Assert.assertEquals(bitwiseCrc32c(data, pos, limit - pos), c.getValue());
+            }
+        }
+        // a sliced buffer has a non-zero array offset
+        ByteBuffer slice = ((ByteBuffer) ByteBuffer.wrap(data).position(7)).slice();
+        c.reset();
+        c.update(slice);
+        Assert.assertEquals(bitwiseCrc32c(data, 7, data.length - 7), c.getValue());
+    }
+
+    @Test
+    public void testCombine() {
+        Random random = new Random(3);
+        byte[] data = new byte[100000];
+        random.nextBytes(data);
+        CRC32 crc32 = new CRC32();
+        Adler32 adler32 = new Adler32();
+        CRC32C crc32c = new CRC32C();
+        for (int i = 0; i < 200; i++) {
+            int len = random.nextInt(data.length);
+            int split = i % 10 == 0 ? (i % 20 == 0 ? 0 : len) : random.nextInt(len + 1);
+            Assert.assertEquals(checksum(crc32, data, 0, len),
+                                CRC32.combine(checksum(crc32, data, 0, split),
+                                              checksum(crc32, data, split, len - split), len - split));
+            Assert.assertEquals(checksum(adler32, data, 0, len),
+                                Adler32.combine(checksum(adler32, data, 0, split),
+                                                checksum(adler32, data, split, len - split), len - split));
+            Assert.assertEquals(checksum(crc32c, data, 0, len),
+                                CRC32C.combine(checksum(crc32c, data, 0, split),
+                                               checksum(crc32c, data, split, len - split), len - split));
+        }
+        // lengths beyond 2^32, against combining a piece with itself
+        long a = checksum(adler32, data, 0, 65521);
+        long twice = Adler32.combine(a, a, 65521);
+        Assert.assertEquals(Adler32.combine(twice, twice, 2 * 65521L),
+                            Adler32.combine(a, Adler32.combine(a, twice, 2 * 65521L), 3 * 65521L));
+        try {
+            CRC32.combine(0, 0, -1);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            Adler32.combine(1, 1, -1);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static File createFile(long size, long seed) throws IOException {
+        File file = File.createTempFile("checksums", ".bin");
+        file.deleteOnExit();
+        Random random = new Random(seed);
+        byte[] chunk = new byte[1 << 20];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            for (long n = 0; n < size; n += chunk.length) {
+                random.nextBytes(chunk);
+                raf.write(chunk, 0, (int) Math.min(chunk.length, size - n));
+            }
+        }
+        return file;
+    }
+
+    private static long sequential(FileChannel ch, long position, long size, Checksum c) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long end = position + size;
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+            int n = ch.read(buffer, position);
+            c.update(buffer.array(), 0, n);
+            position += n;
+        }
+        return c.getValue();
+    }
+
+    @Test
+    public void testFile() throws IOException {
+        long size = (100L << 20) + 12345;
+        File file = createFile(size, 4);
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long[][] regions = { { 0, size }, { 0, 0 }, { 1, size - 1 }, { 33L << 20, 40L << 20 }, { size - 1, 1 } };
+            for (long[] r : regions) {
+                Assert.assertEquals(sequential(ch, r[0], r[1], new CRC32()), Checksums.crc32(ch, r[0], r[1]));
+                Assert.assertEquals(sequential(ch, r[0], r[1], new Adler32()), Checksums.adler32(ch, r[0], r[1]));
+                Assert.assertEquals(sequential(ch, r[0], r[1], new CRC32C()), Checksums.crc32c(ch, r[0], r[1]));
+            }
+            try {
+                Checksums.crc32(ch, size - 10, 11);
+                Assert.fail();
+            } catch (EOFException expected) {
+            }
+            try {
+                Checksums.crc32(ch, -1, 1);
+                Assert.fail();
+            } catch (IllegalArgumentException expected) {
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testBenchmark() throws IOException {
+        byte[] data = new byte[64 << 20];
+        new Random(5).nextBytes(data);
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            bitwiseCrc32c(data, 0, 8 << 20);
+            long bitwiseTime = (System.nanoTime() - start) * 8;
+
+            start = System.nanoTime();
+            CRC32C c = new CRC32C();
+            c.update(data);
+            long sliced = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            long crc32 = System.nanoTime() - start;
+            System.out.println("64M: CRC32C bitwise ~" + bitwiseTime / 1000000 + " ms, slicing-by-8 "
+                               + sliced / 1000000 + " ms, CRC32 " + crc32 / 1000000 + " ms");
+        }
+
+        long size = 256L << 20;
+        File file = createFile(size, 6);
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                long expected = sequential(ch, 0, size, new CRC32());
+                long seq = System.nanoTime() - start;
+                start = System.nanoTime();
+                Assert.assertEquals(expected, Checksums.crc32(ch, 0, size));
+                long par = System.nanoTime() - start;
+                System.out.println("256M file CRC32: read+update " + seq / 1000000
+                                   + " ms, Checksums.crc32 " + par / 1000000 + " ms");
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package util.zip;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ParallelGZIPInputStream;
+import java.util.zip.ParallelGZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * 并行 GZIP 流测试：单成员输出可被标准 GZIPInputStream 解压、索引多成员输出的并行解压、
+ * flush 与空流、普通多成员与尾部垃圾数据、损坏数据的报错，以及与串行实现的耗时对比
+ * @since 2026/10/17
+ */
+public class ParallelGZIPStreamTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private static byte[] randomText(Random random, int n) {
+        byte[] data = new byte[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = (byte) ('a' + random.nextInt(random.nextInt(26) + 1));
+        }
+        return data;
+    }
+
+    private static byte[] pgzip(byte[] data, int blockSize, boolean indexed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ParallelGZIPOutputStream gz = new ParallelGZIPOutputStream(
+                out, Deflater.DEFAULT_COMPRESSION, blockSize, POOL, indexed);
+        // uneven writes so that blocks are split across calls
+        Random random = new Random(data.length);
+        int off = 0;
+        while (off < data.length) {
+            int n = Math.min(data.length - off, random.nextInt(3 * blockSize));
+            if (n == 1) {
+                gz.write(data[off]);
+            } else {
+                gz.write(data, off, n);
+            }
+            off += n;
+        }
+        gz.close();
+        return out.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gz = new GZIPOutputStream(out);
+        gz.write(data);
+        gz.close();
+        return out.toByteArray();
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            byte[] buf = new byte[1000];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+        } finally {
+            in.close();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        return readAll(new GZIPInputStream(new ByteArrayInputStream(data)));
+    }
+
+    private static byte[] pgunzip(byte[] data) throws IOException {
+        return readAll(new ParallelGZIPInputStream(new ByteArrayInputStream(data), POOL));
+    }
+
+    @Test
+    public void testSingleMember() throws IOException {
+        Random random = new Random(1);
+        for (int size : new int[] { 0, 1, 100, 4095, 4096, 4097, 50000, 300000 }) {
+            byte[] data = randomText(random, size);
+            for (int blockSize : new int[] { 1000, 4096, 100000 }) {
+                byte[] gz = pgzip(data, blockSize, false);
+                Assert.assertArrayEquals("size " + size + " block " + blockSize, data, gunzip(gz));
+                Assert.assertArrayEquals(data, pgunzip(gz));
+            }
+        }
+    }
+
+    @Test
+    public void testIndexed() throws IOException {
+        Random random = new Random(2);
+        for (int size : new int[] { 0, 1, 5000, 65536, 300000 }) {
+            byte[] data = randomText(random, size);
+            byte[] gz = pgzip(data, 8192, true);
+            Assert.assertArrayEquals("size " + size, data, gunzip(gz));
+            Assert.assertArrayEquals("size " + size, data, pgunzip(gz));
+        }
+    }
+
+    @Test
+    public void testByteReads() throws IOException {
+        byte[] data = randomText(new Random(3), 20000);
+        InputStream in = new ParallelGZIPInputStream(
+                new ByteArrayInputStream(pgzip(data, 3000, true)), POOL);
+        for (int i = 0; i < data.length; i++) {
+            Assert.assertEquals(data[i] & 0xff, in.read());
+        }
+        Assert.assertEquals(-1, in.read());
+        in.close();
+        try {
+            in.read();
+            Assert.fail();
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void testFlush() throws IOException {
+        for (boolean indexed : new boolean[] { false, true }) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ParallelGZIPOutputStream gz = new ParallelGZIPOutputStream(
+                    out, Deflater.BEST_SPEED, 1 << 16, POOL, indexed);
+            gz.write("hello ".getBytes("US-ASCII"));
+            gz.flush();
+            gz.flush();
+            int flushed = out.size();
+            Assert.assertTrue(flushed > 0);
+            gz.write("world".getBytes("US-ASCII"));
+            gz.close();
+            Assert.assertTrue(out.size() > flushed);
+            gz.close();
+            Assert.assertEquals("hello world", new String(gunzip(out.toByteArray()), "US-ASCII"));
+            Assert.assertEquals("hello world", new String(pgunzip(out.toByteArray()), "US-ASCII"));
+            try {
+                gz.write(1);
+                Assert.fail();
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testPlainMembers() throws IOException {
+        Random random = new Random(4);
+        byte[] a = randomText(random, 10000);
+        byte[] b = randomText(random, 20000);
+        byte[] c = randomText(random, 30000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // indexed members, then a plain member, then indexed again
+        out.write(pgzip(a, 4096, true));
+        out.write(gzip(b));
+        out.write(pgzip(c, 4096, true));
+        out.write(new byte[] { 1, 2, 3 });
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(a);
+        expected.write(b);
+        expected.write(c);
+        Assert.assertArrayEquals(expected.toByteArray(), pgunzip(out.toByteArray()));
+    }
+
+    @Test
+    public void testBadInput() throws IOException {
+        try {
+            new ParallelGZIPInputStream(new ByteArrayInputStream(new byte[0]), POOL);
+            Assert.fail();
+        } catch (EOFException expected) {
+        }
+        try {
+            new ParallelGZIPInputStream(new ByteArrayInputStream(new byte[20]), POOL);
+            Assert.fail();
+        } catch (ZipException expected) {
+        }
+
+        byte[] gz = pgzip(randomText(new Random(5), 50000), 8192, true);
+        byte[] corrupt = gz.clone();
+        corrupt[gz.length / 2] ^= 0x55;
+        try {
+            pgunzip(corrupt);
+            Assert.fail();
+        } catch (ZipException expected) {
+        }
+        byte[] truncated = java.util.Arrays.copyOf(gz, gz.length - 3);
+        try {
+            pgunzip(truncated);
+            Assert.fail();
+        } catch (EOFException expected) {
+        }
+    }
+
+    @Test
+    public void testBenchmark() throws IOException {
+        byte[] data = randomText(new Random(6), 8 << 20);
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            byte[] serial = gzip(data);
+            long gzipTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            byte[] parallel = pgzip(data, ParallelGZIPOutputStream.DEFAULT_BLOCK_SIZE, true);
+            long pgzipTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            gunzip(serial);
+            long gunzipTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            pgunzip(parallel);
+            long pgunzipTime = System.nanoTime() - start;
+            System.out.println("compress: serial " + gzipTime / 1000000 + " ms (" + serial.length
+                               + " bytes), parallel " + pgzipTime / 1000000 + " ms (" + parallel.length
+                               + " bytes); decompress: serial " + gunzipTime / 1000000
+                               + " ms, parallel " + pgunzipTime / 1000000 + " ms");
+        }
+    }
+}
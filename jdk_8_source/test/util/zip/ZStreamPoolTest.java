@@ -0,0 +1,293 @@
+package util.zip;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZStreamPool;
+
+/**
+ * Inflater/Deflater 池测试：GZIP 流默认从池中借还、归还时重置、
+ * 容量上限与多余对象的确定性释放、重复 close 不会重复归还、子类替换的对象不入池、
+ * close 失败可以重试，以及多线程往返的正确性；池只能通过流和统计方法观察
+ * @since 2026/10/17
+ */
+public class ZStreamPoolTest {
+
+    private static byte[] randomText(Random random, int n) {
+        byte[] data = new byte[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = (byte) ('a' + random.nextInt(6));
+        }
+        return data;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gz = new GZIPOutputStream(out);
+        gz.write(data);
+        gz.close();
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            byte[] buf = new byte[256];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testStreamsReuse() throws IOException {
+        Random random = new Random(1);
+        byte[] data = randomText(random, 10000);
+        gunzip(gzip(data));
+        long created = ZStreamPool.getCreatedCount();
+        long reused = ZStreamPool.getReusedCount();
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertArrayEquals(data, gunzip(gzip(data)));
+        }
+        Assert.assertEquals(created, ZStreamPool.getCreatedCount());
+        Assert.assertEquals(reused + 2000, ZStreamPool.getReusedCount());
+    }
+
+    /**
+     * 上一个使用者改过压缩策略，归还后下一个 GZIP 流拿到的 deflater 必须恢复默认设置
+     */
+    @Test
+    public void testResetOnReturn() throws IOException {
+        byte[] data = randomText(new Random(3), 10000);
+        byte[] expected = gzip(data);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gz = new GZIPOutputStream(out) {
+            {
+                def.setStrategy(Deflater.HUFFMAN_ONLY);
+            }
+        };
+        gz.write(data);
+        gz.close();
+        Assert.assertFalse(java.util.Arrays.equals(expected, out.toByteArray()));
+        Assert.assertArrayEquals(expected, gzip(data));
+        Assert.assertArrayEquals(data, gunzip(expected));
+    }
+
+    @Test
+    public void testBounded() throws IOException {
+        int max = ZStreamPool.getMaxIdle();
+        byte[] data = gzip(new byte[10]);
+        ZStreamPool.clear();
+        Assert.assertEquals(0, ZStreamPool.getIdleCount());
+        List<InputStream> streams = new ArrayList<>();
+        for (int i = 0; i < max + 5; i++) {
+            streams.add(new GZIPInputStream(new ByteArrayInputStream(data)));
+        }
+        long ended = ZStreamPool.getEndedCount();
+        for (InputStream in : streams) {
+            in.close();
+        }
+        Assert.assertEquals(ended + 5, ZStreamPool.getEndedCount());
+        Assert.assertEquals(max, ZStreamPool.getIdleCount());
+
+        ZStreamPool.clear();
+        Assert.assertEquals(0, ZStreamPool.getIdleCount());
+        Assert.assertEquals(ended + 5 + max, ZStreamPool.getEndedCount());
+    }
+
+    @Test
+    public void testCloseReleasesOnce() throws IOException {
+        ZStreamPool.clear();
+        GZIPOutputStream gz = new GZIPOutputStream(new ByteArrayOutputStream());
+        gz.write(1);
+        gz.close();
+        gz.close();
+        Assert.assertEquals(1, ZStreamPool.getIdleCount());
+        try {
+            gz.write(1);
+            Assert.fail();
+        } catch (IOException expected) {
+        }
+        gz.finish();
+        gz.flush();
+        // 只归还了一次，同时打开的两个流中只有一个能复用它
+        long created = ZStreamPool.getCreatedCount();
+        GZIPOutputStream a = new GZIPOutputStream(new ByteArrayOutputStream());
+        GZIPOutputStream b = new GZIPOutputStream(new ByteArrayOutputStream());
+        Assert.assertEquals(created + 1, ZStreamPool.getCreatedCount());
+        a.close();
+        b.close();
+
+        byte[] data = gzip(new byte[10]);
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data));
+        in.close();
+        in.close();
+        created = ZStreamPool.getCreatedCount();
+        GZIPInputStream c = new GZIPInputStream(new ByteArrayInputStream(data));
+        GZIPInputStream d = new GZIPInputStream(new ByteArrayInputStream(data));
+        Assert.assertEquals(created + 1, ZStreamPool.getCreatedCount());
+        c.close();
+        d.close();
+    }
+
+    /**
+     * 子类换掉或者自行结束了默认的 inflater，close 时不能把它放进池中
+     */
+    @Test
+    public void testForeignAndEndedNotPooled() throws IOException {
+        ZStreamPool.clear();
+        long ended = ZStreamPool.getEndedCount();
+        InflaterInputStream replaced = new InflaterInputStream(new ByteArrayInputStream(new byte[0])) {
+            {
+                inf = new Inflater();
+            }
+        };
+        replaced.close();
+        Assert.assertEquals(0, ZStreamPool.getIdleCount());
+        Assert.assertEquals(ended + 1, ZStreamPool.getEndedCount());
+
+        InflaterInputStream endedFirst = new InflaterInputStream(new ByteArrayInputStream(new byte[0])) {
+            @Override
+            public void close() throws IOException {
+                inf.end();
+                super.close();
+            }
+        };
+        endedFirst.close();
+        Assert.assertEquals(0, ZStreamPool.getIdleCount());
+        Assert.assertEquals(ended + 1, ZStreamPool.getEndedCount());
+    }
+
+    /**
+     * finish 失败时流不算关闭，deflater 也不归还，修复底层流后可以再次 close
+     */
+    @Test
+    public void testFailedCloseCanBeRetried() throws IOException {
+        ZStreamPool.clear();
+        final boolean[] fail = { false };
+        final boolean[] closed = { false };
+        DeflaterOutputStream out = new DeflaterOutputStream(new java.io.OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                if (fail[0]) {
+                    throw new IOException("disk full");
+                }
+            }
+
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        });
+        out.write(randomText(new Random(4), 1000));
+        fail[0] = true;
+        try {
+            out.close();
+            Assert.fail();
+        } catch (IOException expected) {
+        }
+        Assert.assertEquals(0, ZStreamPool.getIdleCount());
+        Assert.assertFalse(closed[0]);
+        fail[0] = false;
+        out.close();
+        Assert.assertTrue(closed[0]);
+        Assert.assertEquals(1, ZStreamPool.getIdleCount());
+    }
+
+    @Test
+    public void testBadHeaderReleases() {
+        ZStreamPool.clear();
+        try {
+            new GZIPInputStream(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }));
+            Assert.fail();
+        } catch (IOException expected) {
+        }
+        Assert.assertEquals(1, ZStreamPool.getIdleCount());
+    }
+
+    @Test
+    public void testConcurrentRoundTrips() throws Exception {
+        int threads = 4;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            Thread worker = new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    for (int i = 0; i < 500; i++) {
+                        byte[] data = randomText(random, random.nextInt(5000));
+                        if (!java.util.Arrays.equals(data, gunzip(gzip(data)))) {
+                            throw new AssertionError("round trip " + i);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        Assert.assertTrue(ZStreamPool.getIdleCount() <= 4 * ZStreamPool.getMaxIdle());
+    }
+
+    private static int inflateAll(InputStream in) throws IOException {
+        byte[] buf = new byte[512];
+        int total = 0;
+        int n;
+        while ((n = in.read(buf)) != -1) {
+            total += n;
+        }
+        in.close();
+        return total;
+    }
+
+    @Test
+    public void testBenchmark() throws IOException {
+        byte[] data = randomText(new Random(2), 2000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream dos = new DeflaterOutputStream(out)) {
+            dos.write(data);
+        }
+        byte[] zlib = out.toByteArray();
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 50000; i++) {
+                inflateAll(new InflaterInputStream(new ByteArrayInputStream(zlib)));
+            }
+            long pooled = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < 50000; i++) {
+                Inflater inf = new Inflater();
+                inflateAll(new InflaterInputStream(new ByteArrayInputStream(zlib), inf));
+                inf.end();
+            }
+            long fresh = System.nanoTime() - start;
+            System.out.println("pooled: " + pooled / 1000000 + " ms, new Inflater each: "
+                               + fresh / 1000000 + " ms");
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package util.zip;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 基于 SeekableByteChannel 的 ZipFile 测试：内存通道与文件通道上的随机访问读取、
+ * 多线程并发读取、关闭与格式错误时关闭通道，以及与 ZipInputStream 顺序扫描的耗时对比
+ * @since 2026/10/17
+ */
+public class ZipFileChannelTest {
+
+    /**
+     * 只读的内存通道，并统计读取次数
+     */
+    private static class ByteArrayChannel implements SeekableByteChannel {
+        private final byte[] data;
+        private long position;
+        private boolean open = true;
+        int reads;
+
+        ByteArrayChannel(byte[] data) {
+            this.data = data;
+        }
+
+        private void ensureOpen() throws IOException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+        }
+
+        public int read(ByteBuffer dst) throws IOException {
+            ensureOpen();
+            reads++;
+            if (position >= data.length) {
+                return -1;
+            }
+            int n = (int) Math.min(dst.remaining(), data.length - position);
+            dst.put(data, (int) position, n);
+            position += n;
+            return n;
+        }
+
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        public long position() throws IOException {
+            ensureOpen();
+            return position;
+        }
+
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            ensureOpen();
+            position = newPosition;
+            return this;
+        }
+
+        public long size() throws IOException {
+            ensureOpen();
+            return data.length;
+        }
+
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        public boolean isOpen() {
+            return open;
+        }
+
+        public void close() {
+            open = false;
+        }
+    }
+
+    private static byte[] createZip(Map<String, byte[]> contents, String comment) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(out)) {
+            zos.setComment(comment);
+            int i = 0;
+            for (Map.Entry<String, byte[]> content : contents.entrySet()) {
+                byte[] data = content.getValue();
+                ZipEntry e = new ZipEntry(content.getKey());
+                if (i++ % 3 == 0) {
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    e.setMethod(ZipEntry.STORED);
+                    e.setSize(data.length);
+                    e.setCompressedSize(data.length);
+                    e.setCrc(crc.getValue());
+                }
+                zos.putNextEntry(e);
+                zos.write(data);
+                zos.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static Map<String, byte[]> randomContents(Random random, int n) {
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            byte[] data = new byte[random.nextInt(2000)];
+            for (int j = 0; j < data.length; j++) {
+                data[j] = (byte) ('a' + random.nextInt(4));
+            }
+            contents.put("pkg" + (i % 10) + "/Class" + i + ".class", data);
+        }
+        return contents;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[100];
+        int n;
+        while ((n = in.read(buf)) != -1) {
+            out.write(buf, 0, n);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+
+    private static void checkContents(ZipFile zf, Map<String, byte[]> contents) throws IOException {
+        Assert.assertEquals(contents.size(), zf.size());
+        List<String> names = zf.stream().map(ZipEntry::getName).collect(Collectors.toList());
+        Assert.assertEquals(new ArrayList<>(contents.keySet()), names);
+        // visit the entries out of order
+        List<String> shuffled = new ArrayList<>(contents.keySet());
+        java.util.Collections.shuffle(shuffled, new Random(0));
+        for (String name : shuffled) {
+            ZipEntry e = zf.getEntry(name);
+            Assert.assertNotNull(name, e);
+            Assert.assertEquals(contents.get(name).length, e.getSize());
+            Assert.assertArrayEquals(name, contents.get(name), readAll(zf.getInputStream(e)));
+        }
+        Assert.assertNull(zf.getEntry("missing"));
+    }
+
+    @Test
+    public void testMemoryChannel() throws IOException {
+        Map<String, byte[]> contents = randomContents(new Random(1), 500);
+        ByteArrayChannel ch = new ByteArrayChannel(createZip(contents, "in memory"));
+        try (ZipFile zf = new ZipFile(ch, "memory.zip")) {
+            Assert.assertEquals("memory.zip", zf.getName());
+            Assert.assertEquals("in memory", zf.getComment());
+            checkContents(zf, contents);
+
+            String stored = "pkg0/Class0.class";
+            ByteBuffer bb = zf.getByteBuffer(zf.getEntry(stored));
+            Assert.assertTrue(bb.isReadOnly());
+            byte[] b = new byte[bb.remaining()];
+            bb.get(b);
+            Assert.assertArrayEquals(contents.get(stored), b);
+            Assert.assertNull(zf.getByteBuffer(zf.getEntry("pkg1/Class1.class")));
+
+            // a lookup does not touch the channel
+            int reads = ch.reads;
+            for (String name : contents.keySet()) {
+                zf.getEntry(name);
+            }
+            Assert.assertEquals(reads, ch.reads);
+        }
+        Assert.assertFalse(ch.isOpen());
+    }
+
+    @Test
+    public void testFileChannel() throws IOException {
+        Map<String, byte[]> contents = randomContents(new Random(2), 300);
+        File file = File.createTempFile("channel", ".zip");
+        file.deleteOnExit();
+        Files.write(file.toPath(), createZip(contents, null));
+        FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try (ZipFile zf = new ZipFile(ch, file.getPath())) {
+            Assert.assertNull(zf.getComment());
+            checkContents(zf, contents);
+        }
+        Assert.assertFalse(ch.isOpen());
+        file.delete();
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        Map<String, byte[]> contents = randomContents(new Random(3), 400);
+        try (ZipFile zf = new ZipFile(new ByteArrayChannel(createZip(contents, null)), "concurrent")) {
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int seed = t;
+                Thread worker = new Thread(() -> {
+                    List<String> names = new ArrayList<>(contents.keySet());
+                    java.util.Collections.shuffle(names, new Random(seed));
+                    try {
+                        for (String name : names) {
+                            if (!java.util.Arrays.equals(contents.get(name),
+                                                         readAll(zf.getInputStream(zf.getEntry(name))))) {
+                                throw new AssertionError(name);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            if (failure.get() != null) {
+                throw new AssertionError(failure.get());
+            }
+        }
+    }
+
+    @Test
+    public void testCloseAndBadInput() throws IOException {
+        Map<String, byte[]> contents = randomContents(new Random(4), 10);
+        ByteArrayChannel ch = new ByteArrayChannel(createZip(contents, null));
+        ZipFile zf = new ZipFile(ch, "closed");
+        InputStream in = zf.getInputStream(zf.getEntry("pkg1/Class1.class"));
+        zf.close();
+        Assert.assertFalse(ch.isOpen());
+        try {
+            zf.getEntry("pkg1/Class1.class");
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            readAll(in);
+            Assert.fail();
+        } catch (IOException expected) {
+        }
+
+        ByteArrayChannel bad = new ByteArrayChannel(new byte[1000]);
+        try {
+            new ZipFile(bad, "bad");
+            Assert.fail();
+        } catch (ZipException expected) {
+        }
+        Assert.assertFalse(bad.isOpen());
+    }
+
+    @Test
+    public void testBenchmark() throws IOException {
+        Map<String, byte[]> contents = randomContents(new Random(5), 5000);
+        byte[] zip = createZip(contents, null);
+        List<String> names = new ArrayList<>(contents.keySet());
+        Random random = new Random(6);
+        String[] lookups = new String[200];
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = names.get(random.nextInt(names.size()));
+        }
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            try (ZipFile zf = new ZipFile(new ByteArrayChannel(zip), "bench")) {
+                for (String name : lookups) {
+                    readAll(zf.getInputStream(zf.getEntry(name)));
+                }
+            }
+            long indexed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < 20; i++) {
+                try (ZipInputStream zis = new ZipInputStream(new java.io.ByteArrayInputStream(zip))) {
+                    ZipEntry e;
+                    while ((e = zis.getNextEntry()) != null && !e.getName().equals(lookups[i])) {
+                    }
+                    readAll(zis);
+                }
+            }
+            long scanned = (System.nanoTime() - start) * lookups.length / 20;
+            System.out.println(lookups.length + " random reads: channel ZipFile " + indexed / 1000000
+                               + " ms, ZipInputStream scan ~" + scanned / 1000000 + " ms");
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package util.zip;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * ZipFile 映射模式测试：中央目录索引的查找、目录项补斜杠、STORED 条目零拷贝、
+ * ZIP64 条目数、非 UTF-8 字符集，以及可并行切分的 stream()
+ * @since 2026/10/17
+ */
+public class ZipFileMappedTest {
+
+    private static final int MAPPED = ZipFile.OPEN_READ | ZipFile.OPEN_MAPPED;
+
+    private static File createZip(Map<String, byte[]> contents, Charset charset,
+                                  String comment) throws IOException {
+        File file = File.createTempFile("mapped", ".zip");
+        file.deleteOnExit();
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(file), charset)) {
+            zos.setComment(comment);
+            int i = 0;
+            for (Map.Entry<String, byte[]> content : contents.entrySet()) {
+                byte[] data = content.getValue();
+                ZipEntry e = new ZipEntry(content.getKey());
+                if (i++ % 2 == 0) {
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    e.setMethod(ZipEntry.STORED);
+                    e.setSize(data.length);
+                    e.setCompressedSize(data.length);
+                    e.setCrc(crc.getValue());
+                }
+                if (i % 7 == 0) {
+                    e.setComment("comment " + i);
+                }
+                zos.putNextEntry(e);
+                zos.write(data);
+                zos.closeEntry();
+            }
+        }
+        return file;
+    }
+
+    private static Map<String, byte[]> randomContents(Random random, int n) {
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            if (i % 50 == 0) {
+                contents.put("dir" + i + "/", new byte[0]);
+            }
+            byte[] data = new byte[random.nextInt(300)];
+            for (int j = 0; j < data.length; j++) {
+                data[j] = (byte) ('a' + random.nextInt(4));
+            }
+            contents.put("dir" + (i / 50 * 50) + "/file" + i + ".txt", data);
+        }
+        return contents;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[64];
+        int n;
+        while ((n = in.read(buf)) != -1) {
+            out.write(buf, 0, n);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testLookupAndContents() throws IOException {
+        Map<String, byte[]> contents = randomContents(new Random(1), 2000);
+        File file = createZip(contents, StandardCharsets.UTF_8, "the comment");
+        try (ZipFile zf = new ZipFile(file, MAPPED, StandardCharsets.UTF_8)) {
+            Assert.assertEquals(contents.size(), zf.size());
+            Assert.assertEquals("the comment", zf.getComment());
+
+            List<String> names = new ArrayList<>();
+            Enumeration<? extends ZipEntry> entries = zf.entries();
+            while (entries.hasMoreElements()) {
+                names.add(entries.nextElement().getName());
+            }
+            Assert.assertEquals(new ArrayList<>(contents.keySet()), names);
+
+            int i = 0;
+            for (Map.Entry<String, byte[]> content : contents.entrySet()) {
+                ZipEntry e = zf.getEntry(content.getKey());
+                Assert.assertNotNull(content.getKey(), e);
+                Assert.assertEquals(content.getKey(), e.getName());
+                Assert.assertEquals(content.getValue().length, e.getSize());
+                Assert.assertEquals(i % 2 == 0 ? ZipEntry.STORED : ZipEntry.DEFLATED,
+                                    e.getMethod());
+                Assert.assertEquals((i + 1) % 7 == 0 ? "comment " + (i + 1) : null,
+                                    e.getComment());
+                Assert.assertArrayEquals(content.getValue(), readAll(zf.getInputStream(e)));
+
+                ByteBuffer buf = zf.getByteBuffer(e);
+                if (e.getMethod() == ZipEntry.STORED) {
+                    Assert.assertTrue(buf.isReadOnly());
+                    byte[] b = new byte[buf.remaining()];
+                    buf.get(b);
+                    Assert.assertArrayEquals(content.getValue(), b);
+                } else {
+                    Assert.assertNull(buf);
+                }
+                i++;
+            }
+
+            Assert.assertEquals("dir100/", zf.getEntry("dir100").getName());
+            Assert.assertNull(zf.getEntry("dir1"));
+            Assert.assertNull(zf.getEntry("dir0/file1.tx"));
+            Assert.assertNull(zf.getEntry("dir0/file1.txt/"));
+            Assert.assertNull(zf.getInputStream(new ZipEntry("dir100")));
+        }
+    }
+
+    @Test
+    public void testExactNameBeforeSlash() throws IOException {
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        contents.put("a/", new byte[0]);
+        contents.put("a", new byte[] { 1 });
+        contents.put("", new byte[] { 2 });
+        File file = createZip(contents, StandardCharsets.UTF_8, null);
+        try (ZipFile zf = new ZipFile(file, MAPPED, StandardCharsets.UTF_8)) {
+            Assert.assertNull(zf.getComment());
+            Assert.assertEquals("a", zf.getEntry("a").getName());
+            Assert.assertEquals("a/", zf.getEntry("a/").getName());
+            Assert.assertEquals(1, zf.getEntry("a").getSize());
+            Assert.assertEquals("", zf.getEntry("").getName());
+            Assert.assertEquals(2, readAll(zf.getInputStream(zf.getEntry("")))[0]);
+        }
+    }
+
+    @Test
+    public void testCharset() throws IOException {
+        Charset latin1 = StandardCharsets.ISO_8859_1;
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        contents.put("café/", new byte[0]);
+        contents.put("café/crème.txt", "brûlée".getBytes(latin1));
+        File file = createZip(contents, latin1, "déjà");
+        try (ZipFile zf = new ZipFile(file, MAPPED, latin1)) {
+            Assert.assertEquals("déjà", zf.getComment());
+            Assert.assertEquals("café/", zf.getEntry("café").getName());
+            ZipEntry e = zf.getEntry("café/crème.txt");
+            Assert.assertNotNull(e);
+            Assert.assertArrayEquals(contents.get(e.getName()), readAll(zf.getInputStream(e)));
+            Assert.assertEquals(new ArrayList<>(contents.keySet()),
+                zf.stream().parallel().map(ZipEntry::getName).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testZip64EntryCount() throws IOException {
+        int n = 70000;
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            contents.put("e" + i, new byte[] { (byte) i });
+        }
+        File file = createZip(contents, StandardCharsets.UTF_8, null);
+        try (ZipFile zf = new ZipFile(file, MAPPED, StandardCharsets.UTF_8)) {
+            Assert.assertEquals(n, zf.size());
+            for (int i = 0; i < n; i += 997) {
+                ZipEntry e = zf.getEntry("e" + i);
+                Assert.assertEquals((byte) i, readAll(zf.getInputStream(e))[0]);
+            }
+            Assert.assertEquals((byte) (n - 1),
+                readAll(zf.getInputStream(zf.getEntry("e" + (n - 1))))[0]);
+        }
+    }
+
+    @Test
+    public void testParallelStream() throws IOException {
+        Map<String, byte[]> contents = randomContents(new Random(2), 5000);
+        File file = createZip(contents, StandardCharsets.UTF_8, null);
+        try (ZipFile zf = new ZipFile(file, MAPPED, StandardCharsets.UTF_8)) {
+            Spliterator<? extends ZipEntry> spliterator = zf.stream().spliterator();
+            Assert.assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+            Assert.assertEquals(contents.size(), spliterator.getExactSizeIfKnown());
+            Spliterator<? extends ZipEntry> prefix = spliterator.trySplit();
+            Assert.assertNotNull(prefix);
+            Assert.assertEquals(contents.size(),
+                prefix.getExactSizeIfKnown() + spliterator.getExactSizeIfKnown());
+
+            List<String> names = zf.stream().parallel()
+                .map(ZipEntry::getName).collect(Collectors.toList());
+            Assert.assertEquals(new ArrayList<>(contents.keySet()), names);
+            long total = zf.stream().parallel().mapToLong(ZipEntry::getSize).sum();
+            Assert.assertEquals(contents.values().stream().mapToLong(b -> b.length).sum(), total);
+        }
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        Map<String, byte[]> contents = randomContents(new Random(3), 10);
+        File file = createZip(contents, StandardCharsets.UTF_8, null);
+        ZipFile zf = new ZipFile(file, MAPPED | ZipFile.OPEN_DELETE, StandardCharsets.UTF_8);
+        String name = contents.keySet().iterator().next();
+        ZipEntry e = zf.getEntry("dir0/file1.txt");
+        ByteBuffer buf = zf.getByteBuffer(e);
+        InputStream in = zf.getInputStream(e);
+        zf.close();
+        Assert.assertFalse(file.exists());
+        Assert.assertEquals(contents.get("dir0/file1.txt").length, buf.remaining());
+        Assert.assertEquals(-1, in.read());
+        try {
+            zf.getEntry(name);
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            zf.stream();
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    public void testLookupBenchmark() throws IOException {
+        int n = 80000;
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            contents.put("com/example/pkg" + (i % 400) + "/Class" + i + ".class", new byte[0]);
+        }
+        File file = createZip(contents, StandardCharsets.UTF_8, null);
+        String[] names = contents.keySet().toArray(new String[0]);
+        for (int round = 0; round < 3; round++) {
+            for (int mode : new int[] { ZipFile.OPEN_READ, MAPPED }) {
+                long start = System.nanoTime();
+                int found = 0;
+                try (ZipFile zf = new ZipFile(file, mode)) {
+                    for (String name : names) {
+                        if (zf.getEntry(name) != null) {
+                            found++;
+                        }
+                    }
+                    found += zf.stream().parallel().count();
+                }
+                Assert.assertEquals(2 * n, found);
+                System.out.println((mode == MAPPED ? "mapped" : "native") + ": " +
+                                   (System.nanoTime() - start) / 1000000 + " ms");
+            }
+        }
+    }
+}